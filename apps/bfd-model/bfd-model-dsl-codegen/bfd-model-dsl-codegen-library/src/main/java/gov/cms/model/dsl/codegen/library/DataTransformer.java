@@ -9,7 +9,9 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Month;
 import java.time.OffsetDateTime;
+import java.time.Year;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
@@ -34,6 +36,11 @@ import lombok.Getter;
  * value to a Consumer (usually a setter on the entity). All data validation failures are tracked in
  * a List. Following the transformation, the caller can invoke the isSuccessful method to determine
  * if there were any errors. All copy methods return this instance so that calls can be chained.
+ *
+ * <p>Dates, RIF time stamps, and amounts in their common fixed formats are parsed directly from the
+ * string without going through {@link DateTimeFormatter} or the {@link BigDecimal} string parser.
+ * Any value that the direct parsers cannot handle is passed to the original parser so that results
+ * and error messages are unchanged.
  */
 public class DataTransformer {
   /** {@link DateTimeFormatter} used to parse RIF 8 character date values. */
@@ -54,8 +61,23 @@ public class DataTransformer {
           .appendPattern("dd-MMM-yyyy HH:mm:ss")
           .toFormatter();
 
-  /** List of error messages for errors detected during transformation. */
-  private final List<ErrorMessage> errors = new ArrayList<>();
+  /**
+   * Month abbreviations produced by {@link #RifElevenCharacterDate} indexed by month number minus
+   * one. An entry is null if the abbreviation for that month is not exactly three characters long.
+   */
+  private static final String[] RifMonthAbbreviations = createRifMonthAbbreviations();
+
+  /**
+   * Maximum number of digits in an amount that can be parsed directly into a {@code long} unscaled
+   * value without any possibility of overflow.
+   */
+  private static final int MaxDirectAmountDigits = 18;
+
+  /**
+   * List of error messages for errors detected during transformation. Most transformations succeed
+   * so this is only created when the first error is added.
+   */
+  private List<ErrorMessage> errors;
 
   /**
    * Determines if all of the transformations were successful.
@@ -63,7 +85,7 @@ public class DataTransformer {
    * @return true if all transformations were successful, false otherwise
    */
   public boolean isSuccessful() {
-    return errors.isEmpty();
+    return errors == null;
   }
 
   /**
@@ -72,7 +94,7 @@ public class DataTransformer {
    * @return A (possibly empty) list of all the transformation errors.
    */
   public List<ErrorMessage> getErrors() {
-    return ImmutableList.copyOf(errors);
+    return errors == null ? ImmutableList.of() : ImmutableList.copyOf(errors);
   }
 
   /**
@@ -84,7 +106,7 @@ public class DataTransformer {
    */
   @CanIgnoreReturnValue
   public DataTransformer throwIfErrorsPresent() throws TransformationException {
-    if (errors.size() > 0) {
+    if (errors != null) {
       throw new TransformationException(
           String.format("failed with %d errors", errors.size()), getErrors());
     }
@@ -467,19 +489,7 @@ public class DataTransformer {
       String fieldName, boolean nullable, String value, Consumer<LocalDate> copier) {
     if (nonNull(fieldName, value, nullable)) {
       try {
-        LocalDate date;
-        switch (value.length()) {
-          case 8:
-            date = LocalDate.parse(value, RifEightCharacterDate);
-            break;
-          case 11:
-            date = LocalDate.parse(value, RifElevenCharacterDate);
-            break;
-          default:
-            date = LocalDate.parse(value);
-            break;
-        }
-        copier.accept(date);
+        copier.accept(parseDate(value));
       } catch (DateTimeParseException ex) {
         addError(fieldName, "invalid date");
       }
@@ -558,6 +568,30 @@ public class DataTransformer {
     return this;
   }
 
+  /**
+   * Parses the string into an int and delivers it to the {@link IntConsumer}. Identical to {@link
+   * #copyIntString} but avoids boxing the value when the destination is a primitive field. Valid
+   * null values are silently accepted without calling the Consumer.
+   *
+   * @param fieldName name of the field from which the value originates
+   * @param nullable true if null is a valid value
+   * @param value integer string
+   * @param copier Consumer to receive the int
+   * @return this
+   */
+  public DataTransformer copyPrimitiveIntString(
+      String fieldName, boolean nullable, String value, IntConsumer copier) {
+    if (nonNull(fieldName, value, nullable)) {
+      try {
+        int intValue = Integer.parseInt(value);
+        copier.accept(intValue);
+      } catch (NumberFormatException ex) {
+        addError(fieldName, "invalid integer");
+      }
+    }
+    return this;
+  }
+
   /**
    * Parses the string into a Short and delivers it to the Consumer. The string value must be a
    * valid short. Valid null values are silently accepted without calling the Consumer.
@@ -603,6 +637,30 @@ public class DataTransformer {
     return this;
   }
 
+  /**
+   * Parses the string into a short and delivers it to the {@link ShortConsumer}. Identical to
+   * {@link #copyShortString} but avoids boxing the value when the destination is a primitive field.
+   * Valid null values are silently accepted without calling the Consumer.
+   *
+   * @param fieldName name of the field from which the value originates
+   * @param nullable true if null is a valid value
+   * @param value short string
+   * @param copier Consumer to receive the short
+   * @return this
+   */
+  public DataTransformer copyPrimitiveShortString(
+      String fieldName, boolean nullable, String value, ShortConsumer copier) {
+    if (nonNull(fieldName, value, nullable)) {
+      try {
+        short shortValue = Short.parseShort(value);
+        copier.accept(shortValue);
+      } catch (NumberFormatException ex) {
+        addError(fieldName, "invalid short");
+      }
+    }
+    return this;
+  }
+
   /**
    * Parses the string into an Long and delivers it to the Consumer. The string value must be a
    * valid long. Valid null values are silently accepted without calling the Consumer.
@@ -648,6 +706,30 @@ public class DataTransformer {
     return this;
   }
 
+  /**
+   * Parses the string into a long and delivers it to the {@link LongConsumer}. Identical to {@link
+   * #copyLongString} but avoids boxing the value when the destination is a primitive field. Valid
+   * null values are silently accepted without calling the Consumer.
+   *
+   * @param fieldName name of the field from which the value originates
+   * @param nullable true if null is a valid value
+   * @param value long string
+   * @param copier Consumer to receive the long
+   * @return this
+   */
+  public DataTransformer copyPrimitiveLongString(
+      String fieldName, boolean nullable, String value, LongConsumer copier) {
+    if (nonNull(fieldName, value, nullable)) {
+      try {
+        long longValue = Long.parseLong(value);
+        copier.accept(longValue);
+      } catch (NumberFormatException ex) {
+        addError(fieldName, "invalid long");
+      }
+    }
+    return this;
+  }
+
   /**
    * Base64 encodes the value of a String field and passes it to the consumer.
    *
@@ -745,8 +827,7 @@ public class DataTransformer {
       String fieldName, boolean nullable, String value, Consumer<Instant> copier) {
     if (nonNull(fieldName, value, nullable)) {
       try {
-        Instant timestamp = LocalDateTime.parse(value, RifTimestamp).toInstant(ZoneOffset.UTC);
-        copier.accept(timestamp);
+        copier.accept(parseRifTimestamp(value));
       } catch (DateTimeParseException ex) {
         addError(fieldName, "invalid timestamp");
       }
@@ -792,8 +873,7 @@ public class DataTransformer {
       String fieldName, boolean nullable, String value, Consumer<BigDecimal> copier) {
     if (nonNull(fieldName, value, nullable)) {
       try {
-        BigDecimal amount = new BigDecimal(value);
-        copier.accept(amount);
+        copier.accept(parseAmount(value));
       } catch (NumberFormatException ex) {
         addError(fieldName, "invalid amount");
       }
@@ -932,6 +1012,9 @@ public class DataTransformer {
    */
   public void addError(String fieldName, String errorFormat, Object... args) {
     final String message = String.format(errorFormat, args);
+    if (errors == null) {
+      errors = new ArrayList<>();
+    }
     errors.add(new ErrorMessage(fieldName, message));
   }
 
@@ -945,6 +1028,210 @@ public class DataTransformer {
     return Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
   }
 
+  /**
+   * Parses a date in any of the formats accepted by {@link #copyDate}. The common fixed formats are
+   * parsed directly. Anything the direct parser does not accept, including every invalid value, is
+   * parsed using the appropriate {@link DateTimeFormatter} so that the result or exception is the
+   * same as if the formatter had been used for every value.
+   *
+   * @param value date string
+   * @return the parsed date
+   * @throws DateTimeParseException if the value is not a valid date
+   */
+  private static LocalDate parseDate(String value) {
+    LocalDate date;
+    switch (value.length()) {
+      case 8:
+        date = parseEightCharacterDate(value);
+        return date != null ? date : LocalDate.parse(value, RifEightCharacterDate);
+      case 10:
+        date = parseIsoDate(value);
+        return date != null ? date : LocalDate.parse(value);
+      case 11:
+        date = parseElevenCharacterDate(value, 0);
+        return date != null ? date : LocalDate.parse(value, RifElevenCharacterDate);
+      default:
+        return LocalDate.parse(value);
+    }
+  }
+
+  /**
+   * Parses a RIF time stamp ({@code "dd-MMM-yyyy HH:mm:ss"}) as a UTC {@link Instant}. Values the
+   * direct parser does not accept are parsed using {@link #RifTimestamp}.
+   *
+   * @param value time stamp string
+   * @return the parsed time stamp
+   * @throws DateTimeParseException if the value is not a valid time stamp
+   */
+  private static Instant parseRifTimestamp(String value) {
+    if (value.length() == 20
+        && value.charAt(11) == ' '
+        && value.charAt(14) == ':'
+        && value.charAt(17) == ':') {
+      final LocalDate date = parseElevenCharacterDate(value, 0);
+      final int hour = parseDigits(value, 12, 14);
+      final int minute = parseDigits(value, 15, 17);
+      final int second = parseDigits(value, 18, 20);
+      if (date != null
+          && hour >= 0
+          && hour <= 23
+          && minute >= 0
+          && minute <= 59
+          && second >= 0
+          && second <= 59) {
+        return Instant.ofEpochSecond(
+            date.toEpochDay() * 86_400L + hour * 3_600L + minute * 60L + second);
+      }
+    }
+    return LocalDateTime.parse(value, RifTimestamp).toInstant(ZoneOffset.UTC);
+  }
+
+  /**
+   * Parses an amount into a {@link BigDecimal}. Plain decimal values with an optional sign and at
+   * most {@link #MaxDirectAmountDigits} digits are converted directly from their unscaled value and
+   * scale. Any other value is passed to {@link BigDecimal#BigDecimal(String)}.
+   *
+   * @param value string containing a real number
+   * @return the parsed amount
+   * @throws NumberFormatException if the value is not a valid number
+   */
+  private static BigDecimal parseAmount(String value) {
+    final int length = value.length();
+    int index = 0;
+    boolean negative = false;
+    if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+      negative = value.charAt(0) == '-';
+      index = 1;
+    }
+    long unscaled = 0;
+    int digits = 0;
+    int scale = 0;
+    boolean decimalPoint = false;
+    for (; index < length; ++index) {
+      final char ch = value.charAt(index);
+      if (ch >= '0' && ch <= '9' && digits < MaxDirectAmountDigits) {
+        unscaled = unscaled * 10 + (ch - '0');
+        digits += 1;
+        if (decimalPoint) {
+          scale += 1;
+        }
+      } else if (ch == '.' && !decimalPoint) {
+        decimalPoint = true;
+      } else {
+        return new BigDecimal(value);
+      }
+    }
+    if (digits == 0) {
+      return new BigDecimal(value);
+    }
+    return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+  }
+
+  /**
+   * Directly parses a valid {@code yyyyMMdd} date.
+   *
+   * @param value 8 character date string
+   * @return the date or null if the value should be parsed by {@link #RifEightCharacterDate}
+   */
+  private static LocalDate parseEightCharacterDate(String value) {
+    return createDate(parseDigits(value, 0, 4), parseDigits(value, 4, 6), parseDigits(value, 6, 8));
+  }
+
+  /**
+   * Directly parses a valid ISO-8601 {@code yyyy-MM-dd} date.
+   *
+   * @param value 10 character date string
+   * @return the date or null if the value should be parsed by {@link LocalDate#parse}
+   */
+  private static LocalDate parseIsoDate(String value) {
+    if (value.charAt(4) != '-' || value.charAt(7) != '-') {
+      return null;
+    }
+    final int year = parseDigits(value, 0, 4);
+    // ISO dates allow year zero but the RIF formats do not
+    return year == 0 ? null : createDate(year, parseDigits(value, 5, 7), parseDigits(value, 8, 10));
+  }
+
+  /**
+   * Directly parses a valid {@code dd-MMM-yyyy} date starting at the given offset in a string. The
+   * month abbreviation is matched without regard to case just as it is by {@link
+   * #RifElevenCharacterDate}.
+   *
+   * @param value string containing the date
+   * @param offset position of the first character of the date
+   * @return the date or null if the value should be parsed by a {@link DateTimeFormatter}
+   */
+  private static LocalDate parseElevenCharacterDate(String value, int offset) {
+    if (value.charAt(offset + 2) != '-' || value.charAt(offset + 6) != '-') {
+      return null;
+    }
+    int month = 0;
+    for (int i = 0; i < RifMonthAbbreviations.length && month == 0; ++i) {
+      final String abbreviation = RifMonthAbbreviations[i];
+      if (abbreviation != null && value.regionMatches(true, offset + 3, abbreviation, 0, 3)) {
+        month = i + 1;
+      }
+    }
+    return createDate(
+        parseDigits(value, offset + 7, offset + 11), month, parseDigits(value, offset, offset + 2));
+  }
+
+  /**
+   * Creates a {@link LocalDate} if the year, month, and day are all valid. Only years from 1 to
+   * 9999 are accepted since those are the only ones every date format handles the same way.
+   *
+   * @param year the year
+   * @param month the month from 1 to 12
+   * @param day the day of the month
+   * @return the date or null if any part is out of range
+   */
+  private static LocalDate createDate(int year, int month, int day) {
+    if (year < 1 || month < 1 || month > 12 || day < 1) {
+      return null;
+    }
+    if (day > Month.of(month).length(Year.isLeap(year))) {
+      return null;
+    }
+    return LocalDate.of(year, month, day);
+  }
+
+  /**
+   * Parses a fixed width field containing only ASCII digits.
+   *
+   * @param value string containing the digits
+   * @param start position of the first digit
+   * @param end position following the last digit
+   * @return the non-negative value or -1 if any character is not a digit
+   */
+  private static int parseDigits(String value, int start, int end) {
+    int result = 0;
+    for (int i = start; i < end; ++i) {
+      final char ch = value.charAt(i);
+      if (ch < '0' || ch > '9') {
+        return -1;
+      }
+      result = result * 10 + (ch - '0');
+    }
+    return result;
+  }
+
+  /**
+   * Determines the month abbreviations that {@link #RifElevenCharacterDate} uses by formatting a
+   * date in each month.
+   *
+   * @return the abbreviations indexed by month number minus one
+   */
+  private static String[] createRifMonthAbbreviations() {
+    final String[] abbreviations = new String[12];
+    for (int month = 1; month <= 12; ++month) {
+      final String formatted = RifElevenCharacterDate.format(LocalDate.of(2000, month, 1));
+      if (formatted.length() == 11) {
+        abbreviations[month - 1] = formatted.substring(3, 6);
+      }
+    }
+    return abbreviations;
+  }
+
   /**
    * Produces a string suitable for logging comparison mis-matches of two potentially sensitive
    * strings. The resulting string contains '.' to indicate characters that match, '+' to indicate
@@ -976,6 +1263,20 @@ public class DataTransformer {
     return sb.toString();
   }
 
+  /**
+   * Represents an operation that accepts a single {@code short} argument and returns no result.
+   * This is the {@code short} specialization of {@link Consumer} used to avoid boxing.
+   */
+  @FunctionalInterface
+  public interface ShortConsumer {
+    /**
+     * Performs this operation on the given argument.
+     *
+     * @param value the input argument
+     */
+    void accept(short value);
+  }
+
   /** Helper class for tracking error messages. */
   @Data
   public static class ErrorMessage {
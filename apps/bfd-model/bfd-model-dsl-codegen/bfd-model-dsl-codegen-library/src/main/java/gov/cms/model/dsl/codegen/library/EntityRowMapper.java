@@ -0,0 +1,339 @@
+package gov.cms.model.dsl.codegen.library;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Base class for generated classes that read entities directly from a JDBC {@link ResultSet} rather
+ * than through JPA. Each generated subclass knows the table and columns of one entity, reads the
+ * columns of a row by position, and populates a new instance of the entity class using its setters.
+ * The entities are not attached to any persistence context so they must be treated as read only.
+ *
+ * <p>Collections of child entities are loaded by {@link #readCollections} using one query per
+ * collection for all of the parents returned by a query, so that the wide parent rows are never
+ * repeated for each child row as they are when the collection is join fetched. Single value joins
+ * other than the reference from a child to its parent are not populated.
+ *
+ * @param <T> the entity class
+ */
+public abstract class EntityRowMapper<T> {
+  /** Maximum number of parent keys bound to a single query when loading child entities. */
+  static final int MAX_KEYS_PER_QUERY = 1_000;
+
+  /** Name of the table including its schema, if it has one. */
+  private final String tableName;
+
+  /** Names of the columns in the order that {@link #mapRow} reads them. */
+  private final List<String> selectColumnNames;
+
+  /** Column names keyed by the name of the corresponding field in the entity. */
+  private final Map<String, String> columnNames;
+
+  /** Statement that selects every column read by {@link #mapRow}. */
+  private final String selectSql;
+
+  /**
+   * Initializes an instance. Called by the constructor of the generated subclass.
+   *
+   * @param tableName name of the table including its schema, if it has one
+   * @param selectColumnNames names of the columns in the order that {@link #mapRow} reads them
+   * @param columnNames column names keyed by entity field name, including columns that have no
+   *     field in the entity
+   */
+  protected EntityRowMapper(
+      String tableName, List<String> selectColumnNames, Map<String, String> columnNames) {
+    this.tableName = tableName;
+    this.selectColumnNames = List.copyOf(selectColumnNames);
+    this.columnNames = Map.copyOf(columnNames);
+    selectSql = createSelectSql(String.join(", ", selectColumnNames));
+  }
+
+  /**
+   * Gets the name of the table including its schema, if it has one.
+   *
+   * @return the table name
+   */
+  public String getTableName() {
+    return tableName;
+  }
+
+  /**
+   * Gets the statement that selects every column read by {@link #mapRow}. Callers append their own
+   * {@code where} and {@code order by} clauses.
+   *
+   * @return the statement
+   */
+  public String getSelectSql() {
+    return selectSql;
+  }
+
+  /**
+   * Gets the name of the column that holds a field of the entity. Used by callers to build the
+   * clauses passed to {@link #readAll} using the same field names as JPA queries.
+   *
+   * @param fieldName name of the field in the entity or of a database only column
+   * @return the column name
+   * @throws IllegalArgumentException if there is no such column
+   */
+  public String getColumnName(String fieldName) {
+    final String columnName = columnNames.get(fieldName);
+    if (columnName == null) {
+      throw new IllegalArgumentException(
+          String.format("no column for field: table=%s field=%s", tableName, fieldName));
+    }
+    return columnName;
+  }
+
+  /**
+   * Creates an entity from the current row of a {@link ResultSet} whose columns match those in
+   * {@link #getSelectSql}. Collections are left empty.
+   *
+   * @param resultSet positioned on the row to read
+   * @return the entity
+   * @throws SQLException if a column cannot be read
+   */
+  public abstract T mapRow(ResultSet resultSet) throws SQLException;
+
+  /**
+   * Runs {@link #getSelectSql} with the given clauses appended and returns the resulting entities
+   * with their collections loaded.
+   *
+   * @param connection used to run the queries
+   * @param clauses {@code where} and {@code order by} clauses to append, possibly empty
+   * @param parameters values for the parameters in the clauses
+   * @return the entities in the order returned by the query
+   * @throws SQLException if a query fails
+   */
+  public List<T> readAll(Connection connection, String clauses, List<?> parameters)
+      throws SQLException {
+    final String sql = clauses.isEmpty() ? selectSql : selectSql + " " + clauses;
+    final List<T> entities = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      setParameters(statement, parameters);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          entities.add(mapRow(resultSet));
+        }
+      }
+    }
+    if (!entities.isEmpty()) {
+      readCollections(connection, entities);
+    }
+    return entities;
+  }
+
+  /**
+   * Loads the collections of child entities for some entities. Generated subclasses override this
+   * to call {@link #readChildren} once for each collection. The default does nothing.
+   *
+   * @param connection used to run the queries
+   * @param entities the parent entities, never empty
+   * @throws SQLException if a query fails
+   */
+  protected void readCollections(Connection connection, List<T> entities) throws SQLException {}
+
+  /**
+   * Loads the child entities of one collection for every parent entity and adds each one to its
+   * parent. Children are queried in batches of keys and are added in order of the key column
+   * followed by the optional order by clause. The children's own collections are then loaded
+   * recursively.
+   *
+   * @param connection used to run the queries
+   * @param childMapper reads the child entities
+   * @param keyColumnName column in the child table that holds the parent's primary key
+   * @param keyClass java type of the parent's primary key
+   * @param orderBy additional {@code order by} terms or empty string for none
+   * @param parentsByKey the parent entities keyed by their primary key
+   * @param attach adds a child to its parent
+   * @param <C> the child entity class
+   * @param <K> the type of the parent's primary key
+   * @throws SQLException if a query fails
+   */
+  protected <C, K> void readChildren(
+      Connection connection,
+      EntityRowMapper<C> childMapper,
+      String keyColumnName,
+      Class<K> keyClass,
+      String orderBy,
+      Map<K, T> parentsByKey,
+      BiConsumer<T, C> attach)
+      throws SQLException {
+    final List<K> keys = new ArrayList<>(parentsByKey.keySet());
+    final int keyPosition = childMapper.selectColumnNames.size() + 1;
+    final List<C> children = new ArrayList<>();
+    for (int start = 0; start < keys.size(); start += MAX_KEYS_PER_QUERY) {
+      final List<K> batch = keys.subList(start, Math.min(keys.size(), start + MAX_KEYS_PER_QUERY));
+      final String sql =
+          childMapper.createSelectSql(
+                  String.join(", ", childMapper.selectColumnNames) + ", " + keyColumnName)
+              + String.format(
+                  " where %s in (%s) order by %s%s",
+                  keyColumnName,
+                  String.join(", ", Collections.nCopies(batch.size(), "?")),
+                  keyColumnName,
+                  orderBy.isEmpty() ? "" : ", " + orderBy);
+      try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        setParameters(statement, batch);
+        try (ResultSet resultSet = statement.executeQuery()) {
+          while (resultSet.next()) {
+            final C child = childMapper.mapRow(resultSet);
+            final T parent = parentsByKey.get(resultSet.getObject(keyPosition, keyClass));
+            if (parent != null) {
+              attach.accept(parent, child);
+              children.add(child);
+            }
+          }
+        }
+      }
+    }
+    if (!children.isEmpty()) {
+      childMapper.readCollections(connection, children);
+    }
+  }
+
+  /**
+   * Creates a statement that selects the given columns from our table.
+   *
+   * @param columns comma separated list of column names
+   * @return the statement
+   */
+  private String createSelectSql(String columns) {
+    return String.format("select %s from %s", columns, tableName);
+  }
+
+  /**
+   * Binds values to the parameters of a statement. {@link Instant}s are bound as {@link Timestamp}s
+   * since not every driver accepts them directly.
+   *
+   * @param statement the statement
+   * @param parameters the values in parameter order
+   * @throws SQLException if a value cannot be bound
+   */
+  private static void setParameters(PreparedStatement statement, List<?> parameters)
+      throws SQLException {
+    for (int i = 0; i < parameters.size(); ++i) {
+      final Object value = parameters.get(i);
+      if (value instanceof Instant instant) {
+        statement.setTimestamp(i + 1, Timestamp.from(instant));
+      } else {
+        statement.setObject(i + 1, value);
+      }
+    }
+  }
+
+  /**
+   * Reads a nullable single character column.
+   *
+   * @param resultSet the result set
+   * @param column position of the column
+   * @return the first character of the value or null if the value is null or empty
+   * @throws SQLException if the column cannot be read
+   */
+  protected static Character getCharacter(ResultSet resultSet, int column) throws SQLException {
+    final String value = resultSet.getString(column);
+    return value == null || value.isEmpty() ? null : value.charAt(0);
+  }
+
+  /**
+   * Reads a non-null single character column.
+   *
+   * @param resultSet the result set
+   * @param column position of the column
+   * @return the first character of the value or zero if the value is null or empty
+   * @throws SQLException if the column cannot be read
+   */
+  protected static char getChar(ResultSet resultSet, int column) throws SQLException {
+    final Character value = getCharacter(resultSet, column);
+    return value == null ? 0 : value;
+  }
+
+  /**
+   * Reads a nullable smallint column.
+   *
+   * @param resultSet the result set
+   * @param column position of the column
+   * @return the value or null
+   * @throws SQLException if the column cannot be read
+   */
+  protected static Short getNullableShort(ResultSet resultSet, int column) throws SQLException {
+    final short value = resultSet.getShort(column);
+    return resultSet.wasNull() ? null : value;
+  }
+
+  /**
+   * Reads a nullable integer column.
+   *
+   * @param resultSet the result set
+   * @param column position of the column
+   * @return the value or null
+   * @throws SQLException if the column cannot be read
+   */
+  protected static Integer getNullableInt(ResultSet resultSet, int column) throws SQLException {
+    final int value = resultSet.getInt(column);
+    return resultSet.wasNull() ? null : value;
+  }
+
+  /**
+   * Reads a nullable bigint column.
+   *
+   * @param resultSet the result set
+   * @param column position of the column
+   * @return the value or null
+   * @throws SQLException if the column cannot be read
+   */
+  protected static Long getNullableLong(ResultSet resultSet, int column) throws SQLException {
+    final long value = resultSet.getLong(column);
+    return resultSet.wasNull() ? null : value;
+  }
+
+  /**
+   * Reads a nullable date column.
+   *
+   * @param resultSet the result set
+   * @param column position of the column
+   * @return the value or null
+   * @throws SQLException if the column cannot be read
+   */
+  protected static LocalDate getLocalDate(ResultSet resultSet, int column) throws SQLException {
+    return resultSet.getObject(column, LocalDate.class);
+  }
+
+  /**
+   * Reads a nullable timestamp column.
+   *
+   * @param resultSet the result set
+   * @param column position of the column
+   * @return the value or null
+   * @throws SQLException if the column cannot be read
+   */
+  protected static Instant getInstant(ResultSet resultSet, int column) throws SQLException {
+    final Timestamp value = resultSet.getTimestamp(column);
+    return value == null ? null : value.toInstant();
+  }
+
+  /**
+   * Reads a nullable column that holds the name of an enum constant.
+   *
+   * @param resultSet the result set
+   * @param column position of the column
+   * @param enumClass the enum class
+   * @param <E> the enum type
+   * @return the enum constant or null
+   * @throws SQLException if the column cannot be read
+   */
+  protected static <E extends Enum<E>> E getEnum(
+      ResultSet resultSet, int column, Class<E> enumClass) throws SQLException {
+    final String value = resultSet.getString(column);
+    return value == null ? null : Enum.valueOf(enumClass, value);
+  }
+}
@@ -0,0 +1,89 @@
+package gov.cms.model.dsl.codegen.library;
+
+import java.util.Arrays;
+import java.util.Map;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * Maps the RIF column labels read by a generated parser to their positions within the {@link
+ * CSVRecord}s of a file. Generated code refers to each label by its index in the list passed to the
+ * constructor. The positions are looked up in the file's header once per {@link CSVParser} so that
+ * reading a field is an array access rather than a hash lookup of its label.
+ *
+ * <p>Instances are safe to share between threads. Only the positions for the most recently seen
+ * {@link CSVParser} are retained since a parser normally reads one file at a time.
+ */
+public class RifColumnIndex {
+  /** Position used for labels that do not appear in the file's header. */
+  static final int UNKNOWN_POSITION = -1;
+
+  /** The column labels in the order generated code refers to them. */
+  private final String[] labels;
+
+  /** Positions resolved for the most recently seen file. */
+  private volatile Resolved resolved;
+
+  /**
+   * Initializes an instance for the given column labels.
+   *
+   * @param labels the column labels in the order generated code refers to them
+   */
+  public RifColumnIndex(String... labels) {
+    this.labels = labels.clone();
+  }
+
+  /**
+   * Gets the label of a column.
+   *
+   * @param column index of the column in the list of labels
+   * @return the column label
+   */
+  public String getLabel(int column) {
+    return labels[column];
+  }
+
+  /**
+   * Finds the position of a column in the given record. Positions are computed from the record's
+   * header the first time a record from a given file is seen.
+   *
+   * @param record a record from the file being parsed
+   * @param column index of the column in the list of labels
+   * @return the position of the column or {@link #UNKNOWN_POSITION} if the file has no such column
+   */
+  int positionOf(CSVRecord record, int column) {
+    final CSVParser parser = record.getParser();
+    Resolved current = resolved;
+    if (current == null || current.parser != parser) {
+      current = new Resolved(parser, resolvePositions(parser));
+      resolved = current;
+    }
+    return current.positions[column];
+  }
+
+  /**
+   * Looks up the position of every label in the header of the given parser's file.
+   *
+   * @param parser the parser for the file, or null if unknown
+   * @return positions indexed the same as {@link #labels}
+   */
+  private int[] resolvePositions(CSVParser parser) {
+    final int[] positions = new int[labels.length];
+    Arrays.fill(positions, UNKNOWN_POSITION);
+    final Map<String, Integer> headerMap = parser == null ? null : parser.getHeaderMap();
+    if (headerMap != null) {
+      for (int i = 0; i < labels.length; ++i) {
+        positions[i] = headerMap.getOrDefault(labels[i], UNKNOWN_POSITION);
+      }
+    }
+    return positions;
+  }
+
+  /**
+   * Column positions for a particular file.
+   *
+   * @param parser the parser reading the file
+   * @param positions positions indexed the same as {@link #labels}
+   */
+  private record Resolved(CSVParser parser, int[] positions) {}
+}
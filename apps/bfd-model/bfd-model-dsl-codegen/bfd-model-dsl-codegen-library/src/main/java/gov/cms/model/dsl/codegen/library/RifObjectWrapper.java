@@ -91,4 +91,50 @@ public class RifObjectWrapper {
     }
     return value;
   }
+
+  /**
+   * Tests whether a value exists for a column. Equivalent to {@link #hasValue(String)} but finds
+   * the column by its position rather than its label.
+   *
+   * @param columns maps the column index to a position in the record
+   * @param column index of the column in {@code columns}
+   * @return true if the value is non-null and non-empty
+   */
+  public boolean hasValue(RifColumnIndex columns, int column) {
+    return !Strings.isNullOrEmpty(get(columns, column));
+  }
+
+  /**
+   * Returns a (possibly empty) value for a column. Equivalent to {@link #getValue(String, String)}
+   * but finds the column by its position rather than its label.
+   *
+   * @param columns maps the column index to a position in the record
+   * @param column index of the column in {@code columns}
+   * @param defaultValue the default value
+   * @return the String at the given column
+   */
+  public String getValue(RifColumnIndex columns, int column, String defaultValue) {
+    var value = get(columns, column);
+    if (value != null && value.isEmpty() && defaultValue != null) {
+      value = defaultValue;
+    }
+    return value;
+  }
+
+  /**
+   * Reads a column by position. Falls back to reading it by label when the position is unknown or
+   * the record is too short so that errors are reported exactly as {@link CSVRecord#get(String)}
+   * reports them.
+   *
+   * @param columns maps the column index to a position in the record
+   * @param column index of the column in {@code columns}
+   * @return the value
+   */
+  private String get(RifColumnIndex columns, int column) {
+    final int position = columns.positionOf(header, column);
+    if (position >= 0 && position < header.size()) {
+      return header.get(position);
+    }
+    return header.get(columns.getLabel(column));
+  }
 }
@@ -1,17 +1,24 @@
 package gov.cms.model.dsl.codegen.library;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import com.google.common.collect.ImmutableList;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -358,6 +365,173 @@ public class DataTransformerTest {
         transformer.getErrors());
   }
 
+  /**
+   * Tests the {@link DataTransformer#copyPrimitiveIntString}, {@link
+   * DataTransformer#copyPrimitiveShortString}, and {@link DataTransformer#copyPrimitiveLongString}
+   * methods.
+   */
+  @Test
+  public void testCopyPrimitiveStrings() {
+    transformer
+        .copyPrimitiveIntString("int-valid", false, "123", value -> copied.add(value))
+        .copyPrimitiveIntString("int-invalid", false, "123a", value -> copied.add(value))
+        .copyPrimitiveShortString("short-valid", false, "-45", value -> copied.add(value))
+        .copyPrimitiveShortString("short-invalid", false, "40000", value -> copied.add(value))
+        .copyPrimitiveLongString("long-valid", false, "9876543210", value -> copied.add(value))
+        .copyPrimitiveLongString("long-invalid", false, "not a number", value -> copied.add(value))
+        .copyPrimitiveLongString("null-ok", true, null, value -> copied.add(value))
+        .copyPrimitiveLongString("null-bad", false, null, value -> copied.add(value));
+    assertEquals(ImmutableList.of(123, (short) -45, 9876543210L), copied);
+    assertEquals(
+        ImmutableList.of(
+            new DataTransformer.ErrorMessage("int-invalid", "invalid integer"),
+            new DataTransformer.ErrorMessage("short-invalid", "invalid short"),
+            new DataTransformer.ErrorMessage("long-invalid", "invalid long"),
+            new DataTransformer.ErrorMessage("null-bad", "is null")),
+        transformer.getErrors());
+  }
+
+  /**
+   * Verifies that dates parsed by {@link DataTransformer#copyDate} match those produced by the
+   * {@link DateTimeFormatter}s for every supported format, including values that are invalid or
+   * that the formatters resolve in unusual ways.
+   */
+  @Test
+  public void testCopyDateMatchesFormatters() {
+    final DateTimeFormatter eightCharacters =
+        new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern("yyyyMMdd")
+            .toFormatter();
+    final DateTimeFormatter elevenCharacters =
+        new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern("dd-MMM-yyyy")
+            .toFormatter();
+    final List<String> values =
+        List.of(
+            "20210805",
+            "20240229",
+            "20230229",
+            "20210431",
+            "20211301",
+            "20210001",
+            "20210100",
+            "00000101",
+            "2021080a",
+            "+2021080",
+            "2021-08-05",
+            "2024-02-29",
+            "2023-02-29",
+            "0000-01-01",
+            "2021-13-01",
+            "2021/08/05",
+            "07-AUG-2021",
+            "07-aug-2021",
+            "29-FeB-2024",
+            "29-FEB-2023",
+            "31-APR-2021",
+            "00-JAN-2021",
+            "01-XYZ-2021",
+            "01-JAN-0000",
+            "01 JAN 2021");
+    for (String value : values) {
+      final Function<String, LocalDate> formatter =
+          switch (value.length()) {
+            case 8 -> v -> LocalDate.parse(v, eightCharacters);
+            case 11 -> v -> LocalDate.parse(v, elevenCharacters);
+            default -> LocalDate::parse;
+          };
+      assertEquals(
+          expectedResult(value, formatter, "invalid date"),
+          copyResult(value, DataTransformer::copyDate));
+    }
+  }
+
+  /**
+   * Verifies that time stamps parsed by {@link DataTransformer#copyRifTimestamp} match those
+   * produced by the {@link DateTimeFormatter}, including values that are invalid or that the
+   * formatter resolves in unusual ways.
+   */
+  @Test
+  public void testCopyRifTimestampMatchesFormatter() {
+    final DateTimeFormatter timestamp =
+        new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern("dd-MMM-yyyy HH:mm:ss")
+            .toFormatter();
+    final List<String> values =
+        List.of(
+            "03-JAN-2021 06:07:08",
+            "31-dec-1999 23:59:59",
+            "29-FEB-2024 12:00:00",
+            "29-FEB-2023 12:00:00",
+            "31-DEC-2021 24:00:00",
+            "01-JAN-2021 23:60:00",
+            "01-JAN-2021 23:00:60",
+            "01-JAN-2021T23:00:00",
+            "01-JAN-2021 2a:00:00",
+            "01-JAN-2021 6:07:08");
+    for (String value : values) {
+      assertEquals(
+          expectedResult(
+              value,
+              v -> LocalDateTime.parse(v, timestamp).toInstant(ZoneOffset.UTC),
+              "invalid timestamp"),
+          copyResult(value, DataTransformer::copyRifTimestamp));
+    }
+  }
+
+  /**
+   * Verifies that amounts parsed by {@link DataTransformer#copyAmount} are identical, including
+   * their scale, to those produced by {@link BigDecimal#BigDecimal(String)}.
+   */
+  @Test
+  public void testCopyAmountMatchesBigDecimal() {
+    final List<String> values =
+        List.of(
+            "0",
+            "-0",
+            "0.00",
+            "-0.00",
+            "+5",
+            ".5",
+            "5.",
+            "007.50",
+            "-123456789012345.678",
+            "123456789012345678.9",
+            "-999999999999999999",
+            "1e3",
+            "1.2.3",
+            "",
+            "-",
+            ".",
+            "12 ");
+    for (String value : values) {
+      assertEquals(
+          expectedResult(value, BigDecimal::new, "invalid amount"),
+          copyResult(value, DataTransformer::copyAmount));
+    }
+  }
+
+  /**
+   * Verifies that the error list is not exposed in any way until an error has been added and that
+   * afterwards the transformer reports the errors normally.
+   */
+  @Test
+  public void testErrorsReportedOnlyAfterFirstError() {
+    transformer.copyLongString("valid", false, "1", copied::add);
+    assertTrue(transformer.isSuccessful());
+    assertEquals(ImmutableList.of(), transformer.getErrors());
+    transformer.throwIfErrorsPresent();
+
+    transformer.addError("field", "message %d", 1);
+    assertFalse(transformer.isSuccessful());
+    assertEquals(
+        ImmutableList.of(new DataTransformer.ErrorMessage("field", "message 1")),
+        transformer.getErrors());
+  }
+
   /**
    * Tests the {@link DataTransformer#copyBase64String(String, boolean, int, int, int, String,
    * Consumer)} method.
@@ -664,4 +838,64 @@ public class DataTransformerTest {
             new DataTransformer.ErrorMessage("opt-too-large", "is too large")),
         transformer.getErrors());
   }
+
+  /**
+   * Signature shared by the copy methods whose results are compared to reference parsers.
+   *
+   * @param <T> type of the parsed value
+   */
+  @FunctionalInterface
+  private interface CopyMethod<T> {
+    /**
+     * Calls the copy method.
+     *
+     * @param transformer the transformer to call the method on
+     * @param fieldName name of the field
+     * @param nullable true if null is a valid value
+     * @param value value to parse
+     * @param copier receives the parsed value
+     * @return the transformer
+     */
+    DataTransformer copy(
+        DataTransformer transformer,
+        String fieldName,
+        boolean nullable,
+        String value,
+        Consumer<T> copier);
+  }
+
+  /**
+   * Parses a value using a reference parser and returns either the parsed value or the error
+   * message the transformer is expected to report.
+   *
+   * @param value value to parse
+   * @param parser the reference parser
+   * @param errorMessage error message expected if the reference parser fails
+   * @param <T> type of the parsed value
+   * @return the parsed value or an error message
+   */
+  private static <T> Object expectedResult(
+      String value, Function<String, T> parser, String errorMessage) {
+    try {
+      return parser.apply(value);
+    } catch (DateTimeParseException | NumberFormatException ex) {
+      return new DataTransformer.ErrorMessage(value, errorMessage);
+    }
+  }
+
+  /**
+   * Parses a value using a copy method of a new {@link DataTransformer} and returns either the
+   * parsed value or the error message it reported. The value is used as the field name.
+   *
+   * @param value value to parse
+   * @param copyMethod the copy method
+   * @param <T> type of the parsed value
+   * @return the parsed value or an error message
+   */
+  private static <T> Object copyResult(String value, CopyMethod<T> copyMethod) {
+    final DataTransformer transformer = new DataTransformer();
+    final List<T> results = new ArrayList<>();
+    copyMethod.copy(transformer, value, false, value, results::add);
+    return transformer.isSuccessful() ? results.get(0) : transformer.getErrors().get(0);
+  }
 }
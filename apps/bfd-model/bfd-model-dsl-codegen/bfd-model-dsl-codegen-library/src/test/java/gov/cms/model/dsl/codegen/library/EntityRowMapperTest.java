@@ -0,0 +1,219 @@
+package gov.cms.model.dsl.codegen.library;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/** Tests the query building and row reading of {@link EntityRowMapper}. */
+public class EntityRowMapperTest {
+  /** Simple parent entity used by the tests. */
+  private static class Parent {
+    /** The primary key. */
+    private long id;
+
+    /** A nullable value. */
+    private Long amount;
+
+    /** The children. */
+    private final List<Child> children = new ArrayList<>();
+  }
+
+  /** Simple child entity used by the tests. */
+  private static class Child {
+    /** The value. */
+    private String value;
+
+    /** Reference back to the parent. */
+    private Parent parent;
+  }
+
+  /** Mapper for {@link Child} in the style of generated code. */
+  private static class ChildMapper extends EntityRowMapper<Child> {
+    /** Initializes an instance. */
+    private ChildMapper() {
+      super("children", List.of("value"), Map.of("value", "value", "parentId", "parent_id"));
+    }
+
+    @Override
+    public Child mapRow(ResultSet resultSet) throws SQLException {
+      final Child child = new Child();
+      child.value = resultSet.getString(1);
+      return child;
+    }
+  }
+
+  /** Mapper for {@link Parent} in the style of generated code. */
+  private static class ParentMapper extends EntityRowMapper<Parent> {
+    /** Initializes an instance. */
+    private ParentMapper() {
+      super("schema.parents", List.of("id", "amount"), Map.of("id", "id", "amount", "amount"));
+    }
+
+    @Override
+    public Parent mapRow(ResultSet resultSet) throws SQLException {
+      final Parent parent = new Parent();
+      parent.id = resultSet.getLong(1);
+      parent.amount = getNullableLong(resultSet, 2);
+      return parent;
+    }
+
+    @Override
+    protected void readCollections(Connection connection, List<Parent> entities)
+        throws SQLException {
+      final Map<Long, Parent> parentsByKey = new LinkedHashMap<>();
+      for (Parent parent : entities) {
+        parentsByKey.put(parent.id, parent);
+      }
+      readChildren(
+          connection,
+          new ChildMapper(),
+          "parent_id",
+          Long.class,
+          "value ASC",
+          parentsByKey,
+          (parent, child) -> {
+            child.parent = parent;
+            parent.children.add(child);
+          });
+    }
+  }
+
+  /**
+   * Verifies that the select statement and column lookups are built from the names passed to the
+   * constructor.
+   */
+  @Test
+  public void testSelectSqlAndColumnNames() {
+    final ParentMapper mapper = new ParentMapper();
+    assertEquals("schema.parents", mapper.getTableName());
+    assertEquals("select id, amount from schema.parents", mapper.getSelectSql());
+    assertEquals("amount", mapper.getColumnName("amount"));
+    assertEquals("parent_id", new ChildMapper().getColumnName("parentId"));
+    assertThrows(IllegalArgumentException.class, () -> mapper.getColumnName("missing"));
+  }
+
+  /**
+   * Verifies that {@link EntityRowMapper#readAll} maps every row, binds the parameters, and
+   * attaches the children loaded by a single query to their parents in order.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  public void testReadAllLoadsChildren() throws Exception {
+    final Connection connection = mock(Connection.class);
+    final PreparedStatement parentStatement = mock(PreparedStatement.class);
+    final ResultSet parentRows = mock(ResultSet.class);
+    when(connection.prepareStatement(
+            "select id, amount from schema.parents where id > ? order by id"))
+        .thenReturn(parentStatement);
+    when(parentStatement.executeQuery()).thenReturn(parentRows);
+    when(parentRows.next()).thenReturn(true, true, false);
+    when(parentRows.getLong(1)).thenReturn(1L, 2L);
+    when(parentRows.getLong(2)).thenReturn(10L, 0L);
+    when(parentRows.wasNull()).thenReturn(false, true);
+
+    final PreparedStatement childStatement = mock(PreparedStatement.class);
+    final ResultSet childRows = mock(ResultSet.class);
+    when(connection.prepareStatement(
+            "select value, parent_id from children where parent_id in (?, ?)"
+                + " order by parent_id, value ASC"))
+        .thenReturn(childStatement);
+    when(childStatement.executeQuery()).thenReturn(childRows);
+    when(childRows.next()).thenReturn(true, true, true, false);
+    when(childRows.getString(1)).thenReturn("x", "y", "z");
+    when(childRows.getObject(2, Long.class)).thenReturn(1L, 1L, 2L);
+
+    final List<Parent> parents =
+        new ParentMapper().readAll(connection, "where id > ? order by id", List.of(0L));
+
+    assertEquals(2, parents.size());
+    assertEquals(10L, parents.get(0).amount);
+    assertNull(parents.get(1).amount);
+    assertEquals(List.of("x", "y"), parents.get(0).children.stream().map(c -> c.value).toList());
+    assertEquals(List.of("z"), parents.get(1).children.stream().map(c -> c.value).toList());
+    assertEquals(parents.get(1), parents.get(1).children.get(0).parent);
+    verify(parentStatement).setObject(1, 0L);
+    verify(childStatement).setObject(1, 1L);
+    verify(childStatement).setObject(2, 2L);
+  }
+
+  /**
+   * Verifies that children of a large number of parents are loaded using several queries.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  public void testChildQueriesAreBatched() throws Exception {
+    final Connection connection = mock(Connection.class);
+    final PreparedStatement statement = mock(PreparedStatement.class);
+    final ResultSet rows = mock(ResultSet.class);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    when(statement.executeQuery()).thenReturn(rows);
+
+    final List<Parent> parents = new ArrayList<>();
+    for (int i = 0; i <= EntityRowMapper.MAX_KEYS_PER_QUERY; ++i) {
+      final Parent parent = new Parent();
+      parent.id = i;
+      parents.add(parent);
+    }
+    new ParentMapper().readCollections(connection, parents);
+
+    final ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    verify(connection, times(2)).prepareStatement(sql.capture());
+    assertEquals(
+        List.of(EntityRowMapper.MAX_KEYS_PER_QUERY, 1),
+        sql.getAllValues().stream().map(s -> s.split("\\?", -1).length - 1).toList());
+  }
+
+  /**
+   * Verifies the null handling of the helper methods used by generated code.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  public void testColumnHelpers() throws Exception {
+    final ResultSet resultSet = mock(ResultSet.class);
+    when(resultSet.getString(1)).thenReturn("AB", "", null);
+    assertEquals('A', EntityRowMapper.getCharacter(resultSet, 1));
+    assertNull(EntityRowMapper.getCharacter(resultSet, 1));
+    assertEquals(0, EntityRowMapper.getChar(resultSet, 1));
+
+    when(resultSet.getShort(2)).thenReturn((short) 0);
+    when(resultSet.getInt(2)).thenReturn(0);
+    when(resultSet.wasNull()).thenReturn(true, false);
+    assertNull(EntityRowMapper.getNullableShort(resultSet, 2));
+    assertEquals(0, EntityRowMapper.getNullableInt(resultSet, 2));
+
+    final Instant now = Instant.parse("2024-01-02T03:04:05.678Z");
+    when(resultSet.getTimestamp(3)).thenReturn(Timestamp.from(now), null);
+    assertEquals(now, EntityRowMapper.getInstant(resultSet, 3));
+    assertNull(EntityRowMapper.getInstant(resultSet, 3));
+
+    when(resultSet.getObject(4, LocalDate.class)).thenReturn(LocalDate.of(2024, 1, 2));
+    assertEquals(LocalDate.of(2024, 1, 2), EntityRowMapper.getLocalDate(resultSet, 4));
+
+    when(resultSet.getString(5)).thenReturn("SECONDS", null);
+    assertEquals(TimeUnit.SECONDS, EntityRowMapper.getEnum(resultSet, 5, TimeUnit.class));
+    assertNull(EntityRowMapper.getEnum(resultSet, 5, TimeUnit.class));
+  }
+}
@@ -0,0 +1,82 @@
+package gov.cms.model.dsl.codegen.library;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.List;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+
+/** Tests the column index based accessors of {@link RifObjectWrapper}. */
+public class RifObjectWrapperTest {
+  /** Format matching the one used for RIF files. */
+  private static final CSVFormat FORMAT =
+      CSVFormat.EXCEL.builder().setHeader().setDelimiter('|').build();
+
+  /**
+   * Verifies that values read by column index match values read by label even when files list the
+   * columns in different orders.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  public void testIndexedAccessMatchesLabels() throws Exception {
+    final RifColumnIndex columns = new RifColumnIndex("B", "A", "C");
+    for (String data : List.of("A|B|C\n1||3\n", "C|A|B\n3|1|\n")) {
+      final RifObjectWrapper wrapper = new RifObjectWrapper(parse(data).get(0));
+      assertEquals("1", wrapper.getValue(columns, 1, null));
+      assertEquals(wrapper.getValue("A", null), wrapper.getValue(columns, 1, null));
+      assertEquals("", wrapper.getValue(columns, 0, null));
+      assertEquals("0", wrapper.getValue(columns, 0, "0"));
+      assertEquals("3", wrapper.getValue(columns, 2, "0"));
+      assertTrue(wrapper.hasValue(columns, 1));
+      assertFalse(wrapper.hasValue(columns, 0));
+    }
+  }
+
+  /**
+   * Verifies that index based access to the lines of a multi-line object uses the same positions.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  public void testIndexedAccessOfLines() throws Exception {
+    final RifColumnIndex columns = new RifColumnIndex("LINE");
+    final RifObjectWrapper wrapper = new RifObjectWrapper(parse("ID|LINE\n1|a\n1|b\n"));
+    assertEquals(2, wrapper.getLinesCount());
+    assertEquals("a", wrapper.getLines(0).getValue(columns, 0, null));
+    assertEquals("b", wrapper.getLines(1).getValue(columns, 0, null));
+  }
+
+  /**
+   * Verifies that missing columns and short records fail the same way as label based access.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  public void testErrorsMatchLabels() throws Exception {
+    final RifColumnIndex columns = new RifColumnIndex("A", "MISSING");
+    final RifObjectWrapper wrapper = new RifObjectWrapper(parse("X|A\n1\n").get(0));
+    final var byLabel = assertThrows(IllegalArgumentException.class, () -> wrapper.hasValue("A"));
+    final var byIndex =
+        assertThrows(IllegalArgumentException.class, () -> wrapper.hasValue(columns, 0));
+    assertEquals(byLabel.getMessage(), byIndex.getMessage());
+    assertThrows(IllegalArgumentException.class, () -> wrapper.getValue(columns, 1, null));
+  }
+
+  /**
+   * Parses all records from some CSV data.
+   *
+   * @param data the CSV data including a header line
+   * @return the records
+   * @throws Exception pass through from method signatures
+   */
+  private static List<CSVRecord> parse(String data) throws Exception {
+    return CSVParser.parse(new StringReader(data), FORMAT).getRecords();
+  }
+}
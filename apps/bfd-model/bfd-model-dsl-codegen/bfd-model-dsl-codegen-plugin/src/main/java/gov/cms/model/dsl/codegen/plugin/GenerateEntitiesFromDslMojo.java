@@ -7,12 +7,14 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
 import gov.cms.model.dsl.codegen.plugin.model.ColumnBean;
 import gov.cms.model.dsl.codegen.plugin.model.EnumTypeBean;
 import gov.cms.model.dsl.codegen.plugin.model.JoinBean;
@@ -41,8 +43,15 @@ import jakarta.persistence.Transient;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +82,12 @@ public class GenerateEntitiesFromDslMojo extends AbstractMojo {
   /** Value to use for the ignoring @Builder annotations. */
   static final int NUM_FIELDS_TO_IGNORE_BUILDER_ANNOTATION = 100;
 
+  /** Suffix appended to an entity's class name to name its generated {@link EntityRowMapper}. */
+  static final String ROW_MAPPER_CLASS_SUFFIX = "RowMapper";
+
+  /** Name of the field holding the shared instance of a generated {@link EntityRowMapper}. */
+  static final String ROW_MAPPER_INSTANCE_FIELD = "INSTANCE";
+
   /**
    * {@link FieldSpec} used to add a {@code serialVersionUID} static member variable to a composite
    * key class.
@@ -119,7 +134,7 @@ public class GenerateEntitiesFromDslMojo extends AbstractMojo {
 
   /**
    * Executed by maven to execute the mojo. Reads all mapping files and generates an entity class
-   * for every {@link MappingBean}.
+   * and, where possible, an {@link EntityRowMapper} class for every {@link MappingBean}.
    *
    * @throws MojoExecutionException if the process fails due to some error
    */
@@ -130,6 +145,7 @@ public class GenerateEntitiesFromDslMojo extends AbstractMojo {
       MojoUtil.validateModel(root);
       generateEnumClasses(outputDir, root);
       generateEntityClasses(outputDir, root);
+      generateRowMapperClasses(outputDir, root);
       if (project != null) {
         project.addCompileSourceRoot(entitiesDirectory);
       }
@@ -1072,6 +1088,415 @@ public class GenerateEntitiesFromDslMojo extends AbstractMojo {
     return methodSpecs;
   }
 
+  /**
+   * Writes a java class file containing an {@link EntityRowMapper} for every entity defined in the
+   * {@link RootBean}'s mappings that supports one. Mappings that cannot be read using JDBC, as
+   * determined by {@link #isRowMapperSupported}, are skipped.
+   *
+   * @param outputDir directory to write the generated class file to
+   * @param root {@link RootBean} containing all known mappings
+   * @throws IOException if any problems arise
+   */
+  private void generateRowMapperClasses(File outputDir, RootBean root) throws IOException {
+    for (MappingBean mapping : root.getMappings()) {
+      if (isRowMapperSupported(root, mapping)) {
+        TypeSpec rowMapperSpec = createRowMapperClassForMapping(root, mapping);
+        JavaFile javaFile =
+            JavaFile.builder(mapping.getEntityClassPackage(), rowMapperSpec).build();
+        javaFile.writeTo(outputDir);
+      } else {
+        getLog()
+            .info(
+                String.format(
+                    "Mapping does not support generation of a row mapper: mapping=%s",
+                    mapping.getId()));
+      }
+    }
+  }
+
+  /**
+   * Determines if an {@link EntityRowMapper} can be generated for the given mapping. Every column
+   * must have a type that can be read from a {@link ResultSet} and, if the entity has collections,
+   * it must have a single primary key column and every joined entity must support a row mapper as
+   * well.
+   *
+   * @param root {@link RootBean} containing all known mappings
+   * @param mapping {@link MappingBean} to check
+   * @return true if a row mapper can be generated
+   */
+  @VisibleForTesting
+  boolean isRowMapperSupported(RootBean root, MappingBean mapping) {
+    for (ColumnBean column : getRowMapperColumns(mapping)) {
+      if (createRowMapperReadCode(mapping, column, 1).isEmpty()) {
+        return false;
+      }
+    }
+    final var joins = getRowMapperJoins(mapping);
+    if (!joins.isEmpty() && getRowMapperKeyColumn(mapping).isEmpty()) {
+      return false;
+    }
+    for (JoinBean join : joins) {
+      final var childMapping = root.findMappingForJoinBean(join);
+      if (childMapping.isEmpty()
+          || findRowMapperChildKeyColumn(childMapping.get(), join).isEmpty()
+          || !isRowMapperSupported(root, childMapping.get())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Creates a {@link TypeSpec} for an {@link EntityRowMapper} subclass for the specified {@link
+   * MappingBean}. The class has a private constructor and a single shared instance since it holds
+   * no state. Must only be called for mappings accepted by {@link #isRowMapperSupported}.
+   *
+   * @param root {@link RootBean} containing all known mappings
+   * @param mapping {@link MappingBean} to create row mapper class for
+   * @return the {@link TypeSpec}
+   */
+  @VisibleForTesting
+  TypeSpec createRowMapperClassForMapping(RootBean root, MappingBean mapping) {
+    final var table = mapping.getTable();
+    final var entityClassName =
+        ClassName.get(mapping.getEntityClassPackage(), mapping.getEntityClassSimpleName());
+    final var rowMapperClassName = computeRowMapperClassName(mapping);
+    final var columns = getRowMapperColumns(mapping);
+    final var tableName =
+        table.hasSchema()
+            ? sqlName(table, table.getSchema()) + "." + sqlName(table, table.getName())
+            : sqlName(table, table.getName());
+    final var selectColumnNames =
+        columns.stream()
+            .map(column -> CodeBlock.of("$S", sqlName(table, column.getColumnName())))
+            .collect(CodeBlock.joining(",\n"));
+    final var columnNames =
+        table.getColumns().stream()
+            .filter(column -> column.getFieldType() != ColumnBean.FieldType.Transient)
+            .map(
+                column ->
+                    CodeBlock.of(
+                        "$T.entry($S, $S)",
+                        Map.class,
+                        column.getName(),
+                        sqlName(table, column.getColumnName())))
+            .collect(CodeBlock.joining(",\n"));
+
+    final var constructor =
+        MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PRIVATE)
+            .addJavadoc("Initializes the shared instance.")
+            .addStatement(
+                "super(\n$S,\n$T.of(\n$>$L$<),\n$T.ofEntries(\n$>$L$<))",
+                tableName,
+                List.class,
+                selectColumnNames,
+                Map.class,
+                columnNames)
+            .build();
+
+    final var mapRow =
+        MethodSpec.methodBuilder("mapRow")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(entityClassName)
+            .addParameter(ResultSet.class, "resultSet")
+            .addException(SQLException.class)
+            .addStatement("final $T entity = new $T()", entityClassName, entityClassName);
+    for (int i = 0; i < columns.size(); ++i) {
+      final ColumnBean column = columns.get(i);
+      CodeBlock value = createRowMapperReadCode(mapping, column, i + 1).orElseThrow();
+      if (column.isNullable()
+          && mapping.getNullableFieldAccessorType()
+              == MappingBean.NullableFieldAccessorType.Optional) {
+        value = CodeBlock.of("$T.ofNullable($L)", OptionalClassName, value);
+      }
+      mapRow.addStatement(
+          "entity.$L($L)", PoetUtil.fieldToMethodName("set", column.getName()), value);
+    }
+    mapRow.addStatement("return entity");
+
+    final var classBuilder =
+        TypeSpec.classBuilder(rowMapperClassName)
+            .addJavadoc(
+                "Reads {@link $T} entities from the {@code $L} table using JDBC rather than JPA.",
+                entityClassName,
+                table.getName())
+            .addModifiers(Modifier.PUBLIC)
+            .superclass(
+                ParameterizedTypeName.get(ClassName.get(EntityRowMapper.class), entityClassName))
+            .addField(
+                FieldSpec.builder(
+                        rowMapperClassName,
+                        ROW_MAPPER_INSTANCE_FIELD,
+                        Modifier.PUBLIC,
+                        Modifier.STATIC,
+                        Modifier.FINAL)
+                    .addJavadoc("Shared instance. Instances hold no state so they can be shared.")
+                    .initializer("new $T()", rowMapperClassName)
+                    .build())
+            .addMethod(constructor)
+            .addMethod(mapRow.build());
+    final var joins = getRowMapperJoins(mapping);
+    if (!joins.isEmpty()) {
+      classBuilder.addMethod(createRowMapperReadCollectionsMethod(root, mapping, joins));
+    }
+    return classBuilder.build();
+  }
+
+  /**
+   * Creates the {@link MethodSpec} for a row mapper's {@code readCollections} method. The method
+   * indexes the entities by their primary key and then loads each collection using {@code
+   * readChildren}.
+   *
+   * @param root {@link RootBean} containing all known mappings
+   * @param mapping {@link MappingBean} for the parent entity
+   * @param joins the multi-value joins to load
+   * @return the {@link MethodSpec}
+   */
+  private MethodSpec createRowMapperReadCollectionsMethod(
+      RootBean root, MappingBean mapping, List<JoinBean> joins) {
+    final var entityClassName =
+        ClassName.get(mapping.getEntityClassPackage(), mapping.getEntityClassSimpleName());
+    final var keyColumn = getRowMapperKeyColumn(mapping).orElseThrow();
+    final var keyType = createAccessorTypeForColumn(mapping, keyColumn).box();
+    final var builder =
+        MethodSpec.methodBuilder("readCollections")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PROTECTED)
+            .addParameter(Connection.class, "connection")
+            .addParameter(
+                ParameterizedTypeName.get(ClassName.get(List.class), entityClassName), "entities")
+            .addException(SQLException.class)
+            .addStatement(
+                "final $T<$T, $T> entitiesByKey = new $T<>()",
+                Map.class,
+                keyType,
+                entityClassName,
+                HashMap.class)
+            .beginControlFlow("for ($T entity : entities)", entityClassName)
+            .addStatement(
+                "entitiesByKey.put(entity.$L(), entity)",
+                PoetUtil.fieldToMethodName("get", keyColumn.getName()))
+            .endControlFlow();
+    for (JoinBean join : joins) {
+      final var childMapping = root.findMappingForJoinBean(join).orElseThrow();
+      final var childKeyColumn = findRowMapperChildKeyColumn(childMapping, join).orElseThrow();
+      final var attach = CodeBlock.builder().add("(parent, child) -> {\n").indent();
+      findRowMapperChildBackReference(childMapping, join)
+          .ifPresent(
+              backReference ->
+                  attach.add(
+                      "child.$L(parent);\n",
+                      PoetUtil.fieldToMethodName("set", backReference.getFieldName())));
+      // plain code rather than statements since the lambda is itself part of a statement
+      attach
+          .add("parent.$L().add(child);\n", PoetUtil.fieldToMethodName("get", join.getFieldName()))
+          .unindent()
+          .add("}");
+      builder.addStatement(
+          "readChildren(connection, $T.$L, $S, $T.class, $S, entitiesByKey, $L)",
+          computeRowMapperClassName(childMapping),
+          ROW_MAPPER_INSTANCE_FIELD,
+          sqlName(childMapping.getTable(), childKeyColumn.getColumnName()),
+          keyType,
+          createRowMapperOrderBy(childMapping, join),
+          attach.build());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates a {@link CodeBlock} that reads the value of a column from a {@link ResultSet} as the
+   * type used by the column's setter.
+   *
+   * @param mapping {@link MappingBean} containing the column
+   * @param column {@link ColumnBean} to read
+   * @param position position of the column in the select statement
+   * @return the {@link CodeBlock} or empty if the column's type is not supported
+   */
+  @VisibleForTesting
+  Optional<CodeBlock> createRowMapperReadCode(
+      MappingBean mapping, ColumnBean column, int position) {
+    final TypeName type = createAccessorTypeForColumn(mapping, column);
+    if (column.isEnum() && !column.hasDefinedAccessorType()) {
+      return Optional.of(CodeBlock.of("getEnum(resultSet, $L, $T.class)", position, type));
+    }
+    final String method;
+    if (type.equals(PoetUtil.StringClassName)) {
+      method = "resultSet.getString";
+    } else if (type.equals(TypeName.CHAR)) {
+      method = "getChar";
+    } else if (type.equals(TypeName.CHAR.box())) {
+      method = "getCharacter";
+    } else if (type.equals(TypeName.SHORT)) {
+      method = "resultSet.getShort";
+    } else if (type.equals(TypeName.SHORT.box())) {
+      method = "getNullableShort";
+    } else if (type.equals(TypeName.INT)) {
+      method = "resultSet.getInt";
+    } else if (type.equals(TypeName.INT.box())) {
+      method = "getNullableInt";
+    } else if (type.equals(TypeName.LONG)) {
+      method = "resultSet.getLong";
+    } else if (type.equals(PoetUtil.LongClassName)) {
+      method = "getNullableLong";
+    } else if (type.equals(ClassName.get(BigDecimal.class))) {
+      method = "resultSet.getBigDecimal";
+    } else if (type.equals(ClassName.get(LocalDate.class))) {
+      method = "getLocalDate";
+    } else if (type.equals(ClassName.get(Instant.class))) {
+      method = "getInstant";
+    } else {
+      return Optional.empty();
+    }
+    if (method.startsWith("resultSet.")) {
+      return Optional.of(CodeBlock.of("$L($L)", method, position));
+    } else {
+      return Optional.of(CodeBlock.of("$L(resultSet, $L)", method, position));
+    }
+  }
+
+  /**
+   * Creates the {@code order by} terms used when loading the children of a join. Terms in the
+   * join's {@code orderBy} that name a field of the child entity are replaced by the field's column
+   * name. Any other terms are assumed to already be column names.
+   *
+   * @param childMapping {@link MappingBean} for the child entity
+   * @param join {@link JoinBean} for the collection
+   * @return the terms or an empty string if the join has no {@code orderBy}
+   */
+  @VisibleForTesting
+  String createRowMapperOrderBy(MappingBean childMapping, JoinBean join) {
+    if (!join.hasOrderBy()) {
+      return "";
+    }
+    final var childTable = childMapping.getTable();
+    final List<String> terms = new ArrayList<>();
+    for (String term : join.getOrderBy().split(",")) {
+      final String[] words = term.trim().split("\\s+", 2);
+      final String name =
+          childTable
+              .getColumnByName(words[0])
+              .map(column -> sqlName(childTable, column.getColumnName()))
+              .orElse(words[0]);
+      terms.add(words.length > 1 ? name + " " + words[1] : name);
+    }
+    return String.join(", ", terms);
+  }
+
+  /**
+   * Gets the columns read by a mapping's row mapper in the order that they are selected. These are
+   * all of the columns that have a field in the entity and are stored in the database.
+   *
+   * @param mapping {@link MappingBean} containing the columns
+   * @return the columns
+   */
+  private List<ColumnBean> getRowMapperColumns(MappingBean mapping) {
+    return mapping.getTable().getColumns().stream()
+        .filter(column -> !column.isDbOnly())
+        .filter(column -> column.getFieldType() != ColumnBean.FieldType.Transient)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Gets the multi-value joins whose collections are loaded by a mapping's row mapper.
+   *
+   * @param mapping {@link MappingBean} containing the joins
+   * @return the joins
+   */
+  private List<JoinBean> getRowMapperJoins(MappingBean mapping) {
+    return mapping.getTable().getJoins().stream()
+        .filter(join -> join.getJoinType() != null && join.getJoinType().isMultiValue())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Finds the column holding the primary key used to attach children to an entity. Only entities
+   * with a single non-null primary key column are supported.
+   *
+   * @param mapping {@link MappingBean} for the entity
+   * @return the column or empty if the entity does not have a suitable primary key
+   */
+  private Optional<ColumnBean> getRowMapperKeyColumn(MappingBean mapping) {
+    final var primaryKeyColumns = mapping.getTable().getPrimaryKeyColumns();
+    if (primaryKeyColumns.size() != 1) {
+      return Optional.empty();
+    }
+    return mapping
+        .getTable()
+        .getColumnByName(primaryKeyColumns.get(0))
+        .filter(column -> !column.isDbOnly() && !column.isNullable());
+  }
+
+  /**
+   * Finds the column in a child entity's table that holds the primary key of its parent. The join's
+   * {@code mappedBy} either names that column directly, as it does for arrays, or names a join in
+   * the child entity whose join column is the one we want.
+   *
+   * @param childMapping {@link MappingBean} for the child entity
+   * @param join {@link JoinBean} for the collection in the parent
+   * @return the column or empty if it could not be found
+   */
+  private Optional<ColumnBean> findRowMapperChildKeyColumn(
+      MappingBean childMapping, JoinBean join) {
+    if (!join.hasMappedBy()) {
+      return Optional.empty();
+    }
+    final var childTable = childMapping.getTable();
+    final var column = childTable.getColumnByName(join.getMappedBy());
+    if (column.isPresent()) {
+      return column;
+    }
+    return childTable.getJoins().stream()
+        .filter(childJoin -> join.getMappedBy().equals(childJoin.getFieldName()))
+        .filter(JoinBean::hasColumnName)
+        .findFirst()
+        .flatMap(childJoin -> childTable.getColumnByName(childJoin.getJoinColumnName()));
+  }
+
+  /**
+   * Finds the join in a child entity that refers back to its parent so that the row mapper can set
+   * it when attaching the child.
+   *
+   * @param childMapping {@link MappingBean} for the child entity
+   * @param join {@link JoinBean} for the collection in the parent
+   * @return the join or empty if the child has no writable reference to its parent
+   */
+  private Optional<JoinBean> findRowMapperChildBackReference(
+      MappingBean childMapping, JoinBean join) {
+    return childMapping.getTable().getJoins().stream()
+        .filter(childJoin -> childJoin.getFieldName().equals(join.getMappedBy()))
+        .filter(childJoin -> childJoin.getJoinType() != null)
+        .filter(childJoin -> childJoin.getJoinType().isSingleValue() && !childJoin.isReadOnly())
+        .findFirst();
+  }
+
+  /**
+   * Creates a {@link ClassName} for the row mapper class of the given mapping's entity.
+   *
+   * @param mapping {@link MappingBean} that defines the entity
+   * @return the {@link ClassName}
+   */
+  private ClassName computeRowMapperClassName(MappingBean mapping) {
+    return ClassName.get(
+        mapping.getEntityClassPackage(),
+        mapping.getEntityClassSimpleName() + ROW_MAPPER_CLASS_SUFFIX);
+  }
+
+  /**
+   * Wraps the provided name in double quotes if the table requires quoted names. Otherwise returns
+   * the name unchanged. Unlike {@link TableBean#quoteName} this produces names for plain SQL rather
+   * than JPA annotations.
+   *
+   * @param table {@link TableBean} that determines whether names are quoted
+   * @param name name to quote
+   * @return the (possibly quoted) name
+   */
+  private String sqlName(TableBean table, String name) {
+    return table.isQuoteNames() ? "\"" + name + "\"" : name;
+  }
+
   /**
    * Immutable {@link Record} holding all the information required to create accessor methods
    * (setter/getter) for a field.
@@ -13,6 +13,8 @@ import com.squareup.javapoet.TypeSpec;
 import gov.cms.model.dsl.codegen.library.DataTransformer;
 import gov.cms.model.dsl.codegen.library.EnumStringExtractor;
 import gov.cms.model.dsl.codegen.library.ExternalTransformation;
+import gov.cms.model.dsl.codegen.library.RifColumnIndex;
+import gov.cms.model.dsl.codegen.plugin.accessor.Getter;
 import gov.cms.model.dsl.codegen.plugin.accessor.GrpcGetter;
 import gov.cms.model.dsl.codegen.plugin.accessor.OptionalSetter;
 import gov.cms.model.dsl.codegen.plugin.accessor.RifGetter;
@@ -56,6 +58,8 @@ import org.apache.maven.project.MavenProject;
  *       strings if one is required by the {@link TransformationBean}.
  *   <li>Private final field declaration for each {@link ExternalTransformation} lambda function
  *       required by the {@link TransformationBean}.
+ *   <li>Private final field declaration for a {@link RifColumnIndex} for each RIF message class so
+ *       that fields can be read by column position rather than by header label.
  *   <li>A public constructor that accepts any arguments needed to initialize the private final
  *       fields.
  *   <li>A simple public {code transformMessage()} method for each message class defined by the root
@@ -203,7 +207,11 @@ public class GenerateTransformersFromDslMojo extends AbstractMojo {
     classBuilder.addMethod(createSimplifiedTransformMessageMethod(mapping));
     classBuilder.addMethod(createTransformRootMessageMethod(mapping));
     for (MappingBean aMapping : allMappings) {
-      classBuilder.addMethod(createTransformMethodForMapping(aMapping));
+      final Getter fromCodeGenerator = createGetterForMapping(aMapping);
+      classBuilder.addMethod(createTransformMethodForMapping(aMapping, fromCodeGenerator));
+      if (fromCodeGenerator instanceof RifGetter rifGetter && rifGetter.hasColumns()) {
+        classBuilder.addField(rifGetter.createColumnIndexField());
+      }
       if (aMapping.hasArrayTransformations()) {
         classBuilder.addMethod(createTransformArraysMethodForMapping(root, aMapping));
       }
@@ -470,9 +478,10 @@ public class GenerateTransformersFromDslMojo extends AbstractMojo {
    * message may contain.
    *
    * @param mapping {@link MappingBean} for message/entity to be processed
+   * @param fromCodeGenerator {@link Getter} used to generate code that reads from the message
    * @return the {@link MethodSpec}
    */
-  private MethodSpec createTransformMethodForMapping(MappingBean mapping)
+  private MethodSpec createTransformMethodForMapping(MappingBean mapping, Getter fromCodeGenerator)
       throws MojoExecutionException {
     final TypeName messageClassType = ModelUtil.classType(mapping.getMessageClassName());
     final TypeName entityClassType = ModelUtil.classType(mapping.getEntityClassName());
@@ -489,10 +498,6 @@ public class GenerateTransformersFromDslMojo extends AbstractMojo {
                 entityClassType,
                 FieldTransformer.DEST_VAR,
                 entityClassType);
-    final var fromCodeGenerator =
-        mapping.getSourceType() == MappingBean.SourceType.RifCsv
-            ? RifGetter.Instance
-            : GrpcGetter.Instance;
     final var toCodeGenerator =
         mapping.getNullableFieldAccessorType() == MappingBean.NullableFieldAccessorType.Standard
             ? StandardSetter.Instance
@@ -532,6 +537,20 @@ public class GenerateTransformersFromDslMojo extends AbstractMojo {
     return builder.build();
   }
 
+  /**
+   * Selects the {@link Getter} used to generate code that reads from the mapping's message class.
+   * RIF mappings get their own {@link RifGetter} since it records the columns the generated code
+   * reads so that the transformer class can declare a matching {@link RifColumnIndex} field.
+   *
+   * @param mapping {@link MappingBean} for message/entity to be processed
+   * @return the {@link Getter}
+   */
+  private Getter createGetterForMapping(MappingBean mapping) {
+    return mapping.getSourceType() == MappingBean.SourceType.RifCsv
+        ? new RifGetter(mapping.getEntityClassSimpleName() + "_Columns")
+        : GrpcGetter.Instance;
+  }
+
   /**
    * Creates a method {@link MethodSpec} for a method that transforms all objects in all arrays
    * within a given message. The generated method loops over all arrays in the mapping and calls the
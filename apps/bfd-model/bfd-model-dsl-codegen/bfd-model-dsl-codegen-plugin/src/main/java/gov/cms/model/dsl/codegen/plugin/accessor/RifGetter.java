@@ -1,19 +1,67 @@
 package gov.cms.model.dsl.codegen.plugin.accessor;
 
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import gov.cms.model.dsl.codegen.library.RifColumnIndex;
 import gov.cms.model.dsl.codegen.library.RifObjectWrapper;
 import gov.cms.model.dsl.codegen.plugin.model.TransformationBean;
 import gov.cms.model.dsl.codegen.plugin.transformer.FieldTransformer;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Function;
+import javax.lang.model.element.Modifier;
 
 /**
  * Implementation of {@link Getter} that requires the message objects to be {@link RifObjectWrapper}
  * objects. Also requires that the RIF header label must be specified as the {@code from} in the
  * transformation.
+ *
+ * <p>Generated code reads fields by column index rather than by label. Each instance collects the
+ * labels used by the code it generates and assigns each one an index. The generated transformer
+ * class must declare the field created by {@link #createColumnIndexField} so that the indices can
+ * be mapped to positions within each file's records.
  */
 public class RifGetter implements Getter {
-  /** Sharable singleton instance. */
-  public static final Getter Instance = new RifGetter();
+  /** Name of the {@link RifColumnIndex} field in the generated class. */
+  private final String columnIndexFieldName;
+
+  /** Index assigned to each label in the order the labels were first used. */
+  private final Map<String, Integer> columnIndexes = new LinkedHashMap<>();
+
+  /**
+   * Initializes an instance that generates code using the named {@link RifColumnIndex} field.
+   *
+   * @param columnIndexFieldName name of the {@link RifColumnIndex} field in the generated class
+   */
+  public RifGetter(String columnIndexFieldName) {
+    this.columnIndexFieldName = columnIndexFieldName;
+  }
+
+  /**
+   * Determines if any code has been generated that reads a field.
+   *
+   * @return true if {@link #createColumnIndexField} needs to be added to the generated class
+   */
+  public boolean hasColumns() {
+    return !columnIndexes.isEmpty();
+  }
+
+  /**
+   * Creates the declaration for the {@link RifColumnIndex} field used by the code generated so far.
+   * Must be called after all code using this instance has been generated.
+   *
+   * @return the field declaration
+   */
+  public FieldSpec createColumnIndexField() {
+    final CodeBlock labels =
+        columnIndexes.keySet().stream()
+            .map(label -> CodeBlock.of("$S", label))
+            .collect(CodeBlock.joining(", "));
+    return FieldSpec.builder(
+            RifColumnIndex.class, columnIndexFieldName, Modifier.PRIVATE, Modifier.FINAL)
+        .initializer("new $T($L)", RifColumnIndex.class, labels)
+        .build();
+  }
 
   /**
    * {@inheritDoc}
@@ -25,7 +73,12 @@ public class RifGetter implements Getter {
   public CodeBlock createHasRef(TransformationBean transformation) {
     return transformationPropertyCodeBlock(
         transformation,
-        fieldName -> CodeBlock.of("() -> $L.hasValue($S)", FieldTransformer.SOURCE_VAR, fieldName));
+        column ->
+            CodeBlock.of(
+                "() -> $L.hasValue($L, $L)",
+                FieldTransformer.SOURCE_VAR,
+                columnIndexFieldName,
+                column));
   }
 
   /**
@@ -38,7 +91,9 @@ public class RifGetter implements Getter {
   public CodeBlock createHasCall(TransformationBean transformation) {
     return transformationPropertyCodeBlock(
         transformation,
-        fieldName -> CodeBlock.of("$L.hasValue($S)", FieldTransformer.SOURCE_VAR, fieldName));
+        column ->
+            CodeBlock.of(
+                "$L.hasValue($L, $L)", FieldTransformer.SOURCE_VAR, columnIndexFieldName, column));
   }
 
   /**
@@ -51,11 +106,12 @@ public class RifGetter implements Getter {
   public CodeBlock createGetRef(TransformationBean transformation) {
     return transformationPropertyCodeBlock(
         transformation,
-        fieldName ->
+        column ->
             CodeBlock.of(
-                "() -> $L.getValue($S, $S)",
+                "() -> $L.getValue($L, $L, $S)",
                 FieldTransformer.SOURCE_VAR,
-                fieldName,
+                columnIndexFieldName,
+                column,
                 transformation.getDefaultValue()));
   }
 
@@ -69,11 +125,12 @@ public class RifGetter implements Getter {
   public CodeBlock createGetCall(TransformationBean transformation) {
     return transformationPropertyCodeBlock(
         transformation,
-        fieldName ->
+        column ->
             CodeBlock.of(
-                "$L.getValue($S, $S)",
+                "$L.getValue($L, $L, $S)",
                 FieldTransformer.SOURCE_VAR,
-                fieldName,
+                columnIndexFieldName,
+                column,
                 transformation.getDefaultValue()));
   }
 
@@ -83,15 +140,16 @@ public class RifGetter implements Getter {
    * allowed (i.e. no nested properties inside of other objects).
    *
    * @param transformation defines the {@code from} field
-   * @param simpleProperty accepts a field label and returns a {@link CodeBlock}
+   * @param simpleProperty accepts a column index and returns a {@link CodeBlock}
    * @return {@link CodeBlock} created by appropriate method
    */
-  private static CodeBlock transformationPropertyCodeBlock(
-      TransformationBean transformation, Function<String, CodeBlock> simpleProperty) {
+  private CodeBlock transformationPropertyCodeBlock(
+      TransformationBean transformation, Function<Integer, CodeBlock> simpleProperty) {
     final String from = transformation.getFrom();
     final int dotIndex = from.indexOf('.');
     if (dotIndex < 0) {
-      return simpleProperty.apply(from);
+      return simpleProperty.apply(
+          columnIndexes.computeIfAbsent(from, label -> columnIndexes.size()));
     } else {
       throw new IllegalArgumentException("RIF parsing only supports simple properties");
     }
@@ -18,7 +18,9 @@ public class ShortStringFieldTransformer implements FieldTransformer {
    * <p>Generate code to call either {@link
    * gov.cms.model.dsl.codegen.library.DataTransformer#copyShortString} or {@link
    * gov.cms.model.dsl.codegen.library.DataTransformer#copyOptionalShortString} depending on whether
-   * the field is optional.
+   * the field is optional. Required fields with a primitive accessor type use {@link
+   * gov.cms.model.dsl.codegen.library.DataTransformer#copyPrimitiveShortString} instead to avoid
+   * boxing the value.
    *
    * @param mapping The mapping that contains the field.
    * @param column model object describing the database column
@@ -47,8 +49,11 @@ public class ShortStringFieldTransformer implements FieldTransformer {
             .build()
         : CodeBlock.builder()
             .addStatement(
-                "$L.copyShortString($L, $L, $L, $L)",
+                "$L.$L($L, $L, $L, $L)",
                 TRANSFORMER_VAR,
+                column.computeJavaAccessorType().isPrimitive()
+                    ? "copyPrimitiveShortString"
+                    : "copyShortString",
                 TransformerUtil.createFieldNameForErrorReporting(mapping, column),
                 column.isNullable(),
                 getter.createGetCall(transformation),
@@ -17,8 +17,11 @@ public class GenerateEntitiesFromDslMojoIT extends AbstractMojoIntegrationTestCa
       List.of(
           "gov/cms/test/FissClaim.java",
           "gov/cms/test/FissPayer.java",
+          "gov/cms/test/FissPayerRowMapper.java",
           "gov/cms/test/FissProcCode.java",
+          "gov/cms/test/FissProcCodeRowMapper.java",
           "gov/cms/test/NoTransforms.java",
+          "gov/cms/test/NoTransformsRowMapper.java",
           "gov/cms/test/StandAloneEnum.java");
 
   /**
@@ -5,7 +5,9 @@ import static gov.cms.model.dsl.codegen.plugin.GenerateEntitiesFromDslMojo.BATCH
 import static gov.cms.model.dsl.codegen.plugin.GenerateEntitiesFromDslMojo.FieldDefinition;
 import static gov.cms.model.dsl.codegen.plugin.GenerateEntitiesFromDslMojo.SerialVersionUIDField;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -44,6 +46,7 @@ import java.io.Serializable;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import javax.lang.model.element.Modifier;
 import lombok.AllArgsConstructor;
@@ -904,4 +907,181 @@ public class GenerateEntitiesFromDslMojoTest {
                 ParameterizedTypeName.get(PoetUtil.OptionalClassName, PoetUtil.StringClassName))),
         mojo.createMethodSpecsForGroupedProperties(mappingBean));
   }
+
+  /** Tests for {@link GenerateEntitiesFromDslMojo#createRowMapperReadCode}. */
+  @Test
+  public void testCreateRowMapperReadCode() {
+    MappingBean mapping =
+        MappingBean.builder()
+            .entityClassName("gov.cms.test.Data")
+            .enumType(EnumTypeBean.builder().name("InnerEnum").value("A").value("B").build())
+            .build();
+
+    ColumnBean column = ColumnBean.builder().name("a").sqlType("varchar(10)").build();
+    assertEquals("resultSet.getString(3)", readCode(mapping, column));
+
+    column = ColumnBean.builder().name("a").sqlType("bigint").nullable(false).build();
+    assertEquals("getNullableLong(resultSet, 3)", readCode(mapping, column));
+
+    column = ColumnBean.builder().name("a").sqlType("bigint").javaType("long").build();
+    assertEquals("resultSet.getLong(3)", readCode(mapping, column));
+
+    column = ColumnBean.builder().name("a").sqlType("char(1)").javaType("Character").build();
+    assertEquals("getCharacter(resultSet, 3)", readCode(mapping, column));
+
+    column = ColumnBean.builder().name("a").sqlType("numeric(10,2)").build();
+    assertEquals("resultSet.getBigDecimal(3)", readCode(mapping, column));
+
+    column = ColumnBean.builder().name("a").sqlType("date").build();
+    assertEquals("getLocalDate(resultSet, 3)", readCode(mapping, column));
+
+    column = ColumnBean.builder().name("a").sqlType("timestamp with time zone").build();
+    assertEquals("getInstant(resultSet, 3)", readCode(mapping, column));
+
+    column = ColumnBean.builder().name("a").sqlType("varchar(5)").enumType("InnerEnum").build();
+    assertEquals(
+        "getEnum(resultSet, 3, gov.cms.test.Data.InnerEnum.class)", readCode(mapping, column));
+
+    // types with no JDBC mapping are not supported
+    column = ColumnBean.builder().name("a").javaType("java.util.UUID").build();
+    assertEquals(Optional.empty(), mojo.createRowMapperReadCode(mapping, column, 3));
+  }
+
+  /** Tests for {@link GenerateEntitiesFromDslMojo#createRowMapperOrderBy}. */
+  @Test
+  public void testCreateRowMapperOrderBy() {
+    MappingBean childMapping =
+        MappingBean.builder()
+            .table(
+                TableBean.builder()
+                    .name("lines")
+                    .quoteNames(true)
+                    .column(ColumnBean.builder().name("lineNumber").dbName("line_num").build())
+                    .build())
+            .build();
+
+    JoinBean join = JoinBean.builder().fieldName("lines").build();
+    assertEquals("", mojo.createRowMapperOrderBy(childMapping, join));
+
+    join.setOrderBy("lineNumber DESC, OTHER");
+    assertEquals("\"line_num\" DESC, OTHER", mojo.createRowMapperOrderBy(childMapping, join));
+  }
+
+  /**
+   * Tests for {@link GenerateEntitiesFromDslMojo#isRowMapperSupported} and {@link
+   * GenerateEntitiesFromDslMojo#createRowMapperClassForMapping} using a parent entity with a
+   * collection of lines that refer back to it.
+   */
+  @Test
+  public void testCreateRowMapperClassForMapping() {
+    MappingBean lineMapping =
+        MappingBean.builder()
+            .id("Line")
+            .entityClassName("gov.cms.test.Line")
+            .table(
+                TableBean.builder()
+                    .name("lines")
+                    .primaryKeyColumn("parentClaim")
+                    .primaryKeyColumn("lineNumber")
+                    .column(
+                        ColumnBean.builder()
+                            .name("claimId")
+                            .dbName("clm_id")
+                            .sqlType("bigint")
+                            .dbOnly(true)
+                            .build())
+                    .column(
+                        ColumnBean.builder()
+                            .name("lineNumber")
+                            .dbName("line_num")
+                            .sqlType("smallint")
+                            .javaType("short")
+                            .nullable(false)
+                            .build())
+                    .join(
+                        JoinBean.builder()
+                            .fieldName("parentClaim")
+                            .entityClass("gov.cms.test.Claim")
+                            .joinColumnName("claimId")
+                            .joinType(JoinBean.JoinType.ManyToOne)
+                            .build())
+                    .build())
+            .build();
+    TableBean claimTable =
+        TableBean.builder()
+            .name("claims")
+            .schema("ccw")
+            .primaryKeyColumn("claimId")
+            .column(
+                ColumnBean.builder()
+                    .name("claimId")
+                    .dbName("clm_id")
+                    .sqlType("bigint")
+                    .javaType("long")
+                    .nullable(false)
+                    .build())
+            .column(ColumnBean.builder().name("amount").sqlType("numeric(10,2)").build())
+            .column(
+                ColumnBean.builder()
+                    .name("computed")
+                    .sqlType("varchar(5)")
+                    .fieldType(ColumnBean.FieldType.Transient)
+                    .build())
+            .join(
+                new JoinBean.Parent()
+                    .toBuilder()
+                        .fieldName("lines")
+                        .entityMapping("Line")
+                        .mappedBy("parentClaim")
+                        .orderBy("lineNumber ASC")
+                        .build())
+            .build();
+    MappingBean claimMapping =
+        MappingBean.builder()
+            .id("Claim")
+            .entityClassName("gov.cms.test.Claim")
+            .nullableFieldAccessorType(MappingBean.NullableFieldAccessorType.Optional)
+            .table(claimTable)
+            .build();
+    RootBean root = RootBean.builder().mapping(claimMapping).mapping(lineMapping).build();
+
+    assertTrue(mojo.isRowMapperSupported(root, lineMapping));
+    assertTrue(mojo.isRowMapperSupported(root, claimMapping));
+
+    String code = mojo.createRowMapperClassForMapping(root, claimMapping).toString();
+    assertTrue(code.contains("extends gov.cms.model.dsl.codegen.library.EntityRowMapper"));
+    assertTrue(code.contains("\"ccw.claims\""));
+    assertTrue(code.contains("java.util.Map.entry(\"claimId\", \"clm_id\")"));
+    assertFalse(code.contains("computed"));
+    assertTrue(code.contains("entity.setClaimId(resultSet.getLong(1));"));
+    assertTrue(
+        code.contains(
+            "entity.setAmount(java.util.Optional.ofNullable(resultSet.getBigDecimal(2)));"));
+    assertTrue(
+        code.contains(
+            "readChildren(connection, gov.cms.test.LineRowMapper.INSTANCE, \"clm_id\","
+                + " java.lang.Long.class, \"line_num ASC\", entitiesByKey,"));
+    assertTrue(code.contains("child.setParentClaim(parent);"));
+    assertTrue(code.contains("parent.getLines().add(child);"));
+
+    code = mojo.createRowMapperClassForMapping(root, lineMapping).toString();
+    assertTrue(code.contains("entity.setLineNumber(resultSet.getShort(1));"));
+    assertFalse(code.contains("readCollections"));
+
+    // a collection whose child has no column referring to the parent cannot be loaded
+    claimTable.setJoins(
+        List.of(new JoinBean.Array().toBuilder().fieldName("lines").entityMapping("Line").build()));
+    assertFalse(mojo.isRowMapperSupported(root, claimMapping));
+  }
+
+  /**
+   * Generates the code to read a column at position 3 and returns it as a string.
+   *
+   * @param mapping {@link MappingBean} containing the column
+   * @param column {@link ColumnBean} to read
+   * @return the code
+   */
+  private String readCode(MappingBean mapping, ColumnBean column) {
+    return mojo.createRowMapperReadCode(mapping, column, 3).orElseThrow().toString();
+  }
 }
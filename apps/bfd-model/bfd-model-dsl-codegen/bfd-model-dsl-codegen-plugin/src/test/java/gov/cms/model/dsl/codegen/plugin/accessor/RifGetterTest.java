@@ -1,20 +1,32 @@
 package gov.cms.model.dsl.codegen.plugin.accessor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import gov.cms.model.dsl.codegen.plugin.model.TransformationBean;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 /** Unit tests for {@link RifGetter}. */
 public class RifGetterTest {
+  /** The getter under test. */
+  private RifGetter getter;
+
+  /** Creates a new getter for each test. */
+  @BeforeEach
+  public void setUp() {
+    getter = new RifGetter("columns");
+  }
+
   /** Verifies output of {@link RifGetter#createHasRef}. */
   @Test
   public void testHasRef() {
     final var simple = TransformationBean.builder().from("x").build();
     final var nested = TransformationBean.builder().from("x.y").build();
-    assertEquals("() -> from.hasValue(\"x\")", RifGetter.Instance.createHasRef(simple).toString());
-    assertThrows(IllegalArgumentException.class, () -> RifGetter.Instance.createHasRef(nested));
+    assertEquals("() -> from.hasValue(columns, 0)", getter.createHasRef(simple).toString());
+    assertThrows(IllegalArgumentException.class, () -> getter.createHasRef(nested));
   }
 
   /** Verifies output of {@link RifGetter#createHasCall}. */
@@ -22,8 +34,8 @@ public class RifGetterTest {
   public void testHasCall() {
     final var simple = TransformationBean.builder().from("x").build();
     final var nested = TransformationBean.builder().from("x.y").build();
-    assertEquals("from.hasValue(\"x\")", RifGetter.Instance.createHasCall(simple).toString());
-    assertThrows(IllegalArgumentException.class, () -> RifGetter.Instance.createHasCall(nested));
+    assertEquals("from.hasValue(columns, 0)", getter.createHasCall(simple).toString());
+    assertThrows(IllegalArgumentException.class, () -> getter.createHasCall(nested));
   }
 
   /** Verifies output of {@link RifGetter#createGetRef}. */
@@ -31,9 +43,8 @@ public class RifGetterTest {
   public void testGetRef() {
     final var simple = TransformationBean.builder().from("x").build();
     final var nested = TransformationBean.builder().from("x.y").build();
-    assertEquals(
-        "() -> from.getValue(\"x\", null)", RifGetter.Instance.createGetRef(simple).toString());
-    assertThrows(IllegalArgumentException.class, () -> RifGetter.Instance.createGetRef(nested));
+    assertEquals("() -> from.getValue(columns, 0, null)", getter.createGetRef(simple).toString());
+    assertThrows(IllegalArgumentException.class, () -> getter.createGetRef(nested));
   }
 
   /** Verifies output of {@link RifGetter#createGetCall}. */
@@ -41,7 +52,29 @@ public class RifGetterTest {
   public void testGetCall() {
     final var simple = TransformationBean.builder().from("x").build();
     final var nested = TransformationBean.builder().from("x.y").build();
-    assertEquals("from.getValue(\"x\", null)", RifGetter.Instance.createGetCall(simple).toString());
-    assertThrows(IllegalArgumentException.class, () -> RifGetter.Instance.createGetCall(nested));
+    assertEquals("from.getValue(columns, 0, null)", getter.createGetCall(simple).toString());
+    assertThrows(IllegalArgumentException.class, () -> getter.createGetCall(nested));
+  }
+
+  /**
+   * Verifies that each label gets one index in the order labels are first used and that {@link
+   * RifGetter#createColumnIndexField} declares the labels in that order.
+   */
+  @Test
+  public void testColumnIndexField() {
+    final var first = TransformationBean.builder().from("A").defaultValue("0").build();
+    final var second = TransformationBean.builder().from("B").build();
+    assertFalse(getter.hasColumns());
+
+    assertEquals("from.getValue(columns, 0, \"0\")", getter.createGetCall(first).toString());
+    assertEquals("from.hasValue(columns, 1)", getter.createHasCall(second).toString());
+    assertEquals("from.getValue(columns, 1, null)", getter.createGetCall(second).toString());
+    assertEquals("from.hasValue(columns, 0)", getter.createHasCall(first).toString());
+
+    assertTrue(getter.hasColumns());
+    assertEquals(
+        "private final gov.cms.model.dsl.codegen.library.RifColumnIndex columns = "
+            + "new gov.cms.model.dsl.codegen.library.RifColumnIndex(\"A\", \"B\");\n",
+        getter.createColumnIndexField().toString());
   }
 }
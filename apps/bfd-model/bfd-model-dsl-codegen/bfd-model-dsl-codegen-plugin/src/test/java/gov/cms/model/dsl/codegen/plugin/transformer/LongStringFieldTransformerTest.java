@@ -37,6 +37,36 @@ public class LongStringFieldTransformerTest {
         block.toString());
   }
 
+  /** Verifies that required fields with a primitive type use {@code copyPrimitiveLongString}. */
+  @Test
+  public void testRequiredPrimitiveField() {
+    ColumnBean column =
+        ColumnBean.builder()
+            .name("idrDtlCnt")
+            .nullable(false)
+            .sqlType("char(1)")
+            .javaType("long")
+            .build();
+    TransformationBean transformation =
+        TransformationBean.builder()
+            .optionalComponents(TransformationBean.OptionalComponents.None)
+            .from("idrDtlCnt")
+            .build();
+    MappingBean mapping =
+        MappingBean.builder()
+            .entityClassName("gov.cms.test.Entity")
+            .transformation(transformation)
+            .build();
+
+    LongStringFieldTransformer generator = new LongStringFieldTransformer();
+    CodeBlock block =
+        generator.generateCodeBlock(
+            mapping, column, transformation, GrpcGetter.Instance, StandardSetter.Instance);
+    assertEquals(
+        "transformer.copyPrimitiveLongString(namePrefix + gov.cms.test.Entity.Fields.idrDtlCnt, false, from.getIdrDtlCnt(), to::setIdrDtlCnt);\n",
+        block.toString());
+  }
+
   /** Verifies that optional fields use {@code copyOptionalLongString}. */
   @Test
   public void testOptionalField() {
@@ -37,6 +37,36 @@ public class ShortStringFieldTransformerTest {
         block.toString());
   }
 
+  /** Verifies that required fields with a primitive type use {@code copyPrimitiveShortString}. */
+  @Test
+  public void testRequiredPrimitiveField() {
+    ColumnBean column =
+        ColumnBean.builder()
+            .name("idrDtlCnt")
+            .nullable(false)
+            .sqlType("char(1)")
+            .javaType("short")
+            .build();
+    TransformationBean transformation =
+        TransformationBean.builder()
+            .optionalComponents(TransformationBean.OptionalComponents.None)
+            .from("idrDtlCnt")
+            .build();
+    MappingBean mapping =
+        MappingBean.builder()
+            .entityClassName("gov.cms.test.Entity")
+            .transformation(transformation)
+            .build();
+
+    ShortStringFieldTransformer generator = new ShortStringFieldTransformer();
+    CodeBlock block =
+        generator.generateCodeBlock(
+            mapping, column, transformation, GrpcGetter.Instance, StandardSetter.Instance);
+    assertEquals(
+        "transformer.copyPrimitiveShortString(namePrefix + gov.cms.test.Entity.Fields.idrDtlCnt, false, from.getIdrDtlCnt(), to::setIdrDtlCnt);\n",
+        block.toString());
+  }
+
   /** Verifies that optional fields use {@code copyOptionalShortString}. */
   @Test
   public void testOptionalField() {
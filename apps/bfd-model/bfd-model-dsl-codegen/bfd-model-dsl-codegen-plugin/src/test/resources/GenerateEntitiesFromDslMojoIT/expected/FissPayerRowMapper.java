@@ -0,0 +1,68 @@
+package gov.cms.test;
+
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
+import java.lang.Override;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads {@link FissPayer} entities from the {@code FissPayers} table using JDBC rather than JPA.
+ */
+public class FissPayerRowMapper extends EntityRowMapper<FissPayer> {
+  /**
+   * Shared instance. Instances hold no state so they can be shared.
+   */
+  public static final FissPayerRowMapper INSTANCE = new FissPayerRowMapper();
+
+  /**
+   * Initializes the shared instance.
+   */
+  private FissPayerRowMapper() {
+    super(
+        "\"pre_adj\".\"FissPayers\"",
+        List.of(
+          "\"priority\"",
+          "\"payerType\"",
+          "\"payersId\"",
+          "\"estAmtDue\"",
+          "\"beneRel\"",
+          "\"insuredName\"",
+          "\"insuredSex\"",
+          "\"insuredRelX12\"",
+          "\"insuredDob\"",
+          "\"insuredDobText\"",
+          "\"lastUpdated\""),
+        Map.ofEntries(
+          Map.entry("dcn", "\"dcn\""),
+          Map.entry("priority", "\"priority\""),
+          Map.entry("payerType", "\"payerType\""),
+          Map.entry("payersId", "\"payersId\""),
+          Map.entry("estAmtDue", "\"estAmtDue\""),
+          Map.entry("beneRel", "\"beneRel\""),
+          Map.entry("insuredName", "\"insuredName\""),
+          Map.entry("insuredSex", "\"insuredSex\""),
+          Map.entry("insuredRelX12", "\"insuredRelX12\""),
+          Map.entry("insuredDob", "\"insuredDob\""),
+          Map.entry("insuredDobText", "\"insuredDobText\""),
+          Map.entry("lastUpdated", "\"lastUpdated\"")));
+  }
+
+  @Override
+  public FissPayer mapRow(ResultSet resultSet) throws SQLException {
+    final FissPayer entity = new FissPayer();
+    entity.setPriority(resultSet.getShort(1));
+    entity.setPayerType(getEnum(resultSet, 2, FissPayer.PayerType.class));
+    entity.setPayersId(resultSet.getString(3));
+    entity.setEstAmtDue(resultSet.getBigDecimal(4));
+    entity.setBeneRel(resultSet.getString(5));
+    entity.setInsuredName(resultSet.getString(6));
+    entity.setInsuredSex(resultSet.getString(7));
+    entity.setInsuredRelX12(resultSet.getString(8));
+    entity.setInsuredDob(getLocalDate(resultSet, 9));
+    entity.setInsuredDobText(resultSet.getString(10));
+    entity.setLastUpdated(getInstant(resultSet, 11));
+    return entity;
+  }
+}
@@ -0,0 +1,55 @@
+package gov.cms.test;
+
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
+import java.lang.Override;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads {@link FissProcCode} entities from the {@code FissProcCodes} table using JDBC rather than JPA.
+ */
+public class FissProcCodeRowMapper extends EntityRowMapper<FissProcCode> {
+  /**
+   * Shared instance. Instances hold no state so they can be shared.
+   */
+  public static final FissProcCodeRowMapper INSTANCE = new FissProcCodeRowMapper();
+
+  /**
+   * Initializes the shared instance.
+   */
+  private FissProcCodeRowMapper() {
+    super(
+        "\"pre_adj\".\"FissProcCodes\"",
+        List.of(
+          "\"dcn\"",
+          "\"priority\"",
+          "\"procCode\"",
+          "\"procFlag\"",
+          "\"procDate\"",
+          "\"longString\"",
+          "\"lastUpdated\""),
+        Map.ofEntries(
+          Map.entry("dcn", "\"dcn\""),
+          Map.entry("priority", "\"priority\""),
+          Map.entry("procCode", "\"procCode\""),
+          Map.entry("procFlag", "\"procFlag\""),
+          Map.entry("procDate", "\"procDate\""),
+          Map.entry("longString", "\"longString\""),
+          Map.entry("lastUpdated", "\"lastUpdated\"")));
+  }
+
+  @Override
+  public FissProcCode mapRow(ResultSet resultSet) throws SQLException {
+    final FissProcCode entity = new FissProcCode();
+    entity.setDcn(resultSet.getString(1));
+    entity.setPriority(resultSet.getShort(2));
+    entity.setProcCode(resultSet.getString(3));
+    entity.setProcFlag(resultSet.getString(4));
+    entity.setProcDate(getLocalDate(resultSet, 5));
+    entity.setLongString(resultSet.getLong(6));
+    entity.setLastUpdated(getInstant(resultSet, 7));
+    return entity;
+  }
+}
@@ -0,0 +1,50 @@
+package gov.cms.test;
+
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
+import java.lang.Override;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads {@link NoTransforms} entities from the {@code MbiCache} table using JDBC rather than JPA.
+ */
+public class NoTransformsRowMapper extends EntityRowMapper<NoTransforms> {
+  /**
+   * Shared instance. Instances hold no state so they can be shared.
+   */
+  public static final NoTransformsRowMapper INSTANCE = new NoTransformsRowMapper();
+
+  /**
+   * Initializes the shared instance.
+   */
+  private NoTransformsRowMapper() {
+    super(
+        "rda.MbiCache",
+        List.of(
+          "mbi_id",
+          "mbi",
+          "hash",
+          "old_hash",
+          "last_updated"),
+        Map.ofEntries(
+          Map.entry("mbiId", "mbi_id"),
+          Map.entry("mbi", "mbi"),
+          Map.entry("hash", "hash"),
+          Map.entry("oldHash", "old_hash"),
+          Map.entry("lastUpdated", "last_updated")));
+  }
+
+  @Override
+  public NoTransforms mapRow(ResultSet resultSet) throws SQLException {
+    final NoTransforms entity = new NoTransforms();
+    entity.setMbiId(getNullableLong(resultSet, 1));
+    entity.setMbi(resultSet.getString(2));
+    entity.setHash(resultSet.getString(3));
+    entity.setOldHash(Optional.ofNullable(resultSet.getString(4)));
+    entity.setLastUpdated(getInstant(resultSet, 5));
+    return entity;
+  }
+}
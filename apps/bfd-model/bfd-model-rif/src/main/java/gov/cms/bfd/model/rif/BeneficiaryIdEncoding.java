@@ -0,0 +1,143 @@
+package gov.cms.bfd.model.rif;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Compact binary encoding for the beneficiary ids of a {@link LoadedBatch}. The ids are sorted and
+ * each is stored as the difference from the previous id using a variable length integer, so the
+ * closely spaced ids of a batch typically take two or three bytes each rather than the ten or more
+ * characters needed as text. Values can be decoded one at a time without creating a list.
+ *
+ * <p>The encoded form is a format version byte, the number of ids, the first id (zigzag encoded
+ * since ids can be negative), then the unsigned difference of each following id from the one before
+ * it. All integers after the version byte are LEB128 variable length integers.
+ */
+public final class BeneficiaryIdEncoding {
+  /** Version of the encoding written by {@link #encode}. */
+  static final byte FORMAT_VERSION = 1;
+
+  /** Prevents instantiation of utility class. */
+  private BeneficiaryIdEncoding() {}
+
+  /**
+   * Encodes a list of beneficiary ids. Their order is not preserved.
+   *
+   * @param beneficiaryIds the ids to encode
+   * @return the encoded ids
+   */
+  public static byte[] encode(List<Long> beneficiaryIds) {
+    final long[] sorted = beneficiaryIds.stream().mapToLong(Long::longValue).sorted().toArray();
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(2 + sorted.length * 3);
+    out.write(FORMAT_VERSION);
+    writeVarLong(out, sorted.length);
+    long previous = 0;
+    for (int i = 0; i < sorted.length; ++i) {
+      final long value = sorted[i];
+      if (i == 0) {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+      } else {
+        writeVarLong(out, value - previous);
+      }
+      previous = value;
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Gets the number of ids in an encoded value without decoding them.
+   *
+   * @param encoded value returned by {@link #encode}
+   * @return the number of ids
+   * @throws IllegalArgumentException if the value was not produced by {@link #encode}
+   */
+  public static int count(byte[] encoded) {
+    checkVersion(encoded);
+    return (int) new Reader(encoded).readVarLong();
+  }
+
+  /**
+   * Decodes each id in an encoded value and passes it to a consumer in ascending order.
+   *
+   * @param encoded value returned by {@link #encode}
+   * @param consumer receives each id
+   * @throws IllegalArgumentException if the value was not produced by {@link #encode}
+   */
+  public static void decode(byte[] encoded, LongConsumer consumer) {
+    checkVersion(encoded);
+    final Reader reader = new Reader(encoded);
+    final long count = reader.readVarLong();
+    long value = 0;
+    for (long i = 0; i < count; ++i) {
+      final long raw = reader.readVarLong();
+      value = i == 0 ? (raw >>> 1) ^ -(raw & 1) : value + raw;
+      consumer.accept(value);
+    }
+  }
+
+  /**
+   * Verifies that an encoded value starts with the expected format version.
+   *
+   * @param encoded the encoded value
+   * @throws IllegalArgumentException if the version is missing or unknown
+   */
+  private static void checkVersion(byte[] encoded) {
+    if (encoded.length == 0 || encoded[0] != FORMAT_VERSION) {
+      throw new IllegalArgumentException("unsupported beneficiary id encoding");
+    }
+  }
+
+  /**
+   * Writes an unsigned variable length integer using seven bits per byte.
+   *
+   * @param out receives the bytes
+   * @param value the value to write
+   */
+  private static void writeVarLong(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  /** Reads variable length integers from an encoded value, skipping the format version. */
+  private static class Reader {
+    /** The encoded value. */
+    private final byte[] bytes;
+
+    /** Position of the next byte to read. */
+    private int position = 1;
+
+    /**
+     * Initializes an instance.
+     *
+     * @param bytes the encoded value
+     */
+    private Reader(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    /**
+     * Reads an unsigned variable length integer.
+     *
+     * @return the value
+     * @throws IllegalArgumentException if the value is truncated
+     */
+    private long readVarLong() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        if (position >= bytes.length) {
+          throw new IllegalArgumentException("truncated beneficiary id encoding");
+        }
+        final byte b = bytes[position++];
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("invalid beneficiary id encoding");
+    }
+  }
+}
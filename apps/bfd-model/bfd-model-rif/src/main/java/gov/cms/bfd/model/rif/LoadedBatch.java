@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
@@ -36,10 +37,22 @@ public class LoadedBatch {
   @Column(name = "loaded_file_id", nullable = false)
   private long loadedFileId;
 
-  /** The beneficiaries in this batch. */
+  /**
+   * The beneficiaries in this batch as {@link #SEPARATOR} delimited text. Still written alongside
+   * {@link #beneficiaryIds} so that servers and pipelines that predate the binary column keep
+   * working during a rollout or rollback. A later release stops writing it once no such version
+   * remains deployed.
+   */
   @Column(name = "beneficiaries", columnDefinition = "varchar", nullable = false)
   private String beneficiaries;
 
+  /**
+   * The beneficiaries in this batch encoded using {@link BeneficiaryIdEncoding}. Preferred over
+   * {@link #beneficiaries} when reading. Absent in batches written before the column was added.
+   */
+  @Column(name = "beneficiary_ids")
+  private byte[] beneficiaryIds;
+
   /** The batch creation timestamp. */
   @Column(name = "created", nullable = false)
   private Instant created;
@@ -57,26 +70,56 @@ public class LoadedBatch {
     this();
     this.loadedBatchId = loadedBatchId;
     this.loadedFileId = loadedFileId;
-    this.beneficiaries = convertToString(beneficiaries);
+    setBeneficiaries(beneficiaries);
     this.created = created;
   }
 
   /**
-   * Set the {@link #beneficiaries} from a list.
+   * Set both the {@link #beneficiaries} and {@link #beneficiaryIds} from a list.
    *
    * @param beneficiaries list to convert
    */
   public void setBeneficiaries(List<Long> beneficiaries) {
     this.beneficiaries = convertToString(beneficiaries);
+    this.beneficiaryIds =
+        BeneficiaryIdEncoding.encode(beneficiaries == null ? List.of() : beneficiaries);
   }
 
   /**
-   * Get the {@link #beneficiaries} as a list.
+   * Get the beneficiaries as a list.
    *
    * @return beneficiaries as list
    */
   public List<Long> getBeneficiariesAsList() {
-    return convertToList(this.beneficiaries);
+    final List<Long> list = new ArrayList<>(getBeneficiaryCount());
+    forEachBeneficiary(list::add);
+    return list;
+  }
+
+  /**
+   * Get the number of beneficiaries without decoding them.
+   *
+   * @return the number of beneficiaries
+   */
+  public int getBeneficiaryCount() {
+    if (beneficiaryIds != null) {
+      return BeneficiaryIdEncoding.count(beneficiaryIds);
+    }
+    return convertToList(beneficiaries).size();
+  }
+
+  /**
+   * Passes each beneficiary to a consumer. Avoids creating a list when reading {@link
+   * #beneficiaryIds}.
+   *
+   * @param consumer receives each beneficiary
+   */
+  public void forEachBeneficiary(LongConsumer consumer) {
+    if (beneficiaryIds != null) {
+      BeneficiaryIdEncoding.decode(beneficiaryIds, consumer);
+    } else {
+      convertToList(beneficiaries).forEach(consumer::accept);
+    }
   }
 
   /**
@@ -92,12 +135,9 @@ public class LoadedBatch {
     LoadedBatch sum = new LoadedBatch();
     sum.loadedBatchId = a.loadedBatchId;
     sum.loadedFileId = a.loadedFileId;
-    sum.beneficiaries =
-        a.beneficiaries.isEmpty()
-            ? b.beneficiaries
-            : b.beneficiaries.isEmpty()
-                ? a.beneficiaries
-                : a.beneficiaries + SEPARATOR + b.beneficiaries;
+    final List<Long> beneficiaries = a.getBeneficiariesAsList();
+    beneficiaries.addAll(b.getBeneficiariesAsList());
+    sum.setBeneficiaries(beneficiaries);
     sum.created = (a.created.isAfter(b.created)) ? a.created : b.created;
     return sum;
   }
@@ -79,6 +79,18 @@ public interface RifFile {
     return 0L;
   }
 
+  /**
+   * Returns true if an earlier attempt to load this file may have written records that do not match
+   * the file, for example because they were parsed from a download that later failed its checksum.
+   * Records of the earlier attempts are then deleted before the file is loaded from its start, and
+   * every record must be written even if a record with the same key already exists.
+   *
+   * @return true if existing records must be overwritten
+   */
+  default boolean isReloadRequired() {
+    return false;
+  }
+
   /**
    * Updates the last record number value in some manner. This might include writing to a database
    * table or doing nothing at all.
@@ -16,7 +16,10 @@ public final class RifRecordEvent<R extends RifRecordBase> {
   /** The {@link RifFileEvent} that this is a child of. */
   private final RifFileEvent fileEvent;
 
-  /** The {@link CSVRecord}s that this was built from / represents. */
+  /**
+   * The {@link CSVRecord}s that this was built from / represents. Claims only retain their first
+   * record so that the raw data of their lines can be released as soon as it has been parsed.
+   */
   private final List<CSVRecord> rawCsvRecords;
 
   /** The RIF {@link RecordAction} indicated for the getRecord(). */
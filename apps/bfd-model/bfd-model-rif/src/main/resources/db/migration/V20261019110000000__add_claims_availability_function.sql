@@ -0,0 +1,43 @@
+--
+-- Returns one row per claim type that has data for the beneficiary along with the number of
+-- claims, the most recent last_updated, and the range of service end dates (clm_thru_dt, or
+-- srvc_dt for Part D events). Lets the server prune claim types that cannot match the
+-- _lastUpdated or service-date filters and size its result lists before loading any claims.
+-- Unlike check_claims_mask this counts rows, so it reads every index entry for the beneficiary
+-- rather than stopping at the first.
+--
+CREATE OR REPLACE FUNCTION ccw.check_claims_availability(v_bene_id bigint)
+    RETURNS TABLE (
+        claim_type text,
+        claim_count bigint,
+        max_last_updated timestamp with time zone,
+        min_service_end_date date,
+        max_service_end_date date
+    )
+    LANGUAGE sql
+    STABLE
+    AS $$
+SELECT 'CARRIER', count(*), max(last_updated), min(clm_thru_dt), max(clm_thru_dt)
+  FROM ccw.carrier_claims WHERE bene_id = v_bene_id HAVING count(*) > 0
+UNION ALL
+SELECT 'INPATIENT', count(*), max(last_updated), min(clm_thru_dt), max(clm_thru_dt)
+  FROM ccw.inpatient_claims WHERE bene_id = v_bene_id HAVING count(*) > 0
+UNION ALL
+SELECT 'OUTPATIENT', count(*), max(last_updated), min(clm_thru_dt), max(clm_thru_dt)
+  FROM ccw.outpatient_claims WHERE bene_id = v_bene_id HAVING count(*) > 0
+UNION ALL
+SELECT 'SNF', count(*), max(last_updated), min(clm_thru_dt), max(clm_thru_dt)
+  FROM ccw.snf_claims WHERE bene_id = v_bene_id HAVING count(*) > 0
+UNION ALL
+SELECT 'DME', count(*), max(last_updated), min(clm_thru_dt), max(clm_thru_dt)
+  FROM ccw.dme_claims WHERE bene_id = v_bene_id HAVING count(*) > 0
+UNION ALL
+SELECT 'HHA', count(*), max(last_updated), min(clm_thru_dt), max(clm_thru_dt)
+  FROM ccw.hha_claims WHERE bene_id = v_bene_id HAVING count(*) > 0
+UNION ALL
+SELECT 'HOSPICE', count(*), max(last_updated), min(clm_thru_dt), max(clm_thru_dt)
+  FROM ccw.hospice_claims WHERE bene_id = v_bene_id HAVING count(*) > 0
+UNION ALL
+SELECT 'PDE', count(*), max(last_updated), min(srvc_dt), max(srvc_dt)
+  FROM ccw.partd_events WHERE bene_id = v_bene_id HAVING count(*) > 0
+$$;
@@ -0,0 +1,10 @@
+--
+-- Stores the beneficiaries of each loaded batch in a compact binary form (sorted ids, delta and
+-- varint encoded) alongside the comma separated text. The server reads every new batch on each
+-- filter refresh so reading the binary form reduces the data transferred per refresh.
+-- This is the expand step: the pipeline writes both columns so that versions which only know the
+-- text column keep working. Once no such version is deployed a later release stops writing the
+-- text column and a later migration drops it.
+--
+ALTER TABLE ccw.loaded_batches
+    ADD COLUMN IF NOT EXISTS beneficiary_ids bytea;
@@ -0,0 +1,7 @@
+--
+-- Records when a streamed download of a data file failed its MD5 checksum. Batches parsed from the
+-- download were already committed when the checksum was checked, so the pipeline reloads the whole
+-- file and overwrites any existing records rather than inserting them again.
+--
+ALTER TABLE ccw.s3_data_files
+    ADD COLUMN IF NOT EXISTS checksum_mismatch_timestamp timestamp with time zone;
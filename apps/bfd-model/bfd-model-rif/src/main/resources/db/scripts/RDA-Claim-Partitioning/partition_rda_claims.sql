@@ -0,0 +1,148 @@
+/*
+Converts rda.fiss_claims and rda.mcs_claims into tables partitioned by month of last_updated so
+that the RDA cleanup jobs (AbstractCleanupJob) can remove expired claims by dropping whole
+partitions rather than deleting rows.
+
+Notes:
+  - The primary key of a partitioned table must include the partition column so the keys
+    become (claim_id, last_updated) and (idr_clm_hd_icn, last_updated).  PostgreSQL can not
+    enforce uniqueness of the claim id alone across partitions, so no index can take the place
+    of the old primary key.  Duplicates can not be created by the pipeline because:
+      - the JPA entities are still keyed by the claim id alone, so EntityManager.merge looks a
+        claim up by its id and updates the existing row rather than inserting a new one, and
+        PostgreSQL moves an updated row to the partition matching its new last_updated,
+      - every change to a given claim id is written by the same claim writer thread, so two
+        transactions never insert the same new claim at the same time, and
+      - only one RDA pipeline writes to the claim tables at a time.
+    README.md has a query that checks for duplicates after the conversion.
+  - Child tables can no longer declare foreign keys to the parent for the same reason.  Their
+    ON DELETE CASCADE constraints are dropped and the cleanup jobs delete child rows
+    explicitly, both before dropping a partition and in the same transaction as their row
+    level deletes of claims.
+  - Claims with a null last_updated are given the current time since the partition column
+    can not be null.
+  - Monthly partitions are created from the oldest claim through three months in the future
+    plus a default partition.  Run rda.create_monthly_claim_partitions periodically (for
+    example monthly) to keep creating partitions ahead of the current date.
+
+Holds exclusive locks on the RDA claim tables for the duration.  Stop the RDA pipeline first.
+*/
+BEGIN;
+
+CREATE OR REPLACE FUNCTION rda.create_monthly_claim_partitions(
+    parent_table text, first_month date, last_month date)
+RETURNS void AS $$
+DECLARE
+    month_start date := date_trunc('month', first_month);
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS rda.%I PARTITION OF rda.%I FOR VALUES FROM (%L) TO (%L)',
+            parent_table || '_p' || to_char(month_start, 'YYYYMM'),
+            parent_table,
+            month_start,
+            (month_start + interval '1 month')::date);
+        month_start := (month_start + interval '1 month')::date;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- =================================================
+-- fiss_claims
+-- =================================================
+ALTER TABLE rda.fiss_audit_trails DROP CONSTRAINT IF EXISTS fiss_audit_trails_parent;
+ALTER TABLE rda.fiss_diagnosis_codes DROP CONSTRAINT IF EXISTS fiss_diagnosis_codes_parent;
+ALTER TABLE rda.fiss_payers DROP CONSTRAINT IF EXISTS fiss_payers_parent;
+ALTER TABLE rda.fiss_proc_codes DROP CONSTRAINT IF EXISTS fiss_proc_codes_parent;
+ALTER TABLE rda.fiss_revenue_lines DROP CONSTRAINT IF EXISTS fiss_revenue_lines_parent;
+
+ALTER TABLE rda.fiss_claims RENAME TO fiss_claims_unpartitioned;
+ALTER TABLE rda.fiss_claims_unpartitioned RENAME CONSTRAINT fiss_claims_pkey TO fiss_claims_unpartitioned_pkey;
+ALTER TABLE rda.fiss_claims_unpartitioned RENAME CONSTRAINT fiss_claims_mbi_id_fkey TO fiss_claims_unpartitioned_mbi_id_fkey;
+ALTER INDEX IF EXISTS rda.fiss_claims_last_updated_idx RENAME TO fiss_claims_unpartitioned_last_updated_idx;
+ALTER INDEX IF EXISTS rda.fiss_claims_mbi_id_idx RENAME TO fiss_claims_unpartitioned_mbi_id_idx;
+ALTER INDEX IF EXISTS rda.fiss_claims_api_source_idx RENAME TO fiss_claims_unpartitioned_api_source_idx;
+
+UPDATE rda.fiss_claims_unpartitioned SET last_updated = now() WHERE last_updated IS NULL;
+
+CREATE TABLE rda.fiss_claims (
+    LIKE rda.fiss_claims_unpartitioned INCLUDING DEFAULTS INCLUDING STORAGE
+)
+PARTITION BY RANGE (last_updated);
+
+ALTER TABLE rda.fiss_claims ALTER COLUMN last_updated SET NOT NULL;
+
+SELECT rda.create_monthly_claim_partitions(
+    'fiss_claims',
+    coalesce((SELECT min(last_updated) FROM rda.fiss_claims_unpartitioned), now())::date,
+    (now() + interval '3 months')::date);
+
+CREATE TABLE IF NOT EXISTS rda.fiss_claims_pdefault PARTITION OF rda.fiss_claims DEFAULT;
+
+INSERT INTO rda.fiss_claims SELECT * FROM rda.fiss_claims_unpartitioned;
+
+ALTER TABLE rda.fiss_claims
+    ADD CONSTRAINT fiss_claims_pkey PRIMARY KEY (claim_id, last_updated);
+ALTER TABLE rda.fiss_claims
+    ADD CONSTRAINT fiss_claims_mbi_id_fkey FOREIGN KEY (mbi_id) REFERENCES rda.mbi_cache(mbi_id);
+CREATE INDEX IF NOT EXISTS fiss_claims_last_updated_idx ON rda.fiss_claims USING btree (last_updated);
+CREATE INDEX IF NOT EXISTS fiss_claims_mbi_id_idx ON rda.fiss_claims USING btree (mbi_id);
+CREATE INDEX IF NOT EXISTS fiss_claims_api_source_idx ON rda.fiss_claims USING btree (api_source);
+
+GRANT SELECT ON TABLE rda.fiss_claims TO paca_reader_role;
+GRANT SELECT,INSERT,DELETE,UPDATE ON TABLE rda.fiss_claims TO paca_writer_role;
+GRANT ALL ON TABLE rda.fiss_claims TO paca_migrator_role;
+GRANT ALL ON TABLE rda.fiss_claims TO rds_superuser;
+
+DROP TABLE rda.fiss_claims_unpartitioned;
+
+-- =================================================
+-- mcs_claims
+-- =================================================
+ALTER TABLE rda.mcs_adjustments DROP CONSTRAINT IF EXISTS mcs_adjustments_parent;
+ALTER TABLE rda.mcs_audits DROP CONSTRAINT IF EXISTS mcs_audits_parent;
+ALTER TABLE rda.mcs_details DROP CONSTRAINT IF EXISTS mcs_details_parent;
+ALTER TABLE rda.mcs_diagnosis_codes DROP CONSTRAINT IF EXISTS mcs_diagnosis_codes_parent;
+ALTER TABLE rda.mcs_locations DROP CONSTRAINT IF EXISTS mcs_locations_parent;
+
+ALTER TABLE rda.mcs_claims RENAME TO mcs_claims_unpartitioned;
+ALTER TABLE rda.mcs_claims_unpartitioned RENAME CONSTRAINT mcs_claims_pkey TO mcs_claims_unpartitioned_pkey;
+ALTER TABLE rda.mcs_claims_unpartitioned RENAME CONSTRAINT mcs_claims_mbi_id_fkey TO mcs_claims_unpartitioned_mbi_id_fkey;
+ALTER INDEX IF EXISTS rda.mcs_claims_last_updated_idx RENAME TO mcs_claims_unpartitioned_last_updated_idx;
+ALTER INDEX IF EXISTS rda.mcs_claims_mbi_id_idx RENAME TO mcs_claims_unpartitioned_mbi_id_idx;
+ALTER INDEX IF EXISTS rda.mcs_claims_api_source_idx RENAME TO mcs_claims_unpartitioned_api_source_idx;
+
+UPDATE rda.mcs_claims_unpartitioned SET last_updated = now() WHERE last_updated IS NULL;
+
+CREATE TABLE rda.mcs_claims (
+    LIKE rda.mcs_claims_unpartitioned INCLUDING DEFAULTS INCLUDING STORAGE
+)
+PARTITION BY RANGE (last_updated);
+
+ALTER TABLE rda.mcs_claims ALTER COLUMN last_updated SET NOT NULL;
+
+SELECT rda.create_monthly_claim_partitions(
+    'mcs_claims',
+    coalesce((SELECT min(last_updated) FROM rda.mcs_claims_unpartitioned), now())::date,
+    (now() + interval '3 months')::date);
+
+CREATE TABLE IF NOT EXISTS rda.mcs_claims_pdefault PARTITION OF rda.mcs_claims DEFAULT;
+
+INSERT INTO rda.mcs_claims SELECT * FROM rda.mcs_claims_unpartitioned;
+
+ALTER TABLE rda.mcs_claims
+    ADD CONSTRAINT mcs_claims_pkey PRIMARY KEY (idr_clm_hd_icn, last_updated);
+ALTER TABLE rda.mcs_claims
+    ADD CONSTRAINT mcs_claims_mbi_id_fkey FOREIGN KEY (mbi_id) REFERENCES rda.mbi_cache(mbi_id);
+CREATE INDEX IF NOT EXISTS mcs_claims_last_updated_idx ON rda.mcs_claims USING btree (last_updated);
+CREATE INDEX IF NOT EXISTS mcs_claims_mbi_id_idx ON rda.mcs_claims USING btree (mbi_id);
+CREATE INDEX IF NOT EXISTS mcs_claims_api_source_idx ON rda.mcs_claims USING btree (api_source);
+
+GRANT SELECT ON TABLE rda.mcs_claims TO paca_reader_role;
+GRANT SELECT,INSERT,DELETE,UPDATE ON TABLE rda.mcs_claims TO paca_writer_role;
+GRANT ALL ON TABLE rda.mcs_claims TO paca_migrator_role;
+GRANT ALL ON TABLE rda.mcs_claims TO rds_superuser;
+
+DROP TABLE rda.mcs_claims_unpartitioned;
+
+COMMIT;
@@ -0,0 +1,72 @@
+package gov.cms.bfd.model.rif;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link BeneficiaryIdEncoding}. */
+public class BeneficiaryIdEncodingTest {
+  /** Verifies that ids, including negative, duplicate, and extreme values, survive a round trip. */
+  @Test
+  public void roundTripReturnsSortedIds() {
+    final List<Long> ids =
+        List.of(42L, -19990000000001L, 567834L, 42L, Long.MAX_VALUE, Long.MIN_VALUE, 0L);
+    final byte[] encoded = BeneficiaryIdEncoding.encode(ids);
+
+    final List<Long> sorted = new ArrayList<>(ids);
+    sorted.sort(Long::compare);
+    assertEquals(sorted, decode(encoded));
+    assertEquals(ids.size(), BeneficiaryIdEncoding.count(encoded));
+
+    final byte[] empty = BeneficiaryIdEncoding.encode(List.of());
+    assertEquals(List.of(), decode(empty));
+    assertEquals(0, BeneficiaryIdEncoding.count(empty));
+  }
+
+  /** Verifies that a typical batch of closely spaced ids is much smaller than its text form. */
+  @Test
+  public void encodingIsCompact() {
+    final Random random = new Random(7);
+    final List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < 1000; ++i) {
+      ids.add(100_000_000L + random.nextInt(1_000_000));
+    }
+    final byte[] encoded = BeneficiaryIdEncoding.encode(ids);
+
+    final List<Long> sorted = new ArrayList<>(ids);
+    sorted.sort(Long::compare);
+    assertEquals(sorted, decode(encoded));
+    final int textLength = String.join(",", ids.stream().map(String::valueOf).toList()).length();
+    assertTrue(encoded.length * 4 < textLength, "encoded length " + encoded.length);
+  }
+
+  /** Verifies that values not produced by {@link BeneficiaryIdEncoding#encode} are rejected. */
+  @Test
+  public void invalidValuesAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> BeneficiaryIdEncoding.count(new byte[0]));
+    assertThrows(
+        IllegalArgumentException.class, () -> BeneficiaryIdEncoding.count(new byte[] {99, 1}));
+
+    final byte[] encoded = BeneficiaryIdEncoding.encode(List.of(1L, 1000L));
+    final byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+    assertThrows(IllegalArgumentException.class, () -> decode(truncated));
+  }
+
+  /**
+   * Decodes a value into a list.
+   *
+   * @param encoded the encoded value
+   * @return the ids
+   */
+  private static List<Long> decode(byte[] encoded) {
+    final List<Long> ids = new ArrayList<>();
+    BeneficiaryIdEncoding.decode(encoded, ids::add);
+    return ids;
+  }
+}
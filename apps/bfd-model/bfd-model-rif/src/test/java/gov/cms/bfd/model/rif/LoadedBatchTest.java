@@ -0,0 +1,49 @@
+package gov.cms.bfd.model.rif;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link LoadedBatch}. */
+public class LoadedBatchTest {
+  /**
+   * Verifies that new batches write the text column read by older versions as well as the binary
+   * column, and that both hold the same beneficiaries.
+   */
+  @Test
+  public void setBeneficiariesWritesBothColumns() {
+    final LoadedBatch batch = new LoadedBatch(1, 2, List.of(567834L, -42L), Instant.EPOCH);
+
+    assertEquals("567834,-42", batch.getBeneficiaries());
+    assertEquals(List.of(-42L, 567834L), batch.getBeneficiariesAsList());
+    assertEquals(2, BeneficiaryIdEncoding.count(batch.getBeneficiaryIds()));
+
+    batch.setBeneficiaries(List.of());
+    assertEquals("", batch.getBeneficiaries());
+    assertEquals(0, batch.getBeneficiaryCount());
+  }
+
+  /** Verifies that batches written before the binary column was added are read from the text. */
+  @Test
+  public void readsTextOnlyBatches() {
+    final LoadedBatch batch = new LoadedBatch(1, 2, "3,1,2", null, Instant.EPOCH);
+
+    assertEquals(3, batch.getBeneficiaryCount());
+    assertEquals(List.of(3L, 1L, 2L), batch.getBeneficiariesAsList());
+  }
+
+  /** Verifies that combined batches hold the beneficiaries of both in both columns. */
+  @Test
+  public void combineWritesBothColumns() {
+    final LoadedBatch a = new LoadedBatch(1, 2, List.of(1L, 2L), Instant.EPOCH);
+    final LoadedBatch b = new LoadedBatch(3, 2, List.of(3L), Instant.EPOCH.plusSeconds(1));
+
+    final LoadedBatch sum = LoadedBatch.combine(a, b);
+
+    assertEquals("1,2,3", sum.getBeneficiaries());
+    assertEquals(List.of(1L, 2L, 3L), sum.getBeneficiariesAsList());
+    assertEquals(Instant.EPOCH.plusSeconds(1), sum.getCreated());
+  }
+}
@@ -7,6 +7,7 @@ import gov.cms.bfd.model.rif.RifFileType;
 import gov.cms.bfd.model.rif.RifRecordEvent;
 import gov.cms.bfd.pipeline.ccw.rif.CcwRifLoadOptions;
 import gov.cms.bfd.pipeline.ccw.rif.extract.ExtractionOptions;
+import gov.cms.bfd.pipeline.ccw.rif.extract.RifFileParser;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.DataSetManifest;
 import gov.cms.bfd.pipeline.ccw.rif.load.LoadAppOptions;
 import gov.cms.bfd.pipeline.rda.grpc.AbstractRdaLoadJob;
@@ -18,6 +19,7 @@ import gov.cms.bfd.pipeline.rda.grpc.source.RdaSourceConfig;
 import gov.cms.bfd.pipeline.rda.grpc.source.RdaVersion;
 import gov.cms.bfd.pipeline.rda.grpc.source.StandardGrpcRdaSource;
 import gov.cms.bfd.pipeline.sharedutils.IdHasher;
+import gov.cms.bfd.pipeline.sharedutils.ThroughputMetrics;
 import gov.cms.bfd.pipeline.sharedutils.s3.S3ClientConfig;
 import gov.cms.bfd.sharedutils.config.AppConfigurationException;
 import gov.cms.bfd.sharedutils.config.AwsClientConfig;
@@ -94,6 +96,30 @@ public final class AppConfiguration extends BaseAppConfiguration {
    */
   public static final String SSM_PATH_CCW_RIF_JOB_INTERVAL_SECONDS = "ccw/job/interval_seconds";
 
+  /**
+   * The path of the SSM parameter that should be used to provide the {@link
+   * #getCcwRifLoadOptions()} {@link ExtractionOptions#isStreamingDownloads()} value. Defaults to
+   * false to download data files in full before parsing them.
+   */
+  public static final String SSM_PATH_CCW_RIF_JOB_STREAMING_DOWNLOADS =
+      "ccw/job/streaming_downloads";
+
+  /**
+   * The path of the SSM parameter that should be used to provide the {@link
+   * #getCcwRifLoadOptions()} {@link ExtractionOptions#getMaxLinesPerClaim()} value. Defaults to
+   * zero for no limit.
+   */
+  public static final String SSM_PATH_CCW_RIF_JOB_MAX_LINES_PER_CLAIM =
+      "ccw/job/max_lines_per_claim";
+
+  /**
+   * The path of the SSM parameter that should be used to provide the {@link
+   * #getCcwRifLoadOptions()} {@link ExtractionOptions#getOversizedClaimPolicy()} value. Defaults to
+   * {@link RifFileParser.OversizedGroupPolicy#FAIL}.
+   */
+  public static final String SSM_PATH_CCW_RIF_JOB_OVERSIZED_CLAIM_POLICY =
+      "ccw/job/oversized_claim_policy";
+
   /**
    * The path of the SSM parameter that should be used to provide the {@link
    * #getCcwRifLoadOptions()} {@link LoadAppOptions.PerformanceSettings#getLoaderThreads()} value.
@@ -275,6 +301,13 @@ public final class AppConfiguration extends BaseAppConfiguration {
    */
   public static final String SSM_PATH_PROCESS_DLQ = "rda/job/process_dlq";
 
+  /**
+   * The path of the SSM parameter that should be used to provide the {@link #getRdaLoadOptions()}
+   * {@link RdaSourceConfig#getDlqRangeMaxGap()} value. When set the DLQ is reprocessed in bulk by
+   * streaming ranges of sequence numbers rather than one API call per entry.
+   */
+  public static final String SSM_PATH_RDA_JOB_DLQ_RANGE_MAX_GAP = "rda/job/dlq_range_max_gap";
+
   /**
    * The path of the SSM parameter that should be used to determine if the cleanup tasks that remove
    * old FISS and MCS claims should be run on subsequent job runs.
@@ -287,6 +320,16 @@ public final class AppConfiguration extends BaseAppConfiguration {
   /** The number of claims to remove as part of a single transaction during a cleanup task run. */
   public static final String SSM_PATH_CLEANUP_TRANSACTION_SIZE = "rda/cleanup/transaction_size";
 
+  /** The number of threads removing claims in parallel during a cleanup task run. */
+  public static final String SSM_PATH_CLEANUP_THREADS = "rda/cleanup/threads";
+
+  /**
+   * The maximum number of claims removed per second during a cleanup task run. Limits the load that
+   * the cleanup task places on the database. Zero or unset means no limit.
+   */
+  public static final String SSM_PATH_CLEANUP_MAX_CLAIMS_PER_SECOND =
+      "rda/cleanup/max_claims_per_second";
+
   /**
    * The path of the SSM parameter that can be set to override the RDA API Version that the running
    * job should be configured to ingest data for. The job will normally use the default value
@@ -373,7 +416,12 @@ public final class AppConfiguration extends BaseAppConfiguration {
    * auto-generated aggregate metric names with suffixes like {@code .avg}.
    */
   public static final Set<String> MICROMETER_CW_ALLOWED_METRIC_NAMES =
-      Set.of("FissClaimRdaSink.change.latency.millis", "McsClaimRdaSink.change.latency.millis");
+      Set.of(
+          "FissClaimRdaSink.change.latency.millis",
+          "McsClaimRdaSink.change.latency.millis",
+          ThroughputMetrics.RECORDS_METRIC_NAME,
+          ThroughputMetrics.QUEUE_DEPTH_METRIC_NAME,
+          ThroughputMetrics.CONNECTION_WAIT_METRIC_NAME);
 
   /**
    * The CCW rif load options. This can be null if the CCW job is not configured, Optional is not
@@ -645,8 +693,25 @@ public final class AppConfiguration extends BaseAppConfiguration {
     if (s3ClientConfig.getAwsClientConfig().isCredentialCheckUseful()) {
       LayeredConfiguration.ensureAwsCredentialsConfiguredCorrectly();
     }
+    final boolean streamingDownloads =
+        config.booleanOption(SSM_PATH_CCW_RIF_JOB_STREAMING_DOWNLOADS).orElse(false);
+    final int maxLinesPerClaim =
+        config.positiveIntOptionZeroOK(SSM_PATH_CCW_RIF_JOB_MAX_LINES_PER_CLAIM).orElse(0);
+    final RifFileParser.OversizedGroupPolicy oversizedClaimPolicy =
+        config
+            .enumOption(
+                SSM_PATH_CCW_RIF_JOB_OVERSIZED_CLAIM_POLICY,
+                RifFileParser.OversizedGroupPolicy.class)
+            .orElse(RifFileParser.OversizedGroupPolicy.FAIL);
     final ExtractionOptions extractionOptions =
-        new ExtractionOptions(s3BucketName, allowedRifFileType, Optional.empty(), s3ClientConfig);
+        new ExtractionOptions(
+            s3BucketName,
+            allowedRifFileType,
+            Optional.empty(),
+            s3ClientConfig,
+            streamingDownloads,
+            maxLinesPerClaim,
+            oversizedClaimPolicy);
     final Optional<Duration> runInterval =
         config
             .positiveIntOptionZeroOK(SSM_PATH_CCW_RIF_JOB_INTERVAL_SECONDS)
@@ -683,6 +748,10 @@ public final class AppConfiguration extends BaseAppConfiguration {
     config
         .intOption(SSM_PATH_CLEANUP_TRANSACTION_SIZE)
         .ifPresent(jobConfig::cleanupTransactionSize);
+    config.intOption(SSM_PATH_CLEANUP_THREADS).ifPresent(jobConfig::cleanupThreads);
+    config
+        .intOption(SSM_PATH_CLEANUP_MAX_CLAIMS_PER_SECOND)
+        .ifPresent(jobConfig::cleanupMaxClaimsPerSecond);
     // Default to the hardcoded RDA version in RdaService, restricted to major version
     jobConfig.rdaVersion(
         RdaVersion.builder()
@@ -716,6 +785,7 @@ public final class AppConfiguration extends BaseAppConfiguration {
         .authenticationToken(config.stringOptionEmptyOK(SSM_PATH_RDA_GRPC_AUTH_TOKEN).orElse(null))
         .messageErrorExpirationDays(
             config.intOption(SSM_PATH_RDA_JOB_ERROR_EXPIRE_DAYS).orElse(null))
+        .dlqRangeMaxGap(config.intOption(SSM_PATH_RDA_JOB_DLQ_RANGE_MAX_GAP).orElse(null))
         .build();
   }
 
@@ -190,7 +190,7 @@ public final class PipelineApplication {
     // Create a pooled data source for use by any registered jobs.
     final DataSourceFactory dataSourceFactory = appConfig.createDataSourceFactory();
     try (HikariDataSource pooledDataSource =
-        PipelineApplicationState.createPooledDataSource(dataSourceFactory, appMetrics)) {
+        PipelineApplicationState.createPooledDataSource(dataSourceFactory, appMetrics, appMeters)) {
       logDatabaseDetails(pooledDataSource);
       createJobsAndRunPipeline(appConfig, appMeters, appMetrics, pooledDataSource);
     }
@@ -529,7 +529,10 @@ public final class PipelineApplication {
         new S3TaskManager(
             loadOptions.getExtractionOptions(),
             new AwsS3ClientFactory(loadOptions.getExtractionOptions().getS3ClientConfig()));
-    RifFilesProcessor rifProcessor = new RifFilesProcessor();
+    RifFilesProcessor rifProcessor =
+        new RifFilesProcessor(
+            loadOptions.getExtractionOptions().getMaxLinesPerClaim(),
+            loadOptions.getExtractionOptions().getOversizedClaimPolicy());
     RifLoader rifLoader = new RifLoader(loadOptions.getLoadOptions(), appState);
 
     /*
@@ -1,7 +1,9 @@
 package gov.cms.bfd.pipeline.app;
 
 import static gov.cms.bfd.pipeline.app.AppConfiguration.SSM_PATH_CLEANUP_ENABLED;
+import static gov.cms.bfd.pipeline.app.AppConfiguration.SSM_PATH_CLEANUP_MAX_CLAIMS_PER_SECOND;
 import static gov.cms.bfd.pipeline.app.AppConfiguration.SSM_PATH_CLEANUP_RUN_SIZE;
+import static gov.cms.bfd.pipeline.app.AppConfiguration.SSM_PATH_CLEANUP_THREADS;
 import static gov.cms.bfd.pipeline.app.AppConfiguration.SSM_PATH_CLEANUP_TRANSACTION_SIZE;
 import static gov.cms.bfd.pipeline.app.AppConfiguration.SSM_PATH_RDA_GRPC_AUTH_TOKEN;
 import static gov.cms.bfd.pipeline.app.AppConfiguration.SSM_PATH_RDA_GRPC_HOST;
@@ -40,6 +42,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import gov.cms.bfd.model.rif.RifFileType;
+import gov.cms.bfd.pipeline.ccw.rif.extract.RifFileParser;
 import gov.cms.bfd.pipeline.ccw.rif.load.CcwRifLoadTestUtils;
 import gov.cms.bfd.pipeline.ccw.rif.load.LoadAppOptions;
 import gov.cms.bfd.pipeline.rda.grpc.AbstractRdaLoadJob;
@@ -92,6 +95,8 @@ public class AppConfigurationTest {
     envVars.put(AppConfiguration.SSM_PATH_DATABASE_PASSWORD, "some_password");
     envVars.put(AppConfiguration.SSM_PATH_LOADER_THREADS, "42");
     envVars.put(AppConfiguration.SSM_PATH_IDEMPOTENCY_REQUIRED, "true");
+    envVars.put(AppConfiguration.SSM_PATH_CCW_RIF_JOB_MAX_LINES_PER_CLAIM, "5000");
+    envVars.put(AppConfiguration.SSM_PATH_CCW_RIF_JOB_OVERSIZED_CLAIM_POLICY, "WARN");
     envVars.put(AppConfiguration.ENV_VAR_AWS_ENDPOINT, "http://localhost:999999");
     envVars.put(AppConfiguration.ENV_VAR_AWS_ACCESS_KEY, "unreal-access-key");
     envVars.put(AppConfiguration.ENV_VAR_AWS_SECRET_KEY, "unreal-secret-key");
@@ -111,6 +116,16 @@ public class AppConfigurationTest {
             .getAllowedRifFileType()
             .get()
             .name());
+    assertEquals(
+        5000,
+        testAppConfig.getCcwRifLoadOptions().get().getExtractionOptions().getMaxLinesPerClaim());
+    assertEquals(
+        RifFileParser.OversizedGroupPolicy.WARN,
+        testAppConfig
+            .getCcwRifLoadOptions()
+            .get()
+            .getExtractionOptions()
+            .getOversizedClaimPolicy());
     assertEquals(
         Integer.parseInt(envVars.get(AppConfiguration.SSM_PATH_HICN_HASH_ITERATIONS)),
         testAppConfig
@@ -378,15 +393,21 @@ public class AppConfigurationTest {
     assertFalse(jobConfig.shouldRunCleanup());
     assertEquals(0, jobConfig.getCleanupRunSize());
     assertEquals(0, jobConfig.getCleanupTransactionSize());
+    assertEquals(1, jobConfig.getCleanupThreads());
+    assertEquals(0, jobConfig.getCleanupMaxClaimsPerSecond());
 
     // verify claims cleanup settings when values are present
     settingsMap.put(SSM_PATH_CLEANUP_ENABLED, "true");
     settingsMap.put(SSM_PATH_CLEANUP_RUN_SIZE, "100000");
     settingsMap.put(SSM_PATH_CLEANUP_TRANSACTION_SIZE, "5000");
+    settingsMap.put(SSM_PATH_CLEANUP_THREADS, "4");
+    settingsMap.put(SSM_PATH_CLEANUP_MAX_CLAIMS_PER_SECOND, "2500");
     jobConfig = AppConfiguration.loadRdaLoadJobConfigOptions(configLoader);
     assertTrue(jobConfig.shouldRunCleanup());
     assertEquals(100000, jobConfig.getCleanupRunSize());
     assertEquals(5000, jobConfig.getCleanupTransactionSize());
+    assertEquals(4, jobConfig.getCleanupThreads());
+    assertEquals(2500, jobConfig.getCleanupMaxClaimsPerSecond());
   }
 
   /**
@@ -10,6 +10,7 @@ import gov.cms.bfd.pipeline.ccw.rif.extract.s3.DataSetManifest.DataSetManifestEn
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.DataSetManifest.DataSetManifestId;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.DataSetMonitorListener;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.DataSetQueue;
+import gov.cms.bfd.pipeline.ccw.rif.extract.s3.DownloadScheduler;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.S3RifFile;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.task.S3TaskManager;
 import gov.cms.bfd.pipeline.sharedutils.MultiCloser;
@@ -24,10 +25,9 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
@@ -77,11 +77,17 @@ public final class CcwRifLoadJob implements PipelineJob {
    */
   public static final Duration MAX_MANIFEST_AGE = Duration.ofDays(60);
 
+  /** Maximum number of data files downloaded at the same time. */
+  public static final int MAX_CONCURRENT_DOWNLOADS = 4;
+
   /**
-   * Minimum amount of free disk space (in bytes) to allow pre-fetch of second data set while
-   * current one is being processed.
+   * Amount of free disk space (in bytes) that downloads leave untouched. Downloads that would use
+   * this space wait until loaded files have been deleted.
    */
-  public static final long MIN_BYTES_FOR_SECOND_DATA_SET_DOWNLOAD = 50 * FileUtils.ONE_GB;
+  public static final long RESERVED_DISK_BYTES_FOR_DOWNLOADS = 5 * FileUtils.ONE_GB;
+
+  /** How often downloads that are waiting for disk space check for it again. */
+  public static final Duration DOWNLOAD_RETRY_INTERVAL = Duration.ofSeconds(10);
 
   /** The directory name that pending/incoming RIF data sets will be pulled from in S3. */
   public static final String S3_PREFIX_PENDING_DATA_SETS = "Incoming";
@@ -178,8 +184,8 @@ public final class CcwRifLoadJob implements PipelineJob {
   /** The queue of S3 data to be processed. */
   private final DataSetQueue dataSetQueue;
 
-  /** Maintains the background thread used to download files asynchronously. */
-  private final ExecutorService downloadService;
+  /** Downloads files asynchronously in the order they will be loaded. */
+  private final DownloadScheduler downloadScheduler;
 
   /**
    * Constructs a new instance. The {@link S3TaskManager} will be automatically shut down when this
@@ -209,7 +215,13 @@ public final class CcwRifLoadJob implements PipelineJob {
     this.isIdempotentMode = isIdempotentMode;
     this.runInterval = runInterval;
     this.statusReporter = statusReporter;
-    downloadService = Executors.newSingleThreadScheduledExecutor();
+    downloadScheduler =
+        new DownloadScheduler(
+            dataSetQueue,
+            options.isStreamingDownloads(),
+            MAX_CONCURRENT_DOWNLOADS,
+            RESERVED_DISK_BYTES_FOR_DOWNLOADS,
+            DOWNLOAD_RETRY_INTERVAL);
   }
 
   @Override
@@ -310,11 +322,14 @@ public final class CcwRifLoadJob implements PipelineJob {
      * incoming bucket folder.
      */
     if (preValidationOK) {
+      final Map<String, Long> dataFileSizes =
+          dataSetQueue.readRequiredDataFileSizes(manifestRecord);
       List<S3RifFile> rifFiles =
           manifestToProcess.getEntries().stream()
               .flatMap(
                   manifestEntry ->
-                      convertManifestEntryToS3RifFile(manifestRecord, manifestEntry).stream())
+                      convertManifestEntryToS3RifFile(manifestRecord, manifestEntry, dataFileSizes)
+                          .stream())
               .toList();
 
       RifFilesEvent rifFilesEvent =
@@ -324,21 +339,21 @@ public final class CcwRifLoadJob implements PipelineJob {
               new ArrayList<>(rifFiles));
 
       /*
-       * To save time for the next data set, peek ahead at it. If it's available and
-       * it looks like there's enough disk space, start downloading it early in the
-       * background.
+       * To save time for the next data set, peek ahead at it. Its files are downloaded
+       * in the background once the current data set's files have started and there is
+       * disk space for them.
        */
       if (eligibleManifests.size() > 1) {
-        DataSetQueue.Manifest secondManifestToProcess = eligibleManifests.get(1);
-        final long usableFreeTempSpace = dataSetQueue.getAvailableDiskSpaceInBytes();
-        if (usableFreeTempSpace >= MIN_BYTES_FOR_SECOND_DATA_SET_DOWNLOAD) {
-          secondManifestToProcess.manifestRecord().getDataFiles().stream()
-              .filter(this::isProcessingRequired)
-              .forEach(
-                  s3DataFile -> {
-                    downloadService.submit(() -> dataSetQueue.downloadManifestEntry(s3DataFile));
-                  });
-        }
+        final S3ManifestFile secondManifestRecord = eligibleManifests.get(1).manifestRecord();
+        final Map<String, Long> secondDataFileSizes =
+            dataSetQueue.readDataFileSizes(secondManifestRecord);
+        secondManifestRecord.getDataFiles().stream()
+            .filter(this::isProcessingRequired)
+            .filter(s3DataFile -> secondDataFileSizes.containsKey(s3DataFile.getS3Key()))
+            .forEach(
+                s3DataFile ->
+                    downloadScheduler.prefetch(
+                        s3DataFile, secondDataFileSizes.get(s3DataFile.getS3Key())));
       }
 
       /*
@@ -390,19 +405,16 @@ public final class CcwRifLoadJob implements PipelineJob {
   }
 
   /**
-   * Shuts down our {@link S3TaskManager} and clears our S3 files cache. If any download or move
-   * tasks are still running this method will wait for them to complete before returning.
+   * Shuts down our {@link S3TaskManager} and clears our S3 files cache. Downloads that have not
+   * started are cancelled. If any download or move tasks are still running this method will wait
+   * for them to complete before returning.
    *
    * <p>{@inheritDoc}
    */
   @Override
   public void close() throws Exception {
     final var closer = new MultiCloser();
-    closer.close(
-        () -> {
-          downloadService.shutdown();
-          downloadService.awaitTermination(1, TimeUnit.HOURS);
-        });
+    closer.close(downloadScheduler::close);
     closer.close(dataSetQueue::close);
     closer.finish();
   }
@@ -491,21 +503,25 @@ public final class CcwRifLoadJob implements PipelineJob {
 
   /**
    * Adds a task to the download queue to download the data file from S3 and returns a {@link
-   * S3RifFile} containing a {@link Future} to access the result.
+   * S3RifFile} containing a {@link Future} to access the result. When streaming downloads are
+   * enabled the task completes as soon as the download has started.
    *
    * @param manifestRecord database record for the manifest
    * @param manifestEntry manifest entry for the data file
+   * @param dataFileSizes size in bytes of every data file, keyed by S3 key
    * @return empty if file does not require processing, the {@link S3RifFile} if it does
    */
   private Optional<S3RifFile> convertManifestEntryToS3RifFile(
-      S3ManifestFile manifestRecord, DataSetManifestEntry manifestEntry) {
+      S3ManifestFile manifestRecord,
+      DataSetManifestEntry manifestEntry,
+      Map<String, Long> dataFileSizes) {
     final var dataFileRecord = selectS3DataRecordForEntry(manifestRecord, manifestEntry);
     if (!isProcessingRequired(dataFileRecord)) {
       return Optional.empty();
     }
 
     final Future<DataSetQueue.ManifestEntry> downloadResult =
-        downloadService.submit(() -> dataSetQueue.downloadManifestEntry(dataFileRecord));
+        downloadScheduler.download(dataFileRecord, dataFileSizes.get(dataFileRecord.getS3Key()));
     return Optional.of(new S3RifFile(appMetrics, manifestEntry, downloadResult));
   }
 
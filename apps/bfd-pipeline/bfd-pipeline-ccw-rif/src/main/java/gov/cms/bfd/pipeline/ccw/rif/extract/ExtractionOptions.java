@@ -23,6 +23,21 @@ public final class ExtractionOptions {
   /** Common config settings used to configure S3 clients. */
   @Getter private final S3ClientConfig s3ClientConfig;
 
+  /**
+   * When true, data files are parsed while they are being downloaded instead of after the download
+   * has completed. Their checksums are confirmed before they are marked as completed.
+   */
+  @Getter private final boolean streamingDownloads;
+
+  /**
+   * Maximum number of lines allowed in a single claim. Zero means no limit. Guards the heap against
+   * pathological claims since all lines of a claim are held in memory until it is written.
+   */
+  @Getter private final int maxLinesPerClaim;
+
+  /** What to do when a claim has more than {@link #maxLinesPerClaim} lines. */
+  @Getter private final RifFileParser.OversizedGroupPolicy oversizedClaimPolicy;
+
   /**
    * Initializes an instance.
    *
@@ -30,16 +45,49 @@ public final class ExtractionOptions {
    * @param allowedRifFileType the value to use for {@link #getDataSetFilter()}
    * @param s3ListMaxKeys the value to use for {@link #getS3ListMaxKeys()}
    * @param s3ClientConfig used to configure S3 clients
+   * @param streamingDownloads the value to use for {@link #streamingDownloads}
+   * @param maxLinesPerClaim the value to use for {@link #maxLinesPerClaim}
+   * @param oversizedClaimPolicy the value to use for {@link #oversizedClaimPolicy}
    */
   public ExtractionOptions(
       String s3BucketName,
       Optional<RifFileType> allowedRifFileType,
       Optional<Integer> s3ListMaxKeys,
-      S3ClientConfig s3ClientConfig) {
+      S3ClientConfig s3ClientConfig,
+      boolean streamingDownloads,
+      int maxLinesPerClaim,
+      RifFileParser.OversizedGroupPolicy oversizedClaimPolicy) {
     this.s3BucketName = s3BucketName;
     this.allowedRifFileType = allowedRifFileType.orElse(null);
     this.s3ListMaxKeys = s3ListMaxKeys.orElse(null);
     this.s3ClientConfig = s3ClientConfig;
+    this.streamingDownloads = streamingDownloads;
+    this.maxLinesPerClaim = maxLinesPerClaim;
+    this.oversizedClaimPolicy = oversizedClaimPolicy;
+  }
+
+  /**
+   * Initializes an instance that downloads data files in full before parsing them and places no
+   * limit on the number of lines in a claim.
+   *
+   * @param s3BucketName the value to use for {@link #s3BucketName}
+   * @param allowedRifFileType the value to use for {@link #getDataSetFilter()}
+   * @param s3ListMaxKeys the value to use for {@link #getS3ListMaxKeys()}
+   * @param s3ClientConfig used to configure S3 clients
+   */
+  public ExtractionOptions(
+      String s3BucketName,
+      Optional<RifFileType> allowedRifFileType,
+      Optional<Integer> s3ListMaxKeys,
+      S3ClientConfig s3ClientConfig) {
+    this(
+        s3BucketName,
+        allowedRifFileType,
+        s3ListMaxKeys,
+        s3ClientConfig,
+        false,
+        0,
+        RifFileParser.OversizedGroupPolicy.FAIL);
   }
 
   /**
@@ -95,6 +143,12 @@ public final class ExtractionOptions {
     builder.append(s3BucketName);
     builder.append(", allowedRifFileType=");
     builder.append(allowedRifFileType);
+    builder.append(", streamingDownloads=");
+    builder.append(streamingDownloads);
+    builder.append(", maxLinesPerClaim=");
+    builder.append(maxLinesPerClaim);
+    builder.append(", oversizedClaimPolicy=");
+    builder.append(oversizedClaimPolicy);
     builder.append("]");
     return builder.toString();
   }
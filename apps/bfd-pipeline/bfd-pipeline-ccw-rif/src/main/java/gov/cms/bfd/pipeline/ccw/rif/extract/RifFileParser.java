@@ -1,14 +1,17 @@
 package gov.cms.bfd.pipeline.ccw.rif.extract;
 
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
 import gov.cms.bfd.model.rif.RifFile;
 import gov.cms.bfd.model.rif.RifRecordEvent;
+import gov.cms.bfd.model.rif.parse.InvalidRifValueException;
 import gov.cms.bfd.model.rif.parse.RifParsingUtils;
 import gov.cms.bfd.pipeline.sharedutils.FluxUtils;
 import gov.cms.bfd.sharedutils.interfaces.ThrowingFunction;
-import java.util.List;
+import java.util.function.Supplier;
 import javax.annotation.concurrent.ThreadSafe;
 import lombok.AllArgsConstructor;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVRecord;
 import reactor.core.publisher.Flux;
 import reactor.util.function.Tuple2;
@@ -56,17 +59,66 @@ public abstract class RifFileParser {
     }
   }
 
+  /**
+   * Builds a single {@link RifRecordEvent} from a group of consecutive records. Records are passed
+   * to the builder one at a time as they are read so that implementations can convert each one
+   * immediately rather than holding every {@link CSVRecord} of a large group in memory.
+   */
+  public interface GroupBuilder {
+    /**
+     * Adds the next record of the group. The first call receives the first record of the group.
+     *
+     * @param csvRecord the record
+     * @throws Exception if the record could not be parsed
+     */
+    void addRecord(CSVRecord csvRecord) throws Exception;
+
+    /**
+     * Creates the {@link RifRecordEvent} once every record of the group has been added.
+     *
+     * @return the event
+     * @throws Exception if the group could not be parsed
+     */
+    RifRecordEvent<?> build() throws Exception;
+  }
+
+  /** What {@link Grouping} does when a group has more records than its limit. */
+  public enum OversizedGroupPolicy {
+    /** Fail the file with an {@link InvalidRifValueException}. */
+    FAIL,
+    /** Log a warning and keep adding records to the group. */
+    WARN
+  }
+
   /**
    * Implementation that parses groups of consecutive records that have the same value in a given
-   * column into a {@link RifRecordEvent} using a lambda function.
+   * column into a {@link RifRecordEvent} using a {@link GroupBuilder}. Records are streamed into
+   * the builder as they are read so only the current group's parsed objects are held in memory.
    */
-  @RequiredArgsConstructor
+  @Slf4j
+  @AllArgsConstructor
   public static class Grouping extends RifFileParser {
     /** The name of the column to group by. */
     private final String groupingColumn;
 
-    /** Lambda used to parse one or more {@link CSVRecord}s into a {@link RifRecordEvent}. */
-    private final ThrowingFunction<RifRecordEvent<?>, List<CSVRecord>, Exception> parser;
+    /** Creates a new {@link GroupBuilder} for each group. */
+    private final Supplier<GroupBuilder> groupBuilderFactory;
+
+    /** Maximum number of records allowed in a group. Zero or less means no limit. */
+    private final int maxRecordsPerGroup;
+
+    /** What to do when a group has more than {@link #maxRecordsPerGroup} records. */
+    private final OversizedGroupPolicy oversizedGroupPolicy;
+
+    /**
+     * Initializes an instance that places no limit on the number of records in a group.
+     *
+     * @param groupingColumn the name of the column to group by
+     * @param groupBuilderFactory creates a new {@link GroupBuilder} for each group
+     */
+    public Grouping(String groupingColumn, Supplier<GroupBuilder> groupBuilderFactory) {
+      this(groupingColumn, groupBuilderFactory, 0, OversizedGroupPolicy.FAIL);
+    }
 
     @Override
     public Flux<RifRecordEvent<?>> parseRifFile(RifFile rifFile) {
@@ -75,11 +127,20 @@ public abstract class RifFileParser {
           () -> RifParsingUtils.createCsvParser(rifFile),
           // creates flux for subscriber to receive parsed events
           csvParser ->
-              Flux.fromIterable(csvParser)
-                  // joins consecutive records with same grouping column value
-                  .bufferUntilChanged(csvRecord -> csvRecord.get(groupingColumn))
-                  // parses the list of records
-                  .flatMap(this::parse)
+              Flux.<RifRecordEvent<?>, PeekingIterator<CSVRecord>>generate(
+                      () -> Iterators.peekingIterator(csvParser.iterator()),
+                      (csvRecords, sink) -> {
+                        if (!csvRecords.hasNext()) {
+                          sink.complete();
+                        } else {
+                          try {
+                            sink.next(parseGroup(csvRecords));
+                          } catch (Exception ex) {
+                            sink.error(ex);
+                          }
+                        }
+                        return csvRecords;
+                      })
                   // The index operator wraps each record in a tuple containing the index and the
                   // record.  Then we map with addRecordNumber to set the record number in the
                   // record and return the record itself.
@@ -90,17 +151,47 @@ public abstract class RifFileParser {
     }
 
     /**
-     * Calls the lambda to produce a new {@link RifRecordEvent} from a list of {@link CSVRecord}s.
+     * Passes the next group of consecutive records that have the same value in {@link
+     * #groupingColumn} to a new {@link GroupBuilder} and returns the resulting event. Each record
+     * is released as soon as the builder has processed it.
+     *
+     * @param csvRecords source of records, must have at least one remaining record
+     * @return the event built from the group
+     * @throws Exception if the builder fails or the group is too large
+     */
+    private RifRecordEvent<?> parseGroup(PeekingIterator<CSVRecord> csvRecords) throws Exception {
+      final CSVRecord firstRecord = csvRecords.next();
+      final String groupId = firstRecord.get(groupingColumn);
+      final GroupBuilder groupBuilder = groupBuilderFactory.get();
+      groupBuilder.addRecord(firstRecord);
+      int recordCount = 1;
+      while (csvRecords.hasNext() && groupId.equals(csvRecords.peek().get(groupingColumn))) {
+        recordCount += 1;
+        if (maxRecordsPerGroup > 0 && recordCount == maxRecordsPerGroup + 1) {
+          handleOversizedGroup(groupId, firstRecord.getRecordNumber());
+        }
+        groupBuilder.addRecord(csvRecords.next());
+      }
+      return groupBuilder.build();
+    }
+
+    /**
+     * Applies the {@link #oversizedGroupPolicy} to a group that has just exceeded {@link
+     * #maxRecordsPerGroup}.
      *
-     * @param records group of records to parse (may be empty)
-     * @return flux containing the resulting object or an empty flux if the list was empty
+     * @param groupId value of the grouping column for the group
+     * @param lineNumber line number of the first record in the group
+     * @throws InvalidRifValueException if the policy is {@link OversizedGroupPolicy#FAIL}
      */
-    private Flux<RifRecordEvent<?>> parse(List<CSVRecord> records) {
-      try {
-        return records.isEmpty() ? Flux.empty() : Flux.just(parser.apply(records));
-      } catch (Exception ex) {
-        return Flux.error(ex);
+    private void handleOversizedGroup(String groupId, long lineNumber) {
+      final String message =
+          String.format(
+              "group %s=%s starting at lineNumber %d has more than %d records",
+              groupingColumn, groupId, lineNumber, maxRecordsPerGroup);
+      if (oversizedGroupPolicy == OversizedGroupPolicy.FAIL) {
+        throw new InvalidRifValueException(message);
       }
+      log.warn("Oversized {}", message);
     }
   }
 
@@ -4,6 +4,7 @@ import gov.cms.bfd.model.rif.RecordAction;
 import gov.cms.bfd.model.rif.RifFile;
 import gov.cms.bfd.model.rif.RifFileEvent;
 import gov.cms.bfd.model.rif.RifFileType;
+import gov.cms.bfd.model.rif.RifRecordBase;
 import gov.cms.bfd.model.rif.RifRecordEvent;
 import gov.cms.bfd.model.rif.entities.Beneficiary;
 import gov.cms.bfd.model.rif.entities.BeneficiaryHistory;
@@ -26,12 +27,16 @@ import gov.cms.bfd.model.rif.entities.PartDEventParser;
 import gov.cms.bfd.model.rif.entities.SNFClaim;
 import gov.cms.bfd.model.rif.entities.SNFClaimParser;
 import gov.cms.bfd.model.rif.parse.InvalidRifValueException;
+import gov.cms.model.dsl.codegen.library.DataTransformer;
 import gov.cms.model.dsl.codegen.library.DataTransformer.TransformationException;
 import gov.cms.model.dsl.codegen.library.RifObjectWrapper;
 import jakarta.annotation.Nonnull;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVRecord;
 import reactor.core.publisher.Flux;
@@ -42,6 +47,32 @@ public class RifFilesProcessor {
   /** Column ID for the column that contains the action value in each CSV record. */
   private static final String RECORD_ACTION_COLUMN = "DML_IND";
 
+  /**
+   * Maximum number of lines allowed in a single claim. Zero or less means no limit. See {@link
+   * RifFileParser.Grouping}.
+   */
+  private final int maxLinesPerClaim;
+
+  /** What to do when a claim has more than {@link #maxLinesPerClaim} lines. */
+  private final RifFileParser.OversizedGroupPolicy oversizedClaimPolicy;
+
+  /**
+   * Initializes an instance.
+   *
+   * @param maxLinesPerClaim the value to use for {@link #maxLinesPerClaim}
+   * @param oversizedClaimPolicy the value to use for {@link #oversizedClaimPolicy}
+   */
+  public RifFilesProcessor(
+      int maxLinesPerClaim, RifFileParser.OversizedGroupPolicy oversizedClaimPolicy) {
+    this.maxLinesPerClaim = maxLinesPerClaim;
+    this.oversizedClaimPolicy = oversizedClaimPolicy;
+  }
+
+  /** Initializes an instance that places no limit on the number of lines in a claim. */
+  public RifFilesProcessor() {
+    this(0, RifFileParser.OversizedGroupPolicy.FAIL);
+  }
+
   /**
    * Produces a {@link RifFileRecords} with the {@link RifRecordEvent}s produced from the specified
    * {@link RifFileEvent}.
@@ -144,17 +175,18 @@ public class RifFilesProcessor {
    * @param fileEvent the {@link RifFileEvent} being processed
    * @return the parser
    */
-  private static RifFileParser inpatientClaimParser(RifFileEvent fileEvent) {
+  private RifFileParser inpatientClaimParser(RifFileEvent fileEvent) {
     final var parser = new InpatientClaimParser();
-    return new RifFileParser.Grouping(
-        RifFileType.INPATIENT.getIdColumn().name(),
-        csvRecords -> {
-          trace(csvRecords);
-          final RecordAction recordAction = parseRecordAction(csvRecords);
-          final InpatientClaim claim = parse(csvRecords, parser::transformMessage);
-          return new RifRecordEvent<>(
-              fileEvent, csvRecords, recordAction, claim.getBeneficiaryId(), claim);
-        });
+    return claimParser(
+        fileEvent,
+        RifFileType.INPATIENT,
+        parser::transformMessageToInpatientClaim,
+        parser::transformMessageToInpatientClaimLine,
+        (claim, line) -> {
+          line.setParentClaim(claim);
+          claim.getLines().add(line);
+        },
+        InpatientClaim::getBeneficiaryId);
   }
 
   /**
@@ -163,17 +195,18 @@ public class RifFilesProcessor {
    * @param fileEvent the {@link RifFileEvent} being processed
    * @return the parser
    */
-  private static RifFileParser outpatientClaimParser(RifFileEvent fileEvent) {
+  private RifFileParser outpatientClaimParser(RifFileEvent fileEvent) {
     final var parser = new OutpatientClaimParser();
-    return new RifFileParser.Grouping(
-        RifFileType.OUTPATIENT.getIdColumn().name(),
-        csvRecords -> {
-          trace(csvRecords);
-          final RecordAction recordAction = parseRecordAction(csvRecords);
-          final OutpatientClaim claim = parse(csvRecords, parser::transformMessage);
-          return new RifRecordEvent<>(
-              fileEvent, csvRecords, recordAction, claim.getBeneficiaryId(), claim);
-        });
+    return claimParser(
+        fileEvent,
+        RifFileType.OUTPATIENT,
+        parser::transformMessageToOutpatientClaim,
+        parser::transformMessageToOutpatientClaimLine,
+        (claim, line) -> {
+          line.setParentClaim(claim);
+          claim.getLines().add(line);
+        },
+        OutpatientClaim::getBeneficiaryId);
   }
 
   /**
@@ -182,17 +215,18 @@ public class RifFilesProcessor {
    * @param fileEvent the {@link RifFileEvent} being processed
    * @return the parser
    */
-  private static RifFileParser carrierClaimParser(RifFileEvent fileEvent) {
+  private RifFileParser carrierClaimParser(RifFileEvent fileEvent) {
     final var parser = new CarrierClaimParser();
-    return new RifFileParser.Grouping(
-        RifFileType.CARRIER.getIdColumn().name(),
-        csvRecords -> {
-          trace(csvRecords);
-          final RecordAction recordAction = parseRecordAction(csvRecords);
-          final CarrierClaim claim = parse(csvRecords, parser::transformMessage);
-          return new RifRecordEvent<>(
-              fileEvent, csvRecords, recordAction, claim.getBeneficiaryId(), claim);
-        });
+    return claimParser(
+        fileEvent,
+        RifFileType.CARRIER,
+        parser::transformMessageToCarrierClaim,
+        parser::transformMessageToCarrierClaimLine,
+        (claim, line) -> {
+          line.setParentClaim(claim);
+          claim.getLines().add(line);
+        },
+        CarrierClaim::getBeneficiaryId);
   }
 
   /**
@@ -201,17 +235,18 @@ public class RifFilesProcessor {
    * @param fileEvent the {@link RifFileEvent} being processed
    * @return the parser
    */
-  private static RifFileParser snfClaimParser(RifFileEvent fileEvent) {
+  private RifFileParser snfClaimParser(RifFileEvent fileEvent) {
     final var parser = new SNFClaimParser();
-    return new RifFileParser.Grouping(
-        RifFileType.SNF.getIdColumn().name(),
-        csvRecords -> {
-          trace(csvRecords);
-          final RecordAction recordAction = parseRecordAction(csvRecords);
-          final SNFClaim claim = parse(csvRecords, parser::transformMessage);
-          return new RifRecordEvent<>(
-              fileEvent, csvRecords, recordAction, claim.getBeneficiaryId(), claim);
-        });
+    return claimParser(
+        fileEvent,
+        RifFileType.SNF,
+        parser::transformMessageToSNFClaim,
+        parser::transformMessageToSNFClaimLine,
+        (claim, line) -> {
+          line.setParentClaim(claim);
+          claim.getLines().add(line);
+        },
+        SNFClaim::getBeneficiaryId);
   }
 
   /**
@@ -220,17 +255,18 @@ public class RifFilesProcessor {
    * @param fileEvent the {@link RifFileEvent} being processed
    * @return the parser
    */
-  private static RifFileParser hospiceClaimParser(RifFileEvent fileEvent) {
+  private RifFileParser hospiceClaimParser(RifFileEvent fileEvent) {
     final var parser = new HospiceClaimParser();
-    return new RifFileParser.Grouping(
-        RifFileType.HOSPICE.getIdColumn().name(),
-        csvRecords -> {
-          trace(csvRecords);
-          final RecordAction recordAction = parseRecordAction(csvRecords);
-          final HospiceClaim claim = parse(csvRecords, parser::transformMessage);
-          return new RifRecordEvent<>(
-              fileEvent, csvRecords, recordAction, claim.getBeneficiaryId(), claim);
-        });
+    return claimParser(
+        fileEvent,
+        RifFileType.HOSPICE,
+        parser::transformMessageToHospiceClaim,
+        parser::transformMessageToHospiceClaimLine,
+        (claim, line) -> {
+          line.setParentClaim(claim);
+          claim.getLines().add(line);
+        },
+        HospiceClaim::getBeneficiaryId);
   }
 
   /**
@@ -239,17 +275,18 @@ public class RifFilesProcessor {
    * @param fileEvent the {@link RifFileEvent} being processed
    * @return the parser
    */
-  private static RifFileParser hhaClaimParser(RifFileEvent fileEvent) {
+  private RifFileParser hhaClaimParser(RifFileEvent fileEvent) {
     final var parser = new HHAClaimParser();
-    return new RifFileParser.Grouping(
-        RifFileType.HHA.getIdColumn().name(),
-        csvRecords -> {
-          trace(csvRecords);
-          final RecordAction recordAction = parseRecordAction(csvRecords);
-          final HHAClaim claim = parse(csvRecords, parser::transformMessage);
-          return new RifRecordEvent<>(
-              fileEvent, csvRecords, recordAction, claim.getBeneficiaryId(), claim);
-        });
+    return claimParser(
+        fileEvent,
+        RifFileType.HHA,
+        parser::transformMessageToHHAClaim,
+        parser::transformMessageToHHAClaimLine,
+        (claim, line) -> {
+          line.setParentClaim(claim);
+          claim.getLines().add(line);
+        },
+        HHAClaim::getBeneficiaryId);
   }
 
   /**
@@ -258,17 +295,48 @@ public class RifFilesProcessor {
    * @param fileEvent the {@link RifFileEvent} being processed
    * @return the parser
    */
-  private static RifFileParser dmeClaimParser(RifFileEvent fileEvent) {
+  private RifFileParser dmeClaimParser(RifFileEvent fileEvent) {
     final var parser = new DMEClaimParser();
+    return claimParser(
+        fileEvent,
+        RifFileType.DME,
+        parser::transformMessageToDMEClaim,
+        parser::transformMessageToDMEClaimLine,
+        (claim, line) -> {
+          line.setParentClaim(claim);
+          claim.getLines().add(line);
+        },
+        DMEClaim::getBeneficiaryId);
+  }
+
+  /**
+   * Creates a {@link RifFileParser.Grouping} that streams the lines of each claim into a {@link
+   * ClaimGroupBuilder} using the given generated parser methods.
+   *
+   * @param fileEvent the {@link RifFileEvent} being processed
+   * @param fileType the type of file, provides the grouping column
+   * @param claimParser parses the claim level fields from the first line
+   * @param lineParser parses the fields of a claim line
+   * @param lineAdder adds a parsed claim line to its claim
+   * @param beneficiaryIdGetter gets the beneficiary id from a claim
+   * @return the parser
+   * @param <TClaim> the claim type
+   * @param <TLine> the claim line type
+   */
+  private <TClaim extends RifRecordBase, TLine> RifFileParser claimParser(
+      RifFileEvent fileEvent,
+      RifFileType fileType,
+      EntityParser<TClaim> claimParser,
+      EntityParser<TLine> lineParser,
+      BiConsumer<TClaim, TLine> lineAdder,
+      Function<TClaim, Long> beneficiaryIdGetter) {
     return new RifFileParser.Grouping(
-        RifFileType.DME.getIdColumn().name(),
-        csvRecords -> {
-          trace(csvRecords);
-          final RecordAction recordAction = parseRecordAction(csvRecords);
-          final DMEClaim claim = parse(csvRecords, parser::transformMessage);
-          return new RifRecordEvent<>(
-              fileEvent, csvRecords, recordAction, claim.getBeneficiaryId(), claim);
-        });
+        fileType.getIdColumn().name(),
+        () ->
+            new ClaimGroupBuilder<>(
+                fileEvent, claimParser, lineParser, lineAdder, beneficiaryIdGetter),
+        maxLinesPerClaim,
+        oversizedClaimPolicy);
   }
 
   /**
@@ -285,16 +353,28 @@ public class RifFilesProcessor {
     try {
       return parser.apply(new RifObjectWrapper(csvRecords));
     } catch (TransformationException error) {
-      String message =
-          String.format(
-              "Parse error: lineNumber: %d message: %s errors: %s",
-              csvRecords.get(0).getRecordNumber(), error.getMessage(), error.getErrors());
-      log.warn(
-          "Parse error encountered near line number '{}'.", csvRecords.get(0).getRecordNumber());
-      throw new InvalidRifValueException(message, error);
+      throw createParseException(csvRecords.get(0).getRecordNumber(), error);
     }
   }
 
+  /**
+   * Creates the {@link InvalidRifValueException} thrown when a {@link TransformationException}
+   * prevents an object from being parsed.
+   *
+   * @param lineNumber line number of the first record of the object
+   * @param error the error reported by the parser
+   * @return the exception to throw
+   */
+  private static InvalidRifValueException createParseException(
+      long lineNumber, TransformationException error) {
+    String message =
+        String.format(
+            "Parse error: lineNumber: %d message: %s errors: %s",
+            lineNumber, error.getMessage(), error.getErrors());
+    log.warn("Parse error encountered near line number '{}'.", lineNumber);
+    return new InvalidRifValueException(message, error);
+  }
+
   /**
    * Extracts the appropriate {@link RecordAction} from the given record.
    *
@@ -307,35 +387,104 @@ public class RifFilesProcessor {
   }
 
   /**
-   * Extracts the appropriate {@link RecordAction} from the first record.
+   * Logs the record if trace logging is enabled.
    *
-   * @param csvRecords the records
-   * @return the action
+   * @param csvRecord the record
    */
-  @Nonnull
-  private static RecordAction parseRecordAction(List<CSVRecord> csvRecords) {
-    return parseRecordAction(csvRecords.get(0));
+  private static void trace(CSVRecord csvRecord) {
+    if (log.isTraceEnabled()) {
+      log.trace(csvRecord.toString());
+    }
   }
 
   /**
-   * Logs all of the records if trace logging is enabled.
+   * Signature shared by the generated methods that parse the fields of a single claim or claim line
+   * from one line of RIF data.
    *
-   * @param csvRecords the records
+   * @param <T> the type of object parsed
    */
-  private static void trace(List<CSVRecord> csvRecords) {
-    if (log.isTraceEnabled()) {
-      log.trace(csvRecords.toString());
-    }
+  @FunctionalInterface
+  private interface EntityParser<T> {
+    /**
+     * Parses an object from a line of RIF data.
+     *
+     * @param from the line
+     * @param transformer collects any errors
+     * @param now the time to use for any timestamp fields
+     * @param namePrefix prefix added to field names in error messages
+     * @return the object
+     */
+    T parse(RifObjectWrapper from, DataTransformer transformer, Instant now, String namePrefix);
   }
 
   /**
-   * Logs the record if trace logging is enabled.
+   * {@link RifFileParser.GroupBuilder} that converts each line of a claim into a claim line entity
+   * as soon as it is read. Only the first {@link CSVRecord} is retained (for the {@link
+   * RifRecordEvent}) so the raw records of claims with many lines can be garbage collected long
+   * before the claim is written to the database.
    *
-   * @param csvRecord the record
+   * @param <TClaim> the claim type
+   * @param <TLine> the claim line type
    */
-  private static void trace(CSVRecord csvRecord) {
-    if (log.isTraceEnabled()) {
-      log.trace(csvRecord.toString());
+  @RequiredArgsConstructor
+  private static class ClaimGroupBuilder<TClaim extends RifRecordBase, TLine>
+      implements RifFileParser.GroupBuilder {
+    /** The {@link RifFileEvent} being processed. */
+    private final RifFileEvent fileEvent;
+
+    /** Parses the claim level fields from the first line. */
+    private final EntityParser<TClaim> claimParser;
+
+    /** Parses the fields of each claim line. */
+    private final EntityParser<TLine> lineParser;
+
+    /** Adds a parsed claim line to its claim. */
+    private final BiConsumer<TClaim, TLine> lineAdder;
+
+    /** Gets the beneficiary id from the claim. */
+    private final Function<TClaim, Long> beneficiaryIdGetter;
+
+    /** Collects errors from every line of the claim. */
+    private final DataTransformer transformer = new DataTransformer();
+
+    /** Time used for any timestamp fields, the same for every line of the claim. */
+    private final Instant now = Instant.now();
+
+    /** The first record of the claim. */
+    private CSVRecord firstRecord;
+
+    /** The claim, created from the first record. */
+    private TClaim claim;
+
+    /** Number of lines added so far. */
+    private short lineCount;
+
+    @Override
+    public void addRecord(CSVRecord csvRecord) {
+      trace(csvRecord);
+      final RifObjectWrapper from = new RifObjectWrapper(csvRecord);
+      if (claim == null) {
+        firstRecord = csvRecord;
+        claim = claimParser.parse(from, transformer, now, "");
+      }
+      final String linePrefix = "lines-" + lineCount + "-";
+      lineAdder.accept(claim, lineParser.parse(from, transformer, now, linePrefix));
+      lineCount += 1;
+    }
+
+    @Override
+    public RifRecordEvent<?> build() {
+      if (!transformer.getErrors().isEmpty()) {
+        throw createParseException(
+            firstRecord.getRecordNumber(),
+            new TransformationException("data transformation failed", transformer.getErrors()));
+      }
+      return new RifRecordEvent<>(
+          fileEvent,
+          List.of(firstRecord),
+          parseRecordAction(firstRecord),
+          beneficiaryIdGetter.apply(claim),
+          claim);
     }
   }
 }
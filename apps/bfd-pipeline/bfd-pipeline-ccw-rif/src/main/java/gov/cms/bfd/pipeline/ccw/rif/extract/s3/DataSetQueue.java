@@ -14,17 +14,25 @@ import gov.cms.bfd.pipeline.ccw.rif.extract.s3.task.S3TaskManager;
 import gov.cms.bfd.pipeline.sharedutils.MultiCloser;
 import gov.cms.bfd.pipeline.sharedutils.s3.S3Dao;
 import gov.cms.bfd.pipeline.sharedutils.s3.S3DirectoryDao.DownloadedFile;
+import gov.cms.bfd.pipeline.sharedutils.s3.S3DirectoryDao.StreamedFile;
 import gov.cms.bfd.sharedutils.exceptions.BadCodeMonkeyException;
 import jakarta.annotation.Nonnull;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
 
@@ -52,6 +60,9 @@ public class DataSetQueue implements AutoCloseable {
   static final String TIMER_DOWNLOAD_ENTRY =
       MetricRegistry.name(DataSetQueue.class, "downloadEntry");
 
+  /** Name used for start streaming one manifest entry timer. */
+  static final String TIMER_STREAM_ENTRY = MetricRegistry.name(DataSetQueue.class, "streamEntry");
+
   /** Name used for updating one manifest in database timer. */
   static final String TIMER_MANIFEST_DB_UPDATE =
       MetricRegistry.name(DataSetQueue.class, "updateManifestInDb");
@@ -163,6 +174,31 @@ public class DataSetQueue implements AutoCloseable {
     }
   }
 
+  /**
+   * Starts downloading the data file from S3 and returns as soon as the download has started. The
+   * returned entry's data can be read while it downloads. Its MD5 checksum is computed during the
+   * download and confirmed by {@link ManifestEntry#markAsCompleted} so the entry can never be
+   * marked as completed unless the checksum matched.
+   *
+   * <p>The checksum of a gzip file is compared to its decompressed bytes, which cannot be computed
+   * while downloading, so gzip files are downloaded in full by {@link #downloadManifestEntry}
+   * instead.
+   *
+   * @param entryRecord database record corresponding to the entry
+   * @return object containing information about the file being downloaded
+   * @throws IOException pass through in case of error
+   */
+  public ManifestEntry streamManifestEntry(S3DataFile entryRecord) throws IOException {
+    final var s3Key = entryRecord.getS3Key();
+    if (s3Key.endsWith(".gz")) {
+      return downloadManifestEntry(entryRecord);
+    }
+    try (var ignored = appMetrics.timer(TIMER_STREAM_ENTRY).time()) {
+      final var streamedFile = s3Files.streamFile(s3Key);
+      return new ManifestEntry(entryRecord, streamedFile);
+    }
+  }
+
   /**
    * Checks the S3 bucket to see if all of the files corresponding to the manifest's entries exist
    * in the bucket. Does not download any files.
@@ -178,6 +214,49 @@ public class DataSetQueue implements AutoCloseable {
         .allMatch(namesAtPrefix::contains);
   }
 
+  /**
+   * Looks up the size of every file in the S3 bucket that corresponds to one of the manifest's
+   * entries. Entries that are not in the bucket are omitted. Does not download any files.
+   *
+   * @param manifestRecord database record corresponding to the manifest
+   * @return map of S3 key to file size in bytes
+   */
+  public Map<String, Long> readDataFileSizes(S3ManifestFile manifestRecord) {
+    final var manifestS3Prefix = S3FileManager.extractPrefixFromS3Key(manifestRecord.getS3Key());
+    final Set<String> dataFileKeys =
+        manifestRecord.getDataFiles().stream()
+            .map(S3DataFile::getS3Key)
+            .collect(Collectors.toUnmodifiableSet());
+    return s3Files
+        .scanS3ForFiles(manifestS3Prefix)
+        .filter(summary -> dataFileKeys.contains(summary.getKey()))
+        .collect(
+            Collectors.toUnmodifiableMap(
+                S3Dao.S3ObjectSummary::getKey, S3Dao.S3ObjectSummary::getSize));
+  }
+
+  /**
+   * Looks up the size of every file in the S3 bucket that corresponds to one of the manifest's
+   * entries. Any file that is missing from the bucket listing (for example because the listing is
+   * not yet consistent with a recent upload) is looked up individually so that every data file has
+   * an accurate size to reserve disk space with. Does not download any files.
+   *
+   * @param manifestRecord database record corresponding to the manifest
+   * @return map of S3 key to file size in bytes containing every data file of the manifest
+   * @throws FileNotFoundException if any data file does not exist in S3
+   */
+  public Map<String, Long> readRequiredDataFileSizes(S3ManifestFile manifestRecord)
+      throws FileNotFoundException {
+    final Map<String, Long> listedSizes = readDataFileSizes(manifestRecord);
+    final Map<String, Long> answer = new HashMap<>(listedSizes);
+    for (S3DataFile dataFile : manifestRecord.getDataFiles()) {
+      if (!answer.containsKey(dataFile.getS3Key())) {
+        answer.put(dataFile.getS3Key(), s3Files.readFileSize(dataFile.getS3Key()));
+      }
+    }
+    return Map.copyOf(answer);
+  }
+
   /**
    * Updates this manifest's record in the database to reflect that processing of the manifest has
    * been started.
@@ -234,7 +313,8 @@ public class DataSetQueue implements AutoCloseable {
   }
 
   /**
-   * Updates the entry's record in the database to mark it as completed.
+   * Updates the entry's record in the database to mark it as completed. Any checksum mismatch of an
+   * earlier attempt is cleared since the file has now been reloaded in full.
    *
    * @param dataFileRecord database record corresponding to the data file
    * @throws BadCodeMonkeyException if the entry has already been completely processed
@@ -243,6 +323,7 @@ public class DataSetQueue implements AutoCloseable {
     if (!STARTABLE_ENTRY_STATUSES.contains(dataFileRecord.getStatus())) {
       throw new BadCodeMonkeyException("Attempting to mark a completed data file as completed.");
     }
+    dataFileRecord.setChecksumMismatchTimestamp(Optional.empty());
     dataFileRecord.setStatus(S3DataFile.FileStatus.COMPLETED);
     dataFileRecord.setStatusTimestamp(clock.instant());
     s3Records.updateS3ManifestAndDataFiles(dataFileRecord.getParentManifest());
@@ -290,6 +371,30 @@ public class DataSetQueue implements AutoCloseable {
     return manifestFile;
   }
 
+  /**
+   * Waits for a streamed data file to finish downloading and confirms its MD5 checksum. If the
+   * checksum does not match, the records loaded from the file cannot be trusted so the entry's
+   * progress is reset to force the next attempt to reload the whole file, and the cached copy is
+   * deleted to force it to be downloaded again. The mismatch is also recorded so that the next
+   * attempt deletes the records that were already committed before reloading the file, see {@link
+   * gov.cms.bfd.pipeline.ccw.rif.load.RifLoader}.
+   *
+   * @param entryRecord database record corresponding to the entry
+   * @param streamedFile the file being downloaded
+   * @throws IOException if the download failed or the checksum does not match
+   */
+  @VisibleForTesting
+  void checkStreamedMD5(S3DataFile entryRecord, StreamedFile streamedFile) throws IOException {
+    if (s3Files.awaitMD5(streamedFile, MD5_CHECKSUM_META_DATA_FIELD) == MISMATCH) {
+      entryRecord.setLastRecordNumber(0);
+      entryRecord.setChecksumMismatchTimestamp(Optional.of(clock.instant()));
+      s3Records.updateS3DataFile(entryRecord);
+      streamedFile.delete();
+      throw new IOException(
+          String.format("MD5 checksum mismatch for file %s", streamedFile.getS3Key()));
+    }
+  }
+
   /**
    * Scans S3 bucket for all manifests that are eligible for processing and have a timestamp greater
    * than or equal to the provided minimum and less than or equal to the provided maximum.
@@ -432,6 +537,19 @@ public class DataSetQueue implements AutoCloseable {
       fileData.delete();
     }
 
+    /**
+     * Returns a stage that completes once no more bytes are being written to disk for this entry. A
+     * streamed entry finishes once its download has completed, failed, or been cancelled. Other
+     * entries were downloaded in full before they were returned so they have already finished.
+     *
+     * @return the stage
+     */
+    public CompletionStage<Void> getDownloadFinished() {
+      return fileData instanceof StreamedFile streamedFile
+          ? streamedFile.getDownloadFinished()
+          : CompletableFuture.completedFuture(null);
+    }
+
     /**
      * Returns the absolute path of the cached file for use in logging.
      *
@@ -460,11 +578,20 @@ public class DataSetQueue implements AutoCloseable {
     }
 
     /**
-     * Updates the entry's record in the database to mark it as completed.
+     * Updates the entry's record in the database to mark it as completed. If the file was streamed
+     * this first waits for its download to finish and confirms its MD5 checksum.
      *
      * @throws BadCodeMonkeyException if the entry has already been completely processed
+     * @throws UncheckedIOException if the streamed download failed or its checksum does not match
      */
     public void markAsCompleted() {
+      if (fileData instanceof StreamedFile streamedFile) {
+        try {
+          checkStreamedMD5(dataFileRecord, streamedFile);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
       DataSetQueue.this.markAsCompleted(dataFileRecord);
     }
 
@@ -477,6 +604,16 @@ public class DataSetQueue implements AutoCloseable {
       return dataFileRecord.getLastRecordNumber();
     }
 
+    /**
+     * Used to implement {@link RifFile#isReloadRequired}.
+     *
+     * @return true if a streamed download of the file failed its checksum since the file was
+     *     started
+     */
+    public boolean isReloadRequired() {
+      return dataFileRecord.getChecksumMismatchTimestamp().isPresent();
+    }
+
     /**
      * Used to implement {@link RifFile#updateLastRecordNumber}. Sets the new record number value
      * and updates the record in the database.
@@ -0,0 +1,339 @@
+package gov.cms.bfd.pipeline.ccw.rif.extract.s3;
+
+import com.google.common.annotations.VisibleForTesting;
+import gov.cms.bfd.model.rif.entities.S3DataFile;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads data files from S3 on a pool of threads so that several files can be downloaded at the
+ * same time. Files are started in the order they will be loaded: files of the data set being loaded
+ * come before files that are prefetched for the next data set, and within each group files start in
+ * the order they were requested.
+ *
+ * <p>A file is only started if the local disk has room for it on top of the files that are still
+ * downloading and a reserved amount of free space. The check uses the actual free space on the
+ * disk, so space freed by deleting files that have been loaded is used by later downloads without
+ * any bookkeeping. Files that do not fit wait for running downloads to finish or for space to be
+ * freed, which is checked periodically. A file that does not fit on its own is started once no
+ * other downloads are running so that one oversized file cannot stall the load.
+ *
+ * <p>A streamed file is returned as soon as its download starts but counts as running, both towards
+ * the maximum number of downloads and the disk space they need, until its download has finished.
+ */
+public class DownloadScheduler implements AutoCloseable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DownloadScheduler.class);
+
+  /** Used to download the files and check free disk space. */
+  private final DataSetQueue dataSetQueue;
+
+  /**
+   * When true files of the data set being loaded are streamed rather than downloaded in full.
+   * Prefetched files are always downloaded in full since nothing reads them until later.
+   */
+  private final boolean streaming;
+
+  /** Maximum number of files downloaded at the same time. */
+  private final int maxConcurrentDownloads;
+
+  /** Amount of free disk space that downloads must leave untouched. */
+  private final long reservedDiskBytes;
+
+  /** Runs the downloads. */
+  private final ExecutorService downloadExecutor;
+
+  /** Periodically retries waiting downloads in case disk space has been freed. */
+  private final ScheduledExecutorService retryExecutor;
+
+  /** Downloads that have not started yet, in the order they should start. */
+  private final PriorityQueue<Request> pending =
+      new PriorityQueue<>(
+          Comparator.comparing((Request request) -> request.prefetch)
+              .thenComparingLong(request -> request.sequence));
+
+  /** Downloads in progress, keyed by S3 key. */
+  private final Map<String, Request> running = new HashMap<>();
+
+  /** Used to preserve request order within {@link #pending}. */
+  private long nextSequence;
+
+  /** Set once {@link #close} has been called. */
+  private boolean closed;
+
+  /**
+   * Initializes an instance with its own threads.
+   *
+   * @param dataSetQueue used to download the files and check free disk space
+   * @param streaming when true files are streamed rather than downloaded in full
+   * @param maxConcurrentDownloads maximum number of files downloaded at the same time
+   * @param reservedDiskBytes amount of free disk space that downloads must leave untouched
+   * @param retryInterval how often to retry downloads that are waiting for disk space
+   */
+  public DownloadScheduler(
+      DataSetQueue dataSetQueue,
+      boolean streaming,
+      int maxConcurrentDownloads,
+      long reservedDiskBytes,
+      Duration retryInterval) {
+    this(
+        dataSetQueue,
+        streaming,
+        maxConcurrentDownloads,
+        reservedDiskBytes,
+        Executors.newFixedThreadPool(
+            maxConcurrentDownloads,
+            r -> {
+              Thread t = new Thread(r);
+              t.setName("rif_download");
+              t.setDaemon(true);
+              return t;
+            }),
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread t = new Thread(r);
+              t.setName("rif_download_retry");
+              t.setDaemon(true);
+              return t;
+            }));
+    retryExecutor.scheduleWithFixedDelay(
+        this::startDownloads,
+        retryInterval.toMillis(),
+        retryInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Initializes an instance using the given executors. Allows tests to control the threads.
+   *
+   * @param dataSetQueue used to download the files and check free disk space
+   * @param streaming when true files are streamed rather than downloaded in full
+   * @param maxConcurrentDownloads maximum number of files downloaded at the same time
+   * @param reservedDiskBytes amount of free disk space that downloads must leave untouched
+   * @param downloadExecutor runs the downloads
+   * @param retryExecutor periodically retries waiting downloads
+   */
+  @VisibleForTesting
+  DownloadScheduler(
+      DataSetQueue dataSetQueue,
+      boolean streaming,
+      int maxConcurrentDownloads,
+      long reservedDiskBytes,
+      ExecutorService downloadExecutor,
+      ScheduledExecutorService retryExecutor) {
+    this.dataSetQueue = dataSetQueue;
+    this.streaming = streaming;
+    this.maxConcurrentDownloads = maxConcurrentDownloads;
+    this.reservedDiskBytes = reservedDiskBytes;
+    this.downloadExecutor = downloadExecutor;
+    this.retryExecutor = retryExecutor;
+  }
+
+  /**
+   * Schedules a data file of the data set being loaded for download. If the same file was scheduled
+   * earlier as a prefetch and has not started yet the prefetch is replaced by this request. If it
+   * is already downloading this request starts once that download has finished, at which point the
+   * file will be served from the cache.
+   *
+   * @param dataFileRecord database record for the data file
+   * @param size size of the file in bytes
+   * @return the result of the download
+   */
+  public Future<DataSetQueue.ManifestEntry> download(S3DataFile dataFileRecord, long size) {
+    return schedule(dataFileRecord, size, false);
+  }
+
+  /**
+   * Schedules a data file of a later data set for download so that it is in the cache when that
+   * data set is loaded. Prefetches only start when no file of the data set being loaded is waiting.
+   *
+   * @param dataFileRecord database record for the data file
+   * @param size size of the file in bytes
+   */
+  public void prefetch(S3DataFile dataFileRecord, long size) {
+    schedule(dataFileRecord, size, true);
+  }
+
+  /**
+   * Cancels downloads that have not started and waits for the running ones to finish.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  @Override
+  public void close() throws InterruptedException {
+    synchronized (this) {
+      closed = true;
+      pending.forEach(request -> request.result.cancel(false));
+      pending.clear();
+    }
+    retryExecutor.shutdownNow();
+    downloadExecutor.shutdown();
+    downloadExecutor.awaitTermination(1, TimeUnit.HOURS);
+  }
+
+  /**
+   * Adds a request to {@link #pending} and starts any downloads that can be started.
+   *
+   * @param dataFileRecord database record for the data file
+   * @param size size of the file in bytes
+   * @param prefetch true if the file belongs to a later data set
+   * @return the result of the download
+   */
+  private Future<DataSetQueue.ManifestEntry> schedule(
+      S3DataFile dataFileRecord, long size, boolean prefetch) {
+    final Request request = new Request(dataFileRecord, size, prefetch);
+    synchronized (this) {
+      if (closed) {
+        throw new RejectedExecutionException("download scheduler has been closed");
+      }
+      request.sequence = nextSequence++;
+      pending.removeIf(
+          other -> {
+            final boolean replaced = other.prefetch && other.s3Key.equals(request.s3Key);
+            if (replaced) {
+              other.result.cancel(false);
+            }
+            return replaced;
+          });
+      pending.add(request);
+    }
+    startDownloads();
+    return request.result;
+  }
+
+  /**
+   * Starts waiting downloads in order until one cannot be started because too many downloads are
+   * running, the same file is already downloading, or there is not enough free disk space.
+   */
+  @VisibleForTesting
+  synchronized void startDownloads() {
+    while (!closed && running.size() < maxConcurrentDownloads && !pending.isEmpty()) {
+      final Request request = pending.peek();
+      if (running.containsKey(request.s3Key) || !hasDiskSpaceFor(request)) {
+        return;
+      }
+      pending.poll();
+      running.put(request.s3Key, request);
+      try {
+        downloadExecutor.execute(() -> runDownload(request));
+      } catch (RejectedExecutionException e) {
+        running.remove(request.s3Key);
+        request.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Determines if there is enough free disk space to start a download. Files already downloading
+   * are assumed to still need all of their space, which errs on the side of caution.
+   *
+   * @param request the download to check
+   * @return true if the download can be started
+   */
+  private boolean hasDiskSpaceFor(Request request) {
+    if (running.isEmpty()) {
+      return true;
+    }
+    final long availableBytes;
+    try {
+      availableBytes = dataSetQueue.getAvailableDiskSpaceInBytes();
+    } catch (IOException e) {
+      LOGGER.warn("Unable to check free disk space, delaying download of '{}'.", request.s3Key, e);
+      return false;
+    }
+    final long committedBytes =
+        running.values().stream().mapToLong(other -> other.size).sum() + reservedDiskBytes;
+    return availableBytes - committedBytes >= request.size;
+  }
+
+  /**
+   * Downloads a file on a download thread. Once nothing more is being written for the file, which
+   * for a streamed file is after its result has been returned, the next waiting download is
+   * started.
+   *
+   * @param request the download to run
+   */
+  private void runDownload(Request request) {
+    CompletionStage<Void> downloadFinished = CompletableFuture.completedFuture(null);
+    try {
+      if (!request.result.isCancelled()) {
+        if (streaming && !request.prefetch) {
+          final DataSetQueue.ManifestEntry entry =
+              dataSetQueue.streamManifestEntry(request.dataFileRecord);
+          downloadFinished = entry.getDownloadFinished();
+          request.result.complete(entry);
+        } else {
+          request.result.complete(dataSetQueue.downloadManifestEntry(request.dataFileRecord));
+        }
+      }
+    } catch (Exception e) {
+      if (request.prefetch) {
+        LOGGER.warn("Prefetch of '{}' failed.", request.s3Key, e);
+      }
+      request.result.completeExceptionally(e);
+    } finally {
+      downloadFinished.thenRun(() -> finishDownload(request));
+    }
+  }
+
+  /**
+   * Removes a download that is no longer writing to disk from {@link #running} and starts the next
+   * waiting download.
+   *
+   * @param request the download that finished
+   */
+  private void finishDownload(Request request) {
+    synchronized (this) {
+      running.remove(request.s3Key);
+    }
+    startDownloads();
+  }
+
+  /** A file to be downloaded and the result of doing so. */
+  private static class Request {
+    /** Database record for the data file. */
+    private final S3DataFile dataFileRecord;
+
+    /** The S3 key of the data file. */
+    private final String s3Key;
+
+    /** Size of the file in bytes. */
+    private final long size;
+
+    /** True if the file belongs to a later data set. */
+    private final boolean prefetch;
+
+    /** Completed once the download has finished. */
+    private final CompletableFuture<DataSetQueue.ManifestEntry> result = new CompletableFuture<>();
+
+    /** Position of the request among all requests. */
+    private long sequence;
+
+    /**
+     * Initializes an instance.
+     *
+     * @param dataFileRecord database record for the data file
+     * @param size size of the file in bytes
+     * @param prefetch true if the file belongs to a later data set
+     */
+    private Request(S3DataFile dataFileRecord, long size, boolean prefetch) {
+      this.dataFileRecord = dataFileRecord;
+      this.s3Key = dataFileRecord.getS3Key();
+      this.size = size;
+      this.prefetch = prefetch;
+    }
+  }
+}
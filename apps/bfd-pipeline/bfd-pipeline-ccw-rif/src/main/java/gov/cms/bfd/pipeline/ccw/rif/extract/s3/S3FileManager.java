@@ -6,6 +6,7 @@ import com.google.common.io.ByteSource;
 import gov.cms.bfd.pipeline.sharedutils.s3.S3Dao;
 import gov.cms.bfd.pipeline.sharedutils.s3.S3DirectoryDao;
 import gov.cms.bfd.pipeline.sharedutils.s3.S3DirectoryDao.DownloadedFile;
+import gov.cms.bfd.pipeline.sharedutils.s3.S3DirectoryDao.StreamedFile;
 import gov.cms.bfd.sharedutils.exceptions.BadCodeMonkeyException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -15,8 +16,12 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 
 /**
  * Manages the interactions between S3 and a local disk cache of files. Internally uses a {@link
@@ -27,9 +32,25 @@ public class S3FileManager implements AutoCloseable {
   static final String TIMER_DOWNLOAD_FILE =
       MetricRegistry.name(S3FileManager.class, "downloadFile");
 
+  /** Name of timer used to report the time taken to start streaming an S3 file. */
+  static final String TIMER_STREAM_FILE = MetricRegistry.name(S3FileManager.class, "streamFile");
+
   /** Name of timer used to report MD5 computation times. */
   static final String TIMER_COMPUTE_MD5 = MetricRegistry.name(S3FileManager.class, "computeMd5");
 
+  /** Name of timer used to report time spent waiting for the MD5 of a streamed file. */
+  static final String TIMER_AWAIT_MD5 = MetricRegistry.name(S3FileManager.class, "awaitMd5");
+
+  /** Number of bytes in each ranged read used to stream a file. */
+  static final int STREAMING_PART_SIZE = 8 * 1024 * 1024;
+
+  /**
+   * Number of ranged reads in flight while streaming a file. Also the number of threads used for
+   * streaming. Since tasks run in the order they were submitted, files are downloaded one at a time
+   * with every thread working on the same file.
+   */
+  static final int STREAMING_PARALLELISM = 8;
+
   /** The metric registry. */
   private final MetricRegistry appMetrics;
 
@@ -42,6 +63,9 @@ public class S3FileManager implements AutoCloseable {
   /** Used to download files and cache them locally. */
   private final S3DirectoryDao s3DirectoryDao;
 
+  /** Runs the ranged reads used to stream files. */
+  private final ExecutorService streamingExecutor;
+
   /**
    * Initializes an instance.
    *
@@ -56,15 +80,25 @@ public class S3FileManager implements AutoCloseable {
     this.s3BucketName = s3Bucket;
     final Path cacheDirectory = createSecureTempDirectory();
     s3DirectoryDao = new S3DirectoryDao(s3Dao, s3Bucket, "", cacheDirectory, true, true);
+    streamingExecutor =
+        Executors.newFixedThreadPool(
+            STREAMING_PARALLELISM,
+            r -> {
+              Thread t = new Thread(r);
+              t.setName("s3_stream");
+              t.setDaemon(true);
+              return t;
+            });
   }
 
   /**
-   * Deletes all cached files.
+   * Stops any streaming downloads and deletes all cached files.
    *
    * @throws Exception pass through in case of errrors
    */
   @Override
   public void close() throws Exception {
+    streamingExecutor.shutdownNow();
     s3DirectoryDao.close();
   }
 
@@ -91,6 +125,23 @@ public class S3FileManager implements AutoCloseable {
         .collect(Collectors.toUnmodifiableSet());
   }
 
+  /**
+   * Looks up the size of a single file using a HEAD request.
+   *
+   * @param s3Key identifies the file
+   * @return size of the file in bytes
+   * @throws FileNotFoundException if no file exists in S3 for the given key
+   */
+  public long readFileSize(String s3Key) throws FileNotFoundException {
+    try {
+      return s3Dao.readObjectMetaData(s3BucketName, s3Key).getSize();
+    } catch (NoSuchKeyException | NoSuchBucketException ex) {
+      var fileNotFound = new FileNotFoundException(s3Key);
+      fileNotFound.initCause(ex);
+      throw fileNotFound;
+    }
+  }
+
   /**
    * Download a file with the given key and cache its file data.
    *
@@ -105,6 +156,23 @@ public class S3FileManager implements AutoCloseable {
     }
   }
 
+  /**
+   * Start downloading a file with the given key into the cache and return a {@link StreamedFile}
+   * that can be read while the download is in progress. The file's MD5 checksum is computed as it
+   * downloads and can be checked using {@link #awaitMD5}.
+   *
+   * @param s3Key identifies the file to download
+   * @return the file being downloaded
+   * @throws IOException thrown if download cannot be started
+   * @throws FileNotFoundException if no file exists in S3 for the given key
+   */
+  public StreamedFile streamFile(String s3Key) throws IOException {
+    try (var ignored = appMetrics.timer(TIMER_STREAM_FILE).time()) {
+      return s3DirectoryDao.streamFile(
+          s3Key, streamingExecutor, STREAMING_PART_SIZE, STREAMING_PARALLELISM);
+    }
+  }
+
   /**
    * Gets the number of bytes of usable disk space from the file system containing our cache
    * directory.
@@ -142,11 +210,28 @@ public class S3FileManager implements AutoCloseable {
         return MD5Result.NONE;
       }
       final String computedMD5Checksum = computeMD5CheckSum(file.getBytes());
-      if (metaDataMD5Checksum.equals(computedMD5Checksum)) {
-        return MD5Result.MATCH;
-      } else {
-        return MD5Result.MISMATCH;
+      return compareMD5(metaDataMD5Checksum, computedMD5Checksum);
+    }
+  }
+
+  /**
+   * Wait for a {@link StreamedFile} to finish downloading and compare the MD5 checksum computed
+   * during the download to the value found in the given meta data field. Unlike {@link #checkMD5}
+   * the checksum covers the bytes as stored in S3, so it must not be used for compressed files
+   * whose meta data contains the checksum of their decompressed bytes.
+   *
+   * @param file file to check
+   * @param md5MetaDataField field that should contain a checksum
+   * @return result of the check
+   * @throws IOException if the download failed
+   */
+  public MD5Result awaitMD5(StreamedFile file, String md5MetaDataField) throws IOException {
+    try (var ignored = appMetrics.timer(TIMER_AWAIT_MD5).time()) {
+      final String metaDataMD5Checksum = file.getS3Details().getMetaData().get(md5MetaDataField);
+      if (Strings.isNullOrEmpty(metaDataMD5Checksum)) {
+        return MD5Result.NONE;
       }
+      return compareMD5(metaDataMD5Checksum, file.awaitMd5Checksum());
     }
   }
 
@@ -194,6 +279,21 @@ public class S3FileManager implements AutoCloseable {
     }
   }
 
+  /**
+   * Compares a computed checksum to the expected one.
+   *
+   * @param expected checksum from the file's meta data
+   * @param computed checksum computed from the file's bytes
+   * @return result of the comparison
+   */
+  private static MD5Result compareMD5(String expected, String computed) {
+    if (expected.equals(computed)) {
+      return MD5Result.MATCH;
+    } else {
+      return MD5Result.MISMATCH;
+    }
+  }
+
   /**
    * Private Method to create a SecureTemp Dir.
    *
@@ -172,9 +172,21 @@ public final class S3RifFile implements RifFile {
     waitForDownload().markAsStarted();
   }
 
+  /**
+   * Marks the file as completed and then deletes its cached copy, since it will not be read again,
+   * to free the disk space for files that are waiting to be downloaded.
+   *
+   * <p>{@inheritDoc}
+   */
   @Override
   public void markAsProcessed() {
-    waitForDownload().markAsCompleted();
+    final DataSetQueue.ManifestEntry fileDownloadResult = waitForDownload();
+    fileDownloadResult.markAsCompleted();
+    try {
+      fileDownloadResult.delete();
+    } catch (IOException e) {
+      LOGGER.warn("Unable to delete processed RIF file '{}'.", getDisplayName(), e);
+    }
   }
 
   @Override
@@ -182,6 +194,11 @@ public final class S3RifFile implements RifFile {
     return waitForDownload().getLastRecordNumber();
   }
 
+  @Override
+  public boolean isReloadRequired() {
+    return waitForDownload().isReloadRequired();
+  }
+
   @Override
   public void updateLastRecordNumber(long recordNumber) {
     waitForDownload().updateLastRecordNumber(recordNumber);
@@ -36,7 +36,7 @@ public class RifFileProgressTracker {
    *
    * @param recordNumber record number being processed
    */
-  public synchronized void recordActive(long recordNumber) {
+  public void recordActive(long recordNumber) {
     sequenceNumberTracker.addActiveSequenceNumber(recordNumber);
   }
 
@@ -45,7 +45,7 @@ public class RifFileProgressTracker {
    *
    * @param recordNumber record number being processed
    */
-  public synchronized void recordComplete(long recordNumber) {
+  public void recordComplete(long recordNumber) {
     sequenceNumberTracker.removeWrittenSequenceNumber(recordNumber);
   }
 
@@ -15,14 +15,24 @@ import gov.cms.bfd.model.rif.entities.Beneficiary;
 import gov.cms.bfd.model.rif.entities.BeneficiaryHistory;
 import gov.cms.bfd.model.rif.entities.BeneficiaryMonthly;
 import gov.cms.bfd.model.rif.entities.Beneficiary_;
+import gov.cms.bfd.model.rif.entities.CarrierClaim;
+import gov.cms.bfd.model.rif.entities.DMEClaim;
+import gov.cms.bfd.model.rif.entities.HHAClaim;
+import gov.cms.bfd.model.rif.entities.HospiceClaim;
+import gov.cms.bfd.model.rif.entities.InpatientClaim;
+import gov.cms.bfd.model.rif.entities.OutpatientClaim;
+import gov.cms.bfd.model.rif.entities.PartDEvent;
+import gov.cms.bfd.model.rif.entities.SNFClaim;
 import gov.cms.bfd.pipeline.ccw.rif.extract.RifFileRecords;
 import gov.cms.bfd.pipeline.ccw.rif.load.RifRecordLoadResult.LoadAction;
 import gov.cms.bfd.pipeline.sharedutils.FluxUtils;
 import gov.cms.bfd.pipeline.sharedutils.FluxWaiter;
 import gov.cms.bfd.pipeline.sharedutils.IdHasher;
 import gov.cms.bfd.pipeline.sharedutils.PipelineApplicationState;
+import gov.cms.bfd.pipeline.sharedutils.ThroughputMetrics;
 import gov.cms.bfd.pipeline.sharedutils.TransactionManager;
 import gov.cms.bfd.sharedutils.exceptions.BadCodeMonkeyException;
+import io.micrometer.core.instrument.Counter;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
@@ -43,6 +53,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,6 +80,12 @@ public final class RifLoader {
   private static final Logger LOGGER_RECORD_COUNTS =
       LoggerFactory.getLogger(RifLoader.class.getName() + ".recordCounts");
 
+  /** Name of the queue of batches waiting for a thread from the scheduler. */
+  private static final String PENDING_BATCHES_QUEUE = "pendingBatches";
+
+  /** Name of the queue of batches being written by threads from the scheduler. */
+  private static final String ACTIVE_BATCHES_QUEUE = "activeBatches";
+
   /** The load options. */
   private final LoadAppOptions options;
 
@@ -81,6 +98,9 @@ public final class RifLoader {
   /** Used to wait for flux completion. */
   private final FluxWaiter fluxWaiter;
 
+  /** Counts records as they are parsed, queued, and written for each {@link RifFileType}. */
+  private final ThroughputMetrics throughputMetrics;
+
   /** The maximum amount of time we will wait for a job to complete loading its batches. */
   private static final Duration MAX_FILE_WAIT_TIME = Duration.ofHours(72);
 
@@ -101,6 +121,7 @@ public final class RifLoader {
 
     idHasher = new IdHasher(options.getIdHasherConfig());
     fluxWaiter = new FluxWaiter(MAX_FILE_WAIT_TIME, MAX_INTERRUPTED_WAIT_TIME);
+    throughputMetrics = new ThroughputMetrics(appState.getMeters(), ThroughputMetrics.CCW_PIPELINE);
   }
 
   /**
@@ -127,14 +148,17 @@ public final class RifLoader {
   }
 
   /**
-   * Selects the {@link LoadStrategy} that should be used for the record being processed.
+   * Selects the {@link LoadStrategy} that should be used for the record being processed. Inserts
+   * from a file that must be reloaded are always idempotent since an earlier attempt already wrote
+   * some of its records.
    *
    * @param recordAction the {@link RecordAction} of the specific record being processed
+   * @param reloadRequired result of {@link RifFile#isReloadRequired} for the record's file
    * @return the {@link LoadStrategy} to use
    */
-  private LoadStrategy selectStrategy(RecordAction recordAction) {
+  private LoadStrategy selectStrategy(RecordAction recordAction, boolean reloadRequired) {
     if (recordAction == RecordAction.INSERT) {
-      if (options.isIdempotencyRequired()) return LoadStrategy.INSERT_IDEMPOTENT;
+      if (options.isIdempotencyRequired() || reloadRequired) return LoadStrategy.INSERT_IDEMPOTENT;
       else return LoadStrategy.INSERT_UPDATE_NON_IDEMPOTENT;
     } else {
       return LoadStrategy.INSERT_UPDATE_NON_IDEMPOTENT;
@@ -163,6 +187,10 @@ public final class RifLoader {
    * file, pushing each {@link RifRecordEvent}'s record to the database, and publishing the result
    * for each record. Any exception thrown during processing terminates the flux with an error.
    *
+   * <p>Records are counted in {@link ThroughputMetrics} as they are parsed, collected into batches,
+   * and written. The number of batches waiting for a thread from the scheduler and the number being
+   * written are reported as queue depths.
+   *
    * @param dataToLoad the {@link RifFileRecords} containing FHIR {@link RifRecordEvent}s to be
    *     loaded
    * @param interrupted flag that will be trigger a clean shutdown if set to true by {@link
@@ -181,6 +209,15 @@ public final class RifLoader {
               performanceSettings.getLoaderThreads()
                   * performanceSettings.getTaskQueueSizeMultiple();
 
+          final Counter receivedRecords =
+              throughputMetrics.getStageCounter(fileType.name(), ThroughputMetrics.Stage.RECEIVED);
+          final Counter queuedRecords =
+              throughputMetrics.getStageCounter(fileType.name(), ThroughputMetrics.Stage.QUEUED);
+          final AtomicLong pendingBatches = throughputMetrics.getQueueDepth(PENDING_BATCHES_QUEUE);
+          final AtomicLong activeBatches = throughputMetrics.getQueueDepth(ACTIVE_BATCHES_QUEUE);
+          // batches from this file that are still pending when the flux terminates
+          final AtomicLong filePendingBatches = new AtomicLong();
+
           final Timer.Context timerDataSetFile =
               appState
                   .getMetrics()
@@ -193,6 +230,11 @@ public final class RifLoader {
           // Trim the LoadedFiles & LoadedBatches table (throws on failure)
           trimLoadedFiles();
 
+          // Remove records loaded from bytes that failed their checksum (throws on failure)
+          if (rifFile.isReloadRequired() && rifFile.getLastRecordNumber() == 0) {
+            deleteRecordsOfEarlierLoads(rifFile);
+          }
+
           // Insert a LoadedFiles entry (throws on failure)
           final long loadedFileId = insertLoadedFile(dataToLoad.getSourceEvent());
 
@@ -213,11 +255,21 @@ public final class RifLoader {
               // Skip any records that we know have been processed before.
               .filter(event -> event.getRecordNumber() > startingRecordNumber)
               // Add active record number to progress tracker.
-              .doOnNext(event -> progressTracker.recordActive(event.getRecordNumber()))
+              .doOnNext(
+                  event -> {
+                    progressTracker.recordActive(event.getRecordNumber());
+                    receivedRecords.increment();
+                  })
               // Parse records on a thread from our scheduler.
               .subscribeOn(scheduler)
               // collect records into batches
               .buffer(performanceSettings.getRecordBatchSize())
+              .doOnNext(
+                  batch -> {
+                    queuedRecords.increment(batch.size());
+                    pendingBatches.incrementAndGet();
+                    filePendingBatches.incrementAndGet();
+                  })
               // Set the number of batches we want to keep ready for processing.  The actual amount
               // will vary between 75% and 100% of the requested value as the flux manages the
               // queue.
@@ -227,7 +279,14 @@ public final class RifLoader {
               // process batches in parallel using threads from our scheduler
               .flatMap(
                   batch ->
-                      processBatch(batch, loadedFileId)
+                      Flux.defer(
+                              () -> {
+                                pendingBatches.decrementAndGet();
+                                filePendingBatches.decrementAndGet();
+                                activeBatches.incrementAndGet();
+                                return processBatch(batch, loadedFileId)
+                                    .doFinally(ignored -> activeBatches.decrementAndGet());
+                              })
                           .subscribeOn(scheduler)
                           // Stop processing if we have received an interrupt
                           .takeUntil(ignored -> interrupted.get()),
@@ -240,6 +299,7 @@ public final class RifLoader {
               .doFinally(
                   ignored -> {
                     progressUpdateSchedule.dispose();
+                    pendingBatches.addAndGet(-filePendingBatches.getAndSet(0));
                     timerDataSetFile.stop();
                     logRecordCounts();
                     scheduler.dispose();
@@ -303,10 +363,16 @@ public final class RifLoader {
             // Update the metrics now that things have been pushed.
             timerBatchSuccess.stop();
             timerBatchTypeSuccess.stop();
+            throughputMetrics
+                .getStageCounter(rifFileType.name(), ThroughputMetrics.Stage.WRITTEN)
+                .increment(recordsBatch.size());
             return processResults;
           } else {
             // Update metrics for a failure and halt the pipeline.
             timerBundleFailure.stop();
+            throughputMetrics
+                .getStageCounter(rifFileType.name(), ThroughputMetrics.Stage.FAILED)
+                .increment(recordsBatch.size());
             fileEventMetrics
                 .meter(MetricRegistry.name(getClass().getSimpleName(), "recordBatches", "failed"))
                 .mark(1);
@@ -332,6 +398,7 @@ public final class RifLoader {
     RifFileEvent fileEvent = recordsBatch.get(0).getFileEvent();
     MetricRegistry fileEventMetrics = fileEvent.getEventMetrics();
     RifFileType rifFileType = fileEvent.getFile().getFileType();
+    boolean reloadRequired = fileEvent.getFile().isReloadRequired();
 
     if (rifFileType == RifFileType.BENEFICIARY_HISTORY) {
       for (RifRecordEvent<?> rifRecordEvent : recordsBatch) {
@@ -361,7 +428,7 @@ public final class RifLoader {
       // Associate the beneficiary with this file loaded
       loadedBatchBuilder.associateBeneficiary(rifRecordEvent.getBeneficiaryId());
 
-      LoadStrategy strategy = selectStrategy(recordAction);
+      LoadStrategy strategy = selectStrategy(recordAction, reloadRequired);
       LoadAction loadAction;
 
       if (strategy == LoadStrategy.INSERT_IDEMPOTENT) {
@@ -381,6 +448,11 @@ public final class RifLoader {
           tweakIfBeneficiary(entityManager, loadedBatchBuilder, rifRecordEvent);
           entityManager.persist(record);
           // FIXME Object recordInDbAfterUpdate = entityManager.find(record.getClass(), recordId);
+        } else if (reloadRequired) {
+          // the existing record may have been parsed from bad bytes so replace it
+          loadAction = LoadAction.UPDATED;
+          tweakIfBeneficiary(entityManager, loadedBatchBuilder, rifRecordEvent);
+          entityManager.merge(record);
         } else {
           loadAction = LoadAction.DID_NOTHING;
         }
@@ -1031,6 +1103,86 @@ public final class RifLoader {
     }
   }
 
+  /**
+   * Deletes the records that earlier attempts loaded from a file that has to be reloaded because
+   * its streamed download failed its checksum. Those records may have been parsed from the bad
+   * bytes, and replacing records by key as the file is reloaded cannot remove records whose keys
+   * came from the bad bytes. The records are found through the {@link LoadedBatch}es of the file's
+   * earlier {@link LoadedFile}s since every record written by a batch has one of the batch's
+   * beneficiaries and the batch's timestamp as its last updated time.
+   *
+   * <p>{@link Beneficiary} records are not deleted since claims reference them. They are replaced
+   * by key as the file is reloaded.
+   *
+   * @param rifFile the file about to be reloaded
+   */
+  private void deleteRecordsOfEarlierLoads(RifFile rifFile) {
+    final RifFile.RecordId dataFileId = rifFile.getRecordId();
+    final Optional<Class<?>> recordType = selectReloadDeletableType(rifFile.getFileType());
+    if (dataFileId == null || recordType.isEmpty()) {
+      return;
+    }
+    try (TransactionManager transactionManager =
+        new TransactionManager(appState.getEntityManagerFactory())) {
+      transactionManager.executeProcedure(
+          entityManager -> {
+            final List<LoadedBatch> loadedBatches =
+                entityManager
+                    .createQuery(
+                        "select b from LoadedBatch b, LoadedFile f"
+                            + " where b.loadedFileId = f.loadedFileId"
+                            + " and f.s3ManifestId = :manifestId and f.s3FileIndex = :fileIndex",
+                        LoadedBatch.class)
+                    .setParameter("manifestId", dataFileId.manifestId())
+                    .setParameter("fileIndex", dataFileId.index())
+                    .getResultList();
+            long deleted = 0;
+            for (LoadedBatch loadedBatch : loadedBatches) {
+              final List<?> records =
+                  entityManager
+                      .createQuery(
+                          "select r from "
+                              + recordType.get().getSimpleName()
+                              + " r where r.beneficiaryId in :beneficiaryIds"
+                              + " and r.lastUpdated = :created",
+                          recordType.get())
+                      .setParameter("beneficiaryIds", loadedBatch.getBeneficiariesAsList())
+                      .setParameter("created", loadedBatch.getCreated())
+                      .getResultList();
+              // removing each record also removes its claim lines
+              records.forEach(entityManager::remove);
+              deleted += records.size();
+            }
+            LOGGER.info(
+                "Deleted {} records loaded from '{}' before its checksum failed.",
+                deleted,
+                rifFile.getDisplayName());
+          });
+    }
+  }
+
+  /**
+   * Selects the type of the records loaded from a type of file that can be deleted before the file
+   * is reloaded.
+   *
+   * @param fileType the type of file
+   * @return the record type or empty if records of this type of file cannot be deleted
+   */
+  private static Optional<Class<?>> selectReloadDeletableType(RifFileType fileType) {
+    return switch (fileType) {
+      case BENEFICIARY -> Optional.empty();
+      case BENEFICIARY_HISTORY -> Optional.of(BeneficiaryHistory.class);
+      case CARRIER -> Optional.of(CarrierClaim.class);
+      case DME -> Optional.of(DMEClaim.class);
+      case HHA -> Optional.of(HHAClaim.class);
+      case HOSPICE -> Optional.of(HospiceClaim.class);
+      case INPATIENT -> Optional.of(InpatientClaim.class);
+      case OUTPATIENT -> Optional.of(OutpatientClaim.class);
+      case PDE -> Optional.of(PartDEvent.class);
+      case SNF -> Optional.of(SNFClaim.class);
+    };
+  }
+
   /** Computes and logs a count for all record types. */
   private void logRecordCounts() {
     if (!LOGGER_RECORD_COUNTS.isDebugEnabled()) return;
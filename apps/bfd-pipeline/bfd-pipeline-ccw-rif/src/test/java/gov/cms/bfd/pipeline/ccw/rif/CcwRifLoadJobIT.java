@@ -1,8 +1,10 @@
 package gov.cms.bfd.pipeline.ccw.rif;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.spy;
@@ -10,26 +12,42 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import gov.cms.bfd.model.rif.RifFile;
+import gov.cms.bfd.model.rif.RifFileEvent;
 import gov.cms.bfd.model.rif.RifFileType;
+import gov.cms.bfd.model.rif.RifFilesEvent;
+import gov.cms.bfd.model.rif.entities.Beneficiary;
+import gov.cms.bfd.model.rif.entities.CarrierClaim;
+import gov.cms.bfd.model.rif.entities.S3DataFile;
 import gov.cms.bfd.model.rif.entities.S3ManifestFile;
 import gov.cms.bfd.model.rif.samples.StaticRifResource;
 import gov.cms.bfd.pipeline.AbstractLocalStackS3Test;
 import gov.cms.bfd.pipeline.PipelineTestUtils;
 import gov.cms.bfd.pipeline.ccw.rif.extract.ExtractionOptions;
+import gov.cms.bfd.pipeline.ccw.rif.extract.RifFileParser;
+import gov.cms.bfd.pipeline.ccw.rif.extract.RifFilesProcessor;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.DataSetManifest;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.DataSetManifest.DataSetManifestEntry;
+import gov.cms.bfd.pipeline.ccw.rif.extract.s3.DataSetMonitorListener;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.DataSetQueue;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.DataSetTestUtilities;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.MockDataSetMonitorListener;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.S3FileManager;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.S3ManifestDbDao;
 import gov.cms.bfd.pipeline.ccw.rif.extract.s3.task.S3TaskManager;
+import gov.cms.bfd.pipeline.ccw.rif.load.CcwRifLoadTestUtils;
+import gov.cms.bfd.pipeline.ccw.rif.load.LoadAppOptions;
+import gov.cms.bfd.pipeline.ccw.rif.load.RifLoader;
 import gov.cms.bfd.pipeline.sharedutils.PipelineJobOutcome;
 import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -45,6 +63,12 @@ import software.amazon.awssdk.utils.StringUtils;
 final class CcwRifLoadJobIT extends AbstractLocalStackS3Test {
   private static final Logger LOGGER = LoggerFactory.getLogger(CcwRifLoadJobIT.class);
 
+  /** The id of the claim in {@link StaticRifResource#SAMPLE_A_CARRIER}. */
+  private static final String SAMPLE_A_CARRIER_CLAIM_ID = "9991831999";
+
+  /** The claim id a corrupt download of {@link StaticRifResource#SAMPLE_A_CARRIER} contains. */
+  private static final String CORRUPT_CARRIER_CLAIM_ID = "9991831888";
+
   /** Used to capture status updates from the job. */
   @Mock private CcwRifLoadJobStatusReporter statusReporter;
 
@@ -652,6 +676,203 @@ final class CcwRifLoadJobIT extends AbstractLocalStackS3Test {
     }
   }
 
+  /**
+   * Tests {@link CcwRifLoadJob} with streaming downloads when a data file fails its MD5 checksum
+   * after its records have already been committed. The first run must fail and flag the file for
+   * reload. Once the file in S3 is corrected the second run must delete the records committed by
+   * the first run, which were parsed from corrupt bytes, reload the whole file and clear the flag.
+   *
+   * @throws Exception (exceptions indicate test failure)
+   */
+  @Test
+  public void streamedChecksumMismatchReloadsFile() throws Exception {
+    PipelineTestUtils.get().truncateTablesInDataSource();
+    String bucket = null;
+    try {
+      bucket = s3Dao.createTestBucket();
+      ExtractionOptions options =
+          new ExtractionOptions(
+              bucket,
+              Optional.empty(),
+              Optional.empty(),
+              s3ClientConfig,
+              true,
+              0,
+              RifFileParser.OversizedGroupPolicy.FAIL);
+      DataSetManifest manifest =
+          new DataSetManifest(
+              Instant.now(),
+              0,
+              false,
+              CcwRifLoadJob.S3_PREFIX_PENDING_DATA_SETS,
+              CcwRifLoadJob.S3_PREFIX_COMPLETED_DATA_SETS,
+              new DataSetManifestEntry("beneficiaries.rif", RifFileType.BENEFICIARY),
+              new DataSetManifestEntry("carrier.rif", RifFileType.CARRIER));
+      final String manifestS3Key =
+          putSampleFilesInTestBucket(
+              bucket,
+              CcwRifLoadJob.S3_PREFIX_PENDING_DATA_SETS,
+              manifest,
+              List.of(StaticRifResource.SAMPLE_A_BENES.getResourceUrl()));
+      // the carrier file's claim id is corrupt so its checksum does not match its contents
+      final String carrierS3Key =
+          DataSetTestUtilities.keyPrefixForManifest(
+                  CcwRifLoadJob.S3_PREFIX_PENDING_DATA_SETS, manifest)
+              + "/carrier.rif";
+      final byte[] corruptCarrierBytes;
+      try (InputStream carrierStream =
+          StaticRifResource.SAMPLE_A_CARRIER.getResourceUrl().openStream()) {
+        corruptCarrierBytes =
+            new String(carrierStream.readAllBytes(), StandardCharsets.UTF_8)
+                .replace(SAMPLE_A_CARRIER_CLAIM_ID, CORRUPT_CARRIER_CLAIM_ID)
+                .getBytes(StandardCharsets.UTF_8);
+      }
+      s3Dao.putObject(
+          bucket,
+          carrierS3Key,
+          corruptCarrierBytes,
+          Map.of(DataSetQueue.MD5_CHECKSUM_META_DATA_FIELD, "bm90IHRoZSByZWFsIG1kNQ=="));
+
+      final var pipelineAppState = PipelineTestUtils.get().getPipelineApplicationState();
+      final var s3FilesDao = new S3ManifestDbDao(pipelineAppState.getEntityManagerFactory());
+      final var loadOptions = CcwRifLoadTestUtils.getLoadOptions(false);
+
+      final String testBucket = bucket;
+      assertThrows(Exception.class, () -> runLoadingJob(options, loadOptions, testBucket));
+      verifyManifestFileStatus(s3FilesDao, manifestS3Key, S3ManifestFile.ManifestStatus.STARTED);
+      final S3DataFile carrierRecord =
+          s3FilesDao.readS3ManifestAndDataFiles(manifestS3Key).getDataFiles().stream()
+              .filter(dataFile -> dataFile.getS3Key().equals(carrierS3Key))
+              .findFirst()
+              .orElseThrow();
+      assertEquals(S3DataFile.FileStatus.STARTED, carrierRecord.getStatus());
+      assertEquals(0, carrierRecord.getLastRecordNumber());
+      assertTrue(carrierRecord.getChecksumMismatchTimestamp().isPresent());
+      assertEquals(
+          StaticRifResource.SAMPLE_A_CARRIER.getRecordCount(), countEntities(CarrierClaim.class));
+      assertTrue(carrierClaimExists(CORRUPT_CARRIER_CLAIM_ID));
+
+      // correct the file in S3 and run again
+      DataSetTestUtilities.putObject(
+          s3Dao,
+          bucket,
+          manifest,
+          manifest.getEntries().get(1),
+          StaticRifResource.SAMPLE_A_CARRIER.getResourceUrl(),
+          CcwRifLoadJob.S3_PREFIX_PENDING_DATA_SETS);
+      runLoadingJob(options, loadOptions, testBucket);
+
+      verifyManifestFileStatus(s3FilesDao, manifestS3Key, S3ManifestFile.ManifestStatus.COMPLETED);
+      final S3DataFile reloadedCarrierRecord =
+          s3FilesDao.readS3ManifestAndDataFiles(manifestS3Key).getDataFiles().stream()
+              .filter(dataFile -> dataFile.getS3Key().equals(carrierS3Key))
+              .findFirst()
+              .orElseThrow();
+      assertEquals(S3DataFile.FileStatus.COMPLETED, reloadedCarrierRecord.getStatus());
+      assertFalse(reloadedCarrierRecord.getChecksumMismatchTimestamp().isPresent());
+      assertEquals(
+          StaticRifResource.SAMPLE_A_CARRIER.getRecordCount(), countEntities(CarrierClaim.class));
+      assertFalse(carrierClaimExists(CORRUPT_CARRIER_CLAIM_ID));
+      assertTrue(carrierClaimExists(SAMPLE_A_CARRIER_CLAIM_ID));
+      assertEquals(
+          StaticRifResource.SAMPLE_A_BENES.getRecordCount(), countEntities(Beneficiary.class));
+    } finally {
+      if (StringUtils.isNotBlank(bucket)) s3Dao.deleteTestBucket(bucket);
+    }
+  }
+
+  /**
+   * Runs a {@link CcwRifLoadJob} whose listener loads the data set into the database the same way
+   * the pipeline application does.
+   *
+   * @param options the extraction options
+   * @param loadOptions the load options
+   * @param bucket the bucket holding the data set
+   * @throws Exception pass through from the job
+   */
+  private void runLoadingJob(ExtractionOptions options, LoadAppOptions loadOptions, String bucket)
+      throws Exception {
+    final var pipelineAppState = PipelineTestUtils.get().getPipelineApplicationState();
+    final var s3FilesDao = new S3ManifestDbDao(pipelineAppState.getEntityManagerFactory());
+    final var dataSetQueue =
+        new DataSetQueue(
+            pipelineAppState.getClock(),
+            pipelineAppState.getMetrics(),
+            s3FilesDao,
+            new S3FileManager(pipelineAppState.getMetrics(), s3Dao, bucket),
+            new S3TaskManager(options, s3ClientFactory));
+    final var processor = new RifFilesProcessor();
+    final var loader = new RifLoader(loadOptions, pipelineAppState);
+    final DataSetMonitorListener listener =
+        new DataSetMonitorListener() {
+          @Override
+          public void noDataAvailable() {}
+
+          @Override
+          public void dataAvailable(RifFilesEvent rifFilesEvent) throws Exception {
+            for (RifFileEvent rifFileEvent : rifFilesEvent.getFileEvents()) {
+              final RifFile rifFile = rifFileEvent.getFile();
+              if (rifFile.requiresProcessing()) {
+                rifFile.markAsStarted();
+                loader.processBlocking(processor.produceRecords(rifFileEvent));
+                rifFile.markAsProcessed();
+              }
+            }
+          }
+        };
+    try (CcwRifLoadJob ccwJob =
+        new CcwRifLoadJob(
+            pipelineAppState,
+            options,
+            dataSetQueue,
+            listener,
+            false,
+            Optional.empty(),
+            statusReporter)) {
+      ccwJob.call();
+    }
+  }
+
+  /**
+   * Checks whether a carrier claim with a given id is in the database.
+   *
+   * @param claimId the id of the claim
+   * @return true if the claim exists
+   */
+  private boolean carrierClaimExists(String claimId) {
+    final EntityManager entityManager =
+        PipelineTestUtils.get()
+            .getPipelineApplicationState()
+            .getEntityManagerFactory()
+            .createEntityManager();
+    try {
+      return entityManager.find(CarrierClaim.class, Long.parseLong(claimId)) != null;
+    } finally {
+      entityManager.close();
+    }
+  }
+
+  /**
+   * Counts the entities of a given type in the database.
+   *
+   * @param entityClass the type of entity to count
+   * @return the count
+   */
+  private long countEntities(Class<?> entityClass) {
+    final EntityManager entityManager =
+        PipelineTestUtils.get()
+            .getPipelineApplicationState()
+            .getEntityManagerFactory()
+            .createEntityManager();
+    try {
+      return entityManager
+          .createQuery("select count(*) from " + entityClass.getSimpleName(), Long.class)
+          .getSingleResult();
+    } finally {
+      entityManager.close();
+    }
+  }
+
   /**
    * Validate load given the input location to load files and output location to look for the files
    * once they're loaded.
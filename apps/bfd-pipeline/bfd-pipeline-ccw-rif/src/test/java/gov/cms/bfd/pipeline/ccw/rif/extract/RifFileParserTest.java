@@ -9,6 +9,7 @@ import gov.cms.bfd.model.rif.RifFileEvent;
 import gov.cms.bfd.model.rif.RifFileType;
 import gov.cms.bfd.model.rif.RifRecordEvent;
 import gov.cms.bfd.model.rif.entities.Beneficiary;
+import gov.cms.bfd.model.rif.parse.InvalidRifValueException;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -95,7 +96,7 @@ public class RifFileParserTest {
    */
   @Test
   void groupingHonorsIdColumn() throws IOException {
-    final var parser = new RifFileParser.Grouping("id", this::parseGroup);
+    final var parser = new RifFileParser.Grouping("id", RecordCollector::new);
     // empty file should produce no records
     assertEquals(List.of(), parseString("", parser));
 
@@ -123,7 +124,7 @@ public class RifFileParserTest {
    */
   @Test
   void groupingHonorsIdColumnRandomScenarios() throws IOException {
-    final var parser = new RifFileParser.Grouping("id", this::parseGroup);
+    final var parser = new RifFileParser.Grouping("id", RecordCollector::new);
     final var random = new Random(42);
     for (int trial = 1; trial <= 100; ++trial) {
       // This will contain the unparsed RIF data
@@ -151,6 +152,30 @@ public class RifFileParserTest {
     }
   }
 
+  /**
+   * Verifies that {@link RifFileParser.Grouping} applies its {@link
+   * RifFileParser.OversizedGroupPolicy} only to groups with more records than its limit.
+   *
+   * @throws IOException pass through from writing string to temp file
+   */
+  @Test
+  void groupingEnforcesMaxRecordsPerGroup() throws IOException {
+    final String rifData = "id|data\n1|a\n1|b\n2|a\n2|b\n2|c\n";
+
+    final var failingParser =
+        new RifFileParser.Grouping(
+            "id", RecordCollector::new, 2, RifFileParser.OversizedGroupPolicy.FAIL);
+    assertEquals(List.of("1->1-a;1-b"), parseString("id|data\n1|a\n1|b\n", failingParser));
+    final var error =
+        assertThrows(InvalidRifValueException.class, () -> parseString(rifData, failingParser));
+    assertEquals("group id=2 starting at lineNumber 3 has more than 2 records", error.getMessage());
+
+    final var warningParser =
+        new RifFileParser.Grouping(
+            "id", RecordCollector::new, 2, RifFileParser.OversizedGroupPolicy.WARN);
+    assertEquals(List.of("1->1-a;1-b", "2->2-a;2-b;2-c"), parseString(rifData, warningParser));
+  }
+
   /**
    * Used as a lambda for the {@link RifFileParser.Simple} tests. Simply passes through the record
    * passed to it so it can be checked for correctness.
@@ -164,15 +189,23 @@ public class RifFileParserTest {
   }
 
   /**
-   * Used as a lambda for the {@link RifFileParser.Grouping} tests. Simply passes through the
-   * records passed to it so they can be checked to see if groups are correct.
-   *
-   * @param csvRecords records selected by the parser for this event
-   * @return a {@link RifRecordEvent} holding the provided {@link CSVRecord}s
+   * Used as the {@link RifFileParser.GroupBuilder} for the {@link RifFileParser.Grouping} tests.
+   * Simply collects the records passed to it so they can be checked to see if groups are correct.
    */
-  private RifRecordEvent<Beneficiary> parseGroup(List<CSVRecord> csvRecords) {
-    return new RifRecordEvent<>(
-        rifFileEventMock, csvRecords, RecordAction.INSERT, 1L, new Beneficiary());
+  private class RecordCollector implements RifFileParser.GroupBuilder {
+    /** The records selected by the parser for this event. */
+    private final List<CSVRecord> csvRecords = new ArrayList<>();
+
+    @Override
+    public void addRecord(CSVRecord csvRecord) {
+      csvRecords.add(csvRecord);
+    }
+
+    @Override
+    public RifRecordEvent<?> build() {
+      return new RifRecordEvent<>(
+          rifFileEventMock, csvRecords, RecordAction.INSERT, 1L, new Beneficiary());
+    }
   }
 
   /**
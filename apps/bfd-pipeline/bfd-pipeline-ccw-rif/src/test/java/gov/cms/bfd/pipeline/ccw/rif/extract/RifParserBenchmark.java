@@ -0,0 +1,152 @@
+package gov.cms.bfd.pipeline.ccw.rif.extract;
+
+import gov.cms.bfd.model.rif.entities.CarrierClaimColumn;
+import gov.cms.bfd.model.rif.entities.CarrierClaimParser;
+import gov.cms.bfd.model.rif.parse.RifParsingUtils;
+import gov.cms.bfd.model.rif.samples.StaticRifResource;
+import gov.cms.model.dsl.codegen.library.RifColumnIndex;
+import gov.cms.model.dsl.codegen.library.RifObjectWrapper;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * Micro benchmark comparing the generated {@link CarrierClaimParser}, which reads fields by column
+ * position using a {@link RifColumnIndex}, to the same parser reading every field by its header
+ * label as the generated code did originally. This is a plain main program rather than a test so
+ * that it never runs as part of the normal build. Run it from an IDE or with {@code mvn exec:java
+ * -Dexec.classpathScope=test
+ * -Dexec.mainClass=gov.cms.bfd.pipeline.ccw.rif.extract.RifParserBenchmark}.
+ *
+ * <p>The claims come from {@link StaticRifResource#SAMPLE_A_CARRIER_MULTIPLE_LINES} and are parsed
+ * once up front so that only the transformation into entities is measured. Results are printed as
+ * claims parsed per second for each implementation.
+ */
+public class RifParserBenchmark {
+  /** Number of times all of the sample claims are transformed in a single run. */
+  private static final int PASSES_PER_RUN = 20_000;
+
+  /** Number of untimed runs used to warm up the JIT before measuring. */
+  private static final int WARMUP_RUNS = 3;
+
+  /** Number of timed runs per implementation. The best result is reported. */
+  private static final int MEASURED_RUNS = 5;
+
+  /**
+   * Wrapper that reads every field by its header label so that the generated parser behaves as it
+   * did before fields were read by position.
+   */
+  private static class ByLabelWrapper extends RifObjectWrapper {
+    /** The records for the object. */
+    private final List<CSVRecord> lines;
+
+    /**
+     * Initializes an instance.
+     *
+     * @param lines the records for the object
+     */
+    private ByLabelWrapper(List<CSVRecord> lines) {
+      super(lines);
+      this.lines = lines;
+    }
+
+    @Override
+    public RifObjectWrapper getLines(int index) {
+      return new ByLabelWrapper(List.of(lines.get(index)));
+    }
+
+    @Override
+    public boolean hasValue(RifColumnIndex columns, int column) {
+      return hasValue(columns.getLabel(column));
+    }
+
+    @Override
+    public String getValue(RifColumnIndex columns, int column, String defaultValue) {
+      return getValue(columns.getLabel(column), defaultValue);
+    }
+  }
+
+  /**
+   * Runs the benchmark and prints the results.
+   *
+   * @param args ignored
+   * @throws Exception pass through if anything fails
+   */
+  public static void main(String[] args) throws Exception {
+    final List<List<CSVRecord>> claims = readClaims();
+    System.out.printf("%-10s %16s%n", "impl", "claims/sec");
+    final double byLabel = benchmark(claims, ByLabelWrapper::new);
+    System.out.printf("%-10s %,16.0f%n", "label", byLabel);
+    final double byIndex = benchmark(claims, RifObjectWrapper::new);
+    System.out.printf("%-10s %,16.0f%n", "index", byIndex);
+  }
+
+  /**
+   * Reads the sample carrier file and groups its lines into claims.
+   *
+   * @return the records of each claim
+   * @throws Exception pass through if anything fails
+   */
+  private static List<List<CSVRecord>> readClaims() throws Exception {
+    final Map<String, List<CSVRecord>> claims = new LinkedHashMap<>();
+    try (CSVParser parser =
+        RifParsingUtils.createCsvParser(
+            StaticRifResource.SAMPLE_A_CARRIER_MULTIPLE_LINES.toRifFile())) {
+      for (CSVRecord record : parser) {
+        claims
+            .computeIfAbsent(record.get(CarrierClaimColumn.CLM_ID), id -> new ArrayList<>())
+            .add(record);
+      }
+    }
+    return List.copyOf(claims.values());
+  }
+
+  /**
+   * Warms up then measures one implementation.
+   *
+   * @param claims the records of each claim
+   * @param wrapperFactory creates the wrapper passed to the parser
+   * @return best observed throughput in claims per second
+   */
+  private static double benchmark(
+      List<List<CSVRecord>> claims, Function<List<CSVRecord>, RifObjectWrapper> wrapperFactory) {
+    for (int i = 0; i < WARMUP_RUNS; ++i) {
+      runOnce(claims, wrapperFactory);
+    }
+    double best = 0;
+    for (int i = 0; i < MEASURED_RUNS; ++i) {
+      best = Math.max(best, runOnce(claims, wrapperFactory));
+    }
+    return best;
+  }
+
+  /**
+   * Performs a single timed run.
+   *
+   * @param claims the records of each claim
+   * @param wrapperFactory creates the wrapper passed to the parser
+   * @return throughput in claims per second
+   */
+  private static double runOnce(
+      List<List<CSVRecord>> claims, Function<List<CSVRecord>, RifObjectWrapper> wrapperFactory) {
+    final CarrierClaimParser parser = new CarrierClaimParser();
+    long sink = 0;
+    final long startNanos = System.nanoTime();
+    for (int pass = 0; pass < PASSES_PER_RUN; ++pass) {
+      for (List<CSVRecord> claim : claims) {
+        sink += parser.transformMessage(wrapperFactory.apply(claim)).getLines().size();
+      }
+    }
+    final long elapsedNanos = System.nanoTime() - startNanos;
+    if (sink == 0) {
+      throw new IllegalStateException("no claim lines were parsed");
+    }
+    final double parsed = (double) PASSES_PER_RUN * claims.size();
+    return parsed / elapsedNanos * TimeUnit.SECONDS.toNanos(1);
+  }
+}
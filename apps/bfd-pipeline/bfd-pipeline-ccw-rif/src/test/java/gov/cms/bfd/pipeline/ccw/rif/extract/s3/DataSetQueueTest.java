@@ -1,16 +1,19 @@
 package gov.cms.bfd.pipeline.ccw.rif.extract.s3;
 
 import static gov.cms.bfd.pipeline.ccw.rif.extract.s3.DataSetQueue.MD5_CHECKSUM_META_DATA_FIELD;
+import static gov.cms.bfd.pipeline.ccw.rif.extract.s3.S3FileManager.MD5Result.MATCH;
 import static gov.cms.bfd.pipeline.ccw.rif.extract.s3.S3FileManager.MD5Result.MISMATCH;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -25,12 +28,15 @@ import gov.cms.bfd.pipeline.ccw.rif.extract.s3.task.S3TaskManager;
 import gov.cms.bfd.pipeline.sharedutils.s3.S3Dao;
 import gov.cms.bfd.pipeline.sharedutils.s3.S3DirectoryDao;
 import gov.cms.bfd.sharedutils.exceptions.BadCodeMonkeyException;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
@@ -188,6 +194,70 @@ public class DataSetQueueTest {
     verify(appMetrics).timer(DataSetQueue.TIMER_DOWNLOAD_ENTRY);
   }
 
+  /**
+   * Verify that {@link DataSetQueue#streamManifestEntry} streams the file, creates a timer to track
+   * the time, and falls back to a full download for gzip files.
+   */
+  @Test
+  void testStreamManifestEntry() throws IOException {
+    String s3Key =
+        createManifestS3Key(
+            CcwRifLoadJob.S3_PREFIX_PENDING_DATA_SETS, BASE_TIME_FOR_CLOCK.getEpochSecond(), 1);
+    var streamedFile = mock(S3DirectoryDao.StreamedFile.class);
+    doReturn("/a/b/c.tmp").when(streamedFile).getAbsolutePath();
+    doReturn(streamedFile).when(s3Files).streamFile(s3Key);
+
+    var entryRecord = S3DataFile.builder().s3Key(s3Key).build();
+    var manifestEntry = dataSetQueue.streamManifestEntry(entryRecord);
+    assertSame("/a/b/c.tmp", manifestEntry.getCachedFilePath());
+    verify(appMetrics).timer(DataSetQueue.TIMER_STREAM_ENTRY);
+
+    var gzipRecord = S3DataFile.builder().s3Key(s3Key + ".gz").build();
+    doReturn(mock(DataSetQueue.ManifestEntry.class))
+        .when(dataSetQueue)
+        .downloadManifestEntry(gzipRecord);
+    dataSetQueue.streamManifestEntry(gzipRecord);
+    verify(dataSetQueue).downloadManifestEntry(gzipRecord);
+  }
+
+  /**
+   * Verify that a streamed entry is only marked as completed if its checksum matches and that a
+   * mismatch resets its progress and removes the cached file, and that the mismatch is cleared once
+   * the reloaded file completes.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void testStreamedEntryCompletionRequiresMatchingChecksum() throws Exception {
+    S3ManifestFile manifestRecord = new S3ManifestFile();
+    S3DataFile dataFileRecord = new S3DataFile();
+    dataFileRecord.setParentManifest(manifestRecord);
+    dataFileRecord.setStatus(S3DataFile.FileStatus.STARTED);
+    dataFileRecord.setLastRecordNumber(1000);
+    dataFileRecord.setS3Key("some/s3/key");
+    var streamedFile = mock(S3DirectoryDao.StreamedFile.class);
+    doReturn("some/s3/key").when(streamedFile).getS3Key();
+    doReturn(streamedFile).when(s3Files).streamFile("some/s3/key");
+    var manifestEntry = dataSetQueue.streamManifestEntry(dataFileRecord);
+    assertFalse(manifestEntry.isReloadRequired());
+
+    doReturn(MISMATCH).when(s3Files).awaitMD5(streamedFile, MD5_CHECKSUM_META_DATA_FIELD);
+    assertThatThrownBy(manifestEntry::markAsCompleted)
+        .isInstanceOf(UncheckedIOException.class)
+        .hasMessageContaining("MD5 checksum mismatch for file some/s3/key");
+    assertEquals(S3DataFile.FileStatus.STARTED, dataFileRecord.getStatus());
+    assertEquals(0, dataFileRecord.getLastRecordNumber());
+    assertTrue(dataFileRecord.getChecksumMismatchTimestamp().isPresent());
+    assertTrue(manifestEntry.isReloadRequired());
+    verify(s3Records).updateS3DataFile(dataFileRecord);
+    verify(streamedFile).delete();
+
+    doReturn(MATCH).when(s3Files).awaitMD5(streamedFile, MD5_CHECKSUM_META_DATA_FIELD);
+    manifestEntry.markAsCompleted();
+    assertEquals(S3DataFile.FileStatus.COMPLETED, dataFileRecord.getStatus());
+    assertFalse(manifestEntry.isReloadRequired());
+  }
+
   /**
    * Verify that if any files are not in S3 {@link DataSetQueue#allEntriesExistInS3} returns false.
    */
@@ -227,6 +297,39 @@ public class DataSetQueueTest {
     Assertions.assertTrue(dataSetQueue.allEntriesExistInS3(manifestRecord));
   }
 
+  /**
+   * Verify that {@link DataSetQueue#readRequiredDataFileSizes} looks up the size of files missing
+   * from the bucket listing individually and fails if a file does not exist at all.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void testReadRequiredDataFileSizes() throws Exception {
+    final String s3Key =
+        createManifestS3Key(
+            CcwRifLoadJob.S3_PREFIX_PENDING_DATA_SETS, BASE_TIME_FOR_CLOCK.getEpochSecond(), 1);
+    final String keyPrefix = S3FileManager.extractPrefixFromS3Key(s3Key);
+    final String fileAKey = keyPrefix + "a";
+    final String fileBKey = keyPrefix + "b";
+    doAnswer(i -> Stream.of(createSummaryForS3Key(fileAKey)))
+        .when(s3Files)
+        .scanS3ForFiles(keyPrefix);
+    doReturn(250L).when(s3Files).readFileSize(fileBKey);
+
+    var manifestRecord = new S3ManifestFile();
+    manifestRecord.setS3Key(s3Key);
+    manifestRecord.getDataFiles().add(S3DataFile.builder().s3Key(fileAKey).build());
+    manifestRecord.getDataFiles().add(S3DataFile.builder().s3Key(fileBKey).build());
+    assertEquals(
+        Map.of(fileAKey, 100L, fileBKey, 250L),
+        dataSetQueue.readRequiredDataFileSizes(manifestRecord));
+    verify(s3Files, times(0)).readFileSize(fileAKey);
+
+    doThrow(new FileNotFoundException(fileBKey)).when(s3Files).readFileSize(fileBKey);
+    assertThatThrownBy(() -> dataSetQueue.readRequiredDataFileSizes(manifestRecord))
+        .isInstanceOf(FileNotFoundException.class);
+  }
+
   /** Verify that manifests can be started and are written with proper status and timestamp. */
   @Test
   void testMarkManifestAsStarted() {
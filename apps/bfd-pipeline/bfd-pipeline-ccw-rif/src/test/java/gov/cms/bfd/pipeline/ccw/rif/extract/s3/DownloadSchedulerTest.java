@@ -0,0 +1,261 @@
+package gov.cms.bfd.pipeline.ccw.rif.extract.s3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import gov.cms.bfd.model.rif.entities.S3DataFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+/** Unit tests for {@link DownloadScheduler}. */
+public class DownloadSchedulerTest {
+  /** Used to download files and check disk space. */
+  private DataSetQueue dataSetQueue;
+
+  /** Downloads handed to the executor but not yet run. */
+  private List<Runnable> startedDownloads;
+
+  /** Captures downloads rather than running them so tests control when they finish. */
+  private ExecutorService downloadExecutor;
+
+  /**
+   * Sets up the mocks.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @BeforeEach
+  void setUp() throws Exception {
+    dataSetQueue = mock(DataSetQueue.class);
+    doReturn(1_000L).when(dataSetQueue).getAvailableDiskSpaceInBytes();
+    startedDownloads = new ArrayList<>();
+    downloadExecutor = mock(ExecutorService.class);
+    doAnswer(invocation -> startedDownloads.add(invocation.getArgument(0)))
+        .when(downloadExecutor)
+        .execute(any());
+    doReturn(streamedEntry(CompletableFuture.completedFuture(null)))
+        .when(dataSetQueue)
+        .streamManifestEntry(any());
+  }
+
+  /**
+   * Verifies that files of the data set being loaded start before prefetched files and that no more
+   * than the maximum number of downloads run at once.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldStartCurrentFilesBeforePrefetches() throws Exception {
+    var scheduler = createScheduler(false, 1, 0);
+    var current1 = dataFile("current1");
+    var prefetch = dataFile("prefetch");
+    var current2 = dataFile("current2");
+
+    scheduler.download(current1, 10);
+    scheduler.prefetch(prefetch, 10);
+    scheduler.download(current2, 10);
+    assertEquals(1, startedDownloads.size());
+
+    runStartedDownloads();
+
+    InOrder order = inOrder(dataSetQueue);
+    order.verify(dataSetQueue).downloadManifestEntry(current1);
+    order.verify(dataSetQueue).downloadManifestEntry(current2);
+    order.verify(dataSetQueue).downloadManifestEntry(prefetch);
+  }
+
+  /**
+   * Verifies that a file waits while the disk does not have room for it alongside the running
+   * downloads and starts once space has been freed.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldWaitForDiskSpace() throws Exception {
+    var scheduler = createScheduler(false, 3, 100);
+    doReturn(500L).when(dataSetQueue).getAvailableDiskSpaceInBytes();
+
+    scheduler.download(dataFile("first"), 300);
+    scheduler.download(dataFile("second"), 300);
+    assertEquals(1, startedDownloads.size());
+
+    doReturn(800L).when(dataSetQueue).getAvailableDiskSpaceInBytes();
+    scheduler.startDownloads();
+    assertEquals(2, startedDownloads.size());
+  }
+
+  /**
+   * Verifies that a prefetch that has not started is replaced when the same file is requested for
+   * the data set being loaded.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldReplacePendingPrefetchOfSameFile() throws Exception {
+    var scheduler = createScheduler(false, 1, 0);
+    var prefetchRecord = S3DataFile.builder().s3Key("shared").fileName("prefetch").build();
+    var currentRecord = S3DataFile.builder().s3Key("shared").fileName("current").build();
+    var entry = mock(DataSetQueue.ManifestEntry.class);
+    doReturn(entry).when(dataSetQueue).downloadManifestEntry(currentRecord);
+
+    scheduler.download(dataFile("other"), 10);
+    scheduler.prefetch(prefetchRecord, 10);
+    Future<DataSetQueue.ManifestEntry> result = scheduler.download(currentRecord, 10);
+    runStartedDownloads();
+
+    assertSame(entry, result.get());
+    verify(dataSetQueue, never()).downloadManifestEntry(prefetchRecord);
+  }
+
+  /**
+   * Verifies that only files of the data set being loaded are streamed.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldStreamOnlyCurrentFiles() throws Exception {
+    var scheduler = createScheduler(true, 2, 0);
+    var current = dataFile("current");
+    var prefetch = dataFile("prefetch");
+
+    scheduler.download(current, 10);
+    scheduler.prefetch(prefetch, 10);
+    runStartedDownloads();
+
+    verify(dataSetQueue).streamManifestEntry(current);
+    verify(dataSetQueue).downloadManifestEntry(prefetch);
+  }
+
+  /**
+   * Verifies that a streamed file counts towards the maximum number of downloads until its download
+   * has finished rather than only until it has started.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldLimitConcurrencyUntilStreamedDownloadFinishes() throws Exception {
+    var scheduler = createScheduler(true, 1, 0);
+    var first = dataFile("first");
+    var second = dataFile("second");
+    var firstFinished = new CompletableFuture<Void>();
+    var firstEntry = streamedEntry(firstFinished);
+    doReturn(firstEntry).when(dataSetQueue).streamManifestEntry(first);
+
+    Future<DataSetQueue.ManifestEntry> result = scheduler.download(first, 10);
+    scheduler.download(second, 10);
+    runStartedDownloads();
+
+    assertSame(firstEntry, result.get());
+    verify(dataSetQueue, never()).streamManifestEntry(second);
+
+    firstFinished.complete(null);
+    runStartedDownloads();
+    verify(dataSetQueue).streamManifestEntry(second);
+  }
+
+  /**
+   * Verifies that the disk space of a streamed file is still committed while it downloads so that a
+   * file that does not fit alongside it waits for the download to finish.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldReserveDiskSpaceUntilStreamedDownloadFinishes() throws Exception {
+    var scheduler = createScheduler(true, 3, 100);
+    doReturn(500L).when(dataSetQueue).getAvailableDiskSpaceInBytes();
+    var first = dataFile("first");
+    var second = dataFile("second");
+    var firstFinished = new CompletableFuture<Void>();
+    doReturn(streamedEntry(firstFinished)).when(dataSetQueue).streamManifestEntry(first);
+
+    scheduler.download(first, 300);
+    scheduler.download(second, 300);
+    runStartedDownloads();
+    scheduler.startDownloads();
+    verify(dataSetQueue, never()).streamManifestEntry(second);
+
+    firstFinished.complete(null);
+    runStartedDownloads();
+    verify(dataSetQueue).streamManifestEntry(second);
+  }
+
+  /**
+   * Verifies that closing the scheduler cancels downloads that have not started.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldCancelPendingDownloadsOnClose() throws Exception {
+    var scheduler = createScheduler(false, 1, 0);
+    scheduler.download(dataFile("first"), 10);
+    Future<DataSetQueue.ManifestEntry> waiting = scheduler.download(dataFile("second"), 10);
+
+    scheduler.close();
+
+    assertTrue(waiting.isCancelled());
+    verify(downloadExecutor).shutdown();
+  }
+
+  /**
+   * Creates the scheduler being tested.
+   *
+   * @param streaming whether current files are streamed
+   * @param maxConcurrentDownloads maximum number of concurrent downloads
+   * @param reservedDiskBytes disk space downloads must leave free
+   * @return the scheduler
+   */
+  private DownloadScheduler createScheduler(
+      boolean streaming, int maxConcurrentDownloads, long reservedDiskBytes) {
+    return new DownloadScheduler(
+        dataSetQueue,
+        streaming,
+        maxConcurrentDownloads,
+        reservedDiskBytes,
+        downloadExecutor,
+        mock(ScheduledExecutorService.class));
+  }
+
+  /** Runs captured downloads, including any started as earlier ones finish, until none remain. */
+  private void runStartedDownloads() {
+    while (!startedDownloads.isEmpty()) {
+      startedDownloads.remove(0).run();
+    }
+  }
+
+  /**
+   * Creates a streamed entry whose download finishes when the given future completes.
+   *
+   * @param downloadFinished completes when the download finishes
+   * @return the entry
+   */
+  private static DataSetQueue.ManifestEntry streamedEntry(
+      CompletableFuture<Void> downloadFinished) {
+    var entry = mock(DataSetQueue.ManifestEntry.class);
+    doReturn(downloadFinished).when(entry).getDownloadFinished();
+    return entry;
+  }
+
+  /**
+   * Creates a data file record.
+   *
+   * @param s3Key the file's S3 key
+   * @return the record
+   */
+  private static S3DataFile dataFile(String s3Key) {
+    return S3DataFile.builder().s3Key(s3Key).fileName(s3Key).build();
+  }
+}
@@ -0,0 +1,111 @@
+package gov.cms.bfd.pipeline.rda.grpc.apps;
+
+import com.google.common.io.Files;
+import com.google.protobuf.MessageLite;
+import gov.cms.bfd.pipeline.rda.grpc.server.BinaryMessageWriter;
+import gov.cms.bfd.pipeline.rda.grpc.server.JsonMessageSource;
+import gov.cms.bfd.pipeline.rda.grpc.server.MessageFileIndex;
+import gov.cms.bfd.sharedutils.config.ConfigLoader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Converts an NDJSON file of FISS or MCS claim changes (as written by {@link StoreRdaJsonApp}) into
+ * the length delimited binary format read by {@link
+ * gov.cms.bfd.pipeline.rda.grpc.server.BinaryMessageSource}. A sparse {@link MessageFileIndex} is
+ * written alongside the output file (same name plus {@link BinaryMessageWriter#INDEX_FILE_SUFFIX})
+ * so that readers can skip to a starting sequence number without parsing the whole file.
+ */
+@Slf4j
+public class ConvertRdaJsonToBinaryApp {
+  /** Enum to determine which type of claim change the input file contains. */
+  private enum ClaimType {
+    /** File contains FissClaimChange objects. */
+    FISS,
+    /** File contains McsClaimChange objects. */
+    MCS
+  }
+
+  /**
+   * Converts a file. Configuration is controlled by command line arguments. Each argument specifies
+   * one setting. Valid arguments are:
+   *
+   * <ul>
+   *   <li>input.type:FISS|MCS sets the type of claim change in the input file
+   *   <li>input.file:filename the NDJSON file to read
+   *   <li>output.file:filename the binary file to write
+   *   <li>output.indexInterval:number number of messages between index entries (default is 1000)
+   * </ul>
+   *
+   * @param args the input arguments
+   * @throws Exception any exception thrown during the conversion
+   */
+  public static void main(String[] args) throws Exception {
+    final ConfigLoader config =
+        ConfigLoader.builder().addKeyValueCommandLineArguments(args).build();
+    final ClaimType claimType = config.enumValue("input.type", ClaimType.class);
+    final File inputFile = config.readableFile("input.file");
+    final File outputFile = config.writeableFile("output.file");
+    final int indexInterval =
+        config.intValue("output.indexInterval", BinaryMessageWriter.DEFAULT_INDEX_INTERVAL);
+
+    final long count =
+        switch (claimType) {
+          case FISS -> convert(
+              new JsonMessageSource<>(
+                  Files.asCharSource(inputFile, StandardCharsets.UTF_8),
+                  JsonMessageSource.fissParser()),
+              JsonMessageSource.fissParser(),
+              outputFile,
+              indexInterval);
+          case MCS -> convert(
+              new JsonMessageSource<>(
+                  Files.asCharSource(inputFile, StandardCharsets.UTF_8),
+                  JsonMessageSource.mcsParser()),
+              JsonMessageSource.mcsParser(),
+              outputFile,
+              indexInterval);
+        };
+    log.info("converted {} {} claims from {} to {}", count, claimType, inputFile, outputFile);
+  }
+
+  /**
+   * Copies every message from the source into a binary file and writes the resulting index into a
+   * companion file.
+   *
+   * @param source the source of messages
+   * @param parser used to extract sequence numbers from messages
+   * @param outputFile the binary file to write
+   * @param indexInterval number of messages between index entries
+   * @param <T> the message type
+   * @return number of messages written
+   * @throws Exception pass through from reading or writing
+   */
+  private static <T extends MessageLite> long convert(
+      JsonMessageSource<T> source,
+      JsonMessageSource.Parser<T> parser,
+      File outputFile,
+      int indexInterval)
+      throws Exception {
+    final MessageFileIndex index;
+    final long count;
+    try (source;
+        BinaryMessageWriter<T> writer =
+            new BinaryMessageWriter<>(
+                new FileOutputStream(outputFile), parser::sequenceNumberOf, indexInterval)) {
+      while (source.hasNext()) {
+        writer.write(source.next());
+      }
+      index = writer.getIndex();
+      count = writer.getMessageCount();
+    }
+    final File indexFile = new File(outputFile.getPath() + BinaryMessageWriter.INDEX_FILE_SUFFIX);
+    try (OutputStream output = new FileOutputStream(indexFile)) {
+      index.write(output);
+    }
+    return count;
+  }
+}
@@ -43,10 +43,11 @@ import software.amazon.awssdk.regions.Region;
  *
  * <p>The following settings are supported provided: hash.pepper, hash.iterations, database.url,
  * database.user, database.password, job.batchSize, job.migration, file.location, file.fiss,
- * file.mcs, s3.region, and s3.bucket. job.migration (defaults to false) is a boolean value
- * indicating whether to run flyway migrations (true runs the migrations, false does not). The
+ * file.mcs, file.format, s3.region, and s3.bucket. job.migration (defaults to false) is a boolean
+ * value indicating whether to run flyway migrations (true runs the migrations, false does not). The
  * file.fiss and file.mcs each default to loading no data so either or both can be provided as
- * needed.
+ * needed. file.format (defaults to Ndjson) can be set to Binary to read length delimited binary
+ * protobuf files (local or in S3) which are much faster to parse than NDJSON.
  */
 public class LoadRdaJsonApp {
   /** Used for logging. */
@@ -207,6 +208,9 @@ public class LoadRdaJsonApp {
     /** The starting MCS sequence number. */
     private final Optional<Long> startingMcsSequenceNumber;
 
+    /** The format of the FISS and MCS files. */
+    private final RdaMessageSourceFactory.FileFormat fileFormat;
+
     /** The S3 region to use if the source is an S3 connection. */
     private final Optional<Region> awsRegion;
 
@@ -242,6 +246,10 @@ public class LoadRdaJsonApp {
       rdaVersion = options.stringOption("rda.version").orElse(RdaService.RDA_PROTO_VERSION);
       fissFile = options.readableFileOption("file.fiss");
       mcsFile = options.readableFileOption("file.mcs");
+      fileFormat =
+          options
+              .enumOption("file.format", RdaMessageSourceFactory.FileFormat.class)
+              .orElse(RdaMessageSourceFactory.FileFormat.Ndjson);
       startingFissSequenceNumber = options.longOption("sequenceNumber.fiss");
       startingMcsSequenceNumber = options.longOption("sequenceNumber.mcs");
       awsRegion = options.parsedOption("aws.region", Region.class, Region::of);
@@ -313,9 +321,10 @@ public class LoadRdaJsonApp {
       final S3ClientConfig s3ClientConfig =
           S3ClientConfig.s3Builder().awsClientConfig(awsClientConfig).build();
       return RdaMessageSourceFactory.Config.builder()
-          .fissClaimJsonFile(fissFile.orElse(null))
-          .mcsClaimJsonFile(mcsFile.orElse(null))
+          .fissClaimFile(fileFormat, fissFile.orElse(null))
+          .mcsClaimFile(fileFormat, mcsFile.orElse(null))
           .s3Bucket(s3Bucket.orElse(null))
+          .s3FileFormat(fileFormat)
           .s3ClientConfig(s3ClientConfig)
           .s3Directory(s3Directory.orElse(null))
           .build();
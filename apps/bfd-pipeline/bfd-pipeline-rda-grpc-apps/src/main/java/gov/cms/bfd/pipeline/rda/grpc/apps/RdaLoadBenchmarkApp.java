@@ -0,0 +1,536 @@
+package gov.cms.bfd.pipeline.rda.grpc.apps;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zaxxer.hikari.HikariDataSource;
+import gov.cms.bfd.pipeline.rda.grpc.AbstractRdaLoadJob;
+import gov.cms.bfd.pipeline.rda.grpc.RdaChange;
+import gov.cms.bfd.pipeline.rda.grpc.RdaLoadOptions;
+import gov.cms.bfd.pipeline.rda.grpc.RdaServerJob;
+import gov.cms.bfd.pipeline.rda.grpc.server.RandomClaimGeneratorConfig;
+import gov.cms.bfd.pipeline.rda.grpc.server.RdaMessageSourceFactory;
+import gov.cms.bfd.pipeline.rda.grpc.server.RdaServer;
+import gov.cms.bfd.pipeline.rda.grpc.server.RdaService;
+import gov.cms.bfd.pipeline.rda.grpc.sink.direct.FissClaimRdaSink;
+import gov.cms.bfd.pipeline.rda.grpc.sink.direct.McsClaimRdaSink;
+import gov.cms.bfd.pipeline.rda.grpc.source.RdaSourceConfig;
+import gov.cms.bfd.pipeline.rda.grpc.source.RdaVersion;
+import gov.cms.bfd.pipeline.sharedutils.IdHasher;
+import gov.cms.bfd.pipeline.sharedutils.PipelineApplicationState;
+import gov.cms.bfd.pipeline.sharedutils.PipelineJob;
+import gov.cms.bfd.sharedutils.config.ConfigLoader;
+import gov.cms.bfd.sharedutils.database.DatabaseOptions;
+import gov.cms.bfd.sharedutils.database.DatabaseSchemaManager;
+import gov.cms.bfd.sharedutils.database.HikariDataSourceFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.Nullable;
+import java.io.File;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Benchmark program that measures end-to-end RDA ingest throughput. For each claim type it starts a
+ * local {@link RdaServer} serving either randomly generated claims or claims replayed from a file,
+ * runs the appropriate RDA load job against a (typically local) PostgreSQL database until the
+ * stream is exhausted, and then reports throughput, latency percentiles, and a breakdown of
+ * database time as JSON. The JSON is intended to be archived by CI so that throughput can be
+ * tracked over time. This program was written for testing purposes and is not planned to be
+ * executed in a production environment.
+ *
+ * <p>Configuration is through a combination of a properties file (passed as the only argument or
+ * using the config.properties system property) and system properties. Supported settings are:
+ *
+ * <ul>
+ *   <li>database.url, database.user, database.password, database.maxConnections: database to load
+ *   <li>job.migration: when true run flyway migrations before starting (default false)
+ *   <li>job.sinkType, job.writeThreads, job.batchSize: same as {@link LoadRdaJsonApp}
+ *   <li>hash.pepper, hash.iterations: MBI hashing settings
+ *   <li>benchmark.fissCount, benchmark.mcsCount: number of claims of each type to generate, zero
+ *       skips that claim type (defaults 10000 and 10000)
+ *   <li>benchmark.seed: random number seed used to generate claims (default 1)
+ *   <li>benchmark.childCountMultiplier: scales the size of child collections in generated claims
+ *       (default 1)
+ *   <li>benchmark.updateRatio: fraction (0 to 1) of generated claims that update a previously sent
+ *       claim rather than creating a new one (default 0)
+ *   <li>benchmark.messagesPerSecond: maximum rate at which the server sends claims, zero for
+ *       unlimited (default 0)
+ *   <li>benchmark.output: file to write the JSON report to (default is standard output)
+ *   <li>file.fiss, file.mcs, file.format: replay claims from a file instead of generating them
+ * </ul>
+ *
+ * <p>Latency is measured as the time between the claim change timestamp and the time the batch
+ * containing it was written to the database. Since replayed claims carry their original timestamps
+ * latency values are only meaningful for generated claims.
+ */
+@Slf4j
+public class RdaLoadBenchmarkApp {
+  /** Percentiles computed for latency and write time distributions. */
+  private static final double[] PERCENTILES = {0.5, 0.9, 0.95, 0.99};
+
+  /**
+   * Runs the benchmark for each configured claim type and writes the report.
+   *
+   * @param args to be passed in by the command line
+   * @throws Exception if the benchmark could not be run
+   */
+  public static void main(String[] args) throws Exception {
+    final ConfigLoader.Builder options = ConfigLoader.builder();
+    if (args.length == 1) {
+      options.addPropertiesFile(new File(args[0]));
+    } else if (System.getProperty("config.properties", "").length() > 0) {
+      options.addPropertiesFile(new File(System.getProperty("config.properties")));
+    }
+    options.addSystemProperties();
+    final Config config = new Config(options.build());
+
+    final Map<String, Object> report = new LinkedHashMap<>();
+    report.put("startTime", Instant.now().toString());
+    report.put("settings", config.settingsForReport());
+    final List<Map<String, Object>> results = new ArrayList<>();
+    for (ClaimType claimType : ClaimType.values()) {
+      if (config.isClaimTypeEnabled(claimType)) {
+        results.add(runBenchmark(config, claimType));
+      }
+    }
+    report.put("results", results);
+
+    final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    if (config.outputFile.isPresent()) {
+      mapper.writeValue(config.outputFile.get(), report);
+      log.info("wrote benchmark report to {}", config.outputFile.get());
+    } else {
+      System.out.println(mapper.writeValueAsString(report));
+    }
+  }
+
+  /**
+   * Runs the benchmark for a single claim type. A fresh server, data source, and set of metric
+   * registries are used for each claim type so that metrics from one run do not leak into another.
+   *
+   * @param config our configuration
+   * @param claimType the type of claim to load
+   * @return the results for the claim type
+   * @throws Exception if the benchmark could not be run
+   */
+  private static Map<String, Object> runBenchmark(Config config, ClaimType claimType)
+      throws Exception {
+    final MetricRegistry metrics = new MetricRegistry();
+    final SimpleMeterRegistry meters = createMeterRegistry();
+    final Map<String, Object> result = new LinkedHashMap<>();
+    final long[] elapsedNanos = new long[1];
+
+    log.info("starting benchmark: claimType={}", claimType);
+    RdaServer.LocalConfig.builder()
+        .serviceConfig(config.createMessageSourceFactoryConfig(claimType))
+        .build()
+        .runWithPortParam(
+            port -> {
+              final HikariDataSource pooledDataSource =
+                  PipelineApplicationState.createPooledDataSource(
+                      new HikariDataSourceFactory(config.createDatabaseOptions()), metrics);
+              if (config.runSchemaMigration) {
+                log.info("running database migration");
+                DatabaseSchemaManager.createOrUpdateSchema(pooledDataSource);
+              }
+              try (PipelineApplicationState appState =
+                  new PipelineApplicationState(
+                      meters,
+                      metrics,
+                      pooledDataSource,
+                      PipelineApplicationState.RDA_PERSISTENCE_UNIT_NAME,
+                      Clock.systemUTC())) {
+                final PipelineJob job = config.createPipelineJob(claimType, port, appState);
+                final long startNanos = System.nanoTime();
+                job.call();
+                elapsedNanos[0] = System.nanoTime() - startNanos;
+              }
+            });
+
+    final String sinkName = claimType.sinkClass.getSimpleName();
+    final double elapsedSeconds = elapsedNanos[0] / 1_000_000_000.0;
+    final double claims = counterValue(meters, MetricRegistry.name(sinkName, "writes", "total"));
+    result.put("claimType", claimType.name());
+    result.put("claims", (long) claims);
+    result.put("elapsedSeconds", elapsedSeconds);
+    result.put("claimsPerSecond", elapsedSeconds > 0 ? claims / elapsedSeconds : 0.0);
+    result.put(
+        "transformFailures",
+        (long) counterValue(meters, MetricRegistry.name(sinkName, "transform", "failures")));
+    result.put(
+        "latencyMillis",
+        summaryStats(
+            meters.find(MetricRegistry.name(sinkName, "change", "latency", "millis")).summary()));
+
+    final Map<String, Object> database = new LinkedHashMap<>();
+    final Timer writeTimer =
+        meters.find(MetricRegistry.name(sinkName, "writes", "elapsed")).timer();
+    final double writeMillis =
+        writeTimer == null ? 0.0 : writeTimer.totalTime(TimeUnit.MILLISECONDS);
+    database.put("writeMillis", writeMillis);
+    database.put("writeFraction", elapsedSeconds > 0 ? writeMillis / 1000.0 / elapsedSeconds : 0.0);
+    database.put("transactions", writeTimer == null ? 0L : writeTimer.count());
+    database.put("transactionMillis", timerStats(writeTimer));
+    database.put(
+        "batchSize",
+        summaryStats(meters.find(MetricRegistry.name(sinkName, "writes", "batchSize")).summary()));
+    final DistributionSummary inserts =
+        meters.find(MetricRegistry.name(sinkName, "insertCount")).summary();
+    database.put("insertStatements", inserts == null ? 0L : (long) inserts.totalAmount());
+    database.put(
+        "objectsMerged",
+        (long) counterValue(meters, MetricRegistry.name(sinkName, "writes", "merged")));
+    database.put("connectionWaitMillis", connectionWaitMillis(metrics));
+    result.put("database", database);
+    log.info("finished benchmark: claimType={} result={}", claimType, result);
+    return result;
+  }
+
+  /**
+   * Creates a {@link SimpleMeterRegistry} configured to compute percentiles over the entire run for
+   * the latency and write time metrics reported by the sinks.
+   *
+   * @return the registry
+   */
+  private static SimpleMeterRegistry createMeterRegistry() {
+    final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    meters
+        .config()
+        .meterFilter(
+            new MeterFilter() {
+              @Override
+              public DistributionStatisticConfig configure(
+                  Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().endsWith("latency.millis")
+                    || id.getName().endsWith("writes.elapsed")) {
+                  return DistributionStatisticConfig.builder()
+                      .percentiles(PERCENTILES)
+                      .expiry(Duration.ofDays(1))
+                      .bufferLength(1)
+                      .build()
+                      .merge(config);
+                }
+                return config;
+              }
+            });
+    return meters;
+  }
+
+  /**
+   * Gets the value of a counter or zero if the counter does not exist.
+   *
+   * @param meters the registry
+   * @param name name of the counter
+   * @return the value
+   */
+  private static double counterValue(MeterRegistry meters, String name) {
+    final Counter counter = meters.find(name).counter();
+    return counter == null ? 0.0 : counter.count();
+  }
+
+  /**
+   * Summarizes a {@link DistributionSummary} as a map containing count, mean, max, and percentiles.
+   *
+   * @param summary the summary or null
+   * @return the statistics
+   */
+  private static Map<String, Object> summaryStats(@Nullable DistributionSummary summary) {
+    final Map<String, Object> stats = new LinkedHashMap<>();
+    if (summary != null) {
+      final var snapshot = summary.takeSnapshot();
+      stats.put("count", snapshot.count());
+      stats.put("mean", snapshot.mean());
+      stats.put("max", snapshot.max());
+      for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+        stats.put(percentileName(percentile), percentile.value());
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * Summarizes a {@link Timer} as a map containing count, mean, max, and percentiles in
+   * milliseconds.
+   *
+   * @param timer the timer or null
+   * @return the statistics
+   */
+  private static Map<String, Object> timerStats(@Nullable Timer timer) {
+    final Map<String, Object> stats = new LinkedHashMap<>();
+    if (timer != null) {
+      final var snapshot = timer.takeSnapshot();
+      stats.put("count", snapshot.count());
+      stats.put("mean", snapshot.mean(TimeUnit.MILLISECONDS));
+      stats.put("max", snapshot.max(TimeUnit.MILLISECONDS));
+      for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+        stats.put(percentileName(percentile), percentile.value(TimeUnit.MILLISECONDS));
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * Produces a name like p50 or p99 for a percentile.
+   *
+   * @param percentile the percentile
+   * @return the name
+   */
+  private static String percentileName(ValueAtPercentile percentile) {
+    return "p" + Math.round(percentile.percentile() * 100);
+  }
+
+  /**
+   * Estimates the total time spent waiting for database connections using the timers registered by
+   * Hikari in the Dropwizard registry.
+   *
+   * @param metrics the registry containing the Hikari metrics
+   * @return total milliseconds spent waiting for connections
+   */
+  private static double connectionWaitMillis(MetricRegistry metrics) {
+    double totalNanos = 0;
+    for (var entry : metrics.getTimers().entrySet()) {
+      if (entry.getKey().endsWith(".pool.Wait")) {
+        final var timer = entry.getValue();
+        totalNanos += timer.getCount() * timer.getSnapshot().getMean();
+      }
+    }
+    return totalNanos / 1_000_000.0;
+  }
+
+  /** The claim types that can be benchmarked. */
+  @AllArgsConstructor
+  private enum ClaimType {
+    /** FISS claims. */
+    FISS(FissClaimRdaSink.class),
+    /** MCS claims. */
+    MCS(McsClaimRdaSink.class);
+
+    /** The sink class whose metrics are reported for this claim type. */
+    private final Class<?> sinkClass;
+  }
+
+  /** Configuration settings for the benchmark. */
+  private static class Config {
+    /** The hash pepper. */
+    private final String hashPepper;
+
+    /** The hash iterations. */
+    private final int hashIterations;
+
+    /** The database url. */
+    private final String dbUrl;
+
+    /** The database user. */
+    private final String dbUser;
+
+    /** The database password. */
+    private final String dbPassword;
+
+    /** Maximum number of database connections. */
+    private final int dbMaxConnections;
+
+    /** Whether to run the schema migration. */
+    private final boolean runSchemaMigration;
+
+    /** Type of sink to use when loading claims. */
+    private final AbstractRdaLoadJob.SinkTypePreference sinkTypePreference;
+
+    /** The number of write threads. */
+    private final int writeThreads;
+
+    /** The batch size. */
+    private final int batchSize;
+
+    /** Number of FISS claims to generate. */
+    private final int fissCount;
+
+    /** Number of MCS claims to generate. */
+    private final int mcsCount;
+
+    /** Seed for random claim generation. */
+    private final long seed;
+
+    /** Multiplier for child collection sizes in generated claims. */
+    private final int childCountMultiplier;
+
+    /** Fraction of generated claims that are updates to previously generated claims. */
+    private final double updateRatio;
+
+    /** Maximum messages per second sent by the server. */
+    private final double messagesPerSecond;
+
+    /** Optional file to replay FISS claims from. */
+    private final Optional<File> fissFile;
+
+    /** Optional file to replay MCS claims from. */
+    private final Optional<File> mcsFile;
+
+    /** Format of the replay files. */
+    private final RdaMessageSourceFactory.FileFormat fileFormat;
+
+    /** Optional file to write the report to. */
+    private final Optional<File> outputFile;
+
+    /**
+     * Loads the configuration settings.
+     *
+     * @param options source of configuration settings
+     */
+    private Config(ConfigLoader options) {
+      hashPepper = options.stringValue("hash.pepper", "notarealpepper");
+      hashIterations = options.intValue("hash.iterations", 100);
+      dbUrl = options.stringValue("database.url");
+      dbUser = options.stringValue("database.user", "");
+      dbPassword = options.stringValue("database.password", "");
+      runSchemaMigration = options.booleanValue("job.migration", false);
+      sinkTypePreference =
+          options
+              .enumOption("job.sinkType", AbstractRdaLoadJob.SinkTypePreference.class)
+              .orElse(AbstractRdaLoadJob.SinkTypePreference.PRE_PROCESSOR);
+      writeThreads = options.intValue("job.writeThreads", 1);
+      batchSize = options.intValue("job.batchSize", 100);
+      dbMaxConnections =
+          options.intValue("database.maxConnections", Math.max(10, 5 * writeThreads));
+      fissCount = options.intValue("benchmark.fissCount", 10_000);
+      mcsCount = options.intValue("benchmark.mcsCount", 10_000);
+      seed = options.longOption("benchmark.seed").orElse(1L);
+      childCountMultiplier = options.intValue("benchmark.childCountMultiplier", 1);
+      updateRatio = options.floatValue("benchmark.updateRatio", 0.0f);
+      messagesPerSecond = options.floatValue("benchmark.messagesPerSecond", 0.0f);
+      fissFile = options.readableFileOption("file.fiss");
+      mcsFile = options.readableFileOption("file.mcs");
+      fileFormat =
+          options
+              .enumOption("file.format", RdaMessageSourceFactory.FileFormat.class)
+              .orElse(RdaMessageSourceFactory.FileFormat.Ndjson);
+      outputFile = options.stringOption("benchmark.output").map(File::new);
+    }
+
+    /**
+     * Determines if a claim type should be benchmarked.
+     *
+     * @param claimType the claim type
+     * @return true if claims of this type should be loaded
+     */
+    private boolean isClaimTypeEnabled(ClaimType claimType) {
+      return switch (claimType) {
+        case FISS -> fissFile.isPresent() || fissCount > 0;
+        case MCS -> mcsFile.isPresent() || mcsCount > 0;
+      };
+    }
+
+    /**
+     * Creates a map of the settings that affect results for inclusion in the report.
+     *
+     * @return the settings
+     */
+    private Map<String, Object> settingsForReport() {
+      final Map<String, Object> settings = new LinkedHashMap<>();
+      settings.put("sinkType", sinkTypePreference.name());
+      settings.put("writeThreads", writeThreads);
+      settings.put("batchSize", batchSize);
+      settings.put("fissSource", fissFile.map(File::getName).orElse("random:" + fissCount));
+      settings.put("mcsSource", mcsFile.map(File::getName).orElse("random:" + mcsCount));
+      settings.put("seed", seed);
+      settings.put("childCountMultiplier", childCountMultiplier);
+      settings.put("updateRatio", updateRatio);
+      settings.put("messagesPerSecond", messagesPerSecond);
+      return settings;
+    }
+
+    /**
+     * Creates the {@link DatabaseOptions} from this configuration.
+     *
+     * @return the database options to be used
+     */
+    private DatabaseOptions createDatabaseOptions() {
+      return DatabaseOptions.builder()
+          .authenticationType(DatabaseOptions.AuthenticationType.JDBC)
+          .databaseUrl(dbUrl)
+          .databaseUsername(dbUser)
+          .databasePassword(dbPassword)
+          .maxPoolSize(dbMaxConnections)
+          .build();
+    }
+
+    /**
+     * Creates a {@link RdaMessageSourceFactory.Config} that serves claims of the specified type
+     * either from a replay file or from the random claim generator.
+     *
+     * @param claimType the type of claim being benchmarked
+     * @return the config
+     */
+    private RdaMessageSourceFactory.Config createMessageSourceFactoryConfig(ClaimType claimType) {
+      final int count = claimType == ClaimType.FISS ? fissCount : mcsCount;
+      final int maxUniqueClaimIds =
+          updateRatio > 0 ? Math.max(1, (int) Math.round(count * (1.0 - updateRatio))) : 0;
+      final RandomClaimGeneratorConfig randomClaimConfig =
+          RandomClaimGeneratorConfig.builder()
+              .seed(seed)
+              .maxToSend(count)
+              .maxUniqueClaimIds(maxUniqueClaimIds)
+              .childCountMultiplier(childCountMultiplier)
+              .build();
+      return RdaMessageSourceFactory.Config.builder()
+          .randomClaimConfig(randomClaimConfig)
+          .fissClaimFile(fileFormat, claimType == ClaimType.FISS ? fissFile.orElse(null) : null)
+          .mcsClaimFile(fileFormat, claimType == ClaimType.MCS ? mcsFile.orElse(null) : null)
+          .maxMessagesPerSecond(messagesPerSecond)
+          .build();
+    }
+
+    /**
+     * Creates the load job for the specified claim type. The job always starts from the beginning
+     * of the stream so that repeated runs against the same database process the same claims.
+     *
+     * @param claimType the type of claim being benchmarked
+     * @param port the port our local server is listening on
+     * @param appState the pipeline application state
+     * @return the job
+     */
+    private PipelineJob createPipelineJob(
+        ClaimType claimType, int port, PipelineApplicationState appState) {
+      final IdHasher.Config idHasherConfig = new IdHasher.Config(hashIterations, hashPepper);
+      final AbstractRdaLoadJob.Config jobConfig =
+          AbstractRdaLoadJob.Config.builder()
+              .runInterval(Duration.ofDays(1))
+              .writeThreads(writeThreads)
+              .batchSize(batchSize)
+              .sinkTypePreference(sinkTypePreference)
+              .rdaVersion(RdaVersion.builder().versionString(RdaService.RDA_PROTO_VERSION).build())
+              .startingFissSeqNum(RdaChange.MIN_SEQUENCE_NUM)
+              .startingMcsSeqNum(RdaChange.MIN_SEQUENCE_NUM)
+              .build();
+      final RdaSourceConfig grpcConfig =
+          RdaSourceConfig.builder()
+              .serverType(RdaSourceConfig.ServerType.Remote)
+              .host("localhost")
+              .port(port)
+              .maxIdle(Duration.ofDays(1))
+              .build();
+      final RdaLoadOptions loadOptions =
+          new RdaLoadOptions(jobConfig, grpcConfig, new RdaServerJob.Config(), 0, idHasherConfig);
+      final var mbiCache = loadOptions.createComputedMbiCache(appState);
+      return claimType == ClaimType.FISS
+          ? loadOptions.createFissClaimsLoadJob(appState, mbiCache)
+          : loadOptions.createMcsClaimsLoadJob(appState, mbiCache);
+    }
+  }
+}
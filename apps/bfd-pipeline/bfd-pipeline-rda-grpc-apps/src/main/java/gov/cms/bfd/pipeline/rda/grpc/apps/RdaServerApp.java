@@ -27,6 +27,8 @@ public class RdaServerApp {
    *   <li>random creates a random source using current time as the PRNG seed
    *   <li>fissFile:filename creates a source that returns FissClaims contained in an NDJSON file
    *   <li>mcsFile:filename creates a source that returns McsClaims contained in an NDJSON file
+   *   <li>file.format:Ndjson|Binary sets the format of the fiss, mcs, and S3 files (default is
+   *       Ndjson)
    * </ul>
    *
    * @param args the input arguments
@@ -73,12 +75,17 @@ public class RdaServerApp {
               .useTimestampForErrorSeed(true)
               .maxToSend(config.intValue("maxToSend", 5_000))
               .build();
+      final var fileFormat =
+          config
+              .enumOption("file.format", RdaMessageSourceFactory.FileFormat.class)
+              .orElse(RdaMessageSourceFactory.FileFormat.Ndjson);
       final var messageSourceFactoryConfig =
           RdaMessageSourceFactory.Config.builder()
               .randomClaimConfig(randomClaimConfig)
-              .fissClaimJsonFile(config.readableFileOption("file.fiss").orElse(null))
-              .mcsClaimJsonFile(config.readableFileOption("file.mcs").orElse(null))
+              .fissClaimFile(fileFormat, config.readableFileOption("file.fiss").orElse(null))
+              .mcsClaimFile(fileFormat, config.readableFileOption("file.mcs").orElse(null))
               .s3Bucket(config.stringOption("s3.bucket").orElse(null))
+              .s3FileFormat(fileFormat)
               .s3ClientConfig(
                   S3ClientConfig.s3Builder()
                       .region(
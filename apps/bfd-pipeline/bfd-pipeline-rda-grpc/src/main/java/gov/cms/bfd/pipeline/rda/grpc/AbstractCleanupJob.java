@@ -1,10 +1,31 @@
 package gov.cms.bfd.pipeline.rda.grpc;
 
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.RateLimiter;
 import gov.cms.bfd.pipeline.sharedutils.TransactionManager;
-import jakarta.persistence.Query;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
-import lombok.AllArgsConstructor;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import lombok.Getter;
 import org.apache.commons.text.StringSubstitutor;
 import org.slf4j.Logger;
@@ -12,39 +33,198 @@ import org.slf4j.Logger;
 /**
  * An abstract class that encapsulates the common code for executing a job to clean up old
  * pre-adjudicated claims from the RDA pipeline tables.
+ *
+ * <p>If the parent table has been converted into a table partitioned by {@code last_updated} (see
+ * the {@code partition_rda_claims.sql} script) any partition whose claims have all expired is
+ * detached and dropped as a whole before falling back to row level deletes for the remaining
+ * claims. Dropping a partition avoids the WAL volume, table bloat and vacuum work that come with
+ * deleting the same rows one transaction at a time. The child tables of a partitioned parent table
+ * have no {@code ON DELETE CASCADE} foreign key so the row level deletes remove a claim's child
+ * rows in the same transaction as the claim itself.
+ *
+ * <p>Row level deletes divide the span of {@code last_updated} values of the expired claims into at
+ * most {@link #RANGE_COUNT} disjoint windows. The claims in a window are found using the index on
+ * {@code last_updated} so each window is an independent unit of work that only reads its own part
+ * of the table. Several worker threads, each with its own {@link TransactionManager}, can delete
+ * from different windows at the same time without competing for the same rows. The claims deleted
+ * per run are shared by all workers and an optional rate limit caps the number of claims deleted
+ * per second so that the load placed on the database stays within a budget. Windows are visited
+ * oldest first and are computed again by every run from the claims that are still expired, so a run
+ * that ends before every window has been cleaned is resumed by the next run.
  */
 @Getter
-@AllArgsConstructor
 public abstract class AbstractCleanupJob implements CleanupJob {
 
   /** maximum age of claims in days from current date. */
   private static final int OLDEST_CLAIM_AGE_IN_DAYS = 60;
 
-  /** template for delete query. */
-  private static final String DELETE_QUERY_TEMPLATE =
-      "delete from ${parentTableName} t where t.${parentTableKey} in ( "
-          + "  select ${parentTableKey} "
+  /**
+   * template for query finding the oldest {@code last_updated} value of the expired claims and the
+   * cutoff, both in epoch milliseconds rounded down. Returns a null oldest value if no claims have
+   * expired.
+   */
+  private static final String EXPIRED_SPAN_QUERY_TEMPLATE =
+      "select floor(extract(epoch from min(last_updated)) * 1000), "
+          + "  floor(extract(epoch from (Now() -Interval '${interval} days')) * 1000) "
           + "  from ${parentTableName} "
-          + "  where last_updated between "
-          + "  (select min(last_updated) from ${parentTableName}) and (Now() -Interval '${interval} days') "
+          + "  where last_updated <= (Now() -Interval '${interval} days') "
+          + "  and api_source not like 'S3%'";
+
+  /**
+   * template for query selecting the keys of expired claims in a window of {@code last_updated}
+   * values. The rows are locked so that a claim updated by the pipeline while its children are
+   * being deleted is not deleted.
+   */
+  private static final String SELECT_EXPIRED_KEYS_QUERY_TEMPLATE =
+      "select ${parentTableKey} "
+          + "  from ${parentTableName} "
+          + "  where last_updated >= to_timestamp(${lowerMillis} / 1000.0) "
+          + "  and last_updated < to_timestamp(${upperMillis} / 1000.0) "
+          + "  and last_updated <= (Now() -Interval '${interval} days') "
           + "  and api_source not like 'S3%' "
-          + "  limit ${limit})";
+          + "  limit ${limit} "
+          + "  for update";
+
+  /**
+   * template for deleting the rows of a table whose key is in a list of claim keys. Used for the
+   * child tables as well as the parent table since the child tables of a partitioned parent table
+   * have no {@code ON DELETE CASCADE} foreign key.
+   */
+  private static final String DELETE_KEYS_QUERY_TEMPLATE =
+      "delete from ${tableName} where ${parentTableKey} in (:keys)";
+
+  /** Maximum number of windows that the expired claims are divided into for row level deletes. */
+  @VisibleForTesting static final int RANGE_COUNT = 16;
+
+  /**
+   * Maximum time in milliseconds that a delete transaction waits for a lock before giving up on its
+   * window for the current run.
+   */
+  private static final int LOCK_TIMEOUT_MILLIS = 30_000;
+
+  /** query that limits the time the current transaction will wait for a lock. */
+  private static final String LOCK_TIMEOUT_QUERY =
+      "select set_config('lock_timeout', '" + LOCK_TIMEOUT_MILLIS + "', true)";
+
+  /**
+   * SQL states reported by PostgreSQL when a statement fails because of lock contention. These are
+   * {@code lock_not_available} and {@code deadlock_detected}.
+   */
+  private static final Set<String> LOCK_FAILURE_SQL_STATES = Set.of("55P03", "40P01");
+
+  /**
+   * template for query listing partitions of the parent table in ascending name order along with
+   * whether the upper bound of each partition's range is at or before the cutoff. The default
+   * partition and partitions with no upper bound are never considered expired.
+   */
+  private static final String PARTITIONS_QUERY_TEMPLATE =
+      "select c.relname, coalesce( "
+          + "  substring(pg_get_expr(c.relpartbound, c.oid) from 'TO \\(''([^'']+)''\\)')::timestamptz "
+          + "  <= (Now() -Interval '${interval} days'), false) "
+          + "  from pg_catalog.pg_inherits i "
+          + "  join pg_catalog.pg_class c on c.oid = i.inhrelid "
+          + "  join pg_catalog.pg_class p on p.oid = i.inhparent "
+          + "  join pg_catalog.pg_namespace n on n.oid = p.relnamespace "
+          + "  where n.nspname = '${schemaName}' and p.relname = '${tableName}' "
+          + "  order by c.relname";
+
+  /**
+   * template for query that determines whether a partition contains any claims that the row level
+   * delete would not remove. Such partitions can not be dropped.
+   */
+  private static final String RETAINED_CLAIMS_QUERY_TEMPLATE =
+      "select count(*) from ( "
+          + "  select 1 from ${partitionName} "
+          + "  where last_updated is null "
+          + "  or last_updated > (Now() -Interval '${interval} days') "
+          + "  or api_source is null "
+          + "  or api_source like 'S3%' "
+          + "  limit 1) r";
+
+  /** template for query counting claims in a partition. */
+  private static final String COUNT_QUERY_TEMPLATE = "select count(*) from ${partitionName}";
+
+  /**
+   * template for deleting child table rows belonging to claims in a partition. Child tables are not
+   * partitioned so they have to be cleaned up before the partition is dropped.
+   */
+  private static final String DELETE_CHILDREN_QUERY_TEMPLATE =
+      "delete from ${childTableName} c using ${partitionName} p "
+          + "  where c.${parentTableKey} = p.${parentTableKey}";
+
+  /** template for detaching a partition from the parent table. */
+  private static final String DETACH_PARTITION_TEMPLATE =
+      "alter table ${parentTableName} detach partition ${partitionName}";
+
+  /** template for dropping a detached partition. */
+  private static final String DROP_PARTITION_TEMPLATE = "drop table ${partitionName}";
 
   /** TransactionManager to use for db operations. */
   private final TransactionManager transactionManager;
 
+  /**
+   * Creates a TransactionManager for each worker deleting claims from windows. Each one is closed
+   * once its worker has finished.
+   */
+  private final Supplier<TransactionManager> workerTransactionManagers;
+
   /** the number of claims to delete in a single run of the cleanup job. */
   private final int cleanupRunSize;
 
   /** the number of claims to include in a single delete transaction. */
   private final int cleanupTransactionSize;
 
+  /** the number of worker threads deleting claims from windows in parallel. */
+  private final int cleanupThreads;
+
+  /** Limits the number of claims deleted per second. Null if there is no limit. */
+  @Nullable private final RateLimiter rateLimiter;
+
   /** when true the cleanup job should run, false otherwise. */
   private final boolean enabled;
 
   /** Logger provided from each subclass. */
   private final Logger logger;
 
+  /** Metrics tracking the claims deleted and the transactions used to delete them. */
+  private final Metrics metrics;
+
+  /**
+   * Constructs an AbstractCleanupJob.
+   *
+   * @param transactionManager the TransactionManager to use for dropping partitions
+   * @param workerTransactionManagers creates a TransactionManager for each delete worker
+   * @param cleanupRunSize the number of claims to delete in a single run of the cleanup job
+   * @param cleanupTransactionSize the number of claims to include in a single delete transaction
+   * @param cleanupThreads the number of workers deleting claims in parallel
+   * @param cleanupMaxClaimsPerSecond the maximum number of claims deleted per second, or zero for
+   *     no limit
+   * @param enabled when true the cleanup job should run, false otherwise
+   * @param appMetrics the registry for the job's metrics
+   * @param logger logger provided from each subclass
+   */
+  protected AbstractCleanupJob(
+      TransactionManager transactionManager,
+      Supplier<TransactionManager> workerTransactionManagers,
+      int cleanupRunSize,
+      int cleanupTransactionSize,
+      int cleanupThreads,
+      int cleanupMaxClaimsPerSecond,
+      boolean enabled,
+      MeterRegistry appMetrics,
+      Logger logger) {
+    this.transactionManager = transactionManager;
+    this.workerTransactionManagers = workerTransactionManagers;
+    this.cleanupRunSize = cleanupRunSize;
+    this.cleanupTransactionSize = cleanupTransactionSize;
+    this.cleanupThreads = Math.max(1, Math.min(cleanupThreads, RANGE_COUNT));
+    this.rateLimiter =
+        cleanupMaxClaimsPerSecond > 0 ? RateLimiter.create(cleanupMaxClaimsPerSecond) : null;
+    this.enabled = enabled;
+    this.logger = logger;
+    this.metrics = new Metrics(appMetrics, getClass());
+  }
+
   /**
    * Returns a list of table names for use in native queries.
    *
@@ -60,12 +240,18 @@ public abstract class AbstractCleanupJob implements CleanupJob {
   abstract String getParentTableKey();
 
   /**
-   * Executes the job if enabled. Calculates the number of transactions from the cleanupRunSize /
-   * cleanupTransactionSize then for each transaction it determines the maximum last updated date
-   * for claims that will be removed then deletes them.
+   * Returns the names of the tables containing child rows of the parent table. These are keyed by
+   * the same column as the parent table.
    *
-   * <p>If any iteration fails to find claims to delete or the total number of claims deleted
-   * already exceeds the cleanupRunSize then processing stops.
+   * @return the child table names
+   */
+  abstract List<String> getChildTableNames();
+
+  /**
+   * Executes the job if enabled. First drops any partitions of the parent table that contain only
+   * expired claims. Then deletes expired claims from each window in transactions of at most
+   * cleanupTransactionSize claims using cleanupThreads workers until either every window is clean
+   * or cleanupRunSize claims have been deleted.
    *
    * @return the number of deleted claims, or zero if not enabled.
    */
@@ -76,23 +262,26 @@ public abstract class AbstractCleanupJob implements CleanupJob {
       final long startMillis = System.currentTimeMillis();
 
       try {
-        Query query = buildDeleteQuery(transactionManager);
-        var numberOfTransactions = Math.floorDiv(cleanupRunSize, cleanupTransactionSize);
-
-        for (int i = 0; i < numberOfTransactions; i++) {
-          var result = executeDeleteTransaction(query, transactionManager);
-          claimsDeleted += result;
+        claimsDeleted += dropExpiredPartitions(transactionManager);
+        if (claimsDeleted >= cleanupRunSize) {
+          logger.info(
+              "cleanup job removed {} claims by dropping partitions in {}ms",
+              claimsDeleted,
+              System.currentTimeMillis() - startMillis);
+          return claimsDeleted;
+        }
 
-          // If no claims deleted this iteration, or total claims deleted
-          // exceeds the cleanupRunSize, then stop
+        claimsDeleted += deleteFromRanges(cleanupRunSize - claimsDeleted);
 
-          if (result == 0 || claimsDeleted >= cleanupRunSize) {
-            break;
-          }
-        }
-        final long endMillis = System.currentTimeMillis();
+        final long elapsedMillis = System.currentTimeMillis() - startMillis;
+        final long claimsPerSecond = claimsDeleted * 1000L / Math.max(1L, elapsedMillis);
+        metrics.claimsPerSecond.set(claimsPerSecond);
         logger.info(
-            "cleanup job removed {} claims in {}ms", claimsDeleted, endMillis - startMillis);
+            "cleanup job removed {} claims in {}ms: claimsPerSecond={} lockFailures={}",
+            claimsDeleted,
+            elapsedMillis,
+            claimsPerSecond,
+            (long) metrics.lockFailures.count());
       } catch (Exception ex) {
         logger.error("cleanup job aborted by an exception: message={}", ex.getMessage(), ex);
         throw new ProcessingException(ex, 0);
@@ -103,45 +292,358 @@ public abstract class AbstractCleanupJob implements CleanupJob {
   }
 
   /**
-   * Executes a single delete transaction. The list of queries are passed in execution order, last
-   * query must delete from the parent table, all other queries are child table deletes.
+   * Deletes expired claims from the windows returned by {@link #findExpiredRanges} in order. Each
+   * worker takes the next unvisited window and deletes from it until the window is clean, the claim
+   * budget is used up, or a transaction fails because of lock contention.
+   *
+   * @param maxClaims the maximum number of claims to delete
+   * @return the number of claims deleted
+   * @throws Exception if any worker fails
+   */
+  private int deleteFromRanges(int maxClaims) throws Exception {
+    final List<KeyRange> ranges = transactionManager.executeFunction(this::findExpiredRanges);
+    if (ranges.isEmpty()) {
+      return 0;
+    }
+    final Queue<KeyRange> pendingRanges = new ConcurrentLinkedQueue<>(ranges);
+    final AtomicInteger remainingClaims = new AtomicInteger(maxClaims);
+    final AtomicInteger deletedClaims = new AtomicInteger();
+    final Callable<Void> worker =
+        () -> {
+          try (TransactionManager tm = workerTransactionManagers.get()) {
+            KeyRange range;
+            while (remainingClaims.get() > 0 && (range = pendingRanges.poll()) != null) {
+              deleteFromRange(tm, range, remainingClaims, deletedClaims);
+            }
+          } catch (Exception ex) {
+            // stops the other workers as soon as their current transaction completes
+            remainingClaims.set(0);
+            throw ex;
+          }
+          return null;
+        };
+
+    final int threads = Math.min(cleanupThreads, ranges.size());
+    if (threads == 1) {
+      worker.call();
+    } else {
+      final ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        for (Future<Void> result : executor.invokeAll(Collections.nCopies(threads, worker))) {
+          result.get();
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    return deletedClaims.get();
+  }
+
+  /**
+   * Queries the span of {@code last_updated} values of the expired claims and divides it into
+   * windows using {@link #splitRange}.
+   *
+   * @param entityManager used to execute the query
+   * @return the windows in ascending order, empty if no claims have expired
+   */
+  private List<KeyRange> findExpiredRanges(EntityManager entityManager) {
+    final String queryStr =
+        new StringSubstitutor(
+                Map.of(
+                    "parentTableName", getParentTableName(),
+                    "interval", String.valueOf(OLDEST_CLAIM_AGE_IN_DAYS)))
+            .replace(EXPIRED_SPAN_QUERY_TEMPLATE);
+    final Object[] span = (Object[]) entityManager.createNativeQuery(queryStr).getSingleResult();
+    if (span[0] == null) {
+      return List.of();
+    }
+    // the cutoff itself is included by making the exclusive upper bound one millisecond later
+    return splitRange(
+        ((Number) span[0]).longValue(), ((Number) span[1]).longValue() + 1, RANGE_COUNT);
+  }
+
+  /**
+   * Divides a span of times into at most rangeCount contiguous windows of equal width, except for
+   * the last one which may be shorter.
+   *
+   * @param lowerMillis inclusive lower bound of the span in epoch milliseconds
+   * @param upperMillis exclusive upper bound of the span in epoch milliseconds
+   * @param rangeCount the maximum number of windows
+   * @return the windows in ascending order, empty if the span is empty
+   */
+  @VisibleForTesting
+  static List<KeyRange> splitRange(long lowerMillis, long upperMillis, int rangeCount) {
+    final List<KeyRange> ranges = new ArrayList<>(rangeCount);
+    final long width = Math.max(1, Math.ceilDiv(upperMillis - lowerMillis, rangeCount));
+    for (long lower = lowerMillis; lower < upperMillis; lower += width) {
+      ranges.add(new KeyRange(lower, Math.min(lower + width, upperMillis)));
+    }
+    return ranges;
+  }
+
+  /**
+   * Deletes expired claims from a single window one transaction at a time. Each transaction takes
+   * its claims from the budget shared by all workers and returns any that it did not use.
+   *
+   * @param tm the worker's TransactionManager
+   * @param range the window
+   * @param remainingClaims the number of claims that may still be deleted by this run
+   * @param deletedClaims the number of claims deleted by this run
+   */
+  private void deleteFromRange(
+      TransactionManager tm,
+      KeyRange range,
+      AtomicInteger remainingClaims,
+      AtomicInteger deletedClaims) {
+    while (true) {
+      final int available =
+          remainingClaims.getAndUpdate(r -> r - Math.min(r, cleanupTransactionSize));
+      final int limit = Math.min(available, cleanupTransactionSize);
+      if (limit <= 0) {
+        return;
+      }
+      int count = 0;
+      try {
+        if (rateLimiter != null) {
+          rateLimiter.acquire(limit);
+        }
+        count = executeDeleteTransaction(tm, range, limit);
+      } catch (PersistenceException ex) {
+        if (!isLockFailure(ex)) {
+          throw ex;
+        }
+        metrics.lockFailures.increment();
+        logger.warn(
+            "cleanup job skipping claims updated from {} to {} due to lock contention: message={}",
+            Instant.ofEpochMilli(range.lowerMillis()),
+            Instant.ofEpochMilli(range.upperMillis()),
+            ex.getMessage());
+        return;
+      } finally {
+        remainingClaims.addAndGet(limit - count);
+      }
+      deletedClaims.addAndGet(count);
+      metrics.deletedClaims.increment(count);
+
+      // the query found fewer claims than it was allowed to delete so none remain
+      if (count < limit) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Executes a single delete transaction for a window. The keys of the expired claims are selected
+   * first and then the claims' child rows and the claims themselves are deleted. The transaction
+   * gives up if it has to wait too long for a lock so that one contended window does not stall its
+   * worker.
    *
-   * @param query the queries to execute in each transaction.
    * @param tm the TransactionManager to use with the deletion.
+   * @param range the window
+   * @param limit the maximum number of claims to delete
    * @return the number of claims deleted by the transaction.
    */
-  private int executeDeleteTransaction(Query query, TransactionManager tm) {
-    return tm.executeFunction(
-        entityManager -> {
-          // execute all queries in order, use the count from the last query (parent table)
-          // to track the number of claims deleted.
-          var count = 0;
-          count = query.executeUpdate();
-          return count;
-        });
+  private int executeDeleteTransaction(TransactionManager tm, KeyRange range, int limit) {
+    final String selectStr =
+        new StringSubstitutor(
+                Map.of(
+                    "parentTableName", getParentTableName(),
+                    "parentTableKey", getParentTableKey(),
+                    "interval", String.valueOf(OLDEST_CLAIM_AGE_IN_DAYS),
+                    "lowerMillis", String.valueOf(range.lowerMillis()),
+                    "upperMillis", String.valueOf(range.upperMillis()),
+                    "limit", Integer.toString(limit)))
+            .replace(SELECT_EXPIRED_KEYS_QUERY_TEMPLATE);
+    return metrics.transactions.record(
+        () ->
+            tm.executeFunction(
+                entityManager -> {
+                  entityManager.createNativeQuery(LOCK_TIMEOUT_QUERY).getSingleResult();
+                  final List<?> keys = entityManager.createNativeQuery(selectStr).getResultList();
+                  if (keys.isEmpty()) {
+                    return 0;
+                  }
+                  for (String childTableName : getChildTableNames()) {
+                    deleteKeys(entityManager, childTableName, keys);
+                  }
+                  return deleteKeys(entityManager, getParentTableName(), keys);
+                }));
+  }
+
+  /**
+   * Deletes the rows of a table whose key is in a list of claim keys.
+   *
+   * @param entityManager used to execute the query
+   * @param tableName the parent table or one of the child tables
+   * @param keys the claim keys
+   * @return the number of rows deleted
+   */
+  private int deleteKeys(EntityManager entityManager, String tableName, List<?> keys) {
+    final String queryStr =
+        new StringSubstitutor(Map.of("tableName", tableName, "parentTableKey", getParentTableKey()))
+            .replace(DELETE_KEYS_QUERY_TEMPLATE);
+    return entityManager.createNativeQuery(queryStr).setParameter("keys", keys).executeUpdate();
+  }
+
+  /**
+   * Determines whether an exception was caused by the database failing to acquire a lock within the
+   * lock timeout or detecting a deadlock.
+   *
+   * @param ex the exception
+   * @return true if the exception was caused by lock contention
+   */
+  @VisibleForTesting
+  static boolean isLockFailure(Throwable ex) {
+    for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException sqlException
+          && LOCK_FAILURE_SQL_STATES.contains(sqlException.getSQLState())) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
-   * Build a list of native sql delete queries to remove claims.
-   *
-   * @param tm the TransactionManager to use to create queries.
-   * @return the list of queries.
-   */
-  private Query buildDeleteQuery(TransactionManager tm) {
-    String parentTableName = getParentTableName();
-    AtomicReference<Query> atomicQuery = new AtomicReference<>();
-    tm.executeProcedure(
-        entityManager -> {
-          Map<String, String> params =
-              Map.of(
-                  "parentTableName", parentTableName,
-                  "parentTableKey", getParentTableKey(),
-                  "interval", String.valueOf(OLDEST_CLAIM_AGE_IN_DAYS),
-                  "limit", Integer.toString(cleanupTransactionSize));
-          StringSubstitutor strSub = new StringSubstitutor(params);
-          String queryStr = strSub.replace(DELETE_QUERY_TEMPLATE);
-          atomicQuery.set(entityManager.createNativeQuery(queryStr));
-        });
-    return atomicQuery.get();
+   * Drops every partition of the parent table whose whole range has expired and that contains only
+   * claims that the row level delete would remove. Partitions are visited in name order (which is
+   * chronological for the monthly partitions created by our script) and processing stops at the
+   * first partition whose range extends past the cutoff, the first partition containing claims that
+   * must be retained, or once cleanupRunSize claims have been removed. Checking the range keeps
+   * empty partitions created ahead of time, as well as the default partition, from being dropped.
+   * Does nothing if the parent table is not partitioned.
+   *
+   * @param tm the TransactionManager to use
+   * @return the number of claims removed by dropping partitions
+   */
+  private int dropExpiredPartitions(TransactionManager tm) {
+    final List<Partition> partitions = tm.executeFunction(this::findPartitions);
+    int claimsDeleted = 0;
+    for (Partition partition : partitions) {
+      if (!partition.expired()) {
+        break;
+      }
+      final String partitionName = partition.name();
+      final int count = tm.executeFunction(em -> dropPartitionIfExpired(em, partitionName));
+      if (count < 0) {
+        break;
+      }
+      logger.info("cleanup job dropped partition {} containing {} claims", partitionName, count);
+      claimsDeleted += count;
+      if (claimsDeleted >= cleanupRunSize) {
+        break;
+      }
+    }
+    return claimsDeleted;
+  }
+
+  /**
+   * Queries the database catalog for any partitions of the parent table.
+   *
+   * @param entityManager used to execute the query
+   * @return the partitions in name order, empty if the table is not partitioned
+   */
+  private List<Partition> findPartitions(EntityManager entityManager) {
+    final String[] nameParts = getParentTableName().split("\\.");
+    final String queryStr =
+        new StringSubstitutor(
+                Map.of(
+                    "schemaName", nameParts[0],
+                    "tableName", nameParts[1],
+                    "interval", String.valueOf(OLDEST_CLAIM_AGE_IN_DAYS)))
+            .replace(PARTITIONS_QUERY_TEMPLATE);
+    final List<?> rows = entityManager.createNativeQuery(queryStr).getResultList();
+    return rows.stream()
+        .map(row -> (Object[]) row)
+        .map(row -> new Partition(nameParts[0] + "." + row[0], Boolean.TRUE.equals(row[1])))
+        .toList();
+  }
+
+  /**
+   * A window of {@code last_updated} values used to divide the row level deletes.
+   *
+   * @param lowerMillis inclusive lower bound in epoch milliseconds
+   * @param upperMillis exclusive upper bound in epoch milliseconds
+   */
+  @VisibleForTesting
+  record KeyRange(long lowerMillis, long upperMillis) {}
+
+  /**
+   * A partition of the parent table.
+   *
+   * @param name schema qualified name of the partition
+   * @param expired true if the upper bound of the partition's range is at or before the cutoff
+   */
+  private record Partition(String name, boolean expired) {}
+
+  /**
+   * Drops the partition if all of its claims have expired. Child table rows for the claims are
+   * deleted first since those tables are not partitioned. Must be called within a transaction so
+   * that the child rows and the partition are removed atomically.
+   *
+   * @param entityManager used to execute the queries
+   * @param partitionName schema qualified name of the partition
+   * @return the number of claims in the dropped partition or -1 if it could not be dropped
+   */
+  private int dropPartitionIfExpired(EntityManager entityManager, String partitionName) {
+    final StringSubstitutor strSub =
+        new StringSubstitutor(
+            Map.of(
+                "parentTableName", getParentTableName(),
+                "parentTableKey", getParentTableKey(),
+                "partitionName", partitionName,
+                "interval", String.valueOf(OLDEST_CLAIM_AGE_IN_DAYS)));
+    final Number retained =
+        (Number)
+            entityManager
+                .createNativeQuery(strSub.replace(RETAINED_CLAIMS_QUERY_TEMPLATE))
+                .getSingleResult();
+    if (retained.longValue() > 0) {
+      return -1;
+    }
+    final Number count =
+        (Number)
+            entityManager.createNativeQuery(strSub.replace(COUNT_QUERY_TEMPLATE)).getSingleResult();
+    for (String childTableName : getChildTableNames()) {
+      entityManager
+          .createNativeQuery(
+              strSub.replace(
+                  DELETE_CHILDREN_QUERY_TEMPLATE.replace("${childTableName}", childTableName)))
+          .executeUpdate();
+    }
+    entityManager.createNativeQuery(strSub.replace(DETACH_PARTITION_TEMPLATE)).executeUpdate();
+    entityManager.createNativeQuery(strSub.replace(DROP_PARTITION_TEMPLATE)).executeUpdate();
+    return count.intValue();
+  }
+
+  /** Metrics for the claims deleted by the job. Names include the job class to distinguish them. */
+  @Getter
+  @VisibleForTesting
+  static class Metrics {
+    /** Number of claims deleted by row level deletes. */
+    private final Counter deletedClaims;
+
+    /** Time taken by each delete transaction, including any time spent waiting for locks. */
+    private final Timer transactions;
+
+    /** Number of delete transactions that failed because of lock contention. */
+    private final Counter lockFailures;
+
+    /** Number of claims deleted per second by the most recent run. */
+    private final AtomicLong claimsPerSecond;
+
+    /**
+     * Instantiates a new metric object.
+     *
+     * @param appMetrics the app metrics
+     * @param jobClass the job class for naming the metrics
+     */
+    private Metrics(MeterRegistry appMetrics, Class<?> jobClass) {
+      final String base = jobClass.getSimpleName();
+      deletedClaims = appMetrics.counter(MetricRegistry.name(base, "deletedClaims"));
+      transactions = appMetrics.timer(MetricRegistry.name(base, "transactions"));
+      lockFailures = appMetrics.counter(MetricRegistry.name(base, "lockFailures"));
+      claimsPerSecond =
+          appMetrics.gauge(MetricRegistry.name(base, "claimsPerSecond"), new AtomicLong());
+    }
   }
 }
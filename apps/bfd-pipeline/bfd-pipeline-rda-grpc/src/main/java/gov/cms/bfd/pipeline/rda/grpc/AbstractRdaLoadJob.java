@@ -307,6 +307,14 @@ public abstract class AbstractRdaLoadJob<TResponse, TClaim> implements PipelineJ
     /** The maximum number of claims to delete per db transaction. */
     @Getter private final int cleanupTransactionSize;
 
+    /** The number of threads deleting claims in parallel during a cleanup job run. */
+    @Getter private final int cleanupThreads;
+
+    /**
+     * The maximum number of claims to delete per second during a cleanup job run. Zero for none.
+     */
+    @Getter private final int cleanupMaxClaimsPerSecond;
+
     /** Indicates the preferred sink type to create for created jobs. */
     @Getter private final SinkTypePreference sinkTypePreference;
 
@@ -325,6 +333,9 @@ public abstract class AbstractRdaLoadJob<TResponse, TClaim> implements PipelineJ
      * @param runCleanup if the claims cleanup job should run
      * @param cleanupRunSize the number of claims to remove per cleanup run
      * @param cleanupTransactionSize the number of claims to remove per cleanup db transaction
+     * @param cleanupThreads the number of threads removing claims in parallel during cleanup
+     * @param cleanupMaxClaimsPerSecond the maximum number of claims to remove per second during
+     *     cleanup or zero for no limit
      * @param sinkTypePreference The {@link SinkTypePreference} to use for created jobs
      * @param rdaVersion The required {@link RdaVersion} in order to ingest data
      */
@@ -339,6 +350,8 @@ public abstract class AbstractRdaLoadJob<TResponse, TClaim> implements PipelineJ
         boolean runCleanup,
         int cleanupRunSize,
         int cleanupTransactionSize,
+        int cleanupThreads,
+        int cleanupMaxClaimsPerSecond,
         SinkTypePreference sinkTypePreference,
         RdaVersion rdaVersion) {
       this.runInterval = Preconditions.checkNotNull(runInterval);
@@ -350,6 +363,8 @@ public abstract class AbstractRdaLoadJob<TResponse, TClaim> implements PipelineJ
       this.runCleanup = runCleanup;
       this.cleanupRunSize = cleanupRunSize;
       this.cleanupTransactionSize = cleanupTransactionSize;
+      this.cleanupThreads = cleanupThreads == 0 ? 1 : cleanupThreads;
+      this.cleanupMaxClaimsPerSecond = cleanupMaxClaimsPerSecond;
       this.sinkTypePreference = sinkTypePreference;
       this.rdaVersion = rdaVersion;
       // zero is ok because that means the job should run exactly once
@@ -370,6 +385,12 @@ public abstract class AbstractRdaLoadJob<TResponse, TClaim> implements PipelineJ
             cleanupTransactionSize >= 0,
             "cleanupTransactionSize must be greater than 0: %s",
             cleanupTransactionSize);
+        Preconditions.checkArgument(
+            this.cleanupThreads >= 1, "cleanupThreads less than 1: %s", cleanupThreads);
+        Preconditions.checkArgument(
+            cleanupMaxClaimsPerSecond >= 0,
+            "cleanupMaxClaimsPerSecond less than 0: %s",
+            cleanupMaxClaimsPerSecond);
       }
     }
 
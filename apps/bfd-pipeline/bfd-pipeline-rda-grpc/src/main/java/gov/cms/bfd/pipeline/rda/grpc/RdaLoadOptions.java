@@ -146,9 +146,13 @@ public class RdaLoadOptions {
     cleanupJob =
         new RdaFissClaimCleanupJob(
             new TransactionManager(appState.getEntityManagerFactory()),
+            () -> new TransactionManager(appState.getEntityManagerFactory()),
             jobConfig.getCleanupRunSize(),
             jobConfig.getCleanupTransactionSize(),
-            jobConfig.shouldRunCleanup());
+            jobConfig.getCleanupThreads(),
+            jobConfig.getCleanupMaxClaimsPerSecond(),
+            jobConfig.shouldRunCleanup(),
+            appState.getMeters());
 
     return new RdaFissClaimLoadJob(
         jobConfig,
@@ -231,9 +235,13 @@ public class RdaLoadOptions {
     cleanupJob =
         new RdaMcsClaimCleanupJob(
             new TransactionManager(appState.getEntityManagerFactory()),
+            () -> new TransactionManager(appState.getEntityManagerFactory()),
             jobConfig.getCleanupRunSize(),
             jobConfig.getCleanupTransactionSize(),
-            jobConfig.shouldRunCleanup());
+            jobConfig.getCleanupThreads(),
+            jobConfig.getCleanupMaxClaimsPerSecond(),
+            jobConfig.shouldRunCleanup(),
+            appState.getMeters());
 
     return new RdaMcsClaimLoadJob(
         jobConfig,
@@ -1,6 +1,10 @@
 package gov.cms.bfd.pipeline.rda.grpc;
 
 import gov.cms.bfd.pipeline.sharedutils.TransactionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,8 +20,18 @@ public class RdaMcsClaimCleanupJob extends AbstractCleanupJob {
   /** Key column name for the parent table for use in native queries. */
   private static final String KEY_COLUMN = "idr_clm_hd_icn";
 
+  /** Child tables keyed by {@link #KEY_COLUMN}. */
+  private static final List<String> CHILD_TABLE_NAMES =
+      List.of(
+          "rda.mcs_adjustments",
+          "rda.mcs_audits",
+          "rda.mcs_details",
+          "rda.mcs_diagnosis_codes",
+          "rda.mcs_locations");
+
   /**
-   * Constructs a RdaMcsClaimCleanupJob.
+   * Constructs a RdaMcsClaimCleanupJob that deletes claims using a single thread with no rate limit
+   * and does not publish its metrics.
    *
    * @param transactionManager the TransactionManager to use.
    * @param claimsPerRun the number of claims to remove in a single run of this job.
@@ -29,7 +43,48 @@ public class RdaMcsClaimCleanupJob extends AbstractCleanupJob {
       int claimsPerRun,
       int claimsPerTransaction,
       boolean enabled) {
-    super(transactionManager, claimsPerRun, claimsPerTransaction, enabled, LOGGER);
+    this(
+        transactionManager,
+        () -> transactionManager,
+        claimsPerRun,
+        claimsPerTransaction,
+        1,
+        0,
+        enabled,
+        new SimpleMeterRegistry());
+  }
+
+  /**
+   * Constructs a RdaMcsClaimCleanupJob.
+   *
+   * @param transactionManager the TransactionManager to use.
+   * @param workerTransactionManagers creates a TransactionManager for each delete worker.
+   * @param claimsPerRun the number of claims to remove in a single run of this job.
+   * @param claimsPerTransaction the number of claims to remove in a single transaction.
+   * @param threads the number of workers removing claims in parallel.
+   * @param maxClaimsPerSecond the maximum number of claims to remove per second, zero for no limit.
+   * @param enabled true if this job should run, false otherwise.
+   * @param appMetrics the registry for the job's metrics.
+   */
+  public RdaMcsClaimCleanupJob(
+      TransactionManager transactionManager,
+      Supplier<TransactionManager> workerTransactionManagers,
+      int claimsPerRun,
+      int claimsPerTransaction,
+      int threads,
+      int maxClaimsPerSecond,
+      boolean enabled,
+      MeterRegistry appMetrics) {
+    super(
+        transactionManager,
+        workerTransactionManagers,
+        claimsPerRun,
+        claimsPerTransaction,
+        threads,
+        maxClaimsPerSecond,
+        enabled,
+        appMetrics,
+        LOGGER);
   }
 
   /** {@inheritDoc} */
@@ -43,4 +98,10 @@ public class RdaMcsClaimCleanupJob extends AbstractCleanupJob {
   String getParentTableKey() {
     return KEY_COLUMN;
   }
+
+  /** {@inheritDoc} */
+  @Override
+  List<String> getChildTableNames() {
+    return CHILD_TABLE_NAMES;
+  }
 }
@@ -190,6 +190,18 @@ abstract class AbstractRandomClaimGenerator<T> {
     return createContext().randomInteger(maxValue);
   }
 
+  /**
+   * Returns a random size for a collection of child objects within a claim. The child count
+   * multiplier from our {@link RandomClaimGeneratorConfig} is applied to the maximum so that
+   * benchmarks can generate claims with larger child collections than normal.
+   *
+   * @param maxCount The normal maximum (exclusive) number of children.
+   * @return The random number of children.
+   */
+  protected int randomChildCount(int maxCount) {
+    return randomInt(maxCount * config.getChildCountMultiplier());
+  }
+
   /**
    * Returns a random numeric string.
    *
@@ -0,0 +1,211 @@
+package gov.cms.bfd.pipeline.rda.grpc.server;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.CountingInputStream;
+import gov.cms.mpsm.rda.v1.FissClaimChange;
+import gov.cms.mpsm.rda.v1.McsClaimChange;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link MessageSource} implementation that produces objects from a file of length delimited
+ * binary protobuf messages (as written by {@link BinaryMessageWriter}). Parsing binary messages is
+ * far cheaper than parsing their NDJSON equivalent using JsonFormat so this is the preferred format
+ * when replaying large captured data sets.
+ *
+ * <p>When a {@link MessageFileIndex} is provided {@link #skipTo} uses it to jump directly to the
+ * closest indexed message rather than parsing every message preceding the desired sequence number.
+ * Without an index skipping falls back to parsing and discarding messages one at a time just like
+ * {@link JsonMessageSource}.
+ *
+ * @param <T> the message type
+ */
+public class BinaryMessageSource<T> implements MessageSource<T> {
+  /** Source of the raw bytes. Reopened at an offset when skipping using the index. */
+  private final ByteSource byteSource;
+
+  /** The binary parser. */
+  private final Parser<T> parser;
+
+  /** Sparse index used to skip ahead without parsing. */
+  private final MessageFileIndex index;
+
+  /**
+   * Stream currently being read. Null until first needed. Counts bytes consumed so that we know the
+   * offset of the next message in the file.
+   */
+  @Nullable private CountingInputStream input;
+
+  /** Offset within the file at which {@link #input} was opened. */
+  private long inputStartOffset;
+
+  /** The next message to return. */
+  @Nullable private T nextMessage;
+
+  /** Set once the end of the file has been reached. */
+  private boolean endOfFile;
+
+  /**
+   * Produce a BinaryMessageSource that parses the contents of the provided {@link ByteSource}.
+   *
+   * @param byteSource source of a file of length delimited binary messages
+   * @param parser the parser to convert binary data into an object
+   * @param index optional sparse index for the file
+   */
+  public BinaryMessageSource(
+      ByteSource byteSource, Parser<T> parser, @Nullable MessageFileIndex index) {
+    this.byteSource = byteSource;
+    this.parser = parser;
+    this.index = index == null ? MessageFileIndex.EMPTY : index;
+  }
+
+  /**
+   * Returns a {@link Parser} instance for parsing {@link FissClaimChange} messages.
+   *
+   * @return the parser
+   */
+  public static Parser<FissClaimChange> fissParser() {
+    return new Parser<>() {
+      @Override
+      public FissClaimChange parseDelimited(InputStream input) throws IOException {
+        return FissClaimChange.parseDelimitedFrom(input);
+      }
+
+      @Override
+      public long sequenceNumberOf(FissClaimChange message) {
+        return message.getSeq();
+      }
+    };
+  }
+
+  /**
+   * Returns a {@link Parser} instance for parsing {@link McsClaimChange} messages.
+   *
+   * @return the parser
+   */
+  public static Parser<McsClaimChange> mcsParser() {
+    return new Parser<>() {
+      @Override
+      public McsClaimChange parseDelimited(InputStream input) throws IOException {
+        return McsClaimChange.parseDelimitedFrom(input);
+      }
+
+      @Override
+      public long sequenceNumberOf(McsClaimChange message) {
+        return message.getSeq();
+      }
+    };
+  }
+
+  /**
+   * Uses the index to reposition the stream if doing so would move us forward in the file, then
+   * parses and discards any remaining messages with sequence numbers less than the desired one.
+   *
+   * <p>{@inheritDoc}
+   */
+  @Override
+  public MessageSource<T> skipTo(long startingSequenceNumber) throws Exception {
+    final long indexedOffset = index.findOffset(startingSequenceNumber);
+    if (!endOfFile && indexedOffset > currentOffset()) {
+      openAt(indexedOffset);
+    }
+    while (hasNext() && parser.sequenceNumberOf(nextMessage) < startingSequenceNumber) {
+      next();
+    }
+    return this;
+  }
+
+  @Override
+  public boolean hasNext() throws Exception {
+    return advance();
+  }
+
+  @Override
+  public T next() throws Exception {
+    if (!advance()) {
+      throw new NoSuchElementException();
+    }
+    final var answer = nextMessage;
+    nextMessage = null;
+    return answer;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (input != null) {
+      input.close();
+      input = null;
+    }
+  }
+
+  /**
+   * Computes the offset within the file of the first byte not yet parsed. When a message has been
+   * parsed but not yet returned by {@link #next} the offset is that of the following message.
+   *
+   * @return the current offset
+   */
+  private long currentOffset() {
+    return input == null ? 0 : inputStartOffset + input.getCount();
+  }
+
+  /**
+   * Closes any open stream and opens a new one positioned at the specified offset. Any pending
+   * message is discarded.
+   *
+   * @param offset byte offset in the file at which the new stream should start
+   * @throws IOException if the stream could not be opened
+   */
+  private void openAt(long offset) throws IOException {
+    if (input != null) {
+      input.close();
+    }
+    input = new CountingInputStream(byteSource.slice(offset, Long.MAX_VALUE).openBufferedStream());
+    inputStartOffset = offset;
+    nextMessage = null;
+  }
+
+  /**
+   * Parse the next message from the file if we do not already have one.
+   *
+   * @return true if there is a next message
+   * @throws IOException there is an issue reading from the file
+   */
+  private boolean advance() throws IOException {
+    if (nextMessage == null && !endOfFile) {
+      if (input == null) {
+        openAt(0);
+      }
+      nextMessage = parser.parseDelimited(input);
+      endOfFile = nextMessage == null;
+    }
+    return nextMessage != null;
+  }
+
+  /**
+   * Protobuf's generated parsers are static methods so we need an interface that allows us to pass
+   * them to our constructor along with a way to extract sequence numbers from parsed messages.
+   *
+   * @param <T> the type parameter
+   */
+  public interface Parser<T> {
+    /**
+     * Parses a single length delimited message from the stream.
+     *
+     * @param input stream positioned at the start of a message's length prefix
+     * @return the parsed message or null if the stream is at end of file
+     * @throws IOException if the data could not be read or parsed
+     */
+    @Nullable
+    T parseDelimited(InputStream input) throws IOException;
+
+    /**
+     * Extracts the sequence number from a parsed message.
+     *
+     * @param message message containing a sequence number
+     * @return the sequence number
+     */
+    long sequenceNumberOf(T message);
+  }
+}
@@ -0,0 +1,98 @@
+package gov.cms.bfd.pipeline.rda.grpc.server;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.CountingOutputStream;
+import com.google.protobuf.MessageLite;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.ToLongFunction;
+import lombok.Getter;
+
+/**
+ * Writes protobuf messages to a stream in the length delimited binary format read by {@link
+ * BinaryMessageSource}. While writing it builds a sparse {@link MessageFileIndex} containing an
+ * entry for every {@link #indexInterval}th message. The index can be retrieved once all messages
+ * have been written and stored alongside the data file.
+ *
+ * @param <T> the message type
+ */
+public class BinaryMessageWriter<T extends MessageLite> implements Closeable {
+  /** Default number of messages between index entries. */
+  public static final int DEFAULT_INDEX_INTERVAL = 1_000;
+
+  /** Suffix appended to the name of a data file to produce the name of its index file. */
+  public static final String INDEX_FILE_SUFFIX = ".idx";
+
+  /** Tracks the number of bytes written so far so we know the offset of each message. */
+  private final CountingOutputStream output;
+
+  /** Used to extract the sequence number from each message. */
+  private final ToLongFunction<T> sequenceNumberExtractor;
+
+  /** Number of messages between index entries. */
+  private final int indexInterval;
+
+  /** Accumulates index entries as messages are written. */
+  private final MessageFileIndex.Builder indexBuilder = new MessageFileIndex.Builder();
+
+  /** Number of messages written so far. */
+  @Getter private long messageCount;
+
+  /** Sequence number of the most recently written message. */
+  private long lastSequenceNumber = Long.MIN_VALUE;
+
+  /**
+   * Creates an instance that writes to the provided stream. The stream will be closed when this
+   * writer is closed.
+   *
+   * @param output the stream to write messages to
+   * @param sequenceNumberExtractor used to extract the sequence number from each message
+   * @param indexInterval number of messages between index entries
+   */
+  public BinaryMessageWriter(
+      OutputStream output, ToLongFunction<T> sequenceNumberExtractor, int indexInterval) {
+    Preconditions.checkArgument(indexInterval > 0, "indexInterval must be positive");
+    this.output = new CountingOutputStream(new BufferedOutputStream(output));
+    this.sequenceNumberExtractor = sequenceNumberExtractor;
+    this.indexInterval = indexInterval;
+  }
+
+  /**
+   * Writes a message to the stream. Messages must be written in ascending sequence number order so
+   * that the index remains valid.
+   *
+   * @param message the message to write
+   * @throws IOException if the message could not be written
+   * @throws IllegalArgumentException if the message is out of sequence number order
+   */
+  public void write(T message) throws IOException {
+    final long sequenceNumber = sequenceNumberExtractor.applyAsLong(message);
+    Preconditions.checkArgument(
+        sequenceNumber > lastSequenceNumber,
+        "messages must be written in ascending sequence number order: previous=%s new=%s",
+        lastSequenceNumber,
+        sequenceNumber);
+    if (messageCount % indexInterval == 0) {
+      indexBuilder.add(sequenceNumber, output.getCount());
+    }
+    message.writeDelimitedTo(output);
+    lastSequenceNumber = sequenceNumber;
+    messageCount += 1;
+  }
+
+  /**
+   * Creates an index covering all messages written so far.
+   *
+   * @return the index
+   */
+  public MessageFileIndex getIndex() {
+    return indexBuilder.build();
+  }
+
+  @Override
+  public void close() throws IOException {
+    output.close();
+  }
+}
@@ -0,0 +1,159 @@
+package gov.cms.bfd.pipeline.rda.grpc.server;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteSource;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Sparse index of sequence numbers to byte offsets within a binary message file written by {@link
+ * BinaryMessageWriter}. Every Nth message in the file has an entry recording its sequence number
+ * and the byte offset at which its length prefix begins. Since messages in a file are stored in
+ * ascending sequence number order a {@link BinaryMessageSource} can use the index to jump directly
+ * to the nearest message at or before a desired sequence number rather than parsing every message
+ * that precedes it.
+ *
+ * <p>The serialized form of an index is simply a list of pairs of big endian longs (sequence number
+ * followed by offset). Instances are immutable.
+ */
+public class MessageFileIndex {
+  /** An index with no entries. Searches always return offset zero. */
+  public static final MessageFileIndex EMPTY = new MessageFileIndex(new long[0], new long[0], 0);
+
+  /** Sequence numbers of the indexed messages in ascending order. */
+  private final long[] sequenceNumbers;
+
+  /** Byte offset of each indexed message. Parallel array to {@link #sequenceNumbers}. */
+  private final long[] offsets;
+
+  /** Number of valid entries in the arrays. */
+  private final int size;
+
+  /**
+   * Creates an instance from parallel arrays. Only the first {@code size} elements are used.
+   *
+   * @param sequenceNumbers the sequence numbers
+   * @param offsets the byte offsets
+   * @param size number of valid entries
+   */
+  private MessageFileIndex(long[] sequenceNumbers, long[] offsets, int size) {
+    this.sequenceNumbers = sequenceNumbers;
+    this.offsets = offsets;
+    this.size = size;
+  }
+
+  /**
+   * Reads an index previously written using {@link #write}.
+   *
+   * @param byteSource source of the serialized index
+   * @return the index
+   * @throws IOException if the index could not be read
+   */
+  public static MessageFileIndex read(ByteSource byteSource) throws IOException {
+    final Builder builder = new Builder();
+    try (DataInputStream input = new DataInputStream(byteSource.openBufferedStream())) {
+      while (true) {
+        final long sequenceNumber;
+        try {
+          sequenceNumber = input.readLong();
+        } catch (EOFException ex) {
+          break;
+        }
+        builder.add(sequenceNumber, input.readLong());
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Writes this index to the provided stream. The stream is flushed but not closed.
+   *
+   * @param output stream to write the index to
+   * @throws IOException if the index could not be written
+   */
+  public void write(OutputStream output) throws IOException {
+    final DataOutputStream data = new DataOutputStream(output);
+    for (int i = 0; i < size; ++i) {
+      data.writeLong(sequenceNumbers[i]);
+      data.writeLong(offsets[i]);
+    }
+    data.flush();
+  }
+
+  /**
+   * Finds the byte offset of the indexed message with the largest sequence number less than or
+   * equal to the specified one. Every message preceding that offset is guaranteed to have a smaller
+   * sequence number so a reader can safely start reading there. Returns zero if no such entry
+   * exists.
+   *
+   * @param sequenceNumber the desired sequence number
+   * @return a safe byte offset to start reading from
+   */
+  public long findOffset(long sequenceNumber) {
+    int index = Arrays.binarySearch(sequenceNumbers, 0, size, sequenceNumber);
+    if (index < 0) {
+      // binarySearch returns (-(insertion point) - 1) when the value is not present
+      index = -index - 2;
+    }
+    return index < 0 ? 0 : offsets[index];
+  }
+
+  /**
+   * Gets the number of entries in the index.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return size;
+  }
+
+  /** Accumulates entries to create a {@link MessageFileIndex}. */
+  public static class Builder {
+    /** Sequence numbers added so far. */
+    private long[] sequenceNumbers = new long[64];
+
+    /** Offsets added so far. */
+    private long[] offsets = new long[64];
+
+    /** Number of entries added so far. */
+    private int size;
+
+    /**
+     * Adds an entry to the index. Entries must be added in ascending sequence number order.
+     *
+     * @param sequenceNumber sequence number of the message
+     * @param offset byte offset of the message within the file
+     * @return this builder
+     * @throws IllegalArgumentException if the entry is out of order
+     */
+    public Builder add(long sequenceNumber, long offset) {
+      Preconditions.checkArgument(
+          size == 0 || sequenceNumber > sequenceNumbers[size - 1],
+          "index entries must be added in ascending sequence number order: previous=%s new=%s",
+          size == 0 ? null : sequenceNumbers[size - 1],
+          sequenceNumber);
+      if (size == sequenceNumbers.length) {
+        sequenceNumbers = Arrays.copyOf(sequenceNumbers, size * 2);
+        offsets = Arrays.copyOf(offsets, size * 2);
+      }
+      sequenceNumbers[size] = sequenceNumber;
+      offsets[size] = offset;
+      size += 1;
+      return this;
+    }
+
+    /**
+     * Creates the index.
+     *
+     * @return the index
+     */
+    public MessageFileIndex build() {
+      return new MessageFileIndex(
+          Arrays.copyOf(sequenceNumbers, size), Arrays.copyOf(offsets, size), size);
+    }
+  }
+}
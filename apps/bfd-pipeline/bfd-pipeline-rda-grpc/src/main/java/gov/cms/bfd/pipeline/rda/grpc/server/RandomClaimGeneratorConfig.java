@@ -44,6 +44,12 @@ public class RandomClaimGeneratorConfig {
    */
   private final boolean useTimestampForErrorSeed;
 
+  /**
+   * Multiplier applied to the maximum size of each child collection (procedure codes, revenue
+   * lines, details, etc) in generated claims. Values greater than one produce wider claims.
+   */
+  @Builder.Default private final int childCountMultiplier = 1;
+
   /** Maximum number of claims to return when using random generator as a message source. */
   @Builder.Default private final int maxToSend = Integer.MAX_VALUE;
 
@@ -397,7 +397,7 @@ public class RandomFissClaimGenerator extends AbstractRandomClaimGenerator<FissC
     always(
         "procCode",
         () -> {
-          final int count = randomInt(MAX_PROC_CODES);
+          final int count = randomChildCount(MAX_PROC_CODES);
 
           if (count > 0) {
             always("principleDiag", () -> claim.setPrincipleDiag(randomLetter(1, 7)));
@@ -433,7 +433,7 @@ public class RandomFissClaimGenerator extends AbstractRandomClaimGenerator<FissC
     always(
         "diagnosisCode",
         () -> {
-          final int count = randomInt(MAX_DIAG_CODES);
+          final int count = randomChildCount(MAX_DIAG_CODES);
 
           for (int i = 1; i <= count; ++i) {
             FissDiagnosisCode.Builder diagCode = FissDiagnosisCode.newBuilder();
@@ -466,7 +466,7 @@ public class RandomFissClaimGenerator extends AbstractRandomClaimGenerator<FissC
     always(
         "payer",
         () -> {
-          final int count = 1 + randomInt(MAX_PAYERS);
+          final int count = 1 + randomChildCount(MAX_PAYERS);
 
           for (int i = 1; i <= count; ++i) {
             final int POSITION = i;
@@ -600,7 +600,7 @@ public class RandomFissClaimGenerator extends AbstractRandomClaimGenerator<FissC
     always(
         "audit",
         () -> {
-          final int count = 1 + randomInt(MAX_AUDITS);
+          final int count = 1 + randomChildCount(MAX_AUDITS);
 
           for (int i = 1; i <= count; ++i) {
             FissAuditTrail.Builder audit = FissAuditTrail.newBuilder();
@@ -638,7 +638,7 @@ public class RandomFissClaimGenerator extends AbstractRandomClaimGenerator<FissC
     always(
         "revenue",
         () -> {
-          final int count = 1 + randomInt(MAX_REVENUE_LINES);
+          final int count = 1 + randomChildCount(MAX_REVENUE_LINES);
 
           for (int i = 1; i <= count; ++i) {
             FissRevenueLine.Builder revenue = FissRevenueLine.newBuilder();
@@ -5,6 +5,7 @@ import gov.cms.mpsm.rda.v1.ChangeType;
 import gov.cms.mpsm.rda.v1.FissClaimChange;
 import gov.cms.mpsm.rda.v1.RecordSource;
 import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.NoSuchElementException;
@@ -65,8 +66,9 @@ public class RandomFissClaimSource implements MessageSource<FissClaimChange> {
     }
     sent += 1;
 
+    final Instant now = clock.instant();
     final Timestamp timestamp =
-        Timestamp.newBuilder().setSeconds(clock.instant().getEpochSecond()).build();
+        Timestamp.newBuilder().setSeconds(now.getEpochSecond()).setNanos(now.getNano()).build();
     final var claim = generator.randomClaim();
     final var source =
         RecordSource.newBuilder()
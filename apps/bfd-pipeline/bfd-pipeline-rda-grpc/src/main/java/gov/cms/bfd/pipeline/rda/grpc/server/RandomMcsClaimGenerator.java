@@ -147,7 +147,7 @@ public class RandomMcsClaimGenerator extends AbstractRandomClaimGenerator<McsCla
 
   @Override
   public McsClaim createRandomClaim() {
-    final int detailCount = 1 + randomInt(MAX_DETAILS);
+    final int detailCount = 1 + randomChildCount(MAX_DETAILS);
     McsClaim.Builder claim = McsClaim.newBuilder();
 
     always(
@@ -268,7 +268,7 @@ public class RandomMcsClaimGenerator extends AbstractRandomClaimGenerator<McsCla
     always(
         "adjustment",
         () -> {
-          final int count = randomInt(MAX_ADJUSTMENTS);
+          final int count = randomChildCount(MAX_ADJUSTMENTS);
 
           for (int i = 1; i <= count; ++i) {
             final McsAdjustment.Builder adjustment = McsAdjustment.newBuilder();
@@ -301,7 +301,7 @@ public class RandomMcsClaimGenerator extends AbstractRandomClaimGenerator<McsCla
     always(
         "audit",
         () -> {
-          final int count = randomInt(MAX_AUDITS);
+          final int count = randomChildCount(MAX_AUDITS);
 
           for (int i = 1; i <= count; ++i) {
             final McsAudit.Builder audit = McsAudit.newBuilder();
@@ -336,7 +336,7 @@ public class RandomMcsClaimGenerator extends AbstractRandomClaimGenerator<McsCla
     always(
         "diagnosisCode",
         () -> {
-          final int count = randomInt(MAX_DIAG_CODES);
+          final int count = randomChildCount(MAX_DIAG_CODES);
 
           for (int i = 1; i <= count; ++i) {
             final McsDiagnosisCode.Builder code = McsDiagnosisCode.newBuilder();
@@ -487,7 +487,7 @@ public class RandomMcsClaimGenerator extends AbstractRandomClaimGenerator<McsCla
     always(
         "location",
         () -> {
-          final int count = randomInt(MAX_LOCATIONS);
+          final int count = randomChildCount(MAX_LOCATIONS);
 
           for (int i = 1; i <= count; ++i) {
             final McsLocation.Builder location = McsLocation.newBuilder();
@@ -0,0 +1,60 @@
+package gov.cms.bfd.pipeline.rda.grpc.server;
+
+import com.google.common.util.concurrent.RateLimiter;
+
+/**
+ * Wrapper for a real MessageSource that limits the rate at which messages are delivered. Intended
+ * for use in benchmarks that use RdaServer to simulate a steady stream of claims rather than a
+ * burst of all available claims at once.
+ *
+ * @param <T> type of objects being delivered
+ */
+public class RateLimitedMessageSource<T> implements MessageSource<T> {
+  /** The message source being wrapped. */
+  private final MessageSource<T> source;
+
+  /** Used to block {@link #next} until a message is allowed to be delivered. */
+  private final RateLimiter rateLimiter;
+
+  /**
+   * Creates a new instance that delivers messages from source no faster than the specified rate.
+   *
+   * @param source actual MessageSource
+   * @param messagesPerSecond maximum number of messages to deliver per second
+   */
+  public RateLimitedMessageSource(MessageSource<T> source, double messagesPerSecond) {
+    this.source = source;
+    rateLimiter = RateLimiter.create(messagesPerSecond);
+  }
+
+  @Override
+  public MessageSource<T> skipTo(long startingSequenceNumber) throws Exception {
+    source.skipTo(startingSequenceNumber);
+    return this;
+  }
+
+  @Override
+  public boolean hasNext() throws Exception {
+    return source.hasNext();
+  }
+
+  /**
+   * Waits until the rate limit allows another message to be delivered and then returns the next
+   * message from the real source.
+   *
+   * <p>{@inheritDoc}
+   *
+   * @return value from real source
+   * @throws Exception pass through from source
+   */
+  @Override
+  public T next() throws Exception {
+    rateLimiter.acquire();
+    return source.next();
+  }
+
+  @Override
+  public void close() throws Exception {
+    source.close();
+  }
+}
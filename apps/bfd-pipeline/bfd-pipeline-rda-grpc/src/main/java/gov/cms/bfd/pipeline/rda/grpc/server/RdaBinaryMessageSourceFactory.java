@@ -0,0 +1,52 @@
+package gov.cms.bfd.pipeline.rda.grpc.server;
+
+import com.google.common.io.ByteSource;
+import gov.cms.mpsm.rda.v1.FissClaimChange;
+import gov.cms.mpsm.rda.v1.McsClaimChange;
+import jakarta.annotation.Nullable;
+import lombok.AllArgsConstructor;
+
+/**
+ * Implementation of {@link RdaMessageSourceFactory} that uses predefined value for version and
+ * reads claims from predefined {@link ByteSource}s containing length delimited binary protobuf
+ * data. Each source can optionally have a {@link MessageFileIndex} to speed up skipping.
+ */
+@AllArgsConstructor
+public class RdaBinaryMessageSourceFactory implements RdaMessageSourceFactory {
+  /** The version returned by {@link RdaService#getVersion}. */
+  private final RdaService.Version version;
+
+  /** Binary data containing FISS claims. */
+  private final ByteSource fissData;
+
+  /** Optional index for {@link #fissData}. */
+  @Nullable private final MessageFileIndex fissIndex;
+
+  /** Binary data containing MCS claims. */
+  private final ByteSource mcsData;
+
+  /** Optional index for {@link #mcsData}. */
+  @Nullable private final MessageFileIndex mcsIndex;
+
+  @Override
+  public RdaService.Version getVersion() {
+    return version;
+  }
+
+  @Override
+  public MessageSource<FissClaimChange> createFissMessageSource(long startingSequenceNumber)
+      throws Exception {
+    return new BinaryMessageSource<>(fissData, BinaryMessageSource.fissParser(), fissIndex)
+        .skipTo(startingSequenceNumber);
+  }
+
+  @Override
+  public MessageSource<McsClaimChange> createMcsMessageSource(long startingSequenceNumber)
+      throws Exception {
+    return new BinaryMessageSource<>(mcsData, BinaryMessageSource.mcsParser(), mcsIndex)
+        .skipTo(startingSequenceNumber);
+  }
+
+  @Override
+  public void close() throws Exception {}
+}
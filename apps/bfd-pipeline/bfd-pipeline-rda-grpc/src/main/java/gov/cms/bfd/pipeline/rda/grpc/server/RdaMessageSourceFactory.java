@@ -4,6 +4,7 @@ import static gov.cms.bfd.pipeline.rda.grpc.server.RdaService.RDA_PROTO_VERSION;
 import static java.lang.String.format;
 
 import com.google.common.base.Strings;
+import com.google.common.io.ByteSource;
 import com.google.common.io.CharSource;
 import com.google.common.io.Files;
 import gov.cms.bfd.pipeline.sharedutils.s3.AwsS3ClientFactory;
@@ -14,6 +15,7 @@ import gov.cms.mpsm.rda.v1.FissClaimChange;
 import gov.cms.mpsm.rda.v1.McsClaimChange;
 import jakarta.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.List;
@@ -52,6 +54,14 @@ public interface RdaMessageSourceFactory extends AutoCloseable {
   MessageSource<McsClaimChange> createMcsMessageSource(long startingSequenceNumber)
       throws Exception;
 
+  /** Supported formats for files containing claim data. */
+  enum FileFormat {
+    /** One JSON message per line. Parsed using protobuf JsonFormat. */
+    Ndjson,
+    /** Length delimited binary protobuf messages as written by {@link BinaryMessageWriter}. */
+    Binary
+  }
+
   /**
    * Object that can produce a particular instance of {@link RdaMessageSourceFactory} on demand
    * based on a flexible set of possible sources of data.
@@ -74,6 +84,18 @@ public interface RdaMessageSourceFactory extends AutoCloseable {
     /** NDJSON mcs claim data for the RDI Server. */
     @Nullable private final CharSource mcsClaimJson;
 
+    /** Length delimited binary fiss claim data for the RDA Server. */
+    @Nullable private final ByteSource fissClaimBinary;
+
+    /** Optional serialized {@link MessageFileIndex} for {@link #fissClaimBinary}. */
+    @Nullable private final ByteSource fissClaimBinaryIndex;
+
+    /** Length delimited binary mcs claim data for the RDA Server. */
+    @Nullable private final ByteSource mcsClaimBinary;
+
+    /** Optional serialized {@link MessageFileIndex} for {@link #mcsClaimBinary}. */
+    @Nullable private final ByteSource mcsClaimBinaryIndex;
+
     /** Name of our S3 bucket. */
     @Nullable private final String s3Bucket;
 
@@ -83,6 +105,9 @@ public interface RdaMessageSourceFactory extends AutoCloseable {
     /** Name of a local directory in which to store cached files from S3. */
     @Nullable private final String s3CacheDirectory;
 
+    /** Format of the claim data files stored in our S3 bucket. */
+    @Builder.Default private final FileFormat s3FileFormat = FileFormat.Ndjson;
+
     /** Optional hard coded version. */
     @Nullable private final RdaService.Version version;
 
@@ -93,13 +118,22 @@ public interface RdaMessageSourceFactory extends AutoCloseable {
      */
     int throwExceptionAfterCount;
 
+    /**
+     * If positive this causes all generated {@link MessageSource}s to be wrapped in {@link
+     * RateLimitedMessageSource} that delivers no more than this many messages per second.
+     */
+    double maxMessagesPerSecond;
+
     /**
      * Creates an instance based on which set of configuration values have been provided when
      * building this config. Possible instances are (in priority and based on which options were
      * provided): {@link RdaJsonMessageSourceFactory} using provided NDJSON data, {@link
-     * RdaS3JsonMessageSourceFactory} using an S3 bucket, or {@link RdaRandomMessageSourceFactory}
-     * if no other options applied. Optionally (if {@link #throwExceptionAfterCount} is positive)
-     * wraps factory in a {@link RdaExceptionMessageSourceFactory}.
+     * RdaBinaryMessageSourceFactory} using provided binary data, {@link
+     * RdaS3JsonMessageSourceFactory} or {@link RdaS3BinaryMessageSourceFactory} using an S3 bucket,
+     * or {@link RdaRandomMessageSourceFactory} if no other options applied. Optionally (if {@link
+     * #throwExceptionAfterCount} is positive) wraps factory in a {@link
+     * RdaExceptionMessageSourceFactory}. Optionally (if {@link #maxMessagesPerSecond} is positive)
+     * wraps factory in a {@link RdaRateLimitedMessageSourceFactory}.
      *
      * @return the instance
      * @throws Exception pass through any exceptions
@@ -108,6 +142,8 @@ public interface RdaMessageSourceFactory extends AutoCloseable {
       RdaMessageSourceFactory factory;
       if (fissClaimJson != null || mcsClaimJson != null) {
         factory = createJsonMessageSourceFactory();
+      } else if (fissClaimBinary != null || mcsClaimBinary != null) {
+        factory = createBinaryMessageSourceFactory();
       } else if (s3Bucket != null) {
         factory = createS3MessageSourceFactory();
       } else {
@@ -116,6 +152,9 @@ public interface RdaMessageSourceFactory extends AutoCloseable {
       if (throwExceptionAfterCount > 0) {
         factory = new RdaExceptionMessageSourceFactory(factory, throwExceptionAfterCount);
       }
+      if (maxMessagesPerSecond > 0) {
+        factory = new RdaRateLimitedMessageSourceFactory(factory, maxMessagesPerSecond);
+      }
       return factory;
     }
 
@@ -136,7 +175,29 @@ public interface RdaMessageSourceFactory extends AutoCloseable {
     }
 
     /**
-     * Creates {@link RdaS3JsonMessageSourceFactory} using provided S3 bucket information.
+     * Creates {@link RdaBinaryMessageSourceFactory} using provided binary data sources and indexes.
+     *
+     * @return the instance
+     * @throws IOException if an index could not be read
+     */
+    private RdaMessageSourceFactory createBinaryMessageSourceFactory() throws IOException {
+      final RdaService.Version version =
+          this.version != null ? this.version : RdaService.Version.builder().build();
+      ByteSource fissData = fissClaimBinary != null ? fissClaimBinary : ByteSource.empty();
+      ByteSource mcsData = mcsClaimBinary != null ? mcsClaimBinary : ByteSource.empty();
+      MessageFileIndex fissIndex =
+          fissClaimBinaryIndex != null ? MessageFileIndex.read(fissClaimBinaryIndex) : null;
+      MessageFileIndex mcsIndex =
+          mcsClaimBinaryIndex != null ? MessageFileIndex.read(mcsClaimBinaryIndex) : null;
+      log.info(
+          "serving claims using {} with data from files",
+          RdaBinaryMessageSourceFactory.class.getSimpleName());
+      return new RdaBinaryMessageSourceFactory(version, fissData, fissIndex, mcsData, mcsIndex);
+    }
+
+    /**
+     * Creates {@link RdaS3JsonMessageSourceFactory} or {@link RdaS3BinaryMessageSourceFactory}
+     * (depending on {@link #s3FileFormat}) using provided S3 bucket information.
      *
      * @return the instance
      */
@@ -162,11 +223,15 @@ public interface RdaMessageSourceFactory extends AutoCloseable {
               cacheDirectory,
               useTempDirectoryForCache,
               false);
+      final RdaMessageSourceFactory factory =
+          s3FileFormat == FileFormat.Binary
+              ? new RdaS3BinaryMessageSourceFactory(version, s3Dao)
+              : new RdaS3JsonMessageSourceFactory(version, s3Dao);
       log.info(
           "serving claims using {} with data from S3 bucket {}",
-          RdaS3JsonMessageSourceFactory.class.getSimpleName(),
+          factory.getClass().getSimpleName(),
           s3Dao.getS3BucketName());
-      return new RdaS3JsonMessageSourceFactory(version, s3Dao);
+      return factory;
     }
 
     /**
@@ -242,6 +307,75 @@ public interface RdaMessageSourceFactory extends AutoCloseable {
         }
         return this;
       }
+
+      /**
+       * Optionally add a binary {@link File} as a source of FISS claim data. If a companion index
+       * file (same name plus {@link BinaryMessageWriter#INDEX_FILE_SUFFIX}) exists it will be used
+       * as the index. The argument can be null so that this can be called when a file may or may
+       * not be available.
+       *
+       * @param binaryFile null or a valid {@link File} containing binary data
+       * @return this builder
+       */
+      public ConfigBuilder fissClaimBinaryFile(@Nullable File binaryFile) {
+        if (binaryFile != null) {
+          fissClaimBinary(Files.asByteSource(binaryFile));
+          fissClaimBinaryIndex(indexSourceFor(binaryFile));
+        }
+        return this;
+      }
+
+      /**
+       * Optionally add a binary {@link File} as a source of MCS claim data. If a companion index
+       * file (same name plus {@link BinaryMessageWriter#INDEX_FILE_SUFFIX}) exists it will be used
+       * as the index. The argument can be null so that this can be called when a file may or may
+       * not be available.
+       *
+       * @param binaryFile null or a valid {@link File} containing binary data
+       * @return this builder
+       */
+      public ConfigBuilder mcsClaimBinaryFile(@Nullable File binaryFile) {
+        if (binaryFile != null) {
+          mcsClaimBinary(Files.asByteSource(binaryFile));
+          mcsClaimBinaryIndex(indexSourceFor(binaryFile));
+        }
+        return this;
+      }
+
+      /**
+       * Adds the file as a source of FISS claim data using the appropriate method for the format.
+       *
+       * @param format format of the file
+       * @param file null or a valid {@link File} containing claim data
+       * @return this builder
+       */
+      public ConfigBuilder fissClaimFile(FileFormat format, @Nullable File file) {
+        return format == FileFormat.Binary ? fissClaimBinaryFile(file) : fissClaimJsonFile(file);
+      }
+
+      /**
+       * Adds the file as a source of MCS claim data using the appropriate method for the format.
+       *
+       * @param format format of the file
+       * @param file null or a valid {@link File} containing claim data
+       * @return this builder
+       */
+      public ConfigBuilder mcsClaimFile(FileFormat format, @Nullable File file) {
+        return format == FileFormat.Binary ? mcsClaimBinaryFile(file) : mcsClaimJsonFile(file);
+      }
+
+      /**
+       * Finds the index file for a binary data file.
+       *
+       * @param binaryFile the data file
+       * @return a {@link ByteSource} for the index file or null if no index file exists
+       */
+      @Nullable
+      private static ByteSource indexSourceFor(File binaryFile) {
+        final File indexFile =
+            new File(binaryFile.getPath() + BinaryMessageWriter.INDEX_FILE_SUFFIX);
+        return indexFile.isFile() ? Files.asByteSource(indexFile) : null;
+      }
     }
   }
 }
@@ -0,0 +1,60 @@
+package gov.cms.bfd.pipeline.rda.grpc.server;
+
+import gov.cms.mpsm.rda.v1.FissClaimChange;
+import gov.cms.mpsm.rda.v1.McsClaimChange;
+import lombok.AllArgsConstructor;
+
+/**
+ * Decorator for another {@link RdaMessageSourceFactory} that wraps every {@link MessageSource} with
+ * a {@link RateLimitedMessageSource}.
+ */
+@AllArgsConstructor
+public class RdaRateLimitedMessageSourceFactory implements RdaMessageSourceFactory {
+  /** The {@link RdaMessageSourceFactory} being decorated. */
+  private final RdaMessageSourceFactory realFactory;
+
+  /** Maximum number of messages per second delivered by each {@link MessageSource}. */
+  private final double messagesPerSecond;
+
+  @Override
+  public RdaService.Version getVersion() {
+    return realFactory.getVersion();
+  }
+
+  /**
+   * Returns the wrapped message source.
+   *
+   * <p>{@inheritDoc}
+   *
+   * @param startingSequenceNumber first sequence number to send to the client
+   * @return the wrapped message source
+   * @throws Exception if creating the real message source fails
+   */
+  @Override
+  public MessageSource<FissClaimChange> createFissMessageSource(long startingSequenceNumber)
+      throws Exception {
+    return new RateLimitedMessageSource<>(
+        realFactory.createFissMessageSource(startingSequenceNumber), messagesPerSecond);
+  }
+
+  /**
+   * Returns the wrapped message source.
+   *
+   * <p>{@inheritDoc}
+   *
+   * @param startingSequenceNumber first sequence number to send to the client
+   * @return the wrapped message source
+   * @throws Exception if creating the real message source fails
+   */
+  @Override
+  public MessageSource<McsClaimChange> createMcsMessageSource(long startingSequenceNumber)
+      throws Exception {
+    return new RateLimitedMessageSource<>(
+        realFactory.createMcsMessageSource(startingSequenceNumber), messagesPerSecond);
+  }
+
+  @Override
+  public void close() throws Exception {
+    realFactory.close();
+  }
+}
@@ -0,0 +1,158 @@
+package gov.cms.bfd.pipeline.rda.grpc.server;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteSource;
+import gov.cms.bfd.pipeline.sharedutils.s3.S3DirectoryDao;
+import gov.cms.mpsm.rda.v1.FissClaimChange;
+import gov.cms.mpsm.rda.v1.McsClaimChange;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Uses an {@link S3DirectoryDao} client and a bucket name to simplify creation of {@link
+ * MessageSource}s that read FISS or MCS claims stored as length delimited binary protobuf messages
+ * in the bucket. Objects are matched using the same naming conventions as {@link
+ * RdaS3JsonMessageSourceFactory} but with a {@code binpb} suffix. If an object has a companion
+ * index object (same key plus {@link BinaryMessageWriter#INDEX_FILE_SUFFIX}) it is downloaded and
+ * used to speed up skipping to the starting sequence number.
+ */
+@Slf4j
+public class RdaS3BinaryMessageSourceFactory implements RdaMessageSourceFactory {
+  /** S3 suffix for files. */
+  private static final String FILE_SUFFIX = "binpb";
+
+  /** Used to access data from S3 bucket. */
+  private final S3DirectoryDao s3Dao;
+
+  /** The version returned by {@link RdaService#getVersion}. */
+  private final RdaService.Version version;
+
+  /** Source of records for {@link RdaService#getFissClaims}. */
+  private final S3BucketMessageSourceFactory<FissClaimChange> fissFactory;
+
+  /** Source of records for {@link RdaService#getMcsClaims}. */
+  private final S3BucketMessageSourceFactory<McsClaimChange> mcsFactory;
+
+  /**
+   * Initialize an instance using the provided version and {@link S3DirectoryDao}.
+   *
+   * @param version version to return to clients
+   * @param s3Dao used to access data in S3
+   */
+  public RdaS3BinaryMessageSourceFactory(RdaService.Version version, S3DirectoryDao s3Dao) {
+    this.version = version;
+    this.s3Dao = s3Dao;
+    fissFactory =
+        new S3BucketMessageSourceFactory<>(
+            s3Dao,
+            RdaS3JsonMessageSourceFactory.FISS_PREFIX,
+            FILE_SUFFIX,
+            this::readFissClaimChanges);
+    mcsFactory =
+        new S3BucketMessageSourceFactory<>(
+            s3Dao,
+            RdaS3JsonMessageSourceFactory.MCS_PREFIX,
+            FILE_SUFFIX,
+            this::readMcsClaimChanges);
+  }
+
+  @Override
+  public RdaService.Version getVersion() {
+    return version;
+  }
+
+  @Override
+  public MessageSource<FissClaimChange> createFissMessageSource(long startingSequenceNumber)
+      throws Exception {
+    return fissFactory.createMessageSource(startingSequenceNumber);
+  }
+
+  @Override
+  public MessageSource<McsClaimChange> createMcsMessageSource(long startingSequenceNumber)
+      throws Exception {
+    return mcsFactory.createMessageSource(startingSequenceNumber);
+  }
+
+  /**
+   * Closes our {@link S3DirectoryDao}. {@inheritDoc}
+   *
+   * @throws Exception pass through
+   */
+  @Override
+  public void close() throws Exception {
+    s3Dao.close();
+  }
+
+  /**
+   * Creates a valid S3 key for tests that upload data into an S3 bucket for testing.
+   *
+   * @return valid FISS claim data key
+   */
+  @VisibleForTesting
+  public static String createValidFissKeyForTesting() {
+    return S3BucketMessageSourceFactory.createValidObjectKey(
+        RdaS3JsonMessageSourceFactory.FISS_PREFIX, FILE_SUFFIX);
+  }
+
+  /**
+   * Creates a valid S3 key for tests that upload data into an S3 bucket for testing.
+   *
+   * @return valid MCS claim data key
+   */
+  @VisibleForTesting
+  public static String createValidMcsKeyForTesting() {
+    return S3BucketMessageSourceFactory.createValidObjectKey(
+        RdaS3JsonMessageSourceFactory.MCS_PREFIX, FILE_SUFFIX);
+  }
+
+  /**
+   * Creates a {@link MessageSource} that reads {@link FissClaimChange} from an object in the
+   * bucket.
+   *
+   * @param objectKey identifies the object containing our binary data
+   * @return a MessageSource that reads and parses the data
+   */
+  private MessageSource<FissClaimChange> readFissClaimChanges(String objectKey) {
+    return createMessageSource(objectKey, BinaryMessageSource.fissParser());
+  }
+
+  /**
+   * Creates a {@link MessageSource} that reads {@link McsClaimChange} from an object in the bucket.
+   *
+   * @param objectKey identifies the object containing our binary data
+   * @return a MessageSource that reads and parses the data
+   */
+  private MessageSource<McsClaimChange> readMcsClaimChanges(String objectKey) {
+    return createMessageSource(objectKey, BinaryMessageSource.mcsParser());
+  }
+
+  /**
+   * Creates a message source from the object with the specified key and parser. Also downloads the
+   * object's index if one exists in the bucket.
+   *
+   * @param <T> the type parameter
+   * @param objectKey the key of the object to read
+   * @param parser the parser to parse the object
+   * @return a message source created from the parsed object
+   */
+  private <T> MessageSource<T> createMessageSource(
+      String objectKey, BinaryMessageSource.Parser<T> parser) {
+    final String indexKey = objectKey + BinaryMessageWriter.INDEX_FILE_SUFFIX;
+    try {
+      MessageFileIndex index = null;
+      if (s3Dao.readFileNames().contains(indexKey)) {
+        index = MessageFileIndex.read(s3Dao.downloadFile(indexKey));
+      }
+      log.info(
+          "creating BinaryMessageSource from S3: bucket={} key={} indexEntries={}",
+          s3Dao.getS3BucketName(),
+          objectKey,
+          index == null ? 0 : index.size());
+      final ByteSource byteSource = s3Dao.downloadFile(objectKey);
+      return new BinaryMessageSource<>(byteSource, parser, index);
+    } catch (IOException ex) {
+      throw new RuntimeException(
+          String.format("error while downloading file from S3 bucket: key=%s", objectKey), ex);
+    }
+  }
+}
@@ -11,6 +11,7 @@ import gov.cms.bfd.pipeline.rda.grpc.ProcessingException;
 import gov.cms.bfd.pipeline.rda.grpc.RdaChange;
 import gov.cms.bfd.pipeline.rda.grpc.RdaSink;
 import gov.cms.bfd.pipeline.sharedutils.PipelineApplicationState;
+import gov.cms.bfd.pipeline.sharedutils.ThroughputMetrics;
 import gov.cms.bfd.pipeline.sharedutils.TransactionManager;
 import gov.cms.model.dsl.codegen.library.DataTransformer;
 import io.micrometer.core.instrument.Counter;
@@ -91,7 +92,7 @@ abstract class AbstractClaimRdaSink<TMessage, TClaim>
       boolean autoUpdateLastSeq,
       int errorLimit) {
     transactionManager = new TransactionManager(appState.getEntityManagerFactory());
-    metrics = new Metrics(getClass(), appState.getMeters());
+    metrics = new Metrics(getClass(), appState.getMeters(), claimType);
     clock = appState.getClock();
     logger = LoggerFactory.getLogger(getClass());
     this.claimType = claimType;
@@ -231,10 +232,12 @@ abstract class AbstractClaimRdaSink<TMessage, TClaim>
           error.getMessage(),
           error);
       metrics.failures.increment();
+      metrics.failedRecords.increment(claims.size());
       throw new ProcessingException(error, 0);
     }
     metrics.successes.increment();
     metrics.objectsWritten.increment(claims.size());
+    metrics.writtenRecords.increment(claims.size());
     return claims.size();
   }
 
@@ -357,9 +360,11 @@ abstract class AbstractClaimRdaSink<TMessage, TClaim>
     try {
       var change = transformMessageImpl(apiVersion, message);
       metrics.transformSuccesses.increment();
+      metrics.queuedRecords.increment();
       result = Optional.of(change);
     } catch (DataTransformer.TransformationException transformationException) {
       metrics.transformFailures.increment();
+      metrics.failedRecords.increment();
       logger.error("Claim transformation error", transformationException);
       writeError(apiVersion, message, transformationException);
       result = Optional.empty();
@@ -534,13 +539,26 @@ abstract class AbstractClaimRdaSink<TMessage, TClaim>
     /** The number of insert statements executed. */
     private final DistributionSummary insertCount;
 
+    /** Number of claims transformed and ready to write in the shared {@link ThroughputMetrics}. */
+    private final Counter queuedRecords;
+
+    /** Number of claims written in the shared {@link ThroughputMetrics}. */
+    private final Counter writtenRecords;
+
+    /**
+     * Number of claims that could not be transformed or written in the shared {@link
+     * ThroughputMetrics}.
+     */
+    private final Counter failedRecords;
+
     /**
      * Initializes all the metrics.
      *
      * @param klass used to derive metric names
      * @param appMetrics where to store the metrics
+     * @param claimType used as the source of the claims in {@link ThroughputMetrics}
      */
-    private Metrics(Class<?> klass, MeterRegistry appMetrics) {
+    private Metrics(Class<?> klass, MeterRegistry appMetrics, RdaApiProgress.ClaimType claimType) {
       final String base = klass.getSimpleName();
       calls = appMetrics.counter(MetricRegistry.name(base, "calls"));
       successes = appMetrics.counter(MetricRegistry.name(base, "successes"));
@@ -560,6 +578,12 @@ abstract class AbstractClaimRdaSink<TMessage, TClaim>
       latestSequenceNumber = GAUGES.getGaugeForName(appMetrics, latestSequenceNumberGaugeName);
       latestSequenceNumberValue = GAUGES.getValueForName(latestSequenceNumberGaugeName);
       insertCount = appMetrics.summary(MetricRegistry.name(base, "insertCount"));
+      final ThroughputMetrics throughputMetrics =
+          new ThroughputMetrics(appMetrics, ThroughputMetrics.RDA_PIPELINE);
+      final String source = claimType.name().toLowerCase();
+      queuedRecords = throughputMetrics.getStageCounter(source, ThroughputMetrics.Stage.QUEUED);
+      writtenRecords = throughputMetrics.getStageCounter(source, ThroughputMetrics.Stage.WRITTEN);
+      failedRecords = throughputMetrics.getStageCounter(source, ThroughputMetrics.Stage.FAILED);
     }
 
     /**
@@ -8,6 +8,7 @@ import gov.cms.bfd.pipeline.rda.grpc.NumericGauges;
 import gov.cms.bfd.pipeline.rda.grpc.ProcessingException;
 import gov.cms.bfd.pipeline.rda.grpc.RdaSink;
 import gov.cms.bfd.pipeline.rda.grpc.RdaSource;
+import gov.cms.bfd.pipeline.sharedutils.ThroughputMetrics;
 import io.grpc.CallOptions;
 import io.grpc.ManagedChannel;
 import io.micrometer.core.instrument.Counter;
@@ -286,6 +287,9 @@ public abstract class AbstractGrpcRdaSource<TMessage, TClaim>
     /** Holds the value that is reported in the update gauge. */
     private final AtomicLong uptime;
 
+    /** Number of objects received from the RDA API in the shared {@link ThroughputMetrics}. */
+    private final Counter receivedRecords;
+
     /**
      * Constructor to create a Metrics object.
      *
@@ -305,6 +309,18 @@ public abstract class AbstractGrpcRdaSource<TMessage, TClaim>
       batches = appMetrics.counter(MetricRegistry.name(base, "batches"));
       final String uptimeGaugeName = MetricRegistry.name(base, "uptime");
       uptime = GAUGES.getGaugeForName(appMetrics, uptimeGaugeName);
+      receivedRecords =
+          new ThroughputMetrics(appMetrics, ThroughputMetrics.RDA_PIPELINE)
+              .getStageCounter(claimType, ThroughputMetrics.Stage.RECEIVED);
+    }
+
+    /**
+     * Counts an object received from the RDA API in both {@link #objectsReceived} and the shared
+     * {@link ThroughputMetrics}.
+     */
+    public void recordObjectReceived() {
+      objectsReceived.increment();
+      receivedRecords.increment();
     }
   }
 }
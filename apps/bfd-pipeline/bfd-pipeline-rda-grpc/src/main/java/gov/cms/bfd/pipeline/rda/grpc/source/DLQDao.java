@@ -1,11 +1,13 @@
 package gov.cms.bfd.pipeline.rda.grpc.source;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterables;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import gov.cms.bfd.model.rda.MessageError;
 import gov.cms.bfd.pipeline.sharedutils.TransactionManager;
 import java.time.Clock;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +16,8 @@ import lombok.RequiredArgsConstructor;
 @VisibleForTesting
 @RequiredArgsConstructor
 class DLQDao implements AutoCloseable {
+  /** Maximum number of sequence numbers to include in a single bulk update statement. */
+  @VisibleForTesting static final int MAX_SEQUENCE_NUMBERS_PER_UPDATE = 1_000;
 
   /** Used for time calculation. */
   private final Clock clock;
@@ -71,6 +75,42 @@ class DLQDao implements AutoCloseable {
         });
   }
 
+  /**
+   * Updates the message error status for all entries with the specified sequence numbers and type
+   * in a single transaction. Large collections are split into multiple update statements.
+   *
+   * @param sequenceNumbers the sequence numbers to check for
+   * @param type the type to check for
+   * @param status the status to update with
+   * @return the number of entities affected by the update
+   */
+  public int updateStates(
+      Collection<Long> sequenceNumbers, MessageError.ClaimType type, MessageError.Status status) {
+    if (sequenceNumbers.isEmpty()) {
+      return 0;
+    }
+    return transactionManager.executeFunction(
+        entityManager -> {
+          int entitiesAffected = 0;
+          for (List<Long> chunk :
+              Iterables.partition(sequenceNumbers, MAX_SEQUENCE_NUMBERS_PER_UPDATE)) {
+            entitiesAffected +=
+                entityManager
+                    .createQuery(
+                        "update MessageError error"
+                            + " set error.status = :status, error.updatedDate = :updatedDate"
+                            + " where error.claimType = :claimType"
+                            + " and error.sequenceNumber in :sequenceNumbers")
+                    .setParameter("status", status)
+                    .setParameter("updatedDate", clock.instant())
+                    .setParameter("claimType", type)
+                    .setParameter("sequenceNumbers", chunk)
+                    .executeUpdate();
+          }
+          return entitiesAffected;
+        });
+  }
+
   /**
    * Deletes any unprocessed message errors with the given type that have not been updated within
    * the given number of days. Unprocessed means having a status other than {@link
@@ -1,26 +1,35 @@
 package gov.cms.bfd.pipeline.rda.grpc.source;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import gov.cms.bfd.model.rda.MessageError;
+import gov.cms.bfd.pipeline.rda.grpc.NumericGauges;
 import gov.cms.bfd.pipeline.rda.grpc.ProcessingException;
 import gov.cms.bfd.pipeline.rda.grpc.RdaSink;
 import gov.cms.bfd.pipeline.sharedutils.MultiCloser;
 import gov.cms.bfd.pipeline.sharedutils.TransactionManager;
 import io.grpc.CallOptions;
 import io.grpc.ManagedChannel;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Clock;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiPredicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -34,6 +43,13 @@ import lombok.extern.slf4j.Slf4j;
  * batching received objects and passing them to the RdaSink object for storage. Basic metrics are
  * tracked at this level.
  *
+ * <p>By default each DLQ entry is requested from the API individually. When a maximum range gap is
+ * configured the sequence numbers are instead coalesced into ranges of nearby values and each range
+ * is streamed from the API once. Messages for sequence numbers not in the DLQ are discarded and
+ * matching messages are written to the sink in batches with the {@link MessageError} states for
+ * each batch updated using a single statement. This drains a large DLQ far faster than one API call
+ * and transaction per entry.
+ *
  * @param <TMessage> type of objects returned by the gRPC service
  */
 @Slf4j
@@ -48,9 +64,21 @@ public class DLQGrpcRdaSource<TMessage, TClaim> extends AbstractGrpcRdaSource<TM
   /** Used to compare sequence values. */
   private final BiPredicate<Long, TMessage> sequencePredicate;
 
+  /** Holds the underlying value of our DLQ gauges. */
+  private static final NumericGauges GAUGES = new NumericGauges();
+
   /** Number of days after which processed messages should expire and be deleted from the DLQ. */
   private final Optional<Integer> messageErrorExpirationDays;
 
+  /**
+   * Maximum difference between consecutive sequence numbers coalesced into a single range. Empty if
+   * each entry should be requested individually.
+   */
+  private final Optional<Integer> rangeMaxGap;
+
+  /** Metrics tracking the size of the DLQ and how quickly it is drained. */
+  @Getter private final DlqMetrics dlqMetrics;
+
   /**
    * The primary constructor for this class. Constructs a GrpcRdaSource and opens a channel to the
    * gRPC service.
@@ -81,6 +109,7 @@ public class DLQGrpcRdaSource<TMessage, TClaim> extends AbstractGrpcRdaSource<TM
         claimType,
         rdaVersion,
         config.getMessageErrorExpirationDays(),
+        config.getDlqRangeMaxGap(),
         new DLQDao(Clock.systemUTC(), Preconditions.checkNotNull(transactionManager)));
   }
 
@@ -98,6 +127,7 @@ public class DLQGrpcRdaSource<TMessage, TClaim> extends AbstractGrpcRdaSource<TM
    * @param claimType string representation of the claim type
    * @param rdaVersion The required {@link RdaVersion} in order to ingest data
    * @param messageErrorExpirationDays value for messageErrorExpirationDays
+   * @param rangeMaxGap max gap between sequence numbers in a range, empty to disable ranges
    * @param dao {@link DLQDao} used for database transactions
    */
   @VisibleForTesting
@@ -111,6 +141,7 @@ public class DLQGrpcRdaSource<TMessage, TClaim> extends AbstractGrpcRdaSource<TM
       String claimType,
       RdaVersion rdaVersion,
       Optional<Integer> messageErrorExpirationDays,
+      Optional<Integer> rangeMaxGap,
       DLQDao dao) {
     super(
         Preconditions.checkNotNull(channel),
@@ -122,6 +153,8 @@ public class DLQGrpcRdaSource<TMessage, TClaim> extends AbstractGrpcRdaSource<TM
     this.dao = dao;
     this.sequencePredicate = sequencePredicate;
     this.messageErrorExpirationDays = messageErrorExpirationDays;
+    this.rangeMaxGap = rangeMaxGap;
+    this.dlqMetrics = new DlqMetrics(getClass(), appMetrics, claimType);
   }
 
   /**
@@ -163,6 +196,7 @@ public class DLQGrpcRdaSource<TMessage, TClaim> extends AbstractGrpcRdaSource<TM
 
     final Set<Long> sequenceNumbers =
         messageErrors.stream().map(MessageError::getSequenceNumber).collect(Collectors.toSet());
+    dlqMetrics.backlog.set(sequenceNumbers.size());
 
     if (sequenceNumbers.isEmpty()) {
       log.info("Found no {} claims in DLQ, skipping", claimType);
@@ -170,8 +204,26 @@ public class DLQGrpcRdaSource<TMessage, TClaim> extends AbstractGrpcRdaSource<TM
       log.info(
           "Found {} {} claims in DLQ, attempting to reprocess", sequenceNumbers.size(), claimType);
 
-      totalProcessed =
-          tryRetrieveAndProcessObjects(dlqProcessingLogic(sink, type, sequenceNumbers));
+      final long startMillis = System.currentTimeMillis();
+      final long startDrained = dlqMetrics.getDrainedCount();
+      if (rangeMaxGap.isPresent()) {
+        totalProcessed =
+            tryRetrieveAndProcessObjects(
+                bulkDlqProcessingLogic(
+                    sink, type, maxPerBatch, sequenceNumbers, rangeMaxGap.get()));
+      } else {
+        totalProcessed =
+            tryRetrieveAndProcessObjects(dlqProcessingLogic(sink, type, sequenceNumbers));
+      }
+      final long elapsedMillis = Math.max(1, System.currentTimeMillis() - startMillis);
+      final long drained = dlqMetrics.getDrainedCount() - startDrained;
+      dlqMetrics.drainRate.set(drained * 1000 / elapsedMillis);
+      log.info(
+          "Drained {} {} claims from DLQ in {}ms, {} remain",
+          drained,
+          claimType,
+          elapsedMillis,
+          dlqMetrics.backlog.get());
     }
 
     return totalProcessed;
@@ -240,7 +292,7 @@ public class DLQGrpcRdaSource<TMessage, TClaim> extends AbstractGrpcRdaSource<TM
             if (responseStream.hasNext()) {
               setUptimeToReceiving();
               final TMessage result = responseStream.next();
-              metrics.getObjectsReceived().increment();
+              metrics.recordObjectReceived();
 
               if (sequencePredicate.test(startingSequenceNumber, result)) {
                 // It's a match, so check if we can successfully process it now.
@@ -251,6 +303,7 @@ public class DLQGrpcRdaSource<TMessage, TClaim> extends AbstractGrpcRdaSource<TM
                 if (processed > 0
                     && dao.updateState(startingSequenceNumber, type, MessageError.Status.RESOLVED)
                         > 0) {
+                  dlqMetrics.recordDrained(MessageError.Status.RESOLVED, 1);
                   log.info(
                       "{} claim with sequence ({}) processed successfully, marking as resolved",
                       claimType,
@@ -260,6 +313,7 @@ public class DLQGrpcRdaSource<TMessage, TClaim> extends AbstractGrpcRdaSource<TM
                 // We didn't get the sequence number we wanted, which means it's obsolete
                 if (dao.updateState(startingSequenceNumber, type, MessageError.Status.OBSOLETE)
                     > 0) {
+                  dlqMetrics.recordDrained(MessageError.Status.OBSOLETE, 1);
                   log.info(
                       "{} claim with sequence({}) was not returned, marking as obsolete",
                       claimType,
@@ -291,19 +345,306 @@ public class DLQGrpcRdaSource<TMessage, TClaim> extends AbstractGrpcRdaSource<TM
         }
       }
 
-      try {
-        sink.shutdown(MAX_SINK_SHUTDOWN_WAIT);
-      } catch (Exception ex) {
-        if (processResult.getException() != null) {
-          processResult.getException().addSuppressed(ex);
-        } else {
-          processResult.setException(ex);
+      shutdownSink(sink, processResult);
+      return processResult;
+    };
+  }
+
+  /**
+   * Helper method, called internally, to return the bulk DLQ processing logic to pass to {@link
+   * AbstractGrpcRdaSource#tryRetrieveAndProcessObjects(Processor)}. The sequence numbers are
+   * coalesced into ranges using {@link #coalesceSequenceNumbers} and each range is streamed from
+   * the API once.
+   *
+   * @param sink The sink to use to write claims, etc.
+   * @param type The {@link MessageError.ClaimType} associated with the claims to process.
+   * @param maxPerBatch maximum number of claims to write to the sink in a single batch
+   * @param sequenceNumbers A {@link Set} of sequence numbers to attempt to reprocess
+   * @param maxGap maximum difference between consecutive sequence numbers in a range
+   * @return The DLQ processing logic {@link Processor}.
+   */
+  @VisibleForTesting
+  Processor bulkDlqProcessingLogic(
+      RdaSink<TMessage, TClaim> sink,
+      MessageError.ClaimType type,
+      int maxPerBatch,
+      Set<Long> sequenceNumbers,
+      int maxGap) {
+    return () -> {
+      ProcessResult processResult = new ProcessResult();
+      final String apiVersion = caller.callVersionService(channel, callOptionsFactory.get());
+      checkApiVersion(apiVersion);
+
+      for (List<Long> range : coalesceSequenceNumbers(sequenceNumbers, maxGap)) {
+        final long firstSequenceNumber = range.get(0);
+        final long lastSequenceNumber = range.get(range.size() - 1);
+        log.info(
+            "calling API for {} claims in range {} to {} containing {} DLQ entries",
+            claimType,
+            firstSequenceNumber,
+            lastSequenceNumber,
+            range.size());
+
+        // The "since" parameter of the RDA API is non-inclusive.
+        try (GrpcResponseStream<TMessage> responseStream =
+            caller.callService(channel, callOptionsFactory.get(), firstSequenceNumber - 1)) {
+          try {
+            processResult.addCount(
+                processRange(apiVersion, sink, type, maxPerBatch, range, responseStream));
+            responseStream.cancelStream("No further messages need to be ingested.");
+          } catch (GrpcResponseStream.StreamInterruptedException ex) {
+            processResult.setInterrupted(true);
+            responseStream.cancelStream("shutting down due to InterruptedException");
+            break;
+          } catch (Exception e) {
+            responseStream.cancelStream("shutting down due to Exception");
+            // Any claims we failed to process stay in the DLQ, nothing to do.
+            log.error(
+                "Failed to process {} messages in range {} to {}",
+                claimType,
+                firstSequenceNumber,
+                lastSequenceNumber,
+                e);
+          }
         }
       }
 
-      processResult.addCount(sink.getProcessedCount());
-
+      shutdownSink(sink, processResult);
       return processResult;
     };
   }
+
+  /**
+   * Groups sequence numbers into ascending ranges such that consecutive values within a range are
+   * no more than maxGap apart. A maxGap of 1 only coalesces strictly contiguous values.
+   *
+   * @param sequenceNumbers the sequence numbers to group
+   * @param maxGap maximum difference between consecutive values in a range
+   * @return the ranges in ascending order, each containing its sequence numbers in ascending order
+   */
+  @VisibleForTesting
+  static List<List<Long>> coalesceSequenceNumbers(Collection<Long> sequenceNumbers, int maxGap) {
+    final List<List<Long>> ranges = new ArrayList<>();
+    List<Long> range = null;
+    for (long sequenceNumber : new TreeSet<>(sequenceNumbers)) {
+      if (range == null || sequenceNumber - range.get(range.size() - 1) > maxGap) {
+        range = new ArrayList<>();
+        ranges.add(range);
+      }
+      range.add(sequenceNumber);
+    }
+    return ranges;
+  }
+
+  /**
+   * Reads messages from the stream until every sequence number in the range has been seen or
+   * passed. Matching messages are written to the sink in batches. Sequence numbers that the API
+   * skipped over are marked obsolete. Any that were not reached before the stream ended remain
+   * unresolved.
+   *
+   * @param apiVersion version of the API that produced the messages
+   * @param sink The sink to use to write claims
+   * @param type The {@link MessageError.ClaimType} associated with the claims
+   * @param maxPerBatch maximum number of claims to write to the sink in a single batch
+   * @param range the sequence numbers wanted in ascending order
+   * @param responseStream stream of messages starting at the first sequence number in the range
+   * @return number of claims written to the sink
+   * @throws Exception if reading from the stream or writing to the database fails
+   */
+  private int processRange(
+      String apiVersion,
+      RdaSink<TMessage, TClaim> sink,
+      MessageError.ClaimType type,
+      int maxPerBatch,
+      List<Long> range,
+      GrpcResponseStream<TMessage> responseStream)
+      throws Exception {
+    final Map<Object, TMessage> batch = new LinkedHashMap<>();
+    final List<Long> batchSequenceNumbers = new ArrayList<>();
+    final List<Long> obsoleteSequenceNumbers = new ArrayList<>();
+    final Iterator<Long> wanted = range.iterator();
+    Long nextWanted = wanted.next();
+    int processed = 0;
+
+    while (nextWanted != null && responseStream.hasNext()) {
+      setUptimeToReceiving();
+      final TMessage message = responseStream.next();
+      metrics.recordObjectReceived();
+      final long sequenceNumber = sink.getSequenceNumberForObject(message);
+
+      // The API skipped any wanted values lower than this one so they are obsolete.
+      while (nextWanted != null && nextWanted < sequenceNumber) {
+        obsoleteSequenceNumbers.add(nextWanted);
+        nextWanted = wanted.hasNext() ? wanted.next() : null;
+      }
+      if (nextWanted != null && sequencePredicate.test(nextWanted, message)) {
+        batch.put(sink.getClaimIdForMessage(message), message);
+        batchSequenceNumbers.add(nextWanted);
+        nextWanted = wanted.hasNext() ? wanted.next() : null;
+        if (batch.size() >= maxPerBatch) {
+          processed += submitDlqBatch(apiVersion, sink, type, batch, batchSequenceNumbers);
+        }
+      }
+    }
+    if (!batch.isEmpty()) {
+      processed += submitDlqBatch(apiVersion, sink, type, batch, batchSequenceNumbers);
+    }
+    updateStates(obsoleteSequenceNumbers, type, MessageError.Status.OBSOLETE);
+    return processed;
+  }
+
+  /**
+   * Writes a batch of DLQ claims to the sink and marks their sequence numbers resolved. If the
+   * batch as a whole fails each claim is retried individually so that one bad claim does not keep
+   * the others in the DLQ. Clears the batch and sequence number list before returning.
+   *
+   * @param apiVersion version of the API that produced the messages
+   * @param sink The sink to use to write claims
+   * @param type The {@link MessageError.ClaimType} associated with the claims
+   * @param batch the claims to write keyed by claim id
+   * @param batchSequenceNumbers the DLQ sequence numbers of the claims in the batch
+   * @return number of claims written to the sink
+   */
+  private int submitDlqBatch(
+      String apiVersion,
+      RdaSink<TMessage, TClaim> sink,
+      MessageError.ClaimType type,
+      Map<Object, TMessage> batch,
+      List<Long> batchSequenceNumbers) {
+    final List<Map.Entry<Object, TMessage>> entries = List.copyOf(batch.entrySet());
+    int processed = 0;
+    try {
+      processed = submitBatchToSink(apiVersion, sink, batch);
+      if (processed > 0) {
+        updateStates(List.copyOf(batchSequenceNumbers), type, MessageError.Status.RESOLVED);
+      }
+    } catch (ProcessingException ex) {
+      log.warn(
+          "Failed to process batch of {} {} DLQ claims, retrying individually",
+          entries.size(),
+          claimType,
+          ex);
+      for (Map.Entry<Object, TMessage> entry : entries) {
+        final Map<Object, TMessage> single = new LinkedHashMap<>();
+        single.put(entry.getKey(), entry.getValue());
+        final long sequenceNumber = sink.getSequenceNumberForObject(entry.getValue());
+        try {
+          final int singleProcessed = submitBatchToSink(apiVersion, sink, single);
+          processed += singleProcessed;
+          if (singleProcessed > 0) {
+            updateStates(List.of(sequenceNumber), type, MessageError.Status.RESOLVED);
+          }
+        } catch (ProcessingException singleEx) {
+          // If we failed to process the claim, it stays in the DLQ, nothing to do.
+          log.error(
+              "Failed to process {} message with sequence: {}",
+              claimType,
+              sequenceNumber,
+              singleEx);
+        }
+      }
+    }
+    batch.clear();
+    batchSequenceNumbers.clear();
+    return processed;
+  }
+
+  /**
+   * Updates the state of the {@link MessageError}s with the given sequence numbers in a single
+   * transaction and records the change in our metrics.
+   *
+   * @param sequenceNumbers the sequence numbers to update
+   * @param type The {@link MessageError.ClaimType} associated with the claims
+   * @param status the new status
+   */
+  private void updateStates(
+      List<Long> sequenceNumbers, MessageError.ClaimType type, MessageError.Status status) {
+    if (!sequenceNumbers.isEmpty()) {
+      final int updated = dao.updateStates(sequenceNumbers, type, status);
+      dlqMetrics.recordDrained(status, updated);
+      log.info("marked {} {} claims in DLQ as {}", updated, claimType, status);
+    }
+  }
+
+  /**
+   * Shuts down the sink and adds its final processed count to the result. Any exception thrown
+   * while shutting down is recorded in the result.
+   *
+   * @param sink the sink to shut down
+   * @param processResult the result to update
+   * @throws ProcessingException if the sink's processed count could not be read
+   */
+  private void shutdownSink(RdaSink<TMessage, TClaim> sink, ProcessResult processResult)
+      throws ProcessingException {
+    try {
+      sink.shutdown(MAX_SINK_SHUTDOWN_WAIT);
+    } catch (Exception ex) {
+      if (processResult.getException() != null) {
+        processResult.getException().addSuppressed(ex);
+      } else {
+        processResult.setException(ex);
+      }
+    }
+
+    processResult.addCount(sink.getProcessedCount());
+  }
+
+  /**
+   * Metrics tracking the DLQ backlog and how quickly it is being drained. Names include the claim
+   * type to distinguish FISS and MCS.
+   */
+  @Getter
+  @VisibleForTesting
+  static class DlqMetrics {
+    /** Number of unresolved entries remaining in the DLQ. */
+    private final AtomicLong backlog;
+
+    /** Number of entries resolved by successfully writing their claims. */
+    private final Counter resolved;
+
+    /** Number of entries marked obsolete because the API no longer returns them. */
+    private final Counter obsolete;
+
+    /** Entries removed from the backlog per second during the most recent run. */
+    private final AtomicLong drainRate;
+
+    /**
+     * Constructor to create a DlqMetrics object.
+     *
+     * @param baseClass The class the metrics are being created for.
+     * @param appMetrics The {@link MeterRegistry} used to create the metrics.
+     * @param claimType The type of claim the metrics are for.
+     */
+    private DlqMetrics(Class<?> baseClass, MeterRegistry appMetrics, String claimType) {
+      final String base = MetricRegistry.name(baseClass.getSimpleName(), claimType, "dlq");
+      backlog = GAUGES.getGaugeForName(appMetrics, MetricRegistry.name(base, "backlog"));
+      resolved = appMetrics.counter(MetricRegistry.name(base, "resolved"));
+      obsolete = appMetrics.counter(MetricRegistry.name(base, "obsolete"));
+      drainRate = GAUGES.getGaugeForName(appMetrics, MetricRegistry.name(base, "drainRate"));
+    }
+
+    /**
+     * Records that entries have been removed from the backlog.
+     *
+     * @param status the new status of the entries
+     * @param count number of entries
+     */
+    private void recordDrained(MessageError.Status status, long count) {
+      if (status == MessageError.Status.RESOLVED) {
+        resolved.increment(count);
+      } else {
+        obsolete.increment(count);
+      }
+      backlog.addAndGet(-count);
+    }
+
+    /**
+     * Total number of entries drained from the DLQ since these metrics were created.
+     *
+     * @return the count
+     */
+    private long getDrainedCount() {
+      return (long) (resolved.count() + obsolete.count());
+    }
+  }
 }
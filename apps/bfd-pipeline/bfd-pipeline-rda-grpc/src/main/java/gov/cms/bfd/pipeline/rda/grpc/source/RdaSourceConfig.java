@@ -58,6 +58,12 @@ public class RdaSourceConfig {
   /** Maximum number of days to retain processed {@link MessageError} records in the database. */
   @Nullable private final Integer messageErrorExpirationDays;
 
+  /**
+   * When set the DLQ is reprocessed in bulk by coalescing {@link MessageError} sequence numbers
+   * that are no more than this far apart into ranges and streaming each range from the API once.
+   */
+  @Nullable private final Integer dlqRangeMaxGap;
+
   /**
    * Specifies which type of server we want to connect to. {@code Remote} is the normal
    * configuration. {@code InProcess} is used when populating an environment with synthetic data
@@ -84,6 +90,7 @@ public class RdaSourceConfig {
    * @param minIdleTimeBeforeConnectionDrop the min idle time before connection drop
    * @param authenticationToken the authentication token
    * @param messageErrorExpirationDays days until message errors expire
+   * @param dlqRangeMaxGap max gap between sequence numbers coalesced into one DLQ range
    */
   @Builder
   private RdaSourceConfig(
@@ -94,7 +101,8 @@ public class RdaSourceConfig {
       Duration maxIdle,
       @Nullable Duration minIdleTimeBeforeConnectionDrop,
       @Nullable String authenticationToken,
-      @Nullable Integer messageErrorExpirationDays) {
+      @Nullable Integer messageErrorExpirationDays,
+      @Nullable Integer dlqRangeMaxGap) {
     this.serverType = Preconditions.checkNotNull(serverType, "serverType is required");
     this.host = host;
     this.port = port;
@@ -122,6 +130,11 @@ public class RdaSourceConfig {
       this.expirationDate = null;
     }
     this.messageErrorExpirationDays = messageErrorExpirationDays;
+    Preconditions.checkArgument(
+        dlqRangeMaxGap == null || dlqRangeMaxGap >= 1,
+        "dlqRangeMaxGap must be positive (%s)",
+        dlqRangeMaxGap);
+    this.dlqRangeMaxGap = dlqRangeMaxGap;
   }
 
   /**
@@ -199,6 +212,16 @@ public class RdaSourceConfig {
     return Optional.ofNullable(messageErrorExpirationDays);
   }
 
+  /**
+   * The maximum difference between consecutive DLQ sequence numbers that are reprocessed using a
+   * single call to the RDA API. Empty if each DLQ entry should be requested individually.
+   *
+   * @return max gap between sequence numbers in a DLQ range
+   */
+  public Optional<Integer> getDlqRangeMaxGap() {
+    return Optional.ofNullable(dlqRangeMaxGap);
+  }
+
   /**
    * Creates a remove channel builder.
    *
@@ -213,7 +213,7 @@ public class StandardGrpcRdaSource<TMessage, TClaim>
               while (responseStream.hasNext()) {
                 setUptimeToReceiving();
                 final TMessage result = responseStream.next();
-                metrics.getObjectsReceived().increment();
+                metrics.recordObjectReceived();
                 if (sink.isDeleteMessage(result)) {
                   metrics.getDeleteMessagesSkipped().increment();
                   log.warn(
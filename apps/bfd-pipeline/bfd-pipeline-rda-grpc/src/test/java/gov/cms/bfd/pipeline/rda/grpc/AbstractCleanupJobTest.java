@@ -4,15 +4,22 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import gov.cms.bfd.pipeline.CleanupTestUtils;
+import gov.cms.bfd.pipeline.sharedutils.TransactionManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 
 /** Test class for {@link gov.cms.bfd.pipeline.rda.grpc.AbstractCleanupJob}. */
 class AbstractCleanupJobTest {
 
+  /** Schema holding the partitioned tables used by the partition tests. */
+  private static final String PARTITION_SCHEMA = "cleanup_partition_test";
+
   /** test utilities. */
   private CleanupTestUtils utils;
 
@@ -27,6 +34,7 @@ class AbstractCleanupJobTest {
   @AfterEach
   void cleanupAfterEach() {
     utils.truncateTables();
+    executeSql("drop schema if exists " + PARTITION_SCHEMA + " cascade");
   }
 
   /**
@@ -75,6 +83,40 @@ class AbstractCleanupJobTest {
     assertTrue(utils.oldestLastUpdatedDate().isAfter(cutoff));
   }
 
+  /**
+   * Test scenario where several workers are allowed to delete old claims from different windows in
+   * parallel, each using its own transaction manager.
+   *
+   * @throws ProcessingException if errors occurs during processing.
+   */
+  @Test
+  void runParallel() throws ProcessingException {
+    var cutoff = Instant.now().minus(60, ChronoUnit.DAYS);
+    utils.seedData(cutoff, 8, 4, 0);
+
+    var cleanUpJob =
+        new RdaFissClaimCleanupJob(
+            utils.getTransactionManager(),
+            () -> new TransactionManager(utils.getEntityManagerFactory()),
+            6,
+            2,
+            4,
+            0,
+            true,
+            new SimpleMeterRegistry());
+    var deleted = cleanUpJob.run();
+
+    // the run size applies to all workers together
+    assertEquals(6, deleted);
+
+    deleted = cleanUpJob.run();
+
+    // the second run resumes and removes the remaining 2 old claims
+    assertEquals(2, deleted);
+    assertEquals(4, utils.count());
+    assertTrue(utils.oldestLastUpdatedDate().isAfter(cutoff));
+  }
+
   /**
    * Test scenario where there are no old claims to delete.
    *
@@ -147,4 +189,234 @@ class AbstractCleanupJobTest {
     assertEquals(0, deleted);
     assertEquals(8, utils.count());
   }
+
+  /**
+   * Test scenario with a partitioned claim table where whole partitions of expired claims are
+   * dropped and the remaining expired claim is deleted by a row level delete. The child rows of
+   * every removed claim must be deleted in both cases since the child table has no cascading
+   * foreign key.
+   *
+   * @throws ProcessingException if errors occurs during processing.
+   */
+  @Test
+  void runDropsExpiredPartitions() throws ProcessingException {
+    final Instant now = Instant.now();
+    createPartitionedTables(now);
+    insertPartitionedClaim("c1", now.minus(250, ChronoUnit.DAYS), "test");
+    insertPartitionedClaim("c2", now.minus(250, ChronoUnit.DAYS), "test");
+    insertPartitionedClaim("c3", now.minus(150, ChronoUnit.DAYS), "test");
+    insertPartitionedClaim("c4", now.minus(80, ChronoUnit.DAYS), "test");
+    insertPartitionedClaim("c5", now.minus(10, ChronoUnit.DAYS), "test");
+
+    var cleanUpJob = new PartitionedCleanupJob(utils.getTransactionManager(), 100, 10);
+    var deleted = cleanUpJob.run();
+
+    // two partitions dropped and one claim deleted from the partition spanning the cutoff
+    assertEquals(4, deleted);
+    assertEquals(List.of("claims_p3", "claims_pdefault"), partitionNames());
+    assertEquals(List.of("c5"), queryStrings("select claim_id from %s.claims order by 1"));
+    assertEquals(
+        List.of("c5", "c5"), queryStrings("select claim_id from %s.claim_lines order by 1"));
+  }
+
+  /**
+   * Test scenario with a partitioned claim table where a partition holding a claim that must be
+   * retained stops partitions from being dropped. The expired claims in that partition and the
+   * following one are removed by row level deletes.
+   *
+   * @throws ProcessingException if errors occurs during processing.
+   */
+  @Test
+  void runKeepsPartitionWithRetainedClaims() throws ProcessingException {
+    final Instant now = Instant.now();
+    createPartitionedTables(now);
+    insertPartitionedClaim("c1", now.minus(250, ChronoUnit.DAYS), "test");
+    insertPartitionedClaim("c2", now.minus(150, ChronoUnit.DAYS), "S3:test");
+    insertPartitionedClaim("c3", now.minus(150, ChronoUnit.DAYS), "test");
+    insertPartitionedClaim("c4", now.minus(80, ChronoUnit.DAYS), "test");
+
+    var cleanUpJob = new PartitionedCleanupJob(utils.getTransactionManager(), 100, 10);
+    var deleted = cleanUpJob.run();
+
+    assertEquals(3, deleted);
+    assertEquals(List.of("claims_p2", "claims_p3", "claims_pdefault"), partitionNames());
+    assertEquals(List.of("c2"), queryStrings("select claim_id from %s.claims order by 1"));
+    assertEquals(
+        List.of("c2", "c2"), queryStrings("select claim_id from %s.claim_lines order by 1"));
+  }
+
+  /**
+   * Test scenario with a partitioned claim table where dropping the first partition reaches the run
+   * size so the run ends without dropping the next one.
+   *
+   * @throws ProcessingException if errors occurs during processing.
+   */
+  @Test
+  void runStopsDroppingPartitionsAtRunSize() throws ProcessingException {
+    final Instant now = Instant.now();
+    createPartitionedTables(now);
+    insertPartitionedClaim("c1", now.minus(250, ChronoUnit.DAYS), "test");
+    insertPartitionedClaim("c2", now.minus(250, ChronoUnit.DAYS), "test");
+    insertPartitionedClaim("c3", now.minus(150, ChronoUnit.DAYS), "test");
+
+    var cleanUpJob = new PartitionedCleanupJob(utils.getTransactionManager(), 2, 10);
+    var deleted = cleanUpJob.run();
+
+    assertEquals(2, deleted);
+    assertEquals(List.of("claims_p2", "claims_p3", "claims_pdefault"), partitionNames());
+    assertEquals(List.of("c3"), queryStrings("select claim_id from %s.claims order by 1"));
+
+    // the next run drops the second partition
+    assertEquals(1, cleanUpJob.run());
+    assertEquals(List.of("claims_p3", "claims_pdefault"), partitionNames());
+    assertEquals(List.of(), queryStrings("select claim_id from %s.claim_lines order by 1"));
+  }
+
+  /**
+   * Creates a claim table partitioned by {@code last_updated} in the same way as the {@code
+   * partition_rda_claims.sql} script along with an unpartitioned child table that has no foreign
+   * key to it. The partitions are named so that they sort in chronological order.
+   *
+   * @param now the current time, used to position the partitions around the cutoff
+   */
+  private void createPartitionedTables(Instant now) {
+    executeSql(
+        "create schema " + PARTITION_SCHEMA,
+        String.format(
+            "create table %s.claims (claim_id varchar(43) not null,"
+                + " last_updated timestamp with time zone not null, api_source varchar(24),"
+                + " primary key (claim_id, last_updated)) partition by range (last_updated)",
+            PARTITION_SCHEMA),
+        createPartitionSql(
+            "claims_p1", now.minus(300, ChronoUnit.DAYS), now.minus(200, ChronoUnit.DAYS)),
+        createPartitionSql(
+            "claims_p2", now.minus(200, ChronoUnit.DAYS), now.minus(100, ChronoUnit.DAYS)),
+        createPartitionSql(
+            "claims_p3", now.minus(100, ChronoUnit.DAYS), now.plus(100, ChronoUnit.DAYS)),
+        String.format(
+            "create table %s.claims_pdefault partition of %s.claims default",
+            PARTITION_SCHEMA, PARTITION_SCHEMA),
+        String.format(
+            "create table %s.claim_lines (claim_id varchar(43) not null,"
+                + " line_number smallint not null, primary key (claim_id, line_number))",
+            PARTITION_SCHEMA));
+  }
+
+  /**
+   * Creates the SQL to add a partition to the partitioned claim table.
+   *
+   * @param name the partition name
+   * @param from the inclusive lower bound of the partition
+   * @param to the exclusive upper bound of the partition
+   * @return the SQL
+   */
+  private static String createPartitionSql(String name, Instant from, Instant to) {
+    return String.format(
+        "create table %s.%s partition of %s.claims for values from ('%s') to ('%s')",
+        PARTITION_SCHEMA, name, PARTITION_SCHEMA, from, to);
+  }
+
+  /**
+   * Inserts a claim with two child rows into the partitioned claim table.
+   *
+   * @param claimId the claim id
+   * @param lastUpdated the last updated time of the claim
+   * @param apiSource the api source of the claim
+   */
+  private void insertPartitionedClaim(String claimId, Instant lastUpdated, String apiSource) {
+    executeSql(
+        String.format(
+            "insert into %s.claims values ('%s', '%s', '%s')",
+            PARTITION_SCHEMA, claimId, lastUpdated, apiSource),
+        String.format(
+            "insert into %s.claim_lines values ('%s', 1), ('%s', 2)",
+            PARTITION_SCHEMA, claimId, claimId));
+  }
+
+  /**
+   * Queries the names of the partitions of the partitioned claim table.
+   *
+   * @return the partition names in name order
+   */
+  private List<String> partitionNames() {
+    return queryStrings(
+        "select c.relname from pg_catalog.pg_inherits i"
+            + " join pg_catalog.pg_class c on c.oid = i.inhrelid"
+            + " join pg_catalog.pg_class p on p.oid = i.inhparent"
+            + " join pg_catalog.pg_namespace n on n.oid = p.relnamespace"
+            + " where n.nspname = '%s' and p.relname = 'claims' order by 1");
+  }
+
+  /**
+   * Executes a query returning a single string column.
+   *
+   * @param sqlFormat the query with a {@code %s} placeholder for each use of the schema name
+   * @return the values
+   */
+  @SuppressWarnings("unchecked")
+  private List<String> queryStrings(String sqlFormat) {
+    final String sql = sqlFormat.replace("%s", PARTITION_SCHEMA);
+    return utils
+        .getTransactionManager()
+        .executeFunction(
+            entityManager -> (List<String>) entityManager.createNativeQuery(sql).getResultList());
+  }
+
+  /**
+   * Executes SQL statements in a single transaction.
+   *
+   * @param statements the statements
+   */
+  private void executeSql(String... statements) {
+    utils
+        .getTransactionManager()
+        .executeProcedure(
+            entityManager -> {
+              for (String statement : statements) {
+                entityManager.createNativeQuery(statement).executeUpdate();
+              }
+            });
+  }
+
+  /** Cleanup job for the partitioned claim table created by the partition tests. */
+  private static class PartitionedCleanupJob extends AbstractCleanupJob {
+    /**
+     * Constructs an instance that deletes claims using a single thread with no rate limit.
+     *
+     * @param transactionManager the TransactionManager to use
+     * @param claimsPerRun the number of claims to remove in a single run of this job
+     * @param claimsPerTransaction the number of claims to remove in a single transaction
+     */
+    private PartitionedCleanupJob(
+        TransactionManager transactionManager, int claimsPerRun, int claimsPerTransaction) {
+      super(
+          transactionManager,
+          () -> transactionManager,
+          claimsPerRun,
+          claimsPerTransaction,
+          1,
+          0,
+          true,
+          new SimpleMeterRegistry(),
+          LoggerFactory.getLogger(PartitionedCleanupJob.class));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    String getParentTableName() {
+      return PARTITION_SCHEMA + ".claims";
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    String getParentTableKey() {
+      return "claim_id";
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    List<String> getChildTableNames() {
+      return List.of(PARTITION_SCHEMA + ".claim_lines");
+    }
+  }
 }
@@ -1,8 +1,27 @@
 package gov.cms.bfd.pipeline.rda.grpc;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import gov.cms.bfd.pipeline.sharedutils.TransactionManager;
+import gov.cms.bfd.sharedutils.interfaces.ThrowingFunction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -33,4 +52,280 @@ class RdaFissClaimCleanupJobTest {
   void getParentTableKey() {
     assertEquals("claim_id", job.getParentTableKey());
   }
+
+  /** Verifies the getChildTableNames method. */
+  @Test
+  void getChildTableNames() {
+    assertEquals(5, job.getChildTableNames().size());
+    assertTrue(job.getChildTableNames().contains("rda.fiss_audit_trails"));
+  }
+
+  /**
+   * Verifies that claims are deleted oldest window first until the run size is reached and that the
+   * next run resumes with the claims that remain.
+   *
+   * @throws ProcessingException if errors occur during processing.
+   */
+  @Test
+  void runDeletesFromRangesAndResumes() throws ProcessingException {
+    final FakeClaimTable table = new FakeClaimTable(-1);
+    for (long lastUpdated = 0; lastUpdated < 14; ++lastUpdated) {
+      table.add(lastUpdated * 100);
+    }
+    final TransactionManager tm = createTransactionManager(table, new ArrayList<>());
+    job = new RdaFissClaimCleanupJob(tm, () -> tm, 10, 4, 1, 0, true, new SimpleMeterRegistry());
+
+    assertEquals(10, job.run());
+    assertEquals(List.of(1000L, 1100L, 1200L, 1300L), table.remaining());
+
+    assertEquals(4, job.run());
+    assertEquals(List.of(), table.remaining());
+    assertEquals(14, job.getMetrics().getDeletedClaims().count());
+    assertEquals(0, job.run());
+  }
+
+  /**
+   * Verifies that a window whose delete fails because of lock contention is skipped without failing
+   * the run and that its claims are deleted by the next run.
+   *
+   * @throws ProcessingException if errors occur during processing.
+   */
+  @Test
+  void runSkipsRangeWithLockFailure() throws ProcessingException {
+    final FakeClaimTable table = new FakeClaimTable(0);
+    for (long lastUpdated = 0; lastUpdated < 32; ++lastUpdated) {
+      table.add(lastUpdated);
+    }
+    final TransactionManager tm = createTransactionManager(table, new ArrayList<>());
+    job = new RdaFissClaimCleanupJob(tm, () -> tm, 100, 4, 1, 0, true, new SimpleMeterRegistry());
+
+    // 16 windows of 2 claims each and the first one is locked
+    assertEquals(30, job.run());
+    assertEquals(1, job.getMetrics().getLockFailures().count());
+    assertEquals(List.of(0L, 1L), table.remaining());
+
+    table.unlock();
+    assertEquals(2, job.run());
+  }
+
+  /**
+   * Verifies that several workers together delete every eligible claim without exceeding the run
+   * size.
+   *
+   * @throws ProcessingException if errors occur during processing.
+   */
+  @Test
+  void runInParallel() throws ProcessingException {
+    final FakeClaimTable table = new FakeClaimTable(-1);
+    for (long lastUpdated = 0; lastUpdated < 48; ++lastUpdated) {
+      table.add(lastUpdated);
+    }
+    final TransactionManager tm = createTransactionManager(table, new ArrayList<>());
+    job = new RdaFissClaimCleanupJob(tm, () -> tm, 40, 2, 4, 0, true, new SimpleMeterRegistry());
+
+    assertEquals(40, job.run());
+    assertEquals(8, job.run());
+    assertEquals(List.of(), table.remaining());
+  }
+
+  /**
+   * Verifies that the child rows of the claims are deleted before the claims themselves since the
+   * child tables of a partitioned claim table have no cascading foreign key.
+   *
+   * @throws ProcessingException if errors occur during processing.
+   */
+  @Test
+  void runDeletesChildRows() throws ProcessingException {
+    final FakeClaimTable table = new FakeClaimTable(-1);
+    table.add(5);
+    table.add(5);
+    table.add(5);
+    final List<String> deletes = new ArrayList<>();
+    final TransactionManager tm = createTransactionManager(table, deletes);
+    job = new RdaFissClaimCleanupJob(tm, () -> tm, 10, 5, 1, 0, true, new SimpleMeterRegistry());
+
+    assertEquals(3, job.run());
+    assertEquals(
+        List.of(
+            "rda.fiss_audit_trails",
+            "rda.fiss_diagnosis_codes",
+            "rda.fiss_payers",
+            "rda.fiss_proc_codes",
+            "rda.fiss_revenue_lines",
+            "rda.fiss_claims"),
+        deletes.stream().map(sql -> sql.split(" ")[2]).toList());
+  }
+
+  /** Verifies that a span of times is divided into contiguous windows covering all of it. */
+  @Test
+  void splitRange() {
+    final List<AbstractCleanupJob.KeyRange> ranges = AbstractCleanupJob.splitRange(0, 100, 16);
+    assertEquals(15, ranges.size());
+    assertEquals(new AbstractCleanupJob.KeyRange(0, 7), ranges.getFirst());
+    assertEquals(new AbstractCleanupJob.KeyRange(98, 100), ranges.getLast());
+    for (int i = 1; i < ranges.size(); ++i) {
+      assertEquals(ranges.get(i - 1).upperMillis(), ranges.get(i).lowerMillis());
+    }
+
+    assertEquals(
+        List.of(new AbstractCleanupJob.KeyRange(5, 6)), AbstractCleanupJob.splitRange(5, 6, 16));
+    assertEquals(
+        List.of(new AbstractCleanupJob.KeyRange(0, 1), new AbstractCleanupJob.KeyRange(1, 2)),
+        AbstractCleanupJob.splitRange(0, 2, 16));
+  }
+
+  /** Verifies that only exceptions caused by lock contention are recognized as lock failures. */
+  @Test
+  void isLockFailure() {
+    assertTrue(
+        AbstractCleanupJob.isLockFailure(
+            new PersistenceException(new SQLException("timeout", "55P03"))));
+    assertTrue(AbstractCleanupJob.isLockFailure(new SQLException("deadlock", "40P01")));
+    assertFalse(
+        AbstractCleanupJob.isLockFailure(
+            new PersistenceException(new SQLException("syntax", "42601"))));
+    assertFalse(AbstractCleanupJob.isLockFailure(new PersistenceException("no cause")));
+  }
+
+  /**
+   * Creates a mock {@link TransactionManager} whose queries select and delete claims from a
+   * simulated table that is not partitioned. Deletes are only counted for the parent table so that
+   * the child table deletes are not mistaken for claims.
+   *
+   * @param table the simulated claim table
+   * @param deletes receives the SQL of every delete statement executed
+   * @return the mock
+   */
+  @SuppressWarnings("unchecked")
+  private static TransactionManager createTransactionManager(
+      FakeClaimTable table, List<String> deletes) {
+    final Pattern selectPattern =
+        Pattern.compile(
+            "to_timestamp\\((\\d+) / 1000.0\\).*to_timestamp\\((\\d+) / 1000.0\\).*limit (\\d+)");
+    final EntityManager entityManager = mock(EntityManager.class);
+    when(entityManager.createNativeQuery(anyString()))
+        .thenAnswer(
+            invocation -> {
+              final String sql = invocation.getArgument(0);
+              final Query query = mock(Query.class);
+              final Matcher matcher = selectPattern.matcher(sql);
+              if (sql.contains("extract(epoch from min(last_updated))")) {
+                when(query.getSingleResult()).thenAnswer(i -> table.span());
+              } else if (matcher.find()) {
+                final long lower = Long.parseLong(matcher.group(1));
+                final long upper = Long.parseLong(matcher.group(2));
+                final int limit = Integer.parseInt(matcher.group(3));
+                when(query.getResultList()).thenAnswer(i -> table.select(lower, upper, limit));
+              } else if (sql.startsWith("delete from ")) {
+                final AtomicReference<List<?>> keys = new AtomicReference<>(List.of());
+                when(query.setParameter(eq("keys"), any()))
+                    .thenAnswer(
+                        setParameter -> {
+                          keys.set(setParameter.getArgument(1));
+                          return query;
+                        });
+                final boolean parent = sql.startsWith("delete from rda.fiss_claims ");
+                when(query.executeUpdate())
+                    .thenAnswer(
+                        i -> {
+                          deletes.add(sql);
+                          return parent ? keys.get().size() : 0;
+                        });
+              } else {
+                when(query.getResultList()).thenReturn(List.of());
+              }
+              return query;
+            });
+    final TransactionManager tm = mock(TransactionManager.class);
+    doAnswer(
+            invocation ->
+                invocation
+                    .<ThrowingFunction<Object, EntityManager, Exception>>getArgument(0)
+                    .apply(entityManager))
+        .when(tm)
+        .executeFunction(any());
+    return tm;
+  }
+
+  /**
+   * Simulated claim table holding the {@code last_updated} value, in epoch milliseconds, of each
+   * expired claim. The claims selected by a query are removed immediately since the job always
+   * deletes the claims it selects.
+   */
+  private static class FakeClaimTable {
+    /** The expired claims. */
+    private final List<Long> claims = new ArrayList<>();
+
+    /** Time of a claim whose window fails with a lock timeout, or -1 for none. */
+    private long lockedMillis;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param lockedMillis time of a claim whose window fails with a lock timeout, or -1 for none
+     */
+    private FakeClaimTable(long lockedMillis) {
+      this.lockedMillis = lockedMillis;
+    }
+
+    /**
+     * Adds an expired claim.
+     *
+     * @param lastUpdatedMillis the claim's last updated time
+     */
+    private synchronized void add(long lastUpdatedMillis) {
+      claims.add(lastUpdatedMillis);
+    }
+
+    /** Stops windows from failing with a lock timeout. */
+    private synchronized void unlock() {
+      lockedMillis = -1;
+    }
+
+    /**
+     * Gets the remaining claims.
+     *
+     * @return the last updated times of the claims in ascending order
+     */
+    private synchronized List<Long> remaining() {
+      return claims.stream().sorted().toList();
+    }
+
+    /**
+     * Simulates the span query. The cutoff is the time of the newest claim.
+     *
+     * @return the oldest claim time and the cutoff, both null if there are no claims
+     */
+    private synchronized Object[] span() {
+      if (claims.isEmpty()) {
+        return new Object[] {null, null};
+      }
+      return new Object[] {
+        BigDecimal.valueOf(Collections.min(claims)), BigDecimal.valueOf(Collections.max(claims))
+      };
+    }
+
+    /**
+     * Simulates the select query by removing and returning claims in a window.
+     *
+     * @param lower inclusive lower bound of the window
+     * @param upper exclusive upper bound of the window
+     * @param limit maximum number of claims to select
+     * @return keys of the selected claims
+     */
+    private synchronized List<String> select(long lower, long upper, int limit) {
+      if (lockedMillis >= lower && lockedMillis < upper) {
+        throw new PersistenceException(new SQLException("locked", "55P03"));
+      }
+      final List<String> keys = new ArrayList<>();
+      for (var iterator = claims.iterator(); iterator.hasNext() && keys.size() < limit; ) {
+        final long claim = iterator.next();
+        if (claim >= lower && claim < upper) {
+          iterator.remove();
+          keys.add(String.valueOf(claim));
+        }
+      }
+      return keys;
+    }
+  }
 }
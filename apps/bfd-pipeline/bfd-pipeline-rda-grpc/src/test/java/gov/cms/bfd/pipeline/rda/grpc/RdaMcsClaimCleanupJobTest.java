@@ -35,4 +35,11 @@ class RdaMcsClaimCleanupJobTest {
   void getParentTableKey() {
     assertEquals("idr_clm_hd_icn", job.getParentTableKey());
   }
+
+  /** Verifies the getChildTableNames method. */
+  @Test
+  void getChildTableNames() {
+    assertEquals(5, job.getChildTableNames().size());
+    assertTrue(job.getChildTableNames().contains("rda.mcs_adjustments"));
+  }
 }
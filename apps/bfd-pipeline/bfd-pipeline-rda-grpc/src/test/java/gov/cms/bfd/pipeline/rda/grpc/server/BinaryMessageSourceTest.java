@@ -0,0 +1,185 @@
+package gov.cms.bfd.pipeline.rda.grpc.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.io.ByteSource;
+import gov.cms.mpsm.rda.v1.FissClaimChange;
+import gov.cms.mpsm.rda.v1.fiss.FissClaim;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that {@link BinaryMessageSource} can read claims written by {@link BinaryMessageWriter} and
+ * that skipping works correctly with and without a {@link MessageFileIndex}.
+ */
+public class BinaryMessageSourceTest {
+  /** Verifies that an empty file produces no messages. */
+  @Test
+  public void emptyFile() throws Exception {
+    try (var source =
+        new BinaryMessageSource<>(ByteSource.empty(), BinaryMessageSource.fissParser(), null)) {
+      assertFalse(source.hasNext());
+      assertThrows(NoSuchElementException.class, source::next);
+    }
+  }
+
+  /** Verifies that every message written can be read back in order. */
+  @Test
+  public void readsAllMessages() throws Exception {
+    final List<FissClaimChange> claims = createClaims(25);
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    writeClaims(claims, bytes, 10);
+
+    final List<FissClaimChange> actual = new ArrayList<>();
+    try (var source =
+        new BinaryMessageSource<>(
+            ByteSource.wrap(bytes.toByteArray()), BinaryMessageSource.fissParser(), null)) {
+      while (source.hasNext()) {
+        actual.add(source.next());
+      }
+    }
+    assertEquals(claims, actual);
+  }
+
+  /**
+   * Verifies that skipping produces the same results with and without an index and that the index
+   * actually allows the source to avoid parsing the skipped messages.
+   */
+  @Test
+  public void skipToUsesIndex() throws Exception {
+    final List<FissClaimChange> claims = createClaims(100);
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final MessageFileIndex index = writeClaims(claims, bytes, 10);
+    assertEquals(10, index.size());
+
+    final AtomicInteger parseCount = new AtomicInteger();
+    final BinaryMessageSource.Parser<FissClaimChange> countingParser =
+        new BinaryMessageSource.Parser<>() {
+          @Override
+          public FissClaimChange parseDelimited(InputStream input) throws IOException {
+            parseCount.incrementAndGet();
+            return FissClaimChange.parseDelimitedFrom(input);
+          }
+
+          @Override
+          public long sequenceNumberOf(FissClaimChange message) {
+            return message.getSeq();
+          }
+        };
+
+    // sequence numbers are 2, 4, 6, ... so 151 is not present and 152 is the first we want
+    try (var source =
+        new BinaryMessageSource<>(ByteSource.wrap(bytes.toByteArray()), countingParser, index)) {
+      source.skipTo(151);
+      assertTrue(source.hasNext());
+      assertEquals(152L, source.next().getSeq());
+      // nearest index entry is seq 142 so only 142 through 152 are parsed
+      assertEquals(6, parseCount.get());
+    }
+
+    parseCount.set(0);
+    try (var source =
+        new BinaryMessageSource<>(ByteSource.wrap(bytes.toByteArray()), countingParser, null)) {
+      source.skipTo(151);
+      assertEquals(152L, source.next().getSeq());
+      assertEquals(76, parseCount.get());
+    }
+  }
+
+  /** Verifies that skipping again after reading some messages moves forward correctly. */
+  @Test
+  public void skipToAfterReading() throws Exception {
+    final List<FissClaimChange> claims = createClaims(100);
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final MessageFileIndex index = writeClaims(claims, bytes, 7);
+
+    try (var source =
+        new BinaryMessageSource<>(
+            ByteSource.wrap(bytes.toByteArray()), BinaryMessageSource.fissParser(), index)) {
+      assertEquals(2L, source.next().getSeq());
+      assertTrue(source.hasNext());
+      source.skipTo(100);
+      assertEquals(100L, source.next().getSeq());
+      // skipping backwards has no effect
+      source.skipTo(10);
+      assertEquals(102L, source.next().getSeq());
+      source.skipTo(1000);
+      assertFalse(source.hasNext());
+    }
+  }
+
+  /** Verifies that index searches find the correct offsets. */
+  @Test
+  public void indexFindsOffsets() throws Exception {
+    final MessageFileIndex index =
+        new MessageFileIndex.Builder().add(10, 0).add(20, 100).add(30, 250).build();
+    assertEquals(0, index.findOffset(5));
+    assertEquals(0, index.findOffset(10));
+    assertEquals(0, index.findOffset(19));
+    assertEquals(100, index.findOffset(20));
+    assertEquals(100, index.findOffset(29));
+    assertEquals(250, index.findOffset(30));
+    assertEquals(250, index.findOffset(Long.MAX_VALUE));
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    index.write(bytes);
+    final MessageFileIndex copy = MessageFileIndex.read(ByteSource.wrap(bytes.toByteArray()));
+    assertEquals(3, copy.size());
+    assertEquals(100, copy.findOffset(25));
+
+    assertThrows(
+        IllegalArgumentException.class, () -> new MessageFileIndex.Builder().add(10, 0).add(5, 1));
+  }
+
+  /**
+   * Creates some simple claims with sequence numbers 2, 4, 6, etc.
+   *
+   * @param count number of claims to create
+   * @return the claims
+   */
+  private List<FissClaimChange> createClaims(int count) {
+    final List<FissClaimChange> claims = new ArrayList<>();
+    for (int i = 1; i <= count; ++i) {
+      final String claimId = "claim-" + i;
+      claims.add(
+          FissClaimChange.newBuilder()
+              .setSeq(2L * i)
+              .setRdaClaimKey(claimId)
+              .setDcn("dcn" + i)
+              .setClaim(FissClaim.newBuilder().setRdaClaimKey(claimId).setDcn("dcn" + i).build())
+              .build());
+    }
+    return claims;
+  }
+
+  /**
+   * Writes the claims to the stream using a {@link BinaryMessageWriter}.
+   *
+   * @param claims the claims to write
+   * @param output the stream to write them to
+   * @param indexInterval number of messages between index entries
+   * @return the resulting index
+   * @throws Exception pass through
+   */
+  private MessageFileIndex writeClaims(
+      List<FissClaimChange> claims, ByteArrayOutputStream output, int indexInterval)
+      throws Exception {
+    try (var writer =
+        new BinaryMessageWriter<FissClaimChange>(output, FissClaimChange::getSeq, indexInterval)) {
+      for (FissClaimChange claim : claims) {
+        writer.write(claim);
+      }
+      assertEquals(claims.size(), writer.getMessageCount());
+      return writer.getIndex();
+    }
+  }
+}
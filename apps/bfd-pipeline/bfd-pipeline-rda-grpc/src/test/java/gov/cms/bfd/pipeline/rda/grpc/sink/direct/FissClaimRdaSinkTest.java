@@ -129,7 +129,10 @@ public class FissClaimRdaSinkTest {
             "FissClaimRdaSink.writes.elapsed",
             "FissClaimRdaSink.writes.merged",
             "FissClaimRdaSink.writes.persisted",
-            "FissClaimRdaSink.writes.total"),
+            "FissClaimRdaSink.writes.total",
+            "pipeline.records",
+            "pipeline.records",
+            "pipeline.records"),
         meters.getMeters().stream()
             .map(meter -> meter.getId().getName())
             .sorted()
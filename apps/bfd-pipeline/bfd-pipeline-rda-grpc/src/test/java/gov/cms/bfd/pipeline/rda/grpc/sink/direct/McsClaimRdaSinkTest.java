@@ -132,7 +132,10 @@ public class McsClaimRdaSinkTest {
             "McsClaimRdaSink.writes.elapsed",
             "McsClaimRdaSink.writes.merged",
             "McsClaimRdaSink.writes.persisted",
-            "McsClaimRdaSink.writes.total"),
+            "McsClaimRdaSink.writes.total",
+            "pipeline.records",
+            "pipeline.records",
+            "pipeline.records"),
         meters.getMeters().stream()
             .map(meter -> meter.getId().getName())
             .sorted()
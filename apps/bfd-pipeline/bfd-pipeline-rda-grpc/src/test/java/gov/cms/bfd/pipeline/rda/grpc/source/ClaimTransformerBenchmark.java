@@ -0,0 +1,126 @@
+package gov.cms.bfd.pipeline.rda.grpc.source;
+
+import gov.cms.bfd.pipeline.rda.grpc.server.MessageSource;
+import gov.cms.bfd.pipeline.rda.grpc.server.RandomClaimGeneratorConfig;
+import gov.cms.bfd.pipeline.rda.grpc.server.RandomFissClaimSource;
+import gov.cms.bfd.pipeline.rda.grpc.server.RandomMcsClaimSource;
+import gov.cms.bfd.pipeline.rda.grpc.sink.direct.MbiCache;
+import gov.cms.bfd.pipeline.sharedutils.IdHasher;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Micro benchmark measuring how quickly {@link FissClaimTransformer} and {@link
+ * McsClaimTransformer} turn RDA API messages into entities. Most of the work is done by the
+ * generated claim parsers and {@link gov.cms.model.dsl.codegen.library.DataTransformer}. This is a
+ * plain main program rather than a test so that it never runs as part of the normal build. Run it
+ * from an IDE or with {@code mvn exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=gov.cms.bfd.pipeline.rda.grpc.source.ClaimTransformerBenchmark}.
+ *
+ * <p>The claims are random claims created up front so that only the transformation is measured. The
+ * MBI cache computes hashes without storing them so the hashing cost is included. Results are
+ * printed as claims transformed per second for each claim type.
+ */
+public class ClaimTransformerBenchmark {
+  /** Number of distinct random claims of each type. */
+  private static final int CLAIM_COUNT = 1_000;
+
+  /** Number of times all of the claims are transformed in a single run. */
+  private static final int PASSES_PER_RUN = 50;
+
+  /** Number of untimed runs used to warm up the JIT before measuring. */
+  private static final int WARMUP_RUNS = 3;
+
+  /** Number of timed runs per claim type. The best result is reported. */
+  private static final int MEASURED_RUNS = 5;
+
+  /**
+   * Runs the benchmark and prints the results.
+   *
+   * @param args ignored
+   * @throws Exception pass through if anything fails
+   */
+  public static void main(String[] args) throws Exception {
+    final Clock clock = Clock.systemUTC();
+    final IdHasher.Config hasherConfig =
+        new IdHasher.Config(10, "benchmarkpepper".getBytes(StandardCharsets.UTF_8));
+    final var config = RandomClaimGeneratorConfig.builder().seed(1).maxToSend(CLAIM_COUNT).build();
+
+    final var fissTransformer =
+        new FissClaimTransformer(clock, MbiCache.computedCache(hasherConfig));
+    final var fissClaims = readAll(new RandomFissClaimSource(config));
+    final var mcsTransformer = new McsClaimTransformer(clock, MbiCache.computedCache(hasherConfig));
+    final var mcsClaims = readAll(new RandomMcsClaimSource(config));
+
+    System.out.printf("%-6s %16s%n", "claim", "claims/sec");
+    System.out.printf(
+        "%-6s %,16.0f%n", "fiss", benchmark(fissClaims, fissTransformer::transformClaim));
+    System.out.printf(
+        "%-6s %,16.0f%n", "mcs", benchmark(mcsClaims, mcsTransformer::transformClaim));
+  }
+
+  /**
+   * Reads all of the messages from a source.
+   *
+   * @param source the source
+   * @return the messages
+   * @param <T> the message type
+   * @throws Exception pass through if anything fails
+   */
+  private static <T> List<T> readAll(MessageSource<T> source) throws Exception {
+    final List<T> messages = new ArrayList<>();
+    try (source) {
+      while (source.hasNext()) {
+        messages.add(source.next());
+      }
+    }
+    return messages;
+  }
+
+  /**
+   * Warms up then measures transformation of one claim type.
+   *
+   * @param claims the claims to transform
+   * @param transformer transforms one claim
+   * @return best observed throughput in claims per second
+   * @param <T> the message type
+   */
+  private static <T> double benchmark(List<T> claims, Function<T, ?> transformer) {
+    for (int i = 0; i < WARMUP_RUNS; ++i) {
+      runOnce(claims, transformer);
+    }
+    double best = 0;
+    for (int i = 0; i < MEASURED_RUNS; ++i) {
+      best = Math.max(best, runOnce(claims, transformer));
+    }
+    return best;
+  }
+
+  /**
+   * Performs a single timed run.
+   *
+   * @param claims the claims to transform
+   * @param transformer transforms one claim
+   * @return throughput in claims per second
+   * @param <T> the message type
+   */
+  private static <T> double runOnce(List<T> claims, Function<T, ?> transformer) {
+    long sink = 0;
+    final long startNanos = System.nanoTime();
+    for (int pass = 0; pass < PASSES_PER_RUN; ++pass) {
+      for (T claim : claims) {
+        sink += transformer.apply(claim) != null ? 1 : 0;
+      }
+    }
+    final long elapsedNanos = System.nanoTime() - startNanos;
+    if (sink != (long) PASSES_PER_RUN * claims.size()) {
+      throw new IllegalStateException("not every claim was transformed");
+    }
+    final double transformed = (double) PASSES_PER_RUN * claims.size();
+    return transformed / elapsedNanos * TimeUnit.SECONDS.toNanos(1);
+  }
+}
@@ -186,6 +186,54 @@ public class DLQDaoIT {
         });
   }
 
+  /**
+   * Verifies that bulk updates change only the intended records.
+   *
+   * @throws Exception pass through
+   */
+  @Test
+  void testUpdateStates() throws Exception {
+    final var firstRecordToUpdate = createRecord(1, claimType, UNRESOLVED, 1);
+    final var secondRecordToUpdate = createRecord(3, claimType, UNRESOLVED, 1);
+    final var sameSeqNoWrongTypeRecord = createRecord(1, ignoredClaimType, UNRESOLVED, 1);
+    final var wrongSeqSameTypeRecord = createRecord(2, claimType, UNRESOLVED, 1);
+    final var allRecordsBefore =
+        List.of(
+            firstRecordToUpdate,
+            secondRecordToUpdate,
+            sameSeqNoWrongTypeRecord,
+            wrongSeqSameTypeRecord);
+
+    final var allRecordsAfter =
+        List.of(
+            firstRecordToUpdate.toBuilder().status(OBSOLETE).updatedDate(clockTime).build(),
+            secondRecordToUpdate.toBuilder().status(OBSOLETE).updatedDate(clockTime).build(),
+            sameSeqNoWrongTypeRecord,
+            wrongSeqSameTypeRecord);
+
+    RdaPipelineTestUtils.runTestWithTemporaryDb(
+        clock,
+        (appState, transactionManager) -> {
+          try (var dao = new DLQDao(clock, transactionManager)) {
+            try {
+              dao.insertMessageErrors(allRecordsBefore);
+
+              // verify it's safe to call with no sequence numbers or no matching records
+              assertEquals(0, dao.updateStates(List.of(), claimType, OBSOLETE));
+              assertEquals(0, dao.updateStates(List.of(42L, 43L), claimType, OBSOLETE));
+
+              final var updatedCount = dao.updateStates(List.of(1L, 3L, 42L), claimType, OBSOLETE);
+              final var remainingRecords = dao.readAllMessageErrors();
+              assertEquals(2, updatedCount);
+              assertContentsHaveSamePropertyValues(
+                  allRecordsAfter, remainingRecords, ComparatorForSorting);
+            } finally {
+              dao.deleteMessageErrors(allRecordsBefore);
+            }
+          }
+        });
+  }
+
   /**
    * Verifies that only expired records of the correct type and status are deleted.
    *
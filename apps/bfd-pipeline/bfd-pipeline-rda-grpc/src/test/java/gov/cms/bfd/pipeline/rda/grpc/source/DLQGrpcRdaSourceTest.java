@@ -7,6 +7,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -26,6 +27,7 @@ import io.grpc.ManagedChannel;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -141,6 +143,7 @@ public class DLQGrpcRdaSourceTest {
                 claimType,
                 rdaVersion,
                 Optional.of(MAX_DQL_AGE_DAYS),
+                Optional.empty(),
                 mockDao));
 
     doReturn(mockLogic)
@@ -182,6 +185,7 @@ public class DLQGrpcRdaSourceTest {
             claimType,
             rdaVersion,
             Optional.of(MAX_DQL_AGE_DAYS),
+            Optional.empty(),
             mockDao);
     doReturn(18)
         .when(mockDao)
@@ -207,6 +211,7 @@ public class DLQGrpcRdaSourceTest {
             claimType,
             rdaVersion,
             Optional.of(MAX_DQL_AGE_DAYS),
+            Optional.empty(),
             mockDao);
     doThrow(new RuntimeException("can't stop me!"))
         .when(mockDao)
@@ -235,6 +240,7 @@ public class DLQGrpcRdaSourceTest {
                 claimType,
                 rdaVersion,
                 Optional.of(MAX_DQL_AGE_DAYS),
+                Optional.empty(),
                 mockDao));
 
     doReturn(mockLogic)
@@ -336,6 +342,7 @@ public class DLQGrpcRdaSourceTest {
                 claimType,
                 rdaVersion,
                 Optional.of(MAX_DQL_AGE_DAYS),
+                Optional.empty(),
                 mockDao));
 
     doNothing().when(sourceSpy).setUptimeToReceiving();
@@ -412,4 +419,102 @@ public class DLQGrpcRdaSourceTest {
 
     verify(mockSink, times(1)).shutdown(any(Duration.class));
   }
+
+  /** Verifies that sequence numbers are grouped into ranges using the maximum gap. */
+  @Test
+  void shouldCoalesceSequenceNumbersIntoRanges() {
+    assertEquals(List.of(), DLQGrpcRdaSource.coalesceSequenceNumbers(List.of(), 1));
+    assertEquals(
+        List.of(List.of(1L, 2L, 3L), List.of(5L), List.of(9L, 10L)),
+        DLQGrpcRdaSource.coalesceSequenceNumbers(List.of(10L, 3L, 1L, 2L, 9L, 5L), 1));
+    assertEquals(
+        List.of(List.of(1L, 2L, 3L, 5L), List.of(9L, 10L)),
+        DLQGrpcRdaSource.coalesceSequenceNumbers(List.of(10L, 3L, 1L, 2L, 9L, 5L), 2));
+  }
+
+  /**
+   * Verifies that bulk processing streams each range once, writes matching claims in batches, marks
+   * skipped sequence numbers obsolete, and updates the DLQ metrics.
+   */
+  @Test
+  void shouldBulkReprocessDLQ() throws Exception {
+    final String claimType = "fiss";
+    final MessageError.ClaimType type = MessageError.ClaimType.FISS;
+    final CallOptions mockCallOptions = mock(CallOptions.class);
+
+    doReturn(0).when(mockSink).getProcessedCount();
+    doReturn(mockCallOptions).when(mockConfig).createCallOptions();
+
+    // Using Object::equals for sequence predicate, effectively making the "message"
+    // be treated as the sequence number, for testing simplicity
+    DLQGrpcRdaSource<Long, Long> sourceSpy =
+        spy(
+            new DLQGrpcRdaSource<>(
+                mockManager,
+                Objects::equals,
+                mockChannel,
+                mockCaller,
+                mockConfig::createCallOptions,
+                meters,
+                claimType,
+                rdaVersion,
+                Optional.of(MAX_DQL_AGE_DAYS),
+                Optional.of(2),
+                mockDao));
+
+    doNothing().when(sourceSpy).setUptimeToReceiving();
+    doReturn(TEST_RDA_VERSION).when(mockCaller).callVersionService(mockChannel, mockCallOptions);
+    lenient().doAnswer(i -> i.getArgument(0)).when(mockSink).getSequenceNumberForObject(anyLong());
+    lenient()
+        .doAnswer(i -> "claim-" + i.getArgument(0))
+        .when(mockSink)
+        .getClaimIdForMessage(anyLong());
+
+    // unchecked - This is fine for a mock.
+    //noinspection unchecked
+    doAnswer(i -> ((Map<?, ?>) i.getArgument(2)).size())
+        .when(sourceSpy)
+        .submitBatchToSink(eq(TEST_RDA_VERSION), eq(mockSink), any(Map.class));
+
+    // DLQ has 10, 11, 13 (one range with gap 2) and 20 (second range).
+    // The API no longer returns 11 and returns 20 normally.
+    // unchecked - This is fine for a mock.
+    //noinspection unchecked
+    GrpcResponseStream<Long> mockStreamA = mock(GrpcResponseStream.class);
+    doReturn(true).when(mockStreamA).hasNext();
+    doReturn(10L).doReturn(12L).doReturn(13L).doReturn(14L).when(mockStreamA).next();
+    doReturn(mockStreamA).when(mockCaller).callService(mockChannel, mockCallOptions, 9L);
+
+    // unchecked - This is fine for a mock.
+    //noinspection unchecked
+    GrpcResponseStream<Long> mockStreamB = mock(GrpcResponseStream.class);
+    doReturn(true).when(mockStreamB).hasNext();
+    doReturn(20L).when(mockStreamB).next();
+    doReturn(mockStreamB).when(mockCaller).callService(mockChannel, mockCallOptions, 19L);
+
+    doAnswer(i -> ((Collection<?>) i.getArgument(0)).size())
+        .when(mockDao)
+        .updateStates(any(), eq(type), any(MessageError.Status.class));
+
+    AbstractGrpcRdaSource.Processor logic =
+        sourceSpy.bulkDlqProcessingLogic(mockSink, type, 10, Set.of(10L, 11L, 13L, 20L), 2);
+    AbstractGrpcRdaSource.ProcessResult actualResult = logic.process();
+
+    AbstractGrpcRdaSource.ProcessResult expectedResult = new AbstractGrpcRdaSource.ProcessResult();
+    expectedResult.setCount(3);
+    assertEquals(expectedResult, actualResult);
+
+    verify(mockCaller, times(2)).callService(any(), any(), anyLong());
+    verify(mockStreamA).close();
+    verify(mockStreamB).close();
+    verify(mockDao).updateStates(List.of(10L, 13L), type, MessageError.Status.RESOLVED);
+    verify(mockDao).updateStates(List.of(11L), type, MessageError.Status.OBSOLETE);
+    verify(mockDao).updateStates(List.of(20L), type, MessageError.Status.RESOLVED);
+    verify(mockDao, times(0))
+        .updateState(anyLong(), any(MessageError.ClaimType.class), any(MessageError.Status.class));
+    verify(mockSink, times(1)).shutdown(any(Duration.class));
+
+    assertEquals(3.0, sourceSpy.getDlqMetrics().getResolved().count());
+    assertEquals(1.0, sourceSpy.getDlqMetrics().getObsolete().count());
+  }
 }
@@ -174,7 +174,8 @@ public class StandardGrpcRdaSourceTest {
             "StandardGrpcRdaSource.ints.skipped.delete",
             "StandardGrpcRdaSource.ints.skipped.invalid",
             "StandardGrpcRdaSource.ints.successes",
-            "StandardGrpcRdaSource.ints.uptime"),
+            "StandardGrpcRdaSource.ints.uptime",
+            "pipeline.records"),
         appMetrics.getMeters().stream()
             .map(meter -> meter.getId().getName())
             .sorted()
@@ -102,8 +102,38 @@ public final class PipelineApplicationState implements AutoCloseable {
    */
   public static HikariDataSource createPooledDataSource(
       DataSourceFactory dataSourceFactory, MetricRegistry metrics) {
-    HikariDataSource pooledDataSource = dataSourceFactory.createDataSource();
+    HikariDataSource pooledDataSource = createUninstrumentedPooledDataSource(dataSourceFactory);
     pooledDataSource.setMetricRegistry(metrics);
+    return pooledDataSource;
+  }
+
+  /**
+   * Create pooled data source used to communicate with the database whose metrics are recorded in
+   * the {@link MetricRegistry} and, including the time spent waiting for connections, in a {@link
+   * MeterRegistry} using {@link ThroughputMetrics#instrumentConnectionPool}.
+   *
+   * @param dataSourceFactory the {@link DataSourceFactory} to use for the application's DB (which
+   *     this will use to create {@link #pooledDataSource})
+   * @param metrics the {@link MetricRegistry} to use
+   * @param meters the {@link MeterRegistry} to use
+   * @return a {@link HikariDataSource} for the BFD database
+   */
+  public static HikariDataSource createPooledDataSource(
+      DataSourceFactory dataSourceFactory, MetricRegistry metrics, MeterRegistry meters) {
+    HikariDataSource pooledDataSource = createUninstrumentedPooledDataSource(dataSourceFactory);
+    ThroughputMetrics.instrumentConnectionPool(pooledDataSource, metrics, meters);
+    return pooledDataSource;
+  }
+
+  /**
+   * Create pooled data source used to communicate with the database without any metrics.
+   *
+   * @param dataSourceFactory the {@link DataSourceFactory} to use for the application's DB
+   * @return a {@link HikariDataSource} for the BFD database
+   */
+  private static HikariDataSource createUninstrumentedPooledDataSource(
+      DataSourceFactory dataSourceFactory) {
+    HikariDataSource pooledDataSource = dataSourceFactory.createDataSource();
 
     // In order to store and retrieve JSON in postgresql without adding any additional maven
     // dependencies  we can set this property to allow String values to be transparently
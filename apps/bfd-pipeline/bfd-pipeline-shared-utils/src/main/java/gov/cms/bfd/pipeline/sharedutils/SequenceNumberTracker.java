@@ -1,6 +1,7 @@
 package gov.cms.bfd.pipeline.sharedutils;
 
-import java.util.Set;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import java.util.TreeSet;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -20,17 +21,32 @@ import javax.annotation.concurrent.ThreadSafe;
  * unwritten sequence number is available as the smallest sequence number in the Set. If the Set is
  * empty then there are no batches in progress and instead the highest number that has ever been
  * written is known to be safe.
+ *
+ * <p>Every message passes through this object twice (once when queued and once when written) so it
+ * is shared by the reader thread and all writer threads. To keep it from becoming a point of
+ * contention as writer threads are added the Set is split into stripes selected by sequence number.
+ * Adding or removing a sequence number only locks the stripe containing it. The low watermark is
+ * computed on demand by {@link #getSafeResumeSequenceNumber} which visits every stripe. That is
+ * called far less often than the add and remove methods.
+ *
+ * <p>Visiting the stripes is not atomic so {@link #getSafeResumeSequenceNumber} relies on sequence
+ * numbers being added in ascending order (as they are by both the RDA and CCW pipelines). It first
+ * collects the highest number added to any stripe and then the lowest active number in any stripe.
+ * A number added after its stripe was visited in the second pass must be higher than everything
+ * seen in the first pass so capping the result at that maximum keeps it safe.
  */
 @ThreadSafe
 public class SequenceNumberTracker {
   /**
-   * The sequence numbers for messages returned but not yet written to the database. Use a TreeSet
-   * so that values are sorted in ascending order.
+   * Default number of stripes. Large enough to make collisions between writer threads uncommon
+   * without making {@link #getSafeResumeSequenceNumber} expensive.
    */
-  private final Set<Long> activeSequenceNumbers = new TreeSet<>();
+  @VisibleForTesting static final int DEFAULT_STRIPE_COUNT = 16;
 
-  /** Keeps track of the current highest sequence number. */
-  private long maxSequenceNumber;
+  /**
+   * The stripes. A sequence number is always stored in the stripe selected by {@link #stripeFor}.
+   */
+  private final Stripe[] stripes;
 
   /**
    * Creates an object using the specified startingSequenceNumber. This number will be returned
@@ -39,7 +55,23 @@ public class SequenceNumberTracker {
    * @param startingSequenceNumber default value for getNextSequenceNumber()
    */
   public SequenceNumberTracker(long startingSequenceNumber) {
-    this.maxSequenceNumber = startingSequenceNumber;
+    this(startingSequenceNumber, DEFAULT_STRIPE_COUNT);
+  }
+
+  /**
+   * Creates an object using the specified startingSequenceNumber and number of stripes. This number
+   * will be returned until any batches have been started.
+   *
+   * @param startingSequenceNumber default value for getNextSequenceNumber()
+   * @param stripeCount number of independently locked stripes to use
+   */
+  @VisibleForTesting
+  SequenceNumberTracker(long startingSequenceNumber, int stripeCount) {
+    Preconditions.checkArgument(stripeCount > 0, "stripeCount must be positive: %s", stripeCount);
+    stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; ++i) {
+      stripes[i] = new Stripe(startingSequenceNumber);
+    }
   }
 
   /**
@@ -48,11 +80,8 @@ public class SequenceNumberTracker {
    *
    * @param sequenceNumber of a record that has been queued for writing to the database
    */
-  public synchronized void addActiveSequenceNumber(long sequenceNumber) {
-    activeSequenceNumbers.add(sequenceNumber);
-    if (sequenceNumber > maxSequenceNumber) {
-      maxSequenceNumber = sequenceNumber;
-    }
+  public void addActiveSequenceNumber(long sequenceNumber) {
+    stripeFor(sequenceNumber).add(sequenceNumber);
   }
 
   /**
@@ -60,8 +89,8 @@ public class SequenceNumberTracker {
    *
    * @param sequenceNumber of a record that has been successfully stored in the database
    */
-  public synchronized void removeWrittenSequenceNumber(long sequenceNumber) {
-    activeSequenceNumbers.remove(sequenceNumber);
+  public void removeWrittenSequenceNumber(long sequenceNumber) {
+    stripeFor(sequenceNumber).remove(sequenceNumber);
   }
 
   /**
@@ -70,14 +99,90 @@ public class SequenceNumberTracker {
    *
    * @return the best sequence number to send to the RDA API when fetching claims
    */
-  public synchronized long getSafeResumeSequenceNumber() {
-    if (activeSequenceNumbers.size() > 0) {
-      // Since the set is ordered the first value is lowest unwritten value.
-      // We return one less so that caller knows to resume at our first unwritten value.
-      return activeSequenceNumbers.iterator().next() - 1;
-    } else {
-      // If the set is empty the maximum number we've ever seen is the correct value.
+  public long getSafeResumeSequenceNumber() {
+    // The maximum number we've ever seen is the correct value if no numbers are active.
+    long answer = Long.MIN_VALUE;
+    for (Stripe stripe : stripes) {
+      answer = Math.max(answer, stripe.getMaxSequenceNumber());
+    }
+    for (Stripe stripe : stripes) {
+      final Long lowestActive = stripe.getLowestActiveSequenceNumber();
+      if (lowestActive != null) {
+        // We return one less so that caller knows to resume at our first unwritten value.
+        answer = Math.min(answer, lowestActive - 1);
+      }
+    }
+    return answer;
+  }
+
+  /**
+   * Selects the stripe that holds the specified sequence number. Consecutive numbers go to
+   * different stripes so that writers processing nearby numbers rarely share a lock.
+   *
+   * @param sequenceNumber the sequence number
+   * @return the stripe that holds it
+   */
+  private Stripe stripeFor(long sequenceNumber) {
+    return stripes[(int) Math.floorMod(sequenceNumber, (long) stripes.length)];
+  }
+
+  /** One independently locked portion of the active sequence numbers. */
+  private static class Stripe {
+    /**
+     * The sequence numbers in this stripe for messages returned but not yet written to the
+     * database. Use a TreeSet so that values are sorted in ascending order.
+     */
+    private final TreeSet<Long> activeSequenceNumbers = new TreeSet<>();
+
+    /** Keeps track of the highest sequence number ever added to this stripe. */
+    private long maxSequenceNumber;
+
+    /**
+     * Creates an empty stripe.
+     *
+     * @param startingSequenceNumber initial value for the maximum sequence number
+     */
+    private Stripe(long startingSequenceNumber) {
+      maxSequenceNumber = startingSequenceNumber;
+    }
+
+    /**
+     * Adds an active sequence number.
+     *
+     * @param sequenceNumber the sequence number
+     */
+    private synchronized void add(long sequenceNumber) {
+      activeSequenceNumbers.add(sequenceNumber);
+      if (sequenceNumber > maxSequenceNumber) {
+        maxSequenceNumber = sequenceNumber;
+      }
+    }
+
+    /**
+     * Removes a written sequence number.
+     *
+     * @param sequenceNumber the sequence number
+     */
+    private synchronized void remove(long sequenceNumber) {
+      activeSequenceNumbers.remove(sequenceNumber);
+    }
+
+    /**
+     * Gets the highest sequence number ever added to this stripe.
+     *
+     * @return the sequence number
+     */
+    private synchronized long getMaxSequenceNumber() {
       return maxSequenceNumber;
     }
+
+    /**
+     * Gets the lowest active sequence number in this stripe.
+     *
+     * @return the sequence number or null if there are none
+     */
+    private synchronized Long getLowestActiveSequenceNumber() {
+      return activeSequenceNumbers.isEmpty() ? null : activeSequenceNumbers.first();
+    }
   }
 }
@@ -0,0 +1,237 @@
+package gov.cms.bfd.pipeline.sharedutils;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.dropwizard.CodahaleMetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+
+/**
+ * Instrumentation shared by all pipelines so that their throughput can be compared using the same
+ * metric names. Every record is counted as it passes each {@link Stage} using a counter named
+ * {@link #RECORDS_METRIC_NAME} tagged with the pipeline, the source of the record (a RIF file type
+ * or RDA claim type), and the stage. Comparing the rates of the stages for a source shows which
+ * stage is limiting throughput. Queues between stages report their depth using a gauge named {@link
+ * #QUEUE_DEPTH_METRIC_NAME} tagged with the pipeline and the queue.
+ *
+ * <p>Time spent waiting for a database connection is recorded by the connection pool itself once
+ * {@link #instrumentConnectionPool} has connected it to the {@link MeterRegistry}. The pool keeps
+ * reporting its existing metrics to the {@link MetricRegistry} as well.
+ */
+public class ThroughputMetrics {
+  /** Name of the counters tracking records passing each stage. */
+  public static final String RECORDS_METRIC_NAME = "pipeline.records";
+
+  /** Name of the gauges tracking the number of items waiting in a queue. */
+  public static final String QUEUE_DEPTH_METRIC_NAME = "pipeline.queue.depth";
+
+  /** Name of the timer used by the connection pool to record time spent waiting for connections. */
+  public static final String CONNECTION_WAIT_METRIC_NAME = "hikaricp.connections.acquire";
+
+  /** Name of the CCW RIF pipeline. */
+  public static final String CCW_PIPELINE = "ccw";
+
+  /** Name of the RDA pipeline. */
+  public static final String RDA_PIPELINE = "rda";
+
+  /** Tag holding the name of the pipeline. */
+  public static final String PIPELINE_TAG = "pipeline";
+
+  /** Tag holding the source of the records. */
+  public static final String SOURCE_TAG = "source";
+
+  /** Tag holding the {@link Stage} of the records. */
+  public static final String STAGE_TAG = "stage";
+
+  /** Tag holding the name of the queue. */
+  public static final String QUEUE_TAG = "queue";
+
+  /** Percentiles published for the time spent waiting for a database connection. */
+  private static final double[] CONNECTION_WAIT_PERCENTILES = {0.5, 0.95, 0.99};
+
+  /**
+   * Values of the queue depth gauges of each registry keyed by pipeline and queue name. Held here
+   * since a registry only keeps weak references to gauge values. Kept per registry and shared by
+   * the instances using it, since a registry only accepts the first value registered for a gauge.
+   * Entries are dropped once their registry is no longer used.
+   */
+  private static final Map<MeterRegistry, Map<String, AtomicLong>> QUEUE_DEPTHS =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  /** The stages that every record passes through on its way to the database. */
+  public enum Stage {
+    /** The record has been read from its source and parsed. */
+    RECEIVED,
+    /** The record is ready to be written and is waiting in a batch. */
+    QUEUED,
+    /** The record has been committed to the database. */
+    WRITTEN,
+    /** The record could not be written. */
+    FAILED;
+
+    /**
+     * Gets the value used for this stage in {@link #STAGE_TAG}.
+     *
+     * @return the tag value
+     */
+    public String getTagValue() {
+      return name().toLowerCase();
+    }
+  }
+
+  /** Registry holding the metrics. */
+  private final MeterRegistry meters;
+
+  /** Name of the pipeline, used as the value of {@link #PIPELINE_TAG}. */
+  @Getter private final String pipeline;
+
+  /**
+   * Creates an instance that registers metrics for a pipeline.
+   *
+   * @param meters registry to hold the metrics
+   * @param pipeline name of the pipeline
+   */
+  public ThroughputMetrics(MeterRegistry meters, String pipeline) {
+    this.meters = meters;
+    this.pipeline = pipeline;
+  }
+
+  /**
+   * Gets the counter of records from a source that have passed a stage. Repeated calls with the
+   * same arguments return the same counter.
+   *
+   * @param source the source of the records
+   * @param stage the stage
+   * @return the counter
+   */
+  public Counter getStageCounter(String source, Stage stage) {
+    return Counter.builder(RECORDS_METRIC_NAME)
+        .tag(PIPELINE_TAG, pipeline)
+        .tag(SOURCE_TAG, source)
+        .tag(STAGE_TAG, stage.getTagValue())
+        .register(meters);
+  }
+
+  /**
+   * Gets the value reported by the depth gauge of a queue, registering the gauge on first use.
+   * Callers increment the value as items are added to the queue and decrement it as they are
+   * removed. Repeated calls with the same name and registry return the same value.
+   *
+   * @param queue name of the queue
+   * @return the value reported by the gauge
+   */
+  public AtomicLong getQueueDepth(String queue) {
+    final AtomicLong depth =
+        QUEUE_DEPTHS
+            .computeIfAbsent(meters, registry -> new ConcurrentHashMap<>())
+            .computeIfAbsent(pipeline + "." + queue, key -> new AtomicLong());
+    Gauge.builder(QUEUE_DEPTH_METRIC_NAME, depth, AtomicLong::get)
+        .tag(PIPELINE_TAG, pipeline)
+        .tag(QUEUE_TAG, queue)
+        .register(meters);
+    return depth;
+  }
+
+  /**
+   * Has a connection pool record its metrics in a {@link MeterRegistry} as well as in the {@link
+   * MetricRegistry} it has always reported to, so the existing {@code <pool>.pool.*} metrics keep
+   * their names. The time spent waiting for a connection is published to the {@link MeterRegistry}
+   * as {@link #CONNECTION_WAIT_METRIC_NAME} with a histogram and percentiles so that a pool that is
+   * too small for the number of loader threads stands out. Must be called before the pool is first
+   * used.
+   *
+   * @param pooledDataSource the connection pool
+   * @param metrics registry holding the existing pool metrics
+   * @param meters registry to hold the connection wait timer
+   */
+  public static void instrumentConnectionPool(
+      HikariDataSource pooledDataSource, MetricRegistry metrics, MeterRegistry meters) {
+    meters.config().meterFilter(createConnectionWaitFilter());
+    pooledDataSource.setMetricsTrackerFactory(
+        createConnectionPoolTrackerFactory(
+            new CodahaleMetricsTrackerFactory(metrics),
+            new MicrometerMetricsTrackerFactory(meters)));
+  }
+
+  /**
+   * Creates a {@link MetricsTrackerFactory} whose trackers pass every measurement to a tracker from
+   * each of the given factories. Hikari only accepts a single factory.
+   *
+   * @param factories the factories to combine
+   * @return the combined factory
+   */
+  @VisibleForTesting
+  static MetricsTrackerFactory createConnectionPoolTrackerFactory(
+      MetricsTrackerFactory... factories) {
+    return (poolName, poolStats) -> {
+      final List<IMetricsTracker> trackers =
+          Arrays.stream(factories).map(factory -> factory.create(poolName, poolStats)).toList();
+      return new IMetricsTracker() {
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+          trackers.forEach(t -> t.recordConnectionCreatedMillis(connectionCreatedMillis));
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+          trackers.forEach(t -> t.recordConnectionAcquiredNanos(elapsedAcquiredNanos));
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+          trackers.forEach(t -> t.recordConnectionUsageMillis(elapsedBorrowedMillis));
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+          trackers.forEach(IMetricsTracker::recordConnectionTimeout);
+        }
+
+        @Override
+        public void close() {
+          trackers.forEach(IMetricsTracker::close);
+        }
+      };
+    };
+  }
+
+  /**
+   * Creates a {@link MeterFilter} that enables the histogram and percentiles for the connection
+   * wait timer.
+   *
+   * @return the filter
+   */
+  @VisibleForTesting
+  static MeterFilter createConnectionWaitFilter() {
+    return new MeterFilter() {
+      @Override
+      public DistributionStatisticConfig configure(
+          Meter.Id id, DistributionStatisticConfig config) {
+        if (!CONNECTION_WAIT_METRIC_NAME.equals(id.getName())) {
+          return config;
+        }
+        return DistributionStatisticConfig.builder()
+            .percentilesHistogram(true)
+            .percentiles(CONNECTION_WAIT_PERCENTILES)
+            .build()
+            .merge(config);
+      }
+    };
+  }
+}
@@ -251,6 +251,32 @@ public class S3Dao implements AutoCloseable {
     return s3Client.getObjectAsBytes(getObjectRequest).asInputStream();
   }
 
+  /**
+   * Reads a range of bytes from an object into memory. The read fails if the object's eTag no
+   * longer matches the one given so that a multi-part read never mixes bytes from two versions of
+   * the object.
+   *
+   * @param s3Bucket the bucket containing the object
+   * @param s3Key the S3 object key
+   * @param eTag the eTag of the version of the object to read
+   * @param offset offset of the first byte to read
+   * @param length number of bytes to read
+   * @return the bytes
+   * @throws NoSuchKeyException for bad key
+   * @throws NoSuchBucketException for bad bucket name
+   */
+  public byte[] readObjectRange(
+      String s3Bucket, String s3Key, String eTag, long offset, int length) {
+    GetObjectRequest getObjectRequest =
+        GetObjectRequest.builder()
+            .bucket(s3Bucket)
+            .key(s3Key)
+            .ifMatch(eTag)
+            .range(String.format("bytes=%d-%d", offset, offset + length - 1))
+            .build();
+    return s3Client.getObjectAsBytes(getObjectRequest).asByteArray();
+  }
+
   /**
    * Download S3 object and return its {@link GetObjectResponse}. Uses a {@link S3TransferManager}
    * for higher throughput and reliability than {@link #readObject}.
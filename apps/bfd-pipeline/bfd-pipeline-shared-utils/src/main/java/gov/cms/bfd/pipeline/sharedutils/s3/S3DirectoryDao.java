@@ -9,18 +9,33 @@ import com.google.common.io.ByteSource;
 import com.google.common.io.MoreFiles;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import gov.cms.bfd.pipeline.sharedutils.MultiCloser;
+import gov.cms.bfd.sharedutils.exceptions.BadCodeMonkeyException;
 import jakarta.annotation.Nonnull;
 import java.io.FileFilter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
@@ -216,6 +231,76 @@ public class S3DirectoryDao implements AutoCloseable {
     }
   }
 
+  /**
+   * Look for an object in our S3 bucket/directory that corresponds to the given simple file name
+   * (as returned by {@link #readFileNames}) and start downloading it in parts using ranged reads.
+   * Returns as soon as the download has started. The returned {@link StreamedFile} can be read
+   * while the download is in progress. Reads see the bytes that have been downloaded so far and
+   * block until more arrive.
+   *
+   * <p>Parts are claimed in order by up to {@code parallelism} tasks running on the given executor
+   * and written directly into a temporary file that becomes the cache file once every part has
+   * arrived. The MD5 checksum of the object is computed as the parts arrive so it is available as
+   * soon as the download completes. If the file is already in the cache it is served from there
+   * without downloading it again.
+   *
+   * @param fileName simple file name as returned in previous call to {@link #readFileNames}
+   * @param executor runs the tasks that download parts
+   * @param partSize number of bytes in each ranged read
+   * @param parallelism maximum number of parts downloaded at the same time
+   * @return {@link StreamedFile} for reading the file as it is downloaded
+   * @throws IOException various exceptions might be thrown by the Java or AWS API
+   */
+  public StreamedFile streamFile(
+      String fileName, ExecutorService executor, int partSize, int parallelism) throws IOException {
+    Preconditions.checkArgument(partSize > 0, "partSize must be positive");
+    Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+    final String s3Key = s3DirectoryPath + fileName;
+    final S3Dao.S3ObjectDetails objectDetails = readS3ObjectMetaData(fileName, s3Key);
+
+    final Path cacheFile = cacheFilePath(fileName, objectDetails.getETag());
+    Files.createDirectories(cacheFile.getParent());
+    if (Files.isRegularFile(cacheFile)) {
+      log.info(
+          "serving existing file from cache: fileName={} s3Key={} cachedFile={}",
+          fileName,
+          s3Key,
+          cacheDirectory.relativize(cacheFile));
+      return new StreamedFile(fileName, objectDetails, cacheFile);
+    }
+
+    final Path tempDataFile = Files.createTempFile(cacheDirectory, TempPrefix, null);
+    log.info(
+        "streaming file from S3: fileName={} s3Key={} tempFile={} size={}",
+        fileName,
+        s3Key,
+        tempDataFile.getFileName(),
+        objectDetails.getSize());
+    final StreamedFile streamedFile;
+    try {
+      streamedFile =
+          new StreamedFile(
+              fileName,
+              objectDetails,
+              tempDataFile,
+              cacheFile,
+              FileChannel.open(tempDataFile, StandardOpenOption.WRITE),
+              partSize);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tempDataFile);
+      throw e;
+    }
+    try {
+      streamedFile.start(executor, parallelism);
+    } catch (RuntimeException e) {
+      streamedFile.cancel();
+      throw e;
+    }
+    // an empty object is complete as soon as it has started
+    streamedFile.completeIfFinished();
+    return streamedFile;
+  }
+
   /**
    * Deletes cache directory and all of its files if {@link #deleteOnExit} is true. Intended for use
    * when the cache directory is a temp directory.
@@ -544,6 +629,42 @@ public class S3DirectoryDao implements AutoCloseable {
     return byteSource;
   }
 
+  /**
+   * Calculates a Base64 encoded MD5 checksum of the bytes in a cached file exactly as they appear
+   * in the file.
+   *
+   * @param path location of the cached file
+   * @return Base64 encoded md5 value
+   * @throws IOException if there is an issue reading the file
+   */
+  private static String computeMd5Checksum(Path path) throws IOException {
+    try (InputStream inputStream = Files.newInputStream(path)) {
+      final MessageDigest md5Digest = createMd5Digest();
+      byte[] buffer = new byte[8192];
+      for (int bytesCount = inputStream.read(buffer);
+          bytesCount > 0;
+          bytesCount = inputStream.read(buffer)) {
+        md5Digest.update(buffer, 0, bytesCount);
+      }
+      return Base64.getEncoder().encodeToString(md5Digest.digest());
+    }
+  }
+
+  /**
+   * Creates a {@link MessageDigest} for computing MD5 checksums.
+   *
+   * @return the digest
+   */
+  @SuppressWarnings("java:S4790")
+  private static MessageDigest createMd5Digest() {
+    try {
+      return MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      // this should never happen so convert it to an unchecked exception
+      throw new BadCodeMonkeyException("No MessageDigest instance for MD5", e);
+    }
+  }
+
   /**
    * Read {@link S3Dao.S3ObjectDetails} metadata for the given S3 key. Recognize the possible case
    * of object not found (HTTP 404) by throwing more useful {@link FileNotFoundException}.
@@ -647,4 +768,541 @@ public class S3DirectoryDao implements AutoCloseable {
       return path.toAbsolutePath().toString();
     }
   }
+
+  /**
+   * A {@link DownloadedFile} that may still be downloading. Reads return the bytes downloaded so
+   * far and block until more arrive, so a file can be processed while it is being downloaded. Parts
+   * are downloaded out of order but the file only exposes the contiguous prefix that has been fully
+   * written, which is also the prefix covered by the MD5 checksum computed so far.
+   *
+   * <p>Once every part has arrived the temporary file is renamed to its cache file name, exactly as
+   * {@link #fetchFile} does. Readers that opened the file before then keep reading from the same
+   * file since renaming does not affect open files.
+   */
+  public class StreamedFile extends DownloadedFile {
+    /** The eTag of the version of the object being downloaded. */
+    private final String eTag;
+
+    /** The size of the object in bytes. */
+    private final long size;
+
+    /** The temporary file receiving the parts, null if the file was already cached. */
+    private final Path tempDataFile;
+
+    /** The file's name in the cache once the download completes. */
+    private final Path cacheFile;
+
+    /** Used to write parts into {@link #tempDataFile}, null if the file was already cached. */
+    private final FileChannel output;
+
+    /** Number of bytes in each part, except possibly the last. */
+    private final int partSize;
+
+    /** Number of parts in the object. */
+    private final int partCount;
+
+    /** Computes the checksum of the parts that are part of the contiguous prefix. */
+    private final MessageDigest md5Digest;
+
+    /** Downloaded parts that are not yet part of the contiguous prefix, keyed by part number. */
+    private final Map<Integer, byte[]> pendingParts = new HashMap<>();
+
+    /** The tasks downloading parts. */
+    private final List<Future<?>> workers = new ArrayList<>();
+
+    /** Limits how far ahead of the contiguous prefix parts can be downloaded. */
+    private int maxPartsAhead;
+
+    /** Number of parts that have been claimed by a task. */
+    private int nextPart;
+
+    /** Number of parts in the contiguous prefix. */
+    private int completedParts;
+
+    /** Number of bytes in the contiguous prefix. */
+    private long completedBytes;
+
+    /** Number of tasks currently downloading parts. */
+    private int runningWorkers;
+
+    /** Where the file can currently be opened. */
+    private Path currentPath;
+
+    /** True once every part has arrived and the file has been moved into the cache. */
+    private boolean complete;
+
+    /** True if the download was cancelled before it completed. */
+    private boolean cancelled;
+
+    /** The first error encountered while downloading, if any. */
+    private IOException failure;
+
+    /** The Base64 encoded MD5 checksum of the file, null until it is known. */
+    private String md5Checksum;
+
+    /** Completed once no more bytes are being written, see {@link #getDownloadFinished}. */
+    private final CompletableFuture<Void> downloadFinished = new CompletableFuture<>();
+
+    /**
+     * Initializes an instance for a file that still needs to be downloaded.
+     *
+     * @param s3Key the S3 key from which file is downloaded
+     * @param s3Details details reported by S3 for the object
+     * @param tempDataFile the temporary file receiving the parts
+     * @param cacheFile the file's name in the cache once the download completes
+     * @param output used to write parts into the temporary file
+     * @param partSize number of bytes in each part
+     */
+    private StreamedFile(
+        String s3Key,
+        S3Dao.S3ObjectDetails s3Details,
+        Path tempDataFile,
+        Path cacheFile,
+        FileChannel output,
+        int partSize) {
+      super(s3Key, s3Details, cacheFile);
+      this.eTag = s3Details.getETag();
+      this.size = s3Details.getSize();
+      this.tempDataFile = tempDataFile;
+      this.cacheFile = cacheFile;
+      this.output = output;
+      this.partSize = partSize;
+      this.partCount = Math.toIntExact((size + partSize - 1) / partSize);
+      this.md5Digest = createMd5Digest();
+      this.currentPath = tempDataFile;
+    }
+
+    /**
+     * Initializes an instance for a file that is already in the cache.
+     *
+     * @param s3Key the S3 key from which file was downloaded
+     * @param s3Details details reported by S3 for the object
+     * @param cacheFile the file in the cache
+     */
+    private StreamedFile(String s3Key, S3Dao.S3ObjectDetails s3Details, Path cacheFile) {
+      super(s3Key, s3Details, cacheFile);
+      this.eTag = s3Details.getETag();
+      this.size = s3Details.getSize();
+      this.tempDataFile = null;
+      this.cacheFile = cacheFile;
+      this.output = null;
+      this.partSize = 0;
+      this.partCount = 0;
+      this.md5Digest = null;
+      this.currentPath = cacheFile;
+      this.completedBytes = size;
+      this.complete = true;
+      this.downloadFinished.complete(null);
+    }
+
+    /**
+     * Returns a {@link ByteSource} whose streams read the file as it is downloaded. Streams fail
+     * with an {@link IOException} if the download fails or is cancelled.
+     *
+     * @return the byte source
+     */
+    @Override
+    public ByteSource getBytes() {
+      final ByteSource byteSource =
+          new ByteSource() {
+            @Nonnull
+            @Override
+            public InputStream openStream() throws IOException {
+              return new TailingInputStream(openChannel());
+            }
+          };
+      if (getS3Key().endsWith(".gz")) {
+        return new ByteSource() {
+          @Nonnull
+          @Override
+          public InputStream openStream() throws IOException {
+            return new GZIPInputStream(byteSource.openStream());
+          }
+        };
+      }
+      return byteSource;
+    }
+
+    /**
+     * Cancels the download if it is still in progress and deletes the file from the cache.
+     *
+     * @throws IOException pass through if deletion fails
+     */
+    @Override
+    public void delete() throws IOException {
+      cancel();
+      super.delete();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized String getAbsolutePath() {
+      return currentPath.toAbsolutePath().toString();
+    }
+
+    /**
+     * Determines if every part has arrived and the file has been moved into the cache.
+     *
+     * @return true if the download is complete
+     */
+    public synchronized boolean isComplete() {
+      return complete;
+    }
+
+    /**
+     * Returns a stage that completes once no more bytes are being written to disk for this file,
+     * whether because the download completed, failed, or was cancelled. A failed or cancelled
+     * download's temporary file has been deleted by then. The stage never completes exceptionally.
+     *
+     * @return the stage
+     */
+    public CompletionStage<Void> getDownloadFinished() {
+      return downloadFinished.minimalCompletionStage();
+    }
+
+    /**
+     * Waits for the download to complete and returns the MD5 checksum of the object's bytes as
+     * stored in S3. Gzip files are not decompressed when computing the checksum.
+     *
+     * @return Base64 encoded md5 value
+     * @throws IOException if the download failed, was cancelled, or the cached file could not be
+     *     read
+     */
+    public String awaitMd5Checksum() throws IOException {
+      synchronized (this) {
+        while (!complete) {
+          throwIfStopped();
+          waitForChange();
+        }
+        if (md5Checksum != null) {
+          return md5Checksum;
+        }
+      }
+      // The file was already cached so we have to compute the checksum from its contents.
+      final String checksum = computeMd5Checksum(cacheFile);
+      synchronized (this) {
+        md5Checksum = checksum;
+      }
+      return checksum;
+    }
+
+    /**
+     * Submits the tasks that download parts. Completes the download immediately if the object is
+     * empty.
+     *
+     * @param executor runs the tasks
+     * @param parallelism maximum number of parts downloaded at the same time
+     * @throws java.util.concurrent.RejectedExecutionException if the executor is shut down
+     */
+    private synchronized void start(ExecutorService executor, int parallelism) {
+      maxPartsAhead = 2 * parallelism;
+      if (partCount == 0) {
+        finishDownload();
+        return;
+      }
+      for (int i = 0; i < Math.min(parallelism, partCount); ++i) {
+        workers.add(executor.submit(this::downloadParts));
+      }
+    }
+
+    /**
+     * Cancels the download if it is still in progress, waits for any running tasks to stop, and
+     * deletes the temporary file.
+     *
+     * @throws IOException if interrupted while waiting or the temporary file cannot be deleted
+     */
+    private void cancel() throws IOException {
+      final List<Future<?>> workersToCancel;
+      synchronized (this) {
+        if (complete) {
+          return;
+        }
+        cancelled = true;
+        notifyAll();
+        workersToCancel = List.copyOf(workers);
+      }
+      workersToCancel.forEach(worker -> worker.cancel(false));
+      synchronized (this) {
+        while (runningWorkers > 0) {
+          waitForChange();
+        }
+      }
+      discardTempFile();
+      completeIfFinished();
+    }
+
+    /**
+     * Body of each download task. Repeatedly claims the next part and downloads it until no parts
+     * remain or the download has been stopped.
+     */
+    private void downloadParts() {
+      synchronized (this) {
+        if (isStopped()) {
+          return;
+        }
+        runningWorkers += 1;
+      }
+      try {
+        for (int part = claimPart(); part >= 0; part = claimPart()) {
+          final long offset = (long) part * partSize;
+          final int length = (int) Math.min(partSize, size - offset);
+          final byte[] bytes =
+              s3Dao.readObjectRange(s3BucketName, getS3Details().getKey(), eTag, offset, length);
+          if (bytes.length != length) {
+            throw new IOException(
+                String.format(
+                    "expected %d bytes but received %d: s3Key=%s offset=%d",
+                    length, bytes.length, getS3Details().getKey(), offset));
+          }
+          final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+          while (buffer.hasRemaining()) {
+            output.write(buffer, offset + buffer.position());
+          }
+          partDownloaded(part, bytes);
+        }
+      } catch (IOException | RuntimeException e) {
+        downloadFailed(e);
+      } finally {
+        final boolean discard;
+        synchronized (this) {
+          runningWorkers -= 1;
+          discard = runningWorkers == 0 && !complete && isStopped();
+          notifyAll();
+        }
+        if (discard) {
+          try {
+            discardTempFile();
+          } catch (IOException e) {
+            log.warn("unable to delete temp file: tempFile={}", tempDataFile, e);
+          }
+        }
+        completeIfFinished();
+      }
+    }
+
+    /**
+     * Completes {@link #downloadFinished} if the download has completed, or if it has stopped and
+     * no task is still writing parts. The stage is completed without holding this object's monitor
+     * since it runs the callers' actions.
+     */
+    private void completeIfFinished() {
+      final boolean finished;
+      synchronized (this) {
+        finished = complete || (isStopped() && runningWorkers == 0);
+      }
+      if (finished) {
+        downloadFinished.complete(null);
+      }
+    }
+
+    /**
+     * Claims the next part to download. Waits if the part is too far ahead of the contiguous
+     * prefix.
+     *
+     * @return the part number or -1 if there are no more parts to download
+     * @throws InterruptedIOException if interrupted while waiting
+     */
+    private synchronized int claimPart() throws InterruptedIOException {
+      while (!isStopped() && nextPart < partCount && nextPart >= completedParts + maxPartsAhead) {
+        waitForChange();
+      }
+      if (isStopped() || nextPart >= partCount) {
+        return -1;
+      }
+      return nextPart++;
+    }
+
+    /**
+     * Records that a part has been written to the file. Extends the contiguous prefix and its
+     * checksum with this and any following parts that have already arrived and completes the
+     * download once every part has arrived.
+     *
+     * @param part the part number
+     * @param bytes the part's bytes
+     */
+    private synchronized void partDownloaded(int part, byte[] bytes) {
+      pendingParts.put(part, bytes);
+      byte[] nextBytes;
+      while ((nextBytes = pendingParts.remove(completedParts)) != null) {
+        md5Digest.update(nextBytes);
+        completedParts += 1;
+        completedBytes += nextBytes.length;
+      }
+      if (completedParts == partCount) {
+        finishDownload();
+      }
+      notifyAll();
+    }
+
+    /** Moves the temporary file into the cache and records the checksum. */
+    private synchronized void finishDownload() {
+      try {
+        output.close();
+        log.info(
+            "adding streamed file to cache: fileName={} cacheFile={}",
+            getS3Key(),
+            cacheDirectory.relativize(cacheFile));
+        try {
+          // In linux renaming a file in a local (not network shared) directory is atomic and will
+          // replace any existing file with same name.
+          Files.move(tempDataFile, cacheFile);
+        } catch (FileAlreadyExistsException ex) {
+          // Another download of the same version finished first and the files are identical.
+          Files.deleteIfExists(tempDataFile);
+        }
+        currentPath = cacheFile;
+        md5Checksum = Base64.getEncoder().encodeToString(md5Digest.digest());
+        complete = true;
+      } catch (IOException e) {
+        downloadFailed(e);
+      }
+      notifyAll();
+    }
+
+    /**
+     * Records a download failure so that readers and other tasks stop. Only the first failure is
+     * recorded.
+     *
+     * @param error the cause of the failure
+     */
+    private synchronized void downloadFailed(Exception error) {
+      if (failure == null && !cancelled) {
+        log.error("streamed download failed: fileName={}", getS3Key(), error);
+        failure =
+            error instanceof IOException ioException
+                ? ioException
+                : new IOException("streamed download failed: fileName=" + getS3Key(), error);
+      }
+      pendingParts.clear();
+      notifyAll();
+    }
+
+    /**
+     * Waits until at least one byte beyond the given position has been downloaded or the end of the
+     * file has been reached.
+     *
+     * @param position position of the next byte to read
+     * @return the number of bytes in the contiguous prefix
+     * @throws IOException if the download failed or was cancelled or interrupted while waiting
+     */
+    private synchronized long awaitBytesAfter(long position) throws IOException {
+      throwIfStopped();
+      while (completedBytes <= position && completedBytes < size) {
+        waitForChange();
+        throwIfStopped();
+      }
+      return completedBytes;
+    }
+
+    /**
+     * Opens a channel for reading the file from its current location.
+     *
+     * @return the channel
+     * @throws IOException if the file cannot be opened
+     */
+    private synchronized FileChannel openChannel() throws IOException {
+      return FileChannel.open(currentPath, StandardOpenOption.READ);
+    }
+
+    /**
+     * Closes the output channel and deletes the temporary file if it still exists.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    private void discardTempFile() throws IOException {
+      if (tempDataFile != null) {
+        output.close();
+        Files.deleteIfExists(tempDataFile);
+      }
+    }
+
+    /**
+     * Determines if the download has failed or been cancelled.
+     *
+     * @return true if no more parts should be downloaded
+     */
+    private boolean isStopped() {
+      return cancelled || failure != null;
+    }
+
+    /**
+     * Throws an exception if the download has failed or been cancelled.
+     *
+     * @throws IOException if the download has failed or been cancelled
+     */
+    private void throwIfStopped() throws IOException {
+      if (failure != null) {
+        throw new IOException("streamed download failed: fileName=" + getS3Key(), failure);
+      }
+      if (cancelled) {
+        throw new IOException("streamed download cancelled: fileName=" + getS3Key());
+      }
+    }
+
+    /**
+     * Waits for another thread to change the download's state. Must be called while holding this
+     * object's monitor.
+     *
+     * @throws InterruptedIOException if interrupted while waiting
+     */
+    private void waitForChange() throws InterruptedIOException {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("interrupted while waiting for download of " + getS3Key());
+      }
+    }
+
+    /**
+     * Reads a {@link StreamedFile} from the start, never reading past the contiguous prefix and
+     * blocking when it catches up with the download.
+     */
+    private class TailingInputStream extends InputStream {
+      /** Used to read the file. */
+      private final FileChannel channel;
+
+      /** Position of the next byte to read. */
+      private long position;
+
+      /**
+       * Initializes an instance.
+       *
+       * @param channel used to read the file
+       */
+      private TailingInputStream(FileChannel channel) {
+        this.channel = channel;
+      }
+
+      @Override
+      public int read() throws IOException {
+        final byte[] buffer = new byte[1];
+        final int count = read(buffer, 0, 1);
+        return count < 0 ? -1 : buffer[0] & 0xff;
+      }
+
+      @Override
+      public int read(@Nonnull byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+          return 0;
+        }
+        final long available = awaitBytesAfter(position) - position;
+        if (available <= 0) {
+          return -1;
+        }
+        final int count = (int) Math.min(length, available);
+        final int bytesRead = channel.read(ByteBuffer.wrap(buffer, offset, count), position);
+        if (bytesRead < 0) {
+          throw new IOException("unexpected end of streamed file: fileName=" + getS3Key());
+        }
+        position += bytesRead;
+        return bytesRead;
+      }
+
+      @Override
+      public void close() throws IOException {
+        channel.close();
+      }
+    }
+  }
 }
@@ -0,0 +1,213 @@
+package gov.cms.bfd.pipeline.sharedutils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micro benchmark comparing the striped {@link SequenceNumberTracker} to the original {@code
+ * synchronized} {@link TreeSet} based implementation under 4 to 64 concurrent writers. This is a
+ * plain main program rather than a test so that it never runs as part of the normal build. Run it
+ * from an IDE or with {@code mvn exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=gov.cms.bfd.pipeline.sharedutils.SequenceNumberTrackerBenchmark}.
+ *
+ * <p>Each writer thread claims a batch of sequence numbers from a shared counter, adds them to the
+ * tracker, removes them again and then asks for the safe resume sequence number just as {@code
+ * ConcurrentRdaSink} and {@code RifFileProgressTracker} do. Since the benefit comes from reduced
+ * lock contention results are only meaningful on a machine with several CPU cores. Results are
+ * printed as operations per second for each implementation and thread count.
+ */
+public class SequenceNumberTrackerBenchmark {
+  /** Thread counts to benchmark. */
+  private static final int[] THREAD_COUNTS = {4, 8, 16, 32, 64};
+
+  /** Number of sequence numbers processed by each thread in a single run. */
+  private static final int NUMBERS_PER_THREAD = 200_000;
+
+  /**
+   * Number of sequence numbers each thread adds before removing them again. Mimics writers
+   * processing batches so that the tracker holds a realistic number of active sequence numbers.
+   */
+  private static final int BATCH_SIZE = 100;
+
+  /** Number of untimed runs used to warm up the JIT before measuring. */
+  private static final int WARMUP_RUNS = 3;
+
+  /** Number of timed runs per configuration. The best result is reported. */
+  private static final int MEASURED_RUNS = 5;
+
+  /** Minimal interface so that both implementations can be driven by the same code. */
+  private interface Tracker {
+    /**
+     * Adds an active sequence number.
+     *
+     * @param sequenceNumber the sequence number
+     */
+    void add(long sequenceNumber);
+
+    /**
+     * Removes a written sequence number.
+     *
+     * @param sequenceNumber the sequence number
+     */
+    void remove(long sequenceNumber);
+
+    /**
+     * Gets the safe resume sequence number.
+     *
+     * @return the sequence number
+     */
+    long safe();
+  }
+
+  /** Copy of the original single lock implementation used as the baseline. */
+  private static class SynchronizedTracker implements Tracker {
+    /** The active sequence numbers. */
+    private final Set<Long> activeSequenceNumbers = new TreeSet<>();
+
+    /** The highest sequence number seen so far. */
+    private long maxSequenceNumber;
+
+    @Override
+    public synchronized void add(long sequenceNumber) {
+      activeSequenceNumbers.add(sequenceNumber);
+      if (sequenceNumber > maxSequenceNumber) {
+        maxSequenceNumber = sequenceNumber;
+      }
+    }
+
+    @Override
+    public synchronized void remove(long sequenceNumber) {
+      activeSequenceNumbers.remove(sequenceNumber);
+    }
+
+    @Override
+    public synchronized long safe() {
+      if (activeSequenceNumbers.size() > 0) {
+        return activeSequenceNumbers.iterator().next() - 1;
+      } else {
+        return maxSequenceNumber;
+      }
+    }
+  }
+
+  /**
+   * Runs the benchmark and prints the results.
+   *
+   * @param args ignored
+   * @throws Exception pass through if anything fails
+   */
+  public static void main(String[] args) throws Exception {
+    System.out.printf("%-14s %8s %16s%n", "impl", "threads", "ops/sec");
+    for (int threadCount : THREAD_COUNTS) {
+      final double baseline = benchmark(threadCount, SynchronizedTracker::new);
+      System.out.printf("%-14s %8d %,16.0f%n", "synchronized", threadCount, baseline);
+      final double current =
+          benchmark(
+              threadCount,
+              () -> {
+                final var tracker = new SequenceNumberTracker(0);
+                return new Tracker() {
+                  @Override
+                  public void add(long sequenceNumber) {
+                    tracker.addActiveSequenceNumber(sequenceNumber);
+                  }
+
+                  @Override
+                  public void remove(long sequenceNumber) {
+                    tracker.removeWrittenSequenceNumber(sequenceNumber);
+                  }
+
+                  @Override
+                  public long safe() {
+                    return tracker.getSafeResumeSequenceNumber();
+                  }
+                };
+              });
+      System.out.printf("%-14s %8d %,16.0f%n", "striped", threadCount, current);
+    }
+  }
+
+  /**
+   * Warms up then measures one implementation with the specified number of threads.
+   *
+   * @param threadCount number of concurrent writer threads
+   * @param factory creates a fresh tracker for each run
+   * @return best observed throughput in operations (add plus remove) per second
+   * @throws Exception pass through if anything fails
+   */
+  private static double benchmark(int threadCount, TrackerFactory factory) throws Exception {
+    for (int i = 0; i < WARMUP_RUNS; ++i) {
+      runOnce(threadCount, factory.create());
+    }
+    double best = 0;
+    for (int i = 0; i < MEASURED_RUNS; ++i) {
+      best = Math.max(best, runOnce(threadCount, factory.create()));
+    }
+    return best;
+  }
+
+  /**
+   * Performs a single timed run.
+   *
+   * @param threadCount number of concurrent writer threads
+   * @param tracker the tracker to exercise
+   * @return throughput in operations (add plus remove) per second
+   * @throws Exception pass through if anything fails
+   */
+  private static double runOnce(int threadCount, Tracker tracker) throws Exception {
+    final AtomicLong nextSequenceNumber = new AtomicLong(1);
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threadCount; ++i) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  long sink = 0;
+                  for (int j = 0; j < NUMBERS_PER_THREAD; j += BATCH_SIZE) {
+                    final long firstNumber = nextSequenceNumber.getAndAdd(BATCH_SIZE);
+                    for (int k = 0; k < BATCH_SIZE; ++k) {
+                      tracker.add(firstNumber + k);
+                    }
+                    for (int k = 0; k < BATCH_SIZE; ++k) {
+                      tracker.remove(firstNumber + k);
+                    }
+                    sink += tracker.safe();
+                  }
+                  return sink;
+                }));
+      }
+      final long startNanos = System.nanoTime();
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      final long elapsedNanos = System.nanoTime() - startNanos;
+      final double operations = 2.0 * threadCount * NUMBERS_PER_THREAD;
+      return operations / elapsedNanos * TimeUnit.SECONDS.toNanos(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Creates trackers for each benchmark run. */
+  @FunctionalInterface
+  private interface TrackerFactory {
+    /**
+     * Creates a new tracker.
+     *
+     * @return the tracker
+     */
+    Tracker create();
+  }
+}
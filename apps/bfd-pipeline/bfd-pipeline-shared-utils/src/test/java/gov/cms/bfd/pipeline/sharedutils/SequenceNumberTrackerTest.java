@@ -1,7 +1,14 @@
 package gov.cms.bfd.pipeline.sharedutils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.Test;
 
 /** Tests the {@link SequenceNumberTracker}. */
@@ -66,4 +73,44 @@ public class SequenceNumberTrackerTest {
     tracker.removeWrittenSequenceNumber(104);
     assertEquals(104, tracker.getSafeResumeSequenceNumber());
   }
+
+  /**
+   * Verifies that concurrent writers never cause the tracker to report a sequence number that is
+   * still being written and that the final value is correct once all writers have finished.
+   *
+   * @throws Exception pass through if test fails
+   */
+  @Test
+  public void concurrentWritersNeverPassActiveNumbers() throws Exception {
+    final int threadCount = 8;
+    final int numbersPerThread = 10_000;
+    final var tracker = new SequenceNumberTracker(0);
+    final var nextSequenceNumber = new AtomicLong(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threadCount; ++i) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int j = 0; j < numbersPerThread; ++j) {
+                    final long sequenceNumber = nextSequenceNumber.getAndIncrement();
+                    tracker.addActiveSequenceNumber(sequenceNumber);
+                    final long safeNumber = tracker.getSafeResumeSequenceNumber();
+                    assertTrue(
+                        safeNumber < sequenceNumber,
+                        () -> String.format("safe=%d active=%d", safeNumber, sequenceNumber));
+                    tracker.removeWrittenSequenceNumber(sequenceNumber);
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals((long) threadCount * numbersPerThread, tracker.getSafeResumeSequenceNumber());
+  }
 }
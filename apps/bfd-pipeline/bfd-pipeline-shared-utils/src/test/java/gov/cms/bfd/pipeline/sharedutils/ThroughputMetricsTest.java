@@ -0,0 +1,153 @@
+package gov.cms.bfd.pipeline.sharedutils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.dropwizard.CodahaleMetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/** Tests the {@link ThroughputMetrics}. */
+public class ThroughputMetricsTest {
+  /** Verifies that stage counters are shared by name and tagged with pipeline, source and stage. */
+  @Test
+  public void stageCountersAreTagged() {
+    final var meters = new SimpleMeterRegistry();
+    final var metrics = new ThroughputMetrics(meters, ThroughputMetrics.CCW_PIPELINE);
+
+    metrics.getStageCounter("BENEFICIARY", ThroughputMetrics.Stage.RECEIVED).increment(5);
+    metrics.getStageCounter("BENEFICIARY", ThroughputMetrics.Stage.RECEIVED).increment(2);
+    metrics.getStageCounter("BENEFICIARY", ThroughputMetrics.Stage.WRITTEN).increment(3);
+    metrics.getStageCounter("CARRIER", ThroughputMetrics.Stage.RECEIVED).increment();
+
+    assertEquals(
+        7.0,
+        meters
+            .get(ThroughputMetrics.RECORDS_METRIC_NAME)
+            .tags(
+                Tags.of(
+                    ThroughputMetrics.PIPELINE_TAG, "ccw",
+                    ThroughputMetrics.SOURCE_TAG, "BENEFICIARY",
+                    ThroughputMetrics.STAGE_TAG, "received"))
+            .counter()
+            .count());
+    assertEquals(
+        3.0,
+        meters
+            .get(ThroughputMetrics.RECORDS_METRIC_NAME)
+            .tags(ThroughputMetrics.STAGE_TAG, "written")
+            .counter()
+            .count());
+    assertEquals(3, meters.get(ThroughputMetrics.RECORDS_METRIC_NAME).counters().size());
+  }
+
+  /**
+   * Verifies that the queue depth gauge reports the value returned to callers and that every
+   * instance for the same registry, pipeline and queue shares the value while other registries get
+   * their own.
+   */
+  @Test
+  public void queueDepthGaugeTracksValue() {
+    final var meters = new SimpleMeterRegistry();
+    final var metrics = new ThroughputMetrics(meters, "queueDepthGaugeTracksValue");
+
+    final AtomicLong depth = metrics.getQueueDepth("pending");
+    depth.addAndGet(4);
+    assertSame(
+        depth,
+        new ThroughputMetrics(meters, "queueDepthGaugeTracksValue").getQueueDepth("pending"));
+    final var otherMeters = new SimpleMeterRegistry();
+    final AtomicLong otherDepth =
+        new ThroughputMetrics(otherMeters, "queueDepthGaugeTracksValue").getQueueDepth("pending");
+    assertNotSame(depth, otherDepth);
+    assertEquals(0.0, otherMeters.get(ThroughputMetrics.QUEUE_DEPTH_METRIC_NAME).gauge().value());
+    assertEquals(
+        4.0,
+        meters
+            .get(ThroughputMetrics.QUEUE_DEPTH_METRIC_NAME)
+            .tags(ThroughputMetrics.QUEUE_TAG, "pending")
+            .gauge()
+            .value());
+
+    depth.decrementAndGet();
+    assertEquals(3.0, meters.get(ThroughputMetrics.QUEUE_DEPTH_METRIC_NAME).gauge().value());
+  }
+
+  /**
+   * Verifies that the connection pool reports its acquire times to both registries, keeping the
+   * existing Dropwizard names while adding the connection wait timer.
+   */
+  @Test
+  public void connectionPoolReportsToBothRegistries() {
+    final var metrics = new MetricRegistry();
+    final var meters = new SimpleMeterRegistry();
+    final PoolStats poolStats =
+        new PoolStats(0) {
+          @Override
+          protected void update() {}
+        };
+    final IMetricsTracker tracker =
+        ThroughputMetrics.createConnectionPoolTrackerFactory(
+                new CodahaleMetricsTrackerFactory(metrics),
+                new MicrometerMetricsTrackerFactory(meters))
+            .create("test", poolStats);
+
+    tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(5));
+    tracker.recordConnectionTimeout();
+
+    assertEquals(1, metrics.timer("test.pool.Wait").getCount());
+    assertEquals(1, metrics.meter("test.pool.ConnectionTimeoutRate").getCount());
+    assertEquals(
+        1,
+        meters
+            .get(ThroughputMetrics.CONNECTION_WAIT_METRIC_NAME)
+            .tag("pool", "test")
+            .timer()
+            .count());
+
+    tracker.close();
+    assertTrue(metrics.getTimers().isEmpty());
+  }
+
+  /**
+   * Verifies that the connection wait filter only adds a histogram to the connection wait timer.
+   */
+  @Test
+  public void connectionWaitFilterAddsHistogram() {
+    final MeterFilter filter = ThroughputMetrics.createConnectionWaitFilter();
+    final DistributionStatisticConfig defaults = DistributionStatisticConfig.DEFAULT;
+
+    final DistributionStatisticConfig waitConfig =
+        filter.configure(
+            new Meter.Id(
+                ThroughputMetrics.CONNECTION_WAIT_METRIC_NAME,
+                Tags.of("pool", "test"),
+                null,
+                null,
+                Meter.Type.TIMER),
+            defaults);
+    assertTrue(waitConfig.isPercentileHistogram());
+    assertArrayEquals(new double[] {0.5, 0.95, 0.99}, waitConfig.getPercentiles());
+
+    final DistributionStatisticConfig otherConfig =
+        filter.configure(
+            new Meter.Id("hikaricp.connections.usage", Tags.empty(), null, null, Meter.Type.TIMER),
+            defaults);
+    assertSame(defaults, otherConfig);
+    assertNull(otherConfig.getPercentiles());
+  }
+}
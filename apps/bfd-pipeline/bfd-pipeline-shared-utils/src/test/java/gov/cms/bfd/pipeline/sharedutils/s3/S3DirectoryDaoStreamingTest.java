@@ -0,0 +1,210 @@
+package gov.cms.bfd.pipeline.sharedutils.s3;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link S3DirectoryDao#streamFile}. */
+public class S3DirectoryDaoStreamingTest {
+  /** Bucket used in all tests. */
+  private static final String BUCKET = "bucket";
+
+  /** Directory within the bucket used in all tests. */
+  private static final String DIRECTORY = "dir/";
+
+  /** Name of the file used in all tests. */
+  private static final String FILE_NAME = "data.csv";
+
+  /** The eTag of the object used in all tests. */
+  private static final String ETAG = "etag-1";
+
+  /** Size of each part downloaded in tests. */
+  private static final int PART_SIZE = 7;
+
+  /** Contents of the object, long enough to span several parts. */
+  private static final byte[] CONTENTS =
+      "HDR|ONE|TWO\n1|alpha|beta\n2|gamma|delta\n3|epsilon|zeta\n".getBytes(StandardCharsets.UTF_8);
+
+  /** Cache directory for the DAO. */
+  @TempDir Path cacheDirectory;
+
+  /** Mock used to simulate S3. */
+  private S3Dao s3Dao;
+
+  /** Runs the part downloads. */
+  private ExecutorService executor;
+
+  /** The DAO being tested. */
+  private S3DirectoryDao directoryDao;
+
+  /** Creates the mock S3 object and the DAO. */
+  @BeforeEach
+  void setUp() {
+    s3Dao = mock(S3Dao.class);
+    doReturn(new S3Dao.S3ObjectDetails(DIRECTORY + FILE_NAME, ETAG, CONTENTS.length, Map.of()))
+        .when(s3Dao)
+        .readObjectMetaData(BUCKET, DIRECTORY + FILE_NAME);
+    doAnswer(
+            invocation -> {
+              int offset = (int) (long) invocation.getArgument(3);
+              int length = invocation.getArgument(4);
+              return Arrays.copyOfRange(CONTENTS, offset, offset + length);
+            })
+        .when(s3Dao)
+        .readObjectRange(eq(BUCKET), eq(DIRECTORY + FILE_NAME), eq(ETAG), anyLong(), anyInt());
+    executor = Executors.newFixedThreadPool(3);
+    directoryDao = new S3DirectoryDao(s3Dao, BUCKET, DIRECTORY, cacheDirectory, false, false);
+  }
+
+  /** Stops the download threads. */
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Verifies that a streamed file can be read in full, has the correct checksum, and ends up in the
+   * cache where a later call finds it without downloading it again.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldStreamFileIntoCache() throws Exception {
+    S3DirectoryDao.StreamedFile file = directoryDao.streamFile(FILE_NAME, executor, PART_SIZE, 3);
+
+    assertArrayEquals(CONTENTS, file.getBytes().read());
+    assertEquals(md5(CONTENTS), file.awaitMd5Checksum());
+    assertTrue(file.isComplete());
+    assertTrue(file.getAbsolutePath().endsWith(".dat"));
+    try (Stream<Path> files = Files.list(cacheDirectory)) {
+      assertEquals(1, files.count());
+    }
+
+    S3DirectoryDao.StreamedFile cached = directoryDao.streamFile(FILE_NAME, executor, PART_SIZE, 3);
+    assertTrue(cached.isComplete());
+    assertTrue(cached.getDownloadFinished().toCompletableFuture().isDone());
+    assertArrayEquals(CONTENTS, cached.getBytes().read());
+    assertEquals(md5(CONTENTS), cached.awaitMd5Checksum());
+  }
+
+  /**
+   * Verifies that bytes can be read before the whole object has been downloaded and that the
+   * download is only reported as finished once every part has been written.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldReadPrefixWhileDownloading() throws Exception {
+    final CountDownLatch releaseLastPart = new CountDownLatch(1);
+    final long lastPartOffset = (CONTENTS.length - 1) / PART_SIZE * PART_SIZE;
+    doAnswer(
+            invocation -> {
+              assertTrue(releaseLastPart.await(10, TimeUnit.SECONDS));
+              return Arrays.copyOfRange(CONTENTS, (int) lastPartOffset, CONTENTS.length);
+            })
+        .when(s3Dao)
+        .readObjectRange(
+            eq(BUCKET), eq(DIRECTORY + FILE_NAME), eq(ETAG), eq(lastPartOffset), anyInt());
+
+    S3DirectoryDao.StreamedFile file = directoryDao.streamFile(FILE_NAME, executor, PART_SIZE, 2);
+    try (InputStream input = file.getBytes().openStream()) {
+      byte[] prefix = input.readNBytes((int) lastPartOffset);
+      assertArrayEquals(Arrays.copyOf(CONTENTS, (int) lastPartOffset), prefix);
+      assertFalse(file.isComplete());
+      assertFalse(file.getDownloadFinished().toCompletableFuture().isDone());
+
+      releaseLastPart.countDown();
+      byte[] rest = input.readAllBytes();
+      assertArrayEquals(Arrays.copyOfRange(CONTENTS, (int) lastPartOffset, CONTENTS.length), rest);
+    }
+    assertEquals(md5(CONTENTS), file.awaitMd5Checksum());
+    file.getDownloadFinished().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Verifies that a failed part causes readers and checksum callers to fail, that the download is
+   * reported as finished, and that the partial file is removed.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldFailReadersWhenPartFails() throws Exception {
+    doThrow(new IllegalStateException("network down"))
+        .when(s3Dao)
+        .readObjectRange(eq(BUCKET), eq(DIRECTORY + FILE_NAME), eq(ETAG), eq(7L), anyInt());
+
+    S3DirectoryDao.StreamedFile file = directoryDao.streamFile(FILE_NAME, executor, PART_SIZE, 2);
+
+    assertThatThrownBy(() -> file.getBytes().read()).isInstanceOf(IOException.class);
+    assertThatThrownBy(file::awaitMd5Checksum)
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining(FILE_NAME);
+    file.getDownloadFinished().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    file.delete();
+    try (Stream<Path> files = Files.list(cacheDirectory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  /**
+   * Verifies that an empty object is complete as soon as it is streamed.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldStreamEmptyFile() throws Exception {
+    doReturn(new S3Dao.S3ObjectDetails(DIRECTORY + FILE_NAME, ETAG, 0, Map.of()))
+        .when(s3Dao)
+        .readObjectMetaData(BUCKET, DIRECTORY + FILE_NAME);
+
+    S3DirectoryDao.StreamedFile file = directoryDao.streamFile(FILE_NAME, executor, PART_SIZE, 2);
+
+    assertTrue(file.isComplete());
+    assertTrue(file.getDownloadFinished().toCompletableFuture().isDone());
+    assertEquals(0, file.getBytes().read().length);
+    assertEquals(md5(new byte[0]), file.awaitMd5Checksum());
+    verify(s3Dao, never()).readObjectRange(any(), any(), any(), anyLong(), anyInt());
+  }
+
+  /**
+   * Computes the expected checksum of some bytes.
+   *
+   * @param bytes the bytes
+   * @return Base64 encoded md5 value
+   * @throws Exception pass through from method signatures
+   */
+  private static String md5(byte[] bytes) throws Exception {
+    return Base64.getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(bytes));
+  }
+}
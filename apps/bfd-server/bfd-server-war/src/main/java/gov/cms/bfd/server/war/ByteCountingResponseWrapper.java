@@ -0,0 +1,126 @@
+package gov.cms.bfd.server.war;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+/**
+ * Response wrapper that passes the body straight through to the underlying response while counting
+ * the bytes written. Used by {@link RequestResponsePopulateMdcFilter} in place of a content caching
+ * wrapper for unbuffered responses, which have no Content-Length header and should not be buffered.
+ */
+class ByteCountingResponseWrapper extends HttpServletResponseWrapper {
+  /** Counts bytes written to the underlying output stream. Created on first use. */
+  private CountingOutputStream outputStream;
+
+  /** Writer over {@link #outputStream}. Created on first use. */
+  private PrintWriter writer;
+
+  /**
+   * Initializes an instance.
+   *
+   * @param response the response to wrap
+   */
+  ByteCountingResponseWrapper(HttpServletResponse response) {
+    super(response);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ServletOutputStream getOutputStream() throws IOException {
+    if (outputStream == null) {
+      outputStream = new CountingOutputStream(super.getOutputStream());
+    }
+    return outputStream;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public PrintWriter getWriter() throws IOException {
+    if (writer == null) {
+      writer =
+          new PrintWriter(
+              new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+    }
+    return writer;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void flushBuffer() throws IOException {
+    if (writer != null) {
+      writer.flush();
+    }
+    super.flushBuffer();
+  }
+
+  /**
+   * Gets the number of body bytes written so far.
+   *
+   * @return the byte count
+   */
+  long getByteCount() {
+    return outputStream == null ? 0 : outputStream.count;
+  }
+
+  /** Output stream that delegates to another while counting bytes. */
+  private static class CountingOutputStream extends ServletOutputStream {
+    /** The stream being wrapped. */
+    private final ServletOutputStream delegate;
+
+    /** Number of bytes written so far. */
+    private long count;
+
+    /**
+     * Initializes an instance.
+     *
+     * @param delegate the stream being wrapped
+     */
+    private CountingOutputStream(ServletOutputStream delegate) {
+      this.delegate = delegate;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(int b) throws IOException {
+      delegate.write(b);
+      count += 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      delegate.write(b, off, len);
+      count += len;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() throws IOException {
+      delegate.flush();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isReady() {
+      return delegate.isReady();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+      delegate.setWriteListener(writeListener);
+    }
+  }
+}
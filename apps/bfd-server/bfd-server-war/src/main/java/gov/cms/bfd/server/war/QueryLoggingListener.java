@@ -1,8 +1,10 @@
 package gov.cms.bfd.server.war;
 
 import gov.cms.bfd.server.sharedutils.BfdMDC;
+import gov.cms.bfd.server.war.commons.RequestProfile;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import net.ttddyy.dsproxy.ExecutionInfo;
 import net.ttddyy.dsproxy.QueryInfo;
@@ -10,7 +12,10 @@ import net.ttddyy.dsproxy.listener.QueryExecutionListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** This {@link QueryExecutionListener} records query performance data in {@link BfdMDC}. */
+/**
+ * This {@link QueryExecutionListener} records query performance data in {@link BfdMDC} and adds the
+ * query time to the current thread's {@link RequestProfile}.
+ */
 public final class QueryLoggingListener implements QueryExecutionListener {
   private static final Logger LOGGER = LoggerFactory.getLogger(QueryLoggingListener.class);
 
@@ -29,6 +34,8 @@ public final class QueryLoggingListener implements QueryExecutionListener {
 
     if (queryInfoList.isEmpty()) return;
 
+    RequestProfile.recordQuery(TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime()));
+
     /*
      * Most of the time, we don't want to include the full SQL queries as they add a tremendous
      * amount of bloat to the logs. But, sometimes we do...
@@ -199,6 +206,9 @@ public final class QueryLoggingListener implements QueryExecutionListener {
 
     /** Represents query that invokes the check_claims_mask function. */
     CHECK_CLAIMS_MASK("check_claims_mask", (s -> s.contains("check_claims_mask"))),
+    /** Represents query that invokes the check_claims_availability function. */
+    CHECK_CLAIMS_AVAILABILITY(
+        "check_claims_availability", (s -> s.contains("check_claims_availability"))),
     /**
      * Represents Hibernate PostgreSQL dialect's probing for sequences in the associated database.
      * This query is automatically executed at least once when establishing a database connection.
@@ -0,0 +1,440 @@
+package gov.cms.bfd.server.war;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.io.Closeable;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link DataSource} that spreads connections across a set of read replica pools, falling back to
+ * the primary pool when no replica is usable. The server never writes to the database so every
+ * connection is eligible to be served by a replica.
+ *
+ * <p>Each connection goes to the healthy replica with the fewest active or waiting connections.
+ * Replicas are checked periodically and are only used while they answer queries and their
+ * replication lag is within a configured limit. A replica that fails to provide a connection is
+ * taken out of rotation until its next successful check.
+ *
+ * <p>Replication lag is measured from the {@code loaded_batches} rows written by the pipeline: it
+ * is the age of the oldest batch on the primary that the replica does not have yet. This is the lag
+ * that matters to the server since {@link gov.cms.bfd.server.war.commons.LoadedFilterManager}
+ * decides which results can be skipped based on those batches.
+ *
+ * <p>The filter manager reads the batches from the primary but must never advertise data that a
+ * replica serving a request does not have yet. It therefore caps its transaction time at {@link
+ * #getReplicatedBatchCreated} and passes that time to {@link #requireBatchCreated}, after which
+ * connections only go to replicas that have every batch created up to it.
+ *
+ * <p>Code that must see the pipeline's writes as soon as they are committed can pin its connections
+ * to the primary with {@link #runOnPrimary}.
+ */
+public class ReplicaRoutingDataSource implements DataSource, Closeable {
+  /** The logger for this class. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  /** Finds the most recent batch a database has. */
+  private static final String LATEST_BATCH_SQL = "select max(created) from ccw.loaded_batches";
+
+  /** Finds the oldest batch on the primary that is newer than the replica's latest batch. */
+  private static final String OLDEST_MISSING_BATCH_SQL =
+      "select min(created) from ccw.loaded_batches where created > ?";
+
+  /** Number of active {@link #runOnPrimary} calls on the current thread. */
+  private static final ThreadLocal<Integer> primaryPins = ThreadLocal.withInitial(() -> 0);
+
+  /** The primary's connection pool. */
+  private final HikariDataSource primary;
+
+  /** The replicas' connection pools. */
+  @Getter private final List<Replica> replicas;
+
+  /** Replicas lagging the primary by more than this are not used. */
+  private final Duration maxLag;
+
+  /** Source of the current time for lag measurements. */
+  private final Clock clock;
+
+  /** Runs the periodic replica checks, null if they are run by the caller. */
+  private final ScheduledExecutorService healthChecker;
+
+  /** Used to spread connections evenly across equally loaded replicas. */
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  /** Replicas whose latest batch is older than this are not used. */
+  private volatile Instant requiredBatchCreated = Instant.EPOCH;
+
+  /**
+   * Instantiates a new data source that checks its replicas on a background thread. The replicas
+   * are not used until their first check has passed.
+   *
+   * @param primary the primary's connection pool
+   * @param replicas the replicas' connection pools
+   * @param maxLag replicas lagging the primary by more than this are not used
+   * @param checkInterval time between replica checks
+   */
+  public ReplicaRoutingDataSource(
+      HikariDataSource primary,
+      List<HikariDataSource> replicas,
+      Duration maxLag,
+      Duration checkInterval) {
+    this(
+        primary,
+        replicas,
+        maxLag,
+        Clock.systemUTC(),
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread t = new Thread(r);
+              t.setName("replica_health_check");
+              t.setDaemon(true);
+              return t;
+            }));
+    healthChecker.scheduleWithFixedDelay(
+        this::checkReplicas, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Instantiates a new data source. Allows tests to run the replica checks themselves.
+   *
+   * @param primary the primary's connection pool
+   * @param replicas the replicas' connection pools
+   * @param maxLag replicas lagging the primary by more than this are not used
+   * @param clock source of the current time
+   * @param healthChecker runs the replica checks, null if they are run by the caller
+   */
+  @VisibleForTesting
+  ReplicaRoutingDataSource(
+      HikariDataSource primary,
+      List<HikariDataSource> replicas,
+      Duration maxLag,
+      Clock clock,
+      ScheduledExecutorService healthChecker) {
+    this.primary = primary;
+    this.replicas = replicas.stream().map(Replica::new).collect(Collectors.toUnmodifiableList());
+    this.maxLag = maxLag;
+    this.clock = clock;
+    this.healthChecker = healthChecker;
+  }
+
+  /**
+   * Runs an action with every connection it opens on the current thread coming from the primary.
+   * Calls may be nested.
+   *
+   * @param action the action to run
+   */
+  public static void runOnPrimary(Runnable action) {
+    primaryPins.set(primaryPins.get() + 1);
+    try {
+      action.run();
+    } finally {
+      int pins = primaryPins.get() - 1;
+      if (pins == 0) {
+        primaryPins.remove();
+      } else {
+        primaryPins.set(pins);
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (primaryPins.get() > 0) {
+      return primary.getConnection();
+    }
+    Replica replica = chooseReplica();
+    while (replica != null) {
+      try {
+        return replica.dataSource.getConnection();
+      } catch (SQLException e) {
+        replica.markUnhealthy("unable to connect", e);
+        replica = chooseReplica();
+      }
+    }
+    return primary.getConnection();
+  }
+
+  /**
+   * Gets the time up to which every replica that connections may currently be routed to has all of
+   * the pipeline's batches.
+   *
+   * @return the oldest latest batch of the usable replicas, or empty if connections all go to the
+   *     primary
+   */
+  public Optional<Instant> getReplicatedBatchCreated() {
+    final Instant required = requiredBatchCreated;
+    return replicas.stream()
+        .filter(replica -> replica.isUsable(required))
+        .map(Replica::getLatestBatchCreated)
+        .min(Comparator.naturalOrder());
+  }
+
+  /**
+   * Stops routing connections to replicas that do not have every batch created up to a given time.
+   * Such replicas are used again once a check finds that they have caught up. The requirement never
+   * moves backwards.
+   *
+   * @param created the time of the latest batch that every replica must have
+   */
+  public synchronized void requireBatchCreated(Instant created) {
+    if (created.isAfter(requiredBatchCreated)) {
+      requiredBatchCreated = created;
+    }
+  }
+
+  /**
+   * Determines whether any live request is waiting for a connection from the primary or a replica.
+   *
+   * @return true if at least one thread is waiting for a connection
+   */
+  public boolean hasThreadsAwaitingConnection() {
+    return Stream.concat(Stream.of(primary), replicas.stream().map(replica -> replica.dataSource))
+        .map(HikariDataSource::getHikariPoolMXBean)
+        .anyMatch(pool -> pool != null && pool.getThreadsAwaitingConnection() > 0);
+  }
+
+  /**
+   * Always delegates to the primary since the replicas share its credentials.
+   *
+   * <p>{@inheritDoc}
+   */
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return primary.getConnection(username, password);
+  }
+
+  /**
+   * Chooses the usable replica with the fewest active or waiting connections. Ties are broken in
+   * rotation so equally loaded replicas share new connections.
+   *
+   * @return the replica, or null if none are usable
+   */
+  @VisibleForTesting
+  Replica chooseReplica() {
+    final int replicaCount = replicas.size();
+    if (replicaCount == 0) {
+      return null;
+    }
+    final int start = Math.floorMod(nextReplica.getAndIncrement(), replicaCount);
+    final Instant required = requiredBatchCreated;
+    Replica best = null;
+    int bestLoad = Integer.MAX_VALUE;
+    for (int i = 0; i < replicaCount; i++) {
+      final Replica replica = replicas.get((start + i) % replicaCount);
+      if (replica.isUsable(required)) {
+        final int load = replica.getLoad();
+        if (load < bestLoad) {
+          best = replica;
+          bestLoad = load;
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Checks every replica, updating whether it may be used. Failures are logged rather than thrown
+   * so that one bad check does not stop the periodic checks.
+   */
+  @VisibleForTesting
+  void checkReplicas() {
+    for (Replica replica : replicas) {
+      try {
+        final Duration lag = measureLag(replica);
+        replica.lag = lag;
+        if (lag.compareTo(maxLag) > 0) {
+          replica.markUnhealthy("lag of " + lag + " exceeds " + maxLag, null);
+        } else {
+          replica.markHealthy();
+        }
+      } catch (SQLException | RuntimeException e) {
+        replica.markUnhealthy("check failed", e);
+      }
+    }
+  }
+
+  /**
+   * Measures how far a replica lags behind the primary and records the replica's latest batch.
+   *
+   * @param replica the replica to measure
+   * @return the age of the oldest batch on the primary that the replica does not have, or zero if
+   *     it has all of them
+   * @throws SQLException if either database could not be queried
+   */
+  private Duration measureLag(Replica replica) throws SQLException {
+    final Timestamp replicaLatest;
+    try (Connection connection = replica.dataSource.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet results = statement.executeQuery(LATEST_BATCH_SQL)) {
+      replicaLatest = results.next() ? results.getTimestamp(1) : null;
+    }
+
+    final Timestamp oldestMissing;
+    try (Connection connection = primary.getConnection();
+        PreparedStatement statement = connection.prepareStatement(OLDEST_MISSING_BATCH_SQL)) {
+      statement.setTimestamp(1, replicaLatest != null ? replicaLatest : new Timestamp(0));
+      try (ResultSet results = statement.executeQuery()) {
+        oldestMissing = results.next() ? results.getTimestamp(1) : null;
+      }
+    }
+
+    replica.latestBatchCreated = replicaLatest != null ? replicaLatest.toInstant() : Instant.EPOCH;
+    if (oldestMissing == null) {
+      return Duration.ZERO;
+    }
+    final Duration lag = Duration.between(oldestMissing.toInstant(), Instant.now(clock));
+    return lag.isNegative() ? Duration.ZERO : lag;
+  }
+
+  /** Stops the replica checks and closes every pool. */
+  @Override
+  public void close() {
+    if (healthChecker != null) {
+      healthChecker.shutdownNow();
+    }
+    replicas.forEach(replica -> replica.dataSource.close());
+    primary.close();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return primary.getLogWriter();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    primary.setLogWriter(out);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    primary.setLoginTimeout(seconds);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return primary.getLoginTimeout();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    return primary.getParentLogger();
+  }
+
+  /**
+   * Unwraps to this data source or, for any other type, to the primary's pool.
+   *
+   * <p>{@inheritDoc}
+   */
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || primary.isWrapperFor(iface);
+  }
+
+  /** A replica's connection pool and the result of its most recent check. */
+  @VisibleForTesting
+  static class Replica {
+    /** The replica's connection pool. */
+    private final HikariDataSource dataSource;
+
+    /** Whether the replica may be used. */
+    @Getter private volatile boolean healthy;
+
+    /** Whether the replica has been checked at least once. */
+    private volatile boolean checked;
+
+    /** The replica's lag as of its most recent successful check. */
+    @Getter private volatile Duration lag;
+
+    /** The replica's latest batch as of its most recent successful check, null until then. */
+    @Getter private volatile Instant latestBatchCreated;
+
+    /**
+     * Instantiates a new replica that is not used until it has been checked.
+     *
+     * @param dataSource the replica's connection pool
+     */
+    Replica(HikariDataSource dataSource) {
+      this.dataSource = dataSource;
+    }
+
+    /**
+     * Gets the number of connections that are in use or being waited for.
+     *
+     * @return the load, or zero if the pool has not started yet
+     */
+    int getLoad() {
+      final HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+      return pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+    }
+
+    /**
+     * Determines whether connections may be routed to the replica.
+     *
+     * @param requiredBatchCreated the time of the latest batch the replica must have
+     * @return true if the replica is healthy and has the required batches
+     */
+    boolean isUsable(Instant requiredBatchCreated) {
+      final Instant latest = latestBatchCreated;
+      return healthy && latest != null && !latest.isBefore(requiredBatchCreated);
+    }
+
+    /** Puts the replica back into rotation. */
+    void markHealthy() {
+      if (!healthy || !checked) {
+        LOGGER.info("Using replica {}", dataSource.getPoolName());
+      }
+      healthy = true;
+      checked = true;
+    }
+
+    /**
+     * Takes the replica out of rotation.
+     *
+     * @param reason why the replica is not usable
+     * @param cause the error that made the replica unusable, if any
+     */
+    void markUnhealthy(String reason, Exception cause) {
+      if (healthy || !checked) {
+        LOGGER.warn("Not using replica {}: {}", dataSource.getPoolName(), reason, cause);
+      }
+      healthy = false;
+      checked = true;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package gov.cms.bfd.server.war;
+
+import com.codahale.metrics.MetricRegistry;
+import gov.cms.bfd.server.sharedutils.BfdMDC;
+import gov.cms.bfd.server.war.commons.RequestProfile;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes a finished {@link RequestProfile} to the logging {@link BfdMDC}, so that it lands in
+ * the access log, and to per {@link CanonicalOperation} timers in the {@link MetricRegistry}.
+ * Requests slower than a configurable threshold can optionally have a sample of their full
+ * profiles, including the per task breakdown, written to a dedicated log.
+ */
+public class RequestProfileReporter {
+  /** Name of the servlet context attribute used to hand the reporter to the servlet filter. */
+  public static final String SERVLET_CONTEXT_ATTRIBUTE = RequestProfileReporter.class.getName();
+
+  /** Logger that slow request profiles are written to. */
+  private static final Logger LOGGER_SLOW_REQUEST = LoggerFactory.getLogger("REQUEST_PROFILE");
+
+  /** Used to compute the MDC and metric names. */
+  private static final String PREFIX = "request_profile";
+
+  /** Operation name used when the request did not publish one. */
+  private static final String UNKNOWN_OPERATION = "unknown";
+
+  /** Receives the per operation timers. */
+  private final MetricRegistry metricRegistry;
+
+  /** Requests taking at least this long are eligible for logging, zero or less to disable. */
+  private final long slowRequestMillis;
+
+  /** Fraction of eligible slow requests that are logged. */
+  private final double slowRequestSampleRate;
+
+  /** Source of random numbers used for sampling. */
+  private final DoubleSupplier random;
+
+  /**
+   * Instantiates a new reporter.
+   *
+   * @param metricRegistry receives the per operation timers
+   * @param slowRequestMillis requests taking at least this long are eligible for logging, zero or
+   *     less to disable
+   * @param slowRequestSampleRate fraction (0 to 1) of eligible slow requests that are logged
+   */
+  public RequestProfileReporter(
+      MetricRegistry metricRegistry, long slowRequestMillis, double slowRequestSampleRate) {
+    this(
+        metricRegistry,
+        slowRequestMillis,
+        slowRequestSampleRate,
+        () -> ThreadLocalRandom.current().nextDouble());
+  }
+
+  /**
+   * Instantiates a new reporter. Allows tests to control sampling.
+   *
+   * @param metricRegistry receives the per operation timers
+   * @param slowRequestMillis requests taking at least this long are eligible for logging, zero or
+   *     less to disable
+   * @param slowRequestSampleRate fraction (0 to 1) of eligible slow requests that are logged
+   * @param random source of random numbers between 0 and 1 used for sampling
+   */
+  RequestProfileReporter(
+      MetricRegistry metricRegistry,
+      long slowRequestMillis,
+      double slowRequestSampleRate,
+      DoubleSupplier random) {
+    this.metricRegistry = Objects.requireNonNull(metricRegistry);
+    this.slowRequestMillis = slowRequestMillis;
+    this.slowRequestSampleRate = slowRequestSampleRate;
+    this.random = Objects.requireNonNull(random);
+  }
+
+  /**
+   * Publishes the profile of a finished request. Must be called on the request thread before the
+   * access log entry is written.
+   *
+   * @param profile the profile of the request
+   * @param operation the canonical operation name of the request, may be null
+   * @return true if the profile was written to the slow request log
+   */
+  public boolean report(RequestProfile profile, String operation) {
+    final String operationName = operation == null ? UNKNOWN_OPERATION : operation;
+    final long elapsedNanos = profile.getElapsedNanos();
+    for (RequestProfile.Phase phase : RequestProfile.Phase.values()) {
+      final long nanos = profile.getNanos(phase);
+      BfdMDC.put(
+          BfdMDC.computeMDCKey(PREFIX, phase.getName(), "milliseconds"),
+          Long.toString(RequestProfile.toMillis(nanos)));
+      metricRegistry
+          .timer(MetricRegistry.name(PREFIX, operationName, phase.getName()))
+          .update(nanos, TimeUnit.NANOSECONDS);
+    }
+    BfdMDC.put(BfdMDC.computeMDCKey(PREFIX, "query_count"), Long.toString(profile.getQueryCount()));
+
+    if (slowRequestMillis > 0
+        && RequestProfile.toMillis(elapsedNanos) >= slowRequestMillis
+        && random.getAsDouble() < slowRequestSampleRate) {
+      LOGGER_SLOW_REQUEST.info("slow request {}: {}", operationName, profile.describe());
+      return true;
+    }
+    return false;
+  }
+}
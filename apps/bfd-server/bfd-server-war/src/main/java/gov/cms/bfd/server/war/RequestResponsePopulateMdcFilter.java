@@ -1,6 +1,8 @@
 package gov.cms.bfd.server.war;
 
 import gov.cms.bfd.server.sharedutils.BfdMDC;
+import gov.cms.bfd.server.war.commons.CommonHeaders;
+import gov.cms.bfd.server.war.commons.RequestProfile;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -62,6 +64,19 @@ public class RequestResponsePopulateMdcFilter extends OncePerRequestFilter {
       Pattern.compile(
           "us-mbi\\|[1-9][^SLOIBZsloibz0-9][^SLOIBZsloibz][0-9]-?[^SLOIBZsloibz0-9][^SLOIBZsloibz][0-9]-?[^SLOIBZsloibz0-9][^SLOIBZsloibz0-9][0-9][0-9]");
 
+  /**
+   * Publishes the time breakdown of each request, null if the servlet context did not provide one.
+   */
+  private RequestProfileReporter profileReporter;
+
+  /** {@inheritDoc} */
+  @Override
+  protected void initFilterBean() {
+    profileReporter =
+        (RequestProfileReporter)
+            getServletContext().getAttribute(RequestProfileReporter.SERVLET_CONTEXT_ATTRIBUTE);
+  }
+
   /** {@inheritDoc} */
   @Override
   protected void doFilterInternal(
@@ -73,8 +88,16 @@ public class RequestResponsePopulateMdcFilter extends OncePerRequestFilter {
      * that handler does not fire (say, due to a Jetty defect) clear it now before the request starts.
      */
     BfdMDC.clear();
+    RequestProfile profile = RequestProfile.start();
     ContentCachingRequestWrapper reqWrapper = new ContentCachingRequestWrapper(request);
-    ContentCachingResponseWrapper resWrapper = new ContentCachingResponseWrapper(response);
+    /*
+     * Unbuffered responses are passed straight through so that they are neither buffered in memory
+     * nor forced to carry a Content-Length header; only their size is recorded.
+     */
+    HttpServletResponse resWrapper =
+        "true".equalsIgnoreCase(request.getHeader(CommonHeaders.HEADER_NAME_UNBUFFERED_RESPONSE))
+            ? new ByteCountingResponseWrapper(response)
+            : new ContentCachingResponseWrapper(response);
     // Requests aren't cached until their parameters have been accessed.
     reqWrapper.getParameterMap();
 
@@ -82,7 +105,11 @@ public class RequestResponsePopulateMdcFilter extends OncePerRequestFilter {
     try {
       chain.doFilter(reqWrapper, resWrapper);
       // The original response will not return with its body unless this method is called.
-      resWrapper.copyBodyToResponse();
+      if (resWrapper instanceof ContentCachingResponseWrapper cachingWrapper) {
+        cachingWrapper.copyBodyToResponse();
+      } else {
+        resWrapper.flushBuffer();
+      }
     } catch (EOFException e) {
       /*
        * The EOFException is a checked exception and is expected when the response body's GZIP stream has reached its end.
@@ -98,7 +125,11 @@ public class RequestResponsePopulateMdcFilter extends OncePerRequestFilter {
        */
       LOGGER.debug("Tried closing stream", e);
     } finally {
-      handleResponse(reqWrapper, resWrapper);
+      try {
+        handleResponse(reqWrapper, resWrapper, profile);
+      } finally {
+        RequestProfile.end();
+      }
     }
   }
 
@@ -179,8 +210,10 @@ public class RequestResponsePopulateMdcFilter extends OncePerRequestFilter {
    *     for
    * @param response the {@link HttpServletResponse} to record the standard {@link BfdMDC} entries
    *     for
+   * @param profile the {@link RequestProfile} of the request
    */
-  private void handleResponse(HttpServletRequest request, HttpServletResponse response) {
+  private void handleResponse(
+      HttpServletRequest request, HttpServletResponse response, RequestProfile profile) {
     /*
      * Capture the payload size in MDC. This Jetty specific call is the same one that is used by the
      * CustomRequestLog to write the payload size to the access.log:
@@ -205,8 +238,10 @@ public class RequestResponsePopulateMdcFilter extends OncePerRequestFilter {
               BfdMDC.computeMDCKey(MDC_PREFIX, RESPONSE_PREFIX, "header", headerName),
               headerValues.toString());
       }
-      String contentLength = response.getHeader("Content-Length");
-      Long outputSizeInBytes = Long.valueOf(contentLength);
+      Long outputSizeInBytes =
+          response instanceof ByteCountingResponseWrapper countingWrapper
+              ? countingWrapper.getByteCount()
+              : Long.valueOf(response.getHeader("Content-Length"));
       BfdMDC.put(
           BfdMDC.HTTP_ACCESS_RESPONSE_OUTPUT_SIZE_IN_BYTES, String.valueOf(outputSizeInBytes));
 
@@ -229,6 +264,9 @@ public class RequestResponsePopulateMdcFilter extends OncePerRequestFilter {
       } else {
         BfdMDC.put(BfdMDC.HTTP_ACCESS_RESPONSE_DURATION_PER_KB, null);
       }
+      if (profileReporter != null) {
+        profileReporter.report(profile, BfdMDC.get(BfdMDC.HTTP_ACCESS_REQUEST_OPERATION));
+      }
       LOGGER_HTTP_ACCESS.info("response complete");
     } finally {
       BfdMDC.clear();
@@ -242,7 +280,7 @@ public class RequestResponsePopulateMdcFilter extends OncePerRequestFilter {
    * @return the {@link X500Principal#getName()} for the client certificate, or <code>null</code> if
    *     that's not available
    */
-  private static String getClientSslPrincipalDistinguishedName(HttpServletRequest request) {
+  public static String getClientSslPrincipalDistinguishedName(HttpServletRequest request) {
     /*
      * Note: Now that Wildfly/JBoss is properly configured with a security realm,
      * this method is equivalent to calling `request.getRemoteUser()`.
@@ -80,6 +80,10 @@ public final class ServerInitializer implements WebApplicationInitializer {
         MetricsServlet.METRICS_REGISTRY, springContext.getBean(MetricRegistry.class));
     servletContext.setAttribute(
         HealthCheckServlet.HEALTH_CHECK_REGISTRY, springContext.getBean(HealthCheckRegistry.class));
+    // Allows RequestResponsePopulateMdcFilter (configured in web.xml) to publish request profiles.
+    servletContext.setAttribute(
+        RequestProfileReporter.SERVLET_CONTEXT_ATTRIBUTE,
+        springContext.getBean(RequestProfileReporter.class));
 
     LOGGER.info("Initialized Blue Button API backend server.");
   }
@@ -27,6 +27,14 @@ import com.zaxxer.hikari.HikariDataSource;
 import gov.cms.bfd.data.fda.lookup.FdaDrugCodeDisplayLookup;
 import gov.cms.bfd.data.npi.lookup.NPIOrgLookup;
 import gov.cms.bfd.model.rda.Mbi;
+import gov.cms.bfd.model.rif.entities.Beneficiary;
+import gov.cms.bfd.model.rif.entities.BeneficiaryHistory;
+import gov.cms.bfd.model.rif.entities.BeneficiaryMonthly;
+import gov.cms.bfd.server.war.commons.CaffeineRegionFactory;
+import gov.cms.bfd.server.war.commons.CommonQueries;
+import gov.cms.bfd.server.war.commons.LoadedFilterManager;
+import gov.cms.bfd.server.war.commons.ParallelTransformer;
+import gov.cms.bfd.server.war.r4.providers.R4BulkExportProvider;
 import gov.cms.bfd.server.war.r4.providers.R4CoverageResourceProvider;
 import gov.cms.bfd.server.war.r4.providers.R4ExplanationOfBenefitResourceProvider;
 import gov.cms.bfd.server.war.r4.providers.R4PatientResourceProvider;
@@ -52,6 +60,7 @@ import jakarta.servlet.ServletContext;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -116,9 +125,97 @@ public class SpringConfiguration {
    */
   public static final String SSM_PATH_PAC_CLAIM_SOURCE_TYPES = "pac/claim_source_types";
 
+  /** The {@link String } Boolean property that is used to enable the bulk export operations. */
+  public static final String SSM_PATH_EXPORT_ENABLED = "export/enabled";
+
+  /**
+   * Directory that bulk export job state and output files are written to. Defaults to the temp
+   * directory. Must be shared storage mounted at the same path on every server instance behind the
+   * load balancer so that any instance can answer status and download requests.
+   */
+  public static final String SSM_PATH_EXPORT_DIRECTORY = "export/directory";
+
+  /** Maximum number of bulk export jobs to run at the same time. */
+  public static final String SSM_PATH_EXPORT_THREADS = "export/threads";
+
+  /** Number of beneficiaries loaded and transformed at a time by bulk export jobs. */
+  public static final String SSM_PATH_EXPORT_BATCH_SIZE = "export/batch_size";
+
+  /** Maximum number of resources written to each bulk export output file. */
+  public static final String SSM_PATH_EXPORT_RESOURCES_PER_FILE = "export/resources_per_file";
+
+  /** Maximum number of beneficiaries processed per second across all bulk export jobs. */
+  public static final String SSM_PATH_EXPORT_MAX_BENES_PER_SECOND = "export/max_benes_per_second";
+
+  /** Number of hours that bulk export jobs and their output files are retained. */
+  public static final String SSM_PATH_EXPORT_RETENTION_HOURS = "export/retention_hours";
+
   /** Maximum number of threads to use for executing EOB claim transformers in parallel. */
   public static final String PROP_EXECUTOR_SERVICE_THREADS = "bfdServer.executorService.threads";
 
+  /**
+   * Number of threads used to transform large claim lists in parallel. Zero or less uses the number
+   * of available processors.
+   */
+  public static final String PROP_CLAIM_TRANSFORM_THREADS = "bfdServer.claimTransform.threads";
+
+  /**
+   * Number of claims transformed together by one thread. Claim lists no larger than this are
+   * transformed on the claim task's own thread.
+   */
+  public static final String PROP_CLAIM_TRANSFORM_CHUNK_SIZE = "bfdServer.claimTransform.chunkSize";
+
+  /**
+   * Requests taking at least this many milliseconds have a sample of their profiles logged. Zero
+   * disables slow request logging.
+   */
+  public static final String PROP_SLOW_REQUEST_MILLIS =
+      "bfdServer.requestProfile.slowRequestMillis";
+
+  /** Fraction (0 to 1) of slow requests that have their profiles logged. */
+  public static final String PROP_SLOW_REQUEST_SAMPLE_RATE =
+      "bfdServer.requestProfile.slowRequestSampleRate";
+
+  /**
+   * Enables the in-process Hibernate second-level cache for beneficiary lookups. Entries are
+   * evicted when the pipeline loads new data for a beneficiary.
+   */
+  public static final String PROP_SECOND_LEVEL_CACHE_ENABLED = "bfdServer.secondLevelCache.enabled";
+
+  /** Maximum number of entries held in each region of the second-level cache. */
+  public static final String PROP_SECOND_LEVEL_CACHE_MAX_ENTRIES =
+      "bfdServer.secondLevelCache.maxEntries";
+
+  /** Number of seconds an entry is held in the second-level cache after it is written. */
+  public static final String PROP_SECOND_LEVEL_CACHE_EXPIRE_SECONDS =
+      "bfdServer.secondLevelCache.expireAfterWriteSeconds";
+
+  /**
+   * Comma separated list of JDBC URLs of read replicas of the database. The replicas use the same
+   * credentials and pool size as the primary. When empty every connection goes to the primary.
+   */
+  public static final String SSM_PATH_DATABASE_REPLICA_URLS = "db/replica_urls";
+
+  /** Replicas lagging the primary by more than this many seconds are not used. */
+  public static final String SSM_PATH_DATABASE_REPLICA_MAX_LAG_SECONDS =
+      "db/replica_max_lag_seconds";
+
+  /** Number of seconds between checks of each replica's health and lag. */
+  public static final String SSM_PATH_DATABASE_REPLICA_CHECK_SECONDS = "db/replica_check_seconds";
+
+  /**
+   * Enables reading claims for EOB and PAC queries directly using JDBC and the generated row
+   * mappers rather than through JPA. Off by default.
+   */
+  public static final String PROP_JDBC_CLAIM_READS_ENABLED = "bfdServer.jdbcClaimReads.enabled";
+
+  /**
+   * Local file used to persist the {@link LoadedFilterManager} filters between restarts so that a
+   * new server can use them within seconds of booting. Snapshots are disabled when empty.
+   */
+  public static final String PROP_LOADED_FILTER_SNAPSHOT_PATH =
+      "bfdServer.loadedFilterSnapshot.path";
+
   /** The database transaction timeout value (seconds). */
   public static final int TRANSACTION_TIMEOUT = 30;
 
@@ -134,6 +231,12 @@ public class SpringConfiguration {
    */
   static final String BLUEBUTTON_R4_RESOURCE_PROVIDERS = "bluebuttonR4ResourceProviders";
 
+  /**
+   * The {@link Bean#name()} for the {@link List} of R4 plain provider beans (those that implement
+   * operations not tied to a single resource provider) for the application.
+   */
+  static final String BLUEBUTTON_R4_PLAIN_PROVIDERS = "bluebuttonR4PlainProviders";
+
   /**
    * Set this to {@code true} to have Hibernate log a ton of info on the SQL statements being run
    * and each session's performance. Be sure to also adjust the related logging levels in Wildfly or
@@ -183,65 +286,122 @@ public class SpringConfiguration {
   }
 
   /**
-   * Creates a factory to create {@link DataSource}s.
+   * Creates the options used to connect to the database.
    *
    * @param authTypeName whether to use RDS or JDBC authentication
    * @param url the JDBC URL of the database for the application
    * @param username the database username to use
    * @param password the database password to use
    * @param connectionsMaxText the maximum number of database connections to use
-   * @param awsClientConfig common AWS settings
-   * @return the factory
+   * @return the options
    */
   @Bean
-  public DataSourceFactory dataSourceFactory(
+  public DatabaseOptions databaseOptions(
       @Value("${" + SSM_PATH_DATABASE_AUTH_TYPE + ":JDBC}") String authTypeName,
       @Value("${" + SSM_PATH_DATABASE_URL + "}") String url,
       @Value("${" + SSM_PATH_DATABASE_USERNAME + "}") String username,
       @Value("${" + SSM_PATH_DATABASE_PASSWORD + ":}") String password,
-      @Value("${" + SSM_PATH_DATABASE_MAX_POOL_SIZE + ":-1}") String connectionsMaxText,
-      AwsClientConfig awsClientConfig) {
+      @Value("${" + SSM_PATH_DATABASE_MAX_POOL_SIZE + ":-1}") String connectionsMaxText) {
     final var authType = DatabaseOptions.AuthenticationType.valueOf(authTypeName);
     final int maxPoolSize = DatabaseUtils.computeMaximumPoolSize(connectionsMaxText);
-    final var databaseOptions =
-        DatabaseOptions.builder()
-            .authenticationType(authType)
-            .databaseUrl(url)
-            .databaseUsername(username)
-            .databasePassword(password)
-            .maxPoolSize(maxPoolSize)
-            .build();
-    if (databaseOptions.getAuthenticationType() == DatabaseOptions.AuthenticationType.RDS) {
-      return RdsDataSourceFactory.builder()
-          .awsClientConfig(awsClientConfig)
-          .databaseOptions(databaseOptions)
-          .build();
-    } else {
-      return new HikariDataSourceFactory(databaseOptions);
-    }
+    return DatabaseOptions.builder()
+        .authenticationType(authType)
+        .databaseUrl(url)
+        .databaseUsername(username)
+        .databasePassword(password)
+        .maxPoolSize(maxPoolSize)
+        .build();
   }
 
   /**
-   * Creates the application's database connection pool using a factory.
+   * Creates a factory to create {@link DataSource}s for the primary database.
    *
-   * @param dataSourceFactory factory used to create {@link DataSource}s
+   * @param databaseOptions the options used to connect to the database
+   * @param awsClientConfig common AWS settings
+   * @return the factory
+   */
+  @Bean
+  public DataSourceFactory dataSourceFactory(
+      DatabaseOptions databaseOptions, AwsClientConfig awsClientConfig) {
+    return createDataSourceFactory(databaseOptions, awsClientConfig);
+  }
+
+  /**
+   * Creates the application's database connection pool using a factory. When read replicas are
+   * configured connections are routed across them by a {@link ReplicaRoutingDataSource}.
+   *
+   * @param dataSourceFactory factory used to create {@link DataSource}s for the primary database
+   * @param databaseOptions the options used to connect to the primary database
+   * @param awsClientConfig common AWS settings
+   * @param replicaUrls comma separated JDBC URLs of the read replicas, may be empty
+   * @param replicaMaxLagSeconds replicas lagging the primary by more than this are not used
+   * @param replicaCheckSeconds number of seconds between replica checks
    * @param metricRegistry the {@link MetricRegistry} for the application
    * @return the {@link DataSource} that provides the application's database connection
    */
   @Bean(destroyMethod = "close")
-  public DataSource dataSource(DataSourceFactory dataSourceFactory, MetricRegistry metricRegistry) {
+  public DataSource dataSource(
+      DataSourceFactory dataSourceFactory,
+      DatabaseOptions databaseOptions,
+      AwsClientConfig awsClientConfig,
+      @Value("${" + SSM_PATH_DATABASE_REPLICA_URLS + ":}") String replicaUrls,
+      @Value("${" + SSM_PATH_DATABASE_REPLICA_MAX_LAG_SECONDS + ":30}") Long replicaMaxLagSeconds,
+      @Value("${" + SSM_PATH_DATABASE_REPLICA_CHECK_SECONDS + ":5}") Long replicaCheckSeconds,
+      MetricRegistry metricRegistry) {
 
     HikariDataSource pooledDataSource = dataSourceFactory.createDataSource();
     DatabaseUtils.configureDataSource(pooledDataSource, metricRegistry);
 
+    DataSource routedDataSource = pooledDataSource;
+    List<HikariDataSource> replicaDataSources = new ArrayList<>();
+    for (String replicaUrl : Strings.nullToEmpty(replicaUrls).split(",")) {
+      if (!replicaUrl.isBlank()) {
+        HikariDataSource replicaDataSource =
+            createDataSourceFactory(
+                    databaseOptions.toBuilder().databaseUrl(replicaUrl.trim()).build(),
+                    awsClientConfig)
+                .createDataSource();
+        replicaDataSource.setPoolName("bfd-replica-" + (replicaDataSources.size() + 1));
+        DatabaseUtils.configureDataSource(replicaDataSource, metricRegistry);
+        replicaDataSources.add(replicaDataSource);
+      }
+    }
+    if (!replicaDataSources.isEmpty()) {
+      routedDataSource =
+          new ReplicaRoutingDataSource(
+              pooledDataSource,
+              replicaDataSources,
+              Duration.ofSeconds(replicaMaxLagSeconds),
+              Duration.ofSeconds(replicaCheckSeconds));
+    }
+
     // Wrap the pooled DataSource in a proxy that records performance data.
-    return ProxyDataSourceBuilder.create(pooledDataSource)
+    return ProxyDataSourceBuilder.create(routedDataSource)
         .name("BFD-Data")
         .listener(new QueryLoggingListener())
         .proxyResultSet()
         .build();
   }
 
+  /**
+   * Creates a factory to create {@link DataSource}s.
+   *
+   * @param databaseOptions the options used to connect to the database
+   * @param awsClientConfig common AWS settings
+   * @return the factory
+   */
+  private static DataSourceFactory createDataSourceFactory(
+      DatabaseOptions databaseOptions, AwsClientConfig awsClientConfig) {
+    if (databaseOptions.getAuthenticationType() == DatabaseOptions.AuthenticationType.RDS) {
+      return RdsDataSourceFactory.builder()
+          .awsClientConfig(awsClientConfig)
+          .databaseOptions(databaseOptions)
+          .build();
+    } else {
+      return new HikariDataSourceFactory(databaseOptions);
+    }
+  }
+
   /**
    * Creates the transaction manager for the application from a factory.
    *
@@ -259,17 +419,31 @@ public class SpringConfiguration {
    * Creates the entity manager factory from a datasource.
    *
    * @param dataSource the {@link DataSource} for the application
+   * @param secondLevelCacheEnabled whether to enable the second-level cache
+   * @param secondLevelCacheMaxEntries maximum number of entries in each cache region
+   * @param secondLevelCacheExpireSeconds seconds an entry is held in the cache
    * @return the {@link LocalContainerEntityManagerFactoryBean}, which ensures that other beans can
    *     safely request injection of {@link EntityManager} instances
    */
   @Bean
-  public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+  public LocalContainerEntityManagerFactoryBean entityManagerFactory(
+      DataSource dataSource,
+      @Value("${" + PROP_SECOND_LEVEL_CACHE_ENABLED + ":false}") Boolean secondLevelCacheEnabled,
+      @Value("${" + PROP_SECOND_LEVEL_CACHE_MAX_ENTRIES + ":10000}")
+          Integer secondLevelCacheMaxEntries,
+      @Value("${" + PROP_SECOND_LEVEL_CACHE_EXPIRE_SECONDS + ":3600}")
+          Integer secondLevelCacheExpireSeconds) {
     LocalContainerEntityManagerFactoryBean containerEmfBean =
         new LocalContainerEntityManagerFactoryBean();
     containerEmfBean.setDataSource(dataSource);
     containerEmfBean.setPackagesToScan("gov.cms.bfd.model");
     containerEmfBean.setPersistenceProvider(new HibernatePersistenceProvider());
-    containerEmfBean.setJpaProperties(jpaProperties());
+    Properties jpaProperties = jpaProperties();
+    if (secondLevelCacheEnabled) {
+      jpaProperties.putAll(
+          secondLevelCacheProperties(secondLevelCacheMaxEntries, secondLevelCacheExpireSeconds));
+    }
+    containerEmfBean.setJpaProperties(jpaProperties);
     containerEmfBean.afterPropertiesSet();
     return containerEmfBean;
   }
@@ -320,6 +494,33 @@ public class SpringConfiguration {
     return extraProperties;
   }
 
+  /**
+   * Creates the {@link Properties} that enable the Hibernate second-level cache. Only data that the
+   * server never writes and the pipeline rarely changes is cached: {@link Beneficiary} entities and
+   * the results of the beneficiary lookups by id that back the Coverage and Patient reads (see
+   * {@link CommonQueries#BENEFICIARY_QUERY_CACHE_REGION}). The query results hold the fetched
+   * {@link BeneficiaryMonthly} and {@link BeneficiaryHistory} rows. Those are not cached as
+   * entities since their cache keys cannot be derived from the beneficiary ids that {@link
+   * LoadedFilterManager} evicts.
+   *
+   * @param maxEntries maximum number of entries in each cache region
+   * @param expireSeconds seconds an entry is held in the cache
+   * @return the second-level cache properties
+   */
+  private static Properties secondLevelCacheProperties(int maxEntries, int expireSeconds) {
+    Properties cacheProperties = new Properties();
+    cacheProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+    cacheProperties.put(AvailableSettings.USE_QUERY_CACHE, "true");
+    cacheProperties.put(
+        AvailableSettings.CACHE_REGION_FACTORY, CaffeineRegionFactory.class.getName());
+    cacheProperties.put(CaffeineRegionFactory.MAX_ENTRIES, Integer.toString(maxEntries));
+    cacheProperties.put(
+        CaffeineRegionFactory.EXPIRE_AFTER_WRITE_SECONDS, Integer.toString(expireSeconds));
+    cacheProperties.put(
+        AvailableSettings.CLASS_CACHE_PREFIX + "." + Beneficiary.class.getName(), "read-only");
+    return cacheProperties;
+  }
+
   /**
    * Creates a Spring {@link BeanPostProcessor} that enables the use of the JPA {@link
    * PersistenceUnit} and {@link PersistenceContext} annotations for injection of {@link
@@ -399,6 +600,25 @@ public class SpringConfiguration {
     return r4ResourceProviders;
   }
 
+  /**
+   * Creates a new r4 plain provider list.
+   *
+   * @param r4BulkExportProvider the r4 bulk export provider
+   * @param exportEnabled Determines if the bulk export operations should be accessible via the fhir
+   *     api service.
+   * @return the {@link List} of R4 plain provider beans for the application
+   */
+  @Bean(name = BLUEBUTTON_R4_PLAIN_PROVIDERS)
+  public List<Object> r4PlainProviders(
+      R4BulkExportProvider r4BulkExportProvider,
+      @Value("${" + SSM_PATH_EXPORT_ENABLED + ":false}") Boolean exportEnabled) {
+    List<Object> r4PlainProviders = new ArrayList<>();
+    if (exportEnabled) {
+      r4PlainProviders.add(r4BulkExportProvider);
+    }
+    return r4PlainProviders;
+  }
+
   /**
    * Creates a {@link MetricRegistry} for the application, which can be used to collect statistics
    * on the application's performance.
@@ -456,6 +676,24 @@ public class SpringConfiguration {
     return metricRegistry;
   }
 
+  /**
+   * Creates the {@link RequestProfileReporter} used to publish the time breakdown of each request
+   * to the access log and the {@link MetricRegistry}.
+   *
+   * @param metricRegistry the metric registry
+   * @param slowRequestMillis requests taking at least this long have their profiles logged, zero to
+   *     disable
+   * @param slowRequestSampleRate fraction of slow requests that have their profiles logged
+   * @return the reporter
+   */
+  @Bean
+  public RequestProfileReporter requestProfileReporter(
+      MetricRegistry metricRegistry,
+      @Value("${" + PROP_SLOW_REQUEST_MILLIS + ":0}") Long slowRequestMillis,
+      @Value("${" + PROP_SLOW_REQUEST_SAMPLE_RATE + ":1.0}") Double slowRequestSampleRate) {
+    return new RequestProfileReporter(metricRegistry, slowRequestMillis, slowRequestSampleRate);
+  }
+
   /**
    * Creates the {@link HealthCheckRegistry} for the application, which collects any/all health
    * checks that it provides.
@@ -545,4 +783,21 @@ public class SpringConfiguration {
           return t;
         });
   }
+
+  /**
+   * This bean provides a {@link ParallelTransformer} that lets EOB claim tasks with large claim
+   * lists transform them in parallel chunks. Transforming is CPU bound so it runs on its own pool
+   * sized to the processors rather than on the {@link #executorService} threads, which mostly wait
+   * on the database.
+   *
+   * @param threadCount number of pool threads, zero or less for the number of processors
+   * @param chunkSize number of claims transformed together by one thread
+   * @return the {@link ParallelTransformer} for the application
+   */
+  @Bean
+  public ParallelTransformer parallelTransformer(
+      @Value("${" + PROP_CLAIM_TRANSFORM_THREADS + ":0}") Integer threadCount,
+      @Value("${" + PROP_CLAIM_TRANSFORM_CHUNK_SIZE + ":500}") Integer chunkSize) {
+    return new ParallelTransformer(threadCount, chunkSize);
+  }
 }
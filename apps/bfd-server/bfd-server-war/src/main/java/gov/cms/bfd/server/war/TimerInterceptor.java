@@ -4,12 +4,16 @@ import ca.uhn.fhir.interceptor.api.Hook;
 import ca.uhn.fhir.interceptor.api.Interceptor;
 import ca.uhn.fhir.interceptor.api.Pointcut;
 import gov.cms.bfd.server.sharedutils.BfdMDC;
+import gov.cms.bfd.server.war.commons.RequestProfile;
 
 /**
  * With the use of HAPI's pointcut and interceptors, time metrics at various instances i.e.
  * Pre-handling and outgoing response in the BFD API call lifecycle can be generated and logged
  * {@link BfdMDC}. For more info on server pointcuts:
  * https://hapifhir.io/hapi-fhir/docs/interceptors/server_pointcuts.html
+ *
+ * <p>The time between the outgoing response and the completion of processing is also added to the
+ * serialization phase of the request's {@link RequestProfile}.
  */
 @Interceptor
 public class TimerInterceptor {
@@ -48,6 +52,7 @@ public class TimerInterceptor {
     // log current instance to MDC
     Long currentTime = System.currentTimeMillis();
     BfdMDC.put("hapi.server_outgoing_response_timestamp_in_millis", Long.toString(currentTime));
+    RequestProfile.current().ifPresent(RequestProfile::beginSerialization);
   }
 
   /** Pointcut to log timestamp in milliseconds when a request has completed processing normally. */
@@ -66,5 +71,6 @@ public class TimerInterceptor {
     // log current instance to MDC
     Long currentTime = System.currentTimeMillis();
     BfdMDC.put("hapi.server_processing_completed_timestamp_in_millis", Long.toString(currentTime));
+    RequestProfile.current().ifPresent(RequestProfile::endSerialization);
   }
 }
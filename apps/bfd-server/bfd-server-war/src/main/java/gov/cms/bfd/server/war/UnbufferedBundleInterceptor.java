@@ -0,0 +1,190 @@
+package gov.cms.bfd.server.war;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.api.EncodingEnum;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.api.server.ResponseDetails;
+import ca.uhn.fhir.rest.server.RestfulServerUtils;
+import ca.uhn.fhir.util.DateUtils;
+import com.google.common.annotations.VisibleForTesting;
+import gov.cms.bfd.server.war.commons.CommonHeaders;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+
+/**
+ * Opt-in alternative to HAPI's normal serialization of search result {@link Bundle}s. When a client
+ * sends the {@link CommonHeaders#HEADER_NAME_UNBUFFERED_RESPONSE} header with a value of {@code
+ * true} the bundle is encoded directly to the response one entry at a time and each entry is
+ * released once it has been written. Combined with {@link RequestResponsePopulateMdcFilter}
+ * skipping its response body cache for such requests this keeps large responses (for example
+ * unpaged EOB searches for heavy beneficiaries) from also being held in memory as encoded JSON, and
+ * lets the container send them using chunked transfer encoding.
+ *
+ * <p>This only changes how a finished bundle is encoded. The resource providers still build and
+ * transform the complete bundle in memory before this interceptor runs, so the first byte is not
+ * sent any sooner and the memory used by the resources themselves is unchanged.
+ *
+ * <p>The bundle's {@code total}, {@code link}, and {@code meta} are encoded exactly as HAPI would
+ * encode them. Requests that use pretty printing, {@code _summary}, {@code _elements}, or a non
+ * JSON encoding, and bundles whose entries contain more than a resource, fall back to HAPI's normal
+ * handling.
+ */
+@Interceptor
+public class UnbufferedBundleInterceptor {
+  /**
+   * Value of the {@link CommonHeaders#HEADER_NAME_UNBUFFERED_RESPONSE} header that enables this
+   * interceptor.
+   */
+  private static final String UNBUFFERED_RESPONSE_ENABLED = "true";
+
+  /** Text written between the bundle's other elements and its first entry. */
+  private static final String ENTRY_ARRAY_START = ",\"entry\":[";
+
+  /** Text written before each entry's resource. */
+  private static final String ENTRY_START = "{\"resource\":";
+
+  /**
+   * Writes the response ourselves when the client has opted in and the response is a bundle that we
+   * know how to write one entry at a time.
+   *
+   * @param requestDetails the request details
+   * @param responseDetails the response details containing the bundle
+   * @return false if we wrote the response and HAPI should not, true otherwise
+   * @throws IOException if the response could not be written
+   */
+  @Hook(Pointcut.SERVER_OUTGOING_RESPONSE)
+  public boolean serverOutgoingResponse(
+      RequestDetails requestDetails, ResponseDetails responseDetails) throws IOException {
+    if (!isUnbufferedResponseRequested(requestDetails)
+        || responseDetails.getResponseCode() != Constants.STATUS_HTTP_200_OK
+        || !(responseDetails.getResponseResource() instanceof Bundle bundle)
+        || !isWritableByEntry(requestDetails, bundle)) {
+      return true;
+    }
+
+    final FhirContext fhirContext = requestDetails.getFhirContext();
+    final IParser parser =
+        RestfulServerUtils.getNewParser(
+            fhirContext, fhirContext.getVersion().getVersion(), requestDetails);
+    final String contentType =
+        RestfulServerUtils.determineResponseEncodingWithDefault(requestDetails)
+            .getResourceContentType();
+    if (bundle.getMeta().getLastUpdated() != null) {
+      requestDetails
+          .getResponse()
+          .addHeader(
+              Constants.HEADER_LAST_MODIFIED,
+              DateUtils.formatDate(bundle.getMeta().getLastUpdated()));
+    }
+    final Writer writer =
+        requestDetails
+            .getResponse()
+            .getResponseWriter(
+                responseDetails.getResponseCode(),
+                contentType,
+                Constants.CHARSET_NAME_UTF8,
+                requestDetails.isRespondGzip());
+    writeBundle(parser, bundle, writer);
+    requestDetails.getResponse().commitResponse(writer);
+    return false;
+  }
+
+  /**
+   * Writes the bundle as JSON. The bundle's entries are detached before the remaining elements are
+   * encoded and each entry's resource is encoded and then released in turn, so that the memory used
+   * by already written resources can be reclaimed while later ones are still being written. The
+   * output is identical to {@link IParser#encodeResourceToWriter} for the same bundle.
+   *
+   * @param parser the JSON parser to use, must not have pretty printing enabled
+   * @param bundle the bundle to write, will be left with no entries
+   * @param writer receives the JSON
+   * @throws IOException if writing fails
+   */
+  @VisibleForTesting
+  static void writeBundle(IParser parser, Bundle bundle, Writer writer) throws IOException {
+    final List<BundleEntryComponent> entries = new ArrayList<>(bundle.getEntry());
+    bundle.setEntry(new ArrayList<>());
+    final String envelope = parser.encodeResourceToString(bundle);
+    if (entries.isEmpty()) {
+      writer.write(envelope);
+      return;
+    }
+
+    // The envelope always contains at least resourceType, and HAPI always writes entry after every
+    // element we might have (signature is the only later element and is rejected by
+    // isWritableByEntry).
+    writer.write(envelope, 0, envelope.length() - 1);
+    writer.write(ENTRY_ARRAY_START);
+    for (int i = 0; i < entries.size(); ++i) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      writer.write(ENTRY_START);
+      parser.encodeResourceToWriter(entries.get(i).getResource(), writer);
+      writer.write('}');
+      entries.set(i, null);
+    }
+    writer.write("]}");
+  }
+
+  /**
+   * Determines if the client has asked for an unbuffered response.
+   *
+   * @param requestDetails the request details
+   * @return true if an unbuffered response was requested
+   */
+  static boolean isUnbufferedResponseRequested(RequestDetails requestDetails) {
+    return UNBUFFERED_RESPONSE_ENABLED.equalsIgnoreCase(
+        requestDetails.getHeader(CommonHeaders.HEADER_NAME_UNBUFFERED_RESPONSE));
+  }
+
+  /**
+   * Determines if the response can be written one entry at a time without changing its content.
+   * Only compact JSON responses without summary or element filtering, and bundles whose entries
+   * contain nothing but a resource, are supported.
+   *
+   * @param requestDetails the request details
+   * @param bundle the bundle to be written
+   * @return true if the bundle can be written one entry at a time
+   */
+  private static boolean isWritableByEntry(RequestDetails requestDetails, Bundle bundle) {
+    if (RestfulServerUtils.determineResponseEncodingWithDefault(requestDetails).getEncoding()
+            != EncodingEnum.JSON
+        || RestfulServerUtils.prettyPrintResponse(requestDetails.getServer(), requestDetails)) {
+      return false;
+    }
+    final Set<?> summaryMode = RestfulServerUtils.determineSummaryMode(requestDetails);
+    if (summaryMode != null && !summaryMode.isEmpty()) {
+      return false;
+    }
+    if (requestDetails.getParameters().keySet().stream()
+        .anyMatch(name -> name.startsWith(Constants.PARAM_ELEMENTS))) {
+      return false;
+    }
+    if (bundle.hasSignature()) {
+      return false;
+    }
+    return bundle.getEntry().stream()
+        .allMatch(
+            e ->
+                e.hasResource()
+                    && !e.hasFullUrl()
+                    && !e.hasLink()
+                    && !e.hasSearch()
+                    && !e.hasRequest()
+                    && !e.hasResponse()
+                    && !e.hasId()
+                    && !e.hasExtension()
+                    && !e.hasModifierExtension());
+  }
+}
@@ -101,7 +101,9 @@ public class V2Server extends RestfulServer {
      * support for non-resource-type methods, such as transaction, and
      * global history.
      */
-    List<Object> plainProviders = new ArrayList<>();
+    List<Object> plainProviders =
+        new ArrayList<>(
+            springContext.getBean(SpringConfiguration.BLUEBUTTON_R4_PLAIN_PROVIDERS, List.class));
     // TODO: Refactor to use registerProviders. The current method is deprecated.
     setPlainProviders(plainProviders);
 
@@ -126,6 +128,9 @@ public class V2Server extends RestfulServer {
     // executed
     registerInterceptor(new TimerInterceptor());
 
+    // Writes search result bundles without buffering the body for clients that ask for it
+    registerInterceptor(new UnbufferedBundleInterceptor());
+
     // OpenAPI
     OpenApiInterceptor openApiInterceptor = new OpenApiInterceptor();
     registerInterceptor(openApiInterceptor);
@@ -0,0 +1,157 @@
+package gov.cms.bfd.server.war.commons;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Map;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * A Hibernate second-level cache {@link org.hibernate.cache.spi.RegionFactory} that keeps each
+ * region in a bounded, in-process {@link Caffeine} cache. Entity, collection and query result
+ * regions hold at most {@link #MAX_ENTRIES} entries each and expire them {@link
+ * #EXPIRE_AFTER_WRITE_SECONDS} after they were written, which bounds how stale an entry can get if
+ * an eviction is missed. The update timestamps region is never bounded since Hibernate relies on it
+ * to decide whether cached query results are still valid.
+ *
+ * <p>The cached data is only written by the pipeline, so callers are responsible for evicting it
+ * when new data is loaded. See {@link LoadedFilterManager}.
+ */
+public class CaffeineRegionFactory extends RegionFactoryTemplate {
+  /** Hibernate setting for the maximum number of entries held in each region. */
+  public static final String MAX_ENTRIES = "bfd.cache.max_entries";
+
+  /** Hibernate setting for the number of seconds an entry is held after it is written. */
+  public static final String EXPIRE_AFTER_WRITE_SECONDS = "bfd.cache.expire_after_write_seconds";
+
+  /** Default for {@link #MAX_ENTRIES}. */
+  private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+  /** Default for {@link #EXPIRE_AFTER_WRITE_SECONDS}. */
+  private static final int DEFAULT_EXPIRE_AFTER_WRITE_SECONDS = 3_600;
+
+  /** Maximum number of entries held in each bounded region. */
+  private int maxEntries;
+
+  /** How long entries are held in each bounded region after they are written. */
+  private Duration expireAfterWrite;
+
+  /** {@inheritDoc} */
+  @Override
+  protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+    maxEntries = getSetting(configValues, MAX_ENTRIES, DEFAULT_MAX_ENTRIES);
+    expireAfterWrite =
+        Duration.ofSeconds(
+            getSetting(
+                configValues, EXPIRE_AFTER_WRITE_SECONDS, DEFAULT_EXPIRE_AFTER_WRITE_SECONDS));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void releaseFromUse() {
+    // Nothing to release, each region's storage is released with the region.
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected DomainDataStorageAccess createDomainDataStorageAccess(
+      DomainDataRegionConfig regionConfig, DomainDataRegionBuildingContext buildingContext) {
+    return new CaffeineStorageAccess(boundedCache());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected StorageAccess createQueryResultsRegionStorageAccess(
+      String regionName, SessionFactoryImplementor sessionFactory) {
+    return new CaffeineStorageAccess(boundedCache());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected StorageAccess createTimestampsRegionStorageAccess(
+      String regionName, SessionFactoryImplementor sessionFactory) {
+    return new CaffeineStorageAccess(Caffeine.newBuilder().build());
+  }
+
+  /**
+   * Reads an integer setting from the Hibernate configuration.
+   *
+   * @param configValues the Hibernate configuration
+   * @param name the name of the setting
+   * @param defaultValue the value to use if the setting is absent
+   * @return the value of the setting
+   */
+  private static int getSetting(Map<String, Object> configValues, String name, int defaultValue) {
+    final Object value = configValues.get(name);
+    return value == null ? defaultValue : StandardConverters.asInteger(value);
+  }
+
+  /**
+   * Creates the cache backing an entity, collection or query results region.
+   *
+   * @return the cache
+   */
+  private Cache<Object, Object> boundedCache() {
+    return Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(expireAfterWrite).build();
+  }
+
+  /** {@link DomainDataStorageAccess} backed by a {@link Cache}. */
+  static class CaffeineStorageAccess implements DomainDataStorageAccess {
+    /** Holds the region's entries. */
+    private final Cache<Object, Object> cache;
+
+    /**
+     * Instantiates a new storage access.
+     *
+     * @param cache holds the region's entries
+     */
+    CaffeineStorageAccess(Cache<Object, Object> cache) {
+      this.cache = cache;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+      return cache.getIfPresent(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+      cache.put(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contains(Object key) {
+      return cache.getIfPresent(key) != null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void evictData() {
+      cache.invalidateAll();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void evictData(Object key) {
+      cache.invalidate(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void release() {
+      cache.invalidateAll();
+      cache.cleanUp();
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package gov.cms.bfd.server.war.commons;
+
+import ca.uhn.fhir.rest.param.DateRangeParam;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import lombok.Value;
+
+/**
+ * Summary of the claims of a single {@link ClaimType} for a beneficiary as returned by the
+ * ccw.check_claims_availability database function. Allows a claim type to be skipped when none of
+ * its claims can match a request's filters, and result lists to be sized before claims are loaded.
+ */
+@Value
+public class ClaimAvailability {
+  /** The claim type. */
+  ClaimType claimType;
+
+  /** Number of claims of this type for the beneficiary. */
+  long count;
+
+  /** Most recent last updated time of the claims, null if none have one. */
+  Instant maxLastUpdated;
+
+  /** Earliest service end date of the claims. */
+  LocalDate minServiceEndDate;
+
+  /** Latest service end date of the claims. */
+  LocalDate maxServiceEndDate;
+
+  /**
+   * Determines if any claim of this type could match the _lastUpdated filter. Only the lower bound
+   * is considered since claims without a last updated time match a range with only an upper bound.
+   *
+   * @param lastUpdated optional _lastUpdated range
+   * @return false if no claim of this type can match, true if some might
+   */
+  public boolean mayMatchLastUpdated(Optional<DateRangeParam> lastUpdated) {
+    if (lastUpdated.isEmpty() || lastUpdated.get().getLowerBound() == null) {
+      return true;
+    }
+    return maxLastUpdated != null
+        && QueryUtils.isInRange(
+            maxLastUpdated, new DateRangeParam(lastUpdated.get().getLowerBound(), null));
+  }
+}
@@ -0,0 +1,302 @@
+package gov.cms.bfd.server.war.commons;
+
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import lombok.Value;
+import org.apache.http.client.utils.URIBuilder;
+
+/**
+ * A link builder for claim searches using opaque keyset cursors rather than start indexes. Claims
+ * are ordered by claim id and then by {@link ClaimType}, and the cursor identifies the last claim
+ * of the previous page. Each per claim type query can then start right after the cursor and stop
+ * once it has a page worth of claims, so the cost of a page does not depend on how deep into the
+ * results it is.
+ *
+ * <p>Clients opt in by including the {@link #PARAM_CURSOR} parameter, with an empty value for the
+ * first page. The next link then carries the cursor for the following page.
+ */
+public final class ClaimCursorLinkBuilder implements LinkBuilder {
+  /** Represents the text for the cursor parameter. */
+  public static final String PARAM_CURSOR = "cursor";
+
+  /** Page size used when the request does not specify one. */
+  private static final int DEFAULT_PAGE_SIZE = 10;
+
+  /**
+   * Maximum page size is one less than the maximum integer value so that one more than the page
+   * size can be requested from each query to see if another page is needed.
+   */
+  public static final int MAX_PAGE_SIZE = Integer.MAX_VALUE - 1;
+
+  /** The page size. */
+  private final int pageSize;
+
+  /** The cursor from the request, empty for the first page. */
+  private final Optional<Cursor> cursor;
+
+  /** The server url base. */
+  private final String serverBase;
+
+  /** The resource to use with the base url. */
+  private final String resource;
+
+  /** The request details. */
+  private final RequestDetails requestDetails;
+
+  /** The cursor for the next page, empty if there is no next page. */
+  private Optional<Cursor> nextCursor = Optional.empty();
+
+  /**
+   * Instantiates a new claim cursor link builder.
+   *
+   * @param requestDetails the request details
+   * @param resource the resource
+   * @throws InvalidRequestException (http 400 error) if the paging parameters are invalid
+   */
+  public ClaimCursorLinkBuilder(RequestDetails requestDetails, String resource) {
+    this.requestDetails = requestDetails;
+    this.serverBase = requestDetails.getServerBaseForRequest();
+    this.resource = resource;
+    this.pageSize = parsePageSize(requestDetails);
+    this.cursor = Cursor.decode(getFirstParameter(requestDetails, PARAM_CURSOR));
+    if (requestDetails.getParameters().containsKey("startIndex")) {
+      throw new InvalidRequestException(
+          "startIndex cannot be combined with " + PARAM_CURSOR + " paging");
+    }
+  }
+
+  /**
+   * Determines if the client has asked for cursor based paging.
+   *
+   * @param requestDetails the request details
+   * @return true if the request contains the cursor parameter
+   */
+  public static boolean isCursorRequested(RequestDetails requestDetails) {
+    return requestDetails.getParameters().containsKey(PARAM_CURSOR);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isPagingRequested() {
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isFirstPage() {
+    return cursor.isEmpty();
+  }
+
+  /**
+   * Gets the cursor from the request.
+   *
+   * @return the cursor, empty for the first page
+   */
+  public Optional<Cursor> getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Get the value that should be passed as the max size for each query. One more than the page size
+   * so that the presence of another page can be detected.
+   *
+   * @return the query max size
+   */
+  public int getQueryMaxSize() {
+    return pageSize + 1;
+  }
+
+  /**
+   * Sets the cursor that the next link should use. Called once the page has been assembled with the
+   * key of its last claim, only when more claims remain.
+   *
+   * @param nextCursor the cursor for the next page
+   */
+  public void setNextCursor(Cursor nextCursor) {
+    this.nextCursor = Optional.of(nextCursor);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void addLinks(org.hl7.fhir.dstu3.model.Bundle to) {
+    to.addLink(
+        new org.hl7.fhir.dstu3.model.Bundle.BundleLinkComponent()
+            .setRelation(Constants.LINK_SELF)
+            .setUrl(createPageLink(cursor)));
+    to.addLink(
+        new org.hl7.fhir.dstu3.model.Bundle.BundleLinkComponent()
+            .setRelation(Constants.LINK_FIRST)
+            .setUrl(createPageLink(Optional.empty())));
+    if (nextCursor.isPresent()) {
+      to.addLink(
+          new org.hl7.fhir.dstu3.model.Bundle.BundleLinkComponent()
+              .setRelation(Constants.LINK_NEXT)
+              .setUrl(createPageLink(nextCursor)));
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void addLinks(org.hl7.fhir.r4.model.Bundle to) {
+    to.addLink(
+        new org.hl7.fhir.r4.model.Bundle.BundleLinkComponent()
+            .setRelation(Constants.LINK_SELF)
+            .setUrl(createPageLink(cursor)));
+    to.addLink(
+        new org.hl7.fhir.r4.model.Bundle.BundleLinkComponent()
+            .setRelation(Constants.LINK_FIRST)
+            .setUrl(createPageLink(Optional.empty())));
+    if (nextCursor.isPresent()) {
+      to.addLink(
+          new org.hl7.fhir.r4.model.Bundle.BundleLinkComponent()
+              .setRelation(Constants.LINK_NEXT)
+              .setUrl(createPageLink(nextCursor)));
+    }
+  }
+
+  /**
+   * Build the link string.
+   *
+   * @param pageCursor the cursor for the page, empty for the first page
+   * @return the link requested
+   */
+  private String createPageLink(Optional<Cursor> pageCursor) {
+    // Get a copy of all request parameters.
+    Map<String, String[]> params = new HashMap<>(requestDetails.getParameters());
+
+    // Add in paging related changes.
+    params.put(PARAM_CURSOR, new String[] {pageCursor.map(Cursor::encode).orElse("")});
+    params.put(Constants.PARAM_COUNT, new String[] {String.valueOf(pageSize)});
+
+    try {
+      URIBuilder uri = new URIBuilder(serverBase + resource);
+      for (Map.Entry<String, String[]> paramSet : params.entrySet()) {
+        for (String param : paramSet.getValue()) {
+          uri.addParameter(paramSet.getKey(), param);
+        }
+      }
+      return uri.build().toString();
+    } catch (URISyntaxException e) {
+      throw new InvalidRequestException(
+          "Issue creating URI link for paging due to query parameters or values.", e);
+    }
+  }
+
+  /**
+   * Parses and validates the page size.
+   *
+   * @param requestDetails the request details
+   * @return the page size
+   * @throws InvalidRequestException (http 400 error) if the page size is invalid
+   */
+  private static int parsePageSize(RequestDetails requestDetails) {
+    final String countText = getFirstParameter(requestDetails, Constants.PARAM_COUNT);
+    if (countText == null) {
+      return DEFAULT_PAGE_SIZE;
+    }
+    final int count;
+    try {
+      count = Integer.parseInt(countText);
+    } catch (NumberFormatException ex) {
+      throw new InvalidRequestException(
+          String.format(
+              "Invalid argument in request URL: %s must be a number.", Constants.PARAM_COUNT));
+    }
+    if (count <= 0) {
+      throw new InvalidRequestException("Value for pageSize cannot be zero or negative: " + count);
+    }
+    if (count > MAX_PAGE_SIZE) {
+      throw new InvalidRequestException("Page size must be less than " + MAX_PAGE_SIZE);
+    }
+    return count;
+  }
+
+  /**
+   * Gets the first value of a request parameter.
+   *
+   * @param requestDetails the request details
+   * @param name the parameter name
+   * @return the value or null if the parameter is not present
+   */
+  private static String getFirstParameter(RequestDetails requestDetails, String name) {
+    final String[] values = requestDetails.getParameters().get(name);
+    return values == null || values.length == 0 ? null : values[0];
+  }
+
+  /**
+   * The key of the last claim on a page. Encoded in links as an opaque url safe string so that
+   * clients do not come to depend on its contents.
+   */
+  @Value
+  public static class Cursor {
+    /** Separates the claim type from the claim id in the encoded form. */
+    private static final char SEPARATOR = ':';
+
+    /** The claim type of the last claim. */
+    ClaimType claimType;
+
+    /** The claim id of the last claim. */
+    long claimId;
+
+    /**
+     * Determines if claims of the given type must have a claim id greater than this cursor's claim
+     * id to come after it. Claims are ordered by claim id and then claim type, so claims of a type
+     * that sorts after this cursor's type may share its claim id.
+     *
+     * @param otherType the claim type of the claims being queried
+     * @return true if the claim id must be strictly greater, false if it may be equal
+     */
+    public boolean isClaimIdExclusive(ClaimType otherType) {
+      return otherType.compareTo(claimType) <= 0;
+    }
+
+    /**
+     * Encodes this cursor for use in a link.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+      final String text = claimType.name() + SEPARATOR + claimId;
+      return Base64.getUrlEncoder()
+          .withoutPadding()
+          .encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor from a link.
+     *
+     * @param encoded the encoded cursor, null or empty for the first page
+     * @return the cursor, empty for the first page
+     * @throws InvalidRequestException (http 400 error) if the cursor is not valid
+     */
+    public static Optional<Cursor> decode(String encoded) {
+      if (encoded == null || encoded.isEmpty()) {
+        return Optional.empty();
+      }
+      try {
+        final String text =
+            new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+        final int separator = text.indexOf(SEPARATOR);
+        return Optional.of(
+            new Cursor(
+                ClaimType.valueOf(text.substring(0, separator)),
+                Long.parseLong(text.substring(separator + 1))));
+      } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+        throw new InvalidRequestException("Invalid value for " + PARAM_CURSOR + ": " + encoded);
+      }
+    }
+  }
+}
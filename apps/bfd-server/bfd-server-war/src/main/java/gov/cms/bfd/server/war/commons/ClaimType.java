@@ -2,21 +2,30 @@ package gov.cms.bfd.server.war.commons;
 
 import gov.cms.bfd.model.rif.entities.Beneficiary;
 import gov.cms.bfd.model.rif.entities.CarrierClaim;
+import gov.cms.bfd.model.rif.entities.CarrierClaimRowMapper;
 import gov.cms.bfd.model.rif.entities.CarrierClaim_;
 import gov.cms.bfd.model.rif.entities.DMEClaim;
+import gov.cms.bfd.model.rif.entities.DMEClaimRowMapper;
 import gov.cms.bfd.model.rif.entities.DMEClaim_;
 import gov.cms.bfd.model.rif.entities.HHAClaim;
+import gov.cms.bfd.model.rif.entities.HHAClaimRowMapper;
 import gov.cms.bfd.model.rif.entities.HHAClaim_;
 import gov.cms.bfd.model.rif.entities.HospiceClaim;
+import gov.cms.bfd.model.rif.entities.HospiceClaimRowMapper;
 import gov.cms.bfd.model.rif.entities.HospiceClaim_;
 import gov.cms.bfd.model.rif.entities.InpatientClaim;
+import gov.cms.bfd.model.rif.entities.InpatientClaimRowMapper;
 import gov.cms.bfd.model.rif.entities.InpatientClaim_;
 import gov.cms.bfd.model.rif.entities.OutpatientClaim;
+import gov.cms.bfd.model.rif.entities.OutpatientClaimRowMapper;
 import gov.cms.bfd.model.rif.entities.OutpatientClaim_;
 import gov.cms.bfd.model.rif.entities.PartDEvent;
+import gov.cms.bfd.model.rif.entities.PartDEventRowMapper;
 import gov.cms.bfd.model.rif.entities.PartDEvent_;
 import gov.cms.bfd.model.rif.entities.SNFClaim;
+import gov.cms.bfd.model.rif.entities.SNFClaimRowMapper;
 import gov.cms.bfd.model.rif.entities.SNFClaim_;
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
@@ -38,68 +47,90 @@ public enum ClaimType {
   /** Represents the carrier claim type. */
   CARRIER(
       CarrierClaim.class,
+      CarrierClaimRowMapper.INSTANCE,
       CarrierClaim_.claimId,
       CarrierClaim_.beneficiaryId,
+      CarrierClaim_.dateThrough,
       (entity) -> ((CarrierClaim) entity).getDateThrough(),
       CarrierClaim_.lines),
   /** Represents the DME claim type. */
   DME(
       DMEClaim.class,
+      DMEClaimRowMapper.INSTANCE,
       DMEClaim_.claimId,
       DMEClaim_.beneficiaryId,
+      DMEClaim_.dateThrough,
       (entity) -> ((DMEClaim) entity).getDateThrough(),
       DMEClaim_.lines),
   /** Represents the hha claim type. */
   HHA(
       HHAClaim.class,
+      HHAClaimRowMapper.INSTANCE,
       HHAClaim_.claimId,
       HHAClaim_.beneficiaryId,
+      HHAClaim_.dateThrough,
       (entity) -> ((HHAClaim) entity).getDateThrough(),
       HHAClaim_.lines),
   /** Represents the hospice claim type. */
   HOSPICE(
       HospiceClaim.class,
+      HospiceClaimRowMapper.INSTANCE,
       HospiceClaim_.claimId,
       HospiceClaim_.beneficiaryId,
+      HospiceClaim_.dateThrough,
       (entity) -> ((HospiceClaim) entity).getDateThrough(),
       HospiceClaim_.lines),
   /** Represents the inpatient claim type. */
   INPATIENT(
       InpatientClaim.class,
+      InpatientClaimRowMapper.INSTANCE,
       InpatientClaim_.claimId,
       InpatientClaim_.beneficiaryId,
+      InpatientClaim_.dateThrough,
       (entity) -> ((InpatientClaim) entity).getDateThrough(),
       InpatientClaim_.lines),
   /** Represents the outpatient claim type. */
   OUTPATIENT(
       OutpatientClaim.class,
+      OutpatientClaimRowMapper.INSTANCE,
       OutpatientClaim_.claimId,
       OutpatientClaim_.beneficiaryId,
+      OutpatientClaim_.dateThrough,
       (entity) -> ((OutpatientClaim) entity).getDateThrough(),
       OutpatientClaim_.lines),
   /** Represents the PDE claim type. */
   PDE(
       PartDEvent.class,
+      PartDEventRowMapper.INSTANCE,
       PartDEvent_.eventId,
       PartDEvent_.beneficiaryId,
+      PartDEvent_.prescriptionFillDate,
       (entity) -> ((PartDEvent) entity).getPrescriptionFillDate()),
   /** Represents the SNF claim type. */
   SNF(
       SNFClaim.class,
+      SNFClaimRowMapper.INSTANCE,
       SNFClaim_.claimId,
       SNFClaim_.beneficiaryId,
+      SNFClaim_.dateThrough,
       (entity) -> ((SNFClaim) entity).getDateThrough(),
       SNFClaim_.lines);
 
   /** The entity class. */
   private final Class<?> entityClass;
 
+  /** Reads entities of {@link #entityClass} using JDBC rather than JPA. */
+  private final EntityRowMapper<?> entityRowMapper;
+
   /** The entity id attribute. */
   private final SingularAttribute<?, Long> entityIdAttribute;
 
   /** The entity beneficiary id attribute. */
   private final SingularAttribute<?, Long> entityBeneficiaryIdAttribute;
 
+  /** The service end attribute, used to filter by service date in queries. */
+  private final SingularAttribute<?, LocalDate> serviceEndAttribute;
+
   /** The service end attribute function. */
   private final Function<Object, LocalDate> serviceEndAttributeFunction;
 
@@ -110,21 +141,27 @@ public enum ClaimType {
    * Enum constant constructor.
    *
    * @param entityClass the value to use for {@link #getEntityClass()}
+   * @param entityRowMapper the value to use for {@link #getEntityRowMapper()}
    * @param entityIdAttribute the value to use for {@link #getEntityIdAttribute()}
    * @param entityBeneficiaryIdAttribute the value to use for {@link
    *     #getEntityBeneficiaryIdAttribute()}
+   * @param serviceEndAttribute the value to use for {@link #getServiceEndAttribute()}
    * @param serviceEndAttributeFunction the service end attribute function
    * @param entityLazyAttributes the value to use for {@link #getEntityLazyAttributes()}
    */
   ClaimType(
       Class<?> entityClass,
+      EntityRowMapper<?> entityRowMapper,
       SingularAttribute<?, Long> entityIdAttribute,
       SingularAttribute<?, Long> entityBeneficiaryIdAttribute,
+      SingularAttribute<?, LocalDate> serviceEndAttribute,
       Function<Object, LocalDate> serviceEndAttributeFunction,
       PluralAttribute<?, ?, ?>... entityLazyAttributes) {
     this.entityClass = entityClass;
+    this.entityRowMapper = entityRowMapper;
     this.entityIdAttribute = entityIdAttribute;
     this.entityBeneficiaryIdAttribute = entityBeneficiaryIdAttribute;
+    this.serviceEndAttribute = serviceEndAttribute;
     this.serviceEndAttributeFunction = serviceEndAttributeFunction;
     this.entityLazyAttributes =
         entityLazyAttributes != null
@@ -142,6 +179,16 @@ public enum ClaimType {
     return entityClass;
   }
 
+  /**
+   * Gets the {@link #entityRowMapper}.
+   *
+   * @return the {@link EntityRowMapper} that reads the same entities as {@link #getEntityClass()}
+   *     directly from a JDBC connection, including their lines
+   */
+  public EntityRowMapper<?> getEntityRowMapper() {
+    return entityRowMapper;
+  }
+
   /**
    * Gets the {@link #entityIdAttribute}.
    *
@@ -161,6 +208,16 @@ public enum ClaimType {
     return entityBeneficiaryIdAttribute;
   }
 
+  /**
+   * Gets the {@link #serviceEndAttribute}.
+   *
+   * @return the {@link SingularAttribute} holding the same {@link LocalDate} as {@link
+   *     #getServiceEndAttributeFunction()}, for service date filters applied in queries
+   */
+  public SingularAttribute<?, LocalDate> getServiceEndAttribute() {
+    return serviceEndAttribute;
+  }
+
   /**
    * Gets the {@link #serviceEndAttributeFunction}.
    *
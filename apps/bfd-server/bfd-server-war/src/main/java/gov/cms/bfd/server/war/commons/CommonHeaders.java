@@ -31,6 +31,14 @@ public interface CommonHeaders {
    */
   public static final String HEADER_NAME_INCLUDE_ADDRESS_FIELDS = "IncludeAddressFields";
 
+  /**
+   * The header key used to request that search result bundles be encoded directly to the response
+   * rather than into an in-memory copy of the whole body first. Should be set to <code>"true"
+   * </code> to enable this, defaults to <code>"false"</code>. See {@link
+   * gov.cms.bfd.server.war.UnbufferedBundleInterceptor} for details.
+   */
+  public static final String HEADER_NAME_UNBUFFERED_RESPONSE = "UnbufferedResponse";
+
   /** A list of common FHIR request headers. */
   public static final List<String> FHIR_REQUEST_HEADERS =
       Arrays.asList(
@@ -9,13 +9,22 @@ import gov.cms.bfd.model.rif.entities.Beneficiary_;
 import gov.cms.bfd.server.sharedutils.BfdMDC;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Root;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import org.hibernate.jpa.HibernateHints;
 
 /** Common database queries that can be shared between V1 and V2. */
 public class CommonQueries {
@@ -27,6 +36,15 @@ public class CommonQueries {
   public static final String CHECK_CLAIMS_FOR_DATA_SQL =
       "SELECT * FROM ccw.check_claims_mask(:beneIdValue)";
 
+  /**
+   * Database function that returns one row per claim type with data for a given beneficiaryId,
+   * along with the number of claims, their most recent last_updated, and their range of service end
+   * dates.
+   */
+  public static final String CHECK_CLAIMS_AVAILABILITY_SQL =
+      "SELECT claim_type, claim_count, max_last_updated, min_service_end_date,"
+          + " max_service_end_date FROM ccw.check_claims_availability(:beneIdValue)";
+
   /**
    * Database function that takes in a patient identifier type and value and returns a bigint
    * BENE_ID if the identifier can find a beneficiaries record. Supported identifier types are: mbi,
@@ -35,6 +53,12 @@ public class CommonQueries {
   public static final String FIND_BENE_ID_FROM_IDENTIFIER_SQL =
       "SELECT * FROM ccw.find_beneficiary(:searchIdType, :searchIdValue)";
 
+  /**
+   * Second-level cache region holding the results of beneficiary lookups by id. Evicted whenever
+   * new beneficiary data is loaded, see {@link LoadedFilterManager}.
+   */
+  public static final String BENEFICIARY_QUERY_CACHE_REGION = "beneficiary_by_id";
+
   /** preclude construction from outsiders. */
   private CommonQueries() {}
 
@@ -73,6 +97,80 @@ public class CommonQueries {
     return (int) (values != null && values.size() > 0 ? values.get(0) : 0);
   }
 
+  /**
+   * Query database for a summary of each claim type that has data for the specified beneficiary.
+   * Unlike {@link #availableClaimsData} this returns enough information to skip claim types whose
+   * claims are all outside of a request's _lastUpdated or service-date window and to size result
+   * lists before any claims are loaded, at the cost of counting rather than probing each table.
+   *
+   * <p>For more information on the database function, see:
+   * V20261019110000000__ADD_CLAIMS_AVAILABILITY_FUNCTION.SQL in the db migration directory.
+   *
+   * @param entityManager {@link EntityManager} used to query database.
+   * @param beneficiaryId used to identify the Beneficiary to check claims for.
+   * @return {@link Map} containing an entry for every claim type with at least one claim.
+   */
+  public static Map<ClaimType, ClaimAvailability> claimsAvailability(
+      EntityManager entityManager, long beneficiaryId) {
+    List<Object[]> rows =
+        entityManager
+            .createNativeQuery(CHECK_CLAIMS_AVAILABILITY_SQL, Object[].class)
+            .setParameter("beneIdValue", beneficiaryId)
+            .getResultList();
+    Map<ClaimType, ClaimAvailability> availability = new EnumMap<>(ClaimType.class);
+    if (rows != null) {
+      for (Object[] row : rows) {
+        ClaimType claimType = ClaimType.valueOf((String) row[0]);
+        availability.put(
+            claimType,
+            new ClaimAvailability(
+                claimType,
+                ((Number) row[1]).longValue(),
+                toInstant(row[2]),
+                toLocalDate(row[3]),
+                toLocalDate(row[4])));
+      }
+    }
+    return availability;
+  }
+
+  /**
+   * Converts a timestamp returned by a native query into an {@link Instant}. The JDBC type used for
+   * timestamp with time zone columns depends on the driver and Hibernate settings.
+   *
+   * @param value the column value, may be null
+   * @return the instant or null
+   */
+  private static Instant toInstant(Object value) {
+    if (value == null) {
+      return null;
+    } else if (value instanceof Instant instant) {
+      return instant;
+    } else if (value instanceof OffsetDateTime offsetDateTime) {
+      return offsetDateTime.toInstant();
+    } else if (value instanceof Timestamp timestamp) {
+      return timestamp.toInstant();
+    }
+    throw new IllegalArgumentException("Unsupported timestamp type: " + value.getClass());
+  }
+
+  /**
+   * Converts a date returned by a native query into a {@link LocalDate}.
+   *
+   * @param value the column value, may be null
+   * @return the date or null
+   */
+  private static LocalDate toLocalDate(Object value) {
+    if (value == null) {
+      return null;
+    } else if (value instanceof LocalDate localDate) {
+      return localDate;
+    } else if (value instanceof Date date) {
+      return date.toLocalDate();
+    }
+    throw new IllegalArgumentException("Unsupported date type: " + value.getClass());
+  }
+
   /**
    * Search database for a BENE_ID using a combination of search type and search value. Supports use
    * case where a beneficiary's MBI and/or HICN may have changed by looking at both current
@@ -189,7 +287,8 @@ public class CommonQueries {
 
     Beneficiary beneficiary = null;
     try {
-      beneficiary = entityManager.createQuery(criteriaQuery).getSingleResult();
+      beneficiary =
+          cacheBeneficiaryQuery(entityManager.createQuery(criteriaQuery)).getSingleResult();
       // Add bene_id to MDC logs
       LoggingUtils.logBeneIdToMdc(beneId);
       // Add number of resources to MDC logs
@@ -207,4 +306,18 @@ public class CommonQueries {
     }
     return beneficiary;
   }
+
+  /**
+   * Marks a beneficiary lookup by id as cacheable in the {@link #BENEFICIARY_QUERY_CACHE_REGION}.
+   * The hint has no effect unless the second-level cache is enabled.
+   *
+   * @param query the query
+   * @param <T> the query result type
+   * @return the query
+   */
+  public static <T> TypedQuery<T> cacheBeneficiaryQuery(TypedQuery<T> query) {
+    query.setHint(HibernateHints.HINT_CACHEABLE, true);
+    query.setHint(HibernateHints.HINT_CACHE_REGION, BENEFICIARY_QUERY_CACHE_REGION);
+    return query;
+  }
 }
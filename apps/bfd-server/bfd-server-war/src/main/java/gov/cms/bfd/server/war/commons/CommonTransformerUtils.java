@@ -1,9 +1,13 @@
 package gov.cms.bfd.server.war.commons;
 
 import ca.uhn.fhir.model.primitive.IdDt;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.api.SummaryEnum;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.rest.server.RestfulServerUtils;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
@@ -692,6 +696,25 @@ public final class CommonTransformerUtils {
     operation.publishOperationName();
   }
 
+  /**
+   * Determines whether a search only needs the number of matching resources, which is the case when
+   * the request specifies {@code _summary=count} or {@code _count=0}. HAPI only encodes the total
+   * of a count summary, so such searches can skip loading and transforming the resources.
+   *
+   * @param requestDetails the {@link RequestDetails} of the search
+   * @return true if only the total is needed
+   */
+  public static boolean isCountOnlyRequested(RequestDetails requestDetails) {
+    if (RestfulServerUtils.determineSummaryMode(requestDetails).contains(SummaryEnum.COUNT)) {
+      return true;
+    }
+    String[] count =
+        requestDetails.getParameters() == null
+            ? null
+            : requestDetails.getParameters().get(Constants.PARAM_COUNT);
+    return count != null && count.length > 0 && "0".equals(count[0].trim());
+  }
+
   /**
    * Parses the claim types to return in the search by parsing out the type tokens parameters.
    *
@@ -3,30 +3,53 @@ package gov.cms.bfd.server.war.commons;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import gov.cms.bfd.model.rif.LoadedBatch;
 import gov.cms.bfd.model.rif.LoadedFile;
+import gov.cms.bfd.model.rif.entities.Beneficiary;
+import gov.cms.bfd.server.war.ReplicaRoutingDataSource;
+import gov.cms.bfd.server.war.SpringConfiguration;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Root;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import javax.sql.DataSource;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.apache.spark.util.sketch.BloomFilter;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
  * Monitors the loaded files and their associated batches in the database. Creates Bloom filters to
- * match these files.
+ * match these files. When the second-level cache is enabled, also evicts the beneficiaries in newly
+ * loaded batches from it.
+ *
+ * <p>When a snapshot path is configured the filters are written to it after every refresh and on
+ * shutdown. A server that finds a snapshot consistent with the database at boot starts with its
+ * filters instead of waiting for them to be rebuilt from every loaded batch.
+ *
+ * <p>When connections are routed across read replicas the batches are still read from the primary,
+ * but the manager only advances to batches that every replica in use has. Otherwise a request
+ * served by a lagging replica would report a transaction time covering data it did not return, and
+ * a beneficiary evicted from the cache could be cached again from the replica's stale row.
  */
 @Component
 public class LoadedFilterManager {
@@ -50,6 +73,12 @@ public class LoadedFilterManager {
   /** The first LoadedBatch.created in the filter set. */
   private Instant firstBatchCreated;
 
+  /** Local file holding the {@link LoadedFilterSnapshot}, or null if snapshots are disabled. */
+  private Path snapshotPath;
+
+  /** Routes connections across read replicas, or null if none are configured. */
+  private ReplicaRoutingDataSource replicaRouting;
+
   /**
    * A tuple of values: LoadedFile.loadedFileid, LoadedFile.created, max(LoadedBatch.created). Used
    * for an optimized query that includes only what is needed to refresh filters.
@@ -118,11 +147,52 @@ public class LoadedFilterManager {
     this.entityManager = entityManager;
   }
 
+  /**
+   * Set the application's data source. Used to keep the manager consistent with the read replicas
+   * when they are configured.
+   *
+   * @param dataSource the application's data source
+   */
+  @Autowired(required = false)
+  public void setDataSource(DataSource dataSource) {
+    try {
+      replicaRouting =
+          dataSource.isWrapperFor(ReplicaRoutingDataSource.class)
+              ? dataSource.unwrap(ReplicaRoutingDataSource.class)
+              : null;
+    } catch (SQLException ex) {
+      LOGGER.warn("Unable to determine whether read replicas are in use", ex);
+      replicaRouting = null;
+    }
+  }
+
+  /**
+   * Set the local file used to persist the filters between restarts.
+   *
+   * @param snapshotPath path of the file or empty to disable snapshots
+   */
+  @Value("${" + SpringConfiguration.PROP_LOADED_FILTER_SNAPSHOT_PATH + ":}")
+  public void setSnapshotPath(String snapshotPath) {
+    this.snapshotPath =
+        snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+  }
+
   /** Called to finish initialization of the manager. */
   @PostConstruct
   public synchronized void init() {
     // The transaction time will either the last LoadedBatch or some earlier time
-    transactionTime = fetchLastLoadedBatchCreated().orElse(BEFORE_LAST_UPDATED_FEATURE);
+    ReplicaRoutingDataSource.runOnPrimary(
+        () -> {
+          transactionTime =
+              capToReplicas(fetchLastLoadedBatchCreated().orElse(BEFORE_LAST_UPDATED_FEATURE));
+          loadSnapshot();
+        });
+  }
+
+  /** Called when the server shuts down to write the current filters to the snapshot. */
+  @PreDestroy
+  public void shutdown() {
+    saveSnapshot();
   }
 
   /**
@@ -188,10 +258,18 @@ public class LoadedFilterManager {
    * Called periodically to build and refresh the filters list from the entityManager.
    *
    * <p>The {@link #lastBatchCreated} and {@link #firstBatchCreated} fields are updated by this
-   * call.
+   * call. The batches are always read from the primary database so that the filters never lag
+   * behind a read replica, which would wrongly report result sets for new data as empty. The new
+   * {@link #lastBatchCreated} is capped at the batches every replica in use has, see {@link
+   * #capToReplicas}.
    */
   @Scheduled(fixedDelay = 1000, initialDelay = 2000)
   public void refreshFilters() {
+    ReplicaRoutingDataSource.runOnPrimary(this::refreshFiltersFromPrimary);
+  }
+
+  /** Builds and refreshes the filters list. See {@link #refreshFilters()}. */
+  private void refreshFiltersFromPrimary() {
     /*
      * Dev note: the pipeline has a process to trim the files list. Nevertheless, building a set of
      * bloom filters may take a while. This method is expected to be called on it's own thread by
@@ -204,7 +282,7 @@ public class LoadedFilterManager {
     try {
       // If new batches are present, then build new filters for the affected files
       final Instant currentLastBatchCreated =
-          fetchLastLoadedBatchCreated().orElse(BEFORE_LAST_UPDATED_FEATURE);
+          capToReplicas(fetchLastLoadedBatchCreated().orElse(BEFORE_LAST_UPDATED_FEATURE));
 
       if (this.lastBatchCreated == null
           || this.lastBatchCreated.isBefore(currentLastBatchCreated)) {
@@ -213,9 +291,26 @@ public class LoadedFilterManager {
             lastBatchCreated,
             currentLastBatchCreated);
 
+        // Evict beneficiaries in the new batches from the second-level cache as the batches are
+        // read. There is nothing to evict on the first refresh since nothing has been cached.
+        final Instant previousLastBatchCreated = this.lastBatchCreated;
+        final Optional<Cache> cache =
+            previousLastBatchCreated == null ? Optional.empty() : getSecondLevelCache();
+        Function<Long, List<LoadedBatch>> fetchById = this::fetchLoadedBatches;
+        if (cache.isPresent()) {
+          fetchById =
+              fetchById.andThen(
+                  batches -> {
+                    int evicted =
+                        evictBeneficiaries(cache.get(), batches, previousLastBatchCreated);
+                    LOGGER.info("Evicted {} cached beneficiaries", evicted);
+                    return batches;
+                  });
+        }
+
         List<LoadedTuple> loadedTuples = fetchLoadedTuples(this.lastBatchCreated);
-        List<LoadedFileFilter> newFilters =
-            updateFilters(this.filters, loadedTuples, this::fetchLoadedBatches);
+        List<LoadedFileFilter> newFilters = updateFilters(this.filters, loadedTuples, fetchById);
+        cache.ifPresent(c -> c.evictQueryRegion(CommonQueries.BENEFICIARY_QUERY_CACHE_REGION));
 
         // If batches been trimmed, then remove filters which are no longer present
         final Instant currentFirstBatchUpdate =
@@ -234,12 +329,93 @@ public class LoadedFilterManager {
             currentLastBatchCreated);
 
         set(newFilters, currentFirstBatchUpdate, currentLastBatchCreated);
+        saveSnapshot();
       }
     } catch (Throwable ex) {
       LOGGER.error("Error found refreshing LoadedFile filters", ex);
     }
   }
 
+  /**
+   * Caps the primary's latest batch at the latest batch every read replica in use has and stops
+   * routing connections to replicas that do not have the batches up to the result. This happens
+   * before any beneficiary is evicted from the cache so that no replica can refill the cache with
+   * rows older than the eviction.
+   *
+   * @param primaryLastBatchCreated the latest LoadedBatch.created on the primary
+   * @return the latest batch that can be served by every database connections are routed to
+   */
+  private Instant capToReplicas(Instant primaryLastBatchCreated) {
+    if (replicaRouting == null) {
+      return primaryLastBatchCreated;
+    }
+    final Instant capped =
+        latestServedBatchCreated(
+            primaryLastBatchCreated, replicaRouting.getReplicatedBatchCreated());
+    replicaRouting.requireBatchCreated(capped);
+    return capped;
+  }
+
+  /**
+   * Reads the snapshot, if there is one, and uses its filters if they are consistent with the
+   * database. Filters for batches created after the snapshot was written are then built before the
+   * manager is used so that it never reports result sets for those batches as empty. Any problem
+   * with the snapshot is logged and the filters are built from scratch as usual.
+   */
+  private void loadSnapshot() {
+    if (snapshotPath == null) {
+      return;
+    }
+    try {
+      final Optional<LoadedFilterSnapshot> snapshot = LoadedFilterSnapshot.read(snapshotPath);
+      if (snapshot.isEmpty()) {
+        LOGGER.info("No LoadedFile filter snapshot found at {}", snapshotPath);
+        return;
+      }
+      final Instant currentFirstBatchCreated =
+          fetchFirstLoadedBatchCreated().orElse(BEFORE_LAST_UPDATED_FEATURE);
+      if (!isSnapshotUsable(
+          snapshot.get(), currentFirstBatchCreated, transactionTime, fetchLoadedFiles())) {
+        LOGGER.warn(
+            "Ignoring LoadedFile filter snapshot from {} to {} that does not match the database",
+            snapshot.get().getFirstBatchCreated(),
+            snapshot.get().getLastBatchCreated());
+        return;
+      }
+      set(
+          snapshot.get().getFilters(),
+          snapshot.get().getFirstBatchCreated(),
+          snapshot.get().getLastBatchCreated());
+      LOGGER.info(
+          "Loaded {} LoadedFile filters from snapshot up to {}", filters.size(), lastBatchCreated);
+      refreshFiltersFromPrimary();
+    } catch (IOException | RuntimeException ex) {
+      LOGGER.warn("Unable to load LoadedFile filter snapshot from {}", snapshotPath, ex);
+    }
+  }
+
+  /**
+   * Writes the current filters to the snapshot. Failures are logged since the snapshot is only an
+   * optimization.
+   */
+  private void saveSnapshot() {
+    if (snapshotPath == null) {
+      return;
+    }
+    final LoadedFilterSnapshot snapshot;
+    synchronized (this) {
+      if (lastBatchCreated == null) {
+        return;
+      }
+      snapshot = new LoadedFilterSnapshot(filters, firstBatchCreated, lastBatchCreated);
+    }
+    try {
+      snapshot.write(snapshotPath);
+    } catch (IOException | RuntimeException ex) {
+      LOGGER.warn("Unable to save LoadedFile filter snapshot to {}", snapshotPath, ex);
+    }
+  }
+
   /**
    * Set the current state in consistent fashion.
    *
@@ -347,8 +523,7 @@ public class LoadedFilterManager {
     if (batchCount == 0) {
       throw new IllegalArgumentException("Batches cannot be empty for a filter");
     }
-    final String[] loadedBatchBenes = loadedBatches.get(0).getBeneficiaries().split(",");
-    final int batchSize = loadedBatchBenes.length;
+    final int batchSize = Math.max(1, loadedBatches.get(0).getBeneficiaryCount());
 
     // It is important to get a good estimate of the number of entries for
     // an accurate FFP and minimal memory size. This one assumes that all batches are of equal size.
@@ -357,9 +532,7 @@ public class LoadedFilterManager {
     // Loop through all batches, filling the bloom filter and finding the lastUpdated
     Instant lastUpdated = firstUpdated;
     for (LoadedBatch batch : loadedBatches) {
-      for (Long beneficiary : batch.getBeneficiariesAsList()) {
-        bloomFilter.putLong(beneficiary);
-      }
+      batch.forEachBeneficiary(bloomFilter::putLong);
       if (batch.getCreated().isAfter(lastUpdated)) {
         lastUpdated = batch.getCreated();
       }
@@ -369,6 +542,78 @@ public class LoadedFilterManager {
     return new LoadedFileFilter(fileId, batchCount, firstUpdated, lastUpdated, bloomFilter);
   }
 
+  /**
+   * Determines the latest batch that is available on every database that requests can be served
+   * from.
+   *
+   * @param primaryLastBatchCreated the latest LoadedBatch.created on the primary
+   * @param replicatedBatchCreated the latest LoadedBatch.created that every replica in use has, or
+   *     empty if requests are served by the primary
+   * @return the earlier of the two times
+   */
+  public static Instant latestServedBatchCreated(
+      Instant primaryLastBatchCreated, Optional<Instant> replicatedBatchCreated) {
+    return replicatedBatchCreated
+        .filter(replicated -> replicated.isBefore(primaryLastBatchCreated))
+        .orElse(primaryLastBatchCreated);
+  }
+
+  /**
+   * Determines whether a snapshot's filters can be used with the current database. A snapshot is
+   * usable if it does not cover batches the database does not have, no batches older than those it
+   * covers have appeared, and every one of its files is still loaded with the same creation time.
+   * Files that are no longer loaded are allowed if the first batch has moved since they are then
+   * removed by {@link #trimFilters}. Batches created after the snapshot are picked up by the next
+   * refresh.
+   *
+   * @param snapshot the snapshot to check
+   * @param currentFirstBatchCreated the first LoadedBatch.created in the database
+   * @param currentLastBatchCreated the last LoadedBatch.created in the database
+   * @param loadedFiles the files currently in the database
+   * @return true if the snapshot's filters can be used
+   */
+  public static boolean isSnapshotUsable(
+      LoadedFilterSnapshot snapshot,
+      Instant currentFirstBatchCreated,
+      Instant currentLastBatchCreated,
+      List<LoadedFile> loadedFiles) {
+    if (snapshot.getLastBatchCreated().isAfter(currentLastBatchCreated)
+        || snapshot.getFirstBatchCreated().isAfter(currentFirstBatchCreated)) {
+      return false;
+    }
+    final Map<Long, Instant> createdById =
+        loadedFiles.stream()
+            .collect(Collectors.toMap(LoadedFile::getLoadedFileId, LoadedFile::getCreated));
+    final boolean willTrim = snapshot.getFirstBatchCreated().isBefore(currentFirstBatchCreated);
+    return snapshot.getFilters().stream()
+        .allMatch(
+            f -> {
+              final Instant created = createdById.get(f.getLoadedFileId());
+              return created == null ? willTrim : created.equals(f.getFirstUpdated());
+            });
+  }
+
+  /**
+   * Evict the beneficiaries in batches created after a given time from the second-level cache.
+   *
+   * @param cache the second-level cache
+   * @param loadedBatches the batches of a loaded file
+   * @param after only batches created after this time are evicted
+   * @return the number of beneficiaries evicted
+   */
+  public static int evictBeneficiaries(
+      Cache cache, List<LoadedBatch> loadedBatches, Instant after) {
+    int evicted = 0;
+    for (LoadedBatch batch : loadedBatches) {
+      if (batch.getCreated().isAfter(after)) {
+        batch.forEachBeneficiary(
+            beneficiary -> cache.evictEntityData(Beneficiary.class, beneficiary));
+        evicted += batch.getBeneficiaryCount();
+      }
+    }
+    return evicted;
+  }
+
   /* DB Operations */
 
   /**
@@ -435,6 +680,19 @@ public class LoadedFilterManager {
         .getResultList();
   }
 
+  /**
+   * Return the Hibernate second-level cache if it is enabled.
+   *
+   * @return the cache or empty if the cache is disabled
+   */
+  private Optional<Cache> getSecondLevelCache() {
+    final SessionFactory sessionFactory =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+    return sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()
+        ? Optional.of(sessionFactory.getCache())
+        : Optional.empty();
+  }
+
   /**
    * Fetch all the batches associated with LoadedFile.
    *
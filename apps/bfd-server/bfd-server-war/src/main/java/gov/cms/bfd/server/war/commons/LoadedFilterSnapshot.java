@@ -0,0 +1,148 @@
+package gov.cms.bfd.server.war.commons;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.spark.util.sketch.BloomFilter;
+
+/**
+ * A copy of the state of a {@link LoadedFilterManager} that can be written to local disk and read
+ * back when the server next starts. Reading a snapshot takes milliseconds while rebuilding the
+ * filters from the database can take minutes, so a server that finds a usable snapshot can skip
+ * straight to refreshing the filters with batches loaded since the snapshot was written.
+ */
+@Getter
+@AllArgsConstructor
+public class LoadedFilterSnapshot {
+  /** Written at the start of every snapshot to detect files that are not snapshots. */
+  private static final int MAGIC = 0x42464446;
+
+  /** Version of the format written by {@link #write}. */
+  private static final int FORMAT_VERSION = 1;
+
+  /** The filters, sorted in the same order as those of the manager. */
+  private final List<LoadedFileFilter> filters;
+
+  /** The first LoadedBatch.created covered by the filters. */
+  private final Instant firstBatchCreated;
+
+  /** The last LoadedBatch.created covered by the filters. */
+  private final Instant lastBatchCreated;
+
+  /**
+   * Writes this snapshot to a file. The snapshot is written to a temporary file in the same
+   * directory and then moved into place so that a reader never sees a partially written file.
+   *
+   * @param path the file to write
+   * @throws IOException if the file could not be written
+   */
+  public void write(Path path) throws IOException {
+    final Path directory = path.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    final Path tempPath = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeInstant(out, firstBatchCreated);
+        writeInstant(out, lastBatchCreated);
+        out.writeInt(filters.size());
+        for (LoadedFileFilter filter : filters) {
+          out.writeLong(filter.getLoadedFileId());
+          out.writeInt(filter.getBatchesCount());
+          writeInstant(out, filter.getFirstUpdated());
+          writeInstant(out, filter.getLastUpdated());
+          // length prefixed so the reader does not depend on how many bytes the filter consumes
+          final ByteArrayOutputStream bits = new ByteArrayOutputStream();
+          filter.getUpdatedBeneficiaries().writeTo(bits);
+          out.writeInt(bits.size());
+          bits.writeTo(out);
+        }
+      }
+      Files.move(
+          tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+  }
+
+  /**
+   * Reads a snapshot previously written by {@link #write}.
+   *
+   * @param path the file to read
+   * @return the snapshot or empty if the file does not exist
+   * @throws IOException if the file could not be read or is not a snapshot in a supported format
+   */
+  public static Optional<LoadedFilterSnapshot> read(Path path) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a loaded filter snapshot: " + path);
+      }
+      final int version = in.readInt();
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Unsupported loaded filter snapshot version: " + version);
+      }
+      final Instant firstBatchCreated = readInstant(in);
+      final Instant lastBatchCreated = readInstant(in);
+      final int filterCount = in.readInt();
+      final List<LoadedFileFilter> filters = new ArrayList<>(filterCount);
+      for (int i = 0; i < filterCount; ++i) {
+        final long loadedFileId = in.readLong();
+        final int batchesCount = in.readInt();
+        final Instant firstUpdated = readInstant(in);
+        final Instant lastUpdated = readInstant(in);
+        final byte[] bits = new byte[in.readInt()];
+        in.readFully(bits);
+        filters.add(
+            new LoadedFileFilter(
+                loadedFileId,
+                batchesCount,
+                firstUpdated,
+                lastUpdated,
+                BloomFilter.readFrom(new ByteArrayInputStream(bits))));
+      }
+      return Optional.of(new LoadedFilterSnapshot(filters, firstBatchCreated, lastBatchCreated));
+    } catch (NoSuchFileException ex) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Writes an {@link Instant} without losing precision.
+   *
+   * @param out the stream to write to
+   * @param instant the value to write
+   * @throws IOException pass through from the stream
+   */
+  private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+    out.writeLong(instant.getEpochSecond());
+    out.writeInt(instant.getNano());
+  }
+
+  /**
+   * Reads an {@link Instant} written by {@link #writeInstant}.
+   *
+   * @param in the stream to read from
+   * @return the value read
+   * @throws IOException pass through from the stream
+   */
+  private static Instant readInstant(DataInputStream in) throws IOException {
+    return Instant.ofEpochSecond(in.readLong(), in.readInt());
+  }
+}
@@ -195,6 +195,19 @@ public final class OpenAPIContentProvider {
      - `service-date=gt2023-01-02` defines a range between the provided date and today
      - `service-date=lt2023-05-01` defines a range from the earliest available records until the provided date""";
 
+  /** Open API short description for /ExplanationOfBenefit's cursor parameter. */
+  public static final String EOB_CURSOR_SHORT = "The cursor used for keyset result pagination";
+
+  /** Open API content value for /ExplanationOfBenefit's cursor parameter. */
+  public static final String EOB_CURSOR_VALUE =
+      """
+     Requests cursor based pagination, which keeps the cost of later pages the same as the first.
+     Pass an empty value to fetch the first page and then follow the _next_ link of each page.
+     The value is opaque and cannot be combined with `startIndex`.
+
+     Examples:
+        - `cursor=&_count=50` fetches the first page of 50 records""";
+
   /** Open API short description for /ExplanationOfBenefit's excludeSAMSHA parameter. */
   public static final String EOB_EXCLUDE_SAMSHA_SHORT =
       "If _true_, exclude any (all) SAMHSA-related claims";
@@ -0,0 +1,266 @@
+package gov.cms.bfd.server.war.commons;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transforms large lists by splitting them into fixed size chunks that are transformed concurrently
+ * on a bounded pool of threads sized for CPU bound work. The pool is separate from the executor
+ * that runs the EOB claim tasks since those spend most of their time waiting on the database.
+ *
+ * <p>The calling thread always transforms chunks itself alongside the pool threads, so a busy pool
+ * slows a transform down but never stalls it. Output is in the same order as the input regardless
+ * of which thread transformed each chunk.
+ */
+public class ParallelTransformer implements AutoCloseable {
+  /** Runs the chunks, null when every list is transformed on the calling thread. */
+  private final ExecutorService executor;
+
+  /** Maximum number of pool threads that help with a single list. */
+  private final int parallelism;
+
+  /** Number of items in each chunk. Lists no larger than this are not split. */
+  private final int chunkSize;
+
+  /**
+   * Instantiates a new transformer with its own pool of threads.
+   *
+   * @param threadCount number of pool threads, zero or less for the number of available processors
+   * @param chunkSize number of items in each chunk, lists no larger than this are transformed on
+   *     the calling thread
+   */
+  public ParallelTransformer(int threadCount, int chunkSize) {
+    this(createExecutor(threadCount), threadCount(threadCount), chunkSize);
+  }
+
+  /**
+   * Instantiates a new transformer that uses the given executor. Allows tests to control the
+   * executor.
+   *
+   * @param executor runs the chunks, null to transform every list on the calling thread
+   * @param parallelism maximum number of executor threads that help with a single list
+   * @param chunkSize number of items in each chunk
+   */
+  ParallelTransformer(ExecutorService executor, int parallelism, int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+    }
+    this.executor = executor;
+    this.parallelism = parallelism;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Creates a transformer that transforms every list on the calling thread.
+   *
+   * @return the transformer
+   */
+  public static ParallelTransformer sequential() {
+    return new ParallelTransformer(null, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Transforms every item in a list. The transform function must be safe to call concurrently.
+   *
+   * @param items the items to transform
+   * @param transform the function applied to each item
+   * @param <T> the item type
+   * @param <R> the result type
+   * @return the results, in the same order as the items
+   */
+  public <T, R> List<R> transform(List<T> items, Function<? super T, ? extends R> transform) {
+    final int chunkCount = (int) ((items.size() + (long) chunkSize - 1) / chunkSize);
+    if (executor == null || parallelism < 1 || chunkCount < 2) {
+      return items.stream().map(transform).collect(Collectors.toList());
+    }
+
+    final Run<T, R> run = new Run<>(items, transform, chunkSize, chunkCount);
+    final int helperCount = Math.min(parallelism, chunkCount - 1);
+    final List<Future<?>> helpers = new ArrayList<>(helperCount);
+    try {
+      for (int i = 0; i < helperCount; i++) {
+        helpers.add(executor.submit(run::help));
+      }
+    } catch (RejectedExecutionException e) {
+      // The pool is shutting down, the calling thread does the remaining work.
+    }
+    run.work();
+    run.finish();
+
+    // Helpers that have not started yet have no work left, so keep them from taking up the pool.
+    helpers.forEach(helper -> helper.cancel(false));
+    return run.getResults();
+  }
+
+  /** Stops the pool threads. */
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Resolves the number of pool threads.
+   *
+   * @param threadCount configured number of threads, zero or less for the number of processors
+   * @return the number of threads
+   */
+  private static int threadCount(int threadCount) {
+    return threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Creates the pool of daemon threads.
+   *
+   * @param threadCount configured number of threads, zero or less for the number of processors
+   * @return the pool
+   */
+  private static ExecutorService createExecutor(int threadCount) {
+    return Executors.newFixedThreadPool(
+        threadCount(threadCount),
+        r -> {
+          Thread t = new Thread(r);
+          t.setName("eob_transform");
+          t.setDaemon(true);
+          return t;
+        });
+  }
+
+  /**
+   * State shared by the threads transforming a single list. Each thread repeatedly claims the next
+   * untransformed chunk until none remain or a transform fails.
+   *
+   * @param <T> the item type
+   * @param <R> the result type
+   */
+  private static class Run<T, R> {
+    /** The items to transform. */
+    private final List<T> items;
+
+    /** The function applied to each item. */
+    private final Function<? super T, ? extends R> transform;
+
+    /** Number of items in each chunk, except possibly the last. */
+    private final int chunkSize;
+
+    /** Number of chunks the items are split into. */
+    private final int chunkCount;
+
+    /** Index of the next chunk to claim. */
+    private final AtomicInteger nextChunk = new AtomicInteger();
+
+    /** Results of each chunk, indexed by chunk. */
+    private final List<List<R>> chunkResults;
+
+    /** The first failure, if any. */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /** Number of helper threads currently working, guarded by this. */
+    private int runningHelpers;
+
+    /** Set once the calling thread has finished, after which helpers no longer start. */
+    private boolean finished;
+
+    /**
+     * Instantiates a new run.
+     *
+     * @param items the items to transform
+     * @param transform the function applied to each item
+     * @param chunkSize number of items in each chunk, except possibly the last
+     * @param chunkCount number of chunks the items are split into
+     */
+    Run(List<T> items, Function<? super T, ? extends R> transform, int chunkSize, int chunkCount) {
+      this.items = items;
+      this.transform = transform;
+      this.chunkSize = chunkSize;
+      this.chunkCount = chunkCount;
+      this.chunkResults = new ArrayList<>(chunkCount);
+      for (int i = 0; i < chunkCount; i++) {
+        chunkResults.add(null);
+      }
+    }
+
+    /**
+     * Called by a pool thread to help transform chunks. Does nothing if the calling thread has
+     * already finished.
+     */
+    void help() {
+      synchronized (this) {
+        if (finished) {
+          return;
+        }
+        runningHelpers++;
+      }
+      try {
+        work();
+      } finally {
+        synchronized (this) {
+          runningHelpers--;
+          notifyAll();
+        }
+      }
+    }
+
+    /**
+     * Called by the calling thread once it has run out of chunks to wait for any helpers that are
+     * still transforming theirs.
+     */
+    synchronized void finish() {
+      finished = true;
+      try {
+        while (runningHelpers > 0) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("interrupted while waiting for transform", e);
+      }
+    }
+
+    /** Transforms chunks until none remain or a transform fails. */
+    void work() {
+      int chunk;
+      while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+        try {
+          final int from = chunk * chunkSize;
+          final int to = Math.min(from + chunkSize, items.size());
+          final List<R> results = new ArrayList<>(to - from);
+          for (T item : items.subList(from, to)) {
+            results.add(transform.apply(item));
+          }
+          chunkResults.set(chunk, results);
+        } catch (RuntimeException | Error e) {
+          failure.compareAndSet(null, e);
+          nextChunk.set(chunkCount);
+        }
+      }
+    }
+
+    /**
+     * Gets the results once every thread has finished.
+     *
+     * @return the results, in the same order as the items
+     * @throws RuntimeException the first transform failure, if any
+     */
+    List<R> getResults() {
+      final Throwable e = failure.get();
+      if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      } else if (e instanceof Error) {
+        throw (Error) e;
+      }
+      final List<R> results = new ArrayList<>(items.size());
+      chunkResults.forEach(results::addAll);
+      return results;
+    }
+  }
+}
@@ -4,16 +4,32 @@ import ca.uhn.fhir.rest.param.DateParam;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.ParamPrefixEnum;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
+import gov.cms.bfd.server.war.SpringConfiguration;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Function;
+import org.hibernate.Hibernate;
+import org.hibernate.Transaction;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jdbc.ReturningWork;
 
 /** As set of methods to help form JPA queries. */
 public class QueryUtils {
@@ -178,6 +194,86 @@ public class QueryUtils {
     return builder.and(predicates.toArray(new Predicate[0]));
   }
 
+  /**
+   * Converts a bound of a V2 EOB service-date range to the day it falls on in the server's time
+   * zone. Searches compare claim service dates to these days, so counts must use them too.
+   *
+   * @param bound the bound as returned by {@link DateRangeParam#getLowerBoundAsInstant()} or {@link
+   *     DateRangeParam#getUpperBoundAsInstant()}, may be null
+   * @return the day or null if there is no bound
+   */
+  @Nullable
+  public static LocalDate toServiceDateBound(@Nullable Date bound) {
+    return bound == null ? null : bound.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+  }
+
+  /**
+   * Create a predicate for a V2 EOB service date that matches exactly the claims kept by the
+   * service-date filtering of a search, so that {@code _summary=count} totals equal the number of
+   * resources a search would return. The bounds are converted with {@link #toServiceDateBound} and
+   * compared the same way as {@code TransformerUtilsV2.compareLocalDate}. When any bound is
+   * supplied the value must be not-null to be accepted.
+   *
+   * @param builder {@link CriteriaBuilder} used to create various things
+   * @param serviceDate {@link DateRangeParam} specifying the service-date bounds
+   * @param dateExpression {@link Expression} or {@link Path} defining the service date to test
+   * @return a {@link Predicate} to evaluate the service-date range
+   */
+  public static Predicate createServiceDatePredicate(
+      CriteriaBuilder builder, DateRangeParam serviceDate, Expression<LocalDate> dateExpression) {
+    final List<Predicate> predicates = new ArrayList<>();
+
+    final LocalDate from = toServiceDateBound(serviceDate.getLowerBoundAsInstant());
+    if (from != null) {
+      predicates.add(
+          compareServiceDate(
+              builder, dateExpression, from, serviceDate.getLowerBound().getPrefix()));
+    }
+
+    final LocalDate to = toServiceDateBound(serviceDate.getUpperBoundAsInstant());
+    if (to != null) {
+      predicates.add(
+          compareServiceDate(builder, dateExpression, to, serviceDate.getUpperBound().getPrefix()));
+    }
+
+    if (predicates.size() > 0) {
+      predicates.add(0, builder.isNotNull(dateExpression));
+    }
+
+    return builder.and(predicates.toArray(new Predicate[0]));
+  }
+
+  /**
+   * Compares a service date to a bound using the supplied {@link ParamPrefixEnum}.
+   *
+   * @param builder {@link CriteriaBuilder} used to create the comparison
+   * @param dateExpression the service date to test
+   * @param bound the day to compare it to
+   * @param prefix prefix to use. Supported: {@link ParamPrefixEnum#GREATERTHAN_OR_EQUALS}, {@link
+   *     ParamPrefixEnum#GREATERTHAN}, {@link ParamPrefixEnum#LESSTHAN_OR_EQUALS}, {@link
+   *     ParamPrefixEnum#LESSTHAN}
+   * @return the comparison
+   * @throws InvalidRequestException if caller supplied an unsupported prefix
+   */
+  private static Predicate compareServiceDate(
+      CriteriaBuilder builder,
+      Expression<LocalDate> dateExpression,
+      LocalDate bound,
+      ParamPrefixEnum prefix) {
+    switch (prefix) {
+      case GREATERTHAN_OR_EQUALS:
+        return builder.greaterThanOrEqualTo(dateExpression, bound);
+      case GREATERTHAN:
+        return builder.greaterThan(dateExpression, bound);
+      case LESSTHAN_OR_EQUALS:
+        return builder.lessThanOrEqualTo(dateExpression, bound);
+      case LESSTHAN:
+        return builder.lessThan(dateExpression, bound);
+      default:
+        throw new InvalidRequestException(String.format("Unsupported prefix supplied: %s", prefix));
+    }
+  }
+
   /**
    * Create a predicate for the lastUpdate field based on the passed range.
    *
@@ -230,4 +326,124 @@ public class QueryUtils {
     }
     return true;
   }
+
+  /**
+   * Runs a query for entities whose lazy collections are all needed, such as claims and their
+   * lines, without join fetching the collections. A join fetch repeats every column of the entity
+   * on each row of the collection, which for wide claims with many lines dominates the data sent by
+   * the database. Instead the query runs in its own session with subselect fetching enabled so that
+   * each collection is then loaded for every returned entity by a single additional query.
+   *
+   * <p>The collections are initialized before the session is closed, so the returned entities can
+   * be used on any thread. The session is read-only and every query, including those that load the
+   * collections, is subject to {@link SpringConfiguration#TRANSACTION_TIMEOUT}.
+   *
+   * @param entityManager used to create the session for the query
+   * @param criteria the query, which must not fetch the lazy collections
+   * @param <T> the entity type
+   * @return the entities with their collections loaded
+   */
+  public static <T> List<T> findWithSubselectFetch(
+      EntityManager entityManager, CriteriaQuery<T> criteria) {
+    return runInReadOnlySession(
+        entityManager,
+        session -> {
+          session.setSubselectFetchingEnabled(true);
+          final List<T> entities = session.createQuery(criteria).getResultList();
+          // Initializing one collection loads that collection for every entity in the results.
+          for (PersistentCollection<?> collection :
+              List.copyOf(
+                  session.getPersistenceContextInternal().getCollectionEntries().keySet())) {
+            Hibernate.initialize(collection);
+          }
+          return entities;
+        });
+  }
+
+  /**
+   * Runs queries directly on a JDBC connection, such as those of a {@link
+   * gov.cms.model.dsl.codegen.library.EntityRowMapper}, so that the resulting entities bypass the
+   * persistence context entirely. Like {@link #findWithSubselectFetch} the work runs in its own
+   * read-only session, so the connection is not shared with any other query and is released before
+   * this method returns. Every statement the work creates on the connection times out with the
+   * session's transaction, just like the statements Hibernate prepares itself.
+   *
+   * @param entityManager used to create the session for the work
+   * @param work runs the queries and returns their results
+   * @param <T> the result type
+   * @return the value returned by the work
+   */
+  public static <T> T readWithJdbc(EntityManager entityManager, ReturningWork<T> work) {
+    return runInReadOnlySession(
+        entityManager,
+        session ->
+            session.doReturningWork(
+                connection -> work.execute(withStatementTimeout(connection, session))));
+  }
+
+  /**
+   * Wraps a connection so that every statement created through it times out after the time
+   * remaining in a session's transaction. Hibernate only does this for the statements that it
+   * prepares, not for those created directly on the connection by a {@link ReturningWork}.
+   *
+   * @param connection the connection to wrap
+   * @param session the session whose transaction timeout applies
+   * @return the wrapped connection
+   */
+  private static Connection withStatementTimeout(
+      Connection connection, SessionImplementor session) {
+    return (Connection)
+        Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+              final Object result;
+              try {
+                result = method.invoke(connection, args);
+              } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+              }
+              if (result instanceof Statement statement) {
+                final int remainingSeconds =
+                    session.getJdbcCoordinator().determineRemainingTransactionTimeOutPeriod();
+                if (remainingSeconds > 0) {
+                  statement.setQueryTimeout(remainingSeconds);
+                }
+              }
+              return result;
+            });
+  }
+
+  /**
+   * Runs an action in a new read-only session whose transaction times out after {@link
+   * SpringConfiguration#TRANSACTION_TIMEOUT} seconds. Hibernate applies the remaining time to every
+   * statement it prepares in the transaction. The transaction is rolled back and the session closed
+   * before this method returns.
+   *
+   * @param entityManager used to create the session
+   * @param action runs the queries and returns their results
+   * @param <T> the result type
+   * @return the value returned by the action
+   */
+  private static <T> T runInReadOnlySession(
+      EntityManager entityManager, Function<SessionImplementor, T> action) {
+    final EntityManager queryEntityManager =
+        entityManager.getEntityManagerFactory().createEntityManager();
+    try {
+      final SessionImplementor session = queryEntityManager.unwrap(SessionImplementor.class);
+      session.setDefaultReadOnly(true);
+      final Transaction transaction = session.getTransaction();
+      transaction.setTimeout(SpringConfiguration.TRANSACTION_TIMEOUT);
+      transaction.begin();
+      try {
+        return action.apply(session);
+      } finally {
+        if (transaction.isActive()) {
+          transaction.rollback();
+        }
+      }
+    } finally {
+      queryEntityManager.close();
+    }
+  }
 }
@@ -0,0 +1,285 @@
+package gov.cms.bfd.server.war.commons;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Value;
+
+/**
+ * Aggregates where the time for a single request went. A profile is started when the request enters
+ * the server and is bound to the request thread. Work that runs on other threads, such as the EOB
+ * claim tasks, captures the profile on the request thread and attaches it to the worker thread
+ * while it runs so that everything it records lands in the same profile.
+ *
+ * <p>Phase times are summed across all threads, so when claim tasks run in parallel the database
+ * and transform totals can exceed the request's elapsed time. The per task summaries show how that
+ * work was spread out.
+ */
+public final class RequestProfile {
+  /** The profile bound to the current thread, if any. */
+  private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+
+  /** Attachment returned when there is no profile to attach. */
+  private static final Attachment NO_ATTACHMENT = () -> {};
+
+  /** Time the request started, from {@link System#nanoTime()}. */
+  private final long startNanos;
+
+  /** Nanoseconds recorded for each phase. */
+  private final Map<Phase, LongAdder> phaseNanos;
+
+  /** Number of database queries run for the request. */
+  private final LongAdder queryCount = new LongAdder();
+
+  /** Time serialization of the response started, or zero if it has not started. */
+  private final AtomicLong serializationStartNanos = new AtomicLong();
+
+  /** Summaries of the tasks that ran on other threads for the request. */
+  private final Queue<TaskSummary> tasks = new ConcurrentLinkedQueue<>();
+
+  /** The phases of a request that time is tracked for. */
+  public enum Phase {
+    /** Time spent running database queries. */
+    DATABASE,
+    /** Time spent transforming entities into FHIR resources. */
+    TRANSFORM,
+    /** Time spent filtering SAMHSA claims out of the results. */
+    SAMHSA_FILTER,
+    /** Time spent serializing and writing the response. */
+    SERIALIZATION,
+    /** Time tasks spent waiting for an executor thread. */
+    QUEUE_WAIT;
+
+    /**
+     * Gets the name of the phase as used in log and metric names.
+     *
+     * @return the name
+     */
+    public String getName() {
+      return name().toLowerCase();
+    }
+  }
+
+  /** Undoes an {@link #attach} when closed. Intended for use in a try-with-resources block. */
+  @FunctionalInterface
+  public interface Attachment extends AutoCloseable {
+    /** Restores the thread's previous profile. */
+    @Override
+    void close();
+  }
+
+  /** Summary of a task that ran on another thread on behalf of the request. */
+  @Value
+  public static class TaskSummary {
+    /** Identifies the task, such as the claim type it processed. */
+    String name;
+
+    /** Time the task waited for an executor thread. */
+    long queueWaitNanos;
+
+    /** Time the task took to run once it had a thread. */
+    long runNanos;
+
+    /** Number of resources the task produced. */
+    int resourceCount;
+  }
+
+  /** Instantiates a new profile starting now. */
+  private RequestProfile() {
+    startNanos = System.nanoTime();
+    phaseNanos = new EnumMap<>(Phase.class);
+    for (Phase phase : Phase.values()) {
+      phaseNanos.put(phase, new LongAdder());
+    }
+  }
+
+  /**
+   * Starts a new profile and binds it to the current thread. Must be paired with a call to {@link
+   * #end()} on the same thread.
+   *
+   * @return the new profile
+   */
+  public static RequestProfile start() {
+    RequestProfile profile = new RequestProfile();
+    CURRENT.set(profile);
+    return profile;
+  }
+
+  /** Unbinds the profile from the current thread. */
+  public static void end() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Gets the profile bound to the current thread.
+   *
+   * @return the profile or empty if no request is being profiled on this thread
+   */
+  public static Optional<RequestProfile> current() {
+    return Optional.ofNullable(CURRENT.get());
+  }
+
+  /**
+   * Binds a profile captured on the request thread to the current worker thread until the returned
+   * {@link Attachment} is closed.
+   *
+   * @param profile the profile to attach, nothing is attached if empty
+   * @return the attachment to close once the work is done
+   */
+  public static Attachment attach(Optional<RequestProfile> profile) {
+    if (profile.isEmpty()) {
+      return NO_ATTACHMENT;
+    }
+    final RequestProfile previous = CURRENT.get();
+    CURRENT.set(profile.get());
+    return () -> {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    };
+  }
+
+  /**
+   * Adds time to a phase of the profile bound to the current thread, if any.
+   *
+   * @param phase the phase
+   * @param nanos the time to add
+   */
+  public static void record(Phase phase, long nanos) {
+    RequestProfile profile = CURRENT.get();
+    if (profile != null) {
+      profile.add(phase, nanos);
+    }
+  }
+
+  /**
+   * Adds a completed query to the profile bound to the current thread, if any.
+   *
+   * @param nanos the time the query took
+   */
+  public static void recordQuery(long nanos) {
+    RequestProfile profile = CURRENT.get();
+    if (profile != null) {
+      profile.queryCount.increment();
+      profile.add(Phase.DATABASE, nanos);
+    }
+  }
+
+  /**
+   * Adds time to a phase.
+   *
+   * @param phase the phase
+   * @param nanos the time to add
+   */
+  public void add(Phase phase, long nanos) {
+    phaseNanos.get(phase).add(nanos);
+  }
+
+  /**
+   * Adds the summary of a task that ran on behalf of the request.
+   *
+   * @param task the task summary
+   */
+  public void addTask(TaskSummary task) {
+    tasks.add(task);
+  }
+
+  /** Marks the start of response serialization. */
+  public void beginSerialization() {
+    serializationStartNanos.set(System.nanoTime());
+  }
+
+  /** Marks the end of response serialization, if it was started. */
+  public void endSerialization() {
+    final long start = serializationStartNanos.getAndSet(0);
+    if (start != 0) {
+      add(Phase.SERIALIZATION, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Gets the time recorded for a phase.
+   *
+   * @param phase the phase
+   * @return the time in nanoseconds
+   */
+  public long getNanos(Phase phase) {
+    return phaseNanos.get(phase).sum();
+  }
+
+  /**
+   * Gets the number of database queries run for the request.
+   *
+   * @return the query count
+   */
+  public long getQueryCount() {
+    return queryCount.sum();
+  }
+
+  /**
+   * Gets the time since the request started.
+   *
+   * @return the elapsed time in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return System.nanoTime() - startNanos;
+  }
+
+  /**
+   * Gets the summaries of the tasks that ran on behalf of the request.
+   *
+   * @return the task summaries in the order they finished
+   */
+  public Iterable<TaskSummary> getTasks() {
+    return tasks;
+  }
+
+  /**
+   * Describes the profile in a single line suitable for logging.
+   *
+   * @return the description
+   */
+  public String describe() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("elapsed=").append(toMillis(getElapsedNanos())).append("ms");
+    for (Phase phase : Phase.values()) {
+      sb.append(' ').append(phase.getName()).append('=').append(toMillis(getNanos(phase)));
+      sb.append("ms");
+    }
+    sb.append(" queries=").append(getQueryCount());
+    sb.append(" tasks=[");
+    boolean first = true;
+    for (TaskSummary task : tasks) {
+      if (!first) {
+        sb.append(", ");
+      }
+      first = false;
+      sb.append(task.getName())
+          .append(": queue_wait=")
+          .append(toMillis(task.getQueueWaitNanos()))
+          .append("ms run=")
+          .append(toMillis(task.getRunNanos()))
+          .append("ms resources=")
+          .append(task.getResourceCount());
+    }
+    sb.append(']');
+    return sb.toString();
+  }
+
+  /**
+   * Converts nanoseconds to whole milliseconds.
+   *
+   * @param nanos the time in nanoseconds
+   * @return the time in milliseconds
+   */
+  public static long toMillis(long nanos) {
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+}
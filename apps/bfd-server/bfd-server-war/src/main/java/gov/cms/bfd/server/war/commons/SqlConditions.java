@@ -0,0 +1,203 @@
+package gov.cms.bfd.server.war.commons;
+
+import ca.uhn.fhir.rest.param.DateParam;
+import ca.uhn.fhir.rest.param.DateRangeParam;
+import ca.uhn.fhir.rest.param.ParamPrefixEnum;
+import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the conditions and parameter values of a SQL {@code where} clause for queries that run
+ * directly on a JDBC connection rather than through JPA. The date conditions match the predicates
+ * created by {@link QueryUtils} so that both kinds of query return the same rows for the same
+ * request.
+ */
+public class SqlConditions {
+  /** The conditions, combined using {@code and}. */
+  private final List<String> conditions = new ArrayList<>();
+
+  /** Values for the parameters in {@link #conditions} in the order they appear. */
+  private final List<Object> parameters = new ArrayList<>();
+
+  /**
+   * Adds a condition that a column equals a value.
+   *
+   * @param columnName the column
+   * @param value the value
+   * @return this object for chaining
+   */
+  public SqlConditions addEquals(String columnName, Object value) {
+    conditions.add(columnName + " = ?");
+    parameters.add(value);
+    return this;
+  }
+
+  /**
+   * Adds a condition that a column equals any of several values. No row matches if there are no
+   * values.
+   *
+   * @param columnName the column
+   * @param values the values
+   * @return this object for chaining
+   */
+  public SqlConditions addIn(String columnName, Collection<?> values) {
+    if (values.isEmpty()) {
+      conditions.add("1 = 0");
+    } else {
+      conditions.add(
+          String.format(
+              "%s in (%s)",
+              columnName, String.join(", ", Collections.nCopies(values.size(), "?"))));
+      parameters.addAll(values);
+    }
+    return this;
+  }
+
+  /**
+   * Adds a condition on a last updated column equivalent to {@link
+   * QueryUtils#createLastUpdatedPredicate}. Rows with no last updated value match when the range
+   * only has an upper bound.
+   *
+   * @param columnName the last updated column
+   * @param range the range of last updated times
+   * @return this object for chaining
+   * @throws InvalidRequestException if the range has an unsupported prefix or no bounds
+   */
+  public SqlConditions addLastUpdated(String columnName, DateRangeParam range) {
+    final Instant lowerBound =
+        range.getLowerBoundAsInstant() == null ? null : range.getLowerBoundAsInstant().toInstant();
+    final Instant upperBound =
+        range.getUpperBoundAsInstant() == null ? null : range.getUpperBoundAsInstant().toInstant();
+
+    String lowerBoundCondition = null;
+    if (lowerBound != null) {
+      switch (range.getLowerBound().getPrefix()) {
+        case GREATERTHAN_OR_EQUALS:
+          lowerBoundCondition = columnName + " >= ?";
+          break;
+        case GREATERTHAN:
+          lowerBoundCondition = columnName + " > ?";
+          break;
+        default:
+          throw new InvalidRequestException("_lastUpdate lower bound has an invalid prefix");
+      }
+    }
+
+    if (upperBound != null) {
+      final String upperBoundCondition;
+      switch (range.getUpperBound().getPrefix()) {
+        case LESSTHAN:
+          upperBoundCondition = columnName + " < ?";
+          break;
+        case LESSTHAN_OR_EQUALS:
+          upperBoundCondition = columnName + " <= ?";
+          break;
+        default:
+          throw new InvalidRequestException("_lastUpdate upper bound has an invalid prefix");
+      }
+      if (lowerBoundCondition == null) {
+        conditions.add(String.format("(%s is null or %s)", columnName, upperBoundCondition));
+        parameters.add(upperBound);
+      } else {
+        conditions.add(lowerBoundCondition);
+        conditions.add(upperBoundCondition);
+        parameters.add(lowerBound);
+        parameters.add(upperBound);
+      }
+    } else if (lowerBoundCondition == null) {
+      throw new InvalidRequestException("_lastUpdate upper and lower bound cannot both be null");
+    } else {
+      conditions.add(lowerBoundCondition);
+      parameters.add(lowerBound);
+    }
+    return this;
+  }
+
+  /**
+   * Adds a condition that any of several date columns falls within a range. Each column is tested
+   * in the same way as {@link QueryUtils#createDateRangePredicate} and the results are combined
+   * using {@code or}. Nothing is added if the range has no bounds or there are no columns.
+   *
+   * @param columnNames the date columns
+   * @param dateRange the range of dates
+   * @return this object for chaining
+   * @throws InvalidRequestException if the range has an unsupported prefix
+   */
+  public SqlConditions addAnyDateInRange(List<String> columnNames, DateRangeParam dateRange) {
+    final DateParam lowerBound = dateRange.getLowerBound();
+    final DateParam upperBound = dateRange.getUpperBound();
+    if (columnNames.isEmpty() || (lowerBound == null && upperBound == null)) {
+      return this;
+    }
+
+    final List<String> columnConditions = new ArrayList<>();
+    for (String columnName : columnNames) {
+      final List<String> terms = new ArrayList<>();
+      terms.add(columnName + " is not null");
+      if (lowerBound != null) {
+        if (ParamPrefixEnum.GREATERTHAN.equals(lowerBound.getPrefix())) {
+          terms.add(columnName + " > ?");
+        } else if (ParamPrefixEnum.GREATERTHAN_OR_EQUALS.equals(lowerBound.getPrefix())) {
+          terms.add(columnName + " >= ?");
+        } else {
+          throw new InvalidRequestException(
+              String.format("Unsupported prefix supplied %s", lowerBound.getPrefix()));
+        }
+        parameters.add(toLocalDate(lowerBound));
+      }
+      if (upperBound != null) {
+        if (ParamPrefixEnum.LESSTHAN_OR_EQUALS.equals(upperBound.getPrefix())) {
+          terms.add(columnName + " <= ?");
+        } else if (ParamPrefixEnum.LESSTHAN.equals(upperBound.getPrefix())) {
+          terms.add(columnName + " < ?");
+        } else {
+          throw new InvalidRequestException(
+              String.format("Unsupported prefix supplied %s", upperBound.getPrefix()));
+        }
+        parameters.add(toLocalDate(upperBound));
+      }
+      columnConditions.add(String.join(" and ", terms));
+    }
+    conditions.add(String.format("((%s))", String.join(") or (", columnConditions)));
+    return this;
+  }
+
+  /**
+   * Creates the {@code where} and {@code order by} clauses for a query.
+   *
+   * @param orderByColumnName column to sort the results by
+   * @return the clauses
+   */
+  public String toClauses(String orderByColumnName) {
+    final String orderBy = "order by " + orderByColumnName;
+    return conditions.isEmpty()
+        ? orderBy
+        : String.format("where %s %s", String.join(" and ", conditions), orderBy);
+  }
+
+  /**
+   * Gets the values for the parameters in {@link #toClauses}.
+   *
+   * @return the values in the order they appear in the clauses
+   */
+  public List<Object> getParameters() {
+    return List.copyOf(parameters);
+  }
+
+  /**
+   * Converts a date parameter to a date in the same way as {@link
+   * QueryUtils#createDateRangePredicate}.
+   *
+   * @param dateParam the date parameter
+   * @return the date in UTC
+   */
+  private static LocalDate toLocalDate(DateParam dateParam) {
+    return dateParam.getValue().toInstant().atOffset(ZoneOffset.UTC).toLocalDate();
+  }
+}
@@ -0,0 +1,339 @@
+package gov.cms.bfd.server.war.r4.providers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.cms.bfd.server.war.commons.RequestHeaders;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.hl7.fhir.r4.model.ResourceType;
+
+/**
+ * Tracks the state of a single asynchronous Part D contract roster export started by the {@code
+ * $export} operation of {@link R4BulkExportProvider} and executed in the background by {@link
+ * BulkExportJobManager}. Instances are shared between the request threads polling for status and
+ * the worker thread producing the output so all mutable state is either volatile or atomic.
+ *
+ * <p>The state of every job is also written to a {@link #STATE_FILE_NAME} file in its output
+ * directory by {@link #writeState} so that any server instance sharing the export directory can
+ * answer status and download requests for it, even after the instance that ran the job has stopped.
+ * Jobs read back using {@link #readState} have no {@link #requestHeaders} and can not be executed.
+ */
+@Getter
+public class BulkExportJob {
+  /** The possible states of a job. */
+  public enum Status {
+    /** Job has been accepted but no worker thread has started it yet. */
+    ACCEPTED,
+    /** A worker thread is currently writing output files. */
+    IN_PROGRESS,
+    /** All output files have been written and can be downloaded. */
+    COMPLETED,
+    /** The job terminated with an error. */
+    FAILED,
+    /** The job was cancelled by the client before it completed. */
+    CANCELLED
+  }
+
+  /** Name of the file in the job's directory that holds the job's persisted state. */
+  public static final String STATE_FILE_NAME = "job.json";
+
+  /** Used to read and write the persisted state. */
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  /** Unique (and unguessable) identifier used in the status and download URLs. */
+  private final String jobId;
+
+  /** The Part D contract id to export beneficiaries for. */
+  private final String contractId;
+
+  /** The enrollment month to export beneficiaries for. */
+  private final YearMonth yearMonth;
+
+  /** The resource types to include in the output. */
+  private final Set<ResourceType> resourceTypes;
+
+  /** The headers of the kick-off request, used to control transformation of each resource. */
+  private final RequestHeaders requestHeaders;
+
+  /**
+   * Distinguished name of the client certificate used for the kick-off request. Only requests made
+   * with the same certificate may see, download, or cancel the job. Null if the server does not
+   * require client certificates.
+   */
+  private final String requester;
+
+  /** The complete URL of the kick-off request, echoed back in the manifest. */
+  private final String requestUrl;
+
+  /** The data's transaction time as of the moment the job was accepted. */
+  private final Instant transactionTime;
+
+  /** Directory that the job's output files are written to. */
+  private final Path directory;
+
+  /** Time at which the job was accepted. Used to expire old jobs. */
+  private final Instant createdTime;
+
+  /** Number of beneficiaries processed so far. */
+  private final AtomicLong beneficiaryCount = new AtomicLong();
+
+  /** Current state of the job. */
+  private volatile Status status = Status.ACCEPTED;
+
+  /** The output files, only set once the job has completed. */
+  private volatile List<NdjsonFileWriter.OutputFile> outputFiles = List.of();
+
+  /** Description of the error that terminated the job, only set if the job failed. */
+  private volatile String errorMessage;
+
+  /**
+   * Time at which the persisted state was last written. The instance running a job rewrites its
+   * state periodically so a job whose state has not been updated recently was abandoned by an
+   * instance that stopped.
+   */
+  private volatile Instant updatedTime;
+
+  /** Used to cancel the background task that is executing the job. */
+  private volatile Future<?> future;
+
+  /**
+   * Initializes an instance with the specified parameters. The job starts out in {@link
+   * Status#ACCEPTED} status.
+   *
+   * @param jobId unique identifier for the job
+   * @param contractId the Part D contract id to export beneficiaries for
+   * @param yearMonth the enrollment month to export beneficiaries for
+   * @param resourceTypes the resource types to include in the output
+   * @param requestHeaders the headers of the kick-off request
+   * @param requester distinguished name of the client certificate used for the kick-off request
+   * @param requestUrl the complete URL of the kick-off request
+   * @param transactionTime the data's transaction time
+   * @param directory directory that output files will be written to
+   * @param createdTime time at which the job was accepted
+   */
+  public BulkExportJob(
+      String jobId,
+      String contractId,
+      YearMonth yearMonth,
+      Set<ResourceType> resourceTypes,
+      RequestHeaders requestHeaders,
+      String requester,
+      String requestUrl,
+      Instant transactionTime,
+      Path directory,
+      Instant createdTime) {
+    this.jobId = jobId;
+    this.contractId = contractId;
+    this.yearMonth = yearMonth;
+    this.resourceTypes = Set.copyOf(resourceTypes);
+    this.requestHeaders = requestHeaders;
+    this.requester = requester;
+    this.requestUrl = requestUrl;
+    this.transactionTime = transactionTime;
+    this.directory = directory;
+    this.createdTime = createdTime;
+    this.updatedTime = createdTime;
+  }
+
+  /**
+   * Determines if the job has stopped running, either successfully or not.
+   *
+   * @return true if the job is completed, failed, or cancelled
+   */
+  public boolean isFinished() {
+    return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+  }
+
+  /**
+   * Adds the specified number of beneficiaries to the progress count.
+   *
+   * @param count number of beneficiaries just processed
+   */
+  void addProgress(int count) {
+    beneficiaryCount.addAndGet(count);
+  }
+
+  /**
+   * Records the {@link Future} of the background task executing this job.
+   *
+   * @param future the future
+   */
+  void setFuture(Future<?> future) {
+    this.future = future;
+  }
+
+  /** Marks the job as running. */
+  void markInProgress() {
+    status = Status.IN_PROGRESS;
+  }
+
+  /**
+   * Marks the job as successfully completed.
+   *
+   * @param outputFiles the files written by the job
+   */
+  void markCompleted(List<NdjsonFileWriter.OutputFile> outputFiles) {
+    this.outputFiles = List.copyOf(outputFiles);
+    status = Status.COMPLETED;
+  }
+
+  /**
+   * Marks the job as failed.
+   *
+   * @param errorMessage description of the failure
+   */
+  void markFailed(String errorMessage) {
+    this.errorMessage = errorMessage;
+    status = Status.FAILED;
+  }
+
+  /** Marks the job as cancelled and interrupts its background task if it is running. */
+  void markCancelled() {
+    status = Status.CANCELLED;
+    if (future != null) {
+      future.cancel(true);
+    }
+  }
+
+  /**
+   * Writes the current state of this job to the {@link #STATE_FILE_NAME} file in its directory. The
+   * state is written to a temporary file and then moved into place so that other instances never
+   * see a partially written file.
+   *
+   * @param now the current time, recorded as the {@link #updatedTime}
+   * @throws IOException if the file could not be written, including because the directory was
+   *     deleted when the job was cancelled
+   */
+  synchronized void writeState(Instant now) throws IOException {
+    updatedTime = now;
+    final State state =
+        new State(
+            jobId,
+            contractId,
+            yearMonth.toString(),
+            resourceTypes.stream().map(ResourceType::name).sorted().collect(Collectors.toList()),
+            requester,
+            requestUrl,
+            transactionTime.toString(),
+            createdTime.toString(),
+            updatedTime.toString(),
+            status,
+            beneficiaryCount.get(),
+            errorMessage,
+            outputFiles.stream()
+                .map(
+                    f ->
+                        new StateFile(
+                            f.getResourceType(),
+                            f.getPath().getFileName().toString(),
+                            f.getCount()))
+                .collect(Collectors.toList()));
+    final Path tempPath = Files.createTempFile(directory, STATE_FILE_NAME, ".tmp");
+    try {
+      try (OutputStream output = Files.newOutputStream(tempPath)) {
+        objectMapper.writeValue(output, state);
+      }
+      Files.move(
+          tempPath,
+          directory.resolve(STATE_FILE_NAME),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+  }
+
+  /**
+   * Reads the state of a job previously written by {@link #writeState}.
+   *
+   * @param directory the job's directory
+   * @return the job or empty if the directory has no state file
+   * @throws IOException if the file could not be read or parsed
+   */
+  static Optional<BulkExportJob> readState(Path directory) throws IOException {
+    final State state;
+    try (InputStream input = Files.newInputStream(directory.resolve(STATE_FILE_NAME))) {
+      state = objectMapper.readValue(input, State.class);
+    } catch (NoSuchFileException ex) {
+      return Optional.empty();
+    }
+    final BulkExportJob job =
+        new BulkExportJob(
+            state.jobId(),
+            state.contractId(),
+            YearMonth.parse(state.yearMonth()),
+            state.resourceTypes().stream().map(ResourceType::valueOf).collect(Collectors.toSet()),
+            null,
+            state.requester(),
+            state.requestUrl(),
+            Instant.parse(state.transactionTime()),
+            directory,
+            Instant.parse(state.createdTime()));
+    job.updatedTime = Instant.parse(state.updatedTime());
+    job.status = state.status();
+    job.beneficiaryCount.set(state.beneficiaryCount());
+    job.errorMessage = state.errorMessage();
+    job.outputFiles =
+        state.outputFiles().stream()
+            .map(
+                f ->
+                    new NdjsonFileWriter.OutputFile(
+                        f.resourceType(), directory.resolve(f.fileName()), f.count()))
+            .collect(Collectors.toUnmodifiableList());
+    return Optional.of(job);
+  }
+
+  /**
+   * The persisted form of a job. Times are stored as ISO-8601 strings.
+   *
+   * @param jobId the job id
+   * @param contractId the contract id
+   * @param yearMonth the enrollment month
+   * @param resourceTypes names of the resource types
+   * @param requester the requesting client certificate's distinguished name
+   * @param requestUrl the kick-off request URL
+   * @param transactionTime the data's transaction time
+   * @param createdTime when the job was accepted
+   * @param updatedTime when the state was written
+   * @param status the job's status
+   * @param beneficiaryCount number of beneficiaries processed
+   * @param errorMessage the error message of a failed job
+   * @param outputFiles the output files of a completed job
+   */
+  record State(
+      String jobId,
+      String contractId,
+      String yearMonth,
+      List<String> resourceTypes,
+      String requester,
+      String requestUrl,
+      String transactionTime,
+      String createdTime,
+      String updatedTime,
+      Status status,
+      long beneficiaryCount,
+      String errorMessage,
+      List<StateFile> outputFiles) {}
+
+  /**
+   * The persisted form of an output file.
+   *
+   * @param resourceType the type of resources in the file
+   * @param fileName name of the file within the job's directory
+   * @param count number of resources in the file
+   */
+  record StateFile(String resourceType, String fileName, int count) {}
+}
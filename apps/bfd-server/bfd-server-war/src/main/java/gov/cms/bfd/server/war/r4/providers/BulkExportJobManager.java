@@ -0,0 +1,693 @@
+package gov.cms.bfd.server.war.r4.providers;
+
+import static gov.cms.bfd.server.war.SpringConfiguration.SSM_PATH_EXPORT_BATCH_SIZE;
+import static gov.cms.bfd.server.war.SpringConfiguration.SSM_PATH_EXPORT_DIRECTORY;
+import static gov.cms.bfd.server.war.SpringConfiguration.SSM_PATH_EXPORT_MAX_BENES_PER_SECOND;
+import static gov.cms.bfd.server.war.SpringConfiguration.SSM_PATH_EXPORT_RESOURCES_PER_FILE;
+import static gov.cms.bfd.server.war.SpringConfiguration.SSM_PATH_EXPORT_RETENTION_HOURS;
+import static gov.cms.bfd.server.war.SpringConfiguration.SSM_PATH_EXPORT_THREADS;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import gov.cms.bfd.model.rif.entities.Beneficiary;
+import gov.cms.bfd.model.rif.entities.BeneficiaryMonthly;
+import gov.cms.bfd.model.rif.entities.BeneficiaryMonthly_;
+import gov.cms.bfd.model.rif.entities.Beneficiary_;
+import gov.cms.bfd.server.war.ReplicaRoutingDataSource;
+import gov.cms.bfd.server.war.commons.LoadedFilterManager;
+import gov.cms.bfd.server.war.commons.RequestHeaders;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.apache.commons.io.file.PathUtils;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.hl7.fhir.r4.model.ResourceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the Part D contract roster exports requested through {@link R4BulkExportProvider} on a small
+ * dedicated thread pool so that they never occupy request threads. Each job streams the matching
+ * beneficiary ids from the database using a server side cursor, loads and transforms the
+ * beneficiaries in fixed size batches, and writes the resulting resources to NDJSON files on local
+ * disk using a {@link NdjsonFileWriter}. Every batch passes through a {@link BulkExportThrottle}
+ * first so that exports back off whenever live requests are waiting for database connections.
+ *
+ * <p>Jobs run on the server instance that accepted them but their state and output are kept in the
+ * export directory so that status, download, and cancel requests can be served by any instance. In
+ * deployments with more than one instance behind a load balancer the export directory must
+ * therefore be shared storage (such as EFS) mounted at the same path on every instance. The
+ * instance running a job rewrites its state at least once a minute and jobs whose state has not
+ * been updated for {@link #ABANDONED_JOB_TIMEOUT} are reported as failed since the instance running
+ * them must have stopped. Cancelling a job deletes its directory, which also signals the instance
+ * running the job to stop. Jobs and their output are discarded once they are older than the
+ * configured retention period.
+ */
+@Component
+public class BulkExportJobManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BulkExportJobManager.class);
+
+  /** Name of the subdirectory of the temp directory used when no directory is configured. */
+  private static final String DEFAULT_DIRECTORY_NAME = "bfd-export";
+
+  /** How long to pause exports before checking for waiting live traffic again. */
+  private static final Duration LIVE_TRAFFIC_BACKOFF = Duration.ofMillis(250);
+
+  /**
+   * How long the state of an unfinished job can go without being updated before the job is
+   * considered abandoned.
+   */
+  @VisibleForTesting static final Duration ABANDONED_JOB_TIMEOUT = Duration.ofMinutes(5);
+
+  /** Number of beneficiary ids fetched from the server side cursor per round trip. */
+  private static final int CURSOR_FETCH_SIZE = 1000;
+
+  /** The metric registry. */
+  private final MetricRegistry metricRegistry;
+
+  /** Used to record the transaction time of the data in each job. */
+  private final LoadedFilterManager loadedFilterManager;
+
+  /** Transforms beneficiaries into {@link org.hl7.fhir.r4.model.Patient} resources. */
+  private final BeneficiaryTransformerV2 beneficiaryTransformer;
+
+  /** Transforms beneficiaries into {@link org.hl7.fhir.r4.model.Coverage} resources. */
+  private final CoverageTransformerV2 coverageTransformer;
+
+  /** Used to create the long-lived entity manager for each job. */
+  private final EntityManagerFactory entityManagerFactory;
+
+  /** Limits how quickly jobs read from the database. */
+  private final BulkExportThrottle throttle;
+
+  /** Root directory containing one subdirectory per job. */
+  private final Path rootDirectory;
+
+  /** Number of beneficiaries loaded and transformed at a time. */
+  private final int batchSize;
+
+  /** Maximum number of resources written to each output file. */
+  private final int resourcesPerFile;
+
+  /** How long jobs and their output are retained after being accepted. */
+  private final Duration retention;
+
+  /** Runs the jobs. */
+  private final ExecutorService executor;
+
+  /** Source of the current time. */
+  private final Clock clock;
+
+  /** Jobs accepted by this instance that have not been cancelled or purged, indexed by job id. */
+  private final Map<String, BulkExportJob> jobs = new ConcurrentHashMap<>();
+
+  /**
+   * Instantiates a new manager. Spring will call this constructor for us using configuration values
+   * from SSM with sensible defaults.
+   *
+   * @param metricRegistry the metric registry
+   * @param loadedFilterManager the loaded filter manager
+   * @param beneficiaryTransformer the beneficiary transformer
+   * @param coverageTransformer the coverage transformer
+   * @param entityManagerFactory used to create entity managers for jobs
+   * @param dataSource the application's data source, used to detect waiting live traffic
+   * @param directory root directory for output files, blank for a subdirectory of the temp
+   *     directory
+   * @param threads maximum number of jobs to run at the same time
+   * @param batchSize number of beneficiaries loaded and transformed at a time
+   * @param resourcesPerFile maximum number of resources written to each output file
+   * @param maxBenesPerSecond maximum number of beneficiaries processed per second across all jobs
+   * @param retentionHours number of hours that jobs and their output are retained
+   */
+  @Autowired
+  public BulkExportJobManager(
+      MetricRegistry metricRegistry,
+      LoadedFilterManager loadedFilterManager,
+      BeneficiaryTransformerV2 beneficiaryTransformer,
+      CoverageTransformerV2 coverageTransformer,
+      EntityManagerFactory entityManagerFactory,
+      DataSource dataSource,
+      @Value("${" + SSM_PATH_EXPORT_DIRECTORY + ":}") String directory,
+      @Value("${" + SSM_PATH_EXPORT_THREADS + ":1}") int threads,
+      @Value("${" + SSM_PATH_EXPORT_BATCH_SIZE + ":500}") int batchSize,
+      @Value("${" + SSM_PATH_EXPORT_RESOURCES_PER_FILE + ":10000}") int resourcesPerFile,
+      @Value("${" + SSM_PATH_EXPORT_MAX_BENES_PER_SECOND + ":1000}") int maxBenesPerSecond,
+      @Value("${" + SSM_PATH_EXPORT_RETENTION_HOURS + ":24}") int retentionHours) {
+    this(
+        metricRegistry,
+        loadedFilterManager,
+        beneficiaryTransformer,
+        coverageTransformer,
+        entityManagerFactory,
+        new BulkExportThrottle(
+            maxBenesPerSecond, liveTrafficWaitingCheck(dataSource), LIVE_TRAFFIC_BACKOFF),
+        exportDirectory(directory),
+        batchSize,
+        resourcesPerFile,
+        Duration.ofHours(retentionHours),
+        Executors.newFixedThreadPool(
+            threads,
+            r -> {
+              Thread t = new Thread(r);
+              t.setName("bulk_export");
+              t.setDaemon(true);
+              return t;
+            }),
+        Clock.systemUTC());
+  }
+
+  /**
+   * Instantiates a new manager using explicit dependencies. Used directly by tests.
+   *
+   * @param metricRegistry the metric registry
+   * @param loadedFilterManager the loaded filter manager
+   * @param beneficiaryTransformer the beneficiary transformer
+   * @param coverageTransformer the coverage transformer
+   * @param entityManagerFactory used to create entity managers for jobs
+   * @param throttle limits how quickly jobs read from the database
+   * @param rootDirectory root directory for output files
+   * @param batchSize number of beneficiaries loaded and transformed at a time
+   * @param resourcesPerFile maximum number of resources written to each output file
+   * @param retention how long jobs and their output are retained
+   * @param executor runs the jobs
+   * @param clock source of the current time
+   */
+  @VisibleForTesting
+  BulkExportJobManager(
+      MetricRegistry metricRegistry,
+      LoadedFilterManager loadedFilterManager,
+      BeneficiaryTransformerV2 beneficiaryTransformer,
+      CoverageTransformerV2 coverageTransformer,
+      EntityManagerFactory entityManagerFactory,
+      BulkExportThrottle throttle,
+      Path rootDirectory,
+      int batchSize,
+      int resourcesPerFile,
+      Duration retention,
+      ExecutorService executor,
+      Clock clock) {
+    this.metricRegistry = metricRegistry;
+    this.loadedFilterManager = loadedFilterManager;
+    this.beneficiaryTransformer = beneficiaryTransformer;
+    this.coverageTransformer = coverageTransformer;
+    this.entityManagerFactory = entityManagerFactory;
+    this.throttle = throttle;
+    this.rootDirectory = rootDirectory;
+    this.batchSize = batchSize;
+    this.resourcesPerFile = resourcesPerFile;
+    this.retention = retention;
+    this.executor = executor;
+    this.clock = clock;
+  }
+
+  /**
+   * Creates and queues a new export job.
+   *
+   * @param contractId the Part D contract id to export beneficiaries for
+   * @param yearMonth the enrollment month to export beneficiaries for
+   * @param resourceTypes the resource types to include in the output
+   * @param requestHeaders the headers of the kick-off request
+   * @param requester distinguished name of the client certificate used for the kick-off request
+   * @param requestUrl the complete URL of the kick-off request
+   * @return the new job
+   * @throws IOException if the job's output directory or state could not be written
+   */
+  public BulkExportJob submit(
+      String contractId,
+      YearMonth yearMonth,
+      Set<ResourceType> resourceTypes,
+      RequestHeaders requestHeaders,
+      String requester,
+      String requestUrl)
+      throws IOException {
+    final String jobId = UUID.randomUUID().toString();
+    final Path directory = Files.createDirectories(rootDirectory.resolve(jobId));
+    final BulkExportJob job =
+        new BulkExportJob(
+            jobId,
+            contractId,
+            yearMonth,
+            resourceTypes,
+            requestHeaders,
+            requester,
+            requestUrl,
+            loadedFilterManager.getTransactionTime(),
+            directory,
+            clock.instant());
+    job.writeState(clock.instant());
+    jobs.put(jobId, job);
+    job.setFuture(executor.submit(() -> runJob(job)));
+    LOGGER.info(
+        "accepted export job {} for contract {} month {} types {}",
+        jobId,
+        contractId,
+        yearMonth,
+        resourceTypes);
+    return job;
+  }
+
+  /**
+   * Looks up a job by its id. Jobs accepted by this instance are found in memory. Any other job is
+   * read from its state file in the export directory. An unfinished job read from disk whose state
+   * has not been updated within {@link #ABANDONED_JOB_TIMEOUT} is reported as failed.
+   *
+   * @param jobId the job id
+   * @return the job or empty if no such job exists
+   */
+  public Optional<BulkExportJob> findJob(String jobId) {
+    final BulkExportJob job = jobs.get(jobId);
+    if (job != null) {
+      return Optional.of(job);
+    }
+    return readJob(jobId)
+        .map(
+            stored -> {
+              if (!stored.isFinished()
+                  && stored
+                      .getUpdatedTime()
+                      .isBefore(clock.instant().minus(ABANDONED_JOB_TIMEOUT))) {
+                stored.markFailed("export interrupted, please submit a new request");
+              }
+              return stored;
+            });
+  }
+
+  /**
+   * Cancels a job (if it is still running) and deletes it along with its output. A job running on
+   * another instance stops once that instance sees that its directory has been deleted.
+   *
+   * @param jobId the job id
+   * @return true if the job existed
+   */
+  public boolean cancel(String jobId) {
+    final BulkExportJob job = jobs.remove(jobId);
+    if (job == null) {
+      final Optional<BulkExportJob> stored = readJob(jobId);
+      stored.ifPresent(this::deleteOutput);
+      return stored.isPresent();
+    }
+    if (!job.isFinished()) {
+      job.markCancelled();
+    }
+    deleteOutput(job);
+    return true;
+  }
+
+  /**
+   * Removes every job (and its output) in the export directory that is older than the retention
+   * period, regardless of which instance accepted it. Directories without a readable state file are
+   * removed once they have not been modified for the retention period. Runs periodically on
+   * Spring's scheduler thread.
+   */
+  @Scheduled(fixedDelay = 15, initialDelay = 15, timeUnit = TimeUnit.MINUTES)
+  public void purgeExpiredJobs() {
+    if (!Files.isDirectory(rootDirectory)) {
+      return;
+    }
+    final Instant cutoff = clock.instant().minus(retention);
+    final List<Path> directories;
+    try (Stream<Path> paths = Files.list(rootDirectory)) {
+      directories = paths.filter(Files::isDirectory).collect(Collectors.toList());
+    } catch (IOException ex) {
+      LOGGER.warn("unable to list export directory {}: {}", rootDirectory, ex.getMessage());
+      return;
+    }
+    for (Path directory : directories) {
+      final String jobId = directory.getFileName().toString();
+      final Optional<BulkExportJob> job = findJob(jobId);
+      if (job.isPresent()) {
+        if (job.get().getCreatedTime().isBefore(cutoff)) {
+          LOGGER.info("removing expired export job {}", jobId);
+          cancel(jobId);
+        }
+      } else if (lastModified(directory).isBefore(cutoff)) {
+        LOGGER.info("removing export directory without a job {}", jobId);
+        deleteDirectory(directory);
+      }
+    }
+  }
+
+  /**
+   * Rewrites the state of every unfinished job accepted by this instance so that other instances
+   * can tell that they have not been abandoned. Jobs whose directory has been deleted by a cancel
+   * request on another instance are cancelled. Runs periodically on Spring's scheduler thread.
+   */
+  @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+  public void updateRunningJobs() {
+    for (BulkExportJob job : List.copyOf(jobs.values())) {
+      if (!job.isFinished()) {
+        saveState(job);
+      }
+    }
+  }
+
+  /** Stops all running jobs when the application shuts down. */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Executes the job on a worker thread. Updates the job's status as it progresses. Any exception
+   * is caught and recorded in the job.
+   *
+   * @param job the job to execute
+   */
+  @VisibleForTesting
+  void runJob(BulkExportJob job) {
+    if (job.getStatus() != BulkExportJob.Status.ACCEPTED) {
+      return;
+    }
+    job.markInProgress();
+    saveState(job);
+    final Timer.Context timer =
+        metricRegistry.timer(MetricRegistry.name(getClass().getSimpleName(), "job")).time();
+    try {
+      final List<NdjsonFileWriter.OutputFile> outputFiles = exportBeneficiaries(job);
+      job.markCompleted(outputFiles);
+      LOGGER.info(
+          "completed export job {}: benes={} files={}",
+          job.getJobId(),
+          job.getBeneficiaryCount().get(),
+          outputFiles.size());
+    } catch (InterruptedException ex) {
+      LOGGER.info("export job {} was interrupted", job.getJobId());
+      if (job.getStatus() != BulkExportJob.Status.CANCELLED) {
+        job.markFailed("export interrupted");
+      }
+      Thread.currentThread().interrupt();
+    } catch (Exception ex) {
+      if (job.getStatus() == BulkExportJob.Status.CANCELLED) {
+        LOGGER.info("export job {} was cancelled", job.getJobId());
+      } else {
+        LOGGER.error("export job {} failed: {}", job.getJobId(), ex.getMessage(), ex);
+        job.markFailed("export failed: " + ex.getClass().getSimpleName());
+      }
+    } finally {
+      timer.stop();
+      if (job.getStatus() != BulkExportJob.Status.CANCELLED) {
+        saveState(job);
+      }
+    }
+  }
+
+  /**
+   * Streams all matching beneficiary ids using a server side cursor and writes the resources for
+   * each batch of beneficiaries to the job's output directory. The whole export runs in a single
+   * read-only transaction so that output is consistent and so that PostgreSQL keeps the cursor open
+   * between fetches.
+   *
+   * @param job the job to execute
+   * @return the files that were written
+   * @throws IOException if writing fails
+   * @throws InterruptedException if the job is cancelled while waiting on the throttle
+   */
+  private List<NdjsonFileWriter.OutputFile> exportBeneficiaries(BulkExportJob job)
+      throws IOException, InterruptedException {
+    final EntityManager entityManager = entityManagerFactory.createEntityManager();
+    try {
+      entityManager.unwrap(Session.class).setDefaultReadOnly(true);
+      entityManager.getTransaction().begin();
+      try (NdjsonFileWriter writer =
+              new NdjsonFileWriter(
+                  FhirContext.forR4Cached().newJsonParser(), job.getDirectory(), resourcesPerFile);
+          Stream<Long> beneIds = streamBeneficiaryIds(entityManager, job)) {
+        final Iterator<Long> iterator = beneIds.iterator();
+        final List<Long> batch = new ArrayList<>(batchSize);
+        while (iterator.hasNext()) {
+          batch.add(iterator.next());
+          if (batch.size() >= batchSize || !iterator.hasNext()) {
+            exportBatch(entityManager, job, writer, batch);
+            batch.clear();
+          }
+        }
+        writer.close();
+        return writer.getOutputFiles();
+      } finally {
+        entityManager.getTransaction().rollback();
+      }
+    } finally {
+      entityManager.close();
+    }
+  }
+
+  /**
+   * Waits for the throttle and then loads, transforms, and writes one batch of beneficiaries. The
+   * persistence context is cleared afterwards so that memory use does not grow with the size of the
+   * export.
+   *
+   * @param entityManager the job's entity manager
+   * @param job the job being executed
+   * @param writer receives the resources
+   * @param beneIds ids of the beneficiaries in the batch
+   * @throws IOException if writing fails
+   * @throws InterruptedException if the job is cancelled while waiting on the throttle
+   */
+  private void exportBatch(
+      EntityManager entityManager, BulkExportJob job, NdjsonFileWriter writer, List<Long> beneIds)
+      throws IOException, InterruptedException {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new InterruptedException();
+    }
+    final Duration backoff = throttle.acquire(beneIds.size());
+    if (!backoff.isZero()) {
+      metricRegistry
+          .timer(MetricRegistry.name(getClass().getSimpleName(), "live_traffic_backoff"))
+          .update(backoff);
+    }
+
+    final List<Beneficiary> beneficiaries;
+    try (Timer.Context ignored =
+        metricRegistry
+            .timer(MetricRegistry.name(getClass().getSimpleName(), "query", "benes_by_ids"))
+            .time()) {
+      beneficiaries = queryBeneficiariesByIds(entityManager, beneIds);
+    }
+    for (Beneficiary beneficiary : beneficiaries) {
+      if (job.getResourceTypes().contains(ResourceType.Patient)) {
+        writer.write(beneficiaryTransformer.transform(beneficiary, job.getRequestHeaders()));
+      }
+      if (job.getResourceTypes().contains(ResourceType.Coverage)) {
+        for (var coverage : coverageTransformer.transform(beneficiary)) {
+          writer.write(coverage);
+        }
+      }
+    }
+    entityManager.clear();
+    job.addProgress(beneIds.size());
+    if (!saveState(job)) {
+      throw new InterruptedException();
+    }
+  }
+
+  /**
+   * Creates a stream of the ids of all beneficiaries enrolled in the job's contract for the job's
+   * month, in ascending order. A fetch size is set so that the JDBC driver uses a server side
+   * cursor rather than reading the whole result set into memory.
+   *
+   * @param entityManager the job's entity manager
+   * @param job the job being executed
+   * @return the stream of ids
+   */
+  private Stream<Long> streamBeneficiaryIds(EntityManager entityManager, BulkExportJob job) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> beneIdCriteria = builder.createQuery(Long.class);
+    Root<BeneficiaryMonthly> beneMonthlyRoot = beneIdCriteria.from(BeneficiaryMonthly.class);
+    beneIdCriteria.select(
+        beneMonthlyRoot.get(BeneficiaryMonthly_.parentBeneficiary).get(Beneficiary_.beneficiaryId));
+    beneIdCriteria.where(
+        builder.equal(
+            beneMonthlyRoot.get(BeneficiaryMonthly_.yearMonth), job.getYearMonth().atDay(1)),
+        builder.equal(
+            beneMonthlyRoot.get(BeneficiaryMonthly_.partDContractNumberId), job.getContractId()));
+    beneIdCriteria.orderBy(builder.asc(beneMonthlyRoot.get(BeneficiaryMonthly_.parentBeneficiary)));
+    return entityManager
+        .createQuery(beneIdCriteria)
+        .setHint(HibernateHints.HINT_FETCH_SIZE, CURSOR_FETCH_SIZE)
+        .setHint(HibernateHints.HINT_READ_ONLY, true)
+        .getResultStream();
+  }
+
+  /**
+   * Loads the beneficiaries with the specified ids along with their history records.
+   *
+   * @param entityManager the job's entity manager
+   * @param beneIds the ids to load
+   * @return the beneficiaries in ascending id order
+   */
+  private List<Beneficiary> queryBeneficiariesByIds(
+      EntityManager entityManager, List<Long> beneIds) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Beneficiary> beneCriteria = builder.createQuery(Beneficiary.class).distinct(true);
+    Root<Beneficiary> beneRoot = beneCriteria.from(Beneficiary.class);
+    beneRoot.fetch(Beneficiary_.beneficiaryHistories, JoinType.LEFT);
+    beneCriteria.where(beneRoot.get(Beneficiary_.beneficiaryId).in(beneIds));
+    final List<Beneficiary> beneficiaries =
+        new ArrayList<>(entityManager.createQuery(beneCriteria).getResultList());
+    beneficiaries.sort(Comparator.comparing(Beneficiary::getBeneficiaryId));
+    return beneficiaries;
+  }
+
+  /**
+   * Writes the job's current state to its directory. If the directory no longer exists the job was
+   * cancelled by a request served by another instance so the job is cancelled here too. Other
+   * failures are logged but otherwise ignored since the state will be written again soon.
+   *
+   * @param job the job whose state should be written
+   * @return false if the job has been cancelled
+   */
+  private boolean saveState(BulkExportJob job) {
+    if (!Files.isDirectory(job.getDirectory())) {
+      LOGGER.info("export job {} was deleted", job.getJobId());
+      jobs.remove(job.getJobId());
+      job.markCancelled();
+      return false;
+    }
+    try {
+      job.writeState(clock.instant());
+    } catch (IOException ex) {
+      LOGGER.warn("unable to save state of export job {}: {}", job.getJobId(), ex.getMessage());
+    }
+    return true;
+  }
+
+  /**
+   * Reads the state of a job from the export directory. Ids that are not UUIDs are rejected without
+   * touching the file system so that clients can never escape the export directory.
+   *
+   * @param jobId the job id
+   * @return the job or empty if no such job exists
+   */
+  private Optional<BulkExportJob> readJob(String jobId) {
+    try {
+      if (!UUID.fromString(jobId).toString().equals(jobId)) {
+        return Optional.empty();
+      }
+    } catch (IllegalArgumentException ex) {
+      return Optional.empty();
+    }
+    try {
+      return BulkExportJob.readState(rootDirectory.resolve(jobId));
+    } catch (IOException ex) {
+      LOGGER.warn("unable to read state of export job {}: {}", jobId, ex.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Deletes the job's output directory.
+   *
+   * @param job the job whose output should be deleted
+   */
+  private void deleteOutput(BulkExportJob job) {
+    deleteDirectory(job.getDirectory());
+  }
+
+  /**
+   * Deletes a directory and everything in it. Failures are logged but otherwise ignored since the
+   * directory will be retried on the next purge.
+   *
+   * @param directory the directory to delete
+   */
+  private static void deleteDirectory(Path directory) {
+    try {
+      if (Files.exists(directory)) {
+        PathUtils.deleteDirectory(directory);
+      }
+    } catch (IOException ex) {
+      LOGGER.warn("unable to delete export directory {}: {}", directory, ex.getMessage());
+    }
+  }
+
+  /**
+   * Gets the last modified time of a file, or the epoch if it cannot be determined.
+   *
+   * @param path the file
+   * @return the last modified time
+   */
+  private static Instant lastModified(Path path) {
+    try {
+      return Files.getLastModifiedTime(path).toInstant();
+    } catch (IOException ex) {
+      return Instant.EPOCH;
+    }
+  }
+
+  /**
+   * Determines the root directory for job output.
+   *
+   * @param directory the configured directory, blank for a subdirectory of the temp directory
+   * @return the root directory
+   */
+  private static Path exportDirectory(String directory) {
+    if (Strings.isNullOrEmpty(directory)) {
+      LOGGER.warn("no export directory configured, export jobs are only visible to this instance");
+      return Path.of(System.getProperty("java.io.tmpdir"), DEFAULT_DIRECTORY_NAME);
+    }
+    return Path.of(directory);
+  }
+
+  /**
+   * Creates a check that reports whether any live requests are currently waiting for a connection
+   * from the application's Hikari connection pools. When read replicas are configured the primary
+   * and every replica pool are checked since requests may be waiting on any of them. If no pool can
+   * be located the check always returns false and exports are limited only by their rate.
+   *
+   * @param dataSource the application's data source
+   * @return the check
+   */
+  private static BooleanSupplier liveTrafficWaitingCheck(DataSource dataSource) {
+    final HikariDataSource hikariDataSource;
+    try {
+      if (dataSource.isWrapperFor(ReplicaRoutingDataSource.class)) {
+        return dataSource.unwrap(ReplicaRoutingDataSource.class)::hasThreadsAwaitingConnection;
+      }
+      hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+    } catch (SQLException ex) {
+      LOGGER.warn("unable to find connection pool, exports will not yield to live traffic");
+      return () -> false;
+    }
+    return () -> {
+      final HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+      return pool != null && pool.getThreadsAwaitingConnection() > 0;
+    };
+  }
+}
@@ -0,0 +1,58 @@
+package gov.cms.bfd.server.war.r4.providers;
+
+import com.google.common.util.concurrent.RateLimiter;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limits the rate at which {@link BulkExportJobManager} processes beneficiaries so that background
+ * exports do not starve live API traffic. Two mechanisms are combined:
+ *
+ * <ul>
+ *   <li>A fixed upper bound on beneficiaries processed per second across all export jobs.
+ *   <li>A back off that pauses exports entirely whenever live requests are waiting for a database
+ *       connection.
+ * </ul>
+ */
+public class BulkExportThrottle {
+  /** Enforces the upper bound on beneficiaries per second. */
+  private final RateLimiter rateLimiter;
+
+  /** Returns true whenever live traffic is waiting for database connections. */
+  private final BooleanSupplier liveTrafficWaiting;
+
+  /** How long to pause before checking {@link #liveTrafficWaiting} again. */
+  private final Duration backoff;
+
+  /**
+   * Initializes an instance.
+   *
+   * @param beneficiariesPerSecond maximum number of beneficiaries to process per second
+   * @param liveTrafficWaiting returns true whenever exports should yield to live traffic
+   * @param backoff how long to pause before checking for live traffic again
+   */
+  public BulkExportThrottle(
+      double beneficiariesPerSecond, BooleanSupplier liveTrafficWaiting, Duration backoff) {
+    this.rateLimiter = RateLimiter.create(beneficiariesPerSecond);
+    this.liveTrafficWaiting = liveTrafficWaiting;
+    this.backoff = backoff;
+  }
+
+  /**
+   * Blocks until live traffic is no longer waiting for database connections and the rate limit
+   * allows the specified number of beneficiaries to be processed.
+   *
+   * @param beneficiaryCount number of beneficiaries about to be processed
+   * @return total time spent waiting for live traffic, excluding rate limiting
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public Duration acquire(int beneficiaryCount) throws InterruptedException {
+    final long startNanos = System.nanoTime();
+    while (liveTrafficWaiting.getAsBoolean()) {
+      Thread.sleep(backoff.toMillis());
+    }
+    final Duration backoffTime = Duration.ofNanos(System.nanoTime() - startNanos);
+    rateLimiter.acquire(beneficiaryCount);
+    return backoffTime;
+  }
+}
@@ -0,0 +1,167 @@
+package gov.cms.bfd.server.war.r4.providers;
+
+import ca.uhn.fhir.parser.IParser;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Value;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+
+/**
+ * Writes FHIR resources as newline delimited JSON (NDJSON) files, one set of files per resource
+ * type. A new file is started whenever the current file for a resource type reaches a fixed number
+ * of resources so that clients can download (and retry downloading) output in reasonably sized
+ * pieces. Files are named {@code <type>-<n>.ndjson} with {@code n} starting at 1.
+ */
+public class NdjsonFileWriter implements Closeable {
+  /** The file name suffix used for all output files. */
+  public static final String FILE_SUFFIX = ".ndjson";
+
+  /** Used to encode resources. Must be a JSON parser with pretty printing disabled. */
+  private final IParser parser;
+
+  /** The directory that files are written to. */
+  private final Path directory;
+
+  /** Maximum number of resources written to any one file. */
+  private final int maxResourcesPerFile;
+
+  /** The file currently being written for each resource type. */
+  private final Map<String, OpenFile> openFiles = new LinkedHashMap<>();
+
+  /** Number of files started so far for each resource type. */
+  private final Map<String, Integer> fileCounts = new LinkedHashMap<>();
+
+  /** Files that have been completely written, in the order they were finished. */
+  private final List<OutputFile> finishedFiles = new ArrayList<>();
+
+  /**
+   * Initializes an instance.
+   *
+   * @param parser JSON parser used to encode resources
+   * @param directory directory to write files into (must already exist)
+   * @param maxResourcesPerFile maximum number of resources to write to each file
+   */
+  public NdjsonFileWriter(IParser parser, Path directory, int maxResourcesPerFile) {
+    if (maxResourcesPerFile < 1) {
+      throw new IllegalArgumentException("maxResourcesPerFile must be positive");
+    }
+    this.parser = parser.setPrettyPrint(false);
+    this.directory = directory;
+    this.maxResourcesPerFile = maxResourcesPerFile;
+  }
+
+  /**
+   * Appends the resource to the current file for its type, starting a new file first if the current
+   * one is full.
+   *
+   * @param resource the resource to write
+   * @throws IOException if the resource could not be written
+   */
+  public void write(IBaseResource resource) throws IOException {
+    final String type = resource.fhirType();
+    OpenFile file = openFiles.get(type);
+    if (file != null && file.count >= maxResourcesPerFile) {
+      finish(type, file);
+      file = null;
+    }
+    if (file == null) {
+      final int fileNumber = fileCounts.merge(type, 1, Integer::sum);
+      final Path path = directory.resolve(type + "-" + fileNumber + FILE_SUFFIX);
+      file = new OpenFile(path, Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+      openFiles.put(type, file);
+    }
+    parser.encodeResourceToWriter(resource, file.writer);
+    file.writer.write('\n');
+    file.count += 1;
+  }
+
+  /**
+   * Gets the files written so far. Only complete once {@link #close} has been called.
+   *
+   * @return the files in the order they were finished
+   */
+  public List<OutputFile> getOutputFiles() {
+    return List.copyOf(finishedFiles);
+  }
+
+  /**
+   * Closes all open files and adds them to the list of output files.
+   *
+   * @throws IOException if any file could not be closed
+   */
+  @Override
+  public void close() throws IOException {
+    IOException error = null;
+    for (Map.Entry<String, OpenFile> entry : List.copyOf(openFiles.entrySet())) {
+      try {
+        finish(entry.getKey(), entry.getValue());
+      } catch (IOException ex) {
+        if (error == null) {
+          error = ex;
+        } else {
+          error.addSuppressed(ex);
+        }
+      }
+    }
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  /**
+   * Closes the file and records it as an output file.
+   *
+   * @param type the resource type of the file
+   * @param file the file to close
+   * @throws IOException if the file could not be closed
+   */
+  private void finish(String type, OpenFile file) throws IOException {
+    openFiles.remove(type);
+    file.writer.close();
+    finishedFiles.add(new OutputFile(type, file.path, file.count));
+  }
+
+  /** A file that is currently being written. */
+  private static class OpenFile {
+    /** Path to the file. */
+    private final Path path;
+
+    /** Writer used to append to the file. */
+    private final Writer writer;
+
+    /** Number of resources written to the file so far. */
+    private int count;
+
+    /**
+     * Initializes an instance.
+     *
+     * @param path path to the file
+     * @param writer writer used to append to the file
+     */
+    private OpenFile(Path path, Writer writer) {
+      this.path = path;
+      this.writer = writer;
+    }
+  }
+
+  /** Describes a completely written output file. */
+  @Value
+  public static class OutputFile {
+    /** The FHIR resource type contained in the file. */
+    String resourceType;
+
+    /** Path to the file. */
+    Path path;
+
+    /** Number of resources in the file. */
+    int count;
+  }
+}
@@ -1,5 +1,6 @@
 package gov.cms.bfd.server.war.r4.providers;
 
+import static gov.cms.bfd.server.war.SpringConfiguration.PROP_JDBC_CLAIM_READS_ENABLED;
 import static java.util.Objects.requireNonNull;
 
 import ca.uhn.fhir.rest.param.DateRangeParam;
@@ -9,19 +10,23 @@ import com.google.common.annotations.VisibleForTesting;
 import com.newrelic.api.agent.Trace;
 import gov.cms.bfd.data.fda.lookup.FdaDrugCodeDisplayLookup;
 import gov.cms.bfd.data.npi.lookup.NPIOrgLookup;
+import gov.cms.bfd.server.war.commons.ClaimCursorLinkBuilder;
 import gov.cms.bfd.server.war.commons.ClaimType;
 import gov.cms.bfd.server.war.commons.CommonTransformerUtils;
+import gov.cms.bfd.server.war.commons.ParallelTransformer;
 import gov.cms.bfd.server.war.commons.QueryUtils;
+import gov.cms.bfd.server.war.commons.RequestProfile;
+import gov.cms.bfd.server.war.commons.SqlConditions;
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
-import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
@@ -33,6 +38,7 @@ import java.util.stream.Collectors;
 import org.hl7.fhir.r4.model.ExplanationOfBenefit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
@@ -60,6 +66,9 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
   private static final Logger LOGGER =
       LoggerFactory.getLogger(PatientClaimsEobTaskTransformerV2.class);
 
+  /** Name of the field holding the last updated time in the claim entities. */
+  private static final String LAST_UPDATED_FIELD = "lastUpdated";
+
   // +++++++++++++++++++++++++++++++++++
   // bean injected parameter values
   // +++++++++++++++++++++++++++++++++++
@@ -76,9 +85,15 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
   /** The samhsa matcher. */
   private final R4EobSamhsaMatcher samhsaMatcher;
 
+  /** transforms large claim lists in parallel chunks. */
+  private final ParallelTransformer parallelTransformer;
+
   /** Database entity manager. */
   private EntityManager entityManager;
 
+  /** True if claims should be read directly using JDBC rather than JPA. */
+  private boolean jdbcClaimReadsEnabled;
+
   // +++++++++++++++++++++++++++++++++++
   // setup parameter values
   // +++++++++++++++++++++++++++++++++++
@@ -104,6 +119,12 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
   /** whether to exclude SAMHSA claims. */
   private boolean excludeSamhsa = false;
 
+  /** claims must come after this cursor when keyset paging. */
+  private Optional<ClaimCursorLinkBuilder.Cursor> keysetCursor = Optional.empty();
+
+  /** maximum number of EOBs to return when keyset paging, zero when not keyset paging. */
+  private int keysetLimit = 0;
+
   // +++++++++++++++++++++++++++++++++++
   // task properties
   // +++++++++++++++++++++++++++++++++++
@@ -117,6 +138,12 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
   /** keep track of SAMHSA removals. */
   private final AtomicInteger samhsaRemovedCount = new AtomicInteger(0);
 
+  /** the profile of the request the task runs for, captured when the task is set up. */
+  private Optional<RequestProfile> requestProfile = Optional.empty();
+
+  /** time the task was set up, used to compute how long it waited for a thread. */
+  private long submittedNanos;
+
   /** the list of EOBs that we'll return. */
   private final List<ExplanationOfBenefit> eobs = new ArrayList<ExplanationOfBenefit>();
 
@@ -131,16 +158,19 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
    * @param samhsaMatcher the samhsa matcher bean
    * @param drugCodeDisplayLookup the drug code display lookup bean
    * @param npiOrgLookup the npi org lookup bean
+   * @param parallelTransformer the parallel transformer bean
    */
   public PatientClaimsEobTaskTransformerV2(
       MetricRegistry metricRegistry,
       R4EobSamhsaMatcher samhsaMatcher,
       FdaDrugCodeDisplayLookup drugCodeDisplayLookup,
-      NPIOrgLookup npiOrgLookup) {
+      NPIOrgLookup npiOrgLookup,
+      ParallelTransformer parallelTransformer) {
     this.metricRegistry = requireNonNull(metricRegistry);
     this.samhsaMatcher = requireNonNull(samhsaMatcher);
     this.drugCodeDisplayLookup = requireNonNull(drugCodeDisplayLookup);
     this.npiOrgLookup = requireNonNull(npiOrgLookup);
+    this.parallelTransformer = requireNonNull(parallelTransformer);
   }
 
   /**
@@ -166,6 +196,21 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
     this.lastUpdated = lastUpdated;
     this.serviceDate = serviceDate;
     this.excludeSamhsa = excludeSamhsa;
+    this.requestProfile = RequestProfile.current();
+    this.submittedNanos = System.nanoTime();
+  }
+
+  /**
+   * Enables keyset paging. Rather than loading every claim for the beneficiary the task loads
+   * claims in claim id order starting after the cursor and stops once it has enough EOBs, after
+   * service-date and SAMHSA filtering, to fill the limit.
+   *
+   * @param cursor claims must come after this cursor, empty for the first page.
+   * @param limit maximum number of EOBs to return.
+   */
+  public void setKeysetPaging(Optional<ClaimCursorLinkBuilder.Cursor> cursor, int limit) {
+    this.keysetCursor = requireNonNull(cursor);
+    this.keysetLimit = limit;
   }
 
   /**
@@ -180,6 +225,17 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
     this.entityManager = entityManager;
   }
 
+  /**
+   * Sets the {@link #jdbcClaimReadsEnabled}. When enabled the claims and their lines are read using
+   * the {@link ClaimType#getEntityRowMapper()} so that they never enter the persistence context.
+   *
+   * @param jdbcClaimReadsEnabled true if claims should be read directly using JDBC
+   */
+  @Value("${" + PROP_JDBC_CLAIM_READS_ENABLED + ":false}")
+  public void setJdbcClaimReadsEnabled(boolean jdbcClaimReadsEnabled) {
+    this.jdbcClaimReadsEnabled = jdbcClaimReadsEnabled;
+  }
+
   /**
    * Sets the {@link #includeTaxNumbers} which will turn on processing of NPI tax number info.
    *
@@ -197,10 +253,15 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
   @Override
   public PatientClaimsEobTaskTransformerV2 call() {
     LOGGER.debug("TransformPatientClaimsToEobTaskV2.call() started for {}", id);
-    try {
-      eobs.addAll(transformToEobs(findClaimTypeByPatient()));
-      if (excludeSamhsa) {
-        filterSamhsa(eobs);
+    final long startNanos = System.nanoTime();
+    try (RequestProfile.Attachment attachment = RequestProfile.attach(requestProfile)) {
+      if (keysetLimit > 0) {
+        findEobPageByPatient();
+      } else {
+        eobs.addAll(transformToEobs(findClaimTypeByPatient()));
+        if (excludeSamhsa) {
+          filterSamhsa(eobs);
+        }
       }
     } catch (NoResultException e) {
       LOGGER.warn(e.getMessage(), e);
@@ -209,19 +270,47 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
       // keep track of the Exception so we can provide to caller.
       LOGGER.error(e.getMessage(), e);
       taskException.set(e);
+    } finally {
+      recordProfile(startNanos);
     }
     return this;
   }
 
   /**
-   * Transform a list of claims to a list of {@link ExplanationOfBenefit} objects.
+   * Adds the time the task spent waiting for a thread, and a summary of the task, to the profile of
+   * the request it ran for.
+   *
+   * @param startNanos the time the task started running
+   */
+  private void recordProfile(long startNanos) {
+    requestProfile.ifPresent(
+        profile -> {
+          final long queueWaitNanos = startNanos - submittedNanos;
+          profile.add(RequestProfile.Phase.QUEUE_WAIT, queueWaitNanos);
+          profile.addTask(
+              new RequestProfile.TaskSummary(
+                  claimType.name().toLowerCase(),
+                  queueWaitNanos,
+                  System.nanoTime() - startNanos,
+                  eobs.size()));
+        });
+  }
+
+  /**
+   * Transform a list of claims to a list of {@link ExplanationOfBenefit} objects. Large lists are
+   * split into chunks that are transformed concurrently by the {@link ParallelTransformer}.
    *
    * @param claims the claims/events to transform
    * @return the {@link ExplanationOfBenefit} instances, one per claim/event
    */
   @Trace
   private List<ExplanationOfBenefit> transformToEobs(List<?> claims) {
-    return claims.stream().map(c -> transformEobClaim(c)).collect(Collectors.toList());
+    final long startNanos = System.nanoTime();
+    try {
+      return parallelTransformer.transform(claims, this::transformEobClaim);
+    } finally {
+      RequestProfile.record(RequestProfile.Phase.TRANSFORM, System.nanoTime() - startNanos);
+    }
   }
 
   /**
@@ -311,8 +400,7 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
     CriteriaBuilder builder = entityManager.getCriteriaBuilder();
     CriteriaQuery criteria = builder.createQuery((Class) claimType.getEntityClass());
     Root root = criteria.from(claimType.getEntityClass());
-    claimType.getEntityLazyAttributes().stream().forEach(a -> root.fetch(a));
-    criteria.select(root).distinct(true);
+    criteria.select(root);
 
     Predicate wherePredicate =
         builder.equal(root.get(claimType.getEntityBeneficiaryIdAttribute()), id);
@@ -332,7 +420,17 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
             "eobs_by_bene_id",
             claimType.name().toLowerCase())) {
       try {
-        claimEntities = entityManager.createQuery(criteria).getResultList();
+        if (jdbcClaimReadsEnabled) {
+          final SqlConditions conditions =
+              new SqlConditions()
+                  .addEquals(
+                      getColumnName(claimType.getEntityBeneficiaryIdAttribute().getName()), id);
+          lastUpdated.ifPresent(
+              range -> conditions.addLastUpdated(getColumnName(LAST_UPDATED_FIELD), range));
+          claimEntities = readClaimsWithJdbc(conditions);
+        } else {
+          claimEntities = QueryUtils.findWithSubselectFetch(entityManager, criteria);
+        }
       } finally {
         long eobsByBeneIdQueryNanoSeconds = timerEobQuery.stop();
         CommonTransformerUtils.recordQueryInMdc(
@@ -342,31 +440,192 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
       }
     }
 
+    return filterByServiceDate(claimEntities);
+  }
+
+  /**
+   * Loads the claims for one page of keyset paged results. Claim ids are queried in ascending order
+   * starting after the cursor, limited to the page size, and then the claims for those ids are
+   * loaded along with their lines. If filtering leaves fewer EOBs than the limit another batch is
+   * queried starting after the last claim id seen, until the limit is reached or no claims remain.
+   */
+  @Trace
+  private void findEobPageByPatient() {
+    Optional<Long> afterClaimId = keysetCursor.map(ClaimCursorLinkBuilder.Cursor::getClaimId);
+    boolean exclusive = keysetCursor.map(c -> c.isClaimIdExclusive(claimType)).orElse(true);
+    while (eobs.size() < keysetLimit) {
+      List<Long> claimIds = findClaimIdsByPatient(afterClaimId, exclusive, keysetLimit);
+      if (claimIds.isEmpty()) {
+        break;
+      }
+      List<ExplanationOfBenefit> batch =
+          transformToEobs(filterByServiceDate(findClaimsByIds(claimIds)));
+      if (excludeSamhsa) {
+        filterSamhsa(batch);
+      }
+      eobs.addAll(batch);
+      if (claimIds.size() < keysetLimit) {
+        break;
+      }
+      afterClaimId = Optional.of(claimIds.getLast());
+      exclusive = true;
+    }
+  }
+
+  /**
+   * Find the ids of claims for the beneficiary in ascending order, optionally starting after a
+   * given claim id.
+   *
+   * @param afterClaimId only include claim ids after this one, if present
+   * @param exclusive true if the claim id must be greater than afterClaimId, false if it may be
+   *     equal
+   * @param maxResults maximum number of ids to return
+   * @return the claim ids
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private List<Long> findClaimIdsByPatient(
+      Optional<Long> afterClaimId, boolean exclusive, int maxResults) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> criteria = builder.createQuery(Long.class);
+    Root root = criteria.from(claimType.getEntityClass());
+    Path<Long> claimIdPath = root.get(claimType.getEntityIdAttribute());
+    criteria.select(claimIdPath);
+
+    Predicate wherePredicate =
+        builder.equal(root.get(claimType.getEntityBeneficiaryIdAttribute()), id);
+    if (afterClaimId.isPresent()) {
+      wherePredicate =
+          builder.and(
+              wherePredicate,
+              exclusive
+                  ? builder.greaterThan(claimIdPath, afterClaimId.get())
+                  : builder.greaterThanOrEqualTo(claimIdPath, afterClaimId.get()));
+    }
+    if (lastUpdated.isPresent()) {
+      Predicate predicate = QueryUtils.createLastUpdatedPredicate(builder, root, lastUpdated.get());
+      wherePredicate = builder.and(wherePredicate, predicate);
+    }
+    criteria.where(wherePredicate).orderBy(builder.asc(claimIdPath));
+
+    List<Long> claimIds = null;
+    try (Timer.Context timerEobQuery =
+        CommonTransformerUtils.createMetricsTimer(
+            metricRegistry,
+            metricRegistry.getClass().getSimpleName(),
+            "query",
+            "eob_ids_by_bene_id",
+            claimType.name().toLowerCase())) {
+      try {
+        claimIds = entityManager.createQuery(criteria).setMaxResults(maxResults).getResultList();
+      } finally {
+        long eobIdsByBeneIdQueryNanoSeconds = timerEobQuery.stop();
+        CommonTransformerUtils.recordQueryInMdc(
+            String.format("eob_ids_by_bene_id_%s", claimType.name().toLowerCase()),
+            eobIdsByBeneIdQueryNanoSeconds,
+            claimIds == null ? 0 : claimIds.size());
+      }
+    }
+    return claimIds;
+  }
+
+  /**
+   * Find the claims with the given ids along with their lines.
+   *
+   * @param <T> the type parameter
+   * @param claimIds the ids of the claims to load
+   * @return the matching claim/event entities
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private <T> List<T> findClaimsByIds(List<Long> claimIds) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery criteria = builder.createQuery((Class) claimType.getEntityClass());
+    Root root = criteria.from(claimType.getEntityClass());
+    criteria.select(root);
+    criteria.where(root.get(claimType.getEntityIdAttribute()).in(claimIds));
+
+    List<T> claimEntities = null;
+    try (Timer.Context timerEobQuery =
+        CommonTransformerUtils.createMetricsTimer(
+            metricRegistry,
+            metricRegistry.getClass().getSimpleName(),
+            "query",
+            "eobs_by_ids",
+            claimType.name().toLowerCase())) {
+      try {
+        if (jdbcClaimReadsEnabled) {
+          claimEntities =
+              readClaimsWithJdbc(
+                  new SqlConditions()
+                      .addIn(getColumnName(claimType.getEntityIdAttribute().getName()), claimIds));
+        } else {
+          claimEntities = QueryUtils.findWithSubselectFetch(entityManager, criteria);
+        }
+      } finally {
+        long eobsByIdsQueryNanoSeconds = timerEobQuery.stop();
+        CommonTransformerUtils.recordQueryInMdc(
+            String.format("eobs_by_ids_%s", claimType.name().toLowerCase()),
+            eobsByIdsQueryNanoSeconds,
+            claimEntities == null ? 0 : claimEntities.size());
+      }
+    }
+    return claimEntities;
+  }
+
+  /**
+   * Reads claims and their lines directly using JDBC and the {@link ClaimType#getEntityRowMapper()}
+   * of our claim type. The claims are sorted by claim id.
+   *
+   * @param <T> the type parameter
+   * @param conditions selects the claims to read
+   * @return the matching claim/event entities
+   */
+  @SuppressWarnings("unchecked")
+  private <T> List<T> readClaimsWithJdbc(SqlConditions conditions) {
+    final EntityRowMapper<T> rowMapper = (EntityRowMapper<T>) claimType.getEntityRowMapper();
+    final String orderBy = getColumnName(claimType.getEntityIdAttribute().getName());
+    return QueryUtils.readWithJdbc(
+        entityManager,
+        connection ->
+            rowMapper.readAll(
+                connection, conditions.toClauses(orderBy), conditions.getParameters()));
+  }
+
+  /**
+   * Gets the name of the column holding a field of our claim type's entity.
+   *
+   * @param fieldName the name of the field
+   * @return the column name
+   */
+  private String getColumnName(String fieldName) {
+    return claimType.getEntityRowMapper().getColumnName(fieldName);
+  }
+
+  /**
+   * Removes claims whose service end date falls outside of the service-date range, if one was
+   * requested.
+   *
+   * @param <T> the type parameter
+   * @param claimEntities the claims to filter, may be null
+   * @return the claims within the range
+   */
+  private <T> List<T> filterByServiceDate(List<T> claimEntities) {
     if (claimEntities != null && !serviceDate.isEmpty()) {
-      final Instant lowerBound =
-          serviceDate.get().getLowerBoundAsInstant() != null
-              ? serviceDate.get().getLowerBoundAsInstant().toInstant()
-              : null;
-      final Instant upperBound =
-          serviceDate.get().getUpperBoundAsInstant() != null
-              ? serviceDate.get().getUpperBoundAsInstant().toInstant()
-              : null;
+      final LocalDate lowerBound =
+          QueryUtils.toServiceDateBound(serviceDate.get().getLowerBoundAsInstant());
+      final LocalDate upperBound =
+          QueryUtils.toServiceDateBound(serviceDate.get().getUpperBoundAsInstant());
       final java.util.function.Predicate<LocalDate> lowerBoundCheck =
           lowerBound == null
               ? (date) -> true
               : (date) ->
                   TransformerUtilsV2.compareLocalDate(
-                      date,
-                      lowerBound.atZone(ZoneId.systemDefault()).toLocalDate(),
-                      serviceDate.get().getLowerBound().getPrefix());
+                      date, lowerBound, serviceDate.get().getLowerBound().getPrefix());
       final java.util.function.Predicate<LocalDate> upperBoundCheck =
           upperBound == null
               ? (date) -> true
               : (date) ->
                   TransformerUtilsV2.compareLocalDate(
-                      date,
-                      upperBound.atZone(ZoneId.systemDefault()).toLocalDate(),
-                      serviceDate.get().getUpperBound().getPrefix());
+                      date, upperBound, serviceDate.get().getUpperBound().getPrefix());
 
       return claimEntities.stream()
           .filter(
@@ -386,9 +645,10 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
    * @param eobs the {@link List} of {@link ExplanationOfBenefit} resources (i.e. claims) to filter
    */
   private void filterSamhsa(List<ExplanationOfBenefit> eobs) {
+    final long startNanos = System.nanoTime();
     ListIterator<ExplanationOfBenefit> eobsIter = eobs.listIterator();
     // init to zero if doing SAMHSA filtering
-    samhsaIgnoredCount.getAndIncrement();
+    samhsaIgnoredCount.compareAndSet(-1, 0);
     while (eobsIter.hasNext()) {
       ExplanationOfBenefit eob = eobsIter.next();
       if (samhsaMatcher.test(eob)) {
@@ -398,5 +658,6 @@ public class PatientClaimsEobTaskTransformerV2 implements Callable {
         samhsaIgnoredCount.getAndIncrement();
       }
     }
+    RequestProfile.record(RequestProfile.Phase.SAMHSA_FILTER, System.nanoTime() - startNanos);
   }
 }
@@ -0,0 +1,367 @@
+package gov.cms.bfd.server.war.r4.providers;
+
+import static gov.cms.bfd.server.war.commons.StringUtils.splitOnCommas;
+
+import ca.uhn.fhir.rest.annotation.Operation;
+import ca.uhn.fhir.rest.annotation.OperationParam;
+import ca.uhn.fhir.rest.api.RequestTypeEnum;
+import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.rest.server.exceptions.AuthenticationException;
+import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
+import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
+import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
+import gov.cms.bfd.server.war.CanonicalOperation;
+import gov.cms.bfd.server.war.RequestResponsePopulateMdcFilter;
+import gov.cms.bfd.server.war.commons.RequestHeaders;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.hl7.fhir.r4.model.ResourceType;
+import org.hl7.fhir.r4.model.StringType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implements the kick-off, status, and download requests of the <a
+ * href="https://hl7.org/fhir/uv/bulkdata/export.html">FHIR Bulk Data</a> asynchronous request
+ * pattern for Part D contract rosters. This allows Part D sponsors to retrieve every {@link
+ * org.hl7.fhir.r4.model.Patient} (and optionally {@link org.hl7.fhir.r4.model.Coverage}) for a
+ * contract and month with a handful of requests rather than paging through {@link
+ * R4PatientResourceProvider} one page at a time.
+ *
+ * <ul>
+ *   <li>{@code GET Patient/$export?contract=<id>&month=<yyyy-MM>[&_type=Patient,Coverage]} queues a
+ *       job and responds with {@code 202 Accepted} and a {@code Content-Location} header holding
+ *       the status URL.
+ *   <li>{@code GET $export-poll-status?_jobId=<id>} responds with {@code 202 Accepted} while the
+ *       job is running and with the completion manifest once it is done. {@code DELETE} cancels the
+ *       job and deletes its output.
+ *   <li>{@code GET $export-download?_jobId=<id>&_file=<name>} streams one NDJSON output file.
+ * </ul>
+ *
+ * <p>The work itself is performed by {@link BulkExportJobManager}. Each job belongs to the client
+ * certificate used for its kick-off request. Status, download, and cancel requests made with any
+ * other certificate are answered as though the job did not exist. Requests made without a client
+ * certificate are rejected since they could not be matched to a job. Since clients authenticate
+ * with mutual TLS rather than bearer tokens the manifest always reports {@code requiresAccessToken:
+ * false}.
+ */
+@Component
+public class R4BulkExportProvider {
+  /** Name of the kick-off operation. */
+  public static final String OPERATION_EXPORT = "$export";
+
+  /** Name of the status operation. */
+  public static final String OPERATION_POLL_STATUS = "$export-poll-status";
+
+  /** Name of the download operation. */
+  public static final String OPERATION_DOWNLOAD = "$export-download";
+
+  /** Content type for NDJSON output files. */
+  public static final String CONTENT_TYPE_NDJSON = "application/fhir+ndjson";
+
+  /** Output formats accepted in the {@code _outputFormat} parameter. */
+  private static final Set<String> SUPPORTED_OUTPUT_FORMATS =
+      Set.of(CONTENT_TYPE_NDJSON, "application/ndjson", "ndjson");
+
+  /** Resource types accepted in the {@code _type} parameter. */
+  private static final Set<ResourceType> SUPPORTED_RESOURCE_TYPES =
+      EnumSet.of(ResourceType.Patient, ResourceType.Coverage);
+
+  /** Number of seconds clients are asked to wait between status requests. */
+  private static final String RETRY_AFTER_SECONDS = "10";
+
+  /** Used to write the completion manifest. */
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  /** Runs the export jobs. */
+  private final BulkExportJobManager jobManager;
+
+  /**
+   * Instantiates a new provider. Spring will call this constructor for us.
+   *
+   * @param jobManager runs the export jobs
+   */
+  public R4BulkExportProvider(BulkExportJobManager jobManager) {
+    this.jobManager = jobManager;
+  }
+
+  /**
+   * Kick-off request. Validates the parameters, queues an export job, and responds with {@code 202
+   * Accepted} and the status URL in the {@code Content-Location} header.
+   *
+   * @param contract the Part D contract id
+   * @param month the enrollment month in {@code yyyy-MM} format
+   * @param type optional comma separated list of resource types, defaults to {@code Patient}
+   * @param outputFormat optional output format, only NDJSON is supported
+   * @param requestDetails the request details
+   * @throws IOException if the job could not be created
+   * @throws AuthenticationException if the request has no client certificate
+   */
+  @Operation(
+      name = OPERATION_EXPORT,
+      typeName = "Patient",
+      idempotent = true,
+      manualResponse = true)
+  public void export(
+      @OperationParam(name = "contract", min = 1, max = 1) StringType contract,
+      @OperationParam(name = "month", min = 1, max = 1) StringType month,
+      @OperationParam(name = "_type", max = 1) StringType type,
+      @OperationParam(name = "_outputFormat", max = 1) StringType outputFormat,
+      ServletRequestDetails requestDetails)
+      throws IOException {
+    final String requester = requireRequester(requestDetails);
+    final String contractId = contract == null ? "" : contract.getValueNotNull();
+    R4PatientResourceProvider.checkCoverageId(new TokenParam(contractId));
+    final YearMonth yearMonth = parseYearMonth(month == null ? null : month.getValue());
+    final Set<ResourceType> resourceTypes =
+        parseResourceTypes(type == null ? null : type.getValue());
+    if (outputFormat != null
+        && !SUPPORTED_OUTPUT_FORMATS.contains(outputFormat.getValueNotNull())) {
+      throw new InvalidRequestException(
+          "Unsupported _outputFormat: " + outputFormat.getValueNotNull());
+    }
+
+    CanonicalOperation operation = new CanonicalOperation(CanonicalOperation.Endpoint.V2_PATIENT);
+    operation.setOption("by", "exportByCoverageContract");
+    operation.publishOperationName();
+
+    final BulkExportJob job =
+        jobManager.submit(
+            contractId,
+            yearMonth,
+            resourceTypes,
+            RequestHeaders.getHeaderWrapper(requestDetails),
+            requester,
+            requestDetails.getCompleteUrl());
+
+    final HttpServletResponse response = requestDetails.getServletResponse();
+    response.setStatus(HttpServletResponse.SC_ACCEPTED);
+    response.setHeader(
+        "Content-Location",
+        String.format(
+            "%s/%s?_jobId=%s",
+            requestDetails.getFhirServerBase(), OPERATION_POLL_STATUS, job.getJobId()));
+  }
+
+  /**
+   * Status request. Responds with {@code 202 Accepted} while the job is running, the completion
+   * manifest once it has completed, or an error if it failed. A {@code DELETE} request cancels the
+   * job and deletes its output. Jobs created by another client are reported as not found.
+   *
+   * @param jobId the job id from the kick-off response
+   * @param requestDetails the request details
+   * @throws IOException if the response could not be written
+   */
+  @Operation(
+      name = OPERATION_POLL_STATUS,
+      idempotent = true,
+      deleteEnabled = true,
+      manualResponse = true)
+  public void exportPollStatus(
+      @OperationParam(name = "_jobId", min = 1, max = 1) StringType jobId,
+      ServletRequestDetails requestDetails)
+      throws IOException {
+    final HttpServletResponse response = requestDetails.getServletResponse();
+    final String id = jobId == null ? "" : jobId.getValueNotNull();
+    final BulkExportJob job = findJob(id, requestDetails);
+    if (requestDetails.getRequestType() == RequestTypeEnum.DELETE) {
+      if (!jobManager.cancel(id)) {
+        throw new ResourceNotFoundException("Unknown export job: " + id);
+      }
+      response.setStatus(HttpServletResponse.SC_ACCEPTED);
+      return;
+    }
+
+    switch (job.getStatus()) {
+      case ACCEPTED, IN_PROGRESS -> {
+        response.setStatus(HttpServletResponse.SC_ACCEPTED);
+        response.setHeader(
+            "X-Progress",
+            String.format("%d beneficiaries processed", job.getBeneficiaryCount().get()));
+        response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+      }
+      case COMPLETED -> {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("application/json");
+        objectMapper.writeValue(
+            response.getOutputStream(), createManifest(job, requestDetails.getFhirServerBase()));
+      }
+      case FAILED -> throw new InternalErrorException(job.getErrorMessage());
+      default -> throw new ResourceNotFoundException("Unknown export job: " + id);
+    }
+  }
+
+  /**
+   * Download request. Streams the requested output file of a completed job. Jobs created by another
+   * client are reported as not found.
+   *
+   * @param jobId the job id from the kick-off response
+   * @param file name of the file as listed in the completion manifest
+   * @param requestDetails the request details
+   * @throws IOException if the file could not be read or the response written
+   */
+  @Operation(name = OPERATION_DOWNLOAD, idempotent = true, manualResponse = true)
+  public void exportDownload(
+      @OperationParam(name = "_jobId", min = 1, max = 1) StringType jobId,
+      @OperationParam(name = "_file", min = 1, max = 1) StringType file,
+      ServletRequestDetails requestDetails)
+      throws IOException {
+    final BulkExportJob job = findJob(jobId == null ? "" : jobId.getValueNotNull(), requestDetails);
+    final String fileName = file == null ? "" : file.getValueNotNull();
+    // Only names listed in the manifest are accepted so clients can never escape the job directory.
+    final NdjsonFileWriter.OutputFile outputFile =
+        job.getOutputFiles().stream()
+            .filter(f -> f.getPath().getFileName().toString().equals(fileName))
+            .findFirst()
+            .orElseThrow(() -> new ResourceNotFoundException("Unknown export file: " + fileName));
+
+    final HttpServletResponse response = requestDetails.getServletResponse();
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(CONTENT_TYPE_NDJSON);
+    response.setContentLengthLong(Files.size(outputFile.getPath()));
+    try (OutputStream output = response.getOutputStream()) {
+      Files.copy(outputFile.getPath(), output);
+    }
+  }
+
+  /**
+   * Creates the completion manifest for a job as described in the Bulk Data specification.
+   *
+   * @param job the completed job
+   * @param serverBase base URL of the server, used to build download URLs
+   * @return the manifest as a map suitable for serializing to JSON
+   */
+  @VisibleForTesting
+  static Map<String, Object> createManifest(BulkExportJob job, String serverBase) {
+    final List<Map<String, Object>> output =
+        job.getOutputFiles().stream()
+            .map(
+                f -> {
+                  final Map<String, Object> entry = new LinkedHashMap<>();
+                  entry.put("type", f.getResourceType());
+                  entry.put(
+                      "url",
+                      String.format(
+                          "%s/%s?_jobId=%s&_file=%s",
+                          serverBase,
+                          OPERATION_DOWNLOAD,
+                          job.getJobId(),
+                          f.getPath().getFileName()));
+                  entry.put("count", f.getCount());
+                  return entry;
+                })
+            .collect(Collectors.toList());
+    final Map<String, Object> manifest = new LinkedHashMap<>();
+    manifest.put("transactionTime", job.getTransactionTime().toString());
+    manifest.put("request", job.getRequestUrl());
+    manifest.put("requiresAccessToken", false);
+    manifest.put("output", output);
+    manifest.put("error", List.of());
+    return manifest;
+  }
+
+  /**
+   * Parses the {@code month} parameter.
+   *
+   * @param month the parameter value
+   * @return the parsed month
+   * @throws InvalidRequestException if the value is missing or not in {@code yyyy-MM} format
+   */
+  @VisibleForTesting
+  static YearMonth parseYearMonth(String month) {
+    if (Strings.isNullOrEmpty(month)) {
+      throw new InvalidRequestException("Missing required parameter: month");
+    }
+    try {
+      return YearMonth.parse(month);
+    } catch (DateTimeParseException ex) {
+      throw new InvalidRequestException("Invalid month, expected yyyy-MM: " + month);
+    }
+  }
+
+  /**
+   * Parses the {@code _type} parameter.
+   *
+   * @param types the parameter value, possibly null
+   * @return the requested resource types, {@link ResourceType#Patient} if none were specified
+   * @throws InvalidRequestException if any type is unsupported
+   */
+  @VisibleForTesting
+  static Set<ResourceType> parseResourceTypes(String types) {
+    if (Strings.isNullOrEmpty(types)) {
+      return EnumSet.of(ResourceType.Patient);
+    }
+    final Set<ResourceType> answer = EnumSet.noneOf(ResourceType.class);
+    for (String type : splitOnCommas(types)) {
+      final ResourceType resourceType =
+          SUPPORTED_RESOURCE_TYPES.stream()
+              .filter(t -> t.name().equals(type))
+              .findFirst()
+              .orElseThrow(() -> new InvalidRequestException("Unsupported _type: " + type));
+      answer.add(resourceType);
+    }
+    return answer;
+  }
+
+  /**
+   * Looks up a job by id. A job created by a different client is treated as missing so that clients
+   * can not learn anything about each other's jobs.
+   *
+   * @param jobId the job id
+   * @param requestDetails the request details, used to identify the client
+   * @return the job
+   * @throws AuthenticationException if the request has no client certificate
+   * @throws ResourceNotFoundException if there is no such job for the client
+   */
+  private BulkExportJob findJob(String jobId, ServletRequestDetails requestDetails) {
+    final String requester = requireRequester(requestDetails);
+    return jobManager
+        .findJob(jobId)
+        .filter(job -> requester.equals(job.getRequester()))
+        .orElseThrow(() -> new ResourceNotFoundException("Unknown export job: " + jobId));
+  }
+
+  /**
+   * Identifies the client making a request. Jobs belong to the client that created them so a
+   * request without a client certificate can neither create nor access a job.
+   *
+   * @param requestDetails the request details
+   * @return the distinguished name of the client certificate
+   * @throws AuthenticationException if the request has no client certificate
+   */
+  private static String requireRequester(ServletRequestDetails requestDetails) {
+    final String requester = getRequester(requestDetails);
+    if (Strings.isNullOrEmpty(requester)) {
+      throw new AuthenticationException("A client certificate is required for bulk export");
+    }
+    return requester;
+  }
+
+  /**
+   * Identifies the client making a request using the distinguished name of its TLS client
+   * certificate.
+   *
+   * @param requestDetails the request details
+   * @return the distinguished name or null if the request has no client certificate
+   */
+  @VisibleForTesting
+  static String getRequester(ServletRequestDetails requestDetails) {
+    return requestDetails.getServletRequest() == null
+        ? null
+        : RequestResponsePopulateMdcFilter.getClientSslPrincipalDistinguishedName(
+            requestDetails.getServletRequest());
+  }
+}
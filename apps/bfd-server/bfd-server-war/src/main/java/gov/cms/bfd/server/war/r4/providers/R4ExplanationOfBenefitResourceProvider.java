@@ -26,18 +26,23 @@ import com.google.common.base.Strings;
 import com.newrelic.api.agent.Trace;
 import gov.cms.bfd.server.war.CanonicalOperation;
 import gov.cms.bfd.server.war.commons.AbstractResourceProvider;
+import gov.cms.bfd.server.war.commons.ClaimAvailability;
+import gov.cms.bfd.server.war.commons.ClaimCursorLinkBuilder;
 import gov.cms.bfd.server.war.commons.ClaimType;
 import gov.cms.bfd.server.war.commons.CommonQueries;
 import gov.cms.bfd.server.war.commons.CommonTransformerUtils;
+import gov.cms.bfd.server.war.commons.LinkBuilder;
 import gov.cms.bfd.server.war.commons.LoadedFilterManager;
 import gov.cms.bfd.server.war.commons.LoggingUtils;
 import gov.cms.bfd.server.war.commons.OffsetLinkBuilder;
 import gov.cms.bfd.server.war.commons.OpenAPIContentProvider;
+import gov.cms.bfd.server.war.commons.QueryUtils;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -260,11 +265,16 @@ public final class R4ExplanationOfBenefitResourceProvider extends AbstractResour
    * <p>This method supports both HTTP GET with URL parameters, and HTTP POST with parameters
    * specified within the POST body.
    *
+   * <p>Searches with {@code _summary=count} or {@code _count=0} return only the number of matching
+   * {@link ExplanationOfBenefit}s, which is counted in the database without loading any claims
+   * unless SAMHSA filtering is requested.
+   *
    * @param patient a {@link ReferenceParam} for the {@link ExplanationOfBenefit#getPatient()} to
    *     try and find matches for {@link ExplanationOfBenefit}s
    * @param type a list of {@link ClaimType} to include in the result. Defaults to all types.
    * @param startIndex an {@link OptionalParam} for the startIndex (or offset) used to determine
    *     pagination
+   * @param cursor an {@link OptionalParam} for the cursor used to determine keyset pagination
    * @param excludeSamhsa an {@link OptionalParam} that, if <code>"true"</code>, will use {@link
    *     R4EobSamhsaMatcher} to filter out all SAMHSA-related claims from the results
    * @param lastUpdated an {@link OptionalParam} that specifies a date range for the lastUpdated
@@ -296,6 +306,11 @@ public final class R4ExplanationOfBenefitResourceProvider extends AbstractResour
               shortDefinition = OpenAPIContentProvider.PATIENT_START_INDEX_SHORT,
               value = OpenAPIContentProvider.PATIENT_START_INDEX_VALUE)
           String startIndex,
+      @OptionalParam(name = ClaimCursorLinkBuilder.PARAM_CURSOR)
+          @Description(
+              shortDefinition = OpenAPIContentProvider.EOB_CURSOR_SHORT,
+              value = OpenAPIContentProvider.EOB_CURSOR_VALUE)
+          String cursor,
       @OptionalParam(name = "excludeSAMHSA")
           @Description(
               shortDefinition = OpenAPIContentProvider.EOB_EXCLUDE_SAMSHA_SHORT,
@@ -331,12 +346,16 @@ public final class R4ExplanationOfBenefitResourceProvider extends AbstractResour
     }
 
     /*
-     * startIndex is an optional parameter here because it must be declared in the
-     * event it is passed in. However, it is not being used here because it is also
+     * startIndex and cursor are optional parameters here because they must be declared in the
+     * event they are passed in. However, they are not being used here because they are also
      * contained within requestDetails and parsed out along with other parameters
      * later.
      */
-    OffsetLinkBuilder paging = new OffsetLinkBuilder(requestDetails, "/ExplanationOfBenefit?");
+    boolean countOnly = CommonTransformerUtils.isCountOnlyRequested(requestDetails);
+    LinkBuilder paging =
+        !countOnly && ClaimCursorLinkBuilder.isCursorRequested(requestDetails)
+            ? new ClaimCursorLinkBuilder(requestDetails, "/ExplanationOfBenefit?")
+            : new OffsetLinkBuilder(requestDetails, "/ExplanationOfBenefit?");
     Long beneficiaryId = Long.parseLong(patient.getIdPart());
     Set<ClaimType> claimTypesRequested = CommonTransformerUtils.parseTypeParam(type);
     boolean includeTaxNumbers = returnIncludeTaxNumbers(requestDetails);
@@ -358,6 +377,9 @@ public final class R4ExplanationOfBenefitResourceProvider extends AbstractResour
         "_lastUpdated", Boolean.toString(lastUpdated != null && !lastUpdated.isEmpty()));
     operationOptions.put(
         "service-date", Boolean.toString(serviceDate != null && !serviceDate.isEmpty()));
+    if (countOnly) {
+      operationOptions.put("_summary", "count");
+    }
     CommonTransformerUtils.publishMdcOperationName(
         CanonicalOperation.Endpoint.V2_EOB, operationOptions);
 
@@ -368,16 +390,34 @@ public final class R4ExplanationOfBenefitResourceProvider extends AbstractResour
       // Add number of resources to MDC logs
       LoggingUtils.logResourceCountToMdc(0);
 
-      return TransformerUtilsV2.createBundle(
-          paging, new ArrayList<IBaseResource>(), loadedFilterManager.getTransactionTime());
+      return createBundle(paging, new ArrayList<>(), countOnly);
     }
 
-    // See if we have any claims data for the beneficiary.
-    int claimTypesThatHaveData = CommonQueries.availableClaimsData(entityManager, beneficiaryId);
-    Bundle bundle = null;
-    if (claimTypesThatHaveData > 0) {
+    // See which claim types have data for the beneficiary and how much.
+    Map<ClaimType, ClaimAvailability> claimTypesThatHaveData =
+        CommonQueries.claimsAvailability(entityManager, beneficiaryId);
+
+    /*
+     * Counts can be answered without loading any claims unless SAMHSA filtering is requested,
+     * since that can only be decided from the transformed EOBs.
+     */
+    if (countOnly && !filterSamhsa) {
+      long count =
+          countClaims(
+              claimTypesThatHaveData,
+              claimTypesRequested,
+              beneficiaryId,
+              Optional.ofNullable(lastUpdated),
+              Optional.ofNullable(serviceDate));
+      LoggingUtils.logBeneIdToMdc(beneficiaryId);
+      return TransformerUtilsV2.createCountBundle(
+          Math.toIntExact(count), loadedFilterManager.getTransactionTime());
+    }
+
+    List<IBaseResource> eobs = null;
+    if (!claimTypesThatHaveData.isEmpty()) {
       try {
-        bundle =
+        eobs =
             processClaimsMask(
                 claimTypesThatHaveData,
                 claimTypesRequested,
@@ -394,23 +434,112 @@ public final class R4ExplanationOfBenefitResourceProvider extends AbstractResour
         LOGGER.error(e.getMessage(), e);
       }
     }
-    if (bundle == null) {
+    if (eobs == null) {
       LoggingUtils.logBeneIdToMdc(beneficiaryId);
       LoggingUtils.logResourceCountToMdc(0);
-      bundle =
-          TransformerUtilsV2.createBundle(
-              paging, new ArrayList<>(), loadedFilterManager.getTransactionTime());
+      eobs = new ArrayList<>();
     }
-    return bundle;
+    return createBundle(paging, eobs, countOnly);
   }
 
   /**
-   * Process the available claims mask value denoting which claims to process in parallel.
+   * Counts the claims that match a search without loading them. Claim types whose claims can all be
+   * ruled out by their {@link ClaimAvailability} are skipped. When no date filter is requested the
+   * count comes from the {@link ClaimAvailability}, otherwise each remaining claim type is counted
+   * with the same predicates the claims are queried with.
    *
-   * @param claimTypesThatHaveData an {@link Integer} denoting the claim types to process.
+   * @param claimTypesThatHaveData a {@link Map} of {@link ClaimAvailability} for the claim types
+   *     that have data.
    * @param claimTypesRequested a {@link Set} of {@link ClaimType} denoting requested claim types.
    * @param beneficiaryId a {@link Long} patient bene_id value.
-   * @param paging a {@link OffsetLinkBuilder} for the startIndex (or offset) when using pagination.
+   * @param lastUpdated a {@link DateRangeParam} denoting inclusion of lastUpdated field.
+   * @param serviceDate a {@link DateRangeParam} specifying date range for the {@link
+   *     ExplanationOfBenefit}s that completed.
+   * @return the number of matching claims
+   */
+  private long countClaims(
+      Map<ClaimType, ClaimAvailability> claimTypesThatHaveData,
+      Set<ClaimType> claimTypesRequested,
+      long beneficiaryId,
+      Optional<DateRangeParam> lastUpdated,
+      Optional<DateRangeParam> serviceDate) {
+    EnumSet<ClaimType> claimsToCount =
+        TransformerUtilsV2.fetchClaimsAvailability(
+            claimTypesRequested, claimTypesThatHaveData, lastUpdated, serviceDate);
+    long count = 0;
+    for (ClaimType claimType : claimsToCount) {
+      if (lastUpdated.isEmpty() && serviceDate.isEmpty()) {
+        count += claimTypesThatHaveData.get(claimType).getCount();
+      } else {
+        count += countClaimsByPatient(claimType, beneficiaryId, lastUpdated, serviceDate);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Counts the claims of one type for a beneficiary that fall within the requested date ranges.
+   *
+   * @param claimType the {@link ClaimType} to count
+   * @param beneficiaryId a {@link Long} patient bene_id value.
+   * @param lastUpdated a {@link DateRangeParam} denoting inclusion of lastUpdated field.
+   * @param serviceDate a {@link DateRangeParam} specifying date range for the {@link
+   *     ExplanationOfBenefit}s that completed.
+   * @return the number of matching claims
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private long countClaimsByPatient(
+      ClaimType claimType,
+      long beneficiaryId,
+      Optional<DateRangeParam> lastUpdated,
+      Optional<DateRangeParam> serviceDate) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> criteria = builder.createQuery(Long.class);
+    Root root = criteria.from(claimType.getEntityClass());
+    criteria.select(builder.count(root));
+
+    List<Predicate> predicates = new ArrayList<>();
+    predicates.add(
+        builder.equal(root.get(claimType.getEntityBeneficiaryIdAttribute()), beneficiaryId));
+    lastUpdated.ifPresent(
+        range -> predicates.add(QueryUtils.createLastUpdatedPredicate(builder, root, range)));
+    serviceDate.ifPresent(
+        range ->
+            predicates.add(
+                QueryUtils.createServiceDatePredicate(
+                    builder, range, root.get(claimType.getServiceEndAttribute()))));
+    criteria.where(predicates.toArray(new Predicate[0]));
+
+    Long count = null;
+    try (Timer.Context timerEobQuery =
+        CommonTransformerUtils.createMetricsTimer(
+            metricRegistry,
+            getClass().getSimpleName(),
+            "query",
+            "eob_count_by_bene_id",
+            claimType.name().toLowerCase())) {
+      try {
+        count = entityManager.createQuery(criteria).getSingleResult();
+      } finally {
+        long eobCountQueryNanoSeconds = timerEobQuery.stop();
+        CommonTransformerUtils.recordQueryInMdc(
+            String.format("eob_count_by_bene_id_%s", claimType.name().toLowerCase()),
+            eobCountQueryNanoSeconds,
+            1);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Process the available claims summary denoting which claims to process in parallel.
+   *
+   * @param claimTypesThatHaveData a {@link Map} of {@link ClaimAvailability} for the claim types
+   *     that have data.
+   * @param claimTypesRequested a {@link Set} of {@link ClaimType} denoting requested claim types.
+   * @param beneficiaryId a {@link Long} patient bene_id value.
+   * @param paging a {@link OffsetLinkBuilder} for the startIndex (or offset) when using pagination,
+   *     or a {@link ClaimCursorLinkBuilder} when using keyset pagination.
    * @param lastUpdated a {@link DateRangeParam} denoting inclusion of lastUpdated field.
    * @param serviceDate a {@link DateRangeParam} specifying date range for the {@link
    *     ExplanationOfBenefit}s that completed.
@@ -418,17 +547,17 @@ public final class R4ExplanationOfBenefitResourceProvider extends AbstractResour
    *     filtering of all SAMHSA-related claims from the results.
    * @param includeTaxNumbers an {@link Optional} boolean denoting includsio/exclusion of tax
    *     numbers in the response,
-   * @return Returns a {@link Bundle} of {@link ExplanationOfBenefit}s, which may contain multiple
-   *     matching resources, or may also be empty.
+   * @return Returns the sorted {@link ExplanationOfBenefit}s, or null if no claim type needed to be
+   *     processed. With keyset paging only the EOBs for the requested page are returned.
    * @throws InterruptedException when thread processing task is interrupted.
    * @throws ExecutionException when when executor fails to create thread.
    */
   @VisibleForTesting
-  private Bundle processClaimsMask(
-      int claimTypesThatHaveData,
+  private List<IBaseResource> processClaimsMask(
+      Map<ClaimType, ClaimAvailability> claimTypesThatHaveData,
       Set<ClaimType> claimTypesRequested,
       long beneficiaryId,
-      OffsetLinkBuilder paging,
+      LinkBuilder paging,
       Optional<DateRangeParam> lastUpdated,
       Optional<DateRangeParam> serviceDate,
       boolean excludeSamhsa,
@@ -436,7 +565,8 @@ public final class R4ExplanationOfBenefitResourceProvider extends AbstractResour
       throws InterruptedException, ExecutionException {
 
     EnumSet<ClaimType> claimsToProcess =
-        TransformerUtilsV2.fetchClaimsAvailability(claimTypesRequested, claimTypesThatHaveData);
+        TransformerUtilsV2.fetchClaimsAvailability(
+            claimTypesRequested, claimTypesThatHaveData, lastUpdated, serviceDate);
     LOGGER.debug(
         String.format("EnumSet for V2 claims, bene_id %d: %s", beneficiaryId, claimsToProcess));
 
@@ -445,7 +575,15 @@ public final class R4ExplanationOfBenefitResourceProvider extends AbstractResour
       return null;
     }
 
-    List<IBaseResource> eobs = new ArrayList<>();
+    // Filtering may remove some claims but this is still a close upper bound.
+    long expectedEobCount =
+        claimsToProcess.stream().mapToLong(t -> claimTypesThatHaveData.get(t).getCount()).sum();
+    if (paging instanceof ClaimCursorLinkBuilder cursorPaging) {
+      expectedEobCount =
+          Math.min(
+              expectedEobCount, (long) claimsToProcess.size() * cursorPaging.getQueryMaxSize());
+    }
+    List<IBaseResource> eobs = new ArrayList<>((int) Math.min(expectedEobCount, Integer.MAX_VALUE));
 
     /*
      * The way our JPA/SQL schema is setup, we have to run a separate search for
@@ -474,6 +612,9 @@ public final class R4ExplanationOfBenefitResourceProvider extends AbstractResour
               excludeSamhsa);
 
           task.setIncludeTaxNumbers(includeTaxNumbers);
+          if (paging instanceof ClaimCursorLinkBuilder cursorPaging) {
+            task.setKeysetPaging(cursorPaging.getCursor(), cursorPaging.getQueryMaxSize());
+          }
           callableTasks.add(task);
         });
 
@@ -489,11 +630,68 @@ public final class R4ExplanationOfBenefitResourceProvider extends AbstractResour
         throw new RuntimeException(taskError);
       }
     }
-    eobs.sort(R4ExplanationOfBenefitResourceProvider::compareByClaimIdThenClaimType);
 
     // Add bene_id to MDC logs
     LoggingUtils.logBeneIdToMdc(beneficiaryId);
-    return TransformerUtilsV2.createBundle(paging, eobs, loadedFilterManager.getTransactionTime());
+    if (paging instanceof ClaimCursorLinkBuilder cursorPaging) {
+      eobs.sort(R4ExplanationOfBenefitResourceProvider::compareByCursorKey);
+      if (eobs.size() > cursorPaging.getPageSize()) {
+        eobs = new ArrayList<>(eobs.subList(0, cursorPaging.getPageSize()));
+        cursorPaging.setNextCursor(getCursorKey((ExplanationOfBenefit) eobs.getLast()));
+      }
+    } else {
+      eobs.sort(R4ExplanationOfBenefitResourceProvider::compareByClaimIdThenClaimType);
+    }
+    return eobs;
+  }
+
+  /**
+   * Create a bundle from the search results using the bundle layout appropriate for the paging
+   * mode. Offset paging slices the complete results and reports the total, while keyset paging
+   * receives exactly one page of results and reports no total. A count only search reports just the
+   * total.
+   *
+   * @param paging the {@link LinkBuilder} for the request
+   * @param eobs the {@link ExplanationOfBenefit}s found
+   * @param countOnly true if only the number of EOBs was requested
+   * @return the {@link Bundle}
+   */
+  private Bundle createBundle(LinkBuilder paging, List<IBaseResource> eobs, boolean countOnly) {
+    if (countOnly) {
+      return TransformerUtilsV2.createCountBundle(
+          eobs.size(), loadedFilterManager.getTransactionTime());
+    } else if (paging instanceof OffsetLinkBuilder offsetPaging) {
+      return TransformerUtilsV2.createBundle(
+          offsetPaging, eobs, loadedFilterManager.getTransactionTime());
+    }
+    return TransformerUtilsV2.createBundle(eobs, paging, loadedFilterManager.getTransactionTime());
+  }
+
+  /**
+   * Gets the keyset paging key of an EOB.
+   *
+   * @param eob the {@link ExplanationOfBenefit}
+   * @return the key
+   */
+  private static ClaimCursorLinkBuilder.Cursor getCursorKey(ExplanationOfBenefit eob) {
+    return new ClaimCursorLinkBuilder.Cursor(
+        TransformerUtilsV2.getClaimType(eob),
+        Long.parseLong(TransformerUtilsV2.getUnprefixedClaimId(eob)));
+  }
+
+  /**
+   * Compare two EOB resources by numeric claim id and claim type, which is the order used by keyset
+   * paging and matches the order of the per claim type claim id queries.
+   *
+   * @param res1 an {@link ExplanationOfBenefit} to be compared
+   * @param res2 an {@link ExplanationOfBenefit} to be compared
+   * @return the comparison result
+   */
+  private static int compareByCursorKey(IBaseResource res1, IBaseResource res2) {
+    ClaimCursorLinkBuilder.Cursor key1 = getCursorKey((ExplanationOfBenefit) res1);
+    ClaimCursorLinkBuilder.Cursor key2 = getCursorKey((ExplanationOfBenefit) res2);
+    int result = Long.compare(key1.getClaimId(), key2.getClaimId());
+    return result != 0 ? result : key1.getClaimType().compareTo(key2.getClaimType());
   }
 
   /**
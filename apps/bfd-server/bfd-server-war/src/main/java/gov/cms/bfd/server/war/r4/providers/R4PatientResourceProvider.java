@@ -281,6 +281,10 @@ public final class R4PatientResourceProvider implements IResourceProvider, Commo
     }
 
     RequestHeaders requestHeader = RequestHeaders.getHeaderWrapper(requestDetails);
+    if (CommonTransformerUtils.isCountOnlyRequested(requestDetails)) {
+      return countByLogicalId(logicalId, unhashedMbiLookup, lastUpdated, requestHeader);
+    }
+
     long beneId = 0;
     List<IBaseResource> patients;
     try {
@@ -341,6 +345,113 @@ public final class R4PatientResourceProvider implements IResourceProvider, Commo
     return bundle;
   }
 
+  /**
+   * Counts the {@link Patient}s that a search by logical id would return, without loading or
+   * transforming the {@link Beneficiary}.
+   *
+   * @param logicalId the logical id being searched for
+   * @param unhashedMbiLookup true if the logical id is an unhashed MBI rather than a bene id
+   * @param lastUpdated an optional range to filter the results based on
+   * @param requestHeader the {@link RequestHeaders} of the search
+   * @return a {@link Bundle} with the total and no entries
+   */
+  private Bundle countByLogicalId(
+      TokenParam logicalId,
+      boolean unhashedMbiLookup,
+      DateRangeParam lastUpdated,
+      RequestHeaders requestHeader) {
+    CanonicalOperation operation = new CanonicalOperation(CanonicalOperation.Endpoint.V2_PATIENT);
+    operation.setOption("by", "id");
+    requestHeader.getNVPairs().forEach((n, v) -> operation.setOption(n, v.toString()));
+    operation.setOption(
+        "_lastUpdated", Boolean.toString(lastUpdated != null && !lastUpdated.isEmpty()));
+    operation.setOption("_summary", "count");
+    operation.publishOperationName();
+
+    long beneId = 0;
+    int count;
+    try {
+      beneId =
+          unhashedMbiLookup
+              ? findBeneficiaryIdByIdentifier(logicalId.getSystem(), logicalId.getValue())
+              : Long.parseLong(logicalId.getValue());
+      count =
+          loadedFilterManager.isResultSetEmpty(beneId, lastUpdated)
+              ? 0
+              : countBeneficiaries(beneId, lastUpdated);
+    } catch (NoResultException e) {
+      count = 0;
+    } catch (UnclassifiedServerFailureException e) {
+      throw new ResourceNotFoundException(e.getMessage());
+    }
+
+    // Add bene_id to MDC logs
+    LoggingUtils.logBeneIdToMdc(beneId);
+    return TransformerUtilsV2.createCountBundle(count, loadedFilterManager.getTransactionTime());
+  }
+
+  /**
+   * Finds the bene id of the {@link Beneficiary} with the given identifier.
+   *
+   * @param system the identifier system, one of {@link #SUPPORTED_HASH_IDENTIFIER_SYSTEMS}
+   * @param value the identifier value
+   * @return the bene id
+   * @throws NoResultException if no {@link Beneficiary} has the identifier
+   */
+  private long findBeneficiaryIdByIdentifier(String system, String value) {
+    if (value == null || value.trim().isEmpty()) {
+      throw new InvalidRequestException("lookup value cannot be null/empty");
+    }
+    String lookupType =
+        switch (system) {
+          case TransformerConstants.CODING_BBAPI_MEDICARE_BENEFICIARY_ID_UNHASHED -> "mbi";
+          case TransformerConstants.CODING_BBAPI_BENE_MBI_HASH -> "mbi-hash";
+          case TransformerConstants.CODING_BBAPI_BENE_HICN_HASH,
+              TransformerConstants.CODING_BBAPI_BENE_HICN_HASH_OLD -> "hicn-hash";
+          default -> throw new InvalidRequestException("Unsupported identifier system: " + system);
+        };
+    return CommonQueries.findBeneficiaryIdentifier(
+        entityManager, metricRegistry, lookupType, value, getClass().getSimpleName());
+  }
+
+  /**
+   * Counts the {@link Beneficiary} records with a bene id that were last updated within a range,
+   * using the same comparison as {@link QueryUtils#isInRange}.
+   *
+   * @param beneId the bene id to count
+   * @param lastUpdated an optional range to filter the results based on
+   * @return the number of matching records, either zero or one
+   */
+  @Trace
+  private int countBeneficiaries(long beneId, DateRangeParam lastUpdated) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> criteria = builder.createQuery(Long.class);
+    Root<Beneficiary> root = criteria.from(Beneficiary.class);
+    criteria.select(builder.count(root));
+
+    Predicate wherePredicate = builder.equal(root.get(Beneficiary_.beneficiaryId), beneId);
+    if (lastUpdated != null && !lastUpdated.isEmpty()) {
+      wherePredicate =
+          builder.and(
+              wherePredicate, QueryUtils.createLastUpdatedPredicate(builder, root, lastUpdated));
+    }
+    criteria.where(wherePredicate);
+
+    Long count = null;
+    Timer.Context timerBeneCountQuery =
+        CommonTransformerUtils.createMetricsTimer(
+            metricRegistry, getClass().getSimpleName(), "query", "bene_count_by_id");
+    try {
+      count = entityManager.createQuery(criteria).getSingleResult();
+      return count.intValue();
+    } finally {
+      long beneCountByIdQueryNanoSeconds = timerBeneCountQuery.stop();
+      CommonTransformerUtils.recordQueryInMdc(
+          "bene_count_by_id", beneCountByIdQueryNanoSeconds, count == null ? 0 : 1);
+      timerBeneCountQuery.close();
+    }
+  }
+
   /**
    * Search by coverage contract.
    *
@@ -725,13 +836,30 @@ public final class R4PatientResourceProvider implements IResourceProvider, Commo
     }
 
     RequestHeaders requestHeader = RequestHeaders.getHeaderWrapper(requestDetails);
+    boolean countOnly = CommonTransformerUtils.isCountOnlyRequested(requestDetails);
     CanonicalOperation operation = new CanonicalOperation(CanonicalOperation.Endpoint.V2_PATIENT);
     operation.setOption("by", "identifier");
     requestHeader.getNVPairs().forEach((n, v) -> operation.setOption(n, v.toString()));
     operation.setOption(
         "_lastUpdated", Boolean.toString(lastUpdated != null && !lastUpdated.isEmpty()));
+    if (countOnly) {
+      operation.setOption("_summary", "count");
+    }
     operation.publishOperationName();
 
+    if (countOnly) {
+      int count;
+      try {
+        count =
+            countBeneficiaries(
+                findBeneficiaryIdByIdentifier(identifier.getSystem(), identifier.getValue()),
+                lastUpdated);
+      } catch (NoResultException e) {
+        count = 0;
+      }
+      return TransformerUtilsV2.createCountBundle(count, loadedFilterManager.getTransactionTime());
+    }
+
     List<IBaseResource> patients =
         fetchPatientResourceByIdentifer(identifier, lastUpdated, requestHeader);
 
@@ -6,6 +6,7 @@ import ca.uhn.fhir.model.api.TemporalPrecisionEnum;
 import ca.uhn.fhir.parser.DataFormatException;
 import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.ParamPrefixEnum;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
 import com.google.common.base.Strings;
@@ -38,6 +39,7 @@ import gov.cms.bfd.server.sharedutils.BfdMDC;
 import gov.cms.bfd.server.war.commons.C4BBInstutionalClaimSubtypes;
 import gov.cms.bfd.server.war.commons.CCWProcedure;
 import gov.cms.bfd.server.war.commons.CCWUtils;
+import gov.cms.bfd.server.war.commons.ClaimAvailability;
 import gov.cms.bfd.server.war.commons.ClaimType;
 import gov.cms.bfd.server.war.commons.CommonTransformerUtils;
 import gov.cms.bfd.server.war.commons.IcdCode;
@@ -1567,6 +1569,24 @@ public final class TransformerUtilsV2 {
     return bundle;
   }
 
+  /**
+   * Create a bundle that only reports the number of matching resources, for searches where {@link
+   * CommonTransformerUtils#isCountOnlyRequested} is true.
+   *
+   * @param total the number of matching resources
+   * @param transactionTime date for the bundle
+   * @return a {@link Bundle} with a total and no entries or links
+   */
+  public static Bundle createCountBundle(int total, Instant transactionTime) {
+    Bundle bundle = new Bundle();
+    bundle.setTotal(total);
+    bundle.getMeta().setLastUpdated(Date.from(transactionTime));
+
+    // No resources are returned, only their count.
+    LoggingUtils.logResourceCountToMdc(0);
+    return bundle;
+  }
+
   /**
    * Adds resources to the specified bundle.
    *
@@ -4018,6 +4038,63 @@ public final class TransformerUtilsV2 {
     }
   }
 
+  /**
+   * Process a {@link Set} of {@link ClaimType} entries and build an {@link EnumSet} of {@link
+   * ClaimType} entries that have claims data, are requested by the caller, and have at least one
+   * claim that could fall within the requested _lastUpdated and service-date windows.
+   *
+   * @param claimTypes {@link Set} set of {@link ClaimType} identifiers requested by client.
+   * @param availability {@link Map} of the {@link ClaimAvailability} for each claim type with data.
+   * @param lastUpdated optional _lastUpdated range requested by client.
+   * @param serviceDate optional service-date range requested by client.
+   * @return {@link EnumSet} of {@link ClaimType} types to process.
+   */
+  public static EnumSet<ClaimType> fetchClaimsAvailability(
+      Set<ClaimType> claimTypes,
+      Map<ClaimType, ClaimAvailability> availability,
+      Optional<DateRangeParam> lastUpdated,
+      Optional<DateRangeParam> serviceDate) {
+    EnumSet<ClaimType> availSet = EnumSet.noneOf(ClaimType.class);
+    for (ClaimAvailability claims : availability.values()) {
+      if (claimTypes.contains(claims.getClaimType())
+          && claims.mayMatchLastUpdated(lastUpdated)
+          && mayMatchServiceDate(claims, serviceDate)) {
+        availSet.add(claims.getClaimType());
+      }
+    }
+    return availSet;
+  }
+
+  /**
+   * Determines if any claim summarized by a {@link ClaimAvailability} could fall within the
+   * service-date range. Uses the same comparisons as {@link PatientClaimsEobTaskTransformerV2}
+   * applies to individual claims so that a claim type is only skipped when that filtering would
+   * have removed all of its claims.
+   *
+   * @param claims the claim type summary
+   * @param serviceDate optional service-date range requested by client.
+   * @return false if no claim can match, true if some might
+   */
+  private static boolean mayMatchServiceDate(
+      ClaimAvailability claims, Optional<DateRangeParam> serviceDate) {
+    if (serviceDate.isEmpty() || serviceDate.get().isEmpty()) {
+      return true;
+    }
+    final DateRangeParam range = serviceDate.get();
+    if (range.getLowerBoundAsInstant() != null
+        && !compareLocalDate(
+            claims.getMaxServiceEndDate(),
+            QueryUtils.toServiceDateBound(range.getLowerBoundAsInstant()),
+            range.getLowerBound().getPrefix())) {
+      return false;
+    }
+    return range.getUpperBoundAsInstant() == null
+        || compareLocalDate(
+            claims.getMinServiceEndDate(),
+            QueryUtils.toServiceDateBound(range.getUpperBoundAsInstant()),
+            range.getUpperBound().getPrefix());
+  }
+
   /**
    * Process a {@link Set} of {@link ClaimType} entries and build an {@link EnumSet} of {@link
    * ClaimType} entries that meet the criteria of having claims data claims data (derived from int
@@ -1,5 +1,6 @@
 package gov.cms.bfd.server.war.r4.providers.pac;
 
+import static gov.cms.bfd.server.war.SpringConfiguration.PROP_JDBC_CLAIM_READS_ENABLED;
 import static java.util.Objects.requireNonNull;
 
 import ca.uhn.fhir.model.api.annotation.Description;
@@ -22,6 +23,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.newrelic.api.agent.Trace;
 import gov.cms.bfd.server.war.commons.AbstractResourceProvider;
+import gov.cms.bfd.server.war.commons.CommonTransformerUtils;
 import gov.cms.bfd.server.war.commons.OffsetLinkBuilder;
 import gov.cms.bfd.server.war.commons.OpenAPIContentProvider;
 import gov.cms.bfd.server.war.r4.providers.TransformerUtilsV2;
@@ -35,8 +37,10 @@ import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -54,6 +58,7 @@ import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.ClaimResponse;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Resource;
+import org.springframework.beans.factory.annotation.Value;
 
 /**
  * Allows for generic processing of resource using common logic. Claims and ClaimResponses have the
@@ -87,6 +92,9 @@ public abstract class AbstractR4ResourceProvider<T extends IBaseResource>
   /** True if old MBI values should be included in queries. */
   private final Boolean oldMbiHashEnabled;
 
+  /** True if claims should be read directly using JDBC rather than JPA. */
+  private boolean jdbcClaimReadsEnabled;
+
   /** The entity manager. */
   private EntityManager entityManager;
 
@@ -149,10 +157,22 @@ public abstract class AbstractR4ResourceProvider<T extends IBaseResource>
     this.entityManager = entityManager;
   }
 
+  /**
+   * Sets the {@link #jdbcClaimReadsEnabled}. Injected by a setter so that it can be left at its
+   * default by subclasses and tests.
+   *
+   * @param jdbcClaimReadsEnabled true if claims should be read directly using JDBC
+   */
+  @Value("${" + PROP_JDBC_CLAIM_READS_ENABLED + ":false}")
+  public void setJdbcClaimReadsEnabled(boolean jdbcClaimReadsEnabled) {
+    this.jdbcClaimReadsEnabled = jdbcClaimReadsEnabled;
+  }
+
   /** Initiates the provider's dependencies. */
   @PostConstruct
   public void init() {
-    claimDao = new ClaimDao(entityManager, metricRegistry, oldMbiHashEnabled);
+    claimDao =
+        new ClaimDao(entityManager, metricRegistry, oldMbiHashEnabled, jdbcClaimReadsEnabled);
 
     setResourceType();
   }
@@ -411,7 +431,15 @@ public abstract class AbstractR4ResourceProvider<T extends IBaseResource>
 
       BundleOptions bundleOptions = new BundleOptions(isHashed, excludeSamhsa, includeTaxNumbers);
 
-      if (types != null) {
+      if (CommonTransformerUtils.isCountOnlyRequested(requestDetails)) {
+        bundleResource =
+            createCountBundleFor(
+                types != null ? parseClaimTypes(types) : getResourceTypes(),
+                mbiString,
+                lastUpdated,
+                serviceDate,
+                bundleOptions);
+      } else if (types != null) {
         bundleResource =
             createBundleFor(
                 parseClaimTypes(types), mbiString, lastUpdated, serviceDate, paging, bundleOptions);
@@ -488,6 +516,51 @@ public abstract class AbstractR4ResourceProvider<T extends IBaseResource>
     return bundle;
   }
 
+  /**
+   * Creates a Bundle holding only the number of resources for the given data, for searches that
+   * request {@code _summary=count} or {@code _count=0}. The claims are counted in the database
+   * unless SAMHSA data is excluded, in which case they are loaded and checked but not transformed.
+   * The bundle's lastUpdated is the time counting started, since every counted claim was last
+   * updated before then.
+   *
+   * @param resourceTypes The {@link ResourceTypeV2} data to count.
+   * @param mbi The mbi to look up associated data for.
+   * @param lastUpdated Date range of desired lastUpdate values to count data for.
+   * @param serviceDate Date range of the desired service date to count data for.
+   * @param bundleOptions Bundle related options that affect the results.
+   * @return A Bundle with the total number of resources and no entries.
+   */
+  @VisibleForTesting
+  Bundle createCountBundleFor(
+      Set<ResourceTypeV2<T, ?>> resourceTypes,
+      String mbi,
+      DateRangeParam lastUpdated,
+      DateRangeParam serviceDate,
+      BundleOptions bundleOptions) {
+    final Instant countTime = Instant.now();
+    long total = 0;
+
+    for (ResourceTypeV2<T, ?> type : resourceTypes) {
+      if (bundleOptions.excludeSamhsa) {
+        total +=
+            claimDao
+                .findAllByMbiAttribute(type, mbi, bundleOptions.isHashed, lastUpdated, serviceDate)
+                .stream()
+                .filter(samhsaMatcher::hasNoSamhsaData)
+                .count();
+      } else {
+        total +=
+            claimDao.countByMbiAttribute(
+                type, mbi, bundleOptions.isHashed, lastUpdated, serviceDate);
+      }
+    }
+
+    Bundle bundle = new Bundle();
+    bundle.setTotal(Math.toIntExact(total));
+    bundle.getMeta().setLastUpdated(Date.from(countTime));
+    return bundle;
+  }
+
   /** Helper class for passing bundle result options. */
   private static class BundleOptions {
 
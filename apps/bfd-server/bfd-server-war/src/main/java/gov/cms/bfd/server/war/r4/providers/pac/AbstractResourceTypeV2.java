@@ -1,9 +1,12 @@
 package gov.cms.bfd.server.war.r4.providers.pac;
 
+import gov.cms.bfd.model.rda.Mbi;
 import gov.cms.bfd.server.war.r4.providers.pac.common.ResourceTypeV2;
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.hl7.fhir.instance.model.api.IBaseResource;
@@ -37,6 +40,56 @@ public abstract class AbstractResourceTypeV2<TResource extends IBaseResource, TE
   /** The attribute holding the end date for range queries in the entity class. */
   protected final List<String> entityServiceDateAttributes;
 
+  /** Reads the entity class using JDBC, or null if entities can only be read using JPA. */
+  protected final EntityRowMapper<TEntity> entityRowMapper;
+
+  /** Sets the MBI of entities read by {@link #entityRowMapper}, or null if there is none. */
+  protected final BiConsumer<TEntity, Mbi> entityMbiRecordSetter;
+
+  /**
+   * Initializes an instance whose entities can only be read using JPA.
+   *
+   * @param nameForParsing name used when parsing parameter string to find appropriate instance
+   * @param typeLabel value returned by {@link ResourceTypeV2#getTypeLabel()}
+   * @param entityClass the entity class for the associated resource
+   * @param entityMbiRecordAttribute the attribute name for the mbi value on the entity class
+   * @param entityIdAttribute the attribute name for the ID of the entity class
+   * @param entityServiceDateAttributes the attribute names for the service dates on the entity
+   *     class
+   */
+  protected AbstractResourceTypeV2(
+      String nameForParsing,
+      String typeLabel,
+      Class<TEntity> entityClass,
+      String entityMbiRecordAttribute,
+      String entityIdAttribute,
+      List<String> entityServiceDateAttributes) {
+    this(
+        nameForParsing,
+        typeLabel,
+        entityClass,
+        entityMbiRecordAttribute,
+        entityIdAttribute,
+        entityServiceDateAttributes,
+        null,
+        null);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Optional<EntityRowMapper<TEntity>> getEntityRowMapper() {
+    return Optional.ofNullable(entityRowMapper);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void setEntityMbiRecord(TEntity entity, Mbi mbiRecord) {
+    if (entityMbiRecordSetter == null) {
+      throw new UnsupportedOperationException("entities are only read using JPA: " + typeLabel);
+    }
+    entityMbiRecordSetter.accept(entity, mbiRecord);
+  }
+
   /**
    * Scans the provided instances to find the first one whose {@link
    * AbstractResourceTypeV2#nameForParsing}* is equal to the provided string.
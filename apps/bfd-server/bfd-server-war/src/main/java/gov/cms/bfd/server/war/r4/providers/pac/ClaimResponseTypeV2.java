@@ -1,10 +1,15 @@
 package gov.cms.bfd.server.war.r4.providers.pac;
 
+import gov.cms.bfd.model.rda.Mbi;
 import gov.cms.bfd.model.rda.entities.RdaFissClaim;
+import gov.cms.bfd.model.rda.entities.RdaFissClaimRowMapper;
 import gov.cms.bfd.model.rda.entities.RdaMcsClaim;
+import gov.cms.bfd.model.rda.entities.RdaMcsClaimRowMapper;
 import gov.cms.bfd.server.war.r4.providers.pac.common.ResourceTypeV2;
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.hl7.fhir.r4.model.ClaimResponse;
 
 /**
@@ -23,7 +28,9 @@ public final class ClaimResponseTypeV2<TEntity>
           RdaFissClaim.class,
           RdaFissClaim.Fields.mbiRecord,
           RdaFissClaim.Fields.claimId,
-          List.of(RdaFissClaim.Fields.stmtCovFromDate, RdaFissClaim.Fields.stmtCovToDate));
+          List.of(RdaFissClaim.Fields.stmtCovFromDate, RdaFissClaim.Fields.stmtCovToDate),
+          RdaFissClaimRowMapper.INSTANCE,
+          RdaFissClaim::setMbiRecord);
 
   /** Instance for MCS claims. */
   public static final ClaimResponseTypeV2<RdaMcsClaim> M =
@@ -33,7 +40,9 @@ public final class ClaimResponseTypeV2<TEntity>
           RdaMcsClaim.class,
           RdaMcsClaim.Fields.mbiRecord,
           RdaMcsClaim.Fields.idrClmHdIcn,
-          List.of(RdaMcsClaim.Fields.idrHdrFromDateOfSvc, RdaMcsClaim.Fields.idrHdrToDateOfSvc));
+          List.of(RdaMcsClaim.Fields.idrHdrFromDateOfSvc, RdaMcsClaim.Fields.idrHdrToDateOfSvc),
+          RdaMcsClaimRowMapper.INSTANCE,
+          RdaMcsClaim::setMbiRecord);
 
   /** Immutable list of all possible instances of this class. */
   private static final List<ClaimResponseTypeV2<?>> VALUES = List.of(F, M);
@@ -48,6 +57,8 @@ public final class ClaimResponseTypeV2<TEntity>
    * @param entityIdAttribute the attribute name for the ID of the entity class
    * @param entityServiceDateAttributes the attribute name for the service end date on the entity
    *     class
+   * @param entityRowMapper reads the entity class using JDBC
+   * @param entityMbiRecordSetter sets the MBI of entities read using the row mapper
    */
   private ClaimResponseTypeV2(
       String nameForParsing,
@@ -55,14 +66,18 @@ public final class ClaimResponseTypeV2<TEntity>
       Class<TEntity> entityClass,
       String entityMbiRecordAttribute,
       String entityIdAttribute,
-      List<String> entityServiceDateAttributes) {
+      List<String> entityServiceDateAttributes,
+      EntityRowMapper<TEntity> entityRowMapper,
+      BiConsumer<TEntity, Mbi> entityMbiRecordSetter) {
     super(
         nameForParsing,
         typeLabel,
         entityClass,
         entityMbiRecordAttribute,
         entityIdAttribute,
-        entityServiceDateAttributes);
+        entityServiceDateAttributes,
+        entityRowMapper,
+        entityMbiRecordSetter);
   }
 
   /**
@@ -1,10 +1,15 @@
 package gov.cms.bfd.server.war.r4.providers.pac;
 
+import gov.cms.bfd.model.rda.Mbi;
 import gov.cms.bfd.model.rda.entities.RdaFissClaim;
+import gov.cms.bfd.model.rda.entities.RdaFissClaimRowMapper;
 import gov.cms.bfd.model.rda.entities.RdaMcsClaim;
+import gov.cms.bfd.model.rda.entities.RdaMcsClaimRowMapper;
 import gov.cms.bfd.server.war.r4.providers.pac.common.ResourceTypeV2;
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.hl7.fhir.r4.model.Claim;
 
 /**
@@ -22,7 +27,9 @@ public final class ClaimTypeV2<TEntity> extends AbstractResourceTypeV2<Claim, TE
           RdaFissClaim.class,
           RdaFissClaim.Fields.mbiRecord,
           RdaFissClaim.Fields.claimId,
-          List.of(RdaFissClaim.Fields.stmtCovFromDate, RdaFissClaim.Fields.stmtCovToDate));
+          List.of(RdaFissClaim.Fields.stmtCovFromDate, RdaFissClaim.Fields.stmtCovToDate),
+          RdaFissClaimRowMapper.INSTANCE,
+          RdaFissClaim::setMbiRecord);
 
   /** Instance for MCS claims. */
   public static final ClaimTypeV2<RdaMcsClaim> M =
@@ -32,7 +39,9 @@ public final class ClaimTypeV2<TEntity> extends AbstractResourceTypeV2<Claim, TE
           RdaMcsClaim.class,
           RdaMcsClaim.Fields.mbiRecord,
           RdaMcsClaim.Fields.idrClmHdIcn,
-          List.of(RdaMcsClaim.Fields.idrHdrFromDateOfSvc, RdaMcsClaim.Fields.idrHdrToDateOfSvc));
+          List.of(RdaMcsClaim.Fields.idrHdrFromDateOfSvc, RdaMcsClaim.Fields.idrHdrToDateOfSvc),
+          RdaMcsClaimRowMapper.INSTANCE,
+          RdaMcsClaim::setMbiRecord);
 
   /** Immutable list of all possible instances of this class. */
   private static final List<ClaimTypeV2<?>> VALUES = List.of(F, M);
@@ -47,6 +56,8 @@ public final class ClaimTypeV2<TEntity> extends AbstractResourceTypeV2<Claim, TE
    * @param entityIdAttribute the attribute name for the ID of the entity class
    * @param entityServiceDateAttributes the attribute name for the service end date on the entity
    *     class
+   * @param entityRowMapper reads the entity class using JDBC
+   * @param entityMbiRecordSetter sets the MBI of entities read using the row mapper
    */
   private ClaimTypeV2(
       String nameForParsing,
@@ -54,14 +65,18 @@ public final class ClaimTypeV2<TEntity> extends AbstractResourceTypeV2<Claim, TE
       Class<TEntity> entityClass,
       String entityMbiRecordAttribute,
       String entityIdAttribute,
-      List<String> entityServiceDateAttributes) {
+      List<String> entityServiceDateAttributes,
+      EntityRowMapper<TEntity> entityRowMapper,
+      BiConsumer<TEntity, Mbi> entityMbiRecordSetter) {
     super(
         nameForParsing,
         typeLabel,
         entityClass,
         entityMbiRecordAttribute,
         entityIdAttribute,
-        entityServiceDateAttributes);
+        entityServiceDateAttributes,
+        entityRowMapper,
+        entityMbiRecordSetter);
   }
 
   /**
@@ -8,16 +8,25 @@ import com.newrelic.api.agent.Trace;
 import gov.cms.bfd.model.rda.Mbi;
 import gov.cms.bfd.server.war.commons.CommonTransformerUtils;
 import gov.cms.bfd.server.war.commons.QueryUtils;
+import gov.cms.bfd.server.war.commons.SqlConditions;
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.NoResultException;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 
@@ -32,6 +41,19 @@ public class ClaimDao {
   /** Query name for logging MDC. */
   static final String CLAIM_BY_ID_QUERY = "claim_by_id";
 
+  /** Query name for logging MDC. */
+  static final String CLAIM_COUNT_BY_MBI_QUERY = "claim_count_by_mbi";
+
+  /** Name of the field holding the foreign key to the {@link Mbi} in the claim entities. */
+  static final String MBI_ID_FIELD = "mbiId";
+
+  /** Name of the field holding the last updated time in the claim entities. */
+  static final String LAST_UPDATED_FIELD = "lastUpdated";
+
+  /** Statement that selects every column of {@link Mbi} when claims are read using JDBC. */
+  static final String MBI_SELECT_SQL =
+      "select mbi_id, mbi, hash, old_hash, last_updated from rda.mbi_cache";
+
   /** {@link EntityManager} used for database access. */
   private final EntityManager entityManager;
 
@@ -41,6 +63,24 @@ public class ClaimDao {
   /** Whether or not to use old MBI hash functionality. */
   private final boolean isOldMbiHashEnabled;
 
+  /**
+   * Whether or not to read claims directly using JDBC when the {@link ResourceTypeV2} has an {@link
+   * EntityRowMapper}. Counts are always computed using JPA.
+   */
+  private final boolean isJdbcReadsEnabled;
+
+  /**
+   * Initializes an instance that reads claims using JPA.
+   *
+   * @param entityManager used for database access
+   * @param metricRegistry for metrics
+   * @param isOldMbiHashEnabled whether or not to use old MBI hash functionality
+   */
+  public ClaimDao(
+      EntityManager entityManager, MetricRegistry metricRegistry, boolean isOldMbiHashEnabled) {
+    this(entityManager, metricRegistry, isOldMbiHashEnabled, false);
+  }
+
   /**
    * Gets an entity by it's ID for the given claim type.
    *
@@ -51,6 +91,11 @@ public class ClaimDao {
    */
   @Trace
   public <T> T getEntityById(ResourceTypeV2<?, T> resourceType, String id) {
+    final Optional<EntityRowMapper<T>> rowMapper = getJdbcRowMapper(resourceType);
+    if (rowMapper.isPresent()) {
+      return getEntityByIdWithJdbc(resourceType, rowMapper.get(), id);
+    }
+
     final Class<T> entityClass = resourceType.getEntityClass();
     final String entityIdAttribute = resourceType.getEntityIdAttribute();
 
@@ -94,6 +139,17 @@ public class ClaimDao {
       boolean isMbiSearchValueHashed,
       DateRangeParam lastUpdated,
       DateRangeParam serviceDate) {
+    final Optional<EntityRowMapper<T>> rowMapper = getJdbcRowMapper(resourceType);
+    if (rowMapper.isPresent()) {
+      return findAllByMbiAttributeWithJdbc(
+          resourceType,
+          rowMapper.get(),
+          mbiSearchValue,
+          isMbiSearchValueHashed,
+          lastUpdated,
+          serviceDate);
+    }
+
     final Class<T> entityClass = resourceType.getEntityClass();
     final String idAttributeName = resourceType.getEntityIdAttribute();
     final CriteriaBuilder builder = entityManager.getCriteriaBuilder();
@@ -135,6 +191,248 @@ public class ClaimDao {
     return claimEntities;
   }
 
+  /**
+   * Count records by MBI (hashed or unhashed) for a given {@link ResourceTypeV2} using the same
+   * conditions as {@link #findAllByMbiAttribute}.
+   *
+   * @param resourceType The {@link ResourceTypeV2} that defines properties required for the query.
+   * @param mbiSearchValue The desired value of the mbi attribute be searched on.
+   * @param isMbiSearchValueHashed True if the mbiSearchValue is a hashed MBI.
+   * @param lastUpdated The range of lastUpdated values to search on.
+   * @param serviceDate The range of the desired service date to search on.
+   * @param <T> The entity type being counted.
+   * @return The number of entities matching the given parameters.
+   */
+  @Trace
+  public <T> long countByMbiAttribute(
+      ResourceTypeV2<?, T> resourceType,
+      String mbiSearchValue,
+      boolean isMbiSearchValueHashed,
+      DateRangeParam lastUpdated,
+      DateRangeParam serviceDate) {
+    final Class<T> entityClass = resourceType.getEntityClass();
+    final CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<Long> criteria = builder.createQuery(Long.class);
+    final Root<T> root = criteria.from(entityClass);
+
+    criteria.select(builder.count(root));
+
+    final List<Predicate> predicates =
+        createStandardPredicatesForMbiLookup(
+            builder,
+            root,
+            resourceType,
+            mbiSearchValue,
+            isMbiSearchValueHashed,
+            lastUpdated,
+            serviceDate);
+
+    criteria.where(predicates.toArray(new Predicate[0]));
+
+    Long count = null;
+
+    Timer.Context timerClaimQuery =
+        getTimerForResourceQuery(resourceType, CLAIM_COUNT_BY_MBI_QUERY).time();
+    try {
+      count = entityManager.createQuery(criteria).getSingleResult();
+    } finally {
+      logQueryMetric(
+          resourceType, CLAIM_COUNT_BY_MBI_QUERY, timerClaimQuery.stop(), count == null ? 0 : 1);
+    }
+
+    return count;
+  }
+
+  /**
+   * Gets the {@link EntityRowMapper} to use for reading claims of the given type, if JDBC reads are
+   * enabled and the type supports them.
+   *
+   * @param resourceType the type of claim being read
+   * @param <T> the entity type
+   * @return the row mapper or empty if claims must be read using JPA
+   */
+  private <T> Optional<EntityRowMapper<T>> getJdbcRowMapper(ResourceTypeV2<?, T> resourceType) {
+    return isJdbcReadsEnabled ? resourceType.getEntityRowMapper() : Optional.empty();
+  }
+
+  /**
+   * Implementation of {@link #getEntityById} that reads the claim and its {@link Mbi} directly
+   * using JDBC. The returned entity is not attached to any persistence context.
+   *
+   * @param resourceType the type of claim to retrieve
+   * @param rowMapper reads the claim
+   * @param id the id of the claim to retrieve
+   * @param <T> the entity type being retrieved
+   * @return the claim
+   * @throws NoResultException if there is no such claim
+   */
+  private <T> T getEntityByIdWithJdbc(
+      ResourceTypeV2<?, T> resourceType, EntityRowMapper<T> rowMapper, String id) {
+    final String idColumnName = rowMapper.getColumnName(resourceType.getEntityIdAttribute());
+    final String mbiSql =
+        String.format(
+            "%s where mbi_id in (select %s from %s where %s = ?)",
+            MBI_SELECT_SQL,
+            rowMapper.getColumnName(MBI_ID_FIELD),
+            rowMapper.getTableName(),
+            idColumnName);
+    final SqlConditions conditions = new SqlConditions().addEquals(idColumnName, id);
+
+    List<T> claimEntities = null;
+
+    Timer.Context timerClaimQuery =
+        getTimerForResourceQuery(resourceType, CLAIM_BY_ID_QUERY).time();
+    try {
+      claimEntities =
+          QueryUtils.readWithJdbc(
+              entityManager,
+              connection -> {
+                final List<T> entities =
+                    rowMapper.readAll(
+                        connection, conditions.toClauses(idColumnName), conditions.getParameters());
+                final List<Mbi> mbiRecords = readMbiRecords(connection, mbiSql, List.of(id));
+                if (!mbiRecords.isEmpty()) {
+                  entities.forEach(
+                      entity -> resourceType.setEntityMbiRecord(entity, mbiRecords.getFirst()));
+                }
+                return entities;
+              });
+    } finally {
+      logQueryMetric(
+          resourceType,
+          CLAIM_BY_ID_QUERY,
+          timerClaimQuery.stop(),
+          claimEntities == null ? 0 : claimEntities.size());
+    }
+
+    if (claimEntities.isEmpty()) {
+      throw new NoResultException(
+          String.format("no claim found: type=%s id=%s", resourceType.getTypeLabel(), id));
+    }
+    return claimEntities.getFirst();
+  }
+
+  /**
+   * Implementation of {@link #findAllByMbiAttribute} that reads the claims and their {@link Mbi}
+   * directly using JDBC. The matching {@link Mbi} records are read first and then the claims for
+   * each of them are read using the same conditions as {@link
+   * #createStandardPredicatesForMbiLookup}. The returned entities are not attached to any
+   * persistence context.
+   *
+   * <p>Claims are sorted by id for each {@link Mbi}. Only when the old MBI hash is enabled can more
+   * than one {@link Mbi} match, in which case the claims of each are returned in turn.
+   *
+   * @param resourceType the {@link ResourceTypeV2} that defines properties required for the query
+   * @param rowMapper reads the claims
+   * @param mbiSearchValue the desired value of the mbi attribute be searched on
+   * @param isMbiSearchValueHashed true if the mbiSearchValue is a hashed MBI
+   * @param lastUpdated the range of lastUpdated values to search on
+   * @param serviceDate the range of the desired service date to search on
+   * @param <T> the entity type being retrieved
+   * @return the claims
+   */
+  private <T> List<T> findAllByMbiAttributeWithJdbc(
+      ResourceTypeV2<?, T> resourceType,
+      EntityRowMapper<T> rowMapper,
+      String mbiSearchValue,
+      boolean isMbiSearchValueHashed,
+      DateRangeParam lastUpdated,
+      DateRangeParam serviceDate) {
+    final String idColumnName = rowMapper.getColumnName(resourceType.getEntityIdAttribute());
+    final String mbiIdColumnName = rowMapper.getColumnName(MBI_ID_FIELD);
+    final String mbiSql;
+    final List<String> mbiParameters;
+    if (!isMbiSearchValueHashed) {
+      mbiSql = MBI_SELECT_SQL + " where mbi = ?";
+      mbiParameters = List.of(mbiSearchValue);
+    } else if (isOldMbiHashEnabled) {
+      mbiSql = MBI_SELECT_SQL + " where hash = ? or old_hash = ?";
+      mbiParameters = List.of(mbiSearchValue, mbiSearchValue);
+    } else {
+      mbiSql = MBI_SELECT_SQL + " where hash = ?";
+      mbiParameters = List.of(mbiSearchValue);
+    }
+
+    List<T> claimEntities = null;
+
+    Timer.Context timerClaimQuery =
+        getTimerForResourceQuery(resourceType, CLAIM_BY_MBI_QUERY).time();
+    try {
+      claimEntities =
+          QueryUtils.readWithJdbc(
+              entityManager,
+              connection -> {
+                final List<T> entities = new ArrayList<>();
+                for (Mbi mbiRecord : readMbiRecords(connection, mbiSql, mbiParameters)) {
+                  final SqlConditions conditions =
+                      new SqlConditions().addEquals(mbiIdColumnName, mbiRecord.getMbiId());
+                  if (isDateRangePresent(lastUpdated)) {
+                    conditions.addLastUpdated(
+                        rowMapper.getColumnName(LAST_UPDATED_FIELD), lastUpdated);
+                  }
+                  if (isDateRangePresent(serviceDate)) {
+                    conditions.addAnyDateInRange(
+                        resourceType.getEntityServiceDateAttributes().stream()
+                            .map(rowMapper::getColumnName)
+                            .toList(),
+                        serviceDate);
+                  }
+                  for (T entity :
+                      rowMapper.readAll(
+                          connection,
+                          conditions.toClauses(idColumnName),
+                          conditions.getParameters())) {
+                    resourceType.setEntityMbiRecord(entity, mbiRecord);
+                    entities.add(entity);
+                  }
+                }
+                return entities;
+              });
+    } finally {
+      logQueryMetric(
+          resourceType,
+          CLAIM_BY_MBI_QUERY,
+          timerClaimQuery.stop(),
+          claimEntities == null ? 0 : claimEntities.size());
+    }
+
+    return claimEntities;
+  }
+
+  /**
+   * Runs a query that selects {@link Mbi} records using {@link #MBI_SELECT_SQL}.
+   *
+   * @param connection used to run the query
+   * @param sql the statement to run
+   * @param parameters values for the parameters in the statement
+   * @return the records
+   * @throws SQLException if the query fails
+   */
+  @VisibleForTesting
+  static List<Mbi> readMbiRecords(Connection connection, String sql, List<String> parameters)
+      throws SQLException {
+    final List<Mbi> mbiRecords = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      for (int i = 0; i < parameters.size(); ++i) {
+        statement.setString(i + 1, parameters.get(i));
+      }
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          final Timestamp lastUpdated = resultSet.getTimestamp(5);
+          mbiRecords.add(
+              Mbi.builder()
+                  .mbiId(resultSet.getLong(1))
+                  .mbi(resultSet.getString(2))
+                  .hash(resultSet.getString(3))
+                  .oldHash(resultSet.getString(4))
+                  .lastUpdated(lastUpdated == null ? null : lastUpdated.toInstant())
+                  .build());
+        }
+      }
+    }
+    return mbiRecords;
+  }
+
   /**
    * Builds a list of predicates for standard MBI and date range restrictions on search. Used for
    * FISS claim lookup and for MCS root lookup when no service date restriction is in place. If an
@@ -1,9 +1,12 @@
 package gov.cms.bfd.server.war.r4.providers.pac.common;
 
+import gov.cms.bfd.model.rda.Mbi;
 import gov.cms.bfd.server.war.r4.providers.pac.AbstractR4ResourceProvider;
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import java.util.List;
+import java.util.Optional;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 
 /**
@@ -49,4 +52,21 @@ public interface ResourceTypeV2<TResource extends IBaseResource, TEntity> {
    * @return the list of attribute names
    */
   List<String> getEntityServiceDateAttributes();
+
+  /**
+   * Gets the {@link EntityRowMapper} that reads entities of {@link #getEntityClass()} directly
+   * using JDBC, if this type supports that.
+   *
+   * @return the row mapper or empty if entities can only be read using JPA
+   */
+  Optional<EntityRowMapper<TEntity>> getEntityRowMapper();
+
+  /**
+   * Sets the attribute named by {@link #getEntityMbiRecordAttribute()} on an entity read using
+   * {@link #getEntityRowMapper()}, since row mappers do not populate single value joins.
+   *
+   * @param entity the entity to update
+   * @param mbiRecord the entity's MBI
+   */
+  void setEntityMbiRecord(TEntity entity, Mbi mbiRecord);
 }
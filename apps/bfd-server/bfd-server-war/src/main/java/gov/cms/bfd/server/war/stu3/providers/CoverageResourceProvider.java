@@ -21,6 +21,7 @@ import com.newrelic.api.agent.Trace;
 import gov.cms.bfd.model.rif.entities.Beneficiary;
 import gov.cms.bfd.model.rif.entities.Beneficiary_;
 import gov.cms.bfd.server.war.CanonicalOperation;
+import gov.cms.bfd.server.war.commons.CommonQueries;
 import gov.cms.bfd.server.war.commons.CommonTransformerUtils;
 import gov.cms.bfd.server.war.commons.LoadedFilterManager;
 import gov.cms.bfd.server.war.commons.LoggingUtils;
@@ -280,7 +281,9 @@ public final class CoverageResourceProvider implements IResourceProvider {
         CommonTransformerUtils.createMetricsTimer(
             metricRegistry, getClass().getSimpleName(), "query", "bene_by_id")) {
       try {
-        beneficiary = entityManager.createQuery(criteria).getSingleResult();
+        beneficiary =
+            CommonQueries.cacheBeneficiaryQuery(entityManager.createQuery(criteria))
+                .getSingleResult();
       } finally {
         long beneByIdQueryNanoSeconds = timerBeneQuery.stop();
         CommonTransformerUtils.recordQueryInMdc(
@@ -12,6 +12,7 @@ import gov.cms.bfd.data.npi.lookup.NPIOrgLookup;
 import gov.cms.bfd.server.war.commons.ClaimType;
 import gov.cms.bfd.server.war.commons.CommonTransformerUtils;
 import gov.cms.bfd.server.war.commons.QueryUtils;
+import gov.cms.bfd.server.war.commons.RequestProfile;
 import gov.cms.bfd.server.war.r4.providers.PatientClaimsEobTaskTransformerV2;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
@@ -118,6 +119,12 @@ public class PatientClaimsEobTaskTransformer implements Callable {
   /** keep track of SAMHSA removals. */
   private final AtomicInteger samhsaRemovedCount = new AtomicInteger(0);
 
+  /** the profile of the request the task runs for, captured when the task is set up. */
+  private Optional<RequestProfile> requestProfile = Optional.empty();
+
+  /** time the task was set up, used to compute how long it waited for a thread. */
+  private long submittedNanos;
+
   /** the list of EOBs that we'll return. */
   private final List<ExplanationOfBenefit> eobs = new ArrayList<ExplanationOfBenefit>();
 
@@ -167,6 +174,8 @@ public class PatientClaimsEobTaskTransformer implements Callable {
     this.lastUpdated = lastUpdated;
     this.serviceDate = serviceDate;
     this.excludeSamhsa = excludeSamhsa;
+    this.requestProfile = RequestProfile.current();
+    this.submittedNanos = System.nanoTime();
   }
 
   /**
@@ -198,7 +207,8 @@ public class PatientClaimsEobTaskTransformer implements Callable {
   @Override
   public PatientClaimsEobTaskTransformer call() {
     LOGGER.debug("TransformPatientClaimsToEobTaskpwd.call() started for {}", id);
-    try {
+    final long startNanos = System.nanoTime();
+    try (RequestProfile.Attachment attachment = RequestProfile.attach(requestProfile)) {
       eobs.addAll(transformToEobs(findClaimTypeByPatient()));
       if (excludeSamhsa) {
         filterSamhsa(eobs);
@@ -210,10 +220,32 @@ public class PatientClaimsEobTaskTransformer implements Callable {
       // keep track of the Exception so we can provide to caller.
       LOGGER.error(e.getMessage(), e);
       taskException.set(e);
+    } finally {
+      recordProfile(startNanos);
     }
     return this;
   }
 
+  /**
+   * Adds the time the task spent waiting for a thread, and a summary of the task, to the profile of
+   * the request it ran for.
+   *
+   * @param startNanos the time the task started running
+   */
+  private void recordProfile(long startNanos) {
+    requestProfile.ifPresent(
+        profile -> {
+          final long queueWaitNanos = startNanos - submittedNanos;
+          profile.add(RequestProfile.Phase.QUEUE_WAIT, queueWaitNanos);
+          profile.addTask(
+              new RequestProfile.TaskSummary(
+                  claimType.name().toLowerCase(),
+                  queueWaitNanos,
+                  System.nanoTime() - startNanos,
+                  eobs.size()));
+        });
+  }
+
   /**
    * Transform a list of claims to a list of {@link ExplanationOfBenefit} objects.
    *
@@ -222,7 +254,12 @@ public class PatientClaimsEobTaskTransformer implements Callable {
    */
   @Trace
   private List<ExplanationOfBenefit> transformToEobs(List<?> claims) {
-    return claims.stream().map(c -> transformEobClaim(c)).collect(Collectors.toList());
+    final long startNanos = System.nanoTime();
+    try {
+      return claims.stream().map(c -> transformEobClaim(c)).collect(Collectors.toList());
+    } finally {
+      RequestProfile.record(RequestProfile.Phase.TRANSFORM, System.nanoTime() - startNanos);
+    }
   }
 
   /**
@@ -308,8 +345,7 @@ public class PatientClaimsEobTaskTransformer implements Callable {
     CriteriaBuilder builder = entityManager.getCriteriaBuilder();
     CriteriaQuery criteria = builder.createQuery((Class) claimType.getEntityClass());
     Root root = criteria.from(claimType.getEntityClass());
-    claimType.getEntityLazyAttributes().stream().forEach(a -> root.fetch(a));
-    criteria.select(root).distinct(true);
+    criteria.select(root);
 
     Predicate wherePredicate =
         builder.equal(root.get(claimType.getEntityBeneficiaryIdAttribute()), id);
@@ -329,7 +365,7 @@ public class PatientClaimsEobTaskTransformer implements Callable {
             "eobs_by_bene_id",
             claimType.name().toLowerCase());
     try {
-      claimEntities = entityManager.createQuery(criteria).getResultList();
+      claimEntities = QueryUtils.findWithSubselectFetch(entityManager, criteria);
     } finally {
       long eobsByBeneIdQueryNanoSeconds = timerEobQuery.stop();
       CommonTransformerUtils.recordQueryInMdc(
@@ -383,6 +419,7 @@ public class PatientClaimsEobTaskTransformer implements Callable {
    * @param eobs the {@link List} of {@link ExplanationOfBenefit} resources (i.e. claims) to filter
    */
   private void filterSamhsa(List<ExplanationOfBenefit> eobs) {
+    final long startNanos = System.nanoTime();
     ListIterator<ExplanationOfBenefit> eobsIter = eobs.listIterator();
     // init to zero if doing SAMHSA filtering
     samhsaIgnoredCount.getAndIncrement();
@@ -395,5 +432,6 @@ public class PatientClaimsEobTaskTransformer implements Callable {
         samhsaIgnoredCount.getAndIncrement();
       }
     }
+    RequestProfile.record(RequestProfile.Phase.SAMHSA_FILTER, System.nanoTime() - startNanos);
   }
 }
@@ -192,4 +192,14 @@ public final class QueryLoggingListenerTest {
 
     assertEquals(QueryType.CHECK_CLAIMS_MASK, QueryType.computeQueryType(queryInfo));
   }
+
+  /** Verifies that {@link QueryType#CHECK_CLAIMS_AVAILABILITY} works as expected. */
+  @Test
+  public void computeQueryType_CHECK_CLAIMS_AVAILABILITY() {
+    QueryInfo queryInfo =
+        new QueryInfo(
+            "select claim_type, claim_count, max_last_updated, min_service_end_date, max_service_end_date from ccw.check_claims_availability(1234)");
+
+    assertEquals(QueryType.CHECK_CLAIMS_AVAILABILITY, QueryType.computeQueryType(queryInfo));
+  }
 }
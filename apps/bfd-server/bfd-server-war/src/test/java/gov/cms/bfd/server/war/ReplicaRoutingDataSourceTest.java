@@ -0,0 +1,237 @@
+package gov.cms.bfd.server.war;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ReplicaRoutingDataSource}. */
+public class ReplicaRoutingDataSourceTest {
+  /** The current time used for lag measurements. */
+  private static final Instant NOW = Instant.parse("2024-03-01T12:00:00Z");
+
+  /** The primary's pool. */
+  private HikariDataSource primary;
+
+  /** The connection returned by the primary. */
+  private Connection primaryConnection;
+
+  /** Result of the primary's oldest missing batch query. */
+  private ResultSet primaryResults;
+
+  /** The first replica's pool. */
+  private HikariDataSource replica1;
+
+  /** The connection returned by the first replica. */
+  private Connection replica1Connection;
+
+  /** The second replica's pool. */
+  private HikariDataSource replica2;
+
+  /** The connection returned by the second replica. */
+  private Connection replica2Connection;
+
+  /** The data source under test. */
+  private ReplicaRoutingDataSource dataSource;
+
+  /**
+   * Sets up a primary and two replicas that are fully caught up.
+   *
+   * @throws SQLException required by the JDBC API, never thrown
+   */
+  @BeforeEach
+  void setUp() throws SQLException {
+    primary = mock(HikariDataSource.class);
+    primaryConnection = mock(Connection.class);
+    PreparedStatement primaryStatement = mock(PreparedStatement.class);
+    primaryResults = mock(ResultSet.class);
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    when(primaryConnection.prepareStatement(anyString())).thenReturn(primaryStatement);
+    when(primaryStatement.executeQuery()).thenReturn(primaryResults);
+    when(primaryResults.next()).thenReturn(true);
+
+    replica1 = mock(HikariDataSource.class);
+    replica1Connection = mockReplicaConnection(replica1, 2);
+    replica2 = mock(HikariDataSource.class);
+    replica2Connection = mockReplicaConnection(replica2, 1);
+
+    dataSource =
+        new ReplicaRoutingDataSource(
+            primary,
+            List.of(replica1, replica2),
+            Duration.ofSeconds(30),
+            Clock.fixed(NOW, ZoneOffset.UTC),
+            null);
+  }
+
+  /**
+   * Verifies that replicas are not used before they have been checked.
+   *
+   * @throws SQLException required by the JDBC API, never thrown
+   */
+  @Test
+  void shouldUsePrimaryUntilReplicasChecked() throws SQLException {
+    assertSame(primaryConnection, dataSource.getConnection());
+  }
+
+  /**
+   * Verifies that connections go to the least loaded healthy replica.
+   *
+   * @throws SQLException required by the JDBC API, never thrown
+   */
+  @Test
+  void shouldUseLeastLoadedReplica() throws SQLException {
+    dataSource.checkReplicas();
+
+    assertSame(replica2Connection, dataSource.getConnection());
+    assertSame(replica2Connection, dataSource.getConnection());
+  }
+
+  /**
+   * Verifies that a replica lagging by more than the limit is not used and that the primary is used
+   * once no replica is usable.
+   *
+   * @throws SQLException required by the JDBC API, never thrown
+   */
+  @Test
+  void shouldSkipLaggingReplicas() throws SQLException {
+    when(primaryResults.getTimestamp(1)).thenReturn(Timestamp.from(NOW.minusSeconds(31)));
+
+    dataSource.checkReplicas();
+
+    assertFalse(dataSource.getReplicas().get(0).isHealthy());
+    assertEquals(Duration.ofSeconds(31), dataSource.getReplicas().get(0).getLag());
+    assertSame(primaryConnection, dataSource.getConnection());
+
+    when(primaryResults.getTimestamp(1)).thenReturn(Timestamp.from(NOW.minusSeconds(5)));
+    dataSource.checkReplicas();
+
+    assertTrue(dataSource.getReplicas().get(0).isHealthy());
+    assertSame(replica2Connection, dataSource.getConnection());
+  }
+
+  /**
+   * Verifies that a replica without every batch the filter manager requires is not used until a
+   * check finds that it has caught up, and that the replicated batch time only covers replicas in
+   * use.
+   *
+   * @throws SQLException required by the JDBC API, never thrown
+   */
+  @Test
+  void shouldSkipReplicasBehindRequiredBatch() throws SQLException {
+    dataSource.checkReplicas();
+    assertEquals(Optional.of(NOW.minusSeconds(60)), dataSource.getReplicatedBatchCreated());
+
+    dataSource.requireBatchCreated(NOW.minusSeconds(30));
+
+    assertEquals(Optional.empty(), dataSource.getReplicatedBatchCreated());
+    assertSame(primaryConnection, dataSource.getConnection());
+
+    when(replica1Connection.createStatement().executeQuery(anyString()).getTimestamp(1))
+        .thenReturn(Timestamp.from(NOW.minusSeconds(10)));
+    dataSource.checkReplicas();
+
+    assertEquals(Optional.of(NOW.minusSeconds(10)), dataSource.getReplicatedBatchCreated());
+    assertSame(replica1Connection, dataSource.getConnection());
+
+    // the requirement never moves backwards
+    dataSource.requireBatchCreated(NOW.minusSeconds(60));
+    assertSame(replica1Connection, dataSource.getConnection());
+  }
+
+  /**
+   * Verifies that threads waiting on any pool are reported.
+   *
+   * @throws SQLException required by the JDBC API, never thrown
+   */
+  @Test
+  void shouldReportThreadsAwaitingAnyPool() throws SQLException {
+    assertFalse(dataSource.hasThreadsAwaitingConnection());
+
+    when(replica2.getHikariPoolMXBean().getThreadsAwaitingConnection()).thenReturn(1);
+
+    assertTrue(dataSource.hasThreadsAwaitingConnection());
+  }
+
+  /**
+   * Verifies that a replica that cannot provide a connection is taken out of rotation and the next
+   * best replica is used instead.
+   *
+   * @throws SQLException required by the JDBC API, never thrown
+   */
+  @Test
+  void shouldFailOverWhenReplicaUnavailable() throws SQLException {
+    dataSource.checkReplicas();
+    when(replica2.getConnection()).thenThrow(new SQLException("down"));
+
+    assertSame(replica1Connection, dataSource.getConnection());
+    assertFalse(dataSource.getReplicas().get(1).isHealthy());
+  }
+
+  /**
+   * Verifies that connections opened while pinned come from the primary.
+   *
+   * @throws SQLException required by the JDBC API, never thrown
+   */
+  @Test
+  void shouldUsePrimaryWhenPinned() throws SQLException {
+    dataSource.checkReplicas();
+    Connection[] pinned = new Connection[1];
+
+    ReplicaRoutingDataSource.runOnPrimary(
+        () -> {
+          try {
+            pinned[0] = dataSource.getConnection();
+          } catch (SQLException e) {
+            throw new IllegalStateException(e);
+          }
+        });
+
+    assertSame(primaryConnection, pinned[0]);
+    assertSame(replica2Connection, dataSource.getConnection());
+  }
+
+  /**
+   * Mocks a replica pool whose latest batch query succeeds.
+   *
+   * @param replica the replica's pool
+   * @param load the number of connections in use
+   * @return the connection returned by the replica
+   * @throws SQLException required by the JDBC API, never thrown
+   */
+  private static Connection mockReplicaConnection(HikariDataSource replica, int load)
+      throws SQLException {
+    Connection connection = mock(Connection.class);
+    Statement statement = mock(Statement.class);
+    ResultSet results = mock(ResultSet.class);
+    HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+    when(replica.getConnection()).thenReturn(connection);
+    when(replica.getHikariPoolMXBean()).thenReturn(pool);
+    when(pool.getActiveConnections()).thenReturn(load);
+    when(connection.createStatement()).thenReturn(statement);
+    when(statement.executeQuery(anyString())).thenReturn(results);
+    when(results.next()).thenReturn(true);
+    when(results.getTimestamp(1)).thenReturn(Timestamp.from(NOW.minusSeconds(60)));
+    return connection;
+  }
+}
@@ -0,0 +1,87 @@
+package gov.cms.bfd.server.war;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import gov.cms.bfd.server.sharedutils.BfdMDC;
+import gov.cms.bfd.server.war.commons.RequestProfile;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link RequestProfileReporter}. */
+public class RequestProfileReporterTest {
+  /** Clears state left behind by each test. */
+  @AfterEach
+  void tearDown() {
+    RequestProfile.end();
+    BfdMDC.clear();
+  }
+
+  /** Verifies that the profile is published to the MDC and the per operation timers. */
+  @Test
+  void shouldPublishToMdcAndMetrics() {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    RequestProfileReporter reporter = new RequestProfileReporter(metricRegistry, 0, 1.0);
+    RequestProfile profile = RequestProfile.start();
+    RequestProfile.recordQuery(TimeUnit.MILLISECONDS.toNanos(12));
+    RequestProfile.record(RequestProfile.Phase.TRANSFORM, TimeUnit.MILLISECONDS.toNanos(30));
+
+    assertFalse(reporter.report(profile, "v2_eob"));
+
+    assertEquals("12", BfdMDC.get("request_profile_database_milliseconds"));
+    assertEquals("30", BfdMDC.get("request_profile_transform_milliseconds"));
+    assertEquals("0", BfdMDC.get("request_profile_samhsa_filter_milliseconds"));
+    assertEquals("1", BfdMDC.get("request_profile_query_count"));
+    assertEquals(
+        TimeUnit.MILLISECONDS.toNanos(30),
+        metricRegistry
+            .timer(MetricRegistry.name("request_profile", "v2_eob", "transform"))
+            .getSnapshot()
+            .getMax());
+    assertEquals(
+        1,
+        metricRegistry
+            .timer(MetricRegistry.name("request_profile", "v2_eob", "database"))
+            .getCount());
+  }
+
+  /** Verifies that only the sampled share of slow requests is logged. */
+  @Test
+  void shouldSampleSlowRequests() {
+    RequestProfile profile = slow(RequestProfile.start());
+    long hour = TimeUnit.HOURS.toMillis(1);
+
+    assertTrue(
+        new RequestProfileReporter(new MetricRegistry(), 1, 0.5, () -> 0.4)
+            .report(profile, "v2_eob"));
+    // not sampled
+    assertFalse(
+        new RequestProfileReporter(new MetricRegistry(), 1, 0.5, () -> 0.6)
+            .report(profile, "v2_eob"));
+    // disabled
+    assertFalse(
+        new RequestProfileReporter(new MetricRegistry(), 0, 1.0, () -> 0.0)
+            .report(profile, "v2_eob"));
+    // not slow
+    assertFalse(
+        new RequestProfileReporter(new MetricRegistry(), hour, 1.0, () -> 0.0)
+            .report(profile, "v2_eob"));
+  }
+
+  /**
+   * Waits until the profile has been running for at least a millisecond so that it exceeds the
+   * smallest slow request threshold.
+   *
+   * @param profile the profile
+   * @return the profile
+   */
+  private static RequestProfile slow(RequestProfile profile) {
+    while (RequestProfile.toMillis(profile.getElapsedNanos()) < 1) {
+      Thread.onSpinWait();
+    }
+    return profile;
+  }
+}
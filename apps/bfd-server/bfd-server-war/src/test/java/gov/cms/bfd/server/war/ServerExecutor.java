@@ -5,16 +5,22 @@ import gov.cms.bfd.server.launcher.DataServerLauncherApp;
 import gov.cms.bfd.sharedutils.config.BaseAppConfiguration;
 import gov.cms.bfd.sharedutils.config.ConfigLoader;
 import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManagerFactory;
 import java.io.IOException;
 import java.net.Socket;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.concurrent.GuardedBy;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
 import org.testcontainers.shaded.org.awaitility.Awaitility;
 import org.testcontainers.shaded.org.awaitility.core.ConditionTimeoutException;
 
@@ -146,6 +152,7 @@ public class ServerExecutor {
     final String pacClaimSourceTypes = "fiss,mcs";
     final String includeFakeDrugCode = "true";
     final String includeFakeOrgName = "true";
+    final String secondLevelCacheEnabled = "true";
 
     appSettings.put(SpringConfiguration.SSM_PATH_PAC_ENABLED, pacEnabled);
     appSettings.put(SpringConfiguration.PROP_PAC_OLD_MBI_HASH_ENABLED, pacOldMbiHashEnabled);
@@ -155,6 +162,36 @@ public class ServerExecutor {
     appSettings.put(BaseAppConfiguration.SSM_PATH_DATABASE_PASSWORD, dbPassword);
     appSettings.put(SpringConfiguration.PROP_INCLUDE_FAKE_DRUG_CODE, includeFakeDrugCode);
     appSettings.put(SpringConfiguration.PROP_INCLUDE_FAKE_ORG_NAME, includeFakeOrgName);
+    appSettings.put(SpringConfiguration.PROP_SECOND_LEVEL_CACHE_ENABLED, secondLevelCacheEnabled);
+  }
+
+  /**
+   * Gets a bean from the Spring context of the running server (if any). The server runs in this JVM
+   * and its classes are loaded from our normal classpath, so its beans can be used directly by the
+   * tests.
+   *
+   * @param beanType the type of the bean
+   * @param <T> the type of the bean
+   * @return the bean or empty if the server is not running
+   */
+  public static synchronized <T> Optional<T> getServerBean(Class<T> beanType) {
+    if (!isRunning()) {
+      return Optional.empty();
+    }
+    final WebApplicationContext springContext =
+        WebApplicationContextUtils.getWebApplicationContext(
+            serverInfo.getWebapp().getServletContext());
+    return Optional.ofNullable(springContext).map(context -> context.getBean(beanType));
+  }
+
+  /**
+   * Gets the second-level cache of the running server (if any).
+   *
+   * @return the cache or empty if the server is not running
+   */
+  public static Optional<Cache> getSecondLevelCache() {
+    return getServerBean(EntityManagerFactory.class)
+        .map(factory -> factory.unwrap(SessionFactory.class).getCache());
   }
 
   /**
@@ -15,6 +15,7 @@ import jakarta.annotation.Nullable;
 import java.io.IOException;
 import javax.annotation.concurrent.GuardedBy;
 import javax.sql.DataSource;
+import org.hibernate.Cache;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.postgresql.ds.PGSimpleDataSource;
@@ -102,13 +103,15 @@ public class ServerRequiredTest {
 
   /**
    * Cleans the database after each test by truncating all non-RDA data. (RDA is skipped since RDA
-   * tests currently manage their own data cleanup).
+   * tests currently manage their own data cleanup). The server's second-level cache is cleared as
+   * well so that no test can read beneficiaries cached by an earlier one.
    */
   @AfterEach
   public void cleanDatabaseServerAfterEachTestCase() {
     final DataSource dataSource = getDataSource();
     if (dataSource != null && ServerTestUtils.isValidServerDatabase(DB_URL)) {
       ServerTestUtils.get().truncateNonRdaTablesInDataSource(dataSource);
+      ServerExecutor.getSecondLevelCache().ifPresent(Cache::evictAllRegions);
     }
   }
 
@@ -0,0 +1,105 @@
+package gov.cms.bfd.server.war;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.rest.api.server.IRestfulResponse;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.api.server.ResponseDetails;
+import gov.cms.bfd.server.war.commons.CommonHeaders;
+import java.io.StringWriter;
+import java.util.Date;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.ExplanationOfBenefit;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link UnbufferedBundleInterceptor}. */
+public class UnbufferedBundleInterceptorTest {
+  /**
+   * Verifies that a bundle written one entry at a time is identical to the one HAPI would encode.
+   */
+  @Test
+  void shouldWriteSameJsonAsParser() throws Exception {
+    final IParser parser = FhirContext.forR4Cached().newJsonParser();
+    final Bundle bundle = createBundle(3);
+    final String expected = parser.encodeResourceToString(bundle);
+
+    final StringWriter writer = new StringWriter();
+    UnbufferedBundleInterceptor.writeBundle(parser, bundle, writer);
+
+    assertEquals(expected, writer.toString());
+    assertEquals(0, bundle.getEntry().size());
+  }
+
+  /** Verifies that a bundle without entries is identical to the one HAPI would encode. */
+  @Test
+  void shouldWriteSameJsonAsParserForEmptyBundle() throws Exception {
+    final IParser parser = FhirContext.forR4Cached().newJsonParser();
+    final Bundle bundle = createBundle(0);
+    final String expected = parser.encodeResourceToString(bundle);
+
+    final StringWriter writer = new StringWriter();
+    UnbufferedBundleInterceptor.writeBundle(parser, bundle, writer);
+
+    assertEquals(expected, writer.toString());
+  }
+
+  /**
+   * Verifies that HAPI handles the response normally when an unbuffered response was not requested.
+   */
+  @Test
+  void shouldNotWriteWithoutHeader() throws Exception {
+    final RequestDetails requestDetails = mock(RequestDetails.class);
+    final IRestfulResponse response = mock(IRestfulResponse.class);
+    doReturn(response).when(requestDetails).getResponse();
+    doReturn("false").when(requestDetails).getHeader(CommonHeaders.HEADER_NAME_UNBUFFERED_RESPONSE);
+    final ResponseDetails responseDetails = new ResponseDetails(createBundle(1));
+    responseDetails.setResponseCode(200);
+
+    assertTrue(
+        new UnbufferedBundleInterceptor().serverOutgoingResponse(requestDetails, responseDetails));
+    verifyNoInteractions(response);
+  }
+
+  /** Verifies that HAPI handles the response normally when it is not a bundle. */
+  @Test
+  void shouldNotWriteNonBundle() throws Exception {
+    final RequestDetails requestDetails = mock(RequestDetails.class);
+    final IRestfulResponse response = mock(IRestfulResponse.class);
+    doReturn(response).when(requestDetails).getResponse();
+    doReturn("true").when(requestDetails).getHeader(CommonHeaders.HEADER_NAME_UNBUFFERED_RESPONSE);
+    final ResponseDetails responseDetails = new ResponseDetails(new Patient());
+    responseDetails.setResponseCode(200);
+
+    assertTrue(
+        new UnbufferedBundleInterceptor().serverOutgoingResponse(requestDetails, responseDetails));
+    verifyNoInteractions(response);
+  }
+
+  /**
+   * Creates a searchset bundle resembling the ones returned by BFD's search operations.
+   *
+   * @param entryCount number of EOB entries to add
+   * @return the bundle
+   */
+  private static Bundle createBundle(int entryCount) {
+    final Bundle bundle = new Bundle();
+    bundle.setType(Bundle.BundleType.SEARCHSET);
+    bundle.setTotal(entryCount);
+    bundle.getMeta().setLastUpdated(new Date(1700000000000L));
+    bundle.addLink().setRelation(Bundle.LINK_SELF).setUrl("https://localhost/v2/fhir/eob");
+    for (int i = 0; i < entryCount; ++i) {
+      final ExplanationOfBenefit eob = new ExplanationOfBenefit();
+      eob.setId("carrier-" + i);
+      eob.setStatus(ExplanationOfBenefit.ExplanationOfBenefitStatus.ACTIVE);
+      bundle.addEntry().setResource(eob);
+    }
+    return bundle;
+  }
+}
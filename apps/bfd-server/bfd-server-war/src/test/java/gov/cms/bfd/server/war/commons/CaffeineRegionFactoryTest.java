@@ -0,0 +1,66 @@
+package gov.cms.bfd.server.war.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link CaffeineRegionFactory}. */
+public class CaffeineRegionFactoryTest {
+  /** The factory under test. */
+  private CaffeineRegionFactory regionFactory;
+
+  /** Starts the factory. */
+  @BeforeEach
+  void setUp() {
+    regionFactory = new CaffeineRegionFactory();
+    regionFactory.start(
+        mock(SessionFactoryOptions.class),
+        Map.of(
+            CaffeineRegionFactory.MAX_ENTRIES, "10",
+            CaffeineRegionFactory.EXPIRE_AFTER_WRITE_SECONDS, "60"));
+  }
+
+  /** Stops the factory. */
+  @AfterEach
+  void tearDown() {
+    regionFactory.stop();
+  }
+
+  /** Verifies that entries can be stored, read and evicted individually or all at once. */
+  @Test
+  void shouldStoreAndEvictEntries() {
+    StorageAccess storage = regionFactory.createQueryResultsRegionStorageAccess("test", null);
+
+    storage.putIntoCache("a", 1, null);
+    storage.putIntoCache("b", 2, null);
+    assertEquals(1, storage.getFromCache("a", null));
+    assertTrue(storage.contains("b"));
+
+    storage.evictData("a");
+    assertNull(storage.getFromCache("a", null));
+    assertTrue(storage.contains("b"));
+
+    storage.evictData();
+    assertFalse(storage.contains("b"));
+  }
+
+  /** Verifies that each region has its own storage. */
+  @Test
+  void shouldKeepRegionsSeparate() {
+    StorageAccess first = regionFactory.createQueryResultsRegionStorageAccess("first", null);
+    StorageAccess second = regionFactory.createTimestampsRegionStorageAccess("second", null);
+
+    first.putIntoCache("a", 1, null);
+
+    assertFalse(second.contains("a"));
+  }
+}
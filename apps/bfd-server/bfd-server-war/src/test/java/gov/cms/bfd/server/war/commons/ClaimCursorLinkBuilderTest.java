@@ -0,0 +1,140 @@
+package gov.cms.bfd.server.war.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
+import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.hl7.fhir.r4.model.Bundle;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/** Tests the functionality of the {@link ClaimCursorLinkBuilder}. */
+public class ClaimCursorLinkBuilderTest {
+  /** Base URL of the server. */
+  private static final String SERVER_BASE = "https://localhost/v2/fhir";
+
+  /** Verifies that a cursor survives being encoded and decoded. */
+  @Test
+  public void testCursorRoundTrip() {
+    ClaimCursorLinkBuilder.Cursor cursor =
+        new ClaimCursorLinkBuilder.Cursor(ClaimType.OUTPATIENT, 1234567890123L);
+
+    assertEquals(Optional.of(cursor), ClaimCursorLinkBuilder.Cursor.decode(cursor.encode()));
+    assertEquals(Optional.empty(), ClaimCursorLinkBuilder.Cursor.decode(""));
+    assertEquals(Optional.empty(), ClaimCursorLinkBuilder.Cursor.decode(null));
+  }
+
+  /** Verifies that garbage cursors are rejected with a 400 error. */
+  @Test
+  public void testInvalidCursorExpectException() {
+    assertThrows(
+        InvalidRequestException.class, () -> ClaimCursorLinkBuilder.Cursor.decode("not-a-cursor"));
+    assertThrows(InvalidRequestException.class, () -> ClaimCursorLinkBuilder.Cursor.decode("!!!"));
+  }
+
+  /**
+   * Verifies that claims of the cursor's type or an earlier type must have a greater claim id while
+   * claims of later types may share the cursor's claim id.
+   */
+  @Test
+  public void testCursorClaimIdExclusivity() {
+    ClaimCursorLinkBuilder.Cursor cursor =
+        new ClaimCursorLinkBuilder.Cursor(ClaimType.HOSPICE, 10L);
+
+    assertTrue(cursor.isClaimIdExclusive(ClaimType.CARRIER));
+    assertTrue(cursor.isClaimIdExclusive(ClaimType.HOSPICE));
+    assertFalse(cursor.isClaimIdExclusive(ClaimType.SNF));
+  }
+
+  /** Verifies that the page size defaults and is validated. */
+  @Test
+  public void testPageSize() {
+    assertEquals(10, createBuilder(Map.of()).getPageSize());
+    assertEquals(5, createBuilder(Map.of(Constants.PARAM_COUNT, "5")).getPageSize());
+    assertEquals(6, createBuilder(Map.of(Constants.PARAM_COUNT, "5")).getQueryMaxSize());
+    assertThrows(
+        InvalidRequestException.class, () -> createBuilder(Map.of(Constants.PARAM_COUNT, "0")));
+    assertThrows(
+        InvalidRequestException.class, () -> createBuilder(Map.of(Constants.PARAM_COUNT, "x")));
+  }
+
+  /** Verifies that start index paging cannot be combined with cursor paging. */
+  @Test
+  public void testStartIndexWithCursorExpectException() {
+    assertThrows(InvalidRequestException.class, () -> createBuilder(Map.of("startIndex", "10")));
+  }
+
+  /** Verifies that the next link is only added when a next cursor has been set. */
+  @Test
+  public void testAddLinks() {
+    ClaimCursorLinkBuilder.Cursor cursor = new ClaimCursorLinkBuilder.Cursor(ClaimType.PDE, 42L);
+    ClaimCursorLinkBuilder paging = createBuilder(Map.of(Constants.PARAM_COUNT, "5"));
+    assertTrue(paging.isFirstPage());
+
+    Bundle lastPage = new Bundle();
+    paging.addLinks(lastPage);
+    assertNull(lastPage.getLink(Constants.LINK_NEXT));
+    assertEquals("", getCursorParam(lastPage.getLink(Constants.LINK_FIRST).getUrl()));
+
+    paging.setNextCursor(cursor);
+    Bundle page = new Bundle();
+    paging.addLinks(page);
+    String nextUrl = page.getLink(Constants.LINK_NEXT).getUrl();
+    assertEquals(cursor.encode(), getCursorParam(nextUrl));
+    assertEquals(
+        "5",
+        UriComponentsBuilder.fromUriString(nextUrl)
+            .build()
+            .getQueryParams()
+            .getFirst(Constants.PARAM_COUNT));
+
+    ClaimCursorLinkBuilder nextPaging =
+        createBuilder(Map.of(ClaimCursorLinkBuilder.PARAM_CURSOR, getCursorParam(nextUrl)));
+    assertFalse(nextPaging.isFirstPage());
+    assertEquals(Optional.of(cursor), nextPaging.getCursor());
+  }
+
+  /**
+   * Creates a builder for a request with the given parameters plus an empty cursor parameter unless
+   * one is provided.
+   *
+   * @param parameters the request parameters
+   * @return the builder
+   */
+  private static ClaimCursorLinkBuilder createBuilder(Map<String, String> parameters) {
+    ServletRequestDetails requestDetails = mock(ServletRequestDetails.class);
+    Map<String, String[]> params = new HashMap<>();
+    params.put(ClaimCursorLinkBuilder.PARAM_CURSOR, new String[] {""});
+    params.put("patient", new String[] {"567834"});
+    parameters.forEach((name, value) -> params.put(name, new String[] {value}));
+    when(requestDetails.getParameters()).thenReturn(params);
+    when(requestDetails.getServerBaseForRequest()).thenReturn(SERVER_BASE);
+    assertTrue(ClaimCursorLinkBuilder.isCursorRequested(requestDetails));
+    return new ClaimCursorLinkBuilder(requestDetails, "/ExplanationOfBenefit?");
+  }
+
+  /**
+   * Extracts the cursor parameter from a link.
+   *
+   * @param url the link
+   * @return the cursor parameter value
+   */
+  private static String getCursorParam(String url) {
+    String value =
+        UriComponentsBuilder.fromUriString(url)
+            .build()
+            .getQueryParams()
+            .getFirst(ClaimCursorLinkBuilder.PARAM_CURSOR);
+    return value == null ? "" : value;
+  }
+}
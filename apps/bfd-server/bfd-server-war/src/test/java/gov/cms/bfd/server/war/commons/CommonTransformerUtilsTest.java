@@ -9,6 +9,8 @@ import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
 import ca.uhn.fhir.rest.param.TokenParamModifier;
+import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
+import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
 
@@ -156,4 +158,30 @@ public class CommonTransformerUtilsTest {
           CommonTransformerUtils.parseTypeParam(typeParam);
         });
   }
+
+  /**
+   * Verifies that {@link CommonTransformerUtils#isCountOnlyRequested} detects {@code
+   * _summary=count} and {@code _count=0} but not other page sizes.
+   */
+  @Test
+  void testIsCountOnlyRequested() {
+    assertTrue(CommonTransformerUtils.isCountOnlyRequested(requestWith("_summary", "count")));
+    assertTrue(CommonTransformerUtils.isCountOnlyRequested(requestWith("_count", "0")));
+    assertFalse(CommonTransformerUtils.isCountOnlyRequested(requestWith("_count", "10")));
+    assertFalse(CommonTransformerUtils.isCountOnlyRequested(requestWith("_summary", "true")));
+    assertFalse(CommonTransformerUtils.isCountOnlyRequested(new ServletRequestDetails()));
+  }
+
+  /**
+   * Creates request details with a single parameter.
+   *
+   * @param name the parameter name
+   * @param value the parameter value
+   * @return the request details
+   */
+  private static ServletRequestDetails requestWith(String name, String value) {
+    ServletRequestDetails requestDetails = new ServletRequestDetails();
+    requestDetails.setParameters(Map.of(name, new String[] {value}));
+    return requestDetails;
+  }
 }
@@ -0,0 +1,89 @@
+package gov.cms.bfd.server.war.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.apache.spark.util.sketch.BloomFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link LoadedFilterSnapshot}. */
+public class LoadedFilterSnapshotTest {
+  /** Directory holding the snapshot files. */
+  @TempDir Path tempDir;
+
+  /**
+   * Verifies that a snapshot read back from a file has the same bounds, filter fields, and filter
+   * contents as the one that was written.
+   *
+   * @throws IOException pass through from the snapshot
+   */
+  @Test
+  public void writeAndReadSnapshot() throws IOException {
+    final Instant first = Instant.parse("2026-10-01T01:02:03.123456789Z");
+    final Instant last = Instant.parse("2026-10-02T04:05:06.987654Z");
+    final BloomFilter bits = LoadedFileFilter.createFilter(100);
+    bits.putLong(42L);
+    bits.putLong(-7L);
+    final LoadedFilterSnapshot snapshot =
+        new LoadedFilterSnapshot(
+            List.of(
+                new LoadedFileFilter(2, 3, first.plusSeconds(60), last, bits),
+                new LoadedFileFilter(1, 1, first, first, LoadedFileFilter.createFilter(1))),
+            first,
+            last);
+
+    final Path path = tempDir.resolve("nested").resolve("filters.bin");
+    snapshot.write(path);
+    // written again to verify that an existing snapshot is replaced
+    snapshot.write(path);
+    try (Stream<Path> files = Files.list(path.getParent())) {
+      assertEquals(List.of(path.getFileName()), files.map(Path::getFileName).toList());
+    }
+
+    final LoadedFilterSnapshot copy = LoadedFilterSnapshot.read(path).orElseThrow();
+    assertEquals(first, copy.getFirstBatchCreated());
+    assertEquals(last, copy.getLastBatchCreated());
+    assertEquals(2, copy.getFilters().size());
+    final LoadedFileFilter filter = copy.getFilters().get(0);
+    assertEquals(2, filter.getLoadedFileId());
+    assertEquals(3, filter.getBatchesCount());
+    assertEquals(first.plusSeconds(60), filter.getFirstUpdated());
+    assertEquals(last, filter.getLastUpdated());
+    assertEquals(bits, filter.getUpdatedBeneficiaries());
+    assertTrue(filter.mightContain(42L));
+    assertTrue(filter.mightContain(-7L));
+    assertEquals(1, copy.getFilters().get(1).getLoadedFileId());
+    assertFalse(copy.getFilters().get(1).mightContain(42L));
+  }
+
+  /**
+   * Verifies that a missing file is reported as no snapshot while a file that is not a snapshot is
+   * reported as an error.
+   *
+   * @throws IOException pass through from the test setup
+   */
+  @Test
+  public void readMissingOrInvalidSnapshot() throws IOException {
+    assertEquals(Optional.empty(), LoadedFilterSnapshot.read(tempDir.resolve("missing.bin")));
+
+    final Path invalid = tempDir.resolve("invalid.bin");
+    Files.writeString(invalid, "not a snapshot");
+    assertThrows(IOException.class, () -> LoadedFilterSnapshot.read(invalid));
+
+    final Path truncated = tempDir.resolve("truncated.bin");
+    new LoadedFilterSnapshot(List.of(), Instant.EPOCH, Instant.EPOCH).write(truncated);
+    Files.write(truncated, Arrays.copyOf(Files.readAllBytes(truncated), 12));
+    assertThrows(IOException.class, () -> LoadedFilterSnapshot.read(truncated));
+  }
+}
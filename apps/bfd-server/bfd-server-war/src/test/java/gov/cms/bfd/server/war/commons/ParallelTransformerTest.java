@@ -0,0 +1,113 @@
+package gov.cms.bfd.server.war.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ParallelTransformer}. */
+public class ParallelTransformerTest {
+  /** Verifies that the output of a chunked transform is in input order. */
+  @Test
+  void shouldPreserveOrder() {
+    List<Integer> items = IntStream.range(0, 1003).boxed().collect(Collectors.toList());
+    try (ParallelTransformer transformer = new ParallelTransformer(4, 10)) {
+      List<String> results = transformer.transform(items, i -> Integer.toString(i));
+
+      assertEquals(
+          items.stream().map(i -> Integer.toString(i)).collect(Collectors.toList()), results);
+    }
+  }
+
+  /** Verifies that chunks are transformed on more than one thread. */
+  @Test
+  void shouldTransformChunksConcurrently() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      ParallelTransformer transformer = new ParallelTransformer(executor, 2, 1);
+      Set<String> threadNames = ConcurrentHashMap.newKeySet();
+      // Each item waits until all three have started, which requires three threads.
+      CountDownLatch started = new CountDownLatch(3);
+
+      List<Integer> results =
+          transformer.transform(
+              List.of(1, 2, 3),
+              i -> {
+                threadNames.add(Thread.currentThread().getName());
+                started.countDown();
+                try {
+                  assertTrue(started.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                  throw new IllegalStateException(e);
+                }
+                return i * 2;
+              });
+
+      assertEquals(List.of(2, 4, 6), results);
+      assertEquals(3, threadNames.size());
+      assertTrue(threadNames.contains(Thread.currentThread().getName()));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /** Verifies that the calling thread does all the work when the pool is busy. */
+  @Test
+  void shouldNotWaitForBusyPool() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      executor.submit(
+          () -> {
+            release.await();
+            return null;
+          });
+      ParallelTransformer transformer = new ParallelTransformer(executor, 1, 2);
+
+      List<Integer> results = transformer.transform(List.of(1, 2, 3, 4, 5), i -> i + 1);
+
+      assertEquals(List.of(2, 3, 4, 5, 6), results);
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  /** Verifies that a failure in any chunk is rethrown to the caller. */
+  @Test
+  void shouldRethrowFailure() {
+    try (ParallelTransformer transformer = new ParallelTransformer(2, 1)) {
+      assertThrows(
+          IllegalArgumentException.class,
+          () ->
+              transformer.transform(
+                  List.of(1, 2, 3, 4),
+                  i -> {
+                    if (i == 3) {
+                      throw new IllegalArgumentException("bad item");
+                    }
+                    return i;
+                  }));
+    }
+  }
+
+  /** Verifies that small lists and the sequential transformer do not need a pool. */
+  @Test
+  void shouldTransformSmallListsSequentially() {
+    try (ParallelTransformer transformer = new ParallelTransformer(null, 4, 10)) {
+      assertEquals(List.of(2, 3), transformer.transform(List.of(1, 2), i -> i + 1));
+    }
+    assertEquals(
+        List.of(2, 3, 4), ParallelTransformer.sequential().transform(List.of(1, 2, 3), i -> i + 1));
+  }
+}
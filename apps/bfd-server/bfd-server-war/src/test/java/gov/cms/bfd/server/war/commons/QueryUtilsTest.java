@@ -1,20 +1,50 @@
 package gov.cms.bfd.server.war.commons;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import ca.uhn.fhir.rest.param.DateParam;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.ParamPrefixEnum;
+import gov.cms.bfd.server.war.SpringConfiguration;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.JDBCException;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jdbc.ReturningWork;
+import org.hibernate.query.spi.QueryImplementor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -135,6 +165,37 @@ public class QueryUtilsTest {
     verify(builder).and(notNullPredicate, lowerBoundPredicate, upperBoundPredicate);
   }
 
+  /**
+   * Test {@link QueryUtils#createServiceDatePredicate} compares against the same days as the
+   * service-date filtering of searches, which uses the HAPI bound instants in the server's time
+   * zone rather than UTC.
+   */
+  @Test
+  public void testCreateServiceDatePredicateBothBounds() {
+    DateRangeParam dateRange =
+        new DateRangeParam(
+            new DateParam(ParamPrefixEnum.GREATERTHAN, LOWER_DATE),
+            new DateParam(ParamPrefixEnum.LESSTHAN_OR_EQUALS, UPPER_DATE));
+    LocalDate lower = convertBoundToServiceDate(dateRange.getLowerBoundAsInstant());
+    LocalDate upper = convertBoundToServiceDate(dateRange.getUpperBoundAsInstant());
+    doReturn(notNullPredicate).when(builder).isNotNull(dateExpression);
+    doReturn(lowerBoundPredicate).when(builder).greaterThan(dateExpression, lower);
+    doReturn(upperBoundPredicate).when(builder).lessThanOrEqualTo(dateExpression, upper);
+    QueryUtils.createServiceDatePredicate(builder, dateRange, dateExpression);
+    verify(builder).and(notNullPredicate, lowerBoundPredicate, upperBoundPredicate);
+  }
+
+  /**
+   * Test {@link QueryUtils#createServiceDatePredicate} with no bounds in the {@link
+   * DateRangeParam}.
+   */
+  @Test
+  public void testCreateServiceDatePredicateNoBounds() {
+    DateRangeParam dateRange = new DateRangeParam((DateParam) null, null);
+    QueryUtils.createServiceDatePredicate(builder, dateRange, dateExpression);
+    verify(builder).and();
+  }
+
   /**
    * Test {@link QueryUtils#hasClaimsData} asserting various ways an integer mask value can be
    * created (mathematical XOR or additive integers) and result in the same integer value. The test
@@ -170,6 +231,104 @@ public class QueryUtilsTest {
         testVal, QueryUtils.V_DME_HAS_DATA + QueryUtils.V_SNF_HAS_DATA + QueryUtils.V_HHA_HAS_DATA);
   }
 
+  /**
+   * Test {@link QueryUtils#findWithSubselectFetch} runs the query in its own read-only session with
+   * subselect fetching enabled and a transaction timeout, and initializes every collection before
+   * closing the session.
+   */
+  @Test
+  public void testFindWithSubselectFetch() {
+    EntityManager entityManager = mock(EntityManager.class);
+    EntityManager queryEntityManager = mock(EntityManager.class);
+    SessionImplementor session = mock(SessionImplementor.class);
+    PersistenceContext persistenceContext = mock(PersistenceContext.class);
+    PersistentCollection<?> collection = mock(PersistentCollection.class);
+    CriteriaQuery<String> criteria = mock(CriteriaQuery.class);
+    QueryImplementor<String> query = mock(QueryImplementor.class);
+    Transaction transaction = mockSession(entityManager, queryEntityManager, session);
+    doReturn(persistenceContext).when(session).getPersistenceContextInternal();
+    doReturn(Map.of(collection, mock(CollectionEntry.class)))
+        .when(persistenceContext)
+        .getCollectionEntries();
+    doReturn(query).when(session).createQuery(criteria);
+    doReturn(List.of("claim")).when(query).getResultList();
+
+    assertEquals(List.of("claim"), QueryUtils.findWithSubselectFetch(entityManager, criteria));
+
+    InOrder inOrder = inOrder(session, transaction, query, collection, queryEntityManager);
+    inOrder.verify(session).setDefaultReadOnly(true);
+    inOrder.verify(transaction).setTimeout(SpringConfiguration.TRANSACTION_TIMEOUT);
+    inOrder.verify(transaction).begin();
+    inOrder.verify(session).setSubselectFetchingEnabled(true);
+    inOrder.verify(query).getResultList();
+    inOrder.verify(collection).forceInitialization();
+    inOrder.verify(transaction).rollback();
+    inOrder.verify(queryEntityManager).close();
+    verify(entityManager, never()).createQuery(criteria);
+  }
+
+  /**
+   * Test {@link QueryUtils#readWithJdbc} runs the work in its own read-only session with a
+   * transaction timeout that also applies to the statements created by the work, and closes the
+   * session even when the work fails.
+   *
+   * @throws SQLException required by the JDBC API, never thrown
+   */
+  @Test
+  public void testReadWithJdbc() throws SQLException {
+    EntityManager entityManager = mock(EntityManager.class);
+    EntityManager queryEntityManager = mock(EntityManager.class);
+    SessionImplementor session = mock(SessionImplementor.class);
+    Connection connection = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    JdbcCoordinator jdbcCoordinator = mock(JdbcCoordinator.class);
+    ReturningWork<String> work =
+        workConnection -> {
+          workConnection.prepareStatement("select claim");
+          return "claim";
+        };
+    Transaction transaction = mockSession(entityManager, queryEntityManager, session);
+    doReturn(statement).when(connection).prepareStatement("select claim");
+    doReturn(jdbcCoordinator).when(session).getJdbcCoordinator();
+    doReturn(12).when(jdbcCoordinator).determineRemainingTransactionTimeOutPeriod();
+    doAnswer(invocation -> invocation.<ReturningWork<?>>getArgument(0).execute(connection))
+        .when(session)
+        .doReturningWork(any());
+
+    assertEquals("claim", QueryUtils.readWithJdbc(entityManager, work));
+    verify(session).setDefaultReadOnly(true);
+    verify(transaction).setTimeout(SpringConfiguration.TRANSACTION_TIMEOUT);
+    verify(statement).setQueryTimeout(12);
+    verify(transaction).rollback();
+    verify(queryEntityManager).close();
+
+    doThrow(new JDBCException("failed", new SQLException())).when(session).doReturningWork(any());
+    assertThrows(JDBCException.class, () -> QueryUtils.readWithJdbc(entityManager, work));
+    verify(transaction, times(2)).rollback();
+    verify(queryEntityManager, times(2)).close();
+    verify(entityManager, never()).unwrap(Session.class);
+  }
+
+  /**
+   * Mocks the creation of a session with an active transaction by {@link QueryUtils}.
+   *
+   * @param entityManager the caller's entity manager
+   * @param queryEntityManager the entity manager created for the session
+   * @param session the session
+   * @return the session's transaction
+   */
+  private Transaction mockSession(
+      EntityManager entityManager, EntityManager queryEntityManager, SessionImplementor session) {
+    EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+    Transaction transaction = mock(Transaction.class);
+    doReturn(entityManagerFactory).when(entityManager).getEntityManagerFactory();
+    doReturn(queryEntityManager).when(entityManagerFactory).createEntityManager();
+    doReturn(session).when(queryEntityManager).unwrap(SessionImplementor.class);
+    doReturn(transaction).when(session).getTransaction();
+    doReturn(true).when(transaction).isActive();
+    return transaction;
+  }
+
   /**
    * Utility function to convert a {@link DateParam} into a {@link LocalDate} in the same way as the
    * {@link QueryUtils#createDateRangePredicate} method.
@@ -180,4 +339,15 @@ public class QueryUtilsTest {
   private LocalDate convertDateParamToLocalDate(DateParam dateParam) {
     return dateParam.getValue().toInstant().atOffset(ZoneOffset.UTC).toLocalDate();
   }
+
+  /**
+   * Utility function to convert a bound of a {@link DateRangeParam} into a {@link LocalDate} in the
+   * same way as the service-date filtering of V2 EOB searches.
+   *
+   * @param bound value to convert
+   * @return converted value
+   */
+  private LocalDate convertBoundToServiceDate(Date bound) {
+    return bound.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+  }
 }
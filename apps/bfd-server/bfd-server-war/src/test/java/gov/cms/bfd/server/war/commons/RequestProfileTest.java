@@ -0,0 +1,104 @@
+package gov.cms.bfd.server.war.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link RequestProfile}. */
+public class RequestProfileTest {
+  /** Ensures no profile leaks from one test to the next. */
+  @AfterEach
+  void tearDown() {
+    RequestProfile.end();
+  }
+
+  /** Verifies that time is only recorded while a profile is bound to the thread. */
+  @Test
+  void shouldRecordOnlyWhileStarted() {
+    RequestProfile.record(RequestProfile.Phase.TRANSFORM, 5);
+    assertFalse(RequestProfile.current().isPresent());
+
+    RequestProfile profile = RequestProfile.start();
+    assertSame(profile, RequestProfile.current().get());
+    RequestProfile.record(RequestProfile.Phase.TRANSFORM, 5);
+    RequestProfile.record(RequestProfile.Phase.TRANSFORM, 7);
+    RequestProfile.recordQuery(TimeUnit.MILLISECONDS.toNanos(3));
+    RequestProfile.recordQuery(TimeUnit.MILLISECONDS.toNanos(4));
+    RequestProfile.end();
+    RequestProfile.record(RequestProfile.Phase.TRANSFORM, 100);
+
+    assertEquals(12, profile.getNanos(RequestProfile.Phase.TRANSFORM));
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(7), profile.getNanos(RequestProfile.Phase.DATABASE));
+    assertEquals(2, profile.getQueryCount());
+    assertEquals(0, profile.getNanos(RequestProfile.Phase.SAMHSA_FILTER));
+  }
+
+  /** Verifies that work done on another thread lands in the request's profile once attached. */
+  @Test
+  void shouldRecordFromAttachedWorkerThread() throws Exception {
+    RequestProfile profile = RequestProfile.start();
+    Optional<RequestProfile> captured = RequestProfile.current();
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Callable<Boolean> task =
+          () -> {
+            try (RequestProfile.Attachment attachment = RequestProfile.attach(captured)) {
+              RequestProfile.record(RequestProfile.Phase.SAMHSA_FILTER, 11);
+            }
+            // Once detached nothing more is recorded.
+            RequestProfile.record(RequestProfile.Phase.SAMHSA_FILTER, 100);
+            return RequestProfile.current().isPresent();
+          };
+      assertFalse(executor.submit(task).get());
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(11, profile.getNanos(RequestProfile.Phase.SAMHSA_FILTER));
+  }
+
+  /** Verifies that serialization is only recorded between its begin and end marks. */
+  @Test
+  void shouldRecordSerializationOnlyWhenStarted() {
+    RequestProfile profile = RequestProfile.start();
+    profile.endSerialization();
+    assertEquals(0, profile.getNanos(RequestProfile.Phase.SERIALIZATION));
+
+    profile.beginSerialization();
+    profile.endSerialization();
+    long serialization = profile.getNanos(RequestProfile.Phase.SERIALIZATION);
+    assertTrue(serialization > 0);
+
+    profile.endSerialization();
+    assertEquals(serialization, profile.getNanos(RequestProfile.Phase.SERIALIZATION));
+  }
+
+  /** Verifies that the description includes every phase and task. */
+  @Test
+  void shouldDescribePhasesAndTasks() {
+    RequestProfile profile = RequestProfile.start();
+    profile.add(RequestProfile.Phase.QUEUE_WAIT, TimeUnit.MILLISECONDS.toNanos(25));
+    profile.addTask(
+        new RequestProfile.TaskSummary(
+            "carrier", TimeUnit.MILLISECONDS.toNanos(25), TimeUnit.MILLISECONDS.toNanos(40), 3));
+
+    String description = profile.describe();
+
+    for (RequestProfile.Phase phase : RequestProfile.Phase.values()) {
+      assertTrue(description.contains(" " + phase.getName() + "="), description);
+    }
+    assertTrue(description.contains("queue_wait=25ms"), description);
+    assertTrue(
+        description.contains("tasks=[carrier: queue_wait=25ms run=40ms resources=3]"), description);
+  }
+}
@@ -0,0 +1,113 @@
+package gov.cms.bfd.server.war.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import ca.uhn.fhir.rest.param.DateParam;
+import ca.uhn.fhir.rest.param.DateRangeParam;
+import ca.uhn.fhir.rest.param.ParamPrefixEnum;
+import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link SqlConditions}. */
+public class SqlConditionsTest {
+  /** The lower date for the test. */
+  private static final String LOWER_DATE = "2019-08-25";
+
+  /** The upper date for the test. */
+  private static final String UPPER_DATE = "2022-08-25";
+
+  /** Verifies that equals and in conditions are combined in order with their parameters. */
+  @Test
+  public void testEqualsAndIn() {
+    SqlConditions conditions =
+        new SqlConditions().addEquals("bene_id", 42L).addIn("clm_id", List.of(1L, 2L));
+    assertEquals(
+        "where bene_id = ? and clm_id in (?, ?) order by clm_id", conditions.toClauses("clm_id"));
+    assertEquals(List.of(42L, 1L, 2L), conditions.getParameters());
+
+    conditions = new SqlConditions().addIn("clm_id", List.of());
+    assertEquals("where 1 = 0 order by clm_id", conditions.toClauses("clm_id"));
+    assertEquals(List.of(), conditions.getParameters());
+
+    assertEquals("order by clm_id", new SqlConditions().toClauses("clm_id"));
+  }
+
+  /**
+   * Verifies that last updated conditions match those of {@link
+   * QueryUtils#createLastUpdatedPredicate}, including accepting null values when only an upper
+   * bound is given.
+   */
+  @Test
+  public void testLastUpdated() {
+    DateRangeParam range =
+        new DateRangeParam(
+            new DateParam(ParamPrefixEnum.GREATERTHAN, LOWER_DATE),
+            new DateParam(ParamPrefixEnum.LESSTHAN_OR_EQUALS, UPPER_DATE));
+    SqlConditions conditions = new SqlConditions().addLastUpdated("last_updated", range);
+    assertEquals(
+        "where last_updated > ? and last_updated <= ? order by id", conditions.toClauses("id"));
+    assertEquals(
+        List.of(
+            range.getLowerBoundAsInstant().toInstant(), range.getUpperBoundAsInstant().toInstant()),
+        conditions.getParameters());
+
+    range = new DateRangeParam(null, new DateParam(ParamPrefixEnum.LESSTHAN, UPPER_DATE));
+    conditions = new SqlConditions().addLastUpdated("last_updated", range);
+    assertEquals(
+        "where (last_updated is null or last_updated < ?) order by id", conditions.toClauses("id"));
+    assertEquals(
+        List.<Object>of(range.getUpperBoundAsInstant().toInstant()), conditions.getParameters());
+
+    range =
+        new DateRangeParam(new DateParam(ParamPrefixEnum.GREATERTHAN_OR_EQUALS, LOWER_DATE), null);
+    conditions = new SqlConditions().addLastUpdated("last_updated", range);
+    assertEquals("where last_updated >= ? order by id", conditions.toClauses("id"));
+    assertEquals(Instant.class, conditions.getParameters().getFirst().getClass());
+
+    DateRangeParam badRange =
+        new DateRangeParam(new DateParam(ParamPrefixEnum.EQUAL, LOWER_DATE), null);
+    assertThrows(
+        InvalidRequestException.class,
+        () -> new SqlConditions().addLastUpdated("last_updated", badRange));
+  }
+
+  /**
+   * Verifies that date range conditions match those of {@link QueryUtils#createDateRangePredicate}
+   * for each column and are combined using or.
+   */
+  @Test
+  public void testAnyDateInRange() {
+    DateRangeParam range =
+        new DateRangeParam(
+            new DateParam(ParamPrefixEnum.GREATERTHAN_OR_EQUALS, LOWER_DATE),
+            new DateParam(ParamPrefixEnum.LESSTHAN, UPPER_DATE));
+    SqlConditions conditions =
+        new SqlConditions().addEquals("mbi_id", 7L).addAnyDateInRange(List.of("a", "b"), range);
+    assertEquals(
+        "where mbi_id = ? and ((a is not null and a >= ? and a < ?)"
+            + " or (b is not null and b >= ? and b < ?)) order by id",
+        conditions.toClauses("id"));
+    LocalDate lower = LocalDate.parse(LOWER_DATE);
+    LocalDate upper = LocalDate.parse(UPPER_DATE);
+    assertEquals(List.of(7L, lower, upper, lower, upper), conditions.getParameters());
+
+    // no bounds means no condition at all
+    conditions =
+        new SqlConditions()
+            .addAnyDateInRange(List.of("a"), new DateRangeParam((DateParam) null, null));
+    assertEquals("order by id", conditions.toClauses("id"));
+
+    // DateRangeParam rejects invalid prefixes itself so a mock is needed to reach our check
+    DateRangeParam badRange = mock(DateRangeParam.class);
+    doReturn(new DateParam(ParamPrefixEnum.NOT_EQUAL, LOWER_DATE)).when(badRange).getLowerBound();
+    assertThrows(
+        InvalidRequestException.class,
+        () -> new SqlConditions().addAnyDateInRange(List.of("a"), badRange));
+  }
+}
@@ -0,0 +1,296 @@
+package gov.cms.bfd.server.war.r4.providers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.codahale.metrics.MetricRegistry;
+import gov.cms.bfd.server.war.commons.LoadedFilterManager;
+import gov.cms.bfd.server.war.commons.RequestHeaders;
+import jakarta.persistence.EntityManagerFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.hl7.fhir.r4.model.ResourceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+/**
+ * Unit tests for the job bookkeeping performed by {@link BulkExportJobManager}. Executing jobs
+ * requires a database so those paths are not covered here.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BulkExportJobManagerTest {
+  /** Root directory for job output. */
+  @TempDir Path rootDirectory;
+
+  /** The mocked executor. Jobs are queued but never run. */
+  @Mock ExecutorService executor;
+
+  /** The future returned by the mocked executor. */
+  @Mock Future<?> future;
+
+  /** The clock, supplies the creation time of jobs. */
+  @Mock Clock clock;
+
+  /** The loaded filter manager, supplies the transaction time. */
+  @Mock LoadedFilterManager loadedFilterManager;
+
+  /** The time reported by the loaded filter manager. */
+  private final Instant transactionTime = Instant.parse("2024-03-01T10:15:30Z");
+
+  /** The time reported by the clock when jobs are submitted. */
+  private final Instant now = Instant.parse("2024-03-02T00:00:00Z");
+
+  /** Distinguished name of the client that submits jobs. */
+  private static final String REQUESTER = "CN=client-1";
+
+  /** The class under test. */
+  private BulkExportJobManager manager;
+
+  /** Sets up the manager with mocks that prevent any job from actually running. */
+  @BeforeEach
+  void setUp() {
+    doReturn(future).when(executor).submit(any(Runnable.class));
+    doReturn(transactionTime).when(loadedFilterManager).getTransactionTime();
+    doReturn(now).when(clock).instant();
+    manager = createManager(clock);
+  }
+
+  /** Verifies that submitting a job queues it and creates its output directory. */
+  @Test
+  void shouldQueueSubmittedJob() throws Exception {
+    BulkExportJob job = submitJob();
+
+    assertEquals(BulkExportJob.Status.ACCEPTED, job.getStatus());
+    assertEquals("H1234", job.getContractId());
+    assertEquals(YearMonth.of(2024, 1), job.getYearMonth());
+    assertEquals(transactionTime, job.getTransactionTime());
+    assertEquals(now, job.getCreatedTime());
+    assertEquals(REQUESTER, job.getRequester());
+    assertEquals(rootDirectory.resolve(job.getJobId()), job.getDirectory());
+    assertTrue(Files.isDirectory(job.getDirectory()));
+    assertSame(job, manager.findJob(job.getJobId()).orElseThrow());
+    verify(executor).submit(any(Runnable.class));
+  }
+
+  /** Verifies that cancelling a job interrupts it and removes it along with its output. */
+  @Test
+  void shouldCancelAndRemoveJob() throws Exception {
+    BulkExportJob job = submitJob();
+    Files.writeString(job.getDirectory().resolve("Patient-1.ndjson"), "{}\n");
+
+    assertTrue(manager.cancel(job.getJobId()));
+
+    assertEquals(BulkExportJob.Status.CANCELLED, job.getStatus());
+    verify(future).cancel(true);
+    assertFalse(Files.exists(job.getDirectory()));
+    assertTrue(manager.findJob(job.getJobId()).isEmpty());
+    assertFalse(manager.cancel(job.getJobId()));
+  }
+
+  /** Verifies that a cancelled job that was still queued does nothing when finally run. */
+  @Test
+  void shouldNotRunCancelledJob() throws Exception {
+    BulkExportJob job = submitJob();
+    manager.cancel(job.getJobId());
+
+    manager.runJob(job);
+
+    assertEquals(BulkExportJob.Status.CANCELLED, job.getStatus());
+  }
+
+  /** Verifies that only jobs older than the retention period are purged along with their output. */
+  @Test
+  void shouldPurgeOnlyExpiredJobs() throws Exception {
+    BulkExportJob expired = submitJob();
+    doReturn(now.plus(Duration.ofHours(25))).when(clock).instant();
+    BulkExportJob recent = submitJob();
+
+    manager.purgeExpiredJobs();
+
+    assertTrue(manager.findJob(expired.getJobId()).isEmpty());
+    assertFalse(Files.exists(expired.getDirectory()));
+    assertTrue(manager.findJob(recent.getJobId()).isPresent());
+    assertTrue(Files.isDirectory(recent.getDirectory()));
+  }
+
+  /**
+   * Verifies that a job accepted by one instance can be found, with the same properties, by another
+   * instance sharing the export directory.
+   */
+  @Test
+  void shouldFindJobAcceptedByAnotherInstance() throws Exception {
+    BulkExportJob job = submitJob();
+    job.markInProgress();
+    job.addProgress(42);
+    manager.updateRunningJobs();
+
+    BulkExportJob found = createManager(clock).findJob(job.getJobId()).orElseThrow();
+
+    assertEquals(job.getJobId(), found.getJobId());
+    assertEquals(BulkExportJob.Status.IN_PROGRESS, found.getStatus());
+    assertEquals(42, found.getBeneficiaryCount().get());
+    assertEquals("H1234", found.getContractId());
+    assertEquals(YearMonth.of(2024, 1), found.getYearMonth());
+    assertEquals(Set.of(ResourceType.Patient), found.getResourceTypes());
+    assertEquals(REQUESTER, found.getRequester());
+    assertEquals(job.getRequestUrl(), found.getRequestUrl());
+    assertEquals(transactionTime, found.getTransactionTime());
+    assertEquals(now, found.getCreatedTime());
+    assertEquals(job.getDirectory(), found.getDirectory());
+  }
+
+  /** Verifies that the output files of a completed job are visible to another instance. */
+  @Test
+  void shouldFindOutputOfJobCompletedByAnotherInstance() throws Exception {
+    BulkExportJob job = submitJob();
+    Path file = job.getDirectory().resolve("Patient-1.ndjson");
+    job.markCompleted(List.of(new NdjsonFileWriter.OutputFile("Patient", file, 3)));
+    job.writeState(now);
+
+    BulkExportJob found = createManager(clock).findJob(job.getJobId()).orElseThrow();
+
+    assertEquals(BulkExportJob.Status.COMPLETED, found.getStatus());
+    assertEquals(
+        List.of(new NdjsonFileWriter.OutputFile("Patient", file, 3)), found.getOutputFiles());
+  }
+
+  /**
+   * Verifies that an unfinished job whose state has not been updated recently is reported as failed
+   * by other instances since the instance running it must have stopped.
+   */
+  @Test
+  void shouldReportAbandonedJobAsFailed() throws Exception {
+    BulkExportJob job = submitJob();
+    Clock laterClock = mock(Clock.class);
+    BulkExportJobManager otherManager = createManager(laterClock);
+
+    doReturn(now.plus(BulkExportJobManager.ABANDONED_JOB_TIMEOUT)).when(laterClock).instant();
+    assertEquals(
+        BulkExportJob.Status.ACCEPTED,
+        otherManager.findJob(job.getJobId()).orElseThrow().getStatus());
+
+    doReturn(now.plus(BulkExportJobManager.ABANDONED_JOB_TIMEOUT).plusSeconds(1))
+        .when(laterClock)
+        .instant();
+    assertEquals(
+        BulkExportJob.Status.FAILED,
+        otherManager.findJob(job.getJobId()).orElseThrow().getStatus());
+  }
+
+  /**
+   * Verifies that a job cancelled through another instance is deleted and that the instance running
+   * it stops it the next time it updates its state.
+   */
+  @Test
+  void shouldCancelJobRunningOnAnotherInstance() throws Exception {
+    BulkExportJob job = submitJob();
+
+    assertTrue(createManager(clock).cancel(job.getJobId()));
+    assertFalse(Files.exists(job.getDirectory()));
+
+    manager.updateRunningJobs();
+    assertEquals(BulkExportJob.Status.CANCELLED, job.getStatus());
+    verify(future).cancel(true);
+    assertTrue(manager.findJob(job.getJobId()).isEmpty());
+  }
+
+  /** Verifies that ids that are not UUIDs never reach the file system. */
+  @Test
+  void shouldRejectInvalidJobIds() throws Exception {
+    Path outside = Files.createDirectories(rootDirectory.resolve("other"));
+    Files.writeString(outside.resolve(BulkExportJob.STATE_FILE_NAME), "{}");
+
+    assertTrue(manager.findJob("other").isEmpty());
+    assertTrue(manager.findJob("../" + rootDirectory.getFileName() + "/other").isEmpty());
+    assertFalse(manager.cancel("other"));
+    assertTrue(Files.exists(outside));
+  }
+
+  /**
+   * Verifies that expired jobs accepted by other instances and abandoned directories are purged
+   * while recent ones are kept.
+   */
+  @Test
+  void shouldPurgeExpiredJobsOfOtherInstances() throws Exception {
+    BulkExportJob expired = submitJob();
+    Path stray = Files.createDirectories(rootDirectory.resolve("stray"));
+    Files.setLastModifiedTime(stray, FileTime.from(now));
+    Clock laterClock = mock(Clock.class);
+    doReturn(now.plus(Duration.ofHours(25))).when(laterClock).instant();
+    BulkExportJobManager otherManager = createManager(laterClock);
+    BulkExportJob recent =
+        otherManager.submit(
+            "H1234",
+            YearMonth.of(2024, 1),
+            Set.of(ResourceType.Patient),
+            RequestHeaders.getHeaderWrapper(),
+            REQUESTER,
+            "https://localhost/v2/fhir/Patient/$export");
+
+    otherManager.purgeExpiredJobs();
+
+    assertFalse(Files.exists(expired.getDirectory()));
+    assertFalse(Files.exists(stray));
+    assertTrue(Files.isDirectory(recent.getDirectory()));
+  }
+
+  /**
+   * Creates a manager using the shared mocks and export directory.
+   *
+   * @param clock the manager's clock
+   * @return the manager
+   */
+  private BulkExportJobManager createManager(Clock clock) {
+    return new BulkExportJobManager(
+        new MetricRegistry(),
+        loadedFilterManager,
+        mock(BeneficiaryTransformerV2.class),
+        mock(CoverageTransformerV2.class),
+        mock(EntityManagerFactory.class),
+        new BulkExportThrottle(1000, () -> false, Duration.ZERO),
+        rootDirectory,
+        10,
+        100,
+        Duration.ofHours(24),
+        executor,
+        clock);
+  }
+
+  /**
+   * Submits a job with fixed parameters.
+   *
+   * @return the job
+   * @throws Exception pass through
+   */
+  private BulkExportJob submitJob() throws Exception {
+    return manager.submit(
+        "H1234",
+        YearMonth.of(2024, 1),
+        Set.of(ResourceType.Patient),
+        RequestHeaders.getHeaderWrapper(),
+        REQUESTER,
+        "https://localhost/v2/fhir/Patient/$export");
+  }
+}
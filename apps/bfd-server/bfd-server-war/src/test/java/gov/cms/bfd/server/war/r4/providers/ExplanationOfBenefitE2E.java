@@ -35,6 +35,48 @@ public class ExplanationOfBenefitE2E extends ExplanationOfBenefitE2EBase {
     eobEndpoint = baseServerUrl + "/v2/fhir/ExplanationOfBenefit/";
   }
 
+  /**
+   * Verifies that findByPatient with a page size of 0 returns only the total number of matching
+   * claims, with no entries and no paging links, as described by the FHIR spec.
+   */
+  @Test
+  @Override
+  public void testEobByPatientIdWithPageSizeZeroReturnsNoPaging() {
+    String patientId = testUtils.getPatientId(testUtils.loadSampleAData());
+    String requestString = eobEndpoint + "?patient=" + patientId + "&_count=0";
+
+    given()
+        .spec(requestAuth)
+        .expect()
+        .body("resourceType", equalTo("Bundle"))
+        .body("total", equalTo(8))
+        .body("entry", equalTo(null))
+        .body("link", equalTo(null))
+        .statusCode(200)
+        .when()
+        .get(requestString);
+  }
+
+  /**
+   * Verifies that findByPatient with {@code _summary=count} returns only the total number of claims
+   * matching the type filter.
+   */
+  @Test
+  public void testEobByPatientIdWithSummaryCountExpectTotalOnly() {
+    String patientId = testUtils.getPatientId(testUtils.loadSampleAData());
+    String requestString =
+        eobEndpoint + "?patient=" + patientId + "&type=carrier,pde&_summary=count";
+
+    given()
+        .spec(requestAuth)
+        .expect()
+        .body("total", equalTo(2))
+        .body("entry", equalTo(null))
+        .statusCode(200)
+        .when()
+        .get(requestString);
+  }
+
   /**
    * Test eob by patient id returns tax numbers for applicable claim types when IncludeTaxNumbers =
    * true.
@@ -0,0 +1,131 @@
+package gov.cms.bfd.server.war.r4.providers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import gov.cms.bfd.server.war.ServerRequiredTest;
+import gov.cms.bfd.server.war.ServerTestUtils;
+import gov.cms.bfd.server.war.commons.ClaimType;
+import gov.cms.bfd.server.war.r4.providers.pac.ClaimTypeV2;
+import gov.cms.bfd.server.war.utils.RDATestUtils;
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that the claims read by the {@link EntityRowMapper}s used when {@code
+ * bfdServer.jdbcClaimReads.enabled} is set match the same claims read by JPA, field for field and
+ * including every line and other child collection. The FHIR transformers only ever see the
+ * entities, so matching entities produce matching EOB and PAC responses.
+ */
+public final class JdbcClaimReadsIT extends ServerRequiredTest {
+  /** Test utils for the PAC data. */
+  private static final RDATestUtils rdaTestUtils = new RDATestUtils();
+
+  /** Cleans up the PAC test data. */
+  @AfterAll
+  public static void tearDown() {
+    rdaTestUtils.truncateTables();
+    rdaTestUtils.destroy();
+  }
+
+  /** Verifies that every CCW claim type read by JDBC matches the claims read by JPA. */
+  @Test
+  public void ccwClaimsMatchJpa() {
+    ServerTestUtils.get().loadSampleAData();
+    ServerTestUtils.get()
+        .doTransaction(
+            entityManager -> {
+              for (ClaimType claimType : ClaimType.values()) {
+                assertJdbcMatchesJpa(entityManager, claimType.getEntityRowMapper());
+              }
+            });
+  }
+
+  /** Verifies that every PAC claim type read by JDBC matches the claims read by JPA. */
+  @Test
+  public void pacClaimsMatchJpa() {
+    rdaTestUtils.init();
+    rdaTestUtils.seedData(true);
+    final EntityManager entityManager = rdaTestUtils.getEntityManager();
+    // read the claims back from the database rather than the seeded instances
+    entityManager.clear();
+    for (ClaimTypeV2<?> claimType : ClaimTypeV2.values()) {
+      assertJdbcMatchesJpa(entityManager, claimType.getEntityRowMapper().orElseThrow());
+    }
+  }
+
+  /**
+   * Reads every entity of a row mapper's table using JDBC and compares each one to the entity with
+   * the same id read using JPA.
+   *
+   * @param entityManager used for both reads
+   * @param rowMapper reads the entities using JDBC
+   */
+  private static void assertJdbcMatchesJpa(
+      EntityManager entityManager, EntityRowMapper<?> rowMapper) {
+    final List<?> jdbcEntities =
+        entityManager
+            .unwrap(Session.class)
+            .doReturningWork(connection -> rowMapper.readAll(connection, "", List.of()));
+    assertFalse(jdbcEntities.isEmpty(), "no sample data in " + rowMapper.getTableName());
+    for (Object jdbcEntity : jdbcEntities) {
+      final Object id =
+          entityManager
+              .getEntityManagerFactory()
+              .getPersistenceUnitUtil()
+              .getIdentifier(jdbcEntity);
+      final Object jpaEntity = entityManager.find(jdbcEntity.getClass(), id);
+      assertNotNull(jpaEntity, "no JPA entity for " + rowMapper.getTableName() + " " + id);
+      assertEquals(describe(jpaEntity), describe(jdbcEntity), rowMapper.getTableName() + " " + id);
+    }
+  }
+
+  /**
+   * Describes every field of an entity, including the entities in its collections. References to
+   * single entities, such as a line's parent claim or a claim's MBI, are skipped since row mappers
+   * do not populate them. Unordered collections are sorted so that only their contents matter.
+   *
+   * @param entity the entity to describe
+   * @return the description
+   */
+  private static String describe(Object entity) {
+    final Object unproxied = Hibernate.unproxy(entity);
+    final StringBuilder description =
+        new StringBuilder(unproxied.getClass().getSimpleName()).append('{');
+    for (Class<?> c = unproxied.getClass(); c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers())
+            || field.getType().isAnnotationPresent(Entity.class)) {
+          continue;
+        }
+        field.setAccessible(true);
+        Object value;
+        try {
+          value = field.get(unproxied);
+        } catch (IllegalAccessException ex) {
+          throw new IllegalStateException(ex);
+        }
+        if (value instanceof Collection<?> collection) {
+          Stream<String> children = collection.stream().map(JdbcClaimReadsIT::describe);
+          if (!(value instanceof List)) {
+            children = children.sorted();
+          }
+          value = children.toList();
+        }
+        description.append(field.getName()).append('=').append(value).append(", ");
+      }
+    }
+    return description.append('}').toString();
+  }
+}
@@ -0,0 +1,78 @@
+package gov.cms.bfd.server.war.r4.providers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ca.uhn.fhir.context.FhirContext;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.hl7.fhir.r4.model.Coverage;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link NdjsonFileWriter}. */
+public class NdjsonFileWriterTest {
+  /** Directory to write files into. */
+  @TempDir Path directory;
+
+  /**
+   * Verifies that resources are written one per line, that files roll over when full, and that each
+   * resource type gets its own files.
+   */
+  @Test
+  void shouldWriteFixedSizeFilesPerResourceType() throws Exception {
+    final var fhirContext = FhirContext.forR4Cached();
+    final List<NdjsonFileWriter.OutputFile> outputFiles;
+    try (NdjsonFileWriter writer =
+        new NdjsonFileWriter(fhirContext.newJsonParser(), directory, 2)) {
+      for (int i = 1; i <= 5; ++i) {
+        Patient patient = new Patient();
+        patient.setId("patient-" + i);
+        writer.write(patient);
+      }
+      Coverage coverage = new Coverage();
+      coverage.setId("coverage-1");
+      writer.write(coverage);
+      writer.close();
+      outputFiles = writer.getOutputFiles();
+    }
+
+    assertEquals(
+        List.of(
+            new NdjsonFileWriter.OutputFile("Patient", directory.resolve("Patient-1.ndjson"), 2),
+            new NdjsonFileWriter.OutputFile("Patient", directory.resolve("Patient-2.ndjson"), 2),
+            new NdjsonFileWriter.OutputFile("Patient", directory.resolve("Patient-3.ndjson"), 1),
+            new NdjsonFileWriter.OutputFile("Coverage", directory.resolve("Coverage-1.ndjson"), 1)),
+        outputFiles);
+
+    List<String> lines =
+        Files.readAllLines(directory.resolve("Patient-2.ndjson"), StandardCharsets.UTF_8);
+    assertEquals(2, lines.size());
+    Patient parsed = fhirContext.newJsonParser().parseResource(Patient.class, lines.get(0));
+    assertEquals("patient-3", parsed.getIdElement().getIdPart());
+  }
+
+  /** Verifies that closing a writer that never wrote anything produces no files. */
+  @Test
+  void shouldProduceNoFilesWhenEmpty() throws Exception {
+    try (NdjsonFileWriter writer =
+        new NdjsonFileWriter(FhirContext.forR4Cached().newJsonParser(), directory, 10)) {
+      writer.close();
+      assertEquals(List.of(), writer.getOutputFiles());
+    }
+    try (var files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  /** Verifies that a non-positive file size is rejected. */
+  @Test
+  void shouldRejectInvalidFileSize() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new NdjsonFileWriter(FhirContext.forR4Cached().newJsonParser(), directory, 0));
+  }
+}
@@ -30,9 +30,11 @@ import gov.cms.bfd.model.rif.entities.SNFClaim;
 import gov.cms.bfd.model.rif.samples.StaticRifResourceGroup;
 import gov.cms.bfd.server.war.ServerTestUtils;
 import gov.cms.bfd.server.war.commons.ClaimType;
+import gov.cms.bfd.server.war.commons.ParallelTransformer;
 import gov.cms.bfd.server.war.commons.TransformerConstants;
 import gov.cms.bfd.sharedutils.exceptions.BadCodeMonkeyException;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
@@ -43,6 +45,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.spi.QueryImplementor;
 import org.hl7.fhir.r4.model.CodeableConcept;
 import org.hl7.fhir.r4.model.Coding;
 import org.hl7.fhir.r4.model.ExplanationOfBenefit;
@@ -208,7 +214,11 @@ class PatientClaimsEobTaskTransformerV2Test {
             new MetricRegistry(), mockDrugDisplayLookup, mockNpiOrgLookup);
     PatientClaimsEobTaskTransformerV2 taskTransformer =
         new PatientClaimsEobTaskTransformerV2(
-            metricRegistry, mockSamhsaMatcher, mockDrugDisplayLookup, mockNpiOrgLookup);
+            metricRegistry,
+            mockSamhsaMatcher,
+            mockDrugDisplayLookup,
+            mockNpiOrgLookup,
+            ParallelTransformer.sequential());
 
     taskTransformer.setIncludeTaxNumbers(true);
     taskTransformer.setupTaskParams(
@@ -242,7 +252,11 @@ class PatientClaimsEobTaskTransformerV2Test {
             new MetricRegistry(), mockDrugDisplayLookup, mockNpiOrgLookup);
     PatientClaimsEobTaskTransformerV2 taskTransformer =
         new PatientClaimsEobTaskTransformerV2(
-            metricRegistry, mockSamhsaMatcher, mockDrugDisplayLookup, mockNpiOrgLookup);
+            metricRegistry,
+            mockSamhsaMatcher,
+            mockDrugDisplayLookup,
+            mockNpiOrgLookup,
+            ParallelTransformer.sequential());
 
     taskTransformer.setIncludeTaxNumbers(true);
     taskTransformer.setupTaskParams(
@@ -275,7 +289,11 @@ class PatientClaimsEobTaskTransformerV2Test {
         new DMEClaimTransformerV2(new MetricRegistry(), mockDrugDisplayLookup);
     PatientClaimsEobTaskTransformerV2 taskTransformer =
         new PatientClaimsEobTaskTransformerV2(
-            metricRegistry, mockSamhsaMatcher, mockDrugDisplayLookup, mockNpiOrgLookup);
+            metricRegistry,
+            mockSamhsaMatcher,
+            mockDrugDisplayLookup,
+            mockNpiOrgLookup,
+            ParallelTransformer.sequential());
 
     taskTransformer.setIncludeTaxNumbers(true);
     taskTransformer.setupTaskParams(
@@ -308,7 +326,11 @@ class PatientClaimsEobTaskTransformerV2Test {
         new DMEClaimTransformerV2(new MetricRegistry(), mockDrugDisplayLookup);
     PatientClaimsEobTaskTransformerV2 taskTransformer =
         new PatientClaimsEobTaskTransformerV2(
-            metricRegistry, mockSamhsaMatcher, mockDrugDisplayLookup, mockNpiOrgLookup);
+            metricRegistry,
+            mockSamhsaMatcher,
+            mockDrugDisplayLookup,
+            mockNpiOrgLookup,
+            ParallelTransformer.sequential());
 
     taskTransformer.setIncludeTaxNumbers(true);
     taskTransformer.setupTaskParams(
@@ -341,7 +363,11 @@ class PatientClaimsEobTaskTransformerV2Test {
         new HHAClaimTransformerV2(new MetricRegistry(), mockNpiOrgLookup);
     PatientClaimsEobTaskTransformerV2 taskTransformer =
         new PatientClaimsEobTaskTransformerV2(
-            metricRegistry, mockSamhsaMatcher, mockDrugDisplayLookup, mockNpiOrgLookup);
+            metricRegistry,
+            mockSamhsaMatcher,
+            mockDrugDisplayLookup,
+            mockNpiOrgLookup,
+            ParallelTransformer.sequential());
 
     // should ignore processing of NPI tax numbers even though it is set
     taskTransformer.setIncludeTaxNumbers(true);
@@ -375,7 +401,11 @@ class PatientClaimsEobTaskTransformerV2Test {
         new HospiceClaimTransformerV2(new MetricRegistry(), mockNpiOrgLookup);
     PatientClaimsEobTaskTransformerV2 taskTransformer =
         new PatientClaimsEobTaskTransformerV2(
-            metricRegistry, mockSamhsaMatcher, mockDrugDisplayLookup, mockNpiOrgLookup);
+            metricRegistry,
+            mockSamhsaMatcher,
+            mockDrugDisplayLookup,
+            mockNpiOrgLookup,
+            ParallelTransformer.sequential());
 
     // should ignore processing of NPI tax numbers even though it is set
     taskTransformer.setIncludeTaxNumbers(true);
@@ -409,7 +439,11 @@ class PatientClaimsEobTaskTransformerV2Test {
         new InpatientClaimTransformerV2(new MetricRegistry(), mockNpiOrgLookup);
     PatientClaimsEobTaskTransformerV2 taskTransformer =
         new PatientClaimsEobTaskTransformerV2(
-            metricRegistry, mockSamhsaMatcher, mockDrugDisplayLookup, mockNpiOrgLookup);
+            metricRegistry,
+            mockSamhsaMatcher,
+            mockDrugDisplayLookup,
+            mockNpiOrgLookup,
+            ParallelTransformer.sequential());
 
     // should ignore processing of NPI tax numbers even though it is set
     taskTransformer.setIncludeTaxNumbers(true);
@@ -444,7 +478,11 @@ class PatientClaimsEobTaskTransformerV2Test {
             new MetricRegistry(), mockDrugDisplayLookup, mockNpiOrgLookup);
     PatientClaimsEobTaskTransformerV2 taskTransformer =
         new PatientClaimsEobTaskTransformerV2(
-            metricRegistry, mockSamhsaMatcher, mockDrugDisplayLookup, mockNpiOrgLookup);
+            metricRegistry,
+            mockSamhsaMatcher,
+            mockDrugDisplayLookup,
+            mockNpiOrgLookup,
+            ParallelTransformer.sequential());
 
     // should ignore processing of NPI tax numbers even though it is set
     taskTransformer.setIncludeTaxNumbers(true);
@@ -478,7 +516,11 @@ class PatientClaimsEobTaskTransformerV2Test {
         new PartDEventTransformerV2(new MetricRegistry(), mockDrugDisplayLookup);
     PatientClaimsEobTaskTransformerV2 taskTransformer =
         new PatientClaimsEobTaskTransformerV2(
-            metricRegistry, mockSamhsaMatcher, mockDrugDisplayLookup, mockNpiOrgLookup);
+            metricRegistry,
+            mockSamhsaMatcher,
+            mockDrugDisplayLookup,
+            mockNpiOrgLookup,
+            ParallelTransformer.sequential());
 
     // should ignore processing of NPI tax numbers even though it is set
     taskTransformer.setIncludeTaxNumbers(true);
@@ -512,7 +554,11 @@ class PatientClaimsEobTaskTransformerV2Test {
         new SNFClaimTransformerV2(new MetricRegistry(), mockNpiOrgLookup);
     PatientClaimsEobTaskTransformerV2 taskTransformer =
         new PatientClaimsEobTaskTransformerV2(
-            metricRegistry, mockSamhsaMatcher, mockDrugDisplayLookup, mockNpiOrgLookup);
+            metricRegistry,
+            mockSamhsaMatcher,
+            mockDrugDisplayLookup,
+            mockNpiOrgLookup,
+            ParallelTransformer.sequential());
 
     // should ignore processing of NPI tax numbers even though it is set
     taskTransformer.setIncludeTaxNumbers(true);
@@ -548,7 +594,11 @@ class PatientClaimsEobTaskTransformerV2Test {
         new SNFClaimTransformerV2(metricRegistry, mockNpiOrgLookup);
     PatientClaimsEobTaskTransformerV2 taskTransformer =
         new PatientClaimsEobTaskTransformerV2(
-            metricRegistry, mockSamhsaMatcher, mockDrugDisplayLookup, mockNpiOrgLookup);
+            metricRegistry,
+            mockSamhsaMatcher,
+            mockDrugDisplayLookup,
+            mockNpiOrgLookup,
+            ParallelTransformer.sequential());
 
     // should ignore processing of NPI tax numbers even though it is set
     taskTransformer.setIncludeTaxNumbers(true);
@@ -574,14 +624,22 @@ class PatientClaimsEobTaskTransformerV2Test {
       EntityManager em, ClaimType claimType, CriteriaQuery clmMockCriteria, Root clmRoot) {
     CriteriaBuilder clmCriteriaBuilder = mock(CriteriaBuilder.class);
     Path clmMockPath = mock(Path.class);
-    TypedQuery clmMockQuery = mock(TypedQuery.class);
+    QueryImplementor clmMockQuery = mock(QueryImplementor.class);
 
     when(em.getCriteriaBuilder()).thenReturn(clmCriteriaBuilder);
     doReturn(clmMockCriteria).when(clmCriteriaBuilder).createQuery(any());
     when(clmMockCriteria.select(any())).thenReturn(clmMockCriteria);
     when(clmMockCriteria.from(any(Class.class))).thenReturn(clmRoot);
     when(clmRoot.get(isNull(SingularAttribute.class))).thenReturn(clmMockPath);
-    when(em.createQuery(clmMockCriteria)).thenReturn(clmMockQuery);
+    // claims are queried in their own session, which is the mocked entity manager here
+    EntityManagerFactory clmEntityManagerFactory = mock(EntityManagerFactory.class);
+    SessionImplementor clmSession = mock(SessionImplementor.class);
+    when(em.getEntityManagerFactory()).thenReturn(clmEntityManagerFactory);
+    when(clmEntityManagerFactory.createEntityManager()).thenReturn(em);
+    when(em.unwrap(SessionImplementor.class)).thenReturn(clmSession);
+    when(clmSession.getPersistenceContextInternal()).thenReturn(mock(PersistenceContext.class));
+    when(clmSession.getTransaction()).thenReturn(mock(Transaction.class));
+    when(clmSession.createQuery(clmMockCriteria)).thenReturn(clmMockQuery);
     when(clmMockQuery.setHint(any(), anyBoolean())).thenReturn(clmMockQuery);
     when(clmMockQuery.setMaxResults(anyInt())).thenReturn(clmMockQuery);
     when(clmMockQuery.setParameter(anyString(), any())).thenReturn(clmMockQuery);
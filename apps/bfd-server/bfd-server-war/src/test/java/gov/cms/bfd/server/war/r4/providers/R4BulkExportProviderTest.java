@@ -0,0 +1,356 @@
+package gov.cms.bfd.server.war.r4.providers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import ca.uhn.fhir.rest.api.RequestTypeEnum;
+import ca.uhn.fhir.rest.server.exceptions.AuthenticationException;
+import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
+import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
+import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
+import gov.cms.bfd.server.war.commons.RequestHeaders;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.nio.file.Path;
+import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.security.auth.x500.X500Principal;
+import org.hl7.fhir.r4.model.ResourceType;
+import org.hl7.fhir.r4.model.StringType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+/** Unit tests for {@link R4BulkExportProvider}. */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class R4BulkExportProviderTest {
+  /** Base URL of the server. */
+  private static final String SERVER_BASE = "https://localhost/v2/fhir";
+
+  /** Distinguished name of the client certificate used for requests. */
+  private static final String REQUESTER = "CN=client-1";
+
+  /** The mocked job manager. */
+  @Mock BulkExportJobManager jobManager;
+
+  /** The mocked request details. */
+  @Mock ServletRequestDetails requestDetails;
+
+  /** The mocked servlet request. */
+  @Mock HttpServletRequest request;
+
+  /** The mocked client certificate. */
+  @Mock X509Certificate certificate;
+
+  /** The mocked servlet response. */
+  @Mock HttpServletResponse response;
+
+  /** A job to be returned by the job manager. */
+  private BulkExportJob job;
+
+  /** The class under test. */
+  private R4BulkExportProvider provider;
+
+  /** Sets up the provider and the mocks. */
+  @BeforeEach
+  void setUp() {
+    provider = new R4BulkExportProvider(jobManager);
+    job =
+        new BulkExportJob(
+            "job-1",
+            "H1234",
+            YearMonth.of(2024, 1),
+            Set.of(ResourceType.Patient),
+            RequestHeaders.getHeaderWrapper(),
+            REQUESTER,
+            SERVER_BASE + "/Patient/$export?contract=H1234&month=2024-01",
+            Instant.parse("2024-03-01T10:15:30Z"),
+            Path.of("/tmp/job-1"),
+            Instant.parse("2024-03-02T00:00:00Z"));
+    doReturn(new X500Principal(REQUESTER)).when(certificate).getSubjectX500Principal();
+    doReturn(new X509Certificate[] {certificate})
+        .when(request)
+        .getAttribute("jakarta.servlet.request.X509Certificate");
+    doReturn(request).when(requestDetails).getServletRequest();
+    doReturn(response).when(requestDetails).getServletResponse();
+    doReturn(SERVER_BASE).when(requestDetails).getFhirServerBase();
+    doReturn(RequestTypeEnum.GET).when(requestDetails).getRequestType();
+    doReturn(Optional.of(job)).when(jobManager).findJob("job-1");
+  }
+
+  /** Verifies that a valid kick-off request submits a job and returns the status URL. */
+  @Test
+  void shouldSubmitJobOnKickOff() throws Exception {
+    doReturn(SERVER_BASE + "/Patient/$export").when(requestDetails).getCompleteUrl();
+    doReturn(job)
+        .when(jobManager)
+        .submit(
+            anyString(),
+            any(YearMonth.class),
+            any(),
+            any(RequestHeaders.class),
+            anyString(),
+            anyString());
+
+    provider.export(
+        new StringType("H1234"),
+        new StringType("2024-01"),
+        new StringType("Patient,Coverage"),
+        null,
+        requestDetails);
+
+    verify(jobManager)
+        .submit(
+            eq("H1234"),
+            eq(YearMonth.of(2024, 1)),
+            eq(EnumSet.of(ResourceType.Patient, ResourceType.Coverage)),
+            any(RequestHeaders.class),
+            eq(REQUESTER),
+            eq(SERVER_BASE + "/Patient/$export"));
+    verify(response).setStatus(HttpServletResponse.SC_ACCEPTED);
+    verify(response)
+        .setHeader("Content-Location", SERVER_BASE + "/$export-poll-status?_jobId=job-1");
+  }
+
+  /** Verifies that invalid kick-off parameters are rejected before any job is submitted. */
+  @Test
+  void shouldRejectInvalidKickOffParameters() {
+    assertThrows(
+        InvalidRequestException.class,
+        () ->
+            provider.export(
+                new StringType("H12"), new StringType("2024-01"), null, null, requestDetails));
+    assertThrows(
+        InvalidRequestException.class,
+        () ->
+            provider.export(
+                new StringType("H1234"), new StringType("2024-13"), null, null, requestDetails));
+    assertThrows(
+        InvalidRequestException.class,
+        () ->
+            provider.export(
+                new StringType("H1234"),
+                new StringType("2024-01"),
+                new StringType("ExplanationOfBenefit"),
+                null,
+                requestDetails));
+    assertThrows(
+        InvalidRequestException.class,
+        () ->
+            provider.export(
+                new StringType("H1234"),
+                new StringType("2024-01"),
+                null,
+                new StringType("text/csv"),
+                requestDetails));
+    verifyNoInteractions(jobManager);
+  }
+
+  /** Verifies that the resource type list defaults to Patient. */
+  @Test
+  void shouldDefaultToPatientType() {
+    assertEquals(EnumSet.of(ResourceType.Patient), R4BulkExportProvider.parseResourceTypes(null));
+    assertEquals(
+        EnumSet.of(ResourceType.Coverage), R4BulkExportProvider.parseResourceTypes("Coverage"));
+  }
+
+  /** Verifies that status requests for a running job return 202 with progress. */
+  @Test
+  void shouldReturnAcceptedWhileRunning() throws Exception {
+    job.markInProgress();
+    job.addProgress(42);
+
+    provider.exportPollStatus(new StringType("job-1"), requestDetails);
+
+    verify(response).setStatus(HttpServletResponse.SC_ACCEPTED);
+    verify(response).setHeader("X-Progress", "42 beneficiaries processed");
+  }
+
+  /** Verifies that status requests for a failed job return an error. */
+  @Test
+  void shouldReturnErrorWhenFailed() {
+    job.markFailed("export failed: IOException");
+
+    assertThrows(
+        InternalErrorException.class,
+        () -> provider.exportPollStatus(new StringType("job-1"), requestDetails));
+  }
+
+  /** Verifies that unknown jobs are reported as not found. */
+  @Test
+  void shouldReturnNotFoundForUnknownJob() {
+    doReturn(Optional.empty()).when(jobManager).findJob("nope");
+
+    assertThrows(
+        ResourceNotFoundException.class,
+        () -> provider.exportPollStatus(new StringType("nope"), requestDetails));
+    assertThrows(
+        ResourceNotFoundException.class,
+        () ->
+            provider.exportDownload(
+                new StringType("nope"), new StringType("Patient-1.ndjson"), requestDetails));
+  }
+
+  /** Verifies that a delete request cancels the job. */
+  @Test
+  void shouldCancelJobOnDelete() throws Exception {
+    doReturn(RequestTypeEnum.DELETE).when(requestDetails).getRequestType();
+    doReturn(true).when(jobManager).cancel("job-1");
+
+    provider.exportPollStatus(new StringType("job-1"), requestDetails);
+
+    verify(jobManager).cancel("job-1");
+    verify(response).setStatus(HttpServletResponse.SC_ACCEPTED);
+  }
+
+  /**
+   * Verifies that jobs created with a different client certificate can not be seen, downloaded, or
+   * cancelled.
+   */
+  @Test
+  void shouldHideJobsOfOtherClients() {
+    doReturn(new X500Principal("CN=client-2")).when(certificate).getSubjectX500Principal();
+    job.markCompleted(
+        List.of(
+            new NdjsonFileWriter.OutputFile("Patient", Path.of("/tmp/job-1/Patient-1.ndjson"), 3)));
+
+    assertThrows(
+        ResourceNotFoundException.class,
+        () -> provider.exportPollStatus(new StringType("job-1"), requestDetails));
+    assertThrows(
+        ResourceNotFoundException.class,
+        () ->
+            provider.exportDownload(
+                new StringType("job-1"), new StringType("Patient-1.ndjson"), requestDetails));
+    doReturn(RequestTypeEnum.DELETE).when(requestDetails).getRequestType();
+    assertThrows(
+        ResourceNotFoundException.class,
+        () -> provider.exportPollStatus(new StringType("job-1"), requestDetails));
+    verify(jobManager, never()).cancel(anyString());
+  }
+
+  /**
+   * Verifies that requests without a client certificate can not create jobs or access the jobs of
+   * other requests made without one.
+   */
+  @Test
+  void shouldRejectRequestsWithoutClientCertificate() {
+    doReturn(null).when(request).getAttribute("jakarta.servlet.request.X509Certificate");
+    doReturn(Optional.of(jobWithoutRequester())).when(jobManager).findJob("job-2");
+
+    assertThrows(
+        AuthenticationException.class,
+        () ->
+            provider.export(
+                new StringType("H1234"), new StringType("2024-01"), null, null, requestDetails));
+    assertThrows(
+        AuthenticationException.class,
+        () -> provider.exportPollStatus(new StringType("job-2"), requestDetails));
+    assertThrows(
+        AuthenticationException.class,
+        () ->
+            provider.exportDownload(
+                new StringType("job-2"), new StringType("Patient-1.ndjson"), requestDetails));
+    doReturn(RequestTypeEnum.DELETE).when(requestDetails).getRequestType();
+    assertThrows(
+        AuthenticationException.class,
+        () -> provider.exportPollStatus(new StringType("job-2"), requestDetails));
+    verifyNoInteractions(jobManager);
+  }
+
+  /** Verifies that a job without a requester can not be accessed by a client with a certificate. */
+  @Test
+  void shouldHideJobsWithoutRequester() {
+    doReturn(Optional.of(jobWithoutRequester())).when(jobManager).findJob("job-2");
+
+    assertThrows(
+        ResourceNotFoundException.class,
+        () -> provider.exportPollStatus(new StringType("job-2"), requestDetails));
+  }
+
+  /** Verifies that only files listed in the manifest can be downloaded. */
+  @Test
+  void shouldRejectDownloadOfUnlistedFile() {
+    job.markCompleted(
+        List.of(
+            new NdjsonFileWriter.OutputFile("Patient", Path.of("/tmp/job-1/Patient-1.ndjson"), 3)));
+
+    assertThrows(
+        ResourceNotFoundException.class,
+        () ->
+            provider.exportDownload(
+                new StringType("job-1"), new StringType("../secret.ndjson"), requestDetails));
+  }
+
+  /** Verifies that the manifest lists every output file with a download URL. */
+  @Test
+  void shouldCreateManifest() {
+    job.markCompleted(
+        List.of(
+            new NdjsonFileWriter.OutputFile("Patient", Path.of("/tmp/job-1/Patient-1.ndjson"), 3),
+            new NdjsonFileWriter.OutputFile(
+                "Coverage", Path.of("/tmp/job-1/Coverage-1.ndjson"), 12)));
+
+    Map<String, Object> manifest = R4BulkExportProvider.createManifest(job, SERVER_BASE);
+
+    assertEquals("2024-03-01T10:15:30Z", manifest.get("transactionTime"));
+    assertEquals(job.getRequestUrl(), manifest.get("request"));
+    assertEquals(false, manifest.get("requiresAccessToken"));
+    assertEquals(
+        List.of(
+            Map.of(
+                "type",
+                "Patient",
+                "url",
+                SERVER_BASE + "/$export-download?_jobId=job-1&_file=Patient-1.ndjson",
+                "count",
+                3),
+            Map.of(
+                "type",
+                "Coverage",
+                "url",
+                SERVER_BASE + "/$export-download?_jobId=job-1&_file=Coverage-1.ndjson",
+                "count",
+                12)),
+        manifest.get("output"));
+    assertEquals(List.of(), manifest.get("error"));
+  }
+
+  /**
+   * Creates a job whose kick-off request had no client certificate.
+   *
+   * @return the job
+   */
+  private BulkExportJob jobWithoutRequester() {
+    return new BulkExportJob(
+        "job-2",
+        "H1234",
+        YearMonth.of(2024, 1),
+        Set.of(ResourceType.Patient),
+        RequestHeaders.getHeaderWrapper(),
+        null,
+        SERVER_BASE + "/Patient/$export?contract=H1234&month=2024-01",
+        Instant.parse("2024-03-01T10:15:30Z"),
+        Path.of("/tmp/job-2"),
+        Instant.parse("2024-03-02T00:00:00Z"));
+  }
+}
@@ -12,6 +12,7 @@ import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -297,13 +298,14 @@ public class R4ExplanationOfBenefitResourceProviderTest {
     when(mockQuery.getSingleResult()).thenReturn(testBene);
     when(mockQuery.setParameter(anyString(), any())).thenReturn(mockQuery);
 
-    // Used for the check to see if claim data exists; needs a list of bitmask data
-    when(mockQuery.getResultList()).thenReturn(List.of(0));
+    // Used for the check to see if claim data exists; needs a list of claim type summary rows
+    when(mockQuery.getResultList()).thenReturn(List.of());
     when(mockCriteria.subquery(any(Class.class))).thenReturn(mockSubquery);
     when(mockCriteria.distinct(anyBoolean())).thenReturn(mockCriteria);
     when(mockSubquery.select(any())).thenReturn(mockSubquery);
     when(mockSubquery.from(any(Class.class))).thenReturn(root);
     when(eobEntityManager.createNativeQuery(anyString())).thenReturn(mockQuery);
+    when(eobEntityManager.createNativeQuery(anyString(), any(Class.class))).thenReturn(mockQuery);
     eobProvider.setEntityManager(eobEntityManager);
   }
 
@@ -440,7 +442,7 @@ public class R4ExplanationOfBenefitResourceProviderTest {
         NumberFormatException.class,
         () ->
             eobProvider.findByPatient(
-                patientParam, null, null, null, null, null, null, null, requestDetails));
+                patientParam, null, null, null, null, null, null, null, null, requestDetails));
   }
 
   /**
@@ -449,11 +451,11 @@ public class R4ExplanationOfBenefitResourceProviderTest {
    */
   @Test
   void testFindByPatientWithPageSizeNotProvidedExpectNoPaging() {
-    when(mockQuery.getResultList()).thenReturn(List.of(0));
+    when(mockQuery.getResultList()).thenReturn(List.of());
 
     Bundle response =
         eobProvider.findByPatient(
-            patientParam, null, null, null, null, null, null, null, requestDetails);
+            patientParam, null, null, null, null, null, null, null, null, requestDetails);
 
     assertNotNull(response);
     assertNull(response.getLink(Constants.LINK_NEXT));
@@ -478,7 +480,7 @@ public class R4ExplanationOfBenefitResourceProviderTest {
         InvalidRequestException.class,
         () ->
             eobProvider.findByPatient(
-                patientParam, null, null, null, null, null, null, null, requestDetails));
+                patientParam, null, null, null, null, null, null, null, null, requestDetails));
   }
 
   /**
@@ -489,15 +491,42 @@ public class R4ExplanationOfBenefitResourceProviderTest {
   void testFindByPatientWhenNoClaimsFoundExpectEmptyBundle() {
     // mock no result when making JPA call
     when(mockQuery.getSingleResult()).thenThrow(NoResultException.class);
-    when(mockQuery.getResultList()).thenReturn(List.of(0));
+    when(mockQuery.getResultList()).thenReturn(List.of());
 
     Bundle response =
         eobProvider.findByPatient(
-            patientParam, null, null, null, null, null, null, null, requestDetails);
+            patientParam, null, null, null, null, null, null, null, null, requestDetails);
 
     assertEquals(0, response.getTotal());
   }
 
+  /**
+   * Verifies that {@link R4ExplanationOfBenefitResourceProvider#findByPatient} answers a {@code
+   * _count=0} search with just the total from the claims availability check, without loading any
+   * claims.
+   */
+  @Test
+  void testFindByPatientWithPageSizeZeroExpectTotalOnly() {
+    Map<String, String[]> params = new HashMap<>();
+    params.put(Constants.PARAM_COUNT, new String[] {"0"});
+    when(requestDetails.getParameters()).thenReturn(params);
+    List<Object[]> availability =
+        List.of(
+            new Object[] {ClaimType.CARRIER.name(), 3L, null, null, null},
+            new Object[] {ClaimType.PDE.name(), 2L, null, null, null});
+    when(mockQuery.getResultList()).thenReturn((List) availability);
+
+    Bundle response =
+        eobProvider.findByPatient(
+            patientParam, null, null, null, null, null, null, null, null, requestDetails);
+
+    assertEquals(5, response.getTotal());
+    assertEquals(0, response.getEntry().size());
+    assertNull(response.getLink(Constants.LINK_NEXT));
+    assertNull(response.getLink(Constants.LINK_LAST));
+    verify(appContext, never()).getBean(PatientClaimsEobTaskTransformerV2.class);
+  }
+
   /**
    * Verifies that {@link R4ExplanationOfBenefitResourceProvider#findByPatient} supports wildcard
    * claim type; returns empty Bundle since we return 0 for claims that have data in db.
@@ -509,7 +538,7 @@ public class R4ExplanationOfBenefitResourceProviderTest {
 
     Bundle response =
         eobProvider.findByPatient(
-            patientParam, listParam, null, null, null, null, null, null, requestDetails);
+            patientParam, listParam, null, null, null, null, null, null, null, requestDetails);
 
     assertNotNull(response);
     assertEquals(0, response.getTotal());
@@ -523,7 +552,7 @@ public class R4ExplanationOfBenefitResourceProviderTest {
   void testFindByPatientSupportsNullClaimTypeV2() {
     Bundle response =
         eobProvider.findByPatient(
-            patientParam, null, null, null, null, null, null, null, requestDetails);
+            patientParam, null, null, null, null, null, null, null, null, requestDetails);
 
     assertNotNull(response);
     assertEquals(0, response.getTotal());
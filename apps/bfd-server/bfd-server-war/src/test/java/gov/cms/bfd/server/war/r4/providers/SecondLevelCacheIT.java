@@ -0,0 +1,125 @@
+package gov.cms.bfd.server.war.r4.providers;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.cms.bfd.model.rif.entities.Beneficiary;
+import gov.cms.bfd.model.rif.samples.StaticRifResource;
+import gov.cms.bfd.server.war.ServerExecutor;
+import gov.cms.bfd.server.war.ServerRequiredTest;
+import gov.cms.bfd.server.war.commons.CommonTransformerUtils;
+import gov.cms.bfd.server.war.commons.LoadedFilterManager;
+import gov.cms.bfd.server.war.commons.MedicareSegment;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.shaded.org.awaitility.Awaitility;
+
+/**
+ * Verifies that the Patient and Coverage reads are served from the second-level cache, which the
+ * test server enables, and that the cached beneficiary is evicted by {@link LoadedFilterManager}
+ * once a load includes the beneficiary.
+ */
+public final class SecondLevelCacheIT extends ServerRequiredTest {
+  /** The last updated time written to the beneficiary without the server knowing about it. */
+  private static final Instant CHANGED_LAST_UPDATED = Instant.parse("2001-02-03T04:05:06Z");
+
+  /** Verifies that Patient reads hit the cache until the beneficiary is loaded again. */
+  @Test
+  public void patientReadIsCachedUntilLoaded() {
+    Beneficiary beneficiary = testUtils.getFirstBeneficiary(testUtils.loadSampleAData());
+
+    assertReadIsCachedUntilLoaded(
+        beneficiary.getBeneficiaryId(),
+        baseServerUrl + "/v2/fhir/Patient/" + beneficiary.getBeneficiaryId());
+  }
+
+  /** Verifies that Coverage reads hit the cache until the beneficiary is loaded again. */
+  @Test
+  public void coverageReadIsCachedUntilLoaded() {
+    Beneficiary beneficiary = testUtils.getFirstBeneficiary(testUtils.loadSampleAData());
+    String coverageId =
+        CommonTransformerUtils.buildCoverageId(MedicareSegment.PART_A, beneficiary).getIdPart();
+
+    assertReadIsCachedUntilLoaded(
+        beneficiary.getBeneficiaryId(), baseServerUrl + "/v2/fhir/Coverage/" + coverageId);
+  }
+
+  /**
+   * Reads a resource, changes the beneficiary's last updated time directly in the database and
+   * verifies that the resource is still read from the cache. Then loads the beneficiary again and
+   * verifies that the cached beneficiary is evicted and the change is read.
+   *
+   * @param beneficiaryId the id of the beneficiary the resource is built from
+   * @param requestString the url of the resource
+   */
+  private void assertReadIsCachedUntilLoaded(long beneficiaryId, String requestString) {
+    final Cache cache = ServerExecutor.getSecondLevelCache().orElseThrow();
+    // A refresh for the sample data after the first read would evict the beneficiary
+    awaitFilterRefresh();
+    assertFalse(cache.containsEntity(Beneficiary.class, beneficiaryId));
+
+    final String cachedLastUpdated = readLastUpdated(requestString);
+    assertTrue(cache.containsEntity(Beneficiary.class, beneficiaryId));
+
+    testUtils.doTransaction(
+        entityManager ->
+            entityManager
+                .createNativeQuery(
+                    "update ccw.beneficiaries set last_updated = :lastUpdated"
+                        + " where bene_id = :beneficiaryId")
+                .setParameter("lastUpdated", Timestamp.from(CHANGED_LAST_UPDATED))
+                .setParameter("beneficiaryId", beneficiaryId)
+                .executeUpdate());
+    assertEquals(cachedLastUpdated, readLastUpdated(requestString));
+
+    testUtils.loadData(List.of(StaticRifResource.SAMPLE_A_BENES));
+    awaitFilterRefresh();
+    assertFalse(cache.containsEntity(Beneficiary.class, beneficiaryId));
+    assertNotEquals(cachedLastUpdated, readLastUpdated(requestString));
+  }
+
+  /**
+   * Waits for the server's {@link LoadedFilterManager} to refresh its filters with every batch in
+   * the database, which is when it evicts the beneficiaries of new batches from the cache.
+   */
+  private void awaitFilterRefresh() {
+    final LoadedFilterManager filterManager =
+        ServerExecutor.getServerBean(LoadedFilterManager.class).orElseThrow();
+    final AtomicReference<Instant> lastBatchCreated = new AtomicReference<>();
+    testUtils.doTransaction(
+        entityManager ->
+            lastBatchCreated.set(
+                entityManager
+                    .createQuery("select max(b.created) from LoadedBatch b", Instant.class)
+                    .getSingleResult()));
+    Awaitility.await()
+        .atMost(10, TimeUnit.SECONDS)
+        .ignoreExceptions()
+        .until(() -> !filterManager.getLastBatchCreated().isBefore(lastBatchCreated.get()));
+  }
+
+  /**
+   * Reads a resource and returns its last updated time.
+   *
+   * @param requestString the url of the resource
+   * @return the resource's {@code meta.lastUpdated}
+   */
+  private String readLastUpdated(String requestString) {
+    return given()
+        .spec(requestAuth)
+        .expect()
+        .statusCode(200)
+        .when()
+        .get(requestString)
+        .jsonPath()
+        .getString("meta.lastUpdated");
+  }
+}
@@ -13,6 +13,8 @@ import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.parser.IParser;
 import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.param.DateParam;
+import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
 import com.codahale.metrics.MetricRegistry;
 import gov.cms.bfd.data.fda.lookup.FdaDrugCodeDisplayLookup;
@@ -27,6 +29,7 @@ import gov.cms.bfd.server.sharedutils.BfdMDC;
 import gov.cms.bfd.server.war.ServerTestUtils;
 import gov.cms.bfd.server.war.commons.C4BBInstutionalClaimSubtypes;
 import gov.cms.bfd.server.war.commons.CCWUtils;
+import gov.cms.bfd.server.war.commons.ClaimAvailability;
 import gov.cms.bfd.server.war.commons.ClaimType;
 import gov.cms.bfd.server.war.commons.OffsetLinkBuilder;
 import gov.cms.bfd.server.war.commons.ProfileConstants;
@@ -46,6 +49,7 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
@@ -1285,4 +1289,81 @@ public class TransformerUtilsV2Test {
     availSet = TransformerUtilsV2.fetchClaimsAvailability(someClaimSet, testVal);
     assertTrue(availSet.contains(ClaimType.CARRIER));
   }
+
+  /**
+   * Verifies that claim types are only selected when requested, when they have data, and when at
+   * least one of their claims can fall within the _lastUpdated and service-date windows.
+   */
+  @Test
+  public void verifyEnumSetFromListOfClaimTypesAndClaimAvailability() {
+    Map<ClaimType, ClaimAvailability> availability = new EnumMap<>(ClaimType.class);
+    availability.put(
+        ClaimType.CARRIER,
+        new ClaimAvailability(
+            ClaimType.CARRIER,
+            10,
+            Instant.parse("2024-01-15T00:00:00Z"),
+            LocalDate.of(2020, 1, 1),
+            LocalDate.of(2021, 6, 30)));
+    availability.put(
+        ClaimType.PDE,
+        new ClaimAvailability(
+            ClaimType.PDE, 3, null, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 12, 31)));
+    EnumSet<ClaimType> allClaimSet = EnumSet.allOf(ClaimType.class);
+
+    // without filters every claim type with data is selected
+    assertEquals(
+        EnumSet.of(ClaimType.CARRIER, ClaimType.PDE),
+        TransformerUtilsV2.fetchClaimsAvailability(
+            allClaimSet, availability, Optional.empty(), Optional.empty()));
+    assertEquals(
+        EnumSet.of(ClaimType.PDE),
+        TransformerUtilsV2.fetchClaimsAvailability(
+            EnumSet.of(ClaimType.PDE, ClaimType.DME),
+            availability,
+            Optional.empty(),
+            Optional.empty()));
+
+    // only carrier has a claim updated after the lower bound
+    assertEquals(
+        EnumSet.of(ClaimType.CARRIER),
+        TransformerUtilsV2.fetchClaimsAvailability(
+            allClaimSet,
+            availability,
+            Optional.of(new DateRangeParam(new DateParam("gt2024-01-01"), null)),
+            Optional.empty()));
+    assertEquals(
+        EnumSet.noneOf(ClaimType.class),
+        TransformerUtilsV2.fetchClaimsAvailability(
+            allClaimSet,
+            availability,
+            Optional.of(new DateRangeParam(new DateParam("gt2024-02-01"), null)),
+            Optional.empty()));
+
+    // claims without a last updated time match a range with only an upper bound
+    assertEquals(
+        EnumSet.of(ClaimType.CARRIER, ClaimType.PDE),
+        TransformerUtilsV2.fetchClaimsAvailability(
+            allClaimSet,
+            availability,
+            Optional.of(new DateRangeParam(null, new DateParam("lt2024-01-01"))),
+            Optional.empty()));
+
+    // service date windows select by overlap with each type's service end date range
+    assertEquals(
+        EnumSet.of(ClaimType.PDE),
+        TransformerUtilsV2.fetchClaimsAvailability(
+            allClaimSet,
+            availability,
+            Optional.empty(),
+            Optional.of(new DateRangeParam(new DateParam("ge2022-06-01"), null))));
+    assertEquals(
+        EnumSet.of(ClaimType.CARRIER),
+        TransformerUtilsV2.fetchClaimsAvailability(
+            allClaimSet,
+            availability,
+            Optional.empty(),
+            Optional.of(
+                new DateRangeParam(new DateParam("ge2021-01-01"), new DateParam("le2021-06-30")))));
+  }
 }
@@ -3,6 +3,7 @@ package gov.cms.bfd.server.war.r4.providers.pac;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.notNullValue;
 
 import gov.cms.bfd.server.war.ServerRequiredTest;
 import gov.cms.bfd.server.war.commons.CommonHeaders;
@@ -185,6 +186,29 @@ public class ClaimE2E extends ServerRequiredTest {
     verifyResponseMatchesFor(requestString, true, "claimSearchWithTaxNumbers", MBI_IGNORE_PATTERNS);
   }
 
+  /**
+   * Verifies that a search for {@link Claim}s with {@code _summary=count} returns only the number
+   * of claims the same search would return, along with the bundle's lastUpdated.
+   */
+  @Test
+  public void shouldGetClaimCountByMbiHashWithSummaryCount() {
+    String requestString =
+        claimEndpoint
+            + "?mbi="
+            + RDATestUtils.MBI_HASH
+            + "&service-date=gt1970-07-18&service-date=lt1970-07-25&_summary=count";
+
+    given()
+        .spec(requestAuth)
+        .expect()
+        .body("total", equalTo(2))
+        .body("entry", equalTo(null))
+        .body("meta.lastUpdated", notNullValue())
+        .statusCode(200)
+        .when()
+        .get(requestString);
+  }
+
   /**
    * Tests to see if the correct paginated response is given when a search is done for {@link
    * Claim}s using given mbi and service-date range. In this test case the query finds the matched
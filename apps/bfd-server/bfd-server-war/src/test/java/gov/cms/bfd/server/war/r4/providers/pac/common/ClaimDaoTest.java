@@ -3,6 +3,7 @@ package gov.cms.bfd.server.war.r4.providers.pac.common;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -10,9 +11,12 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -26,7 +30,10 @@ import gov.cms.bfd.model.rda.entities.RdaFissClaim;
 import gov.cms.bfd.model.rda.entities.RdaMcsClaim;
 import gov.cms.bfd.server.war.r4.providers.pac.AbstractResourceTypeV2;
 import gov.cms.bfd.server.war.r4.providers.pac.ClaimTypeV2;
+import gov.cms.model.dsl.codegen.library.EntityRowMapper;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
@@ -34,12 +41,20 @@ import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
+import org.hibernate.Transaction;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jdbc.ReturningWork;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -588,6 +603,120 @@ class ClaimDaoTest {
     assertSame(combinedPredicate, dao.createMbiPredicate(root, searchString, true, mockBuilder));
   }
 
+  /**
+   * Verifies that {@link ClaimDao#findAllByMbiAttribute} reads the matching {@link Mbi} records and
+   * then their claims using JDBC when enabled and the resource type has a row mapper.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldFindAllByMbiAttributeWithJdbc() throws Exception {
+    final Connection connection = mockJdbcConnection();
+    final PreparedStatement mbiStatement = mock(PreparedStatement.class);
+    final ResultSet mbiRows = mock(ResultSet.class);
+    doReturn(mbiStatement)
+        .when(connection)
+        .prepareStatement(ClaimDao.MBI_SELECT_SQL + " where hash = ? or old_hash = ?");
+    doReturn(mbiRows).when(mbiStatement).executeQuery();
+    doReturn(true, false).when(mbiRows).next();
+    doReturn(7L).when(mbiRows).getLong(1);
+
+    final EntityRowMapper<Long> rowMapper = mockRowMapper();
+    final List<Mbi> mbiRecords = new ArrayList<>();
+    final var jdbcClaimType =
+        new JdbcMockClaimType(rowMapper, (entity, mbi) -> mbiRecords.add(mbi));
+    doReturn(new ArrayList<>(List.of(5L, 6L)))
+        .when(rowMapper)
+        .readAll(any(Connection.class), anyString(), any());
+
+    final ClaimDao dao = new ClaimDao(mockEntityManager, metricRegistry, true, true);
+    final List<Long> actual =
+        dao.findAllByMbiAttribute(jdbcClaimType, "hashed", true, LastUpdated, ServiceDate);
+
+    final ArgumentCaptor<String> clauses = ArgumentCaptor.forClass(String.class);
+    final ArgumentCaptor<List<?>> parameters = ArgumentCaptor.forClass(List.class);
+    verify(rowMapper).readAll(any(Connection.class), clauses.capture(), parameters.capture());
+    assertEquals(
+        "where mbi_id = ? and last_updated > ?"
+            + " and ((end_date is not null and end_date > ?)) order by claim_id",
+        clauses.getValue());
+    assertEquals(7L, parameters.getValue().getFirst());
+    verify(mbiStatement).setString(1, "hashed");
+    verify(mbiStatement).setString(2, "hashed");
+    assertEquals(List.of(5L, 6L), actual);
+    assertEquals(2, mbiRecords.size());
+    assertEquals(7L, mbiRecords.getFirst().getMbiId());
+    verify(mockEntityManager, never()).getCriteriaBuilder();
+  }
+
+  /**
+   * Verifies that {@link ClaimDao#getEntityById} throws {@link NoResultException} when no claim is
+   * found using JDBC, just as JPA does.
+   *
+   * @throws Exception pass through from method signatures
+   */
+  @Test
+  void shouldThrowWhenEntityNotFoundWithJdbc() throws Exception {
+    final Connection connection = mockJdbcConnection();
+    final PreparedStatement mbiStatement = mock(PreparedStatement.class);
+    doReturn(mbiStatement).when(connection).prepareStatement(anyString());
+    doReturn(mock(ResultSet.class)).when(mbiStatement).executeQuery();
+
+    final EntityRowMapper<Long> rowMapper = mockRowMapper();
+    doReturn("ccw.claims").when(rowMapper).getTableName();
+    doReturn(new ArrayList<>())
+        .when(rowMapper)
+        .readAll(
+            any(Connection.class), eq("where claim_id = ? order by claim_id"), eq(List.of("123")));
+
+    final ClaimDao dao = new ClaimDao(mockEntityManager, metricRegistry, false, true);
+    assertThrows(
+        NoResultException.class,
+        () -> dao.getEntityById(new JdbcMockClaimType(rowMapper, (entity, mbi) -> {}), "123"));
+    verify(connection)
+        .prepareStatement(
+            ClaimDao.MBI_SELECT_SQL
+                + " where mbi_id in (select mbi_id from ccw.claims where claim_id = ?)");
+  }
+
+  /**
+   * Sets up {@link #mockEntityManager} so that JDBC work is passed a mock {@link Connection}. The
+   * work actually receives a wrapper that applies the transaction timeout, so the row mappers are
+   * matched with any connection while statements are verified on the returned one.
+   *
+   * @return the connection
+   */
+  private Connection mockJdbcConnection() {
+    final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+    final EntityManager queryEntityManager = mock(EntityManager.class);
+    final SessionImplementor session = mock(SessionImplementor.class);
+    final Connection connection = mock(Connection.class);
+    doReturn(entityManagerFactory).when(mockEntityManager).getEntityManagerFactory();
+    doReturn(queryEntityManager).when(entityManagerFactory).createEntityManager();
+    doReturn(session).when(queryEntityManager).unwrap(SessionImplementor.class);
+    doReturn(mock(Transaction.class)).when(session).getTransaction();
+    lenient().doReturn(mock(JdbcCoordinator.class)).when(session).getJdbcCoordinator();
+    doAnswer(invocation -> invocation.<ReturningWork<?>>getArgument(0).execute(connection))
+        .when(session)
+        .doReturningWork(any());
+    return connection;
+  }
+
+  /**
+   * Creates a mock {@link EntityRowMapper} that knows the columns of {@link JdbcMockClaimType}.
+   *
+   * @return the mock
+   */
+  @SuppressWarnings("unchecked")
+  private EntityRowMapper<Long> mockRowMapper() {
+    final EntityRowMapper<Long> rowMapper = mock(EntityRowMapper.class);
+    lenient().doReturn("claim_id").when(rowMapper).getColumnName("somePropertyName");
+    lenient().doReturn("mbi_id").when(rowMapper).getColumnName(ClaimDao.MBI_ID_FIELD);
+    lenient().doReturn("last_updated").when(rowMapper).getColumnName(ClaimDao.LAST_UPDATED_FIELD);
+    lenient().doReturn("end_date").when(rowMapper).getColumnName("endDateAttribute");
+    return rowMapper;
+  }
+
   /** A helper class to use for testing methods in place of actual resources. */
   private static class MockClaimType extends AbstractResourceTypeV2<IBaseResource, Long> {
     /** A mock claim type for testing. */
@@ -602,6 +731,28 @@ class ClaimDaoTest {
     }
   }
 
+  /** A helper class like {@link MockClaimType} whose entities can be read using JDBC. */
+  private static class JdbcMockClaimType extends AbstractResourceTypeV2<IBaseResource, Long> {
+    /**
+     * A mock claim type for testing.
+     *
+     * @param rowMapper reads the entities
+     * @param mbiRecordSetter sets the MBI of entities
+     */
+    public JdbcMockClaimType(
+        EntityRowMapper<Long> rowMapper, BiConsumer<Long, Mbi> mbiRecordSetter) {
+      super(
+          "mock",
+          "mockType",
+          Long.class,
+          "mbiAttribute",
+          "somePropertyName",
+          List.of("endDateAttribute"),
+          rowMapper,
+          mbiRecordSetter);
+    }
+  }
+
   /**
    * Parameter object defining a test case for {@link ClaimDaoTest#testMbiLookup}.
    *
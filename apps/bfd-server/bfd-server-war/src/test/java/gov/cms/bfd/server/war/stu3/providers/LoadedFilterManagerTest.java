@@ -4,12 +4,22 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import gov.cms.bfd.model.rif.LoadedBatch;
 import gov.cms.bfd.model.rif.LoadedFile;
+import gov.cms.bfd.model.rif.entities.Beneficiary;
+import gov.cms.bfd.server.war.ReplicaRoutingDataSource;
 import gov.cms.bfd.server.war.commons.LoadedFileFilter;
 import gov.cms.bfd.server.war.commons.LoadedFilterManager;
+import gov.cms.bfd.server.war.commons.LoadedFilterSnapshot;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.sql.SQLException;
 import java.text.ParseException;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -22,6 +32,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import org.hibernate.Cache;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -273,6 +284,127 @@ public final class LoadedFilterManagerTest {
     assertSame(bFilters.get(0), aFilters.get(0));
   }
 
+  /** Tests that only the beneficiaries of batches created after the given time are evicted. */
+  @Test
+  public void testEvictBeneficiaries() {
+    final LoadedBatch oldBatch = new LoadedBatch(1, 1, List.of(1L, 2L), preDates[1]);
+    final LoadedBatch newBatch = new LoadedBatch(2, 1, List.of(3L, 4L), preDates[3]);
+    final Cache cache = mock(Cache.class);
+
+    assertEquals(
+        2, LoadedFilterManager.evictBeneficiaries(cache, List.of(oldBatch, newBatch), preDates[2]));
+
+    verify(cache).evictEntityData(Beneficiary.class, 3L);
+    verify(cache).evictEntityData(Beneficiary.class, 4L);
+    verifyNoMoreInteractions(cache);
+  }
+
+  /**
+   * Tests that filters are built from batches written before the binary beneficiary encoding was
+   * added as well as from those written after.
+   */
+  @Test
+  public void buildFilterFromLegacyAndEncodedBatches() {
+    final LoadedBatch legacyBatch = new LoadedBatch(1, 1, "5,-7", null, preDates[1]);
+    final LoadedBatch encodedBatch = new LoadedBatch(2, 1, List.of(11L, -13L), preDates[3]);
+
+    final LoadedFileFilter filter =
+        LoadedFilterManager.buildFilter(1, preDates[0], id -> List.of(legacyBatch, encodedBatch));
+    for (long beneficiary : List.of(5L, -7L, 11L, -13L)) {
+      assertTrue(filter.mightContain(beneficiary));
+    }
+    assertEquals(preDates[3], filter.getLastUpdated());
+    assertEquals(List.of(5L, -7L), legacyBatch.getBeneficiariesAsList());
+    assertEquals(List.of(-13L, 11L), encodedBatch.getBeneficiariesAsList());
+  }
+
+  /**
+   * Tests that a snapshot is only used when its bounds and files are consistent with the database.
+   */
+  @Test
+  public void testIsSnapshotUsable() {
+    final MockDb mockDb =
+        new MockDb()
+            .insert(1, preDates[1])
+            .insert(2, preDates[11])
+            .insert(preBatches[0], preBatches[1], preBatches[2]);
+    final List<LoadedFileFilter> filters =
+        LoadedFilterManager.buildFilters(mockDb.fetchAllTuples(), mockDb::fetchById);
+    final LoadedFilterSnapshot snapshot =
+        new LoadedFilterSnapshot(filters, preDates[4], preDates[14]);
+    final List<LoadedFile> files = mockDb.fetchAllFiles();
+
+    // matches the database exactly or the database has newer batches
+    assertTrue(LoadedFilterManager.isSnapshotUsable(snapshot, preDates[4], preDates[14], files));
+    assertTrue(LoadedFilterManager.isSnapshotUsable(snapshot, preDates[4], preDates[19], files));
+
+    // covers batches the database does not have
+    assertFalse(LoadedFilterManager.isSnapshotUsable(snapshot, preDates[4], preDates[9], files));
+
+    // the database has batches older than the snapshot
+    assertFalse(LoadedFilterManager.isSnapshotUsable(snapshot, preDates[3], preDates[14], files));
+
+    // a file was replaced by one with the same id
+    final List<LoadedFile> replaced =
+        List.of(files.get(0), new LoadedFile(2, "BENEFICIARY", preDates[12]));
+    assertFalse(
+        LoadedFilterManager.isSnapshotUsable(snapshot, preDates[4], preDates[14], replaced));
+
+    // a file was removed, which is only expected when the first batch has moved
+    final List<LoadedFile> trimmed = List.of(files.get(1));
+    assertFalse(LoadedFilterManager.isSnapshotUsable(snapshot, preDates[4], preDates[14], trimmed));
+    assertTrue(LoadedFilterManager.isSnapshotUsable(snapshot, preDates[14], preDates[14], trimmed));
+  }
+
+  /**
+   * Validates that the transaction time is capped at the latest batch of a lagging read replica and
+   * that the replica is then only used while it has the batches up to that time.
+   *
+   * @throws SQLException required by the JDBC API, never thrown
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void capTransactionTimeAtLaggingReplica() throws SQLException {
+    final Instant primaryLatest = preDates[10];
+    final Instant replicaLatest = preDates[5];
+    final EntityManager entityManager = mock(EntityManager.class);
+    final TypedQuery<Instant> maxCreatedQuery = mock(TypedQuery.class);
+    when(entityManager.createQuery("select max(b.created) from LoadedBatch b", Instant.class))
+        .thenReturn(maxCreatedQuery);
+    when(maxCreatedQuery.getSingleResult()).thenReturn(primaryLatest);
+    final ReplicaRoutingDataSource dataSource = mock(ReplicaRoutingDataSource.class);
+    when(dataSource.isWrapperFor(ReplicaRoutingDataSource.class)).thenReturn(true);
+    when(dataSource.unwrap(ReplicaRoutingDataSource.class)).thenReturn(dataSource);
+    when(dataSource.getReplicatedBatchCreated()).thenReturn(Optional.of(replicaLatest));
+
+    final LoadedFilterManager filterManager = new LoadedFilterManager();
+    filterManager.setEntityManager(entityManager);
+    filterManager.setDataSource(dataSource);
+    filterManager.init();
+
+    assertEquals(replicaLatest, filterManager.getTransactionTime());
+    verify(dataSource).requireBatchCreated(replicaLatest);
+
+    // once requests are only served by the primary its latest batch is used
+    when(dataSource.getReplicatedBatchCreated()).thenReturn(Optional.empty());
+    filterManager.init();
+    assertEquals(primaryLatest, filterManager.getTransactionTime());
+    verify(dataSource).requireBatchCreated(primaryLatest);
+  }
+
+  /** Validates that the served batch time is the earlier of the primary and replica times. */
+  @Test
+  public void latestServedBatchCreated() {
+    assertEquals(
+        preDates[5],
+        LoadedFilterManager.latestServedBatchCreated(preDates[10], Optional.of(preDates[5])));
+    assertEquals(
+        preDates[10],
+        LoadedFilterManager.latestServedBatchCreated(preDates[10], Optional.of(preDates[12])));
+    assertEquals(
+        preDates[10], LoadedFilterManager.latestServedBatchCreated(preDates[10], Optional.empty()));
+  }
+
   /** Helper class that mocks a DB for LoadedFilterManager testing. */
   private static class MockDb {
     /** Batches for loading. */
@@ -33,6 +33,7 @@ import gov.cms.bfd.server.war.commons.ClaimType;
 import gov.cms.bfd.server.war.commons.TransformerConstants;
 import gov.cms.bfd.sharedutils.exceptions.BadCodeMonkeyException;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
@@ -43,6 +44,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.hl7.fhir.dstu3.model.CodeableConcept;
 import org.hl7.fhir.dstu3.model.Coding;
 import org.hl7.fhir.dstu3.model.ExplanationOfBenefit;
@@ -579,6 +582,13 @@ class PatientClaimsEobTaskTransformerTest {
     when(clmMockCriteria.from(any(Class.class))).thenReturn(clmRoot);
     when(clmRoot.get(isNull(SingularAttribute.class))).thenReturn(clmMockPath);
     when(em.createQuery(clmMockCriteria)).thenReturn(clmMockQuery);
+    // claims are queried in their own session, which is the mocked entity manager here
+    EntityManagerFactory clmEntityManagerFactory = mock(EntityManagerFactory.class);
+    SessionImplementor clmSession = mock(SessionImplementor.class);
+    when(em.getEntityManagerFactory()).thenReturn(clmEntityManagerFactory);
+    when(clmEntityManagerFactory.createEntityManager()).thenReturn(em);
+    when(em.unwrap(SessionImplementor.class)).thenReturn(clmSession);
+    when(clmSession.getPersistenceContextInternal()).thenReturn(mock(PersistenceContext.class));
     when(clmMockQuery.setHint(any(), anyBoolean())).thenReturn(clmMockQuery);
     when(clmMockQuery.setMaxResults(anyInt())).thenReturn(clmMockQuery);
     when(clmMockQuery.setParameter(anyString(), any())).thenReturn(clmMockQuery);